@@ -15,44 +15,130 @@
  */
 package org.wso2.charon3.core.attributes;
 
+import org.wso2.charon3.core.schema.AttributeSchema;
 import org.wso2.charon3.core.schema.SCIMDefinitions;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class abstracts out the common characteristics of different types of attributes defined in
  * SCIM Core Schema Spec.
+ * <p>
+ * An attribute created by the {@link DefaultAttributeFactory} reads its characteristics from the attribute schema it
+ * was created with, which is shared by all the attributes of the schema and must not be modified once attributes are
+ * created from it. Setting a characteristic on the attribute itself gives the attribute its own copy of them.
+ * The deprecated protected fields hold the characteristics only while the attribute holds its own copy of them, so
+ * subclasses should use the accessors instead.
+ * <p>
+ * The serialized form is the one of the attributes that held their own characteristics, so attributes serialized
+ * by earlier versions can still be read. A deserialized attribute is attached to the schema of its URI again, if
+ * its characteristics match the ones of the schema.
 */
 public abstract class AbstractAttribute implements Attribute {
 
-    //unique identifier for the attribute
+    private static final long serialVersionUID = 3808102487435527230L;
+
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("uri", String.class),
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("type", SCIMDefinitions.DataType.class),
+            new ObjectStreamField("multiValued", Boolean.class),
+            new ObjectStreamField("description", String.class),
+            new ObjectStreamField("required", Boolean.class),
+            new ObjectStreamField("caseExact", Boolean.class),
+            new ObjectStreamField("mutability", SCIMDefinitions.Mutability.class),
+            new ObjectStreamField("returned", SCIMDefinitions.Returned.class),
+            new ObjectStreamField("uniqueness", SCIMDefinitions.Uniqueness.class),
+            new ObjectStreamField("additionalAttributeProperties", Map.class)
+    };
+
+    //schemas attributes were created with, by URI, to attach deserialized attributes to.
+    private static final Map<String, AttributeSchema> ATTRIBUTE_SCHEMAS = new ConcurrentHashMap<>();
+
+    //unique identifier for the attribute, if the attribute holds its own characteristics.
+    @Deprecated
     protected String uri;
     //name of the attribute
     protected String name;
-    //data type of the attribute
+    //data type of the attribute, set once the value is known to be of that type.
     protected SCIMDefinitions.DataType type = null;
-    //Boolean value indicating the attribute's plurality.
+    //Boolean value indicating the attribute's plurality, if the attribute holds its own characteristics.
+    @Deprecated
     protected Boolean multiValued;
-    //The attribute's human readable description
+    //The attribute's human readable description, if the attribute holds its own characteristics.
+    @Deprecated
     protected String description;
-    //A Boolean value that specifies if the attribute is required
+    //A Boolean value that specifies if the attribute is required, if the attribute holds its own characteristics.
+    @Deprecated
     protected Boolean required;
-    //A Boolean value that specifies if the String attribute is case sensitive
+    //A Boolean value that specifies if the String attribute is case sensitive, if the attribute holds its own
+    //characteristics.
+    @Deprecated
     protected Boolean caseExact;
-    //A SCIM defined value that specifies if the attribute's mutability.
+    //A SCIM defined value that specifies if the attribute's mutability, if the attribute holds its own
+    //characteristics.
+    @Deprecated
     protected SCIMDefinitions.Mutability mutability;
-    //A SCIM defined value that specifies when the attribute's value need to be returned.
+    //A SCIM defined value that specifies when the attribute's value need to be returned, if the attribute holds its
+    //own characteristics.
+    @Deprecated
     protected SCIMDefinitions.Returned returned;
-    //A SCIM defined value that specifies the uniqueness level of an attribute.
+    //A SCIM defined value that specifies the uniqueness level of an attribute, if the attribute holds its own
+    //characteristics.
+    @Deprecated
     protected SCIMDefinitions.Uniqueness uniqueness;
-    //A container to hold custom attribute properties.
-    protected Map<String, String> additionalAttributeProperties = new HashMap<>();
+    //A container to hold custom attribute properties, created when the first property is added.
+    @Deprecated
+    protected Map<String, String> additionalAttributeProperties;
+    //schema the characteristics of the attribute are read from, null if the attribute holds its own.
+    private transient AttributeSchema attributeSchema;
+
+    /**
+     * Returns the schema the attribute reads its characteristics from.
+     *
+     * @return Attribute schema, null if the attribute was not created from a schema or holds its own
+     * characteristics.
+     */
+    public AttributeSchema getAttributeSchema() {
+
+        return attributeSchema;
+    }
+
+    /**
+     * Make the attribute read its characteristics from the given schema, dropping the ones set on the attribute.
+     *
+     * @param attributeSchema Attribute schema.
+     */
+    public void setAttributeSchema(AttributeSchema attributeSchema) {
+
+        this.attributeSchema = attributeSchema;
+        uri = null;
+        multiValued = null;
+        description = null;
+        required = null;
+        caseExact = null;
+        mutability = null;
+        returned = null;
+        uniqueness = null;
+        String schemaURI = attributeSchema.getURI();
+        if (schemaURI != null && ATTRIBUTE_SCHEMAS.get(schemaURI) != attributeSchema) {
+            ATTRIBUTE_SCHEMAS.put(schemaURI, attributeSchema);
+        }
+    }
 
     public String getURI() {
-        return uri; }
+        return attributeSchema != null ? attributeSchema.getURI() : uri; }
 
     public void setURI(String uri) {
+        ownCharacteristics();
         this.uri = uri; }
 
     public String getName() {
@@ -72,77 +158,165 @@ public abstract class AbstractAttribute implements Attribute {
     }
 
     public Boolean getMultiValued() {
-        return multiValued;
+        return attributeSchema != null ? Boolean.valueOf(attributeSchema.getMultiValued()) : multiValued;
     }
 
     public void setMultiValued(Boolean multiValued) {
+        ownCharacteristics();
         this.multiValued = multiValued;
     }
 
     public String getDescription() {
-        return description;
+        return attributeSchema != null ? attributeSchema.getDescription() : description;
     }
 
     public void setDescription(String description) {
+        ownCharacteristics();
         this.description = description;
     }
 
     public Boolean getRequired() {
-        return required;
+        return attributeSchema != null ? Boolean.valueOf(attributeSchema.getRequired()) : required;
     }
 
     public void setRequired(Boolean required) {
+        ownCharacteristics();
         this.required = required;
     }
 
     public Boolean getCaseExact() {
-        return caseExact;
+        return attributeSchema != null ? Boolean.valueOf(attributeSchema.getCaseExact()) : caseExact;
     }
 
     public void setCaseExact(Boolean caseExact) {
+        ownCharacteristics();
         this.caseExact = caseExact;
     }
 
     public SCIMDefinitions.Mutability getMutability() {
-        return mutability;
+        return attributeSchema != null ? attributeSchema.getMutability() : mutability;
     }
 
     public void setMutability(SCIMDefinitions.Mutability mutability) {
+        ownCharacteristics();
         this.mutability = mutability;
     }
 
     public SCIMDefinitions.Returned getReturned() {
-        return returned; }
+        return attributeSchema != null ? attributeSchema.getReturned() : returned; }
 
     public void setReturned(SCIMDefinitions.Returned returned) {
+        ownCharacteristics();
         this.returned = returned;
     }
 
     public SCIMDefinitions.Uniqueness getUniqueness() {
-        return uniqueness;
+        return attributeSchema != null ? attributeSchema.getUniqueness() : uniqueness;
     }
 
     public void setUniqueness(SCIMDefinitions.Uniqueness uniqueness) {
+        ownCharacteristics();
         this.uniqueness = uniqueness;
     }
 
     public String getAttributeProperty(String propertyName) {
 
-        return additionalAttributeProperties.get(propertyName);
+        return additionalAttributeProperties == null ? null : additionalAttributeProperties.get(propertyName);
     }
 
     public Map<String, String> getAttributeProperties() {
 
-        return additionalAttributeProperties;
+        return additionalAttributeProperties == null ? Collections.emptyMap() : additionalAttributeProperties;
     }
 
     public void addAttributeProperty(String propertyName, String propertyValue) {
 
+        if (additionalAttributeProperties == null) {
+            additionalAttributeProperties = new HashMap<>();
+        }
         this.additionalAttributeProperties.put(propertyName, propertyValue);
     }
 
     public String removeAttributeProperty(String propertyName) {
 
-        return additionalAttributeProperties.remove(propertyName);
+        return additionalAttributeProperties == null ? null : additionalAttributeProperties.remove(propertyName);
+    }
+
+    /*
+     * Copy the characteristics of the schema to the attribute, before one of them is set on the attribute.
+     */
+    private void ownCharacteristics() {
+
+        AttributeSchema schema = attributeSchema;
+        if (schema != null) {
+            uri = schema.getURI();
+            multiValued = schema.getMultiValued();
+            description = schema.getDescription();
+            required = schema.getRequired();
+            caseExact = schema.getCaseExact();
+            mutability = schema.getMutability();
+            returned = schema.getReturned();
+            uniqueness = schema.getUniqueness();
+            attributeSchema = null;
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("uri", getURI());
+        fields.put("name", name);
+        fields.put("type", type);
+        fields.put("multiValued", getMultiValued());
+        fields.put("description", getDescription());
+        fields.put("required", getRequired());
+        fields.put("caseExact", getCaseExact());
+        fields.put("mutability", getMutability());
+        fields.put("returned", getReturned());
+        fields.put("uniqueness", getUniqueness());
+        // Earlier versions expect a map in every attribute.
+        fields.put("additionalAttributeProperties", additionalAttributeProperties == null ?
+                new HashMap<String, String>() : additionalAttributeProperties);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        type = (SCIMDefinitions.DataType) fields.get("type", null);
+        uri = (String) fields.get("uri", null);
+        multiValued = (Boolean) fields.get("multiValued", null);
+        description = (String) fields.get("description", null);
+        required = (Boolean) fields.get("required", null);
+        caseExact = (Boolean) fields.get("caseExact", null);
+        mutability = (SCIMDefinitions.Mutability) fields.get("mutability", null);
+        returned = (SCIMDefinitions.Returned) fields.get("returned", null);
+        uniqueness = (SCIMDefinitions.Uniqueness) fields.get("uniqueness", null);
+        Map<String, String> properties = (Map<String, String>) fields.get("additionalAttributeProperties", null);
+        if (properties != null && !properties.isEmpty()) {
+            additionalAttributeProperties = properties;
+        }
+
+        AttributeSchema schema = uri == null ? null : ATTRIBUTE_SCHEMAS.get(uri);
+        if (schema != null && hasCharacteristicsOf(schema)) {
+            setAttributeSchema(schema);
+        }
+    }
+
+    /*
+     * Check whether the characteristics held by the attribute are the ones of the given schema.
+     */
+    private boolean hasCharacteristicsOf(AttributeSchema schema) {
+
+        return Objects.equals(uri, schema.getURI())
+                && Objects.equals(multiValued, schema.getMultiValued())
+                && Objects.equals(description, schema.getDescription())
+                && Objects.equals(required, schema.getRequired())
+                && Objects.equals(caseExact, schema.getCaseExact())
+                && mutability == schema.getMutability()
+                && returned == schema.getReturned()
+                && uniqueness == schema.getUniqueness();
     }
 }
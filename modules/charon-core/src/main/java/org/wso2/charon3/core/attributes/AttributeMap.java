@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.attributes;
+
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMAttributeSchema;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Attributes of a SCIM object or a complex attribute, by name.
+ * <p>
+ * The attributes are held in small arrays, ordered by the ordinal of their schema
+ * ({@link SCIMAttributeSchema#getOrdinal()}), so they iterate in the order they are defined in the schema. Attributes
+ * without a schema follow, in the order they were added. An object or a complex value has a few attributes, whose
+ * names are mostly the schema constants, so they are looked up by comparing the names rather than by hashing them.
+ */
+public class AttributeMap extends AbstractMap<String, Attribute> implements Serializable {
+
+    private static final long serialVersionUID = -4330264585437316587L;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private transient String[] names;
+    private transient Attribute[] attributes;
+    private transient int[] ordinals;
+    private transient int size;
+    private transient int modCount;
+    private transient Set<Map.Entry<String, Attribute>> entrySet;
+
+    public AttributeMap() {
+
+        this(INITIAL_CAPACITY);
+    }
+
+    public AttributeMap(int initialCapacity) {
+
+        init(Math.max(initialCapacity, 1));
+    }
+
+    public AttributeMap(Map<String, ? extends Attribute> attributes) {
+
+        this(attributes.size());
+        putAll(attributes);
+    }
+
+    @Override
+    public int size() {
+
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public Attribute get(Object name) {
+
+        int index = indexOf(name);
+        return index >= 0 ? attributes[index] : null;
+    }
+
+    @Override
+    public Attribute put(String name, Attribute attribute) {
+
+        int ordinal = ordinalOf(attribute);
+        int index = indexOf(name);
+        if (index >= 0) {
+            Attribute previous = attributes[index];
+            if (ordinals[index] == ordinal) {
+                attributes[index] = attribute;
+                return previous;
+            }
+            removeAt(index);
+            insert(name, attribute, ordinal);
+            return previous;
+        }
+        insert(name, attribute, ordinal);
+        return null;
+    }
+
+    @Override
+    public Attribute remove(Object name) {
+
+        int index = indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        Attribute previous = attributes[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(attributes, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Attribute>> entrySet() {
+
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns the ordinal an attribute is ordered by, the one of its schema.
+     *
+     * @param attribute Attribute.
+     * @return Ordinal, {@link Integer#MAX_VALUE} if the attribute has no schema.
+     */
+    static int ordinalOf(Attribute attribute) {
+
+        if (attribute instanceof AbstractAttribute) {
+            AttributeSchema attributeSchema = ((AbstractAttribute) attribute).getAttributeSchema();
+            if (attributeSchema instanceof SCIMAttributeSchema) {
+                return ((SCIMAttributeSchema) attributeSchema).getOrdinal();
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private void init(int capacity) {
+
+        names = new String[capacity];
+        attributes = new Attribute[capacity];
+        ordinals = new int[capacity];
+        size = 0;
+    }
+
+    private int indexOf(Object name) {
+
+        for (int i = 0; i < size; i++) {
+            if (name != null && name.equals(names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(String name, Attribute attribute, int ordinal) {
+
+        if (size == names.length) {
+            int capacity = size * 2;
+            names = Arrays.copyOf(names, capacity);
+            attributes = Arrays.copyOf(attributes, capacity);
+            ordinals = Arrays.copyOf(ordinals, capacity);
+        }
+        int index = size;
+        while (index > 0 && ordinals[index - 1] > ordinal) {
+            index--;
+        }
+        System.arraycopy(names, index, names, index + 1, size - index);
+        System.arraycopy(attributes, index, attributes, index + 1, size - index);
+        System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+        names[index] = name;
+        attributes[index] = attribute;
+        ordinals[index] = ordinal;
+        size++;
+        modCount++;
+    }
+
+    private void removeAt(int index) {
+
+        int moved = size - index - 1;
+        System.arraycopy(names, index + 1, names, index, moved);
+        System.arraycopy(attributes, index + 1, attributes, index, moved);
+        System.arraycopy(ordinals, index + 1, ordinals, index, moved);
+        size--;
+        names[size] = null;
+        attributes[size] = null;
+        modCount++;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(names[i]);
+            out.writeObject(attributes[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new InvalidObjectException("Illegal attribute count : " + count);
+        }
+        init(Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            put((String) in.readObject(), (Attribute) in.readObject());
+        }
+    }
+
+    /**
+     * View of the attributes as map entries, in the order of the map.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<String, Attribute>> {
+
+        @Override
+        public int size() {
+
+            return size;
+        }
+
+        @Override
+        public void clear() {
+
+            AttributeMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Attribute>> iterator() {
+
+            return new Iterator<Map.Entry<String, Attribute>>() {
+
+                private int next;
+                private int last = -1;
+                private int expectedModCount = modCount;
+
+                @Override
+                public boolean hasNext() {
+
+                    return next < size;
+                }
+
+                @Override
+                public Map.Entry<String, Attribute> next() {
+
+                    checkForComodification();
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next++;
+                    return new Entry(last);
+                }
+
+                @Override
+                public void remove() {
+
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    checkForComodification();
+                    removeAt(last);
+                    next = last;
+                    last = -1;
+                    expectedModCount = modCount;
+                }
+
+                private void checkForComodification() {
+
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * An attribute of the map, read through to the arrays.
+     */
+    private class Entry implements Map.Entry<String, Attribute> {
+
+        private final String name;
+        private int index;
+
+        Entry(int index) {
+
+            this.name = names[index];
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+
+            return name;
+        }
+
+        @Override
+        public Attribute getValue() {
+
+            return locate() ? attributes[index] : null;
+        }
+
+        @Override
+        public Attribute setValue(Attribute attribute) {
+
+            if (!locate()) {
+                throw new IllegalStateException("Attribute removed from the map : " + name);
+            }
+            Attribute previous = attributes[index];
+            attributes[index] = attribute;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+            return Objects.equals(name, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hashCode(name) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+
+            return name + "=" + getValue();
+        }
+
+        /*
+         * Entries may move within the arrays when other attributes are added or removed.
+         */
+        private boolean locate() {
+
+            if (index < size && Objects.equals(names[index], name)) {
+                return true;
+            }
+            index = indexOf(name);
+            return index >= 0;
+        }
+    }
+}
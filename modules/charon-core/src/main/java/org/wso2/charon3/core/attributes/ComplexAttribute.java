@@ -17,7 +17,8 @@ package org.wso2.charon3.core.attributes;
 
 import org.wso2.charon3.core.exceptions.CharonException;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Map;
 
 /**
@@ -27,7 +28,7 @@ public class ComplexAttribute extends AbstractAttribute {
 
     private static final long serialVersionUID = 6106269076155338045L;
     //If it is a complex attribute, it has a list of sub attributes.
-    protected Map<String, Attribute> subAttributesList = new HashMap<String, Attribute>();
+    protected Map<String, Attribute> subAttributesList = new AttributeMap();
 
     public ComplexAttribute(String name) {
         this.name = name; }
@@ -105,4 +106,13 @@ public class ComplexAttribute extends AbstractAttribute {
             throws CharonException {
         subAttributesList.put(subAttribute.getName(), subAttribute);
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+        // Complex attributes serialized by earlier versions hold their sub attributes in a hash map.
+        if (subAttributesList != null && !(subAttributesList instanceof AttributeMap)) {
+            subAttributesList = new AttributeMap(subAttributesList);
+        }
     }
+}
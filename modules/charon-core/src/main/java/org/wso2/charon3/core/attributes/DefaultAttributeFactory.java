@@ -38,14 +38,8 @@ public class DefaultAttributeFactory {
     public static Attribute createAttribute(AttributeSchema attributeSchema,
                                             AbstractAttribute attribute) throws CharonException, BadRequestException {
 
-        attribute.setMutability(attributeSchema.getMutability());
-        attribute.setRequired(attributeSchema.getRequired());
-        attribute.setReturned(attributeSchema.getReturned());
-        attribute.setCaseExact(attributeSchema.getCaseExact());
-        attribute.setMultiValued(attributeSchema.getMultiValued());
-        attribute.setDescription(attributeSchema.getDescription());
-        attribute.setUniqueness(attributeSchema.getUniqueness());
-        attribute.setURI(attributeSchema.getURI());
+        //the attribute reads its characteristics from the schema, instead of holding a copy of them.
+        attribute.setAttributeSchema(attributeSchema);
 
         //Default attribute factory knows about SCIMAttribute schema
         try {
@@ -17,12 +17,17 @@ package org.wso2.charon3.core.config;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class contains the charon related configurations.
  */
 public class CharonConfiguration implements Configuration {
 
+    //default number of ids looked up in one call to the user manager
+    public static final int DEFAULT_REFERENCE_BATCH_SIZE = 100;
+
     private static CharonConfiguration charonConfiguration = new CharonConfiguration();
 
     private boolean patchSupport;
@@ -39,6 +44,11 @@ public class CharonConfiguration implements Configuration {
 
     //default count value for pagination
     private int count;
+    private int referenceBatchSize = DEFAULT_REFERENCE_BATCH_SIZE;
+    private boolean fullPatchValidation;
+    private boolean memberDisplayResolution;
+    private int parallelListEncodingThreshold;
+    private Executor listEncodingExecutor = ForkJoinPool.commonPool();
 
     /*
      * set documentationURL
@@ -127,6 +137,92 @@ public class CharonConfiguration implements Configuration {
         return count;
     }
 
+    /*
+     * set the maximum number of referenced users or groups looked up in one call to the user manager
+     * @param referenceBatchSize
+     */
+    public void setReferenceBatchSize(int referenceBatchSize) {
+        if (referenceBatchSize < 1) {
+            throw new IllegalArgumentException("Reference batch size must be positive : " + referenceBatchSize);
+        }
+        this.referenceBatchSize = referenceBatchSize;
+    }
+
+    /*
+     * get the maximum number of referenced users or groups looked up in one call to the user manager
+     * @return
+     */
+    public int getReferenceBatchSize() {
+        return referenceBatchSize;
+    }
+
+    /*
+     * set whether a patched resource is validated as a whole, instead of only the attributes the operations modified
+     * @param fullPatchValidation
+     */
+    public void setFullPatchValidation(boolean fullPatchValidation) {
+        this.fullPatchValidation = fullPatchValidation;
+    }
+
+    /*
+     * get whether a patched resource is validated as a whole
+     * @return
+     */
+    public boolean isFullPatchValidation() {
+        return fullPatchValidation;
+    }
+
+    /*
+     * set whether the display names of group members given without one are looked up from the referenced users and
+     * groups when a group is created, replaced or patched
+     * @param memberDisplayResolution
+     */
+    public void setMemberDisplayResolution(boolean memberDisplayResolution) {
+        this.memberDisplayResolution = memberDisplayResolution;
+    }
+
+    /*
+     * get whether the display names of group members given without one are looked up
+     * @return
+     */
+    public boolean isMemberDisplayResolution() {
+        return memberDisplayResolution;
+    }
+
+    /*
+     * set the number of resources from which the resources of a list response are encoded in parallel, zero or less
+     * to always encode them on the request thread
+     * @param parallelListEncodingThreshold
+     */
+    public void setParallelListEncodingThreshold(int parallelListEncodingThreshold) {
+        this.parallelListEncodingThreshold = parallelListEncodingThreshold;
+    }
+
+    /*
+     * get the number of resources from which the resources of a list response are encoded in parallel
+     * @return
+     */
+    public int getParallelListEncodingThreshold() {
+        return parallelListEncodingThreshold;
+    }
+
+    /*
+     * set the executor the resources of a list response are encoded on in parallel, the common fork-join pool by
+     * default
+     * @param listEncodingExecutor
+     */
+    public void setListEncodingExecutor(Executor listEncodingExecutor) {
+        this.listEncodingExecutor = listEncodingExecutor;
+    }
+
+    /*
+     * get the executor the resources of a list response are encoded on in parallel
+     * @return
+     */
+    public Executor getListEncodingExecutor() {
+        return listEncodingExecutor;
+    }
+
     /*
      * return the charon configuration map
      * @return
@@ -22,6 +22,7 @@ import org.json.JSONTokener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.AttributeMap;
 import org.wso2.charon3.core.attributes.ComplexAttribute;
 import org.wso2.charon3.core.attributes.DefaultAttributeFactory;
 import org.wso2.charon3.core.attributes.MultiValuedAttribute;
@@ -52,7 +53,6 @@ import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -528,7 +528,7 @@ public class JSONDecoder {
                                                   JSONObject jsonObject)
             throws BadRequestException, CharonException, InternalErrorException, JSONException {
         ComplexAttribute complexAttribute = new ComplexAttribute(complexAttributeSchema.getName());
-        Map<String, Attribute> subAttributesMap = new HashMap<String, Attribute>();
+        Map<String, Attribute> subAttributesMap = new AttributeMap();
         //list of sub attributes of the complex attribute
         List<AttributeSchema> subAttributeSchemas =
                 ((AttributeSchema) complexAttributeSchema).getSubAttributeSchemas();
@@ -665,7 +665,7 @@ public class JSONDecoder {
                                                JSONObject jsonObject) throws CharonException, BadRequestException {
 
         ComplexAttribute complexAttribute = new ComplexAttribute(attributeSchema.getName());
-        Map<String, Attribute> subAttributesMap = new HashMap<String, Attribute>();
+        Map<String, Attribute> subAttributesMap = new AttributeMap();
         List<AttributeSchema> subAttributeSchemas =
                 ((AttributeSchema) attributeSchema).getSubAttributeSchemas();
 
@@ -850,6 +850,15 @@ public class JSONDecoder {
             searchRequest.setCountStr(decodedJsonObj.optString(SCIMConstants.OperationalConstants.COUNT));
             searchRequest.setStartIndexStr(decodedJsonObj.optString(SCIMConstants.OperationalConstants.START_INDEX));
             searchRequest.setDomainName(decodedJsonObj.optString(SCIMConstants.OperationalConstants.DOMAIN));
+            //an empty cursor asks for the first page of a cursor paginated result.
+            if (decodedJsonObj.has(SCIMConstants.OperationalConstants.CURSOR)) {
+                searchRequest.setCursor(decodedJsonObj.optString(SCIMConstants.OperationalConstants.CURSOR));
+            }
+            //an empty watermark asks for all the resources, to start tracking changes from.
+            if (decodedJsonObj.has(SCIMConstants.OperationalConstants.CHANGES_SINCE)) {
+                searchRequest.setChangesSince(
+                        decodedJsonObj.optString(SCIMConstants.OperationalConstants.CHANGES_SINCE));
+            }
             searchRequest.setFilter(rootNode);
             if (!decodedJsonObj.optString(SCIMConstants.OperationalConstants.SORT_BY).equals("")) {
                 searchRequest.setSortBy(decodedJsonObj.optString(SCIMConstants.OperationalConstants.SORT_BY));
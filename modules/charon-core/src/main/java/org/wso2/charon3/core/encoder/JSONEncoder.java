@@ -29,11 +29,13 @@ import org.wso2.charon3.core.config.SCIMConfigConstants;
 import org.wso2.charon3.core.exceptions.AbstractCharonException;
 import org.wso2.charon3.core.exceptions.CharonException;
 import org.wso2.charon3.core.exceptions.InternalErrorException;
+import org.wso2.charon3.core.objects.ListedResource;
 import org.wso2.charon3.core.objects.Role;
 import org.wso2.charon3.core.objects.SCIMObject;
 import org.wso2.charon3.core.objects.bulk.BulkResponseContent;
 import org.wso2.charon3.core.objects.bulk.BulkResponseData;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMDefinitions;
 import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
@@ -45,6 +47,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
 
 import static org.wso2.charon3.core.config.SCIMConfigConstants.CASE_EXACT;
 import static org.wso2.charon3.core.config.SCIMConfigConstants.DESCRIPTION;
@@ -65,6 +73,7 @@ public class JSONEncoder {
 
     private String format;
     private static final Logger logger = LoggerFactory.getLogger(JSONEncoder.class);
+    private static final Predicate<Attribute> ALL_ATTRIBUTES = attribute -> true;
 
     public JSONEncoder() {
         format = SCIMConstants.JSON;
@@ -161,6 +170,218 @@ public class JSONEncoder {
         return rootObject;
     }
 
+    /*
+     * return encoded string from scim object, writing only the attributes returned by the given projection
+     * @param scimObject
+     * @param projection
+     * @return
+     * @throws CharonException
+     */
+    public String encodeSCIMObject(SCIMObject scimObject, AttributeProjection projection) throws CharonException {
+
+        return this.getSCIMObjectAsJSONObject(scimObject, projection).toString();
+    }
+
+    /*
+     * Make JSON object from given SCIM object, skipping the attributes which are not returned by the given
+     * projection. The SCIM object is not modified.
+     *
+     * @param scimObject
+     * @param projection
+     * @return the resulting json object after encoding.
+     */
+    public JSONObject getSCIMObjectAsJSONObject(SCIMObject scimObject, AttributeProjection projection)
+            throws CharonException {
+
+        JSONObject rootObject = new JSONObject();
+        try {
+            //encode schemas
+            this.encodeArrayOfValues(SCIMConstants.CommonSchemaConstants.SCHEMAS,
+                    (scimObject.getSchemaList()).toArray(), rootObject);
+            //encode the returned attributes
+            encodeAttributes(scimObject.getAttributeList(), rootObject, projection);
+
+            // Encode permissions of the role.
+            if (scimObject instanceof Role && !((Role) scimObject).getPermissions().isEmpty()) {
+                this.encodeArrayOfValues(SCIMConstants.RoleSchemaConstants.PERMISSIONS,
+                        (((Role) scimObject).getPermissions()).toArray(), rootObject);
+            }
+
+        } catch (JSONException e) {
+            String errorMessage = "Error in encoding resource..";
+            throw new CharonException(errorMessage);
+        }
+        return rootObject;
+    }
+
+    /*
+     * return encoded string from the listed resource, writing only the attributes of its resources returned by the
+     * given projection. When the page holds at least the configured parallel list encoding threshold of resources,
+     * the resources are encoded in chunks on the configured executor and put in the Resources array in their order.
+     *
+     * @param listedResource
+     * @param projection
+     * @return
+     * @throws CharonException
+     */
+    public String encodeListedResource(ListedResource listedResource, AttributeProjection projection)
+            throws CharonException {
+
+        return encodeListedResource(listedResource, projection, 0, null);
+    }
+
+    /*
+     * Encode the listed resource with only the attributes returned by the projection, with its resources encoded in
+     * parallel on the given executor when there are at least as many of them as the threshold. The resources are
+     * split into one chunk per thread of the executor.
+     *
+     * @param listedResource
+     * @param projection
+     * @param parallelThreshold number of resources from which they are encoded in parallel, zero or less to always
+     *                          encode them on the calling thread
+     * @param executor          executor to encode the resources on in parallel
+     * @return
+     * @throws CharonException
+     */
+    public String encodeListedResource(ListedResource listedResource, AttributeProjection projection,
+                                       int parallelThreshold, Executor executor) throws CharonException {
+
+        JSONObject rootObject = new JSONObject();
+        try {
+            //encode schemas
+            this.encodeArrayOfValues(SCIMConstants.CommonSchemaConstants.SCHEMAS,
+                    (listedResource.getSchemaList()).toArray(), rootObject);
+            for (Attribute attribute : listedResource.getAttributeList().values()) {
+                if (!SCIMConstants.ListedResourceSchemaConstants.RESOURCES.equals(attribute.getName())) {
+                    encodeAttribute(attribute, rootObject);
+                }
+            }
+            if (listedResource.getAttribute(SCIMConstants.ListedResourceSchemaConstants.RESOURCES) != null) {
+                List<SCIMObject> resources = listedResource.getResources();
+                rootObject.put(SCIMConstants.ListedResourceSchemaConstants.RESOURCES,
+                        parallelThreshold <= 0 || executor == null || resources.size() < parallelThreshold ?
+                                encodeResources(resources, projection) :
+                                encodeResources(resources, projection, executor));
+            }
+        } catch (JSONException e) {
+            String errorMessage = "Error in encoding resource..";
+            throw new CharonException(errorMessage);
+        }
+        return rootObject.toString();
+    }
+
+    /*
+     * Encode the resources of a list response on the calling thread.
+     *
+     * @param resources
+     * @param projection
+     * @return json array of the encoded resources, in their order.
+     */
+    private JSONArray encodeResources(List<SCIMObject> resources, AttributeProjection projection)
+            throws JSONException {
+
+        JSONObject[] encodedResources = new JSONObject[resources.size()];
+        encodeResources(resources, projection, encodedResources, 0, resources.size());
+        return toJSONArray(encodedResources);
+    }
+
+    /*
+     * Encode the resources of a list response in parallel chunks, one for each thread of the executor.
+     *
+     * @param resources
+     * @param projection
+     * @param executor
+     * @return json array of the encoded resources, in their order.
+     */
+    private JSONArray encodeResources(List<SCIMObject> resources, AttributeProjection projection, Executor executor)
+            throws CharonException {
+
+        JSONObject[] encodedResources = new JSONObject[resources.size()];
+        int chunkCount = Math.max(1, Math.min(getParallelism(executor), resources.size()));
+        int chunkSize = (resources.size() + chunkCount - 1) / chunkCount;
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < resources.size(); start += chunkSize) {
+            int chunkStart = start;
+            int chunkEnd = Math.min(start + chunkSize, resources.size());
+            chunks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    encodeResources(resources, projection, encodedResources, chunkStart, chunkEnd);
+                } catch (JSONException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new CharonException("Error in encoding resources..", e.getCause());
+        }
+        return toJSONArray(encodedResources);
+    }
+
+    /*
+     * Number of threads the executor runs tasks on, the number of processors if it can not be told.
+     */
+    private static int getParallelism(Executor executor) {
+
+        if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getMaximumPoolSize();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static JSONArray toJSONArray(JSONObject[] encodedResources) {
+
+        JSONArray jsonArray = new JSONArray();
+        for (JSONObject encodedResource : encodedResources) {
+            jsonArray.put(encodedResource);
+        }
+        return jsonArray;
+    }
+
+    private void encodeResources(List<SCIMObject> resources, AttributeProjection projection,
+                                 JSONObject[] encodedResources, int start, int end) throws JSONException {
+
+        for (int i = start; i < end; i++) {
+            JSONObject resourceObject = new JSONObject();
+            encodeAttributes(resources.get(i).getAttributeList(), resourceObject, projection);
+            encodedResources[i] = resourceObject;
+        }
+    }
+
+    /*
+     * Encode the attributes returned by the given projection and include them in root json object to be returned.
+     *
+     * @param attributes
+     * @param rootObject
+     * @param projection
+     */
+    private void encodeAttributes(Map<String, Attribute> attributes, JSONObject rootObject,
+                                  AttributeProjection projection) throws JSONException {
+
+        if (attributes == null || attributes.isEmpty()) {
+            return;
+        }
+        for (Attribute attribute : attributes.values()) {
+            if (!projection.isReturned(attribute)) {
+                continue;
+            }
+            if (attribute.getType() != SCIMDefinitions.DataType.COMPLEX) {
+                encodeAttribute(attribute, rootObject);
+            } else if (attribute instanceof MultiValuedAttribute) {
+                encodeMultiValuedAttribute((MultiValuedAttribute) attribute, rootObject,
+                        subAttribute -> projection.isValueReturned(attribute, subAttribute));
+            } else if (attribute instanceof ComplexAttribute) {
+                encodeComplexAttribute((ComplexAttribute) attribute, rootObject, projection);
+            } else {
+                encodeAttribute(attribute, rootObject);
+            }
+        }
+    }
+
     /*
      * encode array of values
      * @param arrayName
@@ -244,22 +465,81 @@ public class JSONEncoder {
      */
     public void encodeComplexAttribute(ComplexAttribute complexAttribute, JSONObject rootObject)
             throws JSONException {
+
+        encodeComplexAttribute(complexAttribute, rootObject, ALL_ATTRIBUTES);
+    }
+
+    /*
+     * Encode the complex attribute with only its sub attributes accepted by the filter, and include it in root json
+     * object to be returned if any of them is.
+     *
+     * @param complexAttribute
+     * @param rootObject
+     * @param isReturned
+     */
+    private void encodeComplexAttribute(ComplexAttribute complexAttribute, JSONObject rootObject,
+                                        Predicate<Attribute> isReturned) throws JSONException {
         JSONObject subObject = new JSONObject();
         Map<String, Attribute> attributes = complexAttribute.getSubAttributesList();
         for (Attribute attributeValue : attributes.values()) {
-            //using instanceof instead of polymorphic way, in order to make encoder pluggable.
-            if (attributeValue instanceof SimpleAttribute) {
-                //most of the time, this if condition is hit according to current SCIM spec.
-                encodeSimpleAttribute((SimpleAttribute) attributeValue, subObject);
+            if (!isReturned.test(attributeValue)) {
+                continue;
+            }
+            encodeAttribute(attributeValue, subObject);
+            rootObject.put(complexAttribute.getName(), subObject);
+        }
 
+    }
+
+    /*
+     * Encode the complex attribute of the resource with only the sub attributes returned by the projection, and
+     * include it in root json object to be returned if any of them is.
+     *
+     * @param complexAttribute
+     * @param rootObject
+     * @param projection
+     */
+    private void encodeComplexAttribute(ComplexAttribute complexAttribute, JSONObject rootObject,
+                                        AttributeProjection projection) throws JSONException {
+        JSONObject subObject = new JSONObject();
+        Map<String, Attribute> attributes = complexAttribute.getSubAttributesList();
+        for (Attribute attributeValue : attributes.values()) {
+            if (!projection.isReturned(complexAttribute, attributeValue)) {
+                continue;
+            }
+            //complex sub attributes are applicable for extension schema only
+            if (attributeValue.getType() != SCIMDefinitions.DataType.COMPLEX) {
+                encodeAttribute(attributeValue, subObject);
             } else if (attributeValue instanceof MultiValuedAttribute) {
-                encodeMultiValuedAttribute((MultiValuedAttribute) attributeValue, subObject);
+                encodeMultiValuedAttribute((MultiValuedAttribute) attributeValue, subObject,
+                        subAttribute -> projection.isValueReturned(complexAttribute, attributeValue, subAttribute));
             } else if (attributeValue instanceof ComplexAttribute) {
-                encodeComplexAttribute((ComplexAttribute) attributeValue, subObject);
+                encodeComplexAttribute((ComplexAttribute) attributeValue, subObject,
+                        subAttribute -> projection.isReturned(complexAttribute, attributeValue, subAttribute));
+            } else {
+                encodeAttribute(attributeValue, subObject);
             }
             rootObject.put(complexAttribute.getName(), subObject);
         }
+    }
 
+    /*
+     * Encode the attribute according to its kind and include it in root json object to be returned.
+     *
+     * @param attribute
+     * @param rootObject
+     */
+    private void encodeAttribute(Attribute attribute, JSONObject rootObject) throws JSONException {
+        //using instanceof instead of polymorphic way, in order to make encoder pluggable.
+        if (attribute instanceof SimpleAttribute) {
+            //most of the time, this if condition is hit according to current SCIM spec.
+            encodeSimpleAttribute((SimpleAttribute) attribute, rootObject);
+
+        } else if (attribute instanceof MultiValuedAttribute) {
+            encodeMultiValuedAttribute((MultiValuedAttribute) attribute, rootObject);
+        } else if (attribute instanceof ComplexAttribute) {
+            encodeComplexAttribute((ComplexAttribute) attribute, rootObject);
+        }
     }
 
     /**
@@ -321,6 +601,20 @@ public class JSONEncoder {
      */
     public void encodeMultiValuedAttribute(MultiValuedAttribute multiValuedAttribute,
                                            JSONObject jsonObject) throws JSONException {
+
+        encodeMultiValuedAttribute(multiValuedAttribute, jsonObject, ALL_ATTRIBUTES);
+    }
+
+    /*
+     * Encode the multivalued attribute with only the sub attributes of its complex values accepted by the filter,
+     * and include it in root json object to be returned.
+     *
+     * @param multiValuedAttribute
+     * @param jsonObject
+     * @param isReturned
+     */
+    private void encodeMultiValuedAttribute(MultiValuedAttribute multiValuedAttribute, JSONObject jsonObject,
+                                            Predicate<Attribute> isReturned) throws JSONException {
         JSONArray jsonArray = new JSONArray();
         //TODO:what if values are set as list of string values.For the moment it is ok, since only schemas
         //attribute has such values and we handle it separately in encoding.
@@ -333,8 +627,7 @@ public class JSONEncoder {
                     encodeSimpleAttributeValue((SimpleAttribute) attributeValue, jsonArray);
 
                 } else if (attributeValue instanceof ComplexAttribute) {
-
-                    encodeComplexAttributeValue((ComplexAttribute) attributeValue, jsonArray);
+                    encodeComplexAttributeValue((ComplexAttribute) attributeValue, jsonArray, isReturned);
                 }
             }
         }
@@ -363,18 +656,24 @@ public class JSONEncoder {
      */
     protected void encodeComplexAttributeValue(ComplexAttribute attributeValue,
                                                JSONArray jsonArray) throws JSONException {
+
+        encodeComplexAttributeValue(attributeValue, jsonArray, ALL_ATTRIBUTES);
+    }
+
+    /*
+     * Encode the complex value of a multivalued attribute with only its sub attributes accepted by the filter.
+     *
+     * @param attributeValue
+     * @param jsonArray
+     * @param isReturned
+     */
+    private void encodeComplexAttributeValue(ComplexAttribute attributeValue, JSONArray jsonArray,
+                                             Predicate<Attribute> isReturned) throws JSONException {
         JSONObject subObject = new JSONObject();
         Map<String, Attribute> subAttributes = attributeValue.getSubAttributesList();
         for (Attribute value : subAttributes.values()) {
-            //using instanceof instead of polymorphic way, in order to make encoder pluggable.
-            if (value instanceof SimpleAttribute) {
-                encodeSimpleAttribute((SimpleAttribute) value, subObject);
-
-            } else if (value instanceof ComplexAttribute) {
-                encodeComplexAttribute((ComplexAttribute) value, subObject);
-
-            } else if (value instanceof MultiValuedAttribute) {
-                encodeMultiValuedAttribute((MultiValuedAttribute) value, subObject);
+            if (isReturned.test(value)) {
+                encodeAttribute(value, subObject);
             }
         }
         jsonArray.put(subObject);
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.extensions;
+
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.Role;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
+import org.wso2.charon3.core.utils.CompletionStageUtil;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking counterpart of {@link RoleManager}, used by the asynchronous role resource manager.
+ * <p>
+ * A failed operation completes its stage exceptionally with the same
+ * {@link org.wso2.charon3.core.exceptions.AbstractCharonException} the blocking operation would throw. A blocking
+ * role manager is used through {@link BlockingRoleManagerAdapter}.
+ */
+public interface AsyncRoleManager {
+
+    /**
+     * Create a role.
+     *
+     * @param role Role to create.
+     * @return Stage of the created role.
+     */
+    CompletionStage<Role> createRole(Role role);
+
+    /**
+     * Retrieve a role.
+     *
+     * @param id                 Id of the role.
+     * @param requiredAttributes Attributes of the role to return.
+     * @return Stage of the role, null if there is no role with the id.
+     */
+    CompletionStage<Role> getRole(String id, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Delete a role.
+     *
+     * @param id Id of the role.
+     * @return Stage completed once the role is deleted.
+     */
+    CompletionStage<Void> deleteRole(String id);
+
+    /**
+     * Replace a role.
+     *
+     * @param oldRole Role before the update.
+     * @param newRole Role holding all attributes of the role after the update.
+     * @return Stage of the updated role.
+     */
+    CompletionStage<Role> updateRole(Role oldRole, Role newRole);
+
+    /**
+     * Update a role by the changes of a PUT or PATCH request, instead of by the old and the updated role.
+     *
+     * @param roleId    Id of the role.
+     * @param changeSet Changes from the stored role to the updated role, which the request already validated.
+     * @return Stage of the updated role, completed with a {@link NotImplementedException} if the role manager can
+     * only update whole roles.
+     */
+    default CompletionStage<Role> updateRole(String roleId, ChangeSet changeSet) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Updating roles by change sets is not supported"));
+    }
+
+    /**
+     * List the roles matching a search request.
+     *
+     * @param searchRequest Search request, carrying the filter, pagination and sorting.
+     * @return Stage of a page of roles and the total number of roles.
+     */
+    CompletionStage<RolesGetResponse> listRolesWithPost(SearchRequest searchRequest);
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.extensions;
+
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
+import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.utils.CompletionStageUtil;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking counterpart of {@link UserManager}, used by the asynchronous resource managers.
+ * <p>
+ * Each operation returns at once with a stage that completes when the user store answers, so that no request thread
+ * waits on the store meanwhile. A failed operation completes its stage exceptionally with the same
+ * {@link org.wso2.charon3.core.exceptions.AbstractCharonException} the blocking operation would throw, which is
+ * turned into the error response. Implementations must not block the thread the operation is called on. A blocking
+ * user manager is used through {@link BlockingUserManagerAdapter}.
+ */
+public interface AsyncUserManager {
+
+    /**
+     * Create a user.
+     *
+     * @param user               User to create.
+     * @param requiredAttributes Attributes of the created user to return.
+     * @return Stage of the created user.
+     */
+    CompletionStage<User> createUser(User user, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Retrieve a user.
+     *
+     * @param id                 Id of the user.
+     * @param requiredAttributes Attributes of the user to return.
+     * @return Stage of the user, null if there is no user with the id.
+     */
+    CompletionStage<User> getUser(String id, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Retrieve several users by id at once. Used to resolve the users referenced by group members. The default
+     * implementation retrieves the users one by one, all at the same time.
+     *
+     * @param userIds            Ids of the users.
+     * @param requiredAttributes Attributes of the users to return.
+     * @return Stage of the users found, keyed by id. Ids without a user are left out.
+     */
+    default CompletionStage<Map<String, User>> getUsersByIds(Collection<String> userIds,
+                                                             Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.getAllByIds(userIds, userId -> getUser(userId, requiredAttributes));
+    }
+
+    /**
+     * Retrieve only the version of a user, without loading the user. Used to evaluate the preconditions of conditional
+     * updates.
+     *
+     * @param userId Id of the user.
+     * @return Stage of the meta.version of the user, or of any other value that changes on every write of the user,
+     * null if the user store does not keep such a value. Completed with a
+     * {@link org.wso2.charon3.core.exceptions.NotFoundException} if the user does not exist, or with a
+     * {@link NotImplementedException} if the user store can only provide the version with the full user.
+     */
+    default CompletionStage<String> getUserVersion(String userId) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Retrieving the version of a user is not supported"));
+    }
+
+    /**
+     * Delete a user.
+     *
+     * @param userId Id of the user.
+     * @return Stage completed once the user is deleted.
+     */
+    CompletionStage<Void> deleteUser(String userId);
+
+    /**
+     * List the users matching a search request.
+     *
+     * @param searchRequest      Search request, carrying the filter, pagination, sorting and domain.
+     * @param requiredAttributes Attributes of the users to return.
+     * @return Stage of a page of users and the total number of users.
+     */
+    CompletionStage<UsersGetResponse> listUsersWithPost(SearchRequest searchRequest,
+                                                        Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Replace a user.
+     *
+     * @param updatedUser        User holding all attributes of the user after the update.
+     * @param requiredAttributes Attributes of the updated user to return.
+     * @return Stage of the updated user.
+     */
+    CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Update a user by a PATCH request, updating the simple multi-valued attributes independently from the simple
+     * attributes.
+     *
+     * @param updatedUser                    User holding all attributes of the user after the update.
+     * @param requiredAttributes             Attributes of the updated user to return.
+     * @param allSimpleMultiValuedAttributes Simple multi-valued attributes defined in SCIM schema.
+     * @return Stage of the updated user, completed with a {@link NotImplementedException} if the user store can only
+     * replace whole users.
+     */
+    default CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                                             List<String> allSimpleMultiValuedAttributes) {
+
+        return CompletionStageUtil.completedExceptionally(new NotImplementedException(
+                "Updating simple multi-valued attributes independently from simple attributes is not supported"));
+    }
+
+    /**
+     * Replace a user only if the stored user is still at the expected version (compare-and-set).
+     *
+     * @param updatedUser                    User holding all attributes of the user after the update.
+     * @param requiredAttributes             Attributes of the updated user to return.
+     * @param allSimpleMultiValuedAttributes Simple multi-valued attributes defined in SCIM schema.
+     * @param expectedVersion                meta.version of the user the update was computed from.
+     * @return Stage of the updated user, completed with a
+     * {@link org.wso2.charon3.core.exceptions.PreConditionFailedException} if the stored user is no longer at the
+     * expected version, or with a {@link NotImplementedException} if the user store does not support versioned
+     * updates.
+     */
+    default CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                                             List<String> allSimpleMultiValuedAttributes, String expectedVersion) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Versioned user updates are not supported"));
+    }
+
+    /**
+     * Update a user by the changes of a PUT or PATCH request, instead of by the whole updated user.
+     *
+     * @param userId             Id of the user.
+     * @param changeSet          Changes from the stored user to the updated user, which the request already validated.
+     * @param requiredAttributes Attributes of the updated user to return.
+     * @return Stage of the updated user, completed with a {@link NotImplementedException} if the user store can only
+     * update whole users.
+     */
+    default CompletionStage<User> updateUser(String userId, ChangeSet changeSet,
+                                             Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Updating users by change sets is not supported"));
+    }
+
+    /**
+     * Create a group.
+     *
+     * @param group              Group to create.
+     * @param requiredAttributes Attributes of the created group to return.
+     * @return Stage of the created group.
+     */
+    CompletionStage<Group> createGroup(Group group, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Retrieve a group.
+     *
+     * @param id                 Id of the group.
+     * @param requiredAttributes Attributes of the group to return.
+     * @return Stage of the group, null if there is no group with the id.
+     */
+    CompletionStage<Group> getGroup(String id, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Retrieve several groups by id at once. Used to resolve the groups referenced by group members. The default
+     * implementation retrieves the groups one by one, all at the same time.
+     *
+     * @param groupIds           Ids of the groups.
+     * @param requiredAttributes Attributes of the groups to return.
+     * @return Stage of the groups found, keyed by id. Ids without a group are left out.
+     */
+    default CompletionStage<Map<String, Group>> getGroupsByIds(Collection<String> groupIds,
+                                                               Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.getAllByIds(groupIds, groupId -> getGroup(groupId, requiredAttributes));
+    }
+
+    /**
+     * Delete a group.
+     *
+     * @param id Id of the group.
+     * @return Stage completed once the group is deleted.
+     */
+    CompletionStage<Void> deleteGroup(String id);
+
+    /**
+     * List the groups matching a search request.
+     *
+     * @param searchRequest      Search request, carrying the filter, pagination, sorting and domain.
+     * @param requiredAttributes Attributes of the groups to return.
+     * @return Stage of a page of groups and the total number of groups.
+     */
+    CompletionStage<GroupsGetResponse> listGroupsWithPost(SearchRequest searchRequest,
+                                                          Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Replace a group.
+     *
+     * @param oldGroup           Group before the update.
+     * @param newGroup           Group holding all attributes of the group after the update.
+     * @param requiredAttributes Attributes of the updated group to return.
+     * @return Stage of the updated group.
+     */
+    CompletionStage<Group> updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes);
+
+    /**
+     * Replace a group only if the stored group is still at the expected version (compare-and-set).
+     *
+     * @param oldGroup           Group the update was computed from.
+     * @param newGroup           Group holding all attributes of the group after the update.
+     * @param requiredAttributes Attributes of the updated group to return.
+     * @param expectedVersion    meta.version of the old group.
+     * @return Stage of the updated group, completed with a
+     * {@link org.wso2.charon3.core.exceptions.PreConditionFailedException} if the stored group is no longer at the
+     * expected version, or with a {@link NotImplementedException} if the user store does not support versioned
+     * updates.
+     */
+    default CompletionStage<Group> updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes,
+                                               String expectedVersion) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Versioned group updates are not supported"));
+    }
+
+    /**
+     * Update a group by the changes of a PUT or PATCH request, instead of by the old and the updated group.
+     *
+     * @param groupId            Id of the group.
+     * @param changeSet          Changes from the stored group to the updated group, which the request already
+     *                           validated.
+     * @param requiredAttributes Attributes of the updated group to return.
+     * @return Stage of the updated group, completed with a {@link NotImplementedException} if the user store can
+     * only update whole groups.
+     */
+    default CompletionStage<Group> updateGroup(String groupId, ChangeSet changeSet,
+                                               Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Updating groups by change sets is not supported"));
+    }
+
+    /**
+     * Update a group by the operations of a PATCH request, instead of by the old and the updated group.
+     *
+     * @param groupId            Id of the group.
+     * @param currentGroupName   Current name of the group.
+     * @param patchOperations    Operations of the request, by the type of the operation.
+     * @param requiredAttributes Attributes of the updated group to return.
+     * @return Stage of the updated group, completed with a {@link NotImplementedException} if the user store can
+     * only update whole groups.
+     */
+    default CompletionStage<Group> patchGroup(String groupId, String currentGroupName,
+                                              Map<String, List<PatchOperation>> patchOperations,
+                                              Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Patching groups by their operations is not supported"));
+    }
+
+    /**
+     * Update a group by the operations of a PATCH request only if the stored group is still at the expected version.
+     *
+     * @param groupId            Id of the group.
+     * @param currentGroupName   Current name of the group.
+     * @param patchOperations    Operations of the request, by the type of the operation.
+     * @param requiredAttributes Attributes of the updated group to return.
+     * @param expectedVersion    meta.version the client made the request against.
+     * @return Stage of the updated group, completed with a
+     * {@link org.wso2.charon3.core.exceptions.PreConditionFailedException} if the stored group is no longer at the
+     * expected version, or with a {@link NotImplementedException} if the user store does not support versioned
+     * updates.
+     */
+    default CompletionStage<Group> patchGroup(String groupId, String currentGroupName,
+                                              Map<String, List<PatchOperation>> patchOperations,
+                                              Map<String, Boolean> requiredAttributes, String expectedVersion) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Versioned group updates are not supported"));
+    }
+
+    /**
+     * Update the members and the display name of a group by their delta, without the stored members of the group
+     * being read.
+     *
+     * @param delta              Members to remove and add, and the new display name of the group.
+     * @param requiredAttributes Attributes of the updated group to return. The members are only required if the
+     *                           request asks for them.
+     * @return Stage of the updated group, completed with a {@link NotImplementedException} if the user store can
+     * only patch groups by their operations.
+     */
+    default CompletionStage<Group> patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes) {
+
+        return CompletionStageUtil.completedExceptionally(
+                new NotImplementedException("Patching group members by their delta is not supported"));
+    }
+
+    /**
+     * Retrieve the custom schema extension of the users.
+     *
+     * @return Stage of the custom schema extension, null if the users have none.
+     */
+    default CompletionStage<AttributeSchema> getCustomUserSchemaExtension() {
+
+        return CompletionStageUtil.completedEmpty();
+    }
+}
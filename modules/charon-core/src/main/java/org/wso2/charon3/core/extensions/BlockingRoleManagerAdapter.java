@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.extensions;
+
+import org.wso2.charon3.core.objects.Role;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
+import org.wso2.charon3.core.utils.LambdaExceptionUtils;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncRoleManager} over a blocking {@link RoleManager}. Every operation is run on the given executor, which
+ * is meant to be dedicated to the role manager.
+ */
+public class BlockingRoleManagerAdapter implements AsyncRoleManager {
+
+    private final RoleManager roleManager;
+    private final Executor executor;
+
+    /**
+     * @param roleManager Blocking role manager to run the operations of.
+     * @param executor    Executor the operations are run on.
+     */
+    public BlockingRoleManagerAdapter(RoleManager roleManager, Executor executor) {
+
+        this.roleManager = roleManager;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<Role> createRole(Role role) {
+
+        return supply(() -> roleManager.createRole(role));
+    }
+
+    @Override
+    public CompletionStage<Role> getRole(String id, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> roleManager.getRole(id, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Void> deleteRole(String id) {
+
+        return supply(() -> {
+            roleManager.deleteRole(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletionStage<Role> updateRole(Role oldRole, Role newRole) {
+
+        return supply(() -> roleManager.updateRole(oldRole, newRole));
+    }
+
+    @Override
+    public CompletionStage<Role> updateRole(String roleId, ChangeSet changeSet) {
+
+        return supply(() -> roleManager.updateRole(roleId, changeSet));
+    }
+
+    @Override
+    public CompletionStage<RolesGetResponse> listRolesWithPost(SearchRequest searchRequest) {
+
+        return supply(() -> roleManager.listRolesWithPost(searchRequest));
+    }
+
+    /*
+     * Run a blocking call of the role manager on the executor. An exception thrown by the call completes the stage
+     * exceptionally.
+     */
+    private <T, E extends Exception> CompletionStage<T> supply(
+            LambdaExceptionUtils.SupplierWithExceptions<T, E> call) {
+
+        return CompletableFuture.supplyAsync(LambdaExceptionUtils.rethrowSupplier(call), executor);
+    }
+}
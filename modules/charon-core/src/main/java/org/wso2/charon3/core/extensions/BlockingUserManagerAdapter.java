@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.extensions;
+
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
+import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.utils.LambdaExceptionUtils;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AsyncUserManager} over a blocking {@link UserManager}.
+ * <p>
+ * Every operation is run on the given executor, which is meant to be dedicated to the user manager and sized for the
+ * number of calls the user store may serve at once. The request threads are then free while the user store answers,
+ * and only the executor threads wait on it.
+ */
+public class BlockingUserManagerAdapter implements AsyncUserManager {
+
+    private final UserManager userManager;
+    private final Executor executor;
+
+    /**
+     * @param userManager Blocking user manager to run the operations of.
+     * @param executor    Executor the operations are run on.
+     */
+    public BlockingUserManagerAdapter(UserManager userManager, Executor executor) {
+
+        this.userManager = userManager;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<User> createUser(User user, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.createUser(user, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<User> getUser(String id, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.getUser(id, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Map<String, User>> getUsersByIds(Collection<String> userIds,
+                                                            Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.getUsersByIds(userIds, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<String> getUserVersion(String userId) {
+
+        return supply(() -> userManager.getUserVersion(userId));
+    }
+
+    @Override
+    public CompletionStage<Void> deleteUser(String userId) {
+
+        return supply(() -> {
+            userManager.deleteUser(userId);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletionStage<UsersGetResponse> listUsersWithPost(SearchRequest searchRequest,
+                                                               Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.listUsersWithPost(searchRequest, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.updateUser(updatedUser, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                                            List<String> allSimpleMultiValuedAttributes) {
+
+        return supply(() -> userManager.updateUser(updatedUser, requiredAttributes, allSimpleMultiValuedAttributes));
+    }
+
+    @Override
+    public CompletionStage<User> updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                                            List<String> allSimpleMultiValuedAttributes, String expectedVersion) {
+
+        return supply(() -> userManager.updateUser(updatedUser, requiredAttributes, allSimpleMultiValuedAttributes,
+                expectedVersion));
+    }
+
+    @Override
+    public CompletionStage<User> updateUser(String userId, ChangeSet changeSet,
+                                            Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.updateUser(userId, changeSet, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> createGroup(Group group, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.createGroup(group, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> getGroup(String id, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.getGroup(id, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Map<String, Group>> getGroupsByIds(Collection<String> groupIds,
+                                                              Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.getGroupsByIds(groupIds, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Void> deleteGroup(String id) {
+
+        return supply(() -> {
+            userManager.deleteGroup(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletionStage<GroupsGetResponse> listGroupsWithPost(SearchRequest searchRequest,
+                                                                 Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.listGroupsWithPost(searchRequest, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.updateGroup(oldGroup, newGroup, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes,
+                                              String expectedVersion) {
+
+        return supply(() -> userManager.updateGroup(oldGroup, newGroup, requiredAttributes, expectedVersion));
+    }
+
+    @Override
+    public CompletionStage<Group> updateGroup(String groupId, ChangeSet changeSet,
+                                              Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.updateGroup(groupId, changeSet, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> patchGroup(String groupId, String currentGroupName,
+                                             Map<String, List<PatchOperation>> patchOperations,
+                                             Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.patchGroup(groupId, currentGroupName, patchOperations, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<Group> patchGroup(String groupId, String currentGroupName,
+                                             Map<String, List<PatchOperation>> patchOperations,
+                                             Map<String, Boolean> requiredAttributes, String expectedVersion) {
+
+        return supply(() -> userManager.patchGroup(groupId, currentGroupName, patchOperations, requiredAttributes,
+                expectedVersion));
+    }
+
+    @Override
+    public CompletionStage<Group> patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes) {
+
+        return supply(() -> userManager.patchGroupMembers(delta, requiredAttributes));
+    }
+
+    @Override
+    public CompletionStage<AttributeSchema> getCustomUserSchemaExtension() {
+
+        return supply(userManager::getCustomUserSchemaExtension);
+    }
+
+    /*
+     * Run a blocking call of the user manager on the executor. An exception thrown by the call completes the stage
+     * exceptionally.
+     */
+    private <T, E extends Exception> CompletionStage<T> supply(
+            LambdaExceptionUtils.SupplierWithExceptions<T, E> call) {
+
+        return CompletableFuture.supplyAsync(LambdaExceptionUtils.rethrowSupplier(call), executor);
+    }
+}
@@ -24,6 +24,7 @@ import org.wso2.charon3.core.exceptions.ConflictException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
 import org.wso2.charon3.core.objects.Role;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
 import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
 import org.wso2.charon3.core.utils.codeutils.Node;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
@@ -72,6 +73,21 @@ public interface RoleManager {
      */
     void deleteRole(String id) throws NotFoundException, CharonException, NotImplementedException, BadRequestException;
 
+    /**
+     * Retrieve only the version of a role, without loading the role. Used to answer conditional requests.
+     *
+     * @param id Role ID.
+     * @return meta.version of the role, or any other value that changes on every write of the role. Null if the
+     * role store does not keep such a value.
+     * @throws NotFoundException       NotFoundException.
+     * @throws NotImplementedException If the role store can only provide the version with the full role.
+     */
+    default String getRoleVersion(String id)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        throw new NotImplementedException("Retrieving the version of a role is not supported");
+    }
+
     /**
      * List roles with Get.
      *
@@ -88,6 +104,41 @@ public interface RoleManager {
     RolesGetResponse listRolesWithGET(Node node, Integer startIndex, Integer count, String sortBy, String sortOrder)
             throws CharonException, NotImplementedException, BadRequestException;
 
+    /**
+     * List roles with Get, using cursor pagination instead of a start index.
+     *
+     * @param node      Node
+     * @param cursor    Opaque cursor returned as nextCursor of the previous page, or an empty string to request the
+     *                  first page.
+     * @param count     Count.
+     * @param sortBy    Sort by.
+     * @param sortOrder Sort order.
+     * @return Roles of the requested page, with the cursor of the page that follows.
+     * @throws CharonException         CharonException.
+     * @throws NotImplementedException If the role store does not support cursor pagination.
+     * @throws BadRequestException     If the cursor is invalid or expired.
+     */
+    default RolesGetResponse listRolesWithCursor(Node node, String cursor, Integer count, String sortBy,
+            String sortOrder) throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Cursor pagination of roles is not supported");
+    }
+
+    /**
+     * Count the roles matching a filter, without retrieving them. Used for list requests with a count of zero, which
+     * only ask for totalResults.
+     *
+     * @param node Filter, null to count all the roles.
+     * @return Number of roles matching the filter.
+     * @throws CharonException         CharonException.
+     * @throws NotImplementedException If the role store does not support counting.
+     * @throws BadRequestException     BadRequestException.
+     */
+    default int countRoles(Node node) throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Counting roles is not supported");
+    }
+
     /**
      * Update the role.
      *
@@ -103,6 +154,24 @@ public interface RoleManager {
     Role updateRole(Role oldRole, Role newRole)
             throws NotImplementedException, BadRequestException, CharonException, ConflictException, NotFoundException;
 
+    /**
+     * Update the role by the changes of a PUT or PATCH request, instead of by the old and the new role.
+     *
+     * @param roleId    Role ID.
+     * @param changeSet Changes from the stored role to the new role, which the request already validated.
+     * @return Updated role.
+     * @throws NotImplementedException If the role store can only update whole roles.
+     * @throws BadRequestException     BadRequestException.
+     * @throws CharonException         CharonException.
+     * @throws ConflictException       ConflictException.
+     * @throws NotFoundException       NotFoundException.
+     */
+    default Role updateRole(String roleId, ChangeSet changeSet)
+            throws NotImplementedException, BadRequestException, CharonException, ConflictException, NotFoundException {
+
+        throw new NotImplementedException("Updating roles by change sets is not supported");
+    }
+
     /**
      * List roles with Post.
      *
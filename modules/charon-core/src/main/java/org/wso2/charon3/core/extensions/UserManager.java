@@ -22,8 +22,11 @@ import org.wso2.charon3.core.exceptions.ConflictException;
 import org.wso2.charon3.core.exceptions.ForbiddenException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
 import org.wso2.charon3.core.objects.Group;
 import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
 import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
 import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
 import org.wso2.charon3.core.schema.AttributeSchema;
@@ -31,6 +34,8 @@ import org.wso2.charon3.core.utils.codeutils.Node;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,6 +57,49 @@ public interface UserManager {
     public void deleteUser(String userId)
             throws NotFoundException, CharonException, NotImplementedException, BadRequestException;
 
+    /**
+     * Retrieve several users by id in one call. Used to resolve the users referenced by group members, and to answer
+     * filters that only match ids when listing the users of a filter is not implemented. The default implementation
+     * retrieves the users one by one.
+     *
+     * @param userIds            Ids of the users.
+     * @param requiredAttributes Required user attributes.
+     * @return Users found, keyed by id. Ids without a user are left out.
+     * @throws CharonException     Error while retrieving the users
+     * @throws BadRequestException Bad request
+     */
+    default Map<String, User> getUsersByIds(Collection<String> userIds, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException {
+
+        Map<String, User> users = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            try {
+                User user = getUser(userId, requiredAttributes);
+                if (user != null) {
+                    users.put(userId, user);
+                }
+            } catch (NotFoundException e) {
+                // A missing user is left out of the result.
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Retrieve only the version of a user, without loading the user. Used to answer conditional requests.
+     *
+     * @param userId Id of the user.
+     * @return meta.version of the user, or any other value that changes on every write of the user (e.g. the last
+     * modified time). Null if the user store does not keep such a value.
+     * @throws NotFoundException       If the user does not exist.
+     * @throws NotImplementedException If the user store can only provide the version with the full user.
+     */
+    default String getUserVersion(String userId)
+            throws CharonException, NotFoundException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Retrieving the version of a user is not supported");
+    }
+
     /**
      * List users with Get.
      *
@@ -74,6 +122,69 @@ public interface UserManager {
         return null;
     }
 
+    /**
+     * List users with Get, using cursor pagination instead of a start index.
+     *
+     * @param node               Node
+     * @param cursor             Opaque cursor returned as nextCursor of the previous page, or an empty string to
+     *                           request the first page
+     * @param count              Count
+     * @param sortBy             Sort by
+     * @param sortOrder          Sort order
+     * @param domainName         Domain name
+     * @param requiredAttributes Required user attributes
+     * @return Users of the requested page, with the cursor of the page that follows
+     * @throws CharonException         Error while listing users
+     * @throws NotImplementedException Cursor pagination is not supported by the user store
+     * @throws BadRequestException     Invalid or expired cursor
+     */
+    default UsersGetResponse listUsersWithCursor(Node node, String cursor, Integer count, String sortBy,
+                        String sortOrder, String domainName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Cursor pagination of users is not supported");
+    }
+
+    /**
+     * List the users changed since a watermark, together with the ids of the users deleted since then. Changes are
+     * returned in the order they were made, and the response carries the watermark to request the changes that
+     * follow it with. A client keeps in sync by storing that watermark and sending it back, instead of listing all
+     * the users every time.
+     *
+     * @param watermark          Opaque watermark returned by the previous change listing, or an empty string to
+     *                           list all the users and start tracking changes from
+     * @param count              Maximum number of changes, both changed and deleted users, null for all of them
+     * @param domainName         Domain name
+     * @param requiredAttributes Required user attributes
+     * @return Changed users, ids of the deleted users and the new watermark
+     * @throws CharonException         Error while listing the changes
+     * @throws NotImplementedException Change tracking is not supported by the user store
+     * @throws BadRequestException     Invalid watermark, or one older than the retained deletions
+     */
+    default UsersGetResponse listUsersChangedSince(String watermark, Integer count, String domainName,
+                                                   Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Change tracking of users is not supported");
+    }
+
+    /**
+     * Count the users matching a filter, without retrieving them. Used for list requests with a count of zero,
+     * which only ask for totalResults.
+     *
+     * @param node       Filter, null to count all the users
+     * @param domainName Domain name
+     * @return Number of users matching the filter
+     * @throws CharonException         Error while counting users
+     * @throws NotImplementedException Counting is not supported by the user store
+     * @throws BadRequestException     Bad request
+     */
+    default int countUsers(Node node, String domainName)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Counting users is not supported");
+    }
+
     /**
      * This method is deprecated.
      *
@@ -126,6 +237,42 @@ public interface UserManager {
                 "Updating simple multi-valued attributes independently from simple attributes is not supported");
     }
 
+    /**
+     * Update the user only if the stored user is still at the expected version (compare-and-set). User stores
+     * without it still get If-Match requests, but the version is then only checked when the user is read, and a
+     * concurrent update between that read and the write goes undetected.
+     *
+     * @param updatedUser                    Updated user.
+     * @param requiredAttributes             URIs of required attributes which must be given a value.
+     * @param allSimpleMultiValuedAttributes Simple multi-valued attributes defined in SCIM schema.
+     * @param expectedVersion                meta.version of the user the update was computed from.
+     * @return Updated user stored in the user store.
+     * @throws PreConditionFailedException If the stored user is no longer at the expected version.
+     * @throws NotImplementedException     If the user store does not support versioned updates.
+     */
+    default User updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                            List<String> allSimpleMultiValuedAttributes, String expectedVersion)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException,
+            PreConditionFailedException {
+
+        throw new NotImplementedException("Versioned user updates are not supported");
+    }
+
+    /**
+     * Update the user by the changes of a PUT or PATCH request, instead of by the whole updated user.
+     *
+     * @param userId             ID of the user.
+     * @param changeSet          Changes from the stored user to the updated user, which the request already validated.
+     * @param requiredAttributes Attributes to be returned in the response.
+     * @return Updated user stored in the user store.
+     * @throws NotImplementedException If the user store can only update whole users.
+     */
+    default User updateUser(String userId, ChangeSet changeSet, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        throw new NotImplementedException("Updating users by change sets is not supported");
+    }
+
     public User getMe(String userName, Map<String, Boolean> requiredAttributes)
             throws CharonException, BadRequestException, NotFoundException, NotImplementedException;
 
@@ -150,12 +297,81 @@ public interface UserManager {
     public void deleteGroup(String id)
             throws NotFoundException, CharonException, NotImplementedException, BadRequestException;
 
+    /**
+     * Retrieve several groups by id in one call. Used to resolve the groups referenced by group members, and to
+     * answer filters that only match ids when listing the groups of a filter is not implemented. The default
+     * implementation retrieves the groups one by one.
+     *
+     * @param groupIds           Ids of the groups.
+     * @param requiredAttributes Required group attributes.
+     * @return Groups found, keyed by id. Ids without a group are left out.
+     * @throws CharonException         Error while retrieving the groups
+     * @throws NotImplementedException Groups are not supported by the user store
+     * @throws BadRequestException     Bad request
+     */
+    default Map<String, Group> getGroupsByIds(Collection<String> groupIds, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (String groupId : groupIds) {
+            try {
+                Group group = getGroup(groupId, requiredAttributes);
+                if (group != null) {
+                    groups.put(groupId, group);
+                }
+            } catch (NotFoundException e) {
+                // A missing group is left out of the result.
+            }
+        }
+        return groups;
+    }
+
     default GroupsGetResponse listGroupsWithGET(Node node, Integer startIndex, Integer count, String sortBy,
                                String sortOrder, String domainName, Map<String, Boolean> requiredAttributes)
             throws CharonException, NotImplementedException, BadRequestException {
         return null;
     }
 
+    /**
+     * List groups with Get, using cursor pagination instead of a start index.
+     *
+     * @param node               Node
+     * @param cursor             Opaque cursor returned as nextCursor of the previous page, or an empty string to
+     *                           request the first page
+     * @param count              Count
+     * @param sortBy             Sort by
+     * @param sortOrder          Sort order
+     * @param domainName         Domain name
+     * @param requiredAttributes Required group attributes
+     * @return Groups of the requested page, with the cursor of the page that follows
+     * @throws CharonException         Error while listing groups
+     * @throws NotImplementedException Cursor pagination is not supported by the user store
+     * @throws BadRequestException     Invalid or expired cursor
+     */
+    default GroupsGetResponse listGroupsWithCursor(Node node, String cursor, Integer count, String sortBy,
+                               String sortOrder, String domainName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Cursor pagination of groups is not supported");
+    }
+
+    /**
+     * Count the groups matching a filter, without retrieving them. Used for list requests with a count of zero,
+     * which only ask for totalResults.
+     *
+     * @param node       Filter, null to count all the groups
+     * @param domainName Domain name
+     * @return Number of groups matching the filter
+     * @throws CharonException         Error while counting groups
+     * @throws NotImplementedException Counting is not supported by the user store
+     * @throws BadRequestException     Bad request
+     */
+    default int countGroups(Node node, String domainName)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Counting groups is not supported");
+    }
+
     /**
      * This method is deprecated.
      *
@@ -200,6 +416,43 @@ public interface UserManager {
         throw new NotImplementedException();
     }
 
+    /**
+     * Update the group only if the stored group is still at the expected version (compare-and-set). User stores
+     * without it still get If-Match requests, but the version is then only checked when the group is read, and a
+     * concurrent update between that read and the write goes undetected.
+     *
+     * @param oldGroup           Group the update was computed from.
+     * @param newGroup           Updated group.
+     * @param requiredAttributes Attributes to be returned in the response.
+     * @param expectedVersion    meta.version of the old group.
+     * @return Updated group.
+     * @throws PreConditionFailedException If the stored group is no longer at the expected version.
+     * @throws NotImplementedException     If the user store does not support versioned updates.
+     */
+    default Group updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes,
+                              String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        throw new NotImplementedException("Versioned group updates are not supported");
+    }
+
+    /**
+     * Update the group by the changes of a PUT or PATCH request, instead of by the old and the updated group.
+     *
+     * @param groupId            ID of the group.
+     * @param changeSet          Changes from the stored group to the updated group, which the request already
+     *                           validated.
+     * @param requiredAttributes Attributes to be returned in the response.
+     * @return Updated group.
+     * @throws NotImplementedException If the user store can only update whole groups.
+     */
+    default Group updateGroup(String groupId, ChangeSet changeSet, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        throw new NotImplementedException("Updating groups by change sets is not supported");
+    }
+
     /**
      * Updates the group via PATCH.
      *
@@ -220,9 +473,63 @@ public interface UserManager {
         throw new NotImplementedException();
     }
 
+    /**
+     * Updates the group via PATCH only if the stored group is still at the expected version. User stores without
+     * it still get If-Match requests, but the version is then only checked when the group is read.
+     *
+     * @param  groupId                     ID of the group.
+     * @param  currentGroupName            Current name of the group.
+     * @param  patchOperations             A map of patch operations.
+     * @param  requiredAttributes          Attributes to be returned in the response.
+     * @param  expectedVersion             meta.version the client made the request against.
+     * @return Updated group.
+     * @throws PreConditionFailedException If the stored group is no longer at the expected version.
+     * @throws NotImplementedException     If the user store does not support versioned updates.
+     */
+    default Group patchGroup(String groupId, String currentGroupName, Map<String, List<PatchOperation>> patchOperations,
+                             Map<String, Boolean> requiredAttributes, String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        throw new NotImplementedException("Versioned group updates are not supported");
+    }
+
+    /**
+     * Updates the members and the display name of the group via PATCH, without the stored members of the group
+     * being read. The cost of the update should depend on the size of the delta, not on the size of the group.
+     *
+     * @param  delta                   Members to remove and add, and the new display name of the group.
+     * @param  requiredAttributes      Attributes to be returned in the response. The members are only required if
+     *                                 the request asks for them.
+     * @return Updated group.
+     * @throws NotFoundException       If the group does not exist.
+     * @throws NotImplementedException If the user store can only patch groups by their operations.
+     */
+    default Group patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        throw new NotImplementedException("Patching group members by their delta is not supported");
+    }
+
     public GroupsGetResponse listGroupsWithPost(SearchRequest searchRequest, Map<String, Boolean> requiredAttributes)
             throws NotImplementedException, BadRequestException, CharonException;
 
+    /**
+     * Retrieve only the version of a group, without loading the group and its members. Used to answer conditional
+     * requests.
+     *
+     * @param groupId Id of the group.
+     * @return meta.version of the group, or any other value that changes on every write of the group (e.g. the last
+     * modified time). Null if the user store does not keep such a value.
+     * @throws NotFoundException       If the group does not exist.
+     * @throws NotImplementedException If the user store can only provide the version with the full group.
+     */
+    default String getGroupVersion(String groupId)
+            throws CharonException, NotFoundException, NotImplementedException, BadRequestException {
+
+        throw new NotImplementedException("Retrieving the version of a group is not supported");
+    }
+
     default List<Attribute> getCoreSchema() throws CharonException, NotImplementedException, BadRequestException {
 
         throw new NotImplementedException();
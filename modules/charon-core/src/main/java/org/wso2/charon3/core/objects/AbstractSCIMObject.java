@@ -16,6 +16,7 @@
 package org.wso2.charon3.core.objects;
 
 import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.AttributeMap;
 import org.wso2.charon3.core.attributes.ComplexAttribute;
 import org.wso2.charon3.core.attributes.DefaultAttributeFactory;
 import org.wso2.charon3.core.attributes.MultiValuedAttribute;
@@ -27,10 +28,11 @@ import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMDefinitions;
 import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -44,7 +46,7 @@ public class AbstractSCIMObject extends ScimAttributeAware implements SCIMObject
 
     private static final long serialVersionUID = 6106269076155338045L;
     /**Collection of attributes which constitute this resource.*/
-    protected Map<String, Attribute> attributeList = new HashMap<String, Attribute>();
+    protected Map<String, Attribute> attributeList = new AttributeMap();
 
     /**List of schemas where the attributes of this resource, are defined.*/
     protected List<String> schemaList = new ArrayList<String>();
@@ -594,4 +596,14 @@ public class AbstractSCIMObject extends ScimAttributeAware implements SCIMObject
         return this;
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+        in.defaultReadObject();
+        // Objects serialized by earlier versions hold their attributes in a hash map, so the attributes are copied
+        // into an attribute map, ordered by the schemas they are read with now.
+        if (attributeList != null) {
+            attributeList = new AttributeMap(attributeList);
+        }
+    }
+
 }
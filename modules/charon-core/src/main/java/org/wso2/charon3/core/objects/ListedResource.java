@@ -130,6 +130,88 @@ public class ListedResource extends AbstractSCIMObject {
         }
     }
 
+    /**
+     * @return the cursor of the page that follows this listed resource, null if there is none
+     */
+    public String getNextCursor() {
+        if (!isAttributeExist(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR)) {
+            return null;
+        } else {
+            String nextCursorString = SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR;
+            SimpleAttribute nextCursorAttribute = ((SimpleAttribute) attributeList.get(nextCursorString));
+            return (String) nextCursorAttribute.getValue();
+        }
+    }
+
+    /**
+     * cursor paginated listed resource next cursor settings
+     *
+     * @param nextCursor
+     */
+    public void setNextCursor(String nextCursor) {
+        if (!isAttributeExist(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR)) {
+            SimpleAttribute nextCursorAttribute =
+                new SimpleAttribute(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR, nextCursor);
+            attributeList.put(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR, nextCursorAttribute);
+        } else {
+            ((SimpleAttribute) attributeList.get(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR))
+                .setValue(nextCursor);
+        }
+    }
+
+    /**
+     * @return the watermark to request the changes that follow this listed resource with, null if there is none
+     */
+    public String getWatermark() {
+        if (!isAttributeExist(SCIMConstants.ListedResourceSchemaConstants.WATERMARK)) {
+            return null;
+        } else {
+            String watermarkString = SCIMConstants.ListedResourceSchemaConstants.WATERMARK;
+            SimpleAttribute watermarkAttribute = ((SimpleAttribute) attributeList.get(watermarkString));
+            return (String) watermarkAttribute.getValue();
+        }
+    }
+
+    /**
+     * change listed resource watermark settings
+     *
+     * @param watermark
+     */
+    public void setWatermark(String watermark) {
+        if (!isAttributeExist(SCIMConstants.ListedResourceSchemaConstants.WATERMARK)) {
+            SimpleAttribute watermarkAttribute =
+                new SimpleAttribute(SCIMConstants.ListedResourceSchemaConstants.WATERMARK, watermark);
+            attributeList.put(SCIMConstants.ListedResourceSchemaConstants.WATERMARK, watermarkAttribute);
+        } else {
+            ((SimpleAttribute) attributeList.get(SCIMConstants.ListedResourceSchemaConstants.WATERMARK))
+                .setValue(watermark);
+        }
+    }
+
+    /**
+     * @return the ids of the resources deleted since the requested watermark, empty if there are none
+     */
+    public List<Object> getDeletedIds() {
+        if (!isAttributeExist(SCIMConstants.ListedResourceSchemaConstants.DELETED_IDS)) {
+            return new ArrayList<>();
+        } else {
+            return ((MultiValuedAttribute) attributeList.get(SCIMConstants.ListedResourceSchemaConstants.DELETED_IDS))
+                .getAttributePrimitiveValues();
+        }
+    }
+
+    /**
+     * change listed resource deleted ids settings
+     *
+     * @param deletedIds
+     */
+    public void setDeletedIds(List<String> deletedIds) {
+        MultiValuedAttribute deletedIdsAttribute =
+            new MultiValuedAttribute(SCIMConstants.ListedResourceSchemaConstants.DELETED_IDS);
+        deletedIdsAttribute.setAttributePrimitiveValues(new ArrayList<>(deletedIds));
+        attributeList.put(SCIMConstants.ListedResourceSchemaConstants.DELETED_IDS, deletedIdsAttribute);
+    }
+
     /**
      * set the listed resources
      *
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.objects.plainobjects;
+
+import org.wso2.charon3.core.schema.AttributeSchema;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * This class representation carries the changes a PUT or PATCH request makes to a resource: the attributes added,
+ * removed and replaced, down to the sub attributes of complex attributes, and the values added to and removed from
+ * multi-valued attributes. A value of a multi-valued attribute that changed is removed and added again.
+ */
+public class ChangeSet {
+
+    /**
+     * Kinds of changes.
+     */
+    public enum ChangeType {
+        ATTRIBUTE_ADDED, ATTRIBUTE_REMOVED, ATTRIBUTE_REPLACED, VALUE_ADDED, VALUE_REMOVED
+    }
+
+    private final String resourceId;
+    private Supplier<List<AttributeChange>> changesSupplier;
+    private List<AttributeChange> changes;
+
+    /**
+     * Constructor used to build a change set of known changes.
+     */
+    public ChangeSet(String resourceId, List<AttributeChange> changes) {
+
+        this.resourceId = resourceId;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Constructor used to build a change set whose changes are computed when they are first read.
+     */
+    public ChangeSet(String resourceId, Supplier<List<AttributeChange>> changesSupplier) {
+
+        this.resourceId = resourceId;
+        this.changesSupplier = changesSupplier;
+    }
+
+    public String getResourceId() {
+
+        return resourceId;
+    }
+
+    public List<AttributeChange> getChanges() {
+
+        if (changes == null) {
+            changes = Collections.unmodifiableList(changesSupplier.get());
+            changesSupplier = null;
+        }
+        return changes;
+    }
+
+    public boolean isEmpty() {
+
+        return getChanges().isEmpty();
+    }
+
+    /**
+     * A change to an attribute, or to the values of a multi-valued attribute.
+     */
+    public static class AttributeChange {
+
+        private final ChangeType type;
+        private final String attributeURI;
+        private final AttributeSchema attributeSchema;
+        private final Object oldValue;
+        private final Object newValue;
+
+        /**
+         * @param type            Kind of change.
+         * @param attributeURI    URI of the changed attribute, e.g. urn:ietf:params:scim:schemas:core:2.0:User:name
+         *                        .givenName.
+         * @param attributeSchema Schema of the changed attribute, null if the attribute is not in the schema.
+         * @param oldValue        Removed or replaced attribute, or removed value. A value of a multi-valued complex
+         *                        attribute is an attribute, other values are primitives.
+         * @param newValue        Added or replacing attribute, or added value.
+         */
+        public AttributeChange(ChangeType type, String attributeURI, AttributeSchema attributeSchema,
+                               Object oldValue, Object newValue) {
+
+            this.type = type;
+            this.attributeURI = attributeURI;
+            this.attributeSchema = attributeSchema;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        public ChangeType getType() {
+
+            return type;
+        }
+
+        public String getAttributeURI() {
+
+            return attributeURI;
+        }
+
+        public AttributeSchema getAttributeSchema() {
+
+            return attributeSchema;
+        }
+
+        public Object getOldValue() {
+
+            return oldValue;
+        }
+
+        public Object getNewValue() {
+
+            return newValue;
+        }
+
+        @Override
+        public String toString() {
+
+            return type + " " + attributeURI;
+        }
+    }
+}
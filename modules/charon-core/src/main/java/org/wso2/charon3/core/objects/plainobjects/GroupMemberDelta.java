@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.objects.plainobjects;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class representation carries the membership changes a group PATCH request makes, computed from the
+ * operations alone: the ids of the members to remove, the members to add and the new display name of the group.
+ * The members are removed before the members are added, so a member removed and added again by the request stays
+ * in the group.
+ */
+public class GroupMemberDelta {
+
+    private final String groupId;
+    private final String displayName;
+    private final List<Map<String, String>> addedMembers;
+    private final Set<String> removedMemberIds;
+
+    /**
+     * Constructor used to build a membership delta.
+     *
+     * @param groupId          ID of the group.
+     * @param displayName      New display name of the group, null if the request does not change it.
+     * @param addedMembers     Members to add, as maps of the value and display sub attributes.
+     * @param removedMemberIds IDs of the members to remove.
+     */
+    public GroupMemberDelta(String groupId, String displayName, List<Map<String, String>> addedMembers,
+                            Set<String> removedMemberIds) {
+
+        this.groupId = groupId;
+        this.displayName = displayName;
+        this.addedMembers = Collections.unmodifiableList(addedMembers);
+        this.removedMemberIds = Collections.unmodifiableSet(removedMemberIds);
+    }
+
+    public String getGroupId() {
+
+        return groupId;
+    }
+
+    public String getDisplayName() {
+
+        return displayName;
+    }
+
+    public List<Map<String, String>> getAddedMembers() {
+
+        return addedMembers;
+    }
+
+    public Set<String> getRemovedMemberIds() {
+
+        return removedMemberIds;
+    }
+
+    public boolean isEmpty() {
+
+        return displayName == null && addedMembers.isEmpty() && removedMemberIds.isEmpty();
+    }
+}
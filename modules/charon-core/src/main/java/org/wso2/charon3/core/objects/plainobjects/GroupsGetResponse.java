@@ -30,6 +30,7 @@ public class GroupsGetResponse {
 
     private int totalGroups;
     private List<Group> groups;
+    private String nextCursor;
 
     /**
      * Constructor used to build a response object.
@@ -40,6 +41,19 @@ public class GroupsGetResponse {
         this.groups = groups;
     }
 
+    /**
+     * Constructor used to build a response object when using cursor pagination.
+     *
+     * @param totalGroups Number of groups identified from the filter.
+     * @param groups Groups of the requested page.
+     * @param nextCursor Cursor of the page that follows, null if this is the last page.
+     */
+    public GroupsGetResponse(int totalGroups, List<Group> groups, String nextCursor) {
+
+        this(totalGroups, groups);
+        this.nextCursor = nextCursor;
+    }
+
     public int getTotalGroups() {
 
         return totalGroups;
@@ -59,4 +73,14 @@ public class GroupsGetResponse {
 
         this.groups = filteredGroups;
     }
+
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+
+        this.nextCursor = nextCursor;
+    }
 }
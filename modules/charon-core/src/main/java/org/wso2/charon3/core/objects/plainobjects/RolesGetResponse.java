@@ -30,6 +30,7 @@ public class RolesGetResponse {
 
     private int totalRoles;
     private List<Role> roles;
+    private String nextCursor;
 
     /**
      * Constructor used to build a response object.
@@ -40,6 +41,19 @@ public class RolesGetResponse {
         this.roles = roles;
     }
 
+    /**
+     * Constructor used to build a response object when using cursor pagination.
+     *
+     * @param totalRoles Number of roles identified from the filter.
+     * @param roles Roles of the requested page.
+     * @param nextCursor Cursor of the page that follows, null if this is the last page.
+     */
+    public RolesGetResponse(int totalRoles, List<Role> roles, String nextCursor) {
+
+        this(totalRoles, roles);
+        this.nextCursor = nextCursor;
+    }
+
     public int getTotalRoles() {
 
         return totalRoles;
@@ -59,4 +73,14 @@ public class RolesGetResponse {
 
         this.roles = filteredRoles;
     }
+
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+
+        this.nextCursor = nextCursor;
+    }
 }
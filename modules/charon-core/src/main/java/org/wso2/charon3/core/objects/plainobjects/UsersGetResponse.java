@@ -29,6 +29,9 @@ public class UsersGetResponse {
 
     private int totalUsers;
     private List<User> users;
+    private String nextCursor;
+    private String watermark;
+    private List<String> deletedUserIds;
 
     /**
      * Constructor used to build a response object when not using cursor pagination.
@@ -39,6 +42,19 @@ public class UsersGetResponse {
         this.users = users;
     }
 
+    /**
+     * Constructor used to build a response object when using cursor pagination.
+     *
+     * @param totalUsers Number of users identified from the filter.
+     * @param users Users of the requested page.
+     * @param nextCursor Cursor of the page that follows, null if this is the last page.
+     */
+    public UsersGetResponse(int totalUsers, List<User> users, String nextCursor) {
+
+        this(totalUsers, users);
+        this.nextCursor = nextCursor;
+    }
+
     public int getTotalUsers() {
 
         return totalUsers;
@@ -58,4 +74,40 @@ public class UsersGetResponse {
 
         this.users = filteredUsers;
     }
+
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return Watermark to request the changes that follow this response with, null if this is not a change listing.
+     */
+    public String getWatermark() {
+
+        return watermark;
+    }
+
+    public void setWatermark(String watermark) {
+
+        this.watermark = watermark;
+    }
+
+    /**
+     * @return Ids of the users deleted since the requested watermark, null if this is not a change listing.
+     */
+    public List<String> getDeletedUserIds() {
+
+        return deletedUserIds;
+    }
+
+    public void setDeletedUserIds(List<String> deletedUserIds) {
+
+        this.deletedUserIds = deletedUserIds;
+    }
 }
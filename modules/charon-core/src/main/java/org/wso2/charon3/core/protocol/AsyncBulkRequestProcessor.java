@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol;
+
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.extensions.AsyncRoleManager;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.objects.bulk.BulkRequestContent;
+import org.wso2.charon3.core.objects.bulk.BulkRequestData;
+import org.wso2.charon3.core.objects.bulk.BulkResponseContent;
+import org.wso2.charon3.core.objects.bulk.BulkResponseData;
+import org.wso2.charon3.core.protocol.endpoints.AsyncGroupResourceManager;
+import org.wso2.charon3.core.protocol.endpoints.AsyncResourceManager;
+import org.wso2.charon3.core.protocol.endpoints.AsyncRoleResourceManager;
+import org.wso2.charon3.core.protocol.endpoints.AsyncUserResourceManager;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.utils.CompletionStageUtil;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * Processes the operations of a bulk request through the asynchronous resource managers.
+ * <p>
+ * The operations run one after the other in the order of {@link BulkRequestProcessor}, the user operations first,
+ * then the group and the role operations, each one starting once the previous one completed. No thread waits
+ * between the operations. A processor holds the error count of one bulk request, so a new one is used per request.
+ */
+public class AsyncBulkRequestProcessor {
+
+    private final AsyncResourceManager userResourceManager = new AsyncUserResourceManager();
+    private final AsyncResourceManager groupResourceManager = new AsyncGroupResourceManager();
+    private final AsyncResourceManager roleResourceManager = new AsyncRoleResourceManager();
+    private final AsyncUserManager userManager;
+    private final AsyncRoleManager roleManager;
+    private final int failOnError;
+    private int errors;
+
+    /**
+     * @param userManager User manager the user and group operations are run on.
+     * @param roleManager Role manager the role operations are run on, null if there is none.
+     * @param failOnError Number of errors after which the remaining operations are skipped, 0 to run all of them.
+     */
+    public AsyncBulkRequestProcessor(AsyncUserManager userManager, AsyncRoleManager roleManager, int failOnError) {
+
+        this.userManager = userManager;
+        this.roleManager = roleManager;
+        this.failOnError = failOnError;
+    }
+
+    public CompletionStage<BulkResponseData> processBulkRequests(BulkRequestData bulkRequestData) {
+
+        BulkResponseData bulkResponseData = new BulkResponseData();
+        CompletionStage<Void> operations = CompletionStageUtil.completed();
+        operations = processBulkRequests(operations, bulkRequestData.getUserOperationRequests(),
+                userResourceManager, bulkResponseData::addUserOperation);
+        operations = processBulkRequests(operations, bulkRequestData.getGroupOperationRequests(),
+                groupResourceManager, bulkResponseData::addGroupOperation);
+        operations = processBulkRequests(operations, bulkRequestData.getRoleOperationRequests(),
+                roleResourceManager, bulkResponseData::addRoleOperation);
+        return operations.thenApply(processed -> {
+            bulkResponseData.setSchema(SCIMConstants.BULK_RESPONSE_URI);
+            return bulkResponseData;
+        });
+    }
+
+    /*
+     * Chain the operations of a resource type after the given stage. An operation is skipped once the errors reach
+     * the failOnErrors of the request.
+     */
+    private CompletionStage<Void> processBulkRequests(CompletionStage<Void> operations,
+                                                      List<BulkRequestContent> bulkRequestContents,
+                                                      AsyncResourceManager resourceManager,
+                                                      Consumer<BulkResponseContent> responseConsumer) {
+
+        for (BulkRequestContent bulkRequestContent : bulkRequestContents) {
+            operations = operations.thenCompose(rethrowFunction(processed -> {
+                if (failOnError != 0 && errors >= failOnError) {
+                    return CompletionStageUtil.completed();
+                }
+                return getBulkResponseContent(bulkRequestContent, resourceManager).thenAccept(bulkResponseContent -> {
+                    if (bulkResponseContent != null) {
+                        responseConsumer.accept(bulkResponseContent);
+                    }
+                });
+            }));
+        }
+        return operations;
+    }
+
+    private CompletionStage<BulkResponseContent> getBulkResponseContent(BulkRequestContent bulkRequestContent,
+                                                                        AsyncResourceManager resourceManager)
+            throws BadRequestException {
+
+        String method = bulkRequestContent.getMethod();
+        boolean isRole = bulkRequestContent.getPath().contains(SCIMConstants.ROLE_ENDPOINT);
+        CompletionStage<SCIMResponse> response;
+        if (method.equals(SCIMConstants.OperationalConstants.POST)) {
+            response = isRole ? resourceManager.createRole(bulkRequestContent.getData(), roleManager) :
+                    resourceManager.create(bulkRequestContent.getData(), userManager, null, null);
+        } else if (method.equals(SCIMConstants.OperationalConstants.PUT)) {
+            String resourceId = BulkRequestProcessor.extractIDFromPath(bulkRequestContent.getPath());
+            response = isRole ? resourceManager.updateWithPUTRole(resourceId, bulkRequestContent.getData(),
+                    roleManager) : resourceManager.updateWithPUT(resourceId, bulkRequestContent.getData(),
+                    userManager, null, null);
+        } else if (method.equals(SCIMConstants.OperationalConstants.PATCH)) {
+            String resourceId = BulkRequestProcessor.extractIDFromPath(bulkRequestContent.getPath());
+            response = isRole ? resourceManager.updateWithPATCHRole(resourceId, bulkRequestContent.getData(),
+                    roleManager) : resourceManager.updateWithPATCH(resourceId, bulkRequestContent.getData(),
+                    userManager, null, null);
+        } else if (method.equals(SCIMConstants.OperationalConstants.DELETE)) {
+            String resourceId = BulkRequestProcessor.extractIDFromPath(bulkRequestContent.getPath());
+            response = isRole ? resourceManager.deleteRole(resourceId, roleManager) :
+                    resourceManager.delete(resourceId, userManager);
+        } else {
+            return CompletionStageUtil.completedEmpty();
+        }
+        return response.thenApply(scimResponse -> {
+            if (BulkRequestProcessor.isError(scimResponse)) {
+                errors++;
+            }
+            return BulkRequestProcessor.createBulkResponseContent(scimResponse, method, bulkRequestContent);
+        });
+    }
+}
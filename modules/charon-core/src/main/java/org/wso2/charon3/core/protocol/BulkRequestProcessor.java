@@ -219,7 +219,7 @@ public class BulkRequestProcessor {
        return bulkResponseContent;
    }
 
-    private String extractIDFromPath(String path) throws BadRequestException {
+    static String extractIDFromPath(String path) throws BadRequestException {
         String [] parts = path.split("[/]");
         if (parts[2] != null) {
             return parts[2];
@@ -229,8 +229,8 @@ public class BulkRequestProcessor {
         }
     }
 
-    private BulkResponseContent createBulkResponseContent(SCIMResponse response, String method,
-                                                          BulkRequestContent requestContent) {
+    static BulkResponseContent createBulkResponseContent(SCIMResponse response, String method,
+                                                         BulkRequestContent requestContent) {
         BulkResponseContent bulkResponseContent = new BulkResponseContent();
 
         bulkResponseContent.setScimResponse(response);
@@ -246,10 +246,14 @@ public class BulkRequestProcessor {
     }
 
     private void errorsCheck(SCIMResponse response) {
-        if (response.getResponseStatus() != 200 && response.getResponseStatus() != 201 &&
-                response.getResponseStatus() != 204) {
+        if (isError(response)) {
             errors++;
         }
     }
 
+    static boolean isError(SCIMResponse response) {
+        return response.getResponseStatus() != 200 && response.getResponseStatus() != 201 &&
+                response.getResponseStatus() != 204;
+    }
+
 }
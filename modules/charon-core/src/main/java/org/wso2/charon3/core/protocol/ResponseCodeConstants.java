@@ -34,6 +34,7 @@ public class ResponseCodeConstants {
     public static final int CODE_CREATED = 201;
     public static final int CODE_ACCEPTED = 202;
     public static final int CODE_NO_CONTENT = 204;
+    public static final int CODE_NOT_MODIFIED = 304;
 
     public static final int CODE_TEMPORARY_REDIRECT = 307;
     public static final String DESC_TEMPORARY_REDIRECT = "The client is directed to repeat the same HTTP request at " +
@@ -94,6 +95,8 @@ public class ResponseCodeConstants {
     public static final String INVALID_VALUE = "invalidValue";
     public static final String INVALID_VERS = "invalidVers";
     public static final String SENSITIVE = "sensitive";
+    public static final String INVALID_CURSOR = "invalidCursor";
+    public static final String INVALID_WATERMARK = "invalidWatermark";
     //For HTTP status code 201 responses, the following details are defined
     public static final String CREATED = "Created";
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.ListedResource;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.CompletionStageUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This is an abstract layer for the asynchronous resource endpoints, holding the steps they share around the
+ * stages of the user store. The encoder, decoder and resource URLs are the ones of {@link AbstractResourceManager}.
+ */
+public abstract class AbstractAsyncResourceManager implements AsyncResourceManager {
+
+    /*
+     * Returns a stage completed with the response of the exception.
+     *
+     * @param exception - exception thrown before the user store is called
+     * @return stage of the SCIMResponse
+     */
+    protected static CompletionStage<SCIMResponse> completeWithException(AbstractCharonException exception) {
+
+        return CompletableFuture.completedFuture(AbstractResourceManager.encodeSCIMException(exception));
+    }
+
+    /*
+     * Returns the response of the exception a stage completed with. Charon exceptions are unwrapped from the
+     * completion exceptions the stages wrap them in, and any other exception is answered as an internal error.
+     *
+     * @param throwable - exception the stage completed with
+     * @return SCIMResponse
+     */
+    protected static SCIMResponse encodeSCIMException(Throwable throwable) {
+
+        Throwable cause = CompletionStageUtil.getCause(throwable);
+        if (cause instanceof AbstractCharonException) {
+            return AbstractResourceManager.encodeSCIMException((AbstractCharonException) cause);
+        }
+        return AbstractResourceManager.encodeSCIMException(
+                new CharonException("Error in processing the request.", cause));
+    }
+
+    /*
+     * Returns the stage of an update, or of the fallback update if the user store does not implement the first one.
+     *
+     * @param update   - stage of the update
+     * @param fallback - starts the fallback update
+     * @return stage of the updated resource
+     */
+    protected static <T> CompletionStage<T> updateOrElseIfNotImplemented(CompletionStage<T> update,
+                                                                      Supplier<CompletionStage<T>> fallback) {
+
+        return update.<CompletionStage<T>>handle((updated, throwable) -> {
+            if (throwable == null) {
+                return CompletableFuture.completedFuture(updated);
+            }
+            if (CompletionStageUtil.getCause(throwable) instanceof NotImplementedException) {
+                return fallback.get();
+            }
+            return CompletionStageUtil.completedExceptionally(throwable);
+        }).thenCompose(Function.identity());
+    }
+
+    /*
+     * Decodes a search request and checks its schema and sort order. The sort order defaults to ascending when the
+     * request is sorted.
+     *
+     * @param searchRequestString - payload of the search request
+     * @param schema              - schema of the searched resources
+     * @return SearchRequest
+     * @throws BadRequestException
+     * @throws CharonException
+     */
+    protected static SearchRequest decodeSearchRequest(String searchRequestString, SCIMResourceTypeSchema schema)
+            throws BadRequestException, CharonException {
+
+        SearchRequest searchRequest = AbstractResourceManager.getDecoder().decodeSearchRequestBody(
+                searchRequestString, schema);
+        searchRequest.setCount(ResourceManagerUtil.processCount(searchRequest.getCountStr()));
+        searchRequest.setStartIndex(ResourceManagerUtil.processStartIndex(searchRequest.getStartIndexStr()));
+
+        if (searchRequest.getSchema() != null && !searchRequest.getSchema().equals(SCIMConstants.SEARCH_SCHEMA_URI)) {
+            throw new BadRequestException("Provided schema is invalid.", ResponseCodeConstants.INVALID_VALUE);
+        }
+        if (searchRequest.getSortOder() != null &&
+                !(searchRequest.getSortOder().equalsIgnoreCase(SCIMConstants.OperationalConstants.ASCENDING) ||
+                        searchRequest.getSortOder().equalsIgnoreCase(SCIMConstants.OperationalConstants.DESCENDING))) {
+            String error = "Invalid sortOrder value is specified";
+            throw new BadRequestException(error, ResponseCodeConstants.INVALID_VALUE);
+        }
+        if (searchRequest.getSortOder() == null && searchRequest.getSortBy() != null) {
+            searchRequest.setSortOder(SCIMConstants.OperationalConstants.ASCENDING);
+        }
+        return searchRequest;
+    }
+
+    /*
+     * Returns the response of a page of resources found by a search request. A cursor paginated page carries the
+     * next cursor instead of a start index.
+     *
+     * @param resources     - resources of the page
+     * @param totalResults  - total number of resources found
+     * @param nextCursor    - cursor of the next page, null on the last page
+     * @param searchRequest - search request the resources were found by
+     * @return SCIMResponse
+     * @throws CharonException
+     */
+    protected static SCIMResponse getListResponse(List<? extends AbstractSCIMObject> resources, int totalResults,
+                                                  String nextCursor, SearchRequest searchRequest)
+            throws CharonException {
+
+        if (resources == null) {
+            resources = Collections.emptyList();
+        }
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(totalResults);
+        if (searchRequest.getCursor() == null) {
+            listedResource.setStartIndex(searchRequest.getStartIndex());
+        } else if (nextCursor != null) {
+            listedResource.setNextCursor(nextCursor);
+        }
+        listedResource.setItemsPerPage(resources.size());
+        for (AbstractSCIMObject resource : resources) {
+            listedResource.addResource(resource);
+        }
+        String encodedListedResource = ResourceManagerUtil.encodeListedResource(
+                AbstractResourceManager.getEncoder(), listedResource,
+                new AttributeProjection(searchRequest.getAttributesAsString(),
+                        searchRequest.getExcludedAttributesAsString()));
+        Map<String, String> responseHeaders = new HashMap<>();
+        responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+        return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
+    }
+
+    /*
+     * Returns the response carrying an encoded resource, its location and the entity tag of its version.
+     *
+     * @param status          - status of the response
+     * @param encodedResource - encoded resource
+     * @param endpoint        - endpoint of the resource type
+     * @param id              - id of the resource
+     * @param version         - version of the resource, null if it has none
+     * @return SCIMResponse
+     * @throws NotFoundException
+     */
+    protected static SCIMResponse getResourceResponse(int status, String encodedResource, String endpoint,
+                                                      String id, String version) throws NotFoundException {
+
+        Map<String, String> responseHeaders = new HashMap<>();
+        responseHeaders.put(SCIMConstants.LOCATION_HEADER,
+                AbstractResourceManager.getResourceEndpointURL(endpoint) + "/" + id);
+        responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+        if (version != null) {
+            responseHeaders.put(SCIMConstants.ETAG_HEADER, ETagUtil.toWeakETag(version));
+        }
+        return new SCIMResponse(status, encodedResource, responseHeaders);
+    }
+}
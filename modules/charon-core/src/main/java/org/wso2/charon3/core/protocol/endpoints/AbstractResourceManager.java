@@ -25,6 +25,7 @@ import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
 import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.utils.ETagUtil;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -111,4 +112,17 @@ public abstract class AbstractResourceManager implements ResourceManager {
         return new SCIMResponse(exception.getStatus(), encoder.encodeSCIMException(exception), responseHeaders);
     }
 
+    /*
+     * Returns the 304 response of a conditional GET whose If-None-Match header matched the current version.
+     *
+     * @param version - current version of the resource
+     * @return SCIMResponse
+     */
+    protected SCIMResponse getNotModifiedResponse(String version) {
+
+        Map<String, String> responseHeaders = new HashMap<>();
+        responseHeaders.put(SCIMConstants.ETAG_HEADER, ETagUtil.toWeakETag(version));
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_MODIFIED, null, responseHeaders);
+    }
+
 }
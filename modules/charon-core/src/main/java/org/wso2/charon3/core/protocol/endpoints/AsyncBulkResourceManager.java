@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.extensions.AsyncRoleManager;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.objects.bulk.BulkRequestData;
+import org.wso2.charon3.core.protocol.AsyncBulkRequestProcessor;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.SCIMConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * REST API exposed by Charon-Core to perform bulk operations without blocking while the user store answers. The
+ * operations are run through the asynchronous resource managers.
+ */
+public class AsyncBulkResourceManager {
+
+    public CompletionStage<SCIMResponse> processBulkData(String data, AsyncUserManager userManager,
+                                                         AsyncRoleManager roleManager) {
+
+        BulkRequestData bulkRequestDataObject;
+        try {
+            // Decode the request.
+            bulkRequestDataObject = AbstractResourceManager.getDecoder().decodeBulkData(data);
+        } catch (AbstractCharonException e) {
+            return AbstractAsyncResourceManager.completeWithException(e);
+        }
+        AsyncBulkRequestProcessor bulkRequestProcessor = new AsyncBulkRequestProcessor(userManager, roleManager,
+                bulkRequestDataObject.getFailOnErrors());
+        return bulkRequestProcessor.processBulkRequests(bulkRequestDataObject)
+                .thenApply(rethrowFunction(bulkResponseData -> {
+                    //encode the BulkResponseData object
+                    String finalEncodedResponse = AbstractResourceManager.getEncoder()
+                            .encodeBulkResponseData(bulkResponseData);
+                    Map<String, String> responseHeaders = new HashMap<>();
+                    responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+                    return new SCIMResponse(ResponseCodeConstants.CODE_OK, finalEncodedResponse, responseHeaders);
+                }))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    public CompletionStage<SCIMResponse> processBulkData(String data, AsyncUserManager userManager) {
+
+        return processBulkData(data, userManager, null);
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.InternalErrorException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
+import org.wso2.charon3.core.utils.CompletionStageUtil;
+import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
+import org.wso2.charon3.core.utils.PatchOperationUtil;
+import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.ResourceReferenceUtil;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * REST API exposed by Charon-Core to perform operations on GroupResource without blocking while the user store
+ * answers.
+ * <p>
+ * Conditional reads, the listing of groups with GET and the count only searches are served by
+ * {@link GroupResourceManager}. Members given without a display name get the one of the referenced resource, as by
+ * {@link GroupResourceManager}. A PUT is written conditionally on the version of the group when an If-Match header
+ * is given, and otherwise by its changes, unless the user manager only replaces whole groups. A PATCH is routed as
+ * by {@link GroupResourceManager}: to the member delta of the group, then to the patch operations, and only to the
+ * whole patched group if the user manager supports neither.
+ */
+public class AsyncGroupResourceManager extends AbstractAsyncResourceManager {
+
+    /*
+     * Retrieves a group resource given an unique group id. Mapped to HTTP GET request.
+     *
+     * @param id          - unique resource id
+     * @param userManager - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> get(String id, AsyncUserManager userManager, String attributes,
+                                             String excludeAttributes) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        Map<String, Boolean> requiredAttributes;
+        try {
+            requiredAttributes = getRequiredAttributes(attributes, excludeAttributes);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return userManager.getGroup(id, requiredAttributes).thenApply(rethrowFunction(group -> {
+            if (group == null) {
+                throw new NotFoundException("Group not found in the user store.");
+            }
+            return getGroupResponse(ResponseCodeConstants.CODE_OK, group, attributes, excludeAttributes);
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Creates a group given the submitted payload. Mapped to HTTP POST request.
+     *
+     * @param scimObjectString - payload of HTTP request, which contains the SCIM object
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> create(String scimObjectString, AsyncUserManager userManager,
+                                                String attributes, String excludeAttributes) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        Group group;
+        Map<String, Boolean> requiredAttributes;
+        try {
+            SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+            group = AbstractResourceManager.getDecoder().decodeResource(scimObjectString, schema, new Group());
+            ServerSideValidator.validateCreatedSCIMObject(group, SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA);
+            requiredAttributes = getRequiredAttributes(attributes, excludeAttributes);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return ResourceReferenceUtil.setMemberDisplayNames(userManager, group)
+                .thenCompose(resolved -> userManager.createGroup(group, requiredAttributes))
+                .thenApply(rethrowFunction(createdGroup -> {
+            if (createdGroup == null) {
+                        throw new InternalErrorException("Newly created Group resource is null..");
+                    }
+                    return getGroupResponse(ResponseCodeConstants.CODE_CREATED, createdGroup, attributes,
+                            excludeAttributes);
+                })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Deletes a group given an unique group id. Mapped to HTTP DELETE request.
+     *
+     * @param id          - unique resource id
+     * @param userManager - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> delete(String id, AsyncUserManager userManager) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return userManager.deleteGroup(id)
+                .thenApply(deleted -> new SCIMResponse(ResponseCodeConstants.CODE_NO_CONTENT, null, null))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Searches the groups matching the submitted search request. Mapped to HTTP POST request on /.search.
+     *
+     * @param resourceString - search request
+     * @param userManager    - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> listWithPOST(String resourceString, AsyncUserManager userManager) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        SearchRequest searchRequest;
+        Map<String, Boolean> requiredAttributes;
+        try {
+            searchRequest = decodeSearchRequest(resourceString,
+                    SCIMResourceSchemaManager.getInstance().getGroupResourceSchema());
+            requiredAttributes = getRequiredAttributes(searchRequest.getAttributesAsString(),
+                    searchRequest.getExcludedAttributesAsString());
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return userManager.listGroupsWithPost(searchRequest, requiredAttributes)
+                .thenApply(rethrowFunction(groupsGetResponse -> {
+                    if (groupsGetResponse == null) {
+                        groupsGetResponse = new GroupsGetResponse(0, null);
+                    }
+                    return getListResponse(groupsGetResponse.getGroups(), groupsGetResponse.getTotalGroups(),
+                            groupsGetResponse.getNextCursor(), searchRequest);
+                })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Replaces a group given the submitted payload. Mapped to HTTP PUT request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - payload of HTTP request, which contains the SCIM object
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                       AsyncUserManager userManager, String attributes,
+                                                       String excludeAttributes) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Replaces a group given the submitted payload, provided that the group is still at one of the versions given in
+     * the If-Match header. Mapped to HTTP PUT request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - payload of HTTP request, which contains the SCIM object
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @param ifMatch          - value of the If-Match header, null for an unconditional update
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                       AsyncUserManager userManager, String attributes,
+                                                       String excludeAttributes, String ifMatch) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        Group group;
+        Map<String, Boolean> requiredAttributes;
+        Map<String, Boolean> allAttributes;
+        try {
+            group = AbstractResourceManager.getDecoder().decodeResource(scimObjectString, schema, new Group());
+            requiredAttributes = getRequiredAttributes(attributes, excludeAttributes);
+            allAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return userManager.getGroup(existingId, allAttributes)
+                .thenCompose(rethrowFunction(oldGroup -> {
+                    if (oldGroup == null) {
+                        throw new NotFoundException("No group exists with the given id: " + existingId);
+                    }
+                    if (ifMatch != null) {
+                        ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldGroup));
+                    }
+                    Group newGroup = (Group) ServerSideValidator.validateUpdatedSCIMObject(oldGroup, group, schema);
+                    return ResourceReferenceUtil.setMemberDisplayNames(userManager, newGroup).thenCompose(
+                            resolved -> updateGroup(userManager, oldGroup, newGroup, schema, requiredAttributes,
+                                    ifMatch));
+                }))
+                .thenApply(rethrowFunction(updatedGroup -> getUpdatedGroupResponse(updatedGroup, attributes,
+                        excludeAttributes)))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Updates a group by the submitted patch operations. Mapped to HTTP PATCH request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - payload of HTTP request, which contains the patch operations
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                         AsyncUserManager userManager, String attributes,
+                                                         String excludeAttributes) {
+
+        return updateWithPATCH(existingId, scimObjectString, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Updates a group by the submitted patch operations, provided that the group is still at one of the versions
+     * given in the If-Match header. Mapped to HTTP PATCH request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - payload of HTTP request, which contains the patch operations
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @param ifMatch          - value of the If-Match header, null for an unconditional update
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                         AsyncUserManager userManager, String attributes,
+                                                         String excludeAttributes, String ifMatch) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        List<PatchOperation> opList;
+        Map<String, Boolean> allAttributes;
+        try {
+            opList = AbstractResourceManager.getDecoder().decodeRequest(scimObjectString);
+            allAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        // A stale conditional request is rejected before the group is patched.
+        CompletionStage<Group> precondition = CompletionStageUtil.completedEmpty();
+        if (ifMatch != null) {
+            precondition = userManager.getGroup(existingId, allAttributes).thenApply(rethrowFunction(oldGroup -> {
+                checkGroupFound(oldGroup, existingId);
+                ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldGroup));
+                return oldGroup;
+            }));
+        }
+        return precondition.thenCompose(rethrowFunction(readGroup -> {
+                    if (GroupResourceManager.isDeleteAllUsersOperationFound(opList)) {
+                        return patchWholeGroup(userManager, existingId, scimObjectString, readGroup, attributes,
+                                excludeAttributes, ifMatch);
+                    }
+                    return patchGroupByOperations(userManager, existingId, opList, scimObjectString, readGroup,
+                            attributes, excludeAttributes, ifMatch);
+                }))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Hands the user store the member delta of the operations, or otherwise the operations, and falls back to the
+     * whole patched group if the user store supports neither. A conditional request is not written by the member
+     * delta, and the precondition of a user store without versioned patches only holds as of the read, as by
+     * GroupResourceManager.
+     */
+    private CompletionStage<SCIMResponse> patchGroupByOperations(AsyncUserManager userManager, String existingId,
+                                                                 List<PatchOperation> opList, String scimObjectString,
+                                                                 Group readGroup, String attributes,
+                                                                 String excludeAttributes, String ifMatch)
+            throws AbstractCharonException {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        Map<String, List<PatchOperation>> patchOperations = GroupResourceManager.getPatchOperationsByType(opList);
+        GroupResourceManager.processGroupPatchOperations(patchOperations, schema);
+        PatchOperationCoalescer.coalesceGroupOperations(patchOperations);
+        String expectedVersion = readGroup == null ? null : readGroup.getVersion();
+        GroupMemberDelta delta = expectedVersion == null ?
+                GroupResourceManager.getMemberDelta(existingId, patchOperations) : null;
+        Map<String, Boolean> requiredAttributes = getRequiredAttributes(attributes, excludeAttributes);
+        String deltaExcludeAttributes = GroupResourceManager.getDeltaExcludeAttributes(attributes, excludeAttributes);
+        Map<String, Boolean> deltaRequiredAttributes = getRequiredAttributes(attributes, deltaExcludeAttributes);
+
+        // The operations are processed in place, so the whole group is patched by the operations decoded again.
+        Supplier<CompletionStage<SCIMResponse>> patchWholeGroup = () -> patchWholeGroup(userManager, existingId,
+                scimObjectString, readGroup, attributes, excludeAttributes, ifMatch);
+        Supplier<CompletionStage<SCIMResponse>> patchByOperations = () -> updateOrElseIfNotImplemented(
+                getGroupName(userManager, existingId, readGroup)
+                        .thenCompose(groupName -> patchGroup(userManager, existingId, groupName, patchOperations,
+                                requiredAttributes, expectedVersion))
+                        .thenApply(rethrowFunction(updatedGroup -> getUpdatedGroupResponse(updatedGroup, attributes,
+                                excludeAttributes))), patchWholeGroup);
+        return ResourceReferenceUtil.setMemberDisplayNames(userManager,
+                GroupResourceManager.getAddedMembers(patchOperations)).thenCompose(resolved -> {
+                    if (delta == null) {
+                        return patchByOperations.get();
+                    }
+                    return updateOrElseIfNotImplemented(userManager.patchGroupMembers(delta, deltaRequiredAttributes)
+                            .thenApply(rethrowFunction(updatedGroup -> getUpdatedGroupResponse(updatedGroup,
+                                    attributes, deltaExcludeAttributes))), patchByOperations);
+                });
+    }
+
+    /*
+     * Patches the group by its operations, conditionally on the version it was read at if there is one, and
+     * unconditionally if the user store does not support versioned patches.
+     */
+    private CompletionStage<Group> patchGroup(AsyncUserManager userManager, String existingId, String groupName,
+                                              Map<String, List<PatchOperation>> patchOperations,
+                                              Map<String, Boolean> requiredAttributes, String expectedVersion) {
+
+        Supplier<CompletionStage<Group>> unconditionalPatch = () -> userManager.patchGroup(existingId, groupName,
+                patchOperations, requiredAttributes);
+        if (expectedVersion == null) {
+            return unconditionalPatch.get();
+        }
+        return updateOrElseIfNotImplemented(userManager.patchGroup(existingId, groupName, patchOperations,
+                requiredAttributes, expectedVersion), unconditionalPatch);
+    }
+
+    /*
+     * Applies the operations to the whole group and writes the patched group.
+     */
+    private CompletionStage<SCIMResponse> patchWholeGroup(AsyncUserManager userManager, String existingId,
+                                                          String scimObjectString, Group readGroup,
+                                                          String attributes, String excludeAttributes,
+                                                          String ifMatch) {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        List<PatchOperation> opList;
+        Map<String, Boolean> requiredAttributes;
+        Map<String, Boolean> allAttributes;
+        try {
+            opList = PatchOperationCoalescer.coalesce(
+                    AbstractResourceManager.getDecoder().decodeRequest(scimObjectString), schema);
+            requiredAttributes = getRequiredAttributes(attributes, excludeAttributes);
+            allAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
+        } catch (AbstractCharonException e) {
+            return CompletionStageUtil.completedExceptionally(e);
+        }
+        CompletionStage<Group> oldGroupStage = readGroup != null ? CompletableFuture.completedFuture(readGroup) :
+                userManager.getGroup(existingId, allAttributes);
+        return oldGroupStage.thenCompose(rethrowFunction(oldGroup -> {
+                    checkGroupFound(oldGroup, existingId);
+                    //apply the operations to a copy of the group, the original is kept to validate against.
+                    Group newGroup = (Group) PatchOperationUtil.doPatchOperations(opList,
+                            AbstractResourceManager.getDecoder(), oldGroup, schema);
+                    Group validatedGroup = (Group) ServerSideValidator.validateUpdatedSCIMObject(oldGroup, newGroup,
+                            schema, PatchOperationUtil.getModifiedAttributeNames(opList,
+                                    AbstractResourceManager.getDecoder(), schema));
+                    return ResourceReferenceUtil.setMemberDisplayNames(userManager, validatedGroup).thenCompose(
+                            resolved -> updateGroup(userManager, oldGroup, validatedGroup, schema,
+                                    requiredAttributes, ifMatch));
+                }))
+                .thenApply(rethrowFunction(updatedGroup -> getUpdatedGroupResponse(updatedGroup, attributes,
+                        excludeAttributes)));
+    }
+
+    /*
+     * Returns the current name of the group, from the group read for the precondition if there is one.
+     */
+    private CompletionStage<String> getGroupName(AsyncUserManager userManager, String existingId, Group readGroup) {
+
+        if (readGroup != null) {
+            return CompletableFuture.completedFuture(readGroup.getDisplayName());
+        }
+        Map<String, Boolean> requiredAttributes = new HashMap<>();
+        requiredAttributes.put(SCIMConstants.GroupSchemaConstants.DISPLAY_NAME_URI, true);
+        return userManager.getGroup(existingId, requiredAttributes).thenApply(rethrowFunction(group -> {
+            if (group == null) {
+                throw new CharonException("Group not found for ID: " + existingId);
+            }
+            return group.getDisplayName();
+        }));
+    }
+
+    private static void checkGroupFound(Group group, String existingId) throws NotFoundException {
+
+        if (group == null) {
+            throw new NotFoundException("No group with the id : " + existingId + " exists in the user store.");
+        }
+    }
+
+    /*
+     * Returns the URIs of the group attributes which must be given a value.
+     */
+    private Map<String, Boolean> getRequiredAttributes(String attributes, String excludeAttributes)
+            throws CharonException {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        return ResourceManagerUtil.getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema),
+                attributes, excludeAttributes);
+    }
+
+    /*
+     * Writes the updated group the way GroupResourceManager does. A conditional update is written only if the stored
+     * group is still at the version it was read at, and an unconditional one hands the user store only its changes.
+     * User stores which support neither get the old and the new group.
+     */
+    private CompletionStage<Group> updateGroup(AsyncUserManager userManager, Group oldGroup, Group newGroup,
+                                               SCIMResourceTypeSchema schema, Map<String, Boolean> requiredAttributes,
+                                               String ifMatch) {
+
+        String expectedVersion = oldGroup.getVersion();
+        CompletionStage<Group> update;
+        if (ifMatch != null && expectedVersion != null) {
+            update = userManager.updateGroup(oldGroup, newGroup, requiredAttributes, expectedVersion);
+        } else {
+            update = userManager.updateGroup(oldGroup.getId(), ChangeSetUtil.getChangeSet(oldGroup, newGroup, schema),
+                    requiredAttributes);
+        }
+        return updateOrElseIfNotImplemented(update,
+                () -> userManager.updateGroup(oldGroup, newGroup, requiredAttributes));
+    }
+
+    private SCIMResponse getUpdatedGroupResponse(Group updatedGroup, String attributes, String excludeAttributes)
+            throws CharonException, NotFoundException, InternalErrorException {
+
+        if (updatedGroup == null) {
+            throw new InternalErrorException("Updated Group resource is null.");
+        }
+        return getGroupResponse(ResponseCodeConstants.CODE_OK, updatedGroup, attributes, excludeAttributes);
+    }
+
+    private SCIMResponse getGroupResponse(int status, Group group, String attributes, String excludeAttributes)
+            throws CharonException, NotFoundException {
+
+        String version = ETagUtil.getVersion(group);
+        String encodedGroup = AbstractResourceManager.getEncoder().encodeSCIMObject(group,
+                new AttributeProjection(attributes, excludeAttributes));
+        return getResourceResponse(status, encodedGroup, SCIMConstants.GROUP_ENDPOINT, group.getId(), version);
+    }
+}
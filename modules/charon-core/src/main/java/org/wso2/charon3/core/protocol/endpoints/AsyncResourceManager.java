@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.wso2.charon3.core.extensions.AsyncRoleManager;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Interface for SCIM resource endpoints which do not block while the user store answers.
+ * <p>
+ * Each method returns a stage of the response instead of the response. The stage always completes normally, errors
+ * included, with the same response the blocking {@link ResourceManager} method gives.
+ * <p>
+ * Listing with GET, cursor based listing and conditional reads with an If-None-Match header are out of scope of the
+ * asynchronous endpoints, and are served by the blocking {@link ResourceManager}.
+ */
+public interface AsyncResourceManager {
+
+    /**
+     * GET method to retrieve a specific resource.
+     *
+     * @param id                Resource id.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> get(String id, AsyncUserManager userManager, String attributes,
+                                      String excludeAttributes);
+
+    /**
+     * POST method to create a new resource.
+     *
+     * @param scimObjectString  Payload of HTTP request, which contains the SCIM object.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> create(String scimObjectString, AsyncUserManager userManager, String attributes,
+                                         String excludeAttributes);
+
+    /**
+     * DELETE method to delete a specific resource.
+     *
+     * @param id          Resource id.
+     * @param userManager User manager.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> delete(String id, AsyncUserManager userManager);
+
+    /**
+     * POST method to search resources.
+     *
+     * @param resourceString Search request.
+     * @param userManager    User manager.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> listWithPOST(String resourceString, AsyncUserManager userManager);
+
+    /**
+     * PUT method to replace a specific resource.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Payload of HTTP request, which contains the SCIM object.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                AsyncUserManager userManager, String attributes,
+                                                String excludeAttributes);
+
+    /**
+     * PATCH method to update a specific resource.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Payload of HTTP request, which contains the patch operations.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @return Stage of the SCIMResponse.
+     */
+    CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                  AsyncUserManager userManager, String attributes,
+                                                  String excludeAttributes);
+
+    /**
+     * Conditionally replaces a resource. The update is rejected with a precondition failure if the resource is no
+     * longer at one of the versions listed in the If-Match header.
+     * <p>
+     * The precondition is atomic with the write only if the user manager implements the versioned update. Otherwise
+     * it is checked on read and the update is written unconditionally, as by {@link ResourceManager}.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Payload of HTTP request, which contains the SCIM object.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifMatch           Value of the If-Match header, null for an unconditional update.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                        AsyncUserManager userManager, String attributes,
+                                                        String excludeAttributes, String ifMatch) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * Conditionally patches a resource. The update is rejected with a precondition failure if the resource is no
+     * longer at one of the versions listed in the If-Match header.
+     * <p>
+     * The precondition is atomic with the write only if the user manager implements the versioned update. Otherwise
+     * it is checked on read and the update is written unconditionally, as by {@link ResourceManager}.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Payload of HTTP request, which contains the patch operations.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifMatch           Value of the If-Match header, null for an unconditional update.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                          AsyncUserManager userManager, String attributes,
+                                                          String excludeAttributes, String ifMatch) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * GET method to retrieve a specific role.
+     *
+     * @param id                Resource id.
+     * @param roleManager       Role manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> getRole(String id, AsyncRoleManager roleManager, String attributes,
+                                                  String excludeAttributes) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * POST method to create a new role.
+     *
+     * @param postRequest Post request.
+     * @param roleManager Role manager.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> createRole(String postRequest, AsyncRoleManager roleManager) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * DELETE method to delete a specific role.
+     *
+     * @param id          Resource id.
+     * @param roleManager Role manager.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> deleteRole(String id, AsyncRoleManager roleManager) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * POST method to search roles.
+     *
+     * @param searchRequest Search request.
+     * @param roleManager   Role manager.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> listWithPOSTRole(String searchRequest, AsyncRoleManager roleManager) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * PUT method to replace a specific role.
+     *
+     * @param id          Resource id.
+     * @param putRequest  Put request.
+     * @param roleManager Role manager.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> updateWithPUTRole(String id, String putRequest,
+                                                            AsyncRoleManager roleManager) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+
+    /**
+     * PATCH method to update a specific role.
+     *
+     * @param id           Resource id.
+     * @param patchRequest Patch request.
+     * @param roleManager  Role manager.
+     * @return Stage of the SCIMResponse.
+     */
+    default CompletionStage<SCIMResponse> updateWithPATCHRole(String id, String patchRequest,
+                                                              AsyncRoleManager roleManager) {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.InternalErrorException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.extensions.AsyncRoleManager;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.objects.Role;
+import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
+import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
+import org.wso2.charon3.core.utils.PatchOperationUtil;
+import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * REST API exposed by Charon-Core to perform operations on RoleResource without blocking while the role store
+ * answers.
+ * <p>
+ * Conditional requests, the listing of roles with GET and the count only searches are served by
+ * {@link RoleResourceManager}. A PUT or PATCH hands the role manager only its changes, unless the role manager only
+ * replaces whole roles.
+ */
+public class AsyncRoleResourceManager extends AbstractAsyncResourceManager {
+
+    @Override
+    public CompletionStage<SCIMResponse> getRole(String id, AsyncRoleManager roleManager, String attributes,
+                                                 String excludeAttributes) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager is null."));
+        }
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
+        Map<String, Boolean> requiredAttributes;
+        try {
+            requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                    (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return roleManager.getRole(id, requiredAttributes).thenApply(rethrowFunction(role -> {
+            if (role == null) {
+                throw new NotFoundException("Role id: " + id + " not found in the system.");
+            }
+            // The version has to be read before the validation drops attributes which were not requested.
+            String version = ETagUtil.getVersion(role);
+            ServerSideValidator.validateSchemaList(role, schema);
+            ServerSideValidator.validateRetrievedSCIMRoleObject(role, attributes, excludeAttributes);
+            String encodedRole = AbstractResourceManager.getEncoder().encodeSCIMObject(role,
+                    new AttributeProjection(attributes, excludeAttributes));
+            return getResourceResponse(ResponseCodeConstants.CODE_OK, encodedRole, SCIMConstants.ROLE_ENDPOINT,
+                    role.getId(), version);
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> createRole(String postRequest, AsyncRoleManager roleManager) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager is null."));
+        }
+        Role role;
+        try {
+            SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
+            role = AbstractResourceManager.getDecoder().decodeResource(postRequest, schema, new Role());
+            ServerSideValidator.validateCreatedSCIMObject(role, SCIMSchemaDefinitions.SCIM_ROLE_SCHEMA);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return roleManager.createRole(role).thenApply(rethrowFunction(createdRole -> {
+            if (createdRole == null) {
+                throw new InternalErrorException("Newly created Role resource is null.");
+            }
+            return getRoleResponse(ResponseCodeConstants.CODE_CREATED, createdRole);
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> deleteRole(String id, AsyncRoleManager roleManager) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager is null."));
+        }
+        return roleManager.deleteRole(id)
+                .thenApply(deleted -> new SCIMResponse(ResponseCodeConstants.CODE_NO_CONTENT, null, null))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> listWithPOSTRole(String searchRequest, AsyncRoleManager roleManager) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager is null."));
+        }
+        SearchRequest searchRequestObject;
+        try {
+            searchRequestObject = decodeSearchRequest(searchRequest,
+                    SCIMResourceSchemaManager.getInstance().getRoleResourceSchema());
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return roleManager.listRolesWithPost(searchRequestObject).thenApply(rethrowFunction(rolesGetResponse -> {
+            if (rolesGetResponse == null) {
+                rolesGetResponse = new RolesGetResponse(0, null);
+            }
+            return getListResponse(rolesGetResponse.getRoles(), rolesGetResponse.getTotalRoles(),
+                    rolesGetResponse.getNextCursor(), searchRequestObject);
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUTRole(String id, String putRequest,
+                                                           AsyncRoleManager roleManager) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager is null."));
+        }
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
+        Role role;
+        Map<String, Boolean> allAttributes;
+        try {
+            role = AbstractResourceManager.getDecoder().decodeResource(putRequest, schema, new Role());
+            allAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return roleManager.getRole(id, allAttributes)
+                .thenCompose(rethrowFunction(oldRole -> {
+                    if (oldRole == null) {
+                        throw new NotFoundException("No role exists with the given id: " + id);
+                    }
+                    Role newRole = (Role) ServerSideValidator.validateUpdatedSCIMObject(oldRole, role, schema);
+                    return updateRole(roleManager, oldRole, newRole, schema);
+                }))
+                .thenApply(rethrowFunction(this::getUpdatedRoleResponse))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCHRole(String id, String patchRequest,
+                                                             AsyncRoleManager roleManager) {
+
+        if (roleManager == null) {
+            return completeWithException(new InternalErrorException("Provided role manager handler is null."));
+        }
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
+        List<PatchOperation> opList;
+        Map<String, Boolean> allAttributes;
+        try {
+            opList = PatchOperationCoalescer.coalesce(AbstractResourceManager.getDecoder().decodeRequest(patchRequest),
+                    schema);
+            allAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
+        } catch (AbstractCharonException e) {
+            return completeWithException(e);
+        }
+        return roleManager.getRole(id, allAttributes)
+                .thenCompose(rethrowFunction(oldRole -> {
+                    if (oldRole == null) {
+                        throw new NotFoundException("No role with the id : " + id + " exists in the system.");
+                    }
+                    // Apply the operations to a copy of the role, the original is kept to validate against.
+                    Role newRole = (Role) PatchOperationUtil.doPatchOperations(opList,
+                            AbstractResourceManager.getDecoder(), oldRole, schema);
+                    Role validatedRole = (Role) ServerSideValidator.validateUpdatedSCIMObject(oldRole, newRole,
+                            schema, PatchOperationUtil.getModifiedAttributeNames(opList,
+                                    AbstractResourceManager.getDecoder(), schema));
+                    return updateRole(roleManager, oldRole, validatedRole, schema);
+                }))
+                .thenApply(rethrowFunction(this::getUpdatedRoleResponse))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Hands the role manager only the changes the request makes to the role, as RoleResourceManager does. Role
+     * managers that can only update whole roles get the old and the new role.
+     */
+    private CompletionStage<Role> updateRole(AsyncRoleManager roleManager, Role oldRole, Role newRole,
+                                             SCIMResourceTypeSchema schema) {
+
+        return updateOrElseIfNotImplemented(
+                roleManager.updateRole(oldRole.getId(), ChangeSetUtil.getChangeSet(oldRole, newRole, schema)),
+                () -> roleManager.updateRole(oldRole, newRole));
+    }
+
+    private SCIMResponse getUpdatedRoleResponse(Role updatedRole)
+            throws CharonException, NotFoundException, InternalErrorException {
+
+        if (updatedRole == null) {
+            throw new InternalErrorException("Updated Role resource is null.");
+        }
+        return getRoleResponse(ResponseCodeConstants.CODE_OK, updatedRole);
+    }
+
+    private SCIMResponse getRoleResponse(int status, Role role) throws CharonException, NotFoundException {
+
+        String version = ETagUtil.getVersion(role);
+        String encodedRole = AbstractResourceManager.getEncoder().encodeSCIMObject(role);
+        return getResourceResponse(status, encodedRole, SCIMConstants.ROLE_ENDPOINT, role.getId(), version);
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> get(String id, AsyncUserManager userManager, String attributes,
+                                             String excludeAttributes) {
+
+        return getNotImplementedResponse();
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> create(String scimObjectString, AsyncUserManager userManager,
+                                                String attributes, String excludeAttributes) {
+
+        return getNotImplementedResponse();
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> delete(String id, AsyncUserManager userManager) {
+
+        return getNotImplementedResponse();
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> listWithPOST(String resourceString, AsyncUserManager userManager) {
+
+        return getNotImplementedResponse();
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                       AsyncUserManager userManager, String attributes,
+                                                       String excludeAttributes) {
+
+        return getNotImplementedResponse();
+    }
+
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                         AsyncUserManager userManager, String attributes,
+                                                         String excludeAttributes) {
+
+        return getNotImplementedResponse();
+    }
+
+    private CompletionStage<SCIMResponse> getNotImplementedResponse() {
+
+        return CompletableFuture.completedFuture(new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED,
+                ResponseCodeConstants.DESC_NOT_IMPLEMENTED, Collections.emptyMap()));
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.InternalErrorException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
+import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
+import org.wso2.charon3.core.utils.PatchOperationUtil;
+import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * REST API exposed by Charon-Core to perform operations on UserResource without blocking while the user store
+ * answers. The payload is decoded and validated, and the response encoded, on the thread which completes the stage
+ * of the user store. The payload of a conditional update is only decoded once its precondition holds.
+ * <p>
+ * Conditional reads, the listing of users with GET and the count only searches are served by
+ * {@link UserResourceManager}. A PUT or PATCH is written as by {@link UserResourceManager}: conditionally on the
+ * version of the user when an If-Match header is given, and otherwise by its changes, unless the user manager only
+ * replaces whole users.
+ */
+public class AsyncUserResourceManager extends AbstractAsyncResourceManager {
+
+    /*
+     * Retrieves a user resource given an unique user id. Mapped to HTTP GET request.
+     *
+     * @param id          - unique resource id
+     * @param userManager - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> get(String id, AsyncUserManager userManager, String attributes,
+                                             String excludeAttributes) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return getSchema(userManager).thenCompose(rethrowFunction(schema -> {
+            //get the URIs of required attributes which must be given a value
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                    (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+            return userManager.getUser(id, requiredAttributes).thenApply(rethrowFunction(user -> {
+                if (user == null) {
+                    throw new NotFoundException("User not found in the user store.");
+                }
+                ServerSideValidator.validateSchemaList(user, schema);
+                return getUserResponse(ResponseCodeConstants.CODE_OK, user, attributes, excludeAttributes);
+            }));
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Creates a user given the submitted payload. Mapped to HTTP POST request.
+     *
+     * @param scimObjectString - raw string containing user info
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> create(String scimObjectString, AsyncUserManager userManager,
+                                                String attributes, String excludeAttributes) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return getSchema(userManager).thenCompose(rethrowFunction(schema -> {
+            //decode and validate the SCIM User object, encoded in the submitted payload.
+            User user = AbstractResourceManager.getDecoder().decodeResource(scimObjectString, schema, new User());
+            ServerSideValidator.validateCreatedSCIMObject(user, schema);
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                    (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+            return userManager.createUser(user, requiredAttributes).thenApply(rethrowFunction(createdUser -> {
+                if (createdUser == null) {
+                    throw new InternalErrorException("Newly created User resource is null.");
+                }
+                //a user without an id is created once a workflow approves it, so the request is only accepted.
+                if (StringUtils.isBlank(createdUser.getId())) {
+                    return new SCIMResponse(ResponseCodeConstants.CODE_ACCEPTED, null, null);
+                }
+                return getUserResponse(ResponseCodeConstants.CODE_CREATED, createdUser, attributes,
+                        excludeAttributes);
+            }));
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Deletes a user given an unique user id. Mapped to HTTP DELETE request.
+     *
+     * @param id          - unique resource id
+     * @param userManager - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> delete(String id, AsyncUserManager userManager) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return userManager.deleteUser(id)
+                .thenApply(deleted -> new SCIMResponse(ResponseCodeConstants.CODE_NO_CONTENT, null, null))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Searches the users matching the submitted search request. Mapped to HTTP POST request on /.search.
+     *
+     * @param resourceString - search request
+     * @param userManager    - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> listWithPOST(String resourceString, AsyncUserManager userManager) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return getSchema(userManager).thenCompose(rethrowFunction(schema -> {
+            SearchRequest searchRequest = decodeSearchRequest(resourceString, schema);
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                    (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), searchRequest.getAttributesAsString(),
+                    searchRequest.getExcludedAttributesAsString());
+            return userManager.listUsersWithPost(searchRequest, requiredAttributes)
+                    .thenApply(rethrowFunction(usersGetResponse -> {
+                        if (usersGetResponse == null) {
+                            usersGetResponse = new UsersGetResponse(0, null);
+                        }
+                        return getListResponse(usersGetResponse.getUsers(), usersGetResponse.getTotalUsers(),
+                                usersGetResponse.getNextCursor(), searchRequest);
+                    }));
+        })).exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Replaces a user given the submitted payload. Mapped to HTTP PUT request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - raw string containing user info
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                       AsyncUserManager userManager, String attributes,
+                                                       String excludeAttributes) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Replaces a user given the submitted payload, provided that the user is still at one of the versions given in
+     * the If-Match header. Mapped to HTTP PUT request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - raw string containing user info
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @param ifMatch          - value of the If-Match header, null for an unconditional update
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPUT(String existingId, String scimObjectString,
+                                                       AsyncUserManager userManager, String attributes,
+                                                       String excludeAttributes, String ifMatch) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return getSchema(userManager).thenCompose(rethrowFunction(schema ->
+                checkIfMatch(existingId, ifMatch, userManager, schema).thenCompose(rethrowFunction(readUser -> {
+                    //a stale conditional request is rejected before the payload is decoded.
+                    User user = AbstractResourceManager.getDecoder().decodeResource(scimObjectString, schema,
+                            new User());
+                    Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                            (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+                    return getUser(userManager, existingId, schema, readUser).thenCompose(rethrowFunction(oldUser -> {
+                        if (oldUser == null) {
+                            throw new NotFoundException("No user exists with the given id: " + existingId);
+                        }
+                        //the user may have changed since the precondition was checked on its version alone.
+                        ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldUser));
+                        User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, user,
+                                schema);
+                        //a PUT replaces the whole user, so simple multi-valued attributes are not updated apart.
+                        return updateUser(userManager, oldUser, validatedUser, schema, requiredAttributes, ifMatch,
+                                () -> userManager.updateUser(validatedUser, requiredAttributes));
+                    }));
+                }))
+                .thenApply(rethrowFunction(updatedUser -> getUpdatedUserResponse(updatedUser, attributes,
+                        excludeAttributes)))))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Updates a user by the submitted patch operations. Mapped to HTTP PATCH request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - raw string containing the patch operations
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                         AsyncUserManager userManager, String attributes,
+                                                         String excludeAttributes) {
+
+        return updateWithPATCH(existingId, scimObjectString, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Updates a user by the submitted patch operations, provided that the user is still at one of the versions given
+     * in the If-Match header. Mapped to HTTP PATCH request.
+     *
+     * @param existingId       - unique resource id
+     * @param scimObjectString - raw string containing the patch operations
+     * @param userManager      - user manager instance defined by the external implementor of charon
+     * @param ifMatch          - value of the If-Match header, null for an unconditional update
+     * @return stage of the SCIM response to be returned.
+     */
+    @Override
+    public CompletionStage<SCIMResponse> updateWithPATCH(String existingId, String scimObjectString,
+                                                         AsyncUserManager userManager, String attributes,
+                                                         String excludeAttributes, String ifMatch) {
+
+        if (userManager == null) {
+            return completeWithException(new InternalErrorException("Provided user manager handler is null."));
+        }
+        return getSchema(userManager).thenCompose(rethrowFunction(schema ->
+                checkIfMatch(existingId, ifMatch, userManager, schema).thenCompose(rethrowFunction(readUser -> {
+                    //a stale conditional request is rejected before the patch request is decoded.
+                    List<PatchOperation> opList = PatchOperationCoalescer.coalesce(
+                            AbstractResourceManager.getDecoder().decodeRequest(scimObjectString), schema);
+                    Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
+                            (SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+                    List<String> allSimpleMultiValuedAttributes =
+                            ResourceManagerUtil.getAllSimpleMultiValuedAttributes(schema);
+                    return getUser(userManager, existingId, schema, readUser).thenCompose(rethrowFunction(oldUser -> {
+                        if (oldUser == null) {
+                            throw new NotFoundException("No user with the id : " + existingId +
+                                    " in the user store.");
+                        }
+                        //the user may have changed since the precondition was checked on its version alone.
+                        ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldUser));
+                        //apply the operations to a copy of the user, the original is kept to validate against.
+                        User newUser = (User) PatchOperationUtil.doPatchOperations(opList,
+                                AbstractResourceManager.getDecoder(), oldUser, schema);
+                        User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser,
+                                schema, PatchOperationUtil.getModifiedAttributeNames(opList,
+                                        AbstractResourceManager.getDecoder(), schema));
+                        return updateUser(userManager, oldUser, validatedUser, schema, requiredAttributes, ifMatch,
+                                () -> updateOrElseIfNotImplemented(userManager.updateUser(validatedUser,
+                                        requiredAttributes, allSimpleMultiValuedAttributes),
+                                        () -> userManager.updateUser(validatedUser, requiredAttributes)));
+                    }));
+                }))
+                .thenApply(rethrowFunction(updatedUser -> getUpdatedUserResponse(updatedUser, attributes,
+                        excludeAttributes)))))
+                .exceptionally(AbstractAsyncResourceManager::encodeSCIMException);
+    }
+
+    /*
+     * Returns the stage of the user schema, extended with the custom schema extension of the user manager.
+     */
+    private CompletionStage<SCIMResourceTypeSchema> getSchema(AsyncUserManager userManager) {
+
+        return userManager.getCustomUserSchemaExtension()
+                .thenApply(customSchemaExtension ->
+                        SCIMResourceSchemaManager.getInstance().getUserResourceSchema(customSchemaExtension));
+    }
+
+    /*
+     * Evaluates the If-Match precondition of a conditional update on the version of the user. The user is read in full
+     * only if the user manager cannot provide the version alone, in which case the stage carries the user so that it is
+     * not read again. Otherwise the stage carries null.
+     */
+    private CompletionStage<User> checkIfMatch(String existingId, String ifMatch, AsyncUserManager userManager,
+                                               SCIMResourceTypeSchema schema) throws CharonException {
+
+        if (ifMatch == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Map<String, Boolean> allAttributeURIs = ResourceManagerUtil.getAllAttributeURIs(schema);
+        CompletionStage<User> versionCheck = userManager.getUserVersion(existingId)
+                .thenApply(rethrowFunction(currentVersion -> {
+                    ETagUtil.checkIfMatch(ifMatch, currentVersion);
+                    return null;
+                }));
+        return updateOrElseIfNotImplemented(versionCheck, () -> userManager.getUser(existingId, allAttributeURIs)
+                .thenApply(rethrowFunction(oldUser -> {
+                    if (oldUser == null) {
+                        throw new NotFoundException("No user with the id : " + existingId + " in the user store.");
+                    }
+                    ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldUser));
+                    return oldUser;
+                })));
+    }
+
+    /*
+     * Returns the stage of the user with all of its attributes, unless the request already read it.
+     */
+    private CompletionStage<User> getUser(AsyncUserManager userManager, String existingId,
+                                          SCIMResourceTypeSchema schema, User readUser) throws CharonException {
+
+        if (readUser != null) {
+            return CompletableFuture.completedFuture(readUser);
+        }
+        return userManager.getUser(existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+    }
+
+    /*
+     * Writes the updated user the way UserResourceManager does. A conditional update is written only if the stored
+     * user is still at the version it was read at, and an unconditional one hands the user store only its changes.
+     * User stores which support neither get the whole user through the given fallback.
+     */
+    private CompletionStage<User> updateUser(AsyncUserManager userManager, User oldUser, User user,
+                                             SCIMResourceTypeSchema schema, Map<String, Boolean> requiredAttributes,
+                                             String ifMatch, Supplier<CompletionStage<User>> wholeUserUpdate) {
+
+        String expectedVersion = oldUser.getVersion();
+        CompletionStage<User> update;
+        if (ifMatch != null && expectedVersion != null) {
+            update = userManager.updateUser(user, requiredAttributes,
+                    ResourceManagerUtil.getAllSimpleMultiValuedAttributes(schema), expectedVersion);
+        } else {
+            update = userManager.updateUser(oldUser.getId(), ChangeSetUtil.getChangeSet(oldUser, user, schema),
+                    requiredAttributes);
+        }
+        return updateOrElseIfNotImplemented(update, wholeUserUpdate);
+    }
+
+    private SCIMResponse getUpdatedUserResponse(User updatedUser, String attributes, String excludeAttributes)
+            throws CharonException, NotFoundException {
+
+        if (updatedUser == null) {
+            throw new CharonException("Updated User resource is null.");
+        }
+        return getUserResponse(ResponseCodeConstants.CODE_OK, updatedUser, attributes, excludeAttributes);
+    }
+
+    /*
+     * The attributes which are not returned, such as the password, are skipped while encoding.
+     */
+    private SCIMResponse getUserResponse(int status, User user, String attributes, String excludeAttributes)
+            throws CharonException, NotFoundException {
+
+        String version = ETagUtil.getVersion(user);
+        String encodedUser = AbstractResourceManager.getEncoder().encodeSCIMObject(user,
+                new AttributeProjection(attributes, excludeAttributes));
+        return getResourceResponse(status, encodedUser, SCIMConstants.USER_ENDPOINT, user.getId(), version);
+    }
+}
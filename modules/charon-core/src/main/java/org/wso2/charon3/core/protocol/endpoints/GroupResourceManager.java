@@ -31,21 +31,29 @@ import org.wso2.charon3.core.exceptions.ConflictException;
 import org.wso2.charon3.core.exceptions.InternalErrorException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
 import org.wso2.charon3.core.extensions.UserManager;
 import org.wso2.charon3.core.objects.AbstractSCIMObject;
 import org.wso2.charon3.core.objects.Group;
 import org.wso2.charon3.core.objects.ListedResource;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
 import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
 import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
 import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
 import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
 import org.wso2.charon3.core.utils.PatchOperationUtil;
 import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.ResourceReadMemo;
+import org.wso2.charon3.core.utils.ResourceReferenceUtil;
 import org.wso2.charon3.core.utils.codeutils.FilterTreeManager;
 import org.wso2.charon3.core.utils.codeutils.Node;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
@@ -55,9 +63,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -81,8 +91,33 @@ public class GroupResourceManager extends AbstractResourceManager {
      */
     @Override
     public SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes) {
+
+        return get(id, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Retrieves a group resource given an unique group id, unless the client already holds the current version of
+     * it.
+     *
+     * @param id          - unique resource id
+     * @param usermanager
+     * @param attributes
+     * @param excludeAttributes
+     * @param ifNoneMatch - value of the If-None-Match header
+     * @return SCIM response to be returned.
+     */
+    @Override
+    public SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes,
+                            String ifNoneMatch) {
         JSONEncoder encoder = null;
         try {
+            //answer a matching conditional request from the version alone, without loading the group members.
+            if (ifNoneMatch != null) {
+                String currentVersion = getGroupVersion(id, userManager);
+                if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, currentVersion)) {
+                    return getNotModifiedResponse(currentVersion);
+                }
+            }
             //obtain the correct encoder according to the format requested.
             encoder = getEncoder();
             // returns core-group schema
@@ -101,13 +136,21 @@ public class GroupResourceManager extends AbstractResourceManager {
                 String message = "Group not found in the user store.";
                 throw new NotFoundException(message);
             }
+            //the version has to be read before the validation drops attributes which were not requested.
+            String version = ETagUtil.getVersion(group);
+            if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, version)) {
+                return getNotModifiedResponse(version);
+            }
 
-            ServerSideValidator.validateRetrievedSCIMObjectInList(group, schema, attributes, excludeAttributes);
-            //convert the group into specific format.
-            String encodedGroup = encoder.encodeSCIMObject(group);
+            //convert the group into specific format, skipping the attributes which are not returned.
+            String encodedGroup = encoder.encodeSCIMObject(group, new AttributeProjection(attributes,
+                    excludeAttributes));
             //if there are any http headers to be added in the response header.
             Map<String, String> httpHeaders = new HashMap<String, String>();
             httpHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+            if (version != null) {
+                httpHeaders.put(SCIMConstants.ETAG_HEADER, ETagUtil.toWeakETag(version));
+            }
             return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedGroup, httpHeaders);
         } catch (NotFoundException e) {
             return encodeSCIMException(e);
@@ -151,6 +194,8 @@ public class GroupResourceManager extends AbstractResourceManager {
             Group group = (Group) decoder.decodeResource(scimObjectString, schema, new Group());
             //validate decoded group
             ServerSideValidator.validateCreatedSCIMObject(group, SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA);
+            //resolve the display names of the members given without one, in batches, if it is enabled.
+            ResourceReferenceUtil.setMemberDisplayNames(userManager, group);
             //handover the SCIM User object to the group usermanager provided by the SP.
             Group createdGroup;
             //need to send back the newly created group in the response payload
@@ -160,8 +205,8 @@ public class GroupResourceManager extends AbstractResourceManager {
             String encodedGroup;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (createdGroup != null) {
-                ServerSideValidator.validateReturnedAttributes(createdGroup, attributes, excludeAttributes);
-                encodedGroup = encoder.encodeSCIMObject(createdGroup);
+                encodedGroup = encoder.encodeSCIMObject(createdGroup, new AttributeProjection(attributes,
+                        excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.GROUP_ENDPOINT) + "/" + createdGroup.getId());
@@ -373,6 +418,15 @@ public class GroupResourceManager extends AbstractResourceManager {
             // Obtain the json encoder.
             JSONEncoder encoder = getEncoder();
 
+            // A count of zero only asks for totalResults, which may be answered without loading any group.
+            if (count != null && count == 0 && userManager != null) {
+                SCIMResponse countResponse = getGroupCountResponse(userManager, rootNode, domainName, startIndex,
+                        encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
+
             // Get the URIs of required attributes which must be given a value.
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil
                     .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes,
@@ -380,8 +434,17 @@ public class GroupResourceManager extends AbstractResourceManager {
 
             // API group should pass a user manager to GroupResourceEndpoint.
             if (userManager != null) {
-                GroupsGetResponse groupsResponse = userManager.listGroupsWithGET(rootNode, startIndex, count,
-                        sortBy, sortOrder, domainName, requiredAttributes);
+                GroupsGetResponse groupsResponse;
+                try {
+                    groupsResponse = userManager.listGroupsWithGET(rootNode, startIndex, count, sortBy, sortOrder,
+                            domainName, requiredAttributes);
+                } catch (NotImplementedException e) {
+                    groupsResponse = getGroupsOfIdFilter(userManager, rootNode, startIndex, count, sortBy,
+                            domainName, requiredAttributes);
+                    if (groupsResponse == null) {
+                        throw e;
+                    }
+                }
                 return processGroupList(groupsResponse, encoder, attributes, excludeAttributes, startIndex);
             } else {
                 String error = "Provided user manager handler is null.";
@@ -400,6 +463,66 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
+    /**
+     * Method to list groups at the Groups endpoint using cursor pagination. The response carries the nextCursor of
+     * the page that follows, which the client sends back as the cursor to continue the listing.
+     *
+     * @param userManager       User manager
+     * @param filter            Filter to be executed
+     * @param cursor            Cursor of the requested page, an empty string or null for the first page
+     * @param countInt          Number of required results
+     * @param sortBy            SortBy
+     * @param sortOrder         Sorting order
+     * @param domainName        Domain name
+     * @param attributes        Attributes in the request
+     * @param excludeAttributes Exclude attributes
+     * @return SCIM response
+     */
+    @Override
+    public SCIMResponse listWithCursor(UserManager userManager, String filter, String cursor, Integer countInt,
+            String sortBy, String sortOrder, String domainName, String attributes, String excludeAttributes) {
+
+        try {
+            Integer count = ResourceManagerUtil.processCount(countInt);
+
+            // Resolving sorting order.
+            sortOrder = resolveSortOrder(sortOrder, sortBy);
+
+            SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+
+            // Build node for filtering.
+            Node rootNode = buildNode(filter, schema);
+
+            // Obtain the json encoder.
+            JSONEncoder encoder = getEncoder();
+
+            // Get the URIs of required attributes which must be given a value.
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil
+                    .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes,
+                            excludeAttributes);
+
+            // API group should pass a user manager to GroupResourceEndpoint.
+            if (userManager != null) {
+                GroupsGetResponse groupsResponse = userManager.listGroupsWithCursor(rootNode,
+                        cursor == null ? "" : cursor, count, sortBy, sortOrder, domainName, requiredAttributes);
+                return processGroupList(groupsResponse, encoder, attributes, excludeAttributes, null);
+            } else {
+                String error = "Provided user manager handler is null.";
+                if (logger.isDebugEnabled()) {
+                    logger.debug(error);
+                }
+                throw new InternalErrorException(error);
+            }
+        } catch (CharonException | NotFoundException | InternalErrorException | BadRequestException |
+                NotImplementedException e) {
+            return encodeSCIMException(e);
+        } catch (IOException e) {
+            String error = "Error in tokenization of the input filter";
+            CharonException charonException = new CharonException(error);
+            return AbstractResourceManager.encodeSCIMException(charonException);
+        }
+    }
+
     /**
      * Method to process a list and return a SCIM response.
      *
@@ -407,14 +530,15 @@ public class GroupResourceManager extends AbstractResourceManager {
      * @param encoder           Json encoder
      * @param attributes        Required attributes
      * @param excludeAttributes Exclude attributes
-     * @param startIndex        Starting index
+     * @param startIndex        Starting index, null if the list is paginated with a cursor
      * @return SCIM response
      * @throws NotFoundException
      * @throws CharonException
      * @throws BadRequestException
      */
     private SCIMResponse processGroupList(GroupsGetResponse groupsResponse, JSONEncoder encoder, String attributes,
-            String excludeAttributes, int startIndex) throws NotFoundException, CharonException, BadRequestException {
+            String excludeAttributes, Integer startIndex)
+            throws NotFoundException, CharonException, BadRequestException {
 
         if (groupsResponse == null) {
             groupsResponse = new GroupsGetResponse(0, Collections.emptyList());
@@ -422,21 +546,49 @@ public class GroupResourceManager extends AbstractResourceManager {
         if (groupsResponse.getGroups() == null) {
             groupsResponse.setGroups(Collections.emptyList());
         }
-        for (Group group : groupsResponse.getGroups()) {
-            // Perform service provider side validation.
-            ServerSideValidator.validateRetrievedSCIMObjectInList(group, SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA,
-                            attributes, excludeAttributes);
-        }
         // Create a listed resource object out of the returned groups list.
-        ListedResource listedResource = createListedResource(groupsResponse, startIndex);
-        // Convert the listed resource into specific format.
-        String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+        ListedResource listedResource = startIndex == null ? createCursorListedResource(groupsResponse) :
+                createListedResource(groupsResponse, startIndex);
+        // Convert the listed resource into specific format, skipping the attributes which are not returned.
+        String encodedListedResource = ResourceManagerUtil.encodeListedResource(encoder, listedResource,
+                new AttributeProjection(attributes, excludeAttributes));
         // If there are any http headers to be added in the response header.
         Map<String, String> responseHeaders = new HashMap<String, String>();
         responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
         return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
     }
 
+    /**
+     * Answers a list request with a count of zero from the group count of the user manager, without loading any
+     * group.
+     *
+     * @param userManager User manager
+     * @param rootNode    Filter
+     * @param domainName  Domain name
+     * @param startIndex  Starting index
+     * @param encoder     Json encoder
+     * @return SCIM response, or null if the user manager can not count groups
+     * @throws NotFoundException
+     * @throws CharonException
+     * @throws BadRequestException
+     */
+    private SCIMResponse getGroupCountResponse(UserManager userManager, Node rootNode, String domainName,
+            int startIndex, JSONEncoder encoder) throws NotFoundException, CharonException, BadRequestException {
+
+        int totalGroups;
+        try {
+            totalGroups = userManager.countGroups(rootNode, domainName);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+        ListedResource listedResource = createListedResource(
+                new GroupsGetResponse(totalGroups, Collections.emptyList()), startIndex);
+        String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+        Map<String, String> responseHeaders = new HashMap<String, String>();
+        responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+        return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
+    }
+
     /*
      * this facilitates the querying using HTTP POST
      * @param resourceString
@@ -482,6 +634,16 @@ public class GroupResourceManager extends AbstractResourceManager {
                 searchRequest.setSortOder(SCIMConstants.OperationalConstants.ASCENDING);
             }
 
+            //a count of zero only asks for totalResults, which may be answered without loading any group.
+            if (ResourceManagerUtil.isZeroCount(searchRequest.getCountStr()) && searchRequest.getCursor() == null
+                    && userManager != null) {
+                SCIMResponse countResponse = getGroupCountResponse(userManager, searchRequest.getFilter(),
+                        searchRequest.getDomainName(), searchRequest.getStartIndex(), encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
+
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
                     (SCIMResourceTypeSchema)
@@ -492,17 +654,32 @@ public class GroupResourceManager extends AbstractResourceManager {
             int totalResults = 0;
             //API user should pass a usermanager usermanager to UserResourceEndpoint.
             if (userManager != null) {
-                GroupsGetResponse groupsResponse = userManager.listGroupsWithPost(searchRequest, requiredAttributes);
-
-                for (Group group : groupsResponse.getGroups()) {
-                    //perform service provider side validation.
-                    ServerSideValidator.validateRetrievedSCIMObjectInList(group, schema,
-                            searchRequest.getAttributesAsString(), searchRequest.getExcludedAttributesAsString());
+                GroupsGetResponse groupsResponse;
+                if (searchRequest.getCursor() != null) {
+                    groupsResponse = userManager.listGroupsWithCursor(searchRequest.getFilter(),
+                            searchRequest.getCursor(), searchRequest.getCount(), searchRequest.getSortBy(),
+                            searchRequest.getSortOder(), searchRequest.getDomainName(), requiredAttributes);
+                } else {
+                    try {
+                        groupsResponse = userManager.listGroupsWithPost(searchRequest, requiredAttributes);
+                    } catch (NotImplementedException e) {
+                        groupsResponse = getGroupsOfIdFilter(userManager, searchRequest.getFilter(),
+                                searchRequest.getStartIndex(), searchRequest.getCount(), searchRequest.getSortBy(),
+                                searchRequest.getDomainName(), requiredAttributes);
+                        if (groupsResponse == null) {
+                            throw e;
+                        }
+                    }
                 }
+
                 //create a listed resource object out of the returned users list.
-                ListedResource listedResource = createListedResource(groupsResponse, searchRequest.getStartIndex());
-                //convert the listed resource into specific format.
-                String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+                ListedResource listedResource = searchRequest.getCursor() != null ?
+                        createCursorListedResource(groupsResponse) :
+                        createListedResource(groupsResponse, searchRequest.getStartIndex());
+                //convert the listed resource into specific format, skipping the attributes which are not returned.
+                String encodedListedResource = ResourceManagerUtil.encodeListedResource(encoder, listedResource,
+                        new AttributeProjection(searchRequest.getAttributesAsString(),
+                                searchRequest.getExcludedAttributesAsString()));
                 //if there are any http headers to be added in the response header.
                 Map<String, String> responseHeaders = new HashMap<String, String>();
                 responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
@@ -538,6 +715,46 @@ public class GroupResourceManager extends AbstractResourceManager {
     @Override
     public SCIMResponse updateWithPUT(String existingId, String scimObjectString,
                                       UserManager userManager, String attributes, String excludeAttributes) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, null,
+                new ResourceReadMemo());
+    }
+
+    /*
+     * method which corresponds to a conditional HTTP PUT - the group is only replaced if it is still at one of the
+     * versions given in the If-Match header.
+     * @param existingId
+     * @param scimObjectString
+     * @param usermanager
+     * @param attributes
+     * @param excludeAttributes
+     * @param ifMatch
+     * @return
+     */
+    @Override
+    public SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
+                                      String attributes, String excludeAttributes, String ifMatch) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, ifMatch,
+                new ResourceReadMemo());
+    }
+
+    /**
+     * Replace the group, reading it through the given memo of the request, so a group the request already read with all
+     * of its attributes is not read again.
+     *
+     * @param existingId        Id of the group.
+     * @param scimObjectString  Replacement group.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param ifMatch           Value of the If-Match header, or null.
+     * @param memo              Memo of the reads made while serving the request.
+     * @return SCIM Response.
+     */
+    public SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
+                                      String attributes, String excludeAttributes, String ifMatch,
+                                      ResourceReadMemo memo) {
         //needs to validate the incoming object. eg: id can not be set by the consumer.
 
         JSONEncoder encoder = null;
@@ -550,6 +767,11 @@ public class GroupResourceManager extends AbstractResourceManager {
             decoder = getDecoder();
 
             SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+            //a stale conditional request is rejected before the payload is decoded.
+            if (ifMatch != null && userManager != null) {
+                getGroupForPrecondition(existingId, ifMatch, userManager,
+                        ResourceManagerUtil.getAllAttributeURIs(schema), memo);
+            }
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
                     (SCIMResourceTypeSchema)
@@ -559,10 +781,22 @@ public class GroupResourceManager extends AbstractResourceManager {
             Group updatedGroup = null;
             if (userManager != null) {
                 //retrieve the old object
-                Group oldGroup = userManager.getGroup(existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+                Group oldGroup = memo.getGroup(userManager, existingId,
+                        ResourceManagerUtil.getAllAttributeURIs(schema));
                 if (oldGroup != null) {
+                    //the version the old group was read at, which the update is conditional on.
+                    String expectedVersion = oldGroup.getVersion();
                     Group newGroup = (Group) ServerSideValidator.validateUpdatedSCIMObject(oldGroup, group, schema);
-                    updatedGroup = userManager.updateGroup(oldGroup, newGroup, requiredAttributes);
+                    ResourceReferenceUtil.setMemberDisplayNames(userManager, newGroup);
+                    if (ifMatch != null && expectedVersion != null) {
+                        updatedGroup = updateGroupIfVersionMatches(userManager, oldGroup, newGroup,
+                                requiredAttributes, expectedVersion);
+                    } else {
+                        updatedGroup = updateGroupByChangeSet(userManager, oldGroup, newGroup, schema,
+                                requiredAttributes);
+                    }
+                    //the group was written, so it can no longer be served from the memo.
+                    memo.forget(SCIMConstants.GROUP, existingId);
 
                 } else {
                     String error = "No user exists with the given id: " + existingId;
@@ -577,11 +811,9 @@ public class GroupResourceManager extends AbstractResourceManager {
             String encodedGroup;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (updatedGroup != null) {
-                //create a deep copy of the user object since we are going to change it.
-                Group copiedGroup = (Group) CopyUtil.deepCopy(updatedGroup);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedGroup, attributes, excludeAttributes);
-                encodedGroup = encoder.encodeSCIMObject(copiedGroup);
+                //the attributes which are not returned are skipped while encoding.
+                encodedGroup = encoder.encodeSCIMObject(updatedGroup,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.GROUP_ENDPOINT) + "/" + updatedGroup.getId());
@@ -597,6 +829,8 @@ public class GroupResourceManager extends AbstractResourceManager {
 
         } catch (NotFoundException e) {
             return encodeSCIMException(e);
+        } catch (PreConditionFailedException e) {
+            return encodeSCIMException(e);
         } catch (BadRequestException e) {
             return encodeSCIMException(e);
         } catch (CharonException e) {
@@ -620,6 +854,25 @@ public class GroupResourceManager extends AbstractResourceManager {
      */
     public SCIMResponse updateWithPATCH(String existingId, String patchRequest, UserManager userManager,
                                         String attributes, String excludeAttributes) {
+
+        return updateWithPATCH(existingId, patchRequest, userManager, attributes, excludeAttributes, null);
+    }
+
+    /**
+     * Updates the group based on the operations defined in the patchRequest, provided that the group is still at one
+     * of the versions given in the If-Match header. The updated group information is sent back in the response.
+     *
+     * @param existingId        SCIM2 ID of the existing group.
+     * @param patchRequest      SCIM2 patch request.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param ifMatch           Value of the If-Match header, null for an unconditional update.
+     * @return SCIM Response.
+     */
+    @Override
+    public SCIMResponse updateWithPATCH(String existingId, String patchRequest, UserManager userManager,
+                                        String attributes, String excludeAttributes, String ifMatch) {
         try {
             if (userManager == null) {
                 String error = "Provided user manager handler is null.";
@@ -629,29 +882,46 @@ public class GroupResourceManager extends AbstractResourceManager {
             SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getAllAttributeURIs(schema);
 
+            // A stale conditional request is rejected before the patch request is decoded.
+            ResourceReadMemo memo = new ResourceReadMemo();
+            String preconditionVersion = null;
+            if (ifMatch != null) {
+                preconditionVersion = getGroupForPrecondition(existingId, ifMatch, userManager, requiredAttributes,
+                        memo).getVersion();
+            }
+
             List<PatchOperation> opList = getDecoder().decodeRequest(patchRequest);
 
             if (!isDeleteAllUsersOperationFound(opList)) {
                 return updateWithPatchForAddRemoveOperations(existingId, opList, userManager, attributes,
-                        excludeAttributes);
+                        excludeAttributes, preconditionVersion, memo);
             }
 
             // Get the group from the user core
-            Group oldGroup = userManager.getGroup(existingId, requiredAttributes);
+            Group oldGroup = memo.getGroup(userManager, existingId, requiredAttributes);
             if (oldGroup == null) {
                 throw new NotFoundException("No group with the id : " + existingId + " in the user store.");
             }
+            String expectedVersion = oldGroup.getVersion();
 
             Group originalGroup = (Group) CopyUtil.deepCopy(oldGroup);
+            // The group is patched in place, so it can no longer be served from the memo.
+            memo.forget(SCIMConstants.GROUP, existingId);
             Group patchedGroup = doPatchGroup(oldGroup, schema, patchRequest);
+            ResourceReferenceUtil.setMemberDisplayNames(userManager, patchedGroup);
 
-            Group updatedGroup = userManager.updateGroup(originalGroup, patchedGroup, requiredAttributes);
+            Group updatedGroup;
+            if (ifMatch != null && expectedVersion != null) {
+                updatedGroup = updateGroupIfVersionMatches(userManager, originalGroup, patchedGroup,
+                        requiredAttributes, expectedVersion);
+            } else {
+                updatedGroup = updateGroupByChangeSet(userManager, originalGroup, patchedGroup, schema,
+                        requiredAttributes);
+            }
             if (updatedGroup != null) {
-                // Create a deep copy of the group object since we are going to change it.
-                Group copyOfUpdatedGroup = (Group) CopyUtil.deepCopy(updatedGroup);
-                ServerSideValidator.validateReturnedAttributes(copyOfUpdatedGroup, attributes, excludeAttributes);
-
-                String encodedGroup = getEncoder().encodeSCIMObject(copyOfUpdatedGroup);
+                // The attributes which are not returned are skipped while encoding.
+                String encodedGroup = getEncoder().encodeSCIMObject(updatedGroup,
+                        new AttributeProjection(attributes, excludeAttributes));
                 Map<String, String> httpHeaders = new HashMap<>();
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.GROUP_ENDPOINT) + "/" + updatedGroup.getId());
@@ -662,7 +932,7 @@ public class GroupResourceManager extends AbstractResourceManager {
                 throw new CharonException(error);
             }
         } catch (NotFoundException | BadRequestException | NotImplementedException | CharonException |
-                InternalErrorException e) {
+                InternalErrorException | PreConditionFailedException e) {
             return AbstractResourceManager.encodeSCIMException(e);
         } catch (RuntimeException e) {
             CharonException e1 = new CharonException("Error in performing the patch operation on group resource.", e);
@@ -670,7 +940,99 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
-    private boolean isDeleteAllUsersOperationFound(List<PatchOperation> patchOperations) throws JSONException {
+    /*
+     * Answers a filter that only matches ids by looking the groups up by id, in the order of the filter, for a user
+     * manager which can not list the groups of a filter. Returns null if the filter matches anything but ids, or the
+     * groups are to be sorted or taken from a domain.
+     */
+    private GroupsGetResponse getGroupsOfIdFilter(UserManager userManager, Node rootNode, Integer startIndex,
+                                                  Integer count, String sortBy, String domainName,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        List<String> ids = sortBy == null && domainName == null ?
+                ResourceReferenceUtil.getIdsOfIdFilter(rootNode) : null;
+        if (ids == null) {
+            return null;
+        }
+        Map<String, Group> groupsById = ResourceReferenceUtil.getGroupsByIds(userManager, ids, requiredAttributes);
+        List<Group> groups = new ArrayList<>();
+        for (String id : ids) {
+            if (groupsById.containsKey(id)) {
+                groups.add(groupsById.get(id));
+            }
+        }
+        int from = Math.min(startIndex - 1, groups.size());
+        int to = count == null ? groups.size() : Math.min(from + count, groups.size());
+        return new GroupsGetResponse(groups.size(), new ArrayList<>(groups.subList(from, to)));
+    }
+
+    /*
+     * Retrieve the group a conditional update is made against and evaluate the If-Match precondition on it.
+     */
+    private Group getGroupForPrecondition(String existingId, String ifMatch, UserManager userManager,
+                                          Map<String, Boolean> requiredAttributes, ResourceReadMemo memo)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        Group oldGroup = memo.getGroup(userManager, existingId, requiredAttributes);
+        if (oldGroup == null) {
+            throw new NotFoundException("No group with the id : " + existingId + " in the user store.");
+        }
+        ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldGroup));
+        return oldGroup;
+    }
+
+    /*
+     * Retrieve only the version of the group, if the user manager supports it.
+     */
+    private String getGroupVersion(String id, UserManager userManager)
+            throws CharonException, NotFoundException, BadRequestException {
+
+        try {
+            return userManager.getGroupVersion(id);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Write the group back only if the stored group is still at the version the precondition was evaluated against.
+     * User stores without versioned updates get a plain update, as the precondition was already checked on read.
+     * That leaves a window between the check and the write in which a concurrent update is lost, which is the
+     * weaker guarantee documented on the conditional update methods of ResourceManager.
+     */
+    private Group updateGroupIfVersionMatches(UserManager userManager, Group oldGroup, Group newGroup,
+                                              Map<String, Boolean> requiredAttributes, String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        try {
+            return userManager.updateGroup(oldGroup, newGroup, requiredAttributes, expectedVersion);
+        } catch (NotImplementedException e) {
+            logger.debug("Versioned updates are not supported by the user manager. Updating unconditionally.");
+            return userManager.updateGroup(oldGroup, newGroup, requiredAttributes);
+        }
+    }
+
+    /*
+     * Hand the user store only the changes the request makes to the group. User stores that can only update whole
+     * groups get the old and the new group.
+     */
+    private Group updateGroupByChangeSet(UserManager userManager, Group oldGroup, Group newGroup,
+                                         SCIMResourceTypeSchema schema, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        try {
+            return userManager.updateGroup(newGroup.getId(), ChangeSetUtil.getChangeSet(oldGroup, newGroup, schema),
+                    requiredAttributes);
+        } catch (NotImplementedException e) {
+            logger.debug("Change set updates are not supported by the user manager. Updating the whole group.");
+            return userManager.updateGroup(oldGroup, newGroup, requiredAttributes);
+        }
+    }
+
+    static boolean isDeleteAllUsersOperationFound(List<PatchOperation> patchOperations) throws JSONException {
 
         for (PatchOperation patchOperation : patchOperations) {
             String operation = patchOperation.getOperation();
@@ -705,49 +1067,74 @@ public class GroupResourceManager extends AbstractResourceManager {
                                                               UserManager userManager, String attributes,
                                                               String excludeAttributes) {
 
+        return updateWithPatchForAddRemoveOperations(existingGroupId, opList, userManager, attributes,
+                excludeAttributes, null);
+    }
+
+    /**
+     * Updates the group based on the operations defined in the patchRequest. If an expected version is given, the
+     * operations are only applied if the stored group is still at that version.
+     *
+     * @param existingGroupId   SCIM2 ID of the existing group.
+     * @param opList            List of patch operations.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param expectedVersion   meta.version the If-Match precondition was evaluated against, or null.
+     * @return SCIM Response.
+     */
+    public SCIMResponse updateWithPatchForAddRemoveOperations(String existingGroupId, List<PatchOperation> opList,
+                                                              UserManager userManager, String attributes,
+                                                              String excludeAttributes, String expectedVersion) {
+
+        return updateWithPatchForAddRemoveOperations(existingGroupId, opList, userManager, attributes,
+                excludeAttributes, expectedVersion, new ResourceReadMemo());
+    }
+
+    /*
+     * Apply the add and remove operations, reading the group through the memo of the request.
+     */
+    private SCIMResponse updateWithPatchForAddRemoveOperations(String existingGroupId, List<PatchOperation> opList,
+                                                               UserManager userManager, String attributes,
+                                                               String excludeAttributes, String expectedVersion,
+                                                               ResourceReadMemo memo) {
+
         try {
-            Map<String, List<PatchOperation>> patchOperations = new HashMap<>();
-
-            patchOperations.put(SCIMConstants.OperationalConstants.ADD, new ArrayList<>());
-            patchOperations.put(SCIMConstants.OperationalConstants.REMOVE, new ArrayList<>());
-            patchOperations.put(SCIMConstants.OperationalConstants.REPLACE, new ArrayList<>());
-
-            for (PatchOperation patchOperation : opList) {
-                switch (patchOperation.getOperation()) {
-                    case SCIMConstants.OperationalConstants.ADD:
-                        patchOperations.get(SCIMConstants.OperationalConstants.ADD).add(patchOperation);
-                        break;
-                    case SCIMConstants.OperationalConstants.REMOVE:
-                        patchOperations.get(SCIMConstants.OperationalConstants.REMOVE).add(patchOperation);
-                        break;
-                    case SCIMConstants.OperationalConstants.REPLACE:
-                        patchOperations.get(SCIMConstants.OperationalConstants.REPLACE).add(patchOperation);
-                        break;
-                    default:
-                        throw new BadRequestException("Unknown operation: " + patchOperation.getOperation(),
-                                ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            }
+            Map<String, List<PatchOperation>> patchOperations = getPatchOperationsByType(opList);
 
             SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
-            String groupName = getGroupName(userManager, existingGroupId);
 
             processGroupPatchOperations(patchOperations, schema);
+            PatchOperationCoalescer.coalesceGroupOperations(patchOperations);
+            ResourceReferenceUtil.setMemberDisplayNames(userManager, getAddedMembers(patchOperations));
 
-            // Get the URIs of required attributes which must be given a value.
-            Map<String, Boolean> requiredAttributes =
-                    ResourceManagerUtil.getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema)
-                            CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+            Group updatedGroup = null;
+            boolean patched = false;
+            String returnedExcludeAttributes = excludeAttributes;
+            GroupMemberDelta delta = expectedVersion == null ? getMemberDelta(existingGroupId, patchOperations) : null;
+            if (delta != null) {
+                String deltaExcludeAttributes = getDeltaExcludeAttributes(attributes, excludeAttributes);
+                try {
+                    updatedGroup = userManager.patchGroupMembers(delta, ResourceManagerUtil
+                            .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema),
+                                    attributes, deltaExcludeAttributes));
+                    returnedExcludeAttributes = deltaExcludeAttributes;
+                    patched = true;
+                } catch (NotImplementedException e) {
+                    logger.debug("Member delta updates are not supported by the user manager. Patching the group.");
+                }
+            }
 
-            Group updatedGroup = userManager.patchGroup(existingGroupId, groupName, patchOperations,
-                    requiredAttributes);
+            if (!patched) {
+                updatedGroup = patchGroup(userManager, existingGroupId, patchOperations, schema, attributes,
+                        excludeAttributes, expectedVersion, memo);
+            }
 
             if (updatedGroup != null) {
-                // Create a deep copy of the group object since we are going to change it.
-                Group copyOfUpdatedGroup = (Group) CopyUtil.deepCopy(updatedGroup);
-                ServerSideValidator.validateReturnedAttributes(copyOfUpdatedGroup, attributes, excludeAttributes);
-                // Encode the updated group object and add id attribute to Location header.
-                String encodedGroup = getEncoder().encodeSCIMObject(copyOfUpdatedGroup);
+                // Encode the updated group object, skipping the attributes which are not returned, and add id
+                // attribute to Location header.
+                String encodedGroup = getEncoder().encodeSCIMObject(updatedGroup,
+                        new AttributeProjection(attributes, returnedExcludeAttributes));
 
                 Map<String, String> httpHeaders = new HashMap<>();
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER,
@@ -759,7 +1146,8 @@ public class GroupResourceManager extends AbstractResourceManager {
                 String error = "Updated group resource is null.";
                 throw new CharonException(error);
             }
-        } catch (NotFoundException | BadRequestException | NotImplementedException | CharonException e) {
+        } catch (NotFoundException | BadRequestException | NotImplementedException | CharonException |
+                PreConditionFailedException e) {
             return AbstractResourceManager.encodeSCIMException(e);
         } catch (RuntimeException e) {
             CharonException e1 = new CharonException("Error in performing the patch operation on group resource.", e);
@@ -767,12 +1155,118 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
-    private String getGroupName(UserManager userManager, String groupId)
+    /*
+     * The patch operations by their type, add, remove and replace.
+     */
+    static Map<String, List<PatchOperation>> getPatchOperationsByType(List<PatchOperation> opList)
+            throws BadRequestException {
+
+        Map<String, List<PatchOperation>> patchOperations = new HashMap<>();
+
+        patchOperations.put(SCIMConstants.OperationalConstants.ADD, new ArrayList<>());
+        patchOperations.put(SCIMConstants.OperationalConstants.REMOVE, new ArrayList<>());
+        patchOperations.put(SCIMConstants.OperationalConstants.REPLACE, new ArrayList<>());
+
+        for (PatchOperation patchOperation : opList) {
+            switch (patchOperation.getOperation()) {
+                case SCIMConstants.OperationalConstants.ADD:
+                    patchOperations.get(SCIMConstants.OperationalConstants.ADD).add(patchOperation);
+                    break;
+                case SCIMConstants.OperationalConstants.REMOVE:
+                    patchOperations.get(SCIMConstants.OperationalConstants.REMOVE).add(patchOperation);
+                    break;
+                case SCIMConstants.OperationalConstants.REPLACE:
+                    patchOperations.get(SCIMConstants.OperationalConstants.REPLACE).add(patchOperation);
+                    break;
+                default:
+                    throw new BadRequestException("Unknown operation: " + patchOperation.getOperation(),
+                            ResponseCodeConstants.INVALID_SYNTAX);
+            }
+        }
+        return patchOperations;
+    }
+
+    /*
+     * The attributes excluded from the group a member delta returns. The members are only returned if they are
+     * asked for, so the user store need not read them.
+     */
+    static String getDeltaExcludeAttributes(String attributes, String excludeAttributes) {
+
+        if (attributes != null) {
+            return excludeAttributes;
+        }
+        return excludeAttributes == null ? SCIMConstants.GroupSchemaConstants.MEMBERS :
+                excludeAttributes + "," + SCIMConstants.GroupSchemaConstants.MEMBERS;
+    }
+
+    /*
+     * Hand the user store the operations together with the current name of the group. Without versioned patches the
+     * precondition only holds as of the read, as for updateGroupIfVersionMatches.
+     */
+    private Group patchGroup(UserManager userManager, String existingGroupId,
+                             Map<String, List<PatchOperation>> patchOperations, SCIMResourceTypeSchema schema,
+                             String attributes, String excludeAttributes, String expectedVersion,
+                             ResourceReadMemo memo)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        // Get the URIs of required attributes which must be given a value.
+        Map<String, Boolean> requiredAttributes =
+                ResourceManagerUtil.getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema)
+                        CopyUtil.deepCopy(schema), attributes, excludeAttributes);
+        String groupName = getGroupName(userManager, existingGroupId, memo);
+        if (expectedVersion != null) {
+            try {
+                return userManager.patchGroup(existingGroupId, groupName, patchOperations, requiredAttributes,
+                        expectedVersion);
+            } catch (NotImplementedException e) {
+                logger.debug("Versioned updates are not supported by the user manager. Patching unconditionally.");
+            }
+        }
+        return userManager.patchGroup(existingGroupId, groupName, patchOperations, requiredAttributes);
+    }
+
+    /*
+     * The membership delta of add and remove operations that only add members, remove members by their ids and set
+     * the display name, null if the operations do something else.
+     */
+    @SuppressWarnings("unchecked")
+    static GroupMemberDelta getMemberDelta(String groupId, Map<String, List<PatchOperation>> patchOperations) {
+
+        String displayName = null;
+        List<Map<String, String>> addedMembers = new ArrayList<>();
+        for (PatchOperation patchOperation : patchOperations.get(SCIMConstants.OperationalConstants.ADD)) {
+            if (SCIMConstants.GroupSchemaConstants.DISPLAY_NAME.equals(patchOperation.getAttributeName()) &&
+                    patchOperation.getValues() instanceof String) {
+                displayName = (String) patchOperation.getValues();
+            } else if (SCIMConstants.GroupSchemaConstants.MEMBERS.equals(patchOperation.getAttributeName()) &&
+                    patchOperation.getValues() instanceof List) {
+                addedMembers.addAll((List<Map<String, String>>) patchOperation.getValues());
+            } else {
+                return null;
+            }
+        }
+        Set<String> removedMemberIds = new HashSet<>();
+        for (PatchOperation patchOperation : patchOperations.get(SCIMConstants.OperationalConstants.REMOVE)) {
+            if (!(patchOperation.getValues() instanceof Map)) {
+                return null;
+            }
+            Map<String, String> member = (Map<String, String>) patchOperation.getValues();
+            String memberId = member.get(SCIMConstants.GroupSchemaConstants.VALUE);
+            if (memberId == null || member.get(SCIMConstants.GroupSchemaConstants.DISPLAY) != null) {
+                return null;
+            }
+            removedMemberIds.add(memberId);
+        }
+        return new GroupMemberDelta(groupId, displayName, addedMembers, removedMemberIds);
+    }
+
+    private String getGroupName(UserManager userManager, String groupId, ResourceReadMemo memo)
             throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
 
         HashMap<String, Boolean> requiredAttributes = new HashMap<>();
         requiredAttributes.put(SCIMConstants.GroupSchemaConstants.DISPLAY_NAME_URI, true);
-        Group group = userManager.getGroup(groupId, requiredAttributes);
+        Group group = memo.getGroup(userManager, groupId, requiredAttributes);
 
         if (group != null) {
             return group.getDisplayName();
@@ -781,8 +1275,8 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
-    private void processGroupPatchOperations(Map<String, List<PatchOperation>> patchOperations,
-                                             SCIMResourceTypeSchema schema)
+    static void processGroupPatchOperations(Map<String, List<PatchOperation>> patchOperations,
+                                            SCIMResourceTypeSchema schema)
             throws CharonException, BadRequestException, NotImplementedException, JSONException {
 
         Iterator<PatchOperation> replaceOperationIterator = patchOperations
@@ -890,7 +1384,7 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
-    private void processValueAttributeOfOperation(SCIMResourceTypeSchema schema, PatchOperation patchOperation)
+    private static void processValueAttributeOfOperation(SCIMResourceTypeSchema schema, PatchOperation patchOperation)
             throws CharonException, BadRequestException {
 
         AbstractSCIMObject attributeHoldingSCIMObject = getDecoder().decode(patchOperation.getValues().toString(),
@@ -913,8 +1407,24 @@ public class GroupResourceManager extends AbstractResourceManager {
         }
     }
 
-    private List<Map<String, String>> transformMembersAttributeToMap(MultiValuedAttribute multiValuedMembersAttribute)
-            throws CharonException {
+    /*
+     * Members added by the patch operations, as maps of the value and display sub attributes.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, String>> getAddedMembers(Map<String, List<PatchOperation>> patchOperations) {
+
+        List<Map<String, String>> addedMembers = new ArrayList<>();
+        for (PatchOperation patchOperation : patchOperations.get(SCIMConstants.OperationalConstants.ADD)) {
+            if (SCIMConstants.GroupSchemaConstants.MEMBERS.equals(patchOperation.getAttributeName()) &&
+                    patchOperation.getValues() instanceof List) {
+                addedMembers.addAll((List<Map<String, String>>) patchOperation.getValues());
+            }
+        }
+        return addedMembers;
+    }
+
+    private static List<Map<String, String>> transformMembersAttributeToMap(
+            MultiValuedAttribute multiValuedMembersAttribute) throws CharonException {
 
         List<Map<String, String>> memberList = new ArrayList<>();
         List<Attribute> subValuesList = multiValuedMembersAttribute.getAttributeValues();
@@ -925,8 +1435,10 @@ public class GroupResourceManager extends AbstractResourceManager {
             Map<String, String> member = new HashMap<>();
             member.put(SCIMConstants.CommonSchemaConstants.VALUE, ((SimpleAttribute)
                     (subAttributesList.get(SCIMConstants.CommonSchemaConstants.VALUE))).getStringValue());
-            member.put(SCIMConstants.CommonSchemaConstants.DISPLAY, ((SimpleAttribute)
-                    (subAttributesList.get(SCIMConstants.CommonSchemaConstants.DISPLAY))).getStringValue());
+            // A member given without a display name gets the one of the referenced resource.
+            SimpleAttribute display = (SimpleAttribute) subAttributesList.get(
+                    SCIMConstants.CommonSchemaConstants.DISPLAY);
+            member.put(SCIMConstants.CommonSchemaConstants.DISPLAY, display == null ? null : display.getStringValue());
             memberList.add(member);
         }
         return memberList;
@@ -961,6 +1473,7 @@ public class GroupResourceManager extends AbstractResourceManager {
             // Make a copy of original group. This will be used to restore to the original condition if failure occurs.
             Group originalGroup = (Group) CopyUtil.deepCopy(oldGroup);
             Group patchedGroup = doPatchGroup(oldGroup, schema, patchRequest);
+            ResourceReferenceUtil.setMemberDisplayNames(userManager, patchedGroup);
 
             userManager.updateGroup(originalGroup, patchedGroup);
 
@@ -986,7 +1499,8 @@ public class GroupResourceManager extends AbstractResourceManager {
         Group copyOfOldGroup = (Group) CopyUtil.deepCopy(oldGroup);
 
         Group patchedGroup = null;
-        List<PatchOperation> opList = getDecoder().decodeRequest(patchRequest);
+        List<PatchOperation> opList = PatchOperationCoalescer.coalesce(getDecoder().decodeRequest(patchRequest),
+                groupSchema);
         for (PatchOperation operation : opList) {
             switch (operation.getOperation()) {
                 case SCIMConstants.OperationalConstants.ADD:
@@ -1030,7 +1544,8 @@ public class GroupResourceManager extends AbstractResourceManager {
             }
         }
 
-        return (Group) ServerSideValidator.validateUpdatedSCIMObject(originalGroup, patchedGroup, groupSchema);
+        return (Group) ServerSideValidator.validateUpdatedSCIMObject(originalGroup, patchedGroup, groupSchema,
+                PatchOperationUtil.getModifiedAttributeNames(opList, getDecoder(), groupSchema));
     }
 
     /**
@@ -1048,11 +1563,29 @@ public class GroupResourceManager extends AbstractResourceManager {
         listedResource.setStartIndex(startIndex);
         listedResource.setItemsPerPage(groupsResponses.getGroups().size());
         for (Group group : groupsResponses.getGroups()) {
-            Map<String, Attribute> userAttributes = group.getAttributeList();
-            listedResource.setResources(userAttributes);
+            listedResource.addResource(group);
         }
         return listedResource;
     }
 
-
+    /**
+     * Creates the Listed Resource of a cursor paginated group list. It carries the nextCursor instead of a
+     * startIndex, and no nextCursor at all on the last page.
+     *
+     * @param groupsResponses   Response made of a page of groups, the total number of groups and the next cursor.
+     * @return
+     */
+    public ListedResource createCursorListedResource(GroupsGetResponse groupsResponses) {
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(groupsResponses.getTotalGroups());
+        listedResource.setItemsPerPage(groupsResponses.getGroups().size());
+        if (groupsResponses.getNextCursor() != null) {
+            listedResource.setNextCursor(groupsResponses.getNextCursor());
+        }
+        for (Group group : groupsResponses.getGroups()) {
+            listedResource.addResource(group);
+        }
+        return listedResource;
+    }
 }
@@ -29,13 +29,16 @@ import org.wso2.charon3.core.extensions.UserManager;
 import org.wso2.charon3.core.objects.User;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
 import org.wso2.charon3.core.schema.ServerSideValidator;
 import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
 import org.wso2.charon3.core.utils.PatchOperationUtil;
 import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.ResourceReadMemo;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 
 import java.util.HashMap;
@@ -77,9 +80,10 @@ public class MeResourceManager extends AbstractResourceManager {
                 throw new NotFoundException(error);
             }
             //perform service provider side validation.
-            ServerSideValidator.validateRetrievedSCIMObject(user, schema, attributes, excludeAttributes);
-            //convert the user into requested format.
-            String encodedUser = encoder.encodeSCIMObject(user);
+            ServerSideValidator.validateSchemaList(user, schema);
+            //convert the user into requested format, skipping the attributes which are not returned.
+            String encodedUser = encoder.encodeSCIMObject(user,
+                    new AttributeProjection(attributes, excludeAttributes));
             //if there are any http headers to be added in the response header.
             Map<String, String> responseHeaders = new HashMap<String, String>();
             responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
@@ -135,11 +139,9 @@ public class MeResourceManager extends AbstractResourceManager {
             Map<String, String> responseHeaders = new HashMap<String, String>();
 
             if (createdUser != null) {
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(createdUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = encoder.encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = encoder.encodeSCIMObject(createdUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 responseHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + createdUser.getId());
@@ -214,6 +216,25 @@ public class MeResourceManager extends AbstractResourceManager {
     @Override
     public SCIMResponse updateWithPUT(String userName, String scimObjectString, UserManager userManager, String
             attributes, String excludeAttributes) {
+
+        return updateWithPUT(userName, scimObjectString, userManager, attributes, excludeAttributes,
+                new ResourceReadMemo());
+    }
+
+    /**
+     * Replace the authenticated user, reading it through the given memo of the request, so a user the request
+     * already read with all of its attributes is not read again.
+     *
+     * @param userName          User name of the authenticated user.
+     * @param scimObjectString  Replacement user.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param memo              Memo of the reads made while serving the request.
+     * @return SCIM Response.
+     */
+    public SCIMResponse updateWithPUT(String userName, String scimObjectString, UserManager userManager,
+                                      String attributes, String excludeAttributes, ResourceReadMemo memo) {
         //needs to validate the incoming object. eg: id can not be set by the consumer.
 
         JSONEncoder encoder = null;
@@ -237,10 +258,12 @@ public class MeResourceManager extends AbstractResourceManager {
             User updatedUser = null;
             if (userManager != null) {
                 //retrieve the old object
-                User oldUser = userManager.getMe(userName, ResourceManagerUtil.getAllAttributeURIs(schema));
+                User oldUser = memo.getMe(userManager, userName, ResourceManagerUtil.getAllAttributeURIs(schema));
                 if (oldUser != null) {
                     User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, user, schema);
                     updatedUser = userManager.updateMe(validatedUser, requiredAttributes);
+                    //the user was written, so it can no longer be served from the memo.
+                    memo.forgetMe(userName);
 
                 } else {
                     String error = "No user exists with the given userName: " + userName;
@@ -255,11 +278,9 @@ public class MeResourceManager extends AbstractResourceManager {
             String encodedUser;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (updatedUser != null) {
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(updatedUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = encoder.encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = encoder.encodeSCIMObject(updatedUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + updatedUser.getId());
@@ -299,6 +320,24 @@ public class MeResourceManager extends AbstractResourceManager {
 
     public SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager,
                                         String attributes, String excludeAttributes) {
+
+        return updateWithPATCH(existingId, scimObjectString, userManager, attributes, excludeAttributes,
+                new ResourceReadMemo());
+    }
+
+    /**
+     * Update the authenticated user by a sequence of operations, reading it through the given memo of the request.
+     *
+     * @param existingId        User name of the authenticated user.
+     * @param scimObjectString  Patch request.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param memo              Memo of the reads made while serving the request.
+     * @return SCIM Response.
+     */
+    public SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager,
+                                        String attributes, String excludeAttributes, ResourceReadMemo memo) {
         try {
             if (userManager == null) {
                 String error = "Provided user manager handler is null.";
@@ -311,56 +350,13 @@ public class MeResourceManager extends AbstractResourceManager {
 
             SCIMResourceTypeSchema schema = getSchema(userManager);
             //get the user from the user core
-            User oldUser = userManager.getMe(existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+            User oldUser = memo.getMe(userManager, existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
             if (oldUser == null) {
                 throw new NotFoundException("No associated user exits in the user store.");
             }
-            //make a copy of the original user
-            User copyOfOldUser = (User) CopyUtil.deepCopy(oldUser);
-            //make another copy of original user.
-            //this will be used to restore to the original condition if failure occurs.
-            User originalUser = (User) CopyUtil.deepCopy(copyOfOldUser);
-
-            User newUser = null;
-
-            for (PatchOperation operation : opList) {
-
-                if (operation.getOperation().equals(SCIMConstants.OperationalConstants.ADD)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchAdd
-                                (operation, getDecoder(), oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchAdd
-                                (operation, getDecoder(), newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    }
-                } else if (operation.getOperation().equals(SCIMConstants.OperationalConstants.REMOVE)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchRemove(operation, oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchRemove(operation, newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-                    }
-                } else if (operation.getOperation().equals(SCIMConstants.OperationalConstants.REPLACE)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchReplace
-                                (operation, getDecoder(), oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchReplace
-                                (operation, getDecoder(), newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-                    }
-                } else  {
-                    throw new BadRequestException("Unknown operation.", ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            }
+            //apply the operations to a copy of the user, the original is kept to validate the patched user against.
+            opList = PatchOperationCoalescer.coalesce(opList, schema);
+            User newUser = (User) PatchOperationUtil.doPatchOperations(opList, getDecoder(), oldUser, schema);
 
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes =
@@ -368,19 +364,19 @@ public class MeResourceManager extends AbstractResourceManager {
                             CopyUtil.deepCopy(schema), attributes, excludeAttributes);
 
 
-            User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject
-                    (originalUser, newUser, schema);
+            User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser, schema,
+                    PatchOperationUtil.getModifiedAttributeNames(opList, decoder, schema));
             newUser = userManager.updateMe(validatedUser, requiredAttributes);
+            //the user was written, so it can no longer be served from the memo.
+            memo.forgetMe(existingId);
 
             //encode the newly created SCIM user object and add id attribute to Location header.
             String encodedUser;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (newUser != null) {
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(newUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = getEncoder().encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = getEncoder().encodeSCIMObject(newUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + newUser.getId());
@@ -36,6 +36,24 @@ public interface ResourceManager {
      */
     SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes);
 
+    /**
+     * Conditional GET of a resource. If the If-None-Match header lists the current version of the resource, a 304
+     * response without a body is returned.
+     *
+     * @param id                Resource id.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifNoneMatch       Value of the If-None-Match header, null for an unconditional request.
+     * @return SCIMResponse.
+     */
+    default SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes,
+            String ifNoneMatch) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
     /*
      * Method of resource endpoint which is mapped to HTTP POST request.
      *
@@ -100,6 +118,46 @@ public interface ResourceManager {
         return null;
     }
 
+    /**
+     * Get resources using cursor pagination instead of a start index.
+     *
+     * @param userManager       User manager.
+     * @param filter            Filter to be executed.
+     * @param cursor            Cursor of the requested page, an empty string or null for the first page.
+     * @param countInt          Number of required results.
+     * @param sortBy            SortBy.
+     * @param sortOrder         Sorting order.
+     * @param domainName        Domain name.
+     * @param attributes        Attributes in the request.
+     * @param excludeAttributes Exclude attributes.
+     * @return SCIMResponse carrying the nextCursor of the page that follows, if there is one.
+     */
+    default SCIMResponse listWithCursor(UserManager userManager, String filter, String cursor, Integer countInt,
+            String sortBy, String sortOrder, String domainName, String attributes, String excludeAttributes) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
+    /**
+     * Get the resources changed since a watermark, along with the ids of the resources deleted since then.
+     *
+     * @param userManager       User manager.
+     * @param changesSince      Watermark returned by the previous change listing, an empty string or null to list
+     *                          all the resources.
+     * @param countInt          Maximum number of changes.
+     * @param domainName        Domain name.
+     * @param attributes        Attributes in the request.
+     * @param excludeAttributes Exclude attributes.
+     * @return SCIMResponse carrying the watermark to request the following changes with.
+     */
+    default SCIMResponse listChangesSince(UserManager userManager, String changesSince, Integer countInt,
+            String domainName, String attributes, String excludeAttributes) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
     /*
      * query resources
      *
@@ -131,6 +189,52 @@ public interface ResourceManager {
     SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager, String attributes,
             String excludeAttributes);
 
+    /**
+     * Conditionally replaces a resource. The update is rejected with a precondition failure if the resource is no
+     * longer at one of the versions listed in the If-Match header.
+     * <p>
+     * The precondition is atomic with the write only if the user manager implements the versioned update. Otherwise
+     * it is checked on read and the update is written unconditionally, so a concurrent write between the read and
+     * the write is not detected.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Payload of the request.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifMatch           Value of the If-Match header, null for an unconditional update.
+     * @return SCIMResponse.
+     */
+    default SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
+            String attributes, String excludeAttributes, String ifMatch) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
+    /**
+     * Conditionally patches a resource. The update is rejected with a precondition failure if the resource is no
+     * longer at one of the versions listed in the If-Match header.
+     * <p>
+     * The precondition is atomic with the write only if the user manager implements the versioned update. Otherwise
+     * it is checked on read and the update is written unconditionally, so a concurrent write between the read and
+     * the write is not detected.
+     *
+     * @param existingId        Resource id.
+     * @param scimObjectString  Patch request.
+     * @param userManager       User manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifMatch           Value of the If-Match header, null for an unconditional update.
+     * @return SCIMResponse.
+     */
+    default SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager,
+            String attributes, String excludeAttributes, String ifMatch) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
 
     /*
      * Partially updates a resource. This method does not return the updated resource in the response.
@@ -161,6 +265,24 @@ public interface ResourceManager {
                 Collections.emptyMap());
     }
 
+    /**
+     * Conditional GET of a role. If the If-None-Match header lists the current version of the role, a 304 response
+     * without a body is returned.
+     *
+     * @param id                Resource id.
+     * @param roleManager       Role manager.
+     * @param attributes        Attributes in the response.
+     * @param excludeAttributes Exclude attributes in the response.
+     * @param ifNoneMatch       Value of the If-None-Match header, null for an unconditional request.
+     * @return SCIMResponse.
+     */
+    default SCIMResponse getRole(String id, RoleManager roleManager, String attributes, String excludeAttributes,
+            String ifNoneMatch) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
     /**
      * POST method to create a new role.
      *
@@ -205,6 +327,24 @@ public interface ResourceManager {
                 Collections.emptyMap());
     }
 
+    /**
+     * GET method to list roles using cursor pagination instead of a start index.
+     *
+     * @param roleManager Role manager.
+     * @param filter      Filter to be executed.
+     * @param cursor      Cursor of the requested page, an empty string or null for the first page.
+     * @param count       Number of required results.
+     * @param sortBy      SortBy.
+     * @param sortOrder   Sorting order.
+     * @return SCIMResponse carrying the nextCursor of the page that follows, if there is one.
+     */
+    default SCIMResponse listWithCursorRole(RoleManager roleManager, String filter, String cursor, Integer count,
+            String sortBy, String sortOrder) {
+
+        return new SCIMResponse(ResponseCodeConstants.CODE_NOT_IMPLEMENTED, ResponseCodeConstants.DESC_NOT_IMPLEMENTED,
+                Collections.emptyMap());
+    }
+
     /**
      * POST method to search roles.
      *
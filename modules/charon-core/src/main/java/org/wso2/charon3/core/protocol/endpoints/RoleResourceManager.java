@@ -18,7 +18,6 @@ package org.wso2.charon3.core.protocol.endpoints;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.encoder.JSONDecoder;
 import org.wso2.charon3.core.encoder.JSONEncoder;
 import org.wso2.charon3.core.exceptions.BadRequestException;
@@ -34,12 +33,16 @@ import org.wso2.charon3.core.objects.Role;
 import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
 import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
 import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
 import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
 import org.wso2.charon3.core.utils.PatchOperationUtil;
 import org.wso2.charon3.core.utils.ResourceManagerUtil;
 import org.wso2.charon3.core.utils.codeutils.FilterTreeManager;
@@ -63,11 +66,25 @@ public class RoleResourceManager extends AbstractResourceManager {
     @Override
     public SCIMResponse getRole(String id, RoleManager roleManager, String attributes, String excludeAttributes) {
 
+        return getRole(id, roleManager, attributes, excludeAttributes, null);
+    }
+
+    @Override
+    public SCIMResponse getRole(String id, RoleManager roleManager, String attributes, String excludeAttributes,
+                                String ifNoneMatch) {
+
         try {
             if (roleManager == null) {
                 String error = "Provided role manager is null.";
                 throw new InternalErrorException(error);
             }
+            // Answer a matching conditional request from the version alone, without loading the role.
+            if (ifNoneMatch != null) {
+                String currentVersion = getRoleVersion(id, roleManager);
+                if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, currentVersion)) {
+                    return getNotModifiedResponse(currentVersion);
+                }
+            }
             JSONEncoder encoder = getEncoder();
             SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil
@@ -79,13 +96,21 @@ public class RoleResourceManager extends AbstractResourceManager {
                 String message = "Role id: " + id + " not found in the system.";
                 throw new NotFoundException(message);
             }
+            // The version has to be read before the validation drops attributes which were not requested.
+            String version = ETagUtil.getVersion(role);
+            if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, version)) {
+                return getNotModifiedResponse(version);
+            }
 
-            ServerSideValidator.validateRetrievedSCIMObject(role, schema, attributes, excludeAttributes);
+            ServerSideValidator.validateSchemaList(role, schema);
             ServerSideValidator.validateRetrievedSCIMRoleObject(role, attributes, excludeAttributes);
 
-            String encodedRole = encoder.encodeSCIMObject(role);
+            String encodedRole = encoder.encodeSCIMObject(role, new AttributeProjection(attributes, excludeAttributes));
             Map<String, String> httpHeaders = new HashMap<>();
             httpHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+            if (version != null) {
+                httpHeaders.put(SCIMConstants.ETAG_HEADER, ETagUtil.toWeakETag(version));
+            }
             return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedRole, httpHeaders);
 
         } catch (NotFoundException | BadRequestException | CharonException | NotImplementedException
@@ -163,6 +188,14 @@ public class RoleResourceManager extends AbstractResourceManager {
             Node rootNode = buildNode(filter, schema);
             JSONEncoder encoder = getEncoder();
 
+            // A count of zero only asks for totalResults, which may be answered without loading any role.
+            if (count != null && count == 0) {
+                SCIMResponse countResponse = getRoleCountResponse(roleManager, rootNode, startIndex, encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
+
             RolesGetResponse rolesResponse = roleManager.listRolesWithGET(rootNode, startIndex, count, sortBy,
                     sortOrder);
             return processRoleList(rolesResponse, encoder, startIndex);
@@ -176,6 +209,80 @@ public class RoleResourceManager extends AbstractResourceManager {
         }
     }
 
+    @Override
+    public SCIMResponse listWithCursorRole(RoleManager roleManager, String filter, String cursor, Integer countInt,
+            String sortBy, String sortOrder) {
+
+        try {
+            if (roleManager == null) {
+                String error = "Provided role manager is null.";
+                throw new InternalErrorException(error);
+            }
+            Integer count = ResourceManagerUtil.processCount(countInt);
+            sortOrder = resolveSortOrder(sortOrder, sortBy);
+            SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getRoleResourceSchema();
+            // Build node for filtering.
+            Node rootNode = buildNode(filter, schema);
+            JSONEncoder encoder = getEncoder();
+
+            RolesGetResponse rolesResponse = roleManager.listRolesWithCursor(rootNode, cursor == null ? "" : cursor,
+                    count, sortBy, sortOrder);
+            return processRoleList(rolesResponse, encoder, null);
+
+        } catch (CharonException | InternalErrorException | BadRequestException | NotImplementedException e) {
+            return encodeSCIMException(e);
+        } catch (IOException e) {
+            String error = "Error in tokenization of the input filter.";
+            CharonException charonException = new CharonException(error);
+            return AbstractResourceManager.encodeSCIMException(charonException);
+        }
+    }
+
+    /**
+     * Answers a list request with a count of zero from the role count of the role manager, without loading any role.
+     *
+     * @param roleManager Role manager.
+     * @param rootNode    Filter.
+     * @param startIndex  Starting index.
+     * @param encoder     Json encoder.
+     * @return SCIM response, or null if the role manager can not count roles.
+     * @throws CharonException     CharonException.
+     * @throws BadRequestException BadRequestException.
+     */
+    private SCIMResponse getRoleCountResponse(RoleManager roleManager, Node rootNode, int startIndex,
+            JSONEncoder encoder) throws CharonException, BadRequestException {
+
+        int totalRoles;
+        try {
+            totalRoles = roleManager.countRoles(rootNode);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+        ListedResource listedResource = createListedResource(
+                new RolesGetResponse(totalRoles, Collections.emptyList()), startIndex);
+        String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+        Map<String, String> responseHeaders = new HashMap<>();
+        responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+        return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
+    }
+
+    /**
+     * Retrieve only the version of the role, if the role manager supports it.
+     *
+     * @param id          Role ID.
+     * @param roleManager Role manager.
+     * @return Version of the role, or null if it is not known without loading the role.
+     */
+    private String getRoleVersion(String id, RoleManager roleManager)
+            throws BadRequestException, CharonException, NotFoundException {
+
+        try {
+            return roleManager.getRoleVersion(id);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+    }
+
     /**
      * Resolves the sorting order of the filter.
      *
@@ -226,12 +333,12 @@ public class RoleResourceManager extends AbstractResourceManager {
      *
      * @param rolesResponse     Response made of the filtered role list and total number of users.
      * @param encoder           Json encoder.
-     * @param startIndex        Starting index.
+     * @param startIndex        Starting index, null if the list is paginated with a cursor.
      * @return SCIM response.
      * @throws CharonException     CharonException.
      * @throws BadRequestException BadRequestException.
      */
-    private SCIMResponse processRoleList(RolesGetResponse rolesResponse, JSONEncoder encoder, int startIndex)
+    private SCIMResponse processRoleList(RolesGetResponse rolesResponse, JSONEncoder encoder, Integer startIndex)
             throws CharonException, BadRequestException {
 
         if (rolesResponse == null) {
@@ -244,7 +351,8 @@ public class RoleResourceManager extends AbstractResourceManager {
             ServerSideValidator.validateSCIMObjectForRequiredAttributes(role, SCIMSchemaDefinitions.SCIM_ROLE_SCHEMA);
         }
         // Create a listed resource object out of the returned groups list.
-        ListedResource listedResource = createListedResource(rolesResponse, startIndex);
+        ListedResource listedResource = startIndex == null ? createCursorListedResource(rolesResponse) :
+                createListedResource(rolesResponse, startIndex);
         // Convert the listed resource into specific format.
         String encodedListedResource = encoder.encodeSCIMObject(listedResource);
 
@@ -261,8 +369,29 @@ public class RoleResourceManager extends AbstractResourceManager {
         listedResource.setStartIndex(startIndex);
         listedResource.setItemsPerPage(rolesResponse.getRoles().size());
         for (Role role : rolesResponse.getRoles()) {
-            Map<String, Attribute> userAttributes = role.getAttributeList();
-            listedResource.setResources(userAttributes);
+            listedResource.addResource(role);
+        }
+        return listedResource;
+    }
+
+    /**
+     * Creates the listed resource of a cursor paginated role list. It carries the nextCursor instead of a
+     * startIndex, and no nextCursor at all on the last page.
+     *
+     * @param rolesResponse Response made of a page of roles, the total number of roles and the next cursor.
+     * @return Listed resource.
+     */
+    protected ListedResource createCursorListedResource(RolesGetResponse rolesResponse) {
+
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(rolesResponse.getTotalRoles());
+        listedResource.setItemsPerPage(rolesResponse.getRoles().size());
+        if (rolesResponse.getNextCursor() != null) {
+            listedResource.setNextCursor(rolesResponse.getNextCursor());
+        }
+        for (Role role : rolesResponse.getRoles()) {
+            listedResource.addResource(role);
         }
         return listedResource;
     }
@@ -306,16 +435,32 @@ public class RoleResourceManager extends AbstractResourceManager {
                 searchRequestObject.setSortOder(SCIMConstants.OperationalConstants.ASCENDING);
             }
 
-            RolesGetResponse rolesResponse = roleManager.listRolesWithPost(searchRequestObject);
+            // A count of zero only asks for totalResults, which may be answered without loading any role.
+            if (ResourceManagerUtil.isZeroCount(searchRequestObject.getCountStr())
+                    && searchRequestObject.getCursor() == null) {
+                SCIMResponse countResponse = getRoleCountResponse(roleManager, searchRequestObject.getFilter(),
+                        searchRequestObject.getStartIndex(), encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
 
-            for (Role role : rolesResponse.getRoles()) {
-                ServerSideValidator.validateRetrievedSCIMObjectInList(role, schema,
-                        searchRequestObject.getAttributesAsString(),
-                        searchRequestObject.getExcludedAttributesAsString());
+            RolesGetResponse rolesResponse;
+            if (searchRequestObject.getCursor() != null) {
+                rolesResponse = roleManager.listRolesWithCursor(searchRequestObject.getFilter(),
+                        searchRequestObject.getCursor(), searchRequestObject.getCount(),
+                        searchRequestObject.getSortBy(), searchRequestObject.getSortOder());
+            } else {
+                rolesResponse = roleManager.listRolesWithPost(searchRequestObject);
             }
+
             // Create a listed resource object out of the returned users list.
-            ListedResource listedResource = createListedResource(rolesResponse, searchRequestObject.getStartIndex());
-            String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+            ListedResource listedResource = searchRequestObject.getCursor() != null ?
+                    createCursorListedResource(rolesResponse) :
+                    createListedResource(rolesResponse, searchRequestObject.getStartIndex());
+            String encodedListedResource = ResourceManagerUtil.encodeListedResource(encoder, listedResource,
+                    new AttributeProjection(searchRequestObject.getAttributesAsString(),
+                            searchRequestObject.getExcludedAttributesAsString()));
             Map<String, String> responseHeaders = new HashMap<>();
             responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
             return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
@@ -344,7 +489,7 @@ public class RoleResourceManager extends AbstractResourceManager {
             Role oldRole = roleManager.getRole(id, requestAttributes);
             if (oldRole != null) {
                 Role newRole = (Role) ServerSideValidator.validateUpdatedSCIMObject(oldRole, role, schema);
-                updatedRole = roleManager.updateRole(oldRole, newRole);
+                updatedRole = updateRoleByChangeSet(roleManager, oldRole, newRole, schema);
             } else {
                 String error = "No role exists with the given id: " + id;
                 throw new NotFoundException(error);
@@ -376,7 +521,7 @@ public class RoleResourceManager extends AbstractResourceManager {
             // Make a copy of original group. This will be used to restore to the original condition if failure occurs.
             Role originalRole = (Role) CopyUtil.deepCopy(oldRole);
             Role patchedRole = doPatchRole(oldRole, schema, patchRequest);
-            Role updatedRole = roleManager.updateRole(originalRole, patchedRole);
+            Role updatedRole = updateRoleByChangeSet(roleManager, originalRole, patchedRole, schema);
             return getScimResponse(encoder, updatedRole);
 
         } catch (NotFoundException | BadRequestException | NotImplementedException | CharonException | ConflictException
@@ -388,6 +533,22 @@ public class RoleResourceManager extends AbstractResourceManager {
         }
     }
 
+    /*
+     * Hand the role manager only the changes the request makes to the role. Role managers that can only update whole
+     * roles get the old and the new role.
+     */
+    private Role updateRoleByChangeSet(RoleManager roleManager, Role oldRole, Role newRole,
+                                       SCIMResourceTypeSchema schema)
+            throws NotImplementedException, BadRequestException, CharonException, ConflictException, NotFoundException {
+
+        try {
+            return roleManager.updateRole(newRole.getId(), ChangeSetUtil.getChangeSet(oldRole, newRole, schema));
+        } catch (NotImplementedException e) {
+            logger.debug("Change set updates are not supported by the role manager. Updating the whole role.");
+            return roleManager.updateRole(oldRole, newRole);
+        }
+    }
+
     private SCIMResponse getScimResponse(JSONEncoder encoder, Role updatedRole)
             throws CharonException, NotFoundException, InternalErrorException {
 
@@ -416,7 +577,8 @@ public class RoleResourceManager extends AbstractResourceManager {
         Role copyOfOldRole = (Role) CopyUtil.deepCopy(oldRole);
 
         Role patchedRole = null;
-        List<PatchOperation> opList = getDecoder().decodeRequest(patchRequest);
+        List<PatchOperation> opList = PatchOperationCoalescer.coalesce(getDecoder().decodeRequest(patchRequest),
+                roleSchema);
         for (PatchOperation operation : opList) {
             switch (operation.getOperation()) {
             case SCIMConstants.OperationalConstants.ADD:
@@ -456,7 +618,8 @@ public class RoleResourceManager extends AbstractResourceManager {
                 throw new BadRequestException("Unknown operation.", ResponseCodeConstants.INVALID_SYNTAX);
             }
         }
-        return (Role) ServerSideValidator.validateUpdatedSCIMObject(originalRole, patchedRole, roleSchema);
+        return (Role) ServerSideValidator.validateUpdatedSCIMObject(originalRole, patchedRole, roleSchema,
+                PatchOperationUtil.getModifiedAttributeNames(opList, getDecoder(), roleSchema));
     }
 
     @Override
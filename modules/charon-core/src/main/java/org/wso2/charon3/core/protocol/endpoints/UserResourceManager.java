@@ -20,7 +20,6 @@ package org.wso2.charon3.core.protocol.endpoints;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.encoder.JSONDecoder;
 import org.wso2.charon3.core.encoder.JSONEncoder;
 import org.wso2.charon3.core.exceptions.BadRequestException;
@@ -30,25 +29,33 @@ import org.wso2.charon3.core.exceptions.ForbiddenException;
 import org.wso2.charon3.core.exceptions.InternalErrorException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
 import org.wso2.charon3.core.extensions.UserManager;
 import org.wso2.charon3.core.objects.ListedResource;
 import org.wso2.charon3.core.objects.User;
 import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
 import org.wso2.charon3.core.schema.ServerSideValidator;
+import org.wso2.charon3.core.utils.ChangeSetUtil;
 import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.PatchOperationCoalescer;
 import org.wso2.charon3.core.utils.PatchOperationUtil;
 import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.ResourceReadMemo;
+import org.wso2.charon3.core.utils.ResourceReferenceUtil;
 import org.wso2.charon3.core.utils.codeutils.FilterTreeManager;
 import org.wso2.charon3.core.utils.codeutils.Node;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -77,8 +84,31 @@ public class UserResourceManager extends AbstractResourceManager {
      * @return SCIM response to be returned.
      */
     public SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes) {
+
+        return get(id, userManager, attributes, excludeAttributes, null);
+    }
+
+    /*
+     * Retrieves a user resource given an unique user id, unless the client already holds the current version of it.
+     *
+     * @param id          - unique resource id
+     * @param usermanager - usermanager instance defined by the external implementor of charon
+     * @param ifNoneMatch - value of the If-None-Match header
+     * @return SCIM response to be returned.
+     */
+    @Override
+    public SCIMResponse get(String id, UserManager userManager, String attributes, String excludeAttributes,
+                            String ifNoneMatch) {
         JSONEncoder encoder = null;
         try {
+            //answer a matching conditional request from the version alone, without loading the user.
+            if (ifNoneMatch != null) {
+                String currentVersion = getUserVersion(id, userManager);
+                if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, currentVersion)) {
+                    return getNotModifiedResponse(currentVersion);
+                }
+            }
+
             //obtain the json encoder
             encoder = getEncoder();
 
@@ -100,15 +130,24 @@ public class UserResourceManager extends AbstractResourceManager {
                 String error = "User not found in the user store.";
                 throw new NotFoundException(error);
             }
+            //the version has to be read before the validation drops attributes which were not requested.
+            String version = ETagUtil.getVersion(user);
+            if (!ETagUtil.isIfNoneMatchSatisfied(ifNoneMatch, version)) {
+                return getNotModifiedResponse(version);
+            }
             //perform service provider side validation.
-            ServerSideValidator.validateRetrievedSCIMObject(user, schema, attributes, excludeAttributes);
-            //convert the user into requested format.
-            String encodedUser = encoder.encodeSCIMObject(user);
+            ServerSideValidator.validateSchemaList(user, schema);
+            //convert the user into requested format, skipping the attributes which are not returned.
+            String encodedUser = encoder.encodeSCIMObject(user,
+                    new AttributeProjection(attributes, excludeAttributes));
             //if there are any http headers to be added in the response header.
             Map<String, String> responseHeaders = new HashMap<String, String>();
             responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
             responseHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                     SCIMConstants.USER_ENDPOINT) + "/" + user.getId());
+            if (version != null) {
+                responseHeaders.put(SCIMConstants.ETAG_HEADER, ETagUtil.toWeakETag(version));
+            }
             return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedUser, responseHeaders);
 
         } catch (NotFoundException e) {
@@ -172,11 +211,9 @@ public class UserResourceManager extends AbstractResourceManager {
                 if (StringUtils.isBlank(createdUser.getId())) {
                     return new SCIMResponse(ResponseCodeConstants.CODE_ACCEPTED, null, null);
                 }
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(createdUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = encoder.encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = encoder.encodeSCIMObject(createdUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 responseHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + createdUser.getId());
@@ -297,7 +334,7 @@ public class UserResourceManager extends AbstractResourceManager {
                         .listUsersWithGET(rootNode, startIndex, count, sortBy, sortOrder, domainName,
                                 requiredAttributes);
 
-                return processUserList(usersGetResponse, encoder, schema, attributes, excludeAttributes, startIndex);
+                return processUserList(usersGetResponse, encoder, attributes, excludeAttributes, startIndex);
             } else {
                 String error = "Provided user manager handler is null.";
                 // Log the error as well.
@@ -351,6 +388,84 @@ public class UserResourceManager extends AbstractResourceManager {
             // Obtain the json encoder.
             JSONEncoder encoder = getEncoder();
 
+            // A count of zero only asks for totalResults, which may be answered without loading any user.
+            if (count != null && count == 0 && userManager != null) {
+                SCIMResponse countResponse = getUserCountResponse(userManager, rootNode, domainName, startIndex,
+                        encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
+
+            // Get the URIs of required attributes which must be given a value
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil
+                    .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes,
+                            excludeAttributes);
+
+            // API user should pass a user manager to UserResourceEndpoint.
+            if (userManager != null) {
+                UsersGetResponse usersGetResponse;
+                try {
+                    usersGetResponse = userManager.listUsersWithGET(rootNode, startIndex, count, sortBy, sortOrder,
+                            domainName, requiredAttributes);
+                } catch (NotImplementedException e) {
+                    usersGetResponse = getUsersOfIdFilter(userManager, rootNode, startIndex, count, sortBy,
+                            domainName, requiredAttributes);
+                    if (usersGetResponse == null) {
+                        throw e;
+                    }
+                }
+                return processUserList(usersGetResponse, encoder, attributes, excludeAttributes, startIndex);
+            } else {
+                String error = "Provided user manager handler is null.";
+                // Log the error as well.
+                // Throw internal server error.
+                throw new InternalErrorException(error);
+            }
+        } catch (CharonException | NotFoundException | InternalErrorException | BadRequestException |
+                NotImplementedException e) {
+            return AbstractResourceManager.encodeSCIMException(e);
+        } catch (IOException e) {
+            String error = "Error in tokenization of the input filter";
+            CharonException charonException = new CharonException(error);
+            return AbstractResourceManager.encodeSCIMException(charonException);
+        }
+    }
+
+    /**
+     * Method to list users at the Users endpoint using cursor pagination. The response carries the nextCursor of the
+     * page that follows, which the client sends back as the cursor to continue the listing.
+     *
+     * @param userManager       User manager
+     * @param filter            Filter to be executed
+     * @param cursor            Cursor of the requested page, an empty string or null for the first page
+     * @param countInt          Number of required results
+     * @param sortBy            SortBy
+     * @param sortOrder         Sorting order
+     * @param domainName        Domain name
+     * @param attributes        Attributes in the request
+     * @param excludeAttributes Exclude attributes
+     * @return SCIM response
+     */
+    @Override
+    public SCIMResponse listWithCursor(UserManager userManager, String filter, String cursor, Integer countInt,
+            String sortBy, String sortOrder, String domainName, String attributes, String excludeAttributes) {
+
+        try {
+            Integer count = ResourceManagerUtil.processCount(countInt);
+
+            // Resolve sorting order.
+            sortOrder = resolveSortOrder(sortOrder, sortBy);
+
+            // Unless configured returns core-user schema or else returns extended user schema).
+            SCIMResourceTypeSchema schema = getSchema(userManager);
+
+            // Build node for filtering.
+            Node rootNode = buildNode(filter, schema);
+
+            // Obtain the json encoder.
+            JSONEncoder encoder = getEncoder();
+
             // Get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil
                     .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes,
@@ -359,9 +474,9 @@ public class UserResourceManager extends AbstractResourceManager {
             // API user should pass a user manager to UserResourceEndpoint.
             if (userManager != null) {
                 UsersGetResponse usersGetResponse = userManager
-                        .listUsersWithGET(rootNode, startIndex, count, sortBy, sortOrder, domainName,
-                                requiredAttributes);
-                return processUserList(usersGetResponse, encoder, schema, attributes, excludeAttributes, startIndex);
+                        .listUsersWithCursor(rootNode, cursor == null ? "" : cursor, count, sortBy, sortOrder,
+                                domainName, requiredAttributes);
+                return processUserList(usersGetResponse, encoder, attributes, excludeAttributes, null);
             } else {
                 String error = "Provided user manager handler is null.";
                 // Log the error as well.
@@ -378,6 +493,53 @@ public class UserResourceManager extends AbstractResourceManager {
         }
     }
 
+    /**
+     * Method to list the users changed since a watermark at the Users endpoint. The response carries the changed
+     * users as its resources, the ids of the deleted users and the watermark to request the following changes with.
+     *
+     * @param userManager       User manager
+     * @param changesSince      Watermark of the previous change listing, an empty string or null to list all users
+     * @param countInt          Maximum number of changes
+     * @param domainName        Domain name
+     * @param attributes        Attributes in the request
+     * @param excludeAttributes Exclude attributes
+     * @return SCIM response
+     */
+    @Override
+    public SCIMResponse listChangesSince(UserManager userManager, String changesSince, Integer countInt,
+            String domainName, String attributes, String excludeAttributes) {
+
+        try {
+            Integer count = ResourceManagerUtil.processCount(countInt);
+
+            // Unless configured returns core-user schema or else returns extended user schema).
+            SCIMResourceTypeSchema schema = getSchema(userManager);
+
+            // Obtain the json encoder.
+            JSONEncoder encoder = getEncoder();
+
+            // Get the URIs of required attributes which must be given a value
+            Map<String, Boolean> requiredAttributes = ResourceManagerUtil
+                    .getOnlyRequiredAttributesURIs((SCIMResourceTypeSchema) CopyUtil.deepCopy(schema), attributes,
+                            excludeAttributes);
+
+            // API user should pass a user manager to UserResourceEndpoint.
+            if (userManager != null) {
+                UsersGetResponse usersGetResponse = userManager.listUsersChangedSince(
+                        changesSince == null ? "" : changesSince, count, domainName, requiredAttributes);
+                return processUserList(usersGetResponse, encoder, attributes, excludeAttributes, null);
+            } else {
+                String error = "Provided user manager handler is null.";
+                // Log the error as well.
+                // Throw internal server error.
+                throw new InternalErrorException(error);
+            }
+        } catch (CharonException | NotFoundException | InternalErrorException | BadRequestException |
+                NotImplementedException e) {
+            return AbstractResourceManager.encodeSCIMException(e);
+        }
+    }
+
     /**
      * Build Node for filtering.
      *
@@ -426,17 +588,16 @@ public class UserResourceManager extends AbstractResourceManager {
      *
      * @param usersGetResponse  Filtered user list and total user count.
      * @param encoder           Json encoder
-     * @param schema            Schema
      * @param attributes        Required attributes
      * @param excludeAttributes Exclude attributes
-     * @param startIndex        Starting index
+     * @param startIndex        Starting index, null if the list is paginated with a cursor or lists changes
      * @return SCIM response
      * @throws NotFoundException
      * @throws CharonException
      * @throws BadRequestException
      */
     private SCIMResponse processUserList(UsersGetResponse usersGetResponse, JSONEncoder encoder,
-            SCIMResourceTypeSchema schema, String attributes, String excludeAttributes, int startIndex)
+            String attributes, String excludeAttributes, Integer startIndex)
             throws NotFoundException, CharonException, BadRequestException {
 
         if (usersGetResponse == null) {
@@ -445,14 +606,11 @@ public class UserResourceManager extends AbstractResourceManager {
         if (usersGetResponse.getUsers() == null) {
             usersGetResponse.setUsers(Collections.emptyList());
         }
-        for (User user : usersGetResponse.getUsers()) {
-            // Perform service provider side validation.
-            ServerSideValidator.validateRetrievedSCIMObjectInList(user, schema, attributes, excludeAttributes);
-        }
         // Create a listed resource object out of the returned users list.
-        ListedResource listedResource = createListedResource(usersGetResponse, startIndex);
-        // Convert the listed resource into specific format.
-        String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+        ListedResource listedResource = toListedResource(usersGetResponse, startIndex);
+        // Convert the listed resource into specific format, skipping the attributes which are not returned.
+        String encodedListedResource = ResourceManagerUtil.encodeListedResource(encoder, listedResource,
+                new AttributeProjection(attributes, excludeAttributes));
         // If there are any http headers to be added in the response header.
         Map<String, String> responseHeaders = new HashMap<String, String>();
         responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
@@ -498,6 +656,16 @@ public class UserResourceManager extends AbstractResourceManager {
                 searchRequest.setSortOder(SCIMConstants.OperationalConstants.ASCENDING);
             }
 
+            //a count of zero only asks for totalResults, which may be answered without loading any user.
+            if (ResourceManagerUtil.isZeroCount(searchRequest.getCountStr()) && searchRequest.getCursor() == null
+                    && searchRequest.getChangesSince() == null && userManager != null) {
+                SCIMResponse countResponse = getUserCountResponse(userManager, searchRequest.getFilter(),
+                        searchRequest.getDomainName(), searchRequest.getStartIndex(), encoder);
+                if (countResponse != null) {
+                    return countResponse;
+                }
+            }
+
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
                     (SCIMResourceTypeSchema)
@@ -506,17 +674,33 @@ public class UserResourceManager extends AbstractResourceManager {
 
             //API user should pass a usermanager usermanager to UserResourceEndpoint.
             if (userManager != null) {
-                UsersGetResponse usersGetResponse = userManager.listUsersWithPost(searchRequest, requiredAttributes);
-                for (User user : usersGetResponse.getUsers()) {
-                    //perform service provider side validation.
-                    ServerSideValidator.validateRetrievedSCIMObjectInList(user, schema,
-                            searchRequest.getAttributesAsString(), searchRequest.getExcludedAttributesAsString());
+                UsersGetResponse usersGetResponse;
+                if (searchRequest.getChangesSince() != null) {
+                    usersGetResponse = userManager.listUsersChangedSince(searchRequest.getChangesSince(),
+                            searchRequest.getCount(), searchRequest.getDomainName(), requiredAttributes);
+                } else if (searchRequest.getCursor() != null) {
+                    usersGetResponse = userManager.listUsersWithCursor(searchRequest.getFilter(),
+                            searchRequest.getCursor(), searchRequest.getCount(), searchRequest.getSortBy(),
+                            searchRequest.getSortOder(), searchRequest.getDomainName(), requiredAttributes);
+                } else {
+                    try {
+                        usersGetResponse = userManager.listUsersWithPost(searchRequest, requiredAttributes);
+                    } catch (NotImplementedException e) {
+                        usersGetResponse = getUsersOfIdFilter(userManager, searchRequest.getFilter(),
+                                searchRequest.getStartIndex(), searchRequest.getCount(), searchRequest.getSortBy(),
+                                searchRequest.getDomainName(), requiredAttributes);
+                        if (usersGetResponse == null) {
+                            throw e;
+                        }
+                    }
                 }
                 //create a listed resource object out of the returned users list.
-                ListedResource listedResource = createListedResource(
-                        usersGetResponse, searchRequest.getStartIndex());
-                //convert the listed resource into specific format.
-                String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+                ListedResource listedResource = toListedResource(usersGetResponse,
+                        searchRequest.getCursor() != null ? null : searchRequest.getStartIndex());
+                //convert the listed resource into specific format, skipping the attributes which are not returned.
+                String encodedListedResource = ResourceManagerUtil.encodeListedResource(encoder, listedResource,
+                        new AttributeProjection(searchRequest.getAttributesAsString(),
+                                searchRequest.getExcludedAttributesAsString()));
                 //if there are any http headers to be added in the response header.
                 Map<String, String> responseHeaders = new HashMap<String, String>();
                 responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
@@ -550,6 +734,47 @@ public class UserResourceManager extends AbstractResourceManager {
      */
     public SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
                                       String attributes, String excludeAttributes) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, null,
+                new ResourceReadMemo());
+    }
+
+    /*
+     * To update the user by giving entire attribute set, provided that the user is still at one of the versions
+     * given in the If-Match header.
+     *
+     * @param existingId
+     * @param scimObjectString
+     * @param usermanager
+     * @param attributes
+     * @param excludeAttributes
+     * @param ifMatch
+     * @return
+     */
+    @Override
+    public SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
+                                      String attributes, String excludeAttributes, String ifMatch) {
+
+        return updateWithPUT(existingId, scimObjectString, userManager, attributes, excludeAttributes, ifMatch,
+                new ResourceReadMemo());
+    }
+
+    /**
+     * Replace the user, reading it through the given memo of the request, so a user the request already read with all
+     * of its attributes is not read again.
+     *
+     * @param existingId        Id of the user.
+     * @param scimObjectString  Replacement user.
+     * @param userManager       SCIM UserManager that handles the persistence layer.
+     * @param attributes        Attributes to return in the response.
+     * @param excludeAttributes Attributes to exclude in the response.
+     * @param ifMatch           Value of the If-Match header, or null.
+     * @param memo              Memo of the reads made while serving the request.
+     * @return SCIM Response.
+     */
+    public SCIMResponse updateWithPUT(String existingId, String scimObjectString, UserManager userManager,
+                                      String attributes, String excludeAttributes, String ifMatch,
+                                      ResourceReadMemo memo) {
         //needs to validate the incoming object. eg: id can not be set by the consumer.
 
         JSONEncoder encoder = null;
@@ -563,6 +788,11 @@ public class UserResourceManager extends AbstractResourceManager {
 
             SCIMResourceTypeSchema schema = getSchema(userManager);
 
+            //a stale conditional request is rejected before the payload is decoded.
+            if (ifMatch != null && userManager != null) {
+                checkIfMatch(existingId, ifMatch, userManager, schema, memo);
+            }
+
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes = ResourceManagerUtil.getOnlyRequiredAttributesURIs(
                     (SCIMResourceTypeSchema)
@@ -573,10 +803,32 @@ public class UserResourceManager extends AbstractResourceManager {
             User updatedUser = null;
             if (userManager != null) {
                 //retrieve the old object
-                User oldUser = userManager.getUser(existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+                User oldUser = memo.getUser(userManager, existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
                 if (oldUser != null) {
+                    //the user may have changed since the precondition was checked on its version alone.
+                    ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldUser));
+                    //the version the old user was read at, which the update is conditional on.
+                    String expectedVersion = oldUser.getVersion();
                     User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, user, schema);
-                    updatedUser = userManager.updateUser(validatedUser, requiredAttributes);
+                    if (ifMatch != null && expectedVersion != null) {
+                        try {
+                            updatedUser = userManager.updateUser(validatedUser, requiredAttributes,
+                                    ResourceManagerUtil.getAllSimpleMultiValuedAttributes(schema), expectedVersion);
+                        } catch (NotImplementedException e) {
+                            logger.debug("Versioned updates are not supported by the user manager. " +
+                                    "Updating unconditionally.");
+                            updatedUser = userManager.updateUser(validatedUser, requiredAttributes);
+                        }
+                    } else {
+                        try {
+                            updatedUser = userManager.updateUser(existingId,
+                                    ChangeSetUtil.getChangeSet(oldUser, validatedUser, schema), requiredAttributes);
+                        } catch (NotImplementedException e) {
+                            updatedUser = userManager.updateUser(validatedUser, requiredAttributes);
+                        }
+                    }
+                    //the user was written, so it can no longer be served from the memo.
+                    memo.forget(SCIMConstants.USER, existingId);
 
                 } else {
                     String error = "No user exists with the given id: " + existingId;
@@ -591,11 +843,9 @@ public class UserResourceManager extends AbstractResourceManager {
             String encodedUser;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (updatedUser != null) {
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(updatedUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = encoder.encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = encoder.encodeSCIMObject(updatedUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + updatedUser.getId());
@@ -611,6 +861,8 @@ public class UserResourceManager extends AbstractResourceManager {
 
         } catch (NotFoundException e) {
             return AbstractResourceManager.encodeSCIMException(e);
+        } catch (PreConditionFailedException e) {
+            return AbstractResourceManager.encodeSCIMException(e);
         } catch (BadRequestException e) {
             return AbstractResourceManager.encodeSCIMException(e);
         } catch (CharonException e) {
@@ -635,70 +887,56 @@ public class UserResourceManager extends AbstractResourceManager {
 
     public SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager,
                                         String attributes, String excludeAttributes) {
+
+        return updateWithPATCH(existingId, scimObjectString, userManager, attributes, excludeAttributes, null);
+    }
+
+    /**
+     * Update the user resource by sequence of operations, provided that the user is still at one of the versions
+     * given in the If-Match header.
+     *
+     * @param existingId
+     * @param scimObjectString
+     * @param userManager
+     * @param attributes
+     * @param excludeAttributes
+     * @param ifMatch
+     * @return
+     */
+    @Override
+    public SCIMResponse updateWithPATCH(String existingId, String scimObjectString, UserManager userManager,
+                                        String attributes, String excludeAttributes, String ifMatch) {
         try {
             if (userManager == null) {
                 String error = "Provided user manager handler is null.";
                 throw new InternalErrorException(error);
             }
+            SCIMResourceTypeSchema schema = getSchema(userManager);
+
+            //a stale conditional request is rejected before the patch request is decoded.
+            ResourceReadMemo memo = new ResourceReadMemo();
+            if (ifMatch != null) {
+                checkIfMatch(existingId, ifMatch, userManager, schema, memo);
+            }
+
             //obtain the json decoder.
             JSONDecoder decoder = getDecoder();
             //decode the SCIM User object, encoded in the submitted payload.
             List<PatchOperation> opList = decoder.decodeRequest(scimObjectString);
 
-            SCIMResourceTypeSchema schema = getSchema(userManager);;
             List<String> allSimpleMultiValuedAttributes = ResourceManagerUtil.getAllSimpleMultiValuedAttributes(schema);
 
             //get the user from the user core
-            User oldUser = userManager.getUser(existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+            User oldUser = memo.getUser(userManager, existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
             if (oldUser == null) {
                 throw new NotFoundException("No user with the id : " + existingId + " in the user store.");
             }
-            //make a copy of the original user
-            User copyOfOldUser = (User) CopyUtil.deepCopy(oldUser);
-            //make another copy of original user.
-            //this will be used to restore to the original condition if failure occurs.
-            User originalUser = (User) CopyUtil.deepCopy(copyOfOldUser);
-
-            User newUser = null;
-
-            for (PatchOperation operation : opList) {
-
-                if (operation.getOperation().equals(SCIMConstants.OperationalConstants.ADD)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchAdd
-                                (operation, getDecoder(), oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchAdd
-                                (operation, getDecoder(), newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    }
-                } else if (operation.getOperation().equals(SCIMConstants.OperationalConstants.REMOVE)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchRemove(operation, oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchRemove(operation, newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-                    }
-                } else if (operation.getOperation().equals(SCIMConstants.OperationalConstants.REPLACE)) {
-                    if (newUser == null) {
-                        newUser = (User) PatchOperationUtil.doPatchReplace
-                                (operation, getDecoder(), oldUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-
-                    } else {
-                        newUser = (User) PatchOperationUtil.doPatchReplace
-                                (operation, getDecoder(), newUser, copyOfOldUser, schema);
-                        copyOfOldUser = (User) CopyUtil.deepCopy(newUser);
-                    }
-                } else {
-                    throw new BadRequestException("Unknown operation.", ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            }
+            //the user may have changed since the precondition was checked on its version alone.
+            ETagUtil.checkIfMatch(ifMatch, ETagUtil.getVersion(oldUser));
+            String expectedVersion = oldUser.getVersion();
+            //apply the operations to a copy of the user, the original is kept to validate the patched user against.
+            opList = PatchOperationCoalescer.coalesce(opList, schema);
+            User newUser = (User) PatchOperationUtil.doPatchOperations(opList, getDecoder(), oldUser, schema);
 
             //get the URIs of required attributes which must be given a value
             Map<String, Boolean> requiredAttributes =
@@ -706,23 +944,23 @@ public class UserResourceManager extends AbstractResourceManager {
                             CopyUtil.deepCopy(schema), attributes, excludeAttributes);
 
 
-            User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject
-                    (originalUser, newUser, schema);
-            try {
-                newUser = userManager.updateUser(validatedUser, requiredAttributes, allSimpleMultiValuedAttributes);
-            } catch (NotImplementedException e) {
-                newUser = userManager.updateUser(validatedUser, requiredAttributes);
+            User validatedUser = (User) ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser, schema,
+                    PatchOperationUtil.getModifiedAttributeNames(opList, decoder, schema));
+            if (ifMatch != null && expectedVersion != null) {
+                newUser = updateUserIfVersionMatches(userManager, validatedUser, requiredAttributes,
+                        allSimpleMultiValuedAttributes, expectedVersion);
+            } else {
+                newUser = updateUserByChangeSet(userManager, oldUser, validatedUser, schema, requiredAttributes,
+                        allSimpleMultiValuedAttributes);
             }
 
             //encode the newly created SCIM user object and add id attribute to Location header.
             String encodedUser;
             Map<String, String> httpHeaders = new HashMap<String, String>();
             if (newUser != null) {
-                //create a deep copy of the user object since we are going to change it.
-                User copiedUser = (User) CopyUtil.deepCopy(newUser);
-                //need to remove password before returning
-                ServerSideValidator.validateReturnedAttributes(copiedUser, attributes, excludeAttributes);
-                encodedUser = getEncoder().encodeSCIMObject(copiedUser);
+                //the attributes which are not returned, such as the password, are skipped while encoding.
+                encodedUser = getEncoder().encodeSCIMObject(newUser,
+                        new AttributeProjection(attributes, excludeAttributes));
                 //add location header
                 httpHeaders.put(SCIMConstants.LOCATION_HEADER, getResourceEndpointURL(
                         SCIMConstants.USER_ENDPOINT) + "/" + newUser.getId());
@@ -736,6 +974,8 @@ public class UserResourceManager extends AbstractResourceManager {
             return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedUser, httpHeaders);
         } catch (NotFoundException e) {
             return AbstractResourceManager.encodeSCIMException(e);
+        } catch (PreConditionFailedException e) {
+            return AbstractResourceManager.encodeSCIMException(e);
         } catch (BadRequestException e) {
             return AbstractResourceManager.encodeSCIMException(e);
         } catch (NotImplementedException e) {
@@ -767,12 +1007,189 @@ public class UserResourceManager extends AbstractResourceManager {
         listedResource.setStartIndex(startIndex);
         listedResource.setItemsPerPage(usersGetResponse.getUsers().size());
         for (User user : usersGetResponse.getUsers()) {
-            Map<String, Attribute> userAttributes = user.getAttributeList();
-            listedResource.setResources(userAttributes);
+            listedResource.addResource(user);
+        }
+        return listedResource;
+    }
+
+    /*
+     * Creates the listed resource of a cursor paginated user list. It carries the nextCursor instead of a
+     * startIndex, and no nextCursor at all on the last page.
+     *
+     * @param usersGetResponse
+     * @return
+     */
+    protected ListedResource createCursorListedResource(UsersGetResponse usersGetResponse) {
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(usersGetResponse.getTotalUsers());
+        listedResource.setItemsPerPage(usersGetResponse.getUsers().size());
+        if (usersGetResponse.getNextCursor() != null) {
+            listedResource.setNextCursor(usersGetResponse.getNextCursor());
+        }
+        for (User user : usersGetResponse.getUsers()) {
+            listedResource.addResource(user);
         }
         return listedResource;
     }
 
+    /*
+     * Creates the listed resource of a change listing. It carries the watermark to request the following changes
+     * with and the ids of the deleted users, and no startIndex.
+     *
+     * @param usersGetResponse
+     * @return
+     */
+    protected ListedResource createChangesListedResource(UsersGetResponse usersGetResponse) {
+        ListedResource listedResource = createCursorListedResource(usersGetResponse);
+        listedResource.setWatermark(usersGetResponse.getWatermark());
+        if (usersGetResponse.getDeletedUserIds() != null && !usersGetResponse.getDeletedUserIds().isEmpty()) {
+            listedResource.setDeletedIds(usersGetResponse.getDeletedUserIds());
+        }
+        return listedResource;
+    }
+
+    /*
+     * Picks the listed resource matching the kind of the listing: a change listing carries a watermark, and a cursor
+     * paginated one has no start index.
+     */
+    private ListedResource toListedResource(UsersGetResponse usersGetResponse, Integer startIndex)
+            throws CharonException, NotFoundException {
+        if (usersGetResponse.getWatermark() != null) {
+            return createChangesListedResource(usersGetResponse);
+        } else if (startIndex == null) {
+            return createCursorListedResource(usersGetResponse);
+        }
+        return createListedResource(usersGetResponse, startIndex);
+    }
+
+    /*
+     * Answers a list request with a count of zero from the user count of the user manager, without loading any
+     * user. Returns null if the user manager can not count users.
+     */
+    private SCIMResponse getUserCountResponse(UserManager userManager, Node rootNode, String domainName,
+                                              int startIndex, JSONEncoder encoder)
+            throws CharonException, NotFoundException, BadRequestException {
+
+        int totalUsers;
+        try {
+            totalUsers = userManager.countUsers(rootNode, domainName);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+        ListedResource listedResource = createListedResource(
+                new UsersGetResponse(totalUsers, Collections.emptyList()), startIndex);
+        String encodedListedResource = encoder.encodeSCIMObject(listedResource);
+        Map<String, String> responseHeaders = new HashMap<String, String>();
+        responseHeaders.put(SCIMConstants.CONTENT_TYPE_HEADER, SCIMConstants.APPLICATION_JSON);
+        return new SCIMResponse(ResponseCodeConstants.CODE_OK, encodedListedResource, responseHeaders);
+    }
+
+    /*
+     * Answers a filter that only matches ids by looking the users up by id, in the order of the filter, for a user
+     * manager which can not list the users of a filter. Returns null if the filter matches anything but ids, or the
+     * users are to be sorted or taken from a domain.
+     */
+    private UsersGetResponse getUsersOfIdFilter(UserManager userManager, Node rootNode, Integer startIndex,
+                                                Integer count, String sortBy, String domainName,
+                                                Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException {
+
+        List<String> ids = sortBy == null && domainName == null ?
+                ResourceReferenceUtil.getIdsOfIdFilter(rootNode) : null;
+        if (ids == null) {
+            return null;
+        }
+        Map<String, User> usersById = ResourceReferenceUtil.getUsersByIds(userManager, ids, requiredAttributes);
+        List<User> users = new ArrayList<>();
+        for (String id : ids) {
+            if (usersById.containsKey(id)) {
+                users.add(usersById.get(id));
+            }
+        }
+        int from = Math.min(startIndex - 1, users.size());
+        int to = count == null ? users.size() : Math.min(from + count, users.size());
+        return new UsersGetResponse(users.size(), new ArrayList<>(users.subList(from, to)));
+    }
+
+    /*
+     * Evaluate the If-Match precondition of a conditional update on the version of the user. The user is read in full,
+     * through the memo of the request, only if the user manager cannot provide the version alone.
+     */
+    private void checkIfMatch(String existingId, String ifMatch, UserManager userManager,
+                              SCIMResourceTypeSchema schema, ResourceReadMemo memo)
+            throws CharonException, BadRequestException, NotFoundException, PreConditionFailedException {
+
+        String currentVersion;
+        try {
+            currentVersion = userManager.getUserVersion(existingId);
+        } catch (NotImplementedException e) {
+            User oldUser = memo.getUser(userManager, existingId, ResourceManagerUtil.getAllAttributeURIs(schema));
+            if (oldUser == null) {
+                throw new NotFoundException("No user with the id : " + existingId + " in the user store.");
+            }
+            currentVersion = ETagUtil.getVersion(oldUser);
+        }
+        ETagUtil.checkIfMatch(ifMatch, currentVersion);
+    }
+
+    /*
+     * Retrieve only the version of the user, if the user manager supports it.
+     */
+    private String getUserVersion(String id, UserManager userManager)
+            throws CharonException, NotFoundException, BadRequestException {
+
+        try {
+            return userManager.getUserVersion(id);
+        } catch (NotImplementedException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Write the patched user back only if the stored user is still at the version the precondition was evaluated
+     * against. User stores without versioned updates get a plain update, as the precondition was already checked on
+     * read. That leaves a window between the check and the write in which a concurrent update is lost, which is the
+     * weaker guarantee documented on the conditional update methods of ResourceManager.
+     */
+    private User updateUserIfVersionMatches(UserManager userManager, User user, Map<String, Boolean>
+            requiredAttributes, List<String> allSimpleMultiValuedAttributes, String expectedVersion)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException,
+            PreConditionFailedException {
+
+        try {
+            return userManager.updateUser(user, requiredAttributes, allSimpleMultiValuedAttributes, expectedVersion);
+        } catch (NotImplementedException e) {
+            logger.debug("Versioned updates are not supported by the user manager. Updating unconditionally.");
+        }
+        try {
+            return userManager.updateUser(user, requiredAttributes, allSimpleMultiValuedAttributes);
+        } catch (NotImplementedException e) {
+            return userManager.updateUser(user, requiredAttributes);
+        }
+    }
+
+    /*
+     * Hand the user store only the changes the request makes to the user. User stores that can only update whole
+     * users get the validated user.
+     */
+    private User updateUserByChangeSet(UserManager userManager, User oldUser, User user, SCIMResourceTypeSchema
+            schema, Map<String, Boolean> requiredAttributes, List<String> allSimpleMultiValuedAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        try {
+            return userManager.updateUser(user.getId(), ChangeSetUtil.getChangeSet(oldUser, user, schema),
+                    requiredAttributes);
+        } catch (NotImplementedException e) {
+            logger.debug("Change set updates are not supported by the user manager. Updating the whole user.");
+        }
+        try {
+            return userManager.updateUser(user, requiredAttributes, allSimpleMultiValuedAttributes);
+        } catch (NotImplementedException e) {
+            return userManager.updateUser(user, requiredAttributes);
+        }
+    }
+
     private SCIMResourceTypeSchema getSchema(UserManager userManager) throws BadRequestException,
             NotImplementedException, CharonException {
 
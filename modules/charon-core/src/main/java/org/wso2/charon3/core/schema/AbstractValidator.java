@@ -57,11 +57,30 @@ public abstract class AbstractValidator {
     public static void validateSCIMObjectForRequiredAttributes(AbstractSCIMObject scimObject,
                                                                ResourceTypeSchema resourceSchema)
             throws BadRequestException, CharonException {
-        //get attributes from schema.
-        List<AttributeSchema> attributeSchemaList = resourceSchema.getAttributesList();
+
+        validateSCIMObjectForRequiredAttributes(scimObject, resourceSchema, null);
+    }
+
+    /**
+     * Validate the given attributes of the SCIM object for required attributes.
+     *
+     * @param scimObject     Scim object.
+     * @param resourceSchema Schema for the scim resource.
+     * @param attributeNames Names of the top level attributes to validate, null to validate all of them.
+     * @throws BadRequestException When a required attribute is missing.
+     * @throws CharonException     When error occurred during the validation.
+     */
+    public static void validateSCIMObjectForRequiredAttributes(AbstractSCIMObject scimObject,
+                                                               ResourceTypeSchema resourceSchema,
+                                                               Set<String> attributeNames)
+            throws BadRequestException, CharonException {
         //get attribute list from scim object.
         Map<String, Attribute> attributeList = scimObject.getAttributeList();
-        for (AttributeSchema attributeSchema : attributeSchemaList) {
+        //check the attributes of the schema which are required or have sub attributes.
+        for (AttributeSchema attributeSchema : ValidationPlan.of(resourceSchema).getRequiredAttributeRules()) {
+            if (attributeNames != null && !attributeNames.contains(attributeSchema.getName())) {
+                continue;
+            }
             //check for required attributes.
             if (attributeSchema.getRequired()) {
                 if (!attributeList.containsKey(attributeSchema.getName())) {
@@ -91,13 +110,12 @@ public abstract class AbstractValidator {
                                                                          ResourceTypeSchema resourceSchema)
             throws BadRequestException, CharonException {
 
-        // Get attributes from schema.
-        List<AttributeSchema> attributeSchemaList = resourceSchema.getAttributesList();
         // Get attribute list from old scim object.
         Map<String, Attribute> oldAttributeList = oldObject.getAttributeList();
         // Get attribute list from new scim object.
         Map<String, Attribute> newAttributeList = newObject.getAttributeList();
-        for (AttributeSchema attributeSchema : attributeSchemaList) {
+        // Only the attributes that are required, or have sub attributes that may be, have a rule to check.
+        for (AttributeSchema attributeSchema : ValidationPlan.of(resourceSchema).getRequiredAttributeRules()) {
             // Check for required attributes.
             if (attributeSchema.getRequired()) {
                 /*
@@ -340,11 +358,10 @@ public abstract class AbstractValidator {
                                                    SCIMResourceTypeSchema resourceSchema) throws CharonException {
         //No need to check for immutable as immutable attributes can be defined at resource creation
 
-        //get attributes from schema.
-        List<AttributeSchema> attributeSchemaList = resourceSchema.getAttributesList();
         //get attribute list from scim object.
         Map<String, Attribute> attributeList = scimObject.getAttributeList();
-        for (AttributeSchema attributeSchema : attributeSchemaList) {
+        //check the attributes of the schema which are read only or have sub attributes.
+        for (AttributeSchema attributeSchema : ValidationPlan.of(resourceSchema).getReadOnlyRules()) {
             //check for read-only attributes.
             if (attributeSchema.getMutability() == SCIMDefinitions.Mutability.READ_ONLY) {
                 if (attributeList.containsKey(attributeSchema.getName())) {
@@ -427,60 +444,31 @@ public abstract class AbstractValidator {
      */
     public static void validateReturnedAttributes(AbstractSCIMObject scimObject, String requestedAttributes,
                                                   String requestedExcludingAttributes) throws CharonException {
-        List<String> requestedAttributesList = null;
-        List<String> requestedExcludingAttributesList = null;
 
-        if (requestedAttributes != null) {
-            //make a list from the comma separated requestedAttributes
-            requestedAttributesList = Arrays.asList(requestedAttributes.split(","));
-        }
-        if (requestedExcludingAttributes != null) {
-            //make a list from the comma separated requestedExcludingAttributes
-            requestedExcludingAttributesList = Arrays.asList(requestedExcludingAttributes.split(","));
-        }
+        validateReturnedAttributes(scimObject, new AttributeProjection(requestedAttributes,
+                requestedExcludingAttributes));
+    }
+
+    /*
+     * This method is to remove the attributes which are not returned by the given projection.
+     *
+     * @param scimObject
+     * @param projection
+     * @throws CharonException
+     */
+    public static void validateReturnedAttributes(AbstractSCIMObject scimObject, AttributeProjection projection)
+            throws CharonException {
+
         Map<String, Attribute> attributeList = scimObject.getAttributeList();
         ArrayList<Attribute> attributeTemporyList = new ArrayList<Attribute>();
         for (Attribute attribute : attributeList.values()) {
             attributeTemporyList.add(attribute);
         }
         for (Attribute attribute : attributeTemporyList) {
-            //check for never/request attributes.
-            if (attribute.getReturned().equals(SCIMDefinitions.Returned.NEVER)) {
+            //check for never/request attributes and the requested and excluded ones.
+            if (!projection.isReturned(attribute)) {
                 scimObject.deleteAttribute(attribute.getName());
             }
-            //if the returned property is request, need to check whether is it specifically requested by the user.
-            // If so return it.
-            if (requestedAttributes == null && requestedExcludingAttributes == null) {
-                if (attribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                    scimObject.deleteAttribute(attribute.getName());
-                }
-            } else {
-                //A request should only contains either attributes or exclude attribute params. Not both
-                if (requestedAttributes != null) {
-                    //if attributes are set, delete all the request and default attributes
-                    //and add only the requested attributes
-                    if ((attribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT)
-                            || attribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST))
-                            && (requestedAttributesList.stream().noneMatch(attribute.getName()::equalsIgnoreCase)
-                            && !isSubAttributeExistsInList(requestedAttributesList, attribute))) {
-                        scimObject.deleteAttribute(attribute.getName());
-                    }
-                } else if (requestedExcludingAttributes != null) {
-                    //removing attributes which has returned as request. This is because no request is made
-                    if (attribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                        scimObject.deleteAttribute(attribute.getName());
-                    }
-                    //if exclude attribute is set, set of exclude attributes need to be
-                    // removed from the default set of attributes
-                    if ((attribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT))
-                            && requestedExcludingAttributesList.
-                            stream().anyMatch(attribute.getName()::equalsIgnoreCase)) {
-                        scimObject.deleteAttribute(attribute.getName());
-                    }
-                }
-            }
-            // If the Returned type ALWAYS : no need to check and it will be not affected by
-            // requestedExcludingAttributes parameter
 
             //check the same for sub attributes
             if (attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
@@ -497,9 +485,10 @@ public abstract class AbstractValidator {
                             valuesSubAttributeTemporyList.add(subSimpleAttribute);
                         }
                         for (Attribute subSimpleAttribute : valuesSubAttributeTemporyList) {
-                            removeValuesSubAttributeOnReturn(subSimpleAttribute, subAttribute, attribute,
-                                    requestedAttributes, requestedExcludingAttributes, requestedAttributesList,
-                                    requestedExcludingAttributesList, scimObject);
+                            if (!projection.isValueReturned(attribute, subSimpleAttribute)) {
+                                scimObject.deleteValuesSubAttribute(attribute.getName(),
+                                        subAttribute.getName(), subSimpleAttribute.getName());
+                            }
                         }
                     }
                 } else {
@@ -525,10 +514,12 @@ public abstract class AbstractValidator {
                                         valuesSubSubAttributeTemporyList.add(subSubSimpleAttribute);
                                     }
                                     for (Attribute subSubSimpleAttribute : valuesSubSubAttributeTemporyList) {
-                                        removeValuesSubSubAttributeOnReturn(attribute, subAttribute, subSubValue,
-                                                subSubSimpleAttribute,
-                                                requestedAttributes, requestedExcludingAttributes,
-                                                requestedAttributesList, requestedExcludingAttributesList, scimObject);
+                                        if (!projection.isValueReturned(attribute, subAttribute,
+                                                subSubSimpleAttribute)) {
+                                            scimObject.deleteSubValuesSubAttribute(attribute.getName(),
+                                                    subAttribute.getName(), subSubValue.getName(),
+                                                    subSubSimpleAttribute.getName());
+                                        }
                                     }
                                 }
                             } else {
@@ -539,400 +530,65 @@ public abstract class AbstractValidator {
                                     subSubAttributeTemporyList.add(subSubAttribute);
                                 }
                                 for (Attribute subSubAttribute : subSubAttributeTemporyList) {
-                                    removeSubSubAttributesOnReturn(attribute, subAttribute, subSubAttribute,
-                                            requestedAttributes, requestedExcludingAttributes,
-                                            requestedAttributesList, requestedExcludingAttributesList, scimObject);
+                                    if (!projection.isReturned(attribute, subAttribute, subSubAttribute)) {
+                                        scimObject.deleteSubSubAttribute(subSubAttribute.getName(),
+                                                subAttribute.getName(), attribute.getName());
+                                    }
                                 }
                             }
-                            removeSubAttributesOnReturn(subAttribute, attribute, requestedAttributes,
-                                    requestedExcludingAttributes,
-                                    requestedAttributesList, requestedExcludingAttributesList, scimObject);
-                        } else {
-                            removeSubAttributesOnReturn(subAttribute, attribute, requestedAttributes,
-                                    requestedExcludingAttributes,
-                                    requestedAttributesList, requestedExcludingAttributesList, scimObject);
-                        }
-                    }
-                }
-            }
-        }
-    }
-
-    /*
-     * This method is to remove any defined and requested sub attributes and include requested sub attributes
-     * from complex attributes.
-     *
-     * @param subAttribute
-     * @param attribute
-     * @param requestedAttributes
-     * @param requestedExcludingAttributes
-     * @param requestedAttributesList
-     * @param requestedExcludingAttributesList
-     * @param scimObject
-     */
-
-    private static void removeSubAttributesOnReturn(Attribute subAttribute, Attribute attribute, String
-            requestedAttributes,
-                                                    String requestedExcludingAttributes, List<String>
-                                                            requestedAttributesList,
-                                                    List<String> requestedExcludingAttributesList, AbstractSCIMObject
-                                                            scimObject) {
-        //check for never/request attributes.
-        if (subAttribute.getReturned().equals(SCIMDefinitions.Returned.NEVER)) {
-            scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
-        }
-        //if the returned property is request, need to check whether is it specifically requested by the user.
-        // If so return it.
-        if (requestedAttributes == null && requestedExcludingAttributes == null) {
-            if (subAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
-            }
-        } else {
-            //A request should only contains either attributes or exclude attribute params. Not the both
-            if (requestedAttributes != null) {
-                //if attributes are set, delete all the request and default attributes
-                // and add only the requested attributes
-                if ((subAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT)
-                        || subAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST))
-                        && (requestedAttributesList.stream().noneMatch((attribute.getName() + "."
-                        + subAttribute.getName())::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch(attribute.getName()::equalsIgnoreCase) &&
-                        !isSubSubAttributeExistsInList(requestedAttributesList, attribute, subAttribute))) {
-                    scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
-                }
-            } else if (requestedExcludingAttributes != null) {
-                //removing attributes which has returned as request. This is because no request is made
-                if (subAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                    scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
-                }
-                //if exclude attribute is set, set of exclude attributes need to be
-                // removed from the default set of attributes
-                if ((subAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT))
-                        && requestedExcludingAttributesList.stream().anyMatch((attribute.getName() + "."
-                        + subAttribute.getName())::equalsIgnoreCase)) {
-                    scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
-                }
-            }
-        }
-    }
-
-    /*
-     * This method is to remove any defined and requested sub attributes and include requested sub attributes
-     * from complex attributes.
-     * <p>
-     * This is applicable for extension schema only
-     *
-     * @param attribute
-     * @param subAttribute
-     * @param subSubAttribute
-     * @param requestedAttributes
-     * @param requestedExcludingAttributes
-     * @param requestedAttributesList
-     * @param requestedExcludingAttributesList
-     * @param scimObject
-     * @throws CharonException
-     */
-    private static void removeSubSubAttributesOnReturn(Attribute attribute, Attribute subAttribute, Attribute
-            subSubAttribute, String requestedAttributes,
-                                                       String requestedExcludingAttributes, List<String>
-                                                               requestedAttributesList,
-                                                       List<String> requestedExcludingAttributesList,
-                                                       AbstractSCIMObject scimObject) throws CharonException {
-        //check for never/request attributes.
-        if (subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.NEVER)) {
-            scimObject.deleteSubSubAttribute(subSubAttribute.getName(), subAttribute.getName(), attribute.getName());
-        }
-        //if the returned property is request, need to check whether is it specifically requested by the user.
-        // If so return it.
-        if (requestedAttributes == null && requestedExcludingAttributes == null) {
-            if (subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                scimObject.deleteSubSubAttribute(subSubAttribute.getName(), subAttribute.getName(), attribute.getName
-                        ());
-            }
-        } else {
-            //A request should only contains either attributes or exclude attribute params. Not the both
-            if (requestedAttributes != null) {
-                //if attributes are set, delete all the request and default attributes
-                // and add only the requested attributes
-                if ((subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT)
-                        || subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST))
-                        && (requestedAttributesList.stream().noneMatch((attribute.getName() + "."
-                        + subAttribute.getName() + "." + subSubAttribute.getName())::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch(attribute.getName()::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch((attribute.getName() + "." + subAttribute.getName())
-                                ::equalsIgnoreCase) &&
-                        !subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.ALWAYS))) {
-                    scimObject.deleteSubSubAttribute(subSubAttribute.getName(), subAttribute.getName(), attribute
-                            .getName());
-                }
-            } else if (requestedExcludingAttributes != null) {
-                //removing attributes which has returned as request. This is because no request is made
-                if (subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                    scimObject.deleteSubSubAttribute(subSubAttribute.getName(), subAttribute.getName(), attribute
-                            .getName());
-                }
-                //if exclude attribute is set, set of exclude attributes need to be
-                // removed from the default set of attributes
-                if ((subSubAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT))
-                        && requestedExcludingAttributesList.stream().anyMatch((attribute.getName() + "."
-                        + subAttribute.getName() + "." + subSubAttribute.getName())::equalsIgnoreCase)) {
-                    scimObject.deleteSubSubAttribute(subSubAttribute.getName(), subAttribute.getName(), attribute
-                            .getName());
-                }
-            }
-        }
-    }
-
-
-    /*
-     * This method is to remove any defined and requested sub attributes and include requested sub attributes
-     * from multivalued attributes
-     *
-     * @param subSimpleAttribute
-     * @param subAttribute
-     * @param attribute
-     * @param requestedAttributes
-     * @param requestedExcludingAttributes
-     * @param requestedAttributesList
-     * @param requestedExcludingAttributesList
-     * @param scimObject
-     */
-    private static void removeValuesSubAttributeOnReturn(Attribute subSimpleAttribute, Attribute subAttribute,
-                                                         Attribute attribute, String requestedAttributes,
-                                                         String requestedExcludingAttributes,
-                                                         List<String> requestedAttributesList,
-                                                         List<String> requestedExcludingAttributesList,
-                                                         AbstractSCIMObject scimObject) {
-        if (subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.NEVER)) {
-            scimObject.deleteValuesSubAttribute(attribute.getName(),
-                    subAttribute.getName(), subSimpleAttribute.getName());
-        }
-        if (requestedAttributes == null && requestedExcludingAttributes == null) {
-            if (attribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                scimObject.deleteValuesSubAttribute(attribute.getName(),
-                        subAttribute.getName(), subSimpleAttribute.getName());
-            }
-        } else {
-            //A request should only contains either attributes or exclude attribute params. Not the both
-            if (requestedAttributes != null) {
-                //if attributes are set, delete all the request and default attributes
-                // and add only the requested attributes
-                if ((subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT)
-                        || subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST))
-                        && (requestedAttributesList.stream().noneMatch((attribute.getName() + "."
-                        + subSimpleAttribute.getName())::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch(attribute.getName()::equalsIgnoreCase) &&
-                        !isSubSubAttributeExistsInList(requestedAttributesList, attribute, subSimpleAttribute))) {
-                    scimObject.deleteValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subSimpleAttribute.getName());
-                }
-            } else if (requestedExcludingAttributes != null) {
-                //removing attributes which has returned as request. This is because no request is made
-                if (subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                    scimObject.deleteValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subSimpleAttribute.getName());
-                }
-                //if exclude attribute is set, set of exclude attributes need to be
-                // removed from the default set of attributes
-                if ((subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT))
-                        && requestedExcludingAttributesList.stream().anyMatch((attribute.getName() + "."
-                        + subSimpleAttribute.getName())::equalsIgnoreCase)) {
-                    scimObject.deleteValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subSimpleAttribute.getName());
-                }
-            }
-        }
-
-
-    }
-
-    /*
-     * This method is to remove any defined and requested sub attributes and include requested sub attributes
-     * from multivalued attributes
-     * <p>
-     * This is only applicable for extension schema
-     *
-     * @param attribute
-     * @param subAttribute
-     * @param subValue
-     * @param subSimpleAttribute
-     * @param requestedAttributes
-     * @param requestedExcludingAttributes
-     * @param requestedAttributesList
-     * @param requestedExcludingAttributesList
-     * @param scimObject
-     */
-    private static void removeValuesSubSubAttributeOnReturn(Attribute attribute, Attribute subAttribute, Attribute
-            subValue,
-                                                            Attribute subSimpleAttribute,
-                                                            String requestedAttributes, String
-                                                                    requestedExcludingAttributes,
-                                                            List<String> requestedAttributesList,
-                                                            List<String> requestedExcludingAttributesList,
-                                                            AbstractSCIMObject scimObject) {
-
-
-        if (subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.NEVER)) {
-            scimObject.deleteSubValuesSubAttribute(attribute.getName(),
-                    subAttribute.getName(), subValue.getName(), subSimpleAttribute.getName());
-        }
-        if (requestedAttributes == null && requestedExcludingAttributes == null) {
-            if (attribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                scimObject.deleteSubValuesSubAttribute(attribute.getName(),
-                        subAttribute.getName(), subValue.getName(), subSimpleAttribute.getName());
-            }
-        } else {
-            //A request should only contains either attributes or exclude attribute params. Not the both
-            if (requestedAttributes != null) {
-                //if attributes are set, delete all the request and default attributes
-                // and add only the requested attributes
-                if ((subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT)
-                        || subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST))
-                        && (requestedAttributesList.stream().noneMatch((attribute.getName() + "."
-                        + subAttribute.getName() + "." + subSimpleAttribute.getName())::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch(attribute.getName()::equalsIgnoreCase) &&
-                        requestedAttributesList.stream().noneMatch((attribute.getName() + "."
-                                + subAttribute.getName())::equalsIgnoreCase))) {
-                    scimObject.deleteSubValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subValue.getName(), subSimpleAttribute.getName());
-                }
-            } else if (requestedExcludingAttributes != null) {
-                //removing attributes which has returned as request. This is because no request is made
-                if (subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.REQUEST)) {
-                    scimObject.deleteSubValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subValue.getName(), subSimpleAttribute.getName());
-                }
-                //if exclude attribute is set, set of exclude attributes need to be
-                // removed from the default set of attributes
-                if ((subSimpleAttribute.getReturned().equals(SCIMDefinitions.Returned.DEFAULT))
-                        && requestedExcludingAttributesList.stream().anyMatch((attribute.getName() + "."
-                        + subAttribute.getName() + "." + subSimpleAttribute.getName())::equalsIgnoreCase)) {
-                    scimObject.deleteSubValuesSubAttribute(attribute.getName(),
-                            subAttribute.getName(), subValue.getName(), subSimpleAttribute.getName());
-                }
-            }
-        }
-    }
-
-    /*
-     * This checks whether, within the 'requestedAttributes', is there a sub attribute of the 'attribute'.
-     * If so we should not delete the 'attribute'
-     *
-     * @param requestedAttributes
-     * @param attribute
-     * @return boolean
-     */
-    private static boolean isSubAttributeExistsInList(List<String> requestedAttributes, Attribute attribute) {
-        List<Attribute> subAttributes = null;
-        if (attribute instanceof MultiValuedAttribute) {
-            subAttributes =
-                    (List<Attribute>) ((MultiValuedAttribute) attribute).getAttributeValues();
-            if (subAttributes != null) {
-                for (Attribute subAttribute : subAttributes) {
-                    ArrayList<Attribute> subSimpleAttributes = new ArrayList<Attribute>((
-                            (ComplexAttribute) subAttribute).getSubAttributesList().values());
-                    for (Attribute subSimpleAttribute : subSimpleAttributes) {
-                        if (requestedAttributes.stream().anyMatch((attribute.getName() + "."
-                                + subSimpleAttribute.getName())::equalsIgnoreCase)) {
-                            return true;
                         }
-                    }
-                    //this case is only valid for extension schema
-                    if (subAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                        boolean isSubSubAttributeExists = isSubSubAttributeExistsInList(requestedAttributes,
-                                attribute, subAttribute);
-                        if (isSubSubAttributeExists) {
-                            return true;
+                        if (!projection.isReturned(attribute, subAttribute)) {
+                            scimObject.deleteSubAttribute(attribute.getName(), subAttribute.getName());
                         }
                     }
                 }
             }
-        } else if (attribute instanceof ComplexAttribute) {
-            //complex attributes have sub attribute map, hence need conversion to arraylist
-            subAttributes = new ArrayList<Attribute>
-                    (((Map) (((ComplexAttribute) attribute).getSubAttributesList())).values());
-                for (Attribute subAttribute : subAttributes) {
-                    if (requestedAttributes.stream().anyMatch((attribute.getName() + "."
-                            + subAttribute.getName())::equalsIgnoreCase)) {
-                        return true;
-                    }
-                    //this case is only valid for extension schema
-                    if (subAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                        boolean isSubSubAttributeExists = isSubSubAttributeExistsInList(requestedAttributes,
-                                attribute, subAttribute);
-                        if (isSubSubAttributeExists) {
-                            return true;
-                        }
-                    }
-                }
         }
-        return false;
     }
 
     /*
-     * This checks whether, within the 'requestedAttributes', is there a sub attribute of the 'subAttribute'.
-     * If so we should not delete the 'attribute'
-     * This case is only applicable for extension
+     * check for read only and immutable attributes which has been modified on update request
      *
-     * @param requestedAttributes
-     * @param grandParentAttribute
-     * @param parentAttribute
+     * @param oldObject
+     * @param newObject
+     * @param resourceSchema
      * @return
+     * @throws BadRequestException
+     * @throws CharonException
      */
-    private static boolean isSubSubAttributeExistsInList(List<String> requestedAttributes,
-                                                         Attribute grandParentAttribute, Attribute parentAttribute) {
-        List<Attribute> subAttributes = null;
-        if (parentAttribute instanceof MultiValuedAttribute) {
-            subAttributes = (List<Attribute>)
-                    ((MultiValuedAttribute) parentAttribute).getAttributeValues();
-            if (subAttributes != null) {
-                for (Attribute subAttribute : subAttributes) {
-                    ArrayList<Attribute> subSimpleAttributes = new ArrayList<Attribute>((
-                            (ComplexAttribute) subAttribute).getSubAttributesList().values());
-                    for (Attribute subSimpleAttribute : subSimpleAttributes) {
-                        if (requestedAttributes.stream().anyMatch((grandParentAttribute.getName() + "."
-                                + parentAttribute.getName() + "." + subSimpleAttribute.getName())::equalsIgnoreCase)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        } else if (parentAttribute instanceof ComplexAttribute) {
-            //complex attributes have sub attribute map, hence need conversion to arraylist
-            subAttributes = new ArrayList<Attribute>
-                    (((Map) (((ComplexAttribute) parentAttribute).getSubAttributesList())).values());
-            for (Attribute subAttribute : subAttributes) {
-                if (requestedAttributes.stream().anyMatch((grandParentAttribute.getName() + "."
-                        + parentAttribute.getName() + "." + subAttribute.getName())::equalsIgnoreCase)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    protected static AbstractSCIMObject checkIfReadOnlyAndImmutableAttributesModified(
+            AbstractSCIMObject oldObject, AbstractSCIMObject newObject, SCIMResourceTypeSchema resourceSchema)
+            throws BadRequestException, CharonException {
+
+        return checkIfReadOnlyAndImmutableAttributesModified(oldObject, newObject, resourceSchema, null);
     }
 
     /*
-     * check for read only and immutable attributes which has been modified on update request
+     * check for read only and immutable attributes among the given attributes, which has been modified on update
+     * request
      *
      * @param oldObject
      * @param newObject
      * @param resourceSchema
+     * @param attributeNames names of the top level attributes to check, null to check all of them
      * @return
      * @throws BadRequestException
      * @throws CharonException
      */
     protected static AbstractSCIMObject checkIfReadOnlyAndImmutableAttributesModified(
-            AbstractSCIMObject oldObject, AbstractSCIMObject newObject, SCIMResourceTypeSchema resourceSchema)
-            throws BadRequestException, CharonException {
+            AbstractSCIMObject oldObject, AbstractSCIMObject newObject, SCIMResourceTypeSchema resourceSchema,
+            Set<String> attributeNames) throws BadRequestException, CharonException {
 
-        //get attributes from schema.
-        List<AttributeSchema> attributeSchemaList = resourceSchema.getAttributesList();
         //get attribute list from old scim object.
         Map<String, Attribute> oldAttributeList = oldObject.getAttributeList();
         //get attribute list from new scim object.
         Map<String, Attribute> newAttributeList = newObject.getAttributeList();
 
-        for (AttributeSchema attributeSchema : attributeSchemaList) {
+        //check the attributes of the schema which are read only, immutable or have sub attributes.
+        for (AttributeSchema attributeSchema : ValidationPlan.of(resourceSchema).getMutabilityRules()) {
+            if (attributeNames != null && !attributeNames.contains(attributeSchema.getName())) {
+                continue;
+            }
             if (attributeSchema.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY)) {
                 if (newAttributeList.containsKey(attributeSchema.getName()) &&
                         oldAttributeList.containsKey(attributeSchema.getName())) {
@@ -1007,10 +663,12 @@ public abstract class AbstractValidator {
                         throw new BadRequestException(ResponseCodeConstants.MUTABILITY);
                     }
                     //no need to check sub attributes of sub values separately for equality, stop at the sub value level
-                    for (Attribute subValue : newSubValuesList) {
-                        if (!isListContains((((ComplexAttribute) subValue).getName()), oldSubValuesList) &&
-                                attributeSchema.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                            throw new BadRequestException(ResponseCodeConstants.MUTABILITY);
+                    if (attributeSchema.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
+                        Set<List<Object>> oldSubValueKeys = getValueKeys(oldSubValuesList);
+                        for (Attribute subValue : newSubValuesList) {
+                            if (!oldSubValueKeys.contains(getValueKey(subValue))) {
+                                throw new BadRequestException(ResponseCodeConstants.MUTABILITY);
+                            }
                         }
                     }
                 } else {
@@ -1163,19 +821,50 @@ public abstract class AbstractValidator {
     }
 
     /*
-     * check whether the give attribute is in the given list
+     * keys of the values of a complex multi-valued attribute, made of their value and type sub attributes, to look
+     * them up in constant time
      *
-     * @param attributeName
      * @param list
      * @return
+     * @throws CharonException
      */
-    private static boolean isListContains(String attributeName, List<Attribute> list) {
+    private static Set<List<Object>> getValueKeys(List<Attribute> list) throws CharonException {
+
+        Set<List<Object>> keys = new HashSet<>(list.size() * 2);
         for (Attribute attribute : list) {
-            if (attribute.getName().equals(attributeName)) {
-                return true;
-            }
+            keys.add(getValueKey(attribute));
+        }
+        return keys;
+    }
+
+    /*
+     * key of a value of a complex multi-valued attribute, made of its value and type sub attributes
+     *
+     * @param attribute
+     * @return
+     * @throws CharonException
+     */
+    private static List<Object> getValueKey(Attribute attribute) throws CharonException {
+
+        return Arrays.asList(getSubAttributeValue(attribute, SCIMConstants.CommonSchemaConstants.VALUE),
+                getSubAttributeValue(attribute, SCIMConstants.CommonSchemaConstants.TYPE));
+    }
+
+    /*
+     * value of the given simple sub attribute of a complex value, or null if it has none
+     *
+     * @param attribute
+     * @param subAttributeName
+     * @return
+     * @throws CharonException
+     */
+    private static Object getSubAttributeValue(Attribute attribute, String subAttributeName) throws CharonException {
+
+        if (!(attribute instanceof ComplexAttribute)) {
+            return null;
         }
-        return false;
+        Attribute subAttribute = ((ComplexAttribute) attribute).getSubAttribute(subAttributeName);
+        return subAttribute instanceof SimpleAttribute ? ((SimpleAttribute) subAttribute).getValue() : null;
     }
 
 
@@ -1291,39 +980,46 @@ public abstract class AbstractValidator {
             AbstractSCIMObject scimObject, SCIMResourceTypeSchema resourceSchema) throws CharonException,
             BadRequestException {
 
-        Map<String, Attribute> attributeList = scimObject.getAttributeList();
-        ArrayList<AttributeSchema> attributeSchemaList = resourceSchema.getAttributesList();
+        setDisplayNameInComplexMultiValuedAttributes(scimObject, resourceSchema, null);
+    }
 
-        for (AttributeSchema attributeSchema : attributeSchemaList) {
+    /*
+     * set the display name sub attribute in the given complex type multi valued attributes
+     *
+     * @param scimObject
+     * @param resourceSchema
+     * @param attributeNames names of the top level attributes to set it in, null to set it in all of them
+     * @throws CharonException
+     * @throws BadRequestException
+     */
+    protected static void setDisplayNameInComplexMultiValuedAttributes(
+            AbstractSCIMObject scimObject, SCIMResourceTypeSchema resourceSchema, Set<String> attributeNames)
+            throws CharonException, BadRequestException {
 
-            if (attributeSchema.getMultiValued() && attributeSchema.getType().equals(SCIMDefinitions.DataType
-                    .COMPLEX)) {
-                if (attributeSchema.getSubAttributeSchema(SCIMConstants.CommonSchemaConstants.DISPLAY) != null) {
+        Map<String, Attribute> attributeList = scimObject.getAttributeList();
 
-                    if (attributeList.containsKey(attributeSchema.getName())) {
-                        Attribute multiValuedAttribute = attributeList.get(attributeSchema.getName());
-                        setDisplayNameInComplexMultiValuedSubAttributes(multiValuedAttribute, attributeSchema);
-                    }
+        for (ValidationPlan.DisplayNameRule rule : ValidationPlan.of(resourceSchema).getDisplayNameRules()) {
+            AttributeSchema attributeSchema = rule.getAttributeSchema();
+            AttributeSchema parentSchema = rule.getParentSchema();
+            if (parentSchema == null) {
+                if (attributeNames != null && !attributeNames.contains(attributeSchema.getName())) {
+                    continue;
+                }
+                if (attributeList.containsKey(attributeSchema.getName())) {
+                    Attribute multiValuedAttribute = attributeList.get(attributeSchema.getName());
+                    setDisplayNameInComplexMultiValuedSubAttributes(multiValuedAttribute, rule);
                 }
-            } else if (attributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
+            } else {
                 //this is only valid for extension schema
-                List<AttributeSchema> subAttributeSchemaList = attributeSchema.getSubAttributeSchemas();
-                for (AttributeSchema subAttributeSchema : subAttributeSchemaList) {
-                    if (subAttributeSchema.getMultiValued() &&
-                            subAttributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                        if (subAttributeSchema.getSubAttributeSchema(SCIMConstants.CommonSchemaConstants.DISPLAY) !=
-                                null) {
-                            Attribute extensionAttribute = attributeList.get(attributeSchema.getName());
-                            if (extensionAttribute != null) {
-                                if ((((ComplexAttribute) extensionAttribute).
-                                        getSubAttribute(subAttributeSchema.getName())) != null) {
-                                    Attribute multiValuedAttribute = (attributeList.get(attributeSchema.getName()))
-                                            .getSubAttribute(subAttributeSchema.getName());
-                                    setDisplayNameInComplexMultiValuedSubAttributes(multiValuedAttribute,
-                                            subAttributeSchema);
-                                }
-                            }
-                        }
+                if (attributeNames != null && !attributeNames.contains(parentSchema.getName())) {
+                    continue;
+                }
+                Attribute extensionAttribute = attributeList.get(parentSchema.getName());
+                if (extensionAttribute != null) {
+                    Attribute multiValuedAttribute = ((ComplexAttribute) extensionAttribute).
+                            getSubAttribute(attributeSchema.getName());
+                    if (multiValuedAttribute != null) {
+                        setDisplayNameInComplexMultiValuedSubAttributes(multiValuedAttribute, rule);
                     }
                 }
             }
@@ -1335,64 +1031,53 @@ public abstract class AbstractValidator {
      * eg. display name of emails
      *
      * @param multiValuedAttribute
-     * @param attributeSchema
+     * @param rule display name rule of the attribute, with its value and display sub attribute schemas
      * @throws CharonException
      * @throws BadRequestException
      */
     private static void setDisplayNameInComplexMultiValuedSubAttributes(Attribute multiValuedAttribute,
-                                                                        AttributeSchema attributeSchema) throws
+                                                                        ValidationPlan.DisplayNameRule rule) throws
             CharonException,
             BadRequestException {
         List<Attribute> subValuesList = ((MultiValuedAttribute) (multiValuedAttribute)).getAttributeValues();
+        AttributeSchema valueSchema = rule.getValueSchema();
+        AttributeSchema displaySchema = rule.getDisplaySchema();
 
         for (Attribute subValue : subValuesList) {
 
             if (!((ComplexAttribute) subValue).getSubAttributesList().isEmpty()) {
-                for (AttributeSchema subAttributeSchema : attributeSchema.getSubAttributeSchemas()) {
-                    if (subAttributeSchema.getName().equals(SCIMConstants.CommonSchemaConstants.VALUE)) {
-
-                        if (!subAttributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)
-                                && !subAttributeSchema.getMultiValued()) {
-                            //take the value from the value sub attribute and put is as display attribute
-                            SimpleAttribute simpleAttribute = null;
-                            Object simpleAttributeValue = null;
-                            Attribute subAttribute = subValue.getSubAttribute(subAttributeSchema.getName());
-                            if (subAttribute != null) {
-                                simpleAttributeValue = ((SimpleAttribute) subAttribute).getValue();
-                            }
-                            simpleAttribute = new SimpleAttribute(
-                                    SCIMConstants.CommonSchemaConstants.DISPLAY, simpleAttributeValue);
-
-                            AttributeSchema subSchema = attributeSchema.getSubAttributeSchema(SCIMConstants
-                                    .CommonSchemaConstants.DISPLAY);
-                            simpleAttribute = (SimpleAttribute) DefaultAttributeFactory.createAttribute(subSchema,
-                                    simpleAttribute);
-                            ((ComplexAttribute) (subValue)).setSubAttribute(simpleAttribute);
-                        } else if (!subAttributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)
-                                && subAttributeSchema.getMultiValued()) {
-
-                            Attribute valueSubAttribute = (MultiValuedAttribute) (subValue.getSubAttribute
-                                    (subAttributeSchema.getName()));
-                            Object displayValue = null;
-                            try {
-                                displayValue =
-                                        ((MultiValuedAttribute) (valueSubAttribute)).getAttributePrimitiveValues()
-                                                .get(0);
-                            } catch (Exception e) {
-                                String error = "Can not set display attribute value without a value attribute value.";
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX, error);
-                            }
-                            //if multiple values are available, get the first value and put it as display name
-                            SimpleAttribute simpleAttribute = new SimpleAttribute(
-                                    SCIMConstants.CommonSchemaConstants.DISPLAY, displayValue);
-                            AttributeSchema subSchema = attributeSchema.getSubAttributeSchema(SCIMConstants
-                                    .CommonSchemaConstants.DISPLAY);
-                            simpleAttribute = (SimpleAttribute) DefaultAttributeFactory.createAttribute(subSchema,
-                                    simpleAttribute);
-                            ((ComplexAttribute) (subValue)).setSubAttribute(simpleAttribute);
+                if (!valueSchema.getMultiValued()) {
+                    //take the value from the value sub attribute and put is as display attribute
+                    SimpleAttribute simpleAttribute = null;
+                    Object simpleAttributeValue = null;
+                    Attribute subAttribute = subValue.getSubAttribute(valueSchema.getName());
+                    if (subAttribute != null) {
+                        simpleAttributeValue = ((SimpleAttribute) subAttribute).getValue();
+                    }
+                    simpleAttribute = new SimpleAttribute(
+                            SCIMConstants.CommonSchemaConstants.DISPLAY, simpleAttributeValue);
+                    simpleAttribute = (SimpleAttribute) DefaultAttributeFactory.createAttribute(displaySchema,
+                            simpleAttribute);
+                    ((ComplexAttribute) (subValue)).setSubAttribute(simpleAttribute);
+                } else {
 
-                        }
+                    Attribute valueSubAttribute = (MultiValuedAttribute) (subValue.getSubAttribute
+                            (valueSchema.getName()));
+                    Object displayValue = null;
+                    try {
+                        displayValue =
+                                ((MultiValuedAttribute) (valueSubAttribute)).getAttributePrimitiveValues().get(0);
+                    } catch (Exception e) {
+                        String error = "Can not set display attribute value without a value attribute value.";
+                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX, error);
                     }
+                    //if multiple values are available, get the first value and put it as display name
+                    SimpleAttribute simpleAttribute = new SimpleAttribute(
+                            SCIMConstants.CommonSchemaConstants.DISPLAY, displayValue);
+                    simpleAttribute = (SimpleAttribute) DefaultAttributeFactory.createAttribute(displaySchema,
+                            simpleAttribute);
+                    ((ComplexAttribute) (subValue)).setSubAttribute(simpleAttribute);
+
                 }
             }
         }
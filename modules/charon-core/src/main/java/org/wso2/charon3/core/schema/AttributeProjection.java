@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.schema;
+
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The attributes of a resource returned in a response, given the attributes and excludedAttributes request
+ * parameters and the returned characteristic each attribute carries.
+ * <p>
+ * A projection only decides whether an attribute is returned, so the encoder can skip the attributes which are not
+ * while writing the resource, instead of the resource being copied and the attributes deleted from the copy. The
+ * names in the request parameters are matched ignoring case. A request only contains either the attributes or the
+ * excludedAttributes parameter; when both are given, the excludedAttributes parameter is ignored.
+ */
+public class AttributeProjection {
+
+    private final Set<String> requestedAttributes;
+    private final Set<String> excludedAttributes;
+
+    /**
+     * Constructor used to build the projection of a request.
+     *
+     * @param requestedAttributes Comma separated attributes request parameter, null if not given.
+     * @param excludedAttributes  Comma separated excludedAttributes request parameter, null if not given.
+     */
+    public AttributeProjection(String requestedAttributes, String excludedAttributes) {
+
+        this.requestedAttributes = toNameSet(requestedAttributes);
+        this.excludedAttributes = toNameSet(excludedAttributes);
+    }
+
+    /**
+     * Returns whether an attribute of the resource is returned.
+     *
+     * @param attribute Attribute of the resource.
+     * @return True if the attribute is returned.
+     */
+    public boolean isReturned(Attribute attribute) {
+
+        SCIMDefinitions.Returned returned = attribute.getReturned();
+        if (returned == SCIMDefinitions.Returned.NEVER) {
+            return false;
+        }
+        if (requestedAttributes == null && excludedAttributes == null) {
+            return returned != SCIMDefinitions.Returned.REQUEST;
+        }
+        if (requestedAttributes != null) {
+            //if attributes are set, only the requested attributes are returned besides the always returned ones.
+            return !isDefaultOrRequest(returned) || contains(requestedAttributes, attribute.getName()) ||
+                    isSubAttributeRequested(attribute);
+        }
+        return returned != SCIMDefinitions.Returned.REQUEST && !(returned == SCIMDefinitions.Returned.DEFAULT &&
+                contains(excludedAttributes, attribute.getName()));
+    }
+
+    /**
+     * Returns whether a sub attribute of a complex attribute of the resource is returned.
+     *
+     * @param attribute    Complex attribute of the resource.
+     * @param subAttribute Sub attribute.
+     * @return True if the sub attribute is returned.
+     */
+    public boolean isReturned(Attribute attribute, Attribute subAttribute) {
+
+        SCIMDefinitions.Returned returned = subAttribute.getReturned();
+        if (returned == SCIMDefinitions.Returned.NEVER) {
+            return false;
+        }
+        if (requestedAttributes == null && excludedAttributes == null) {
+            return returned != SCIMDefinitions.Returned.REQUEST;
+        }
+        if (requestedAttributes != null) {
+            return !isDefaultOrRequest(returned) ||
+                    contains(requestedAttributes, attribute.getName() + "." + subAttribute.getName()) ||
+                    contains(requestedAttributes, attribute.getName()) ||
+                    isSubSubAttributeRequested(attribute, subAttribute, true);
+        }
+        return returned != SCIMDefinitions.Returned.REQUEST && !(returned == SCIMDefinitions.Returned.DEFAULT &&
+                contains(excludedAttributes, attribute.getName() + "." + subAttribute.getName()));
+    }
+
+    /**
+     * Returns whether a sub attribute of a complex sub attribute of the resource is returned. This is only
+     * applicable for extension schema.
+     *
+     * @param attribute       Complex attribute of the resource.
+     * @param subAttribute    Complex sub attribute.
+     * @param subSubAttribute Sub attribute of the sub attribute.
+     * @return True if the sub attribute of the sub attribute is returned.
+     */
+    public boolean isReturned(Attribute attribute, Attribute subAttribute, Attribute subSubAttribute) {
+
+        SCIMDefinitions.Returned returned = subSubAttribute.getReturned();
+        if (returned == SCIMDefinitions.Returned.NEVER) {
+            return false;
+        }
+        if (requestedAttributes == null && excludedAttributes == null) {
+            return returned != SCIMDefinitions.Returned.REQUEST;
+        }
+        return isSubValueReturned(attribute, subAttribute, subSubAttribute);
+    }
+
+    /**
+     * Returns whether a sub attribute of the values of a multi-valued attribute of the resource is returned.
+     *
+     * @param attribute         Multi-valued attribute of the resource.
+     * @param valueSubAttribute Sub attribute of a value.
+     * @return True if the sub attribute is returned.
+     */
+    public boolean isValueReturned(Attribute attribute, Attribute valueSubAttribute) {
+
+        SCIMDefinitions.Returned returned = valueSubAttribute.getReturned();
+        if (returned == SCIMDefinitions.Returned.NEVER) {
+            return false;
+        }
+        if (requestedAttributes == null && excludedAttributes == null) {
+            return attribute.getReturned() != SCIMDefinitions.Returned.REQUEST;
+        }
+        if (requestedAttributes != null) {
+            return !isDefaultOrRequest(returned) ||
+                    contains(requestedAttributes, attribute.getName() + "." + valueSubAttribute.getName()) ||
+                    contains(requestedAttributes, attribute.getName()) ||
+                    isSubSubAttributeRequested(attribute, valueSubAttribute, false);
+        }
+        return returned != SCIMDefinitions.Returned.REQUEST && !(returned == SCIMDefinitions.Returned.DEFAULT &&
+                contains(excludedAttributes, attribute.getName() + "." + valueSubAttribute.getName()));
+    }
+
+    /**
+     * Returns whether a sub attribute of the values of a multi-valued sub attribute of the resource is returned.
+     * This is only applicable for extension schema.
+     *
+     * @param attribute         Complex attribute of the resource.
+     * @param subAttribute      Multi-valued sub attribute.
+     * @param valueSubAttribute Sub attribute of a value of the sub attribute.
+     * @return True if the sub attribute of the value is returned.
+     */
+    public boolean isValueReturned(Attribute attribute, Attribute subAttribute, Attribute valueSubAttribute) {
+
+        if (valueSubAttribute.getReturned() == SCIMDefinitions.Returned.NEVER) {
+            return false;
+        }
+        if (requestedAttributes == null && excludedAttributes == null) {
+            return attribute.getReturned() != SCIMDefinitions.Returned.REQUEST;
+        }
+        return isSubValueReturned(attribute, subAttribute, valueSubAttribute);
+    }
+
+    /*
+     * Returns whether a third level attribute is returned when either of the request parameters is given.
+     */
+    private boolean isSubValueReturned(Attribute attribute, Attribute subAttribute, Attribute subSubAttribute) {
+
+        SCIMDefinitions.Returned returned = subSubAttribute.getReturned();
+        String subAttributeName = attribute.getName() + "." + subAttribute.getName();
+        if (requestedAttributes != null) {
+            return !isDefaultOrRequest(returned) ||
+                    contains(requestedAttributes, subAttributeName + "." + subSubAttribute.getName()) ||
+                    contains(requestedAttributes, attribute.getName()) ||
+                    contains(requestedAttributes, subAttributeName);
+        }
+        return returned != SCIMDefinitions.Returned.REQUEST && !(returned == SCIMDefinitions.Returned.DEFAULT &&
+                contains(excludedAttributes, subAttributeName + "." + subSubAttribute.getName()));
+    }
+
+    /*
+     * Checks whether a sub attribute of the attribute, or of its complex sub attributes, is requested, in which case
+     * the attribute is returned to hold it.
+     */
+    private boolean isSubAttributeRequested(Attribute attribute) {
+
+        if (attribute instanceof MultiValuedAttribute) {
+            List<Attribute> values = ((MultiValuedAttribute) attribute).getAttributeValues();
+            if (values != null) {
+                for (Attribute value : values) {
+                    if (isAnyRequested(attribute.getName(), ((ComplexAttribute) value).getSubAttributesList()
+                            .values(), false)) {
+                        return true;
+                    }
+                    //this case is only valid for extension schema
+                    if (value.getType() == SCIMDefinitions.DataType.COMPLEX &&
+                            isSubSubAttributeRequested(attribute, value, false)) {
+                        return true;
+                    }
+                }
+            }
+        } else if (attribute instanceof ComplexAttribute) {
+            for (Attribute subAttribute : ((ComplexAttribute) attribute).getSubAttributesList().values()) {
+                if (contains(requestedAttributes, attribute.getName() + "." + subAttribute.getName())) {
+                    return true;
+                }
+                //this case is only valid for extension schema
+                if (subAttribute.getType() == SCIMDefinitions.DataType.COMPLEX &&
+                        isSubSubAttributeRequested(attribute, subAttribute, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Checks whether a sub attribute of the sub attribute is requested, in which case the sub attribute is returned
+     * to hold it. When only returned ones are counted, a requested sub attribute which is never returned does not
+     * keep the sub attribute.
+     */
+    private boolean isSubSubAttributeRequested(Attribute attribute, Attribute subAttribute, boolean onlyReturned) {
+
+        String subAttributeName = attribute.getName() + "." + subAttribute.getName();
+        if (subAttribute instanceof MultiValuedAttribute) {
+            List<Attribute> values = ((MultiValuedAttribute) subAttribute).getAttributeValues();
+            if (values != null) {
+                for (Attribute value : values) {
+                    if (isAnyRequested(subAttributeName, ((ComplexAttribute) value).getSubAttributesList().values(),
+                            onlyReturned)) {
+                        return true;
+                    }
+                }
+            }
+        } else if (subAttribute instanceof ComplexAttribute) {
+            return isAnyRequested(subAttributeName, ((ComplexAttribute) subAttribute).getSubAttributesList().values(),
+                    onlyReturned);
+        }
+        return false;
+    }
+
+    private boolean isAnyRequested(String parentName, Collection<Attribute> subAttributes, boolean onlyReturned) {
+
+        for (Attribute subAttribute : subAttributes) {
+            if (onlyReturned && subAttribute.getReturned() == SCIMDefinitions.Returned.NEVER) {
+                continue;
+            }
+            if (contains(requestedAttributes, parentName + "." + subAttribute.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDefaultOrRequest(SCIMDefinitions.Returned returned) {
+
+        return returned == SCIMDefinitions.Returned.DEFAULT || returned == SCIMDefinitions.Returned.REQUEST;
+    }
+
+    private static boolean contains(Set<String> names, String name) {
+
+        return names.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private static Set<String> toNameSet(String names) {
+
+        if (names == null) {
+            return null;
+        }
+        Set<String> nameSet = new HashSet<>();
+        for (String name : names.split(",")) {
+            nameSet.add(name.toLowerCase(Locale.ROOT));
+        }
+        return nameSet;
+    }
+}
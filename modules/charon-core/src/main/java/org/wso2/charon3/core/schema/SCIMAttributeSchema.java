@@ -30,6 +30,10 @@ import java.util.List;
 public class SCIMAttributeSchema implements AttributeSchema, Serializable {
 
     private static final long serialVersionUID = 6106269076155338045L;
+    //position of the attribute among the attributes defined along with it, until placed in a schema.
+    private static final int UNPLACED = Integer.MAX_VALUE;
+    //position of the attribute among the attributes defined along with it.
+    private int ordinal = UNPLACED;
     //unique identifier for the attribute
     private String uri;
     //name of the attribute
@@ -77,6 +81,7 @@ public class SCIMAttributeSchema implements AttributeSchema, Serializable {
         this.subAttributes = subAttributes;
         this.canonicalValues = canonicalValues;
         this.referenceTypes = referenceTypes;
+        placeAll(subAttributes);
     }
 
     public static SCIMAttributeSchema createSCIMAttributeSchema(String uri, String name, SCIMDefinitions.DataType type,
@@ -94,6 +99,36 @@ public class SCIMAttributeSchema implements AttributeSchema, Serializable {
                 returned, uniqueness, canonicalValues, referenceTypes, subAttributes);
     }
 
+    /**
+     * Returns the ordinal of the attribute schema, its position among the attributes of the resource schema or the
+     * sub attributes of the complex attribute it is defined in. An attribute schema shared by several schemas, such
+     * as the one of id, keeps the position of the first schema it is placed in.
+     *
+     * @return Ordinal of the attribute schema, {@link Integer#MAX_VALUE} if it is not placed in any schema.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Number the given attribute schemas by their position, unless already placed in another schema.
+     *
+     * @param attributeSchemas Attribute schemas, in the order they are defined in.
+     */
+    static void placeAll(List<AttributeSchema> attributeSchemas) {
+
+        if (attributeSchemas == null) {
+            return;
+        }
+        for (int i = 0; i < attributeSchemas.size(); i++) {
+            AttributeSchema attributeSchema = attributeSchemas.get(i);
+            if (attributeSchema instanceof SCIMAttributeSchema &&
+                    ((SCIMAttributeSchema) attributeSchema).ordinal == UNPLACED) {
+                ((SCIMAttributeSchema) attributeSchema).ordinal = i;
+            }
+        }
+    }
+
     @Override
     public void setURI(String uri) {
         this.uri = uri;
@@ -207,6 +242,7 @@ public class SCIMAttributeSchema implements AttributeSchema, Serializable {
 
     public void setSubAttributes(ArrayList<AttributeSchema> subAttributes) {
         this.subAttributes = subAttributes;
+        placeAll(subAttributes);
     }
 
     public List<String> getCanonicalValues() {
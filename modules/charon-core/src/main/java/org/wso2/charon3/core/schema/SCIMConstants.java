@@ -66,6 +66,9 @@ public class SCIMConstants {
     //HTTP Headers used in SCIM request/response other than auth headers.
     public static final String LOCATION_HEADER = "Location";
     public static final String CONTENT_TYPE_HEADER = "Content-Type";
+    public static final String ETAG_HEADER = "ETag";
+    public static final String IF_MATCH_HEADER = "If-Match";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
 
     public static final String DEFAULT = "default";
 
@@ -130,6 +133,9 @@ public class SCIMConstants {
         public static final String RESOURCES = "Resources";
         public static final String ITEMS_PER_PAGE = "itemsPerPage";
         public static final String START_INDEX = "startIndex";
+        public static final String NEXT_CURSOR = "nextCursor";
+        public static final String WATERMARK = "watermark";
+        public static final String DELETED_IDS = "deletedIds";
     }
 
     /**
@@ -755,6 +761,8 @@ public class SCIMConstants {
         public static final String EXCLUDED_ATTRIBUTES = "excludedAttributes";
         public static final String COUNT = "count";
         public static final String START_INDEX = "startIndex";
+        public static final String CURSOR = "cursor";
+        public static final String CHANGES_SINCE = "changesSince";
         public static final String SORT_BY = "sortBy";
         public static final String SORT_ORDER = "sortOrder";
         public static final String FILTER = "filter";
@@ -89,8 +89,18 @@ public class SCIMResourceSchemaManager {
     public SCIMResourceTypeSchema getUserResourceSchema(UserManager userManager)
             throws BadRequestException, NotImplementedException, CharonException {
 
+        return getUserResourceSchema(userManager.getCustomUserSchemaExtension());
+    }
+
+    /*
+     * Return the SCIM User Resource Schema with the given custom schema extension
+     *
+     * @param customSchemaExtension - custom schema extension of the user manager, null if there is none
+     * @return SCIMResourceTypeSchema
+     */
+    public SCIMResourceTypeSchema getUserResourceSchema(AttributeSchema customSchemaExtension) {
+
         AttributeSchema enterpriseSchemaExtension = SCIMUserSchemaExtensionBuilder.getInstance().getExtensionSchema();
-        AttributeSchema customSchemaExtension = userManager.getCustomUserSchemaExtension();
         if (enterpriseSchemaExtension != null) {
             List<String> schemas = new ArrayList<>();
             schemas.add(SCIMConstants.USER_CORE_SCHEMA_URI);
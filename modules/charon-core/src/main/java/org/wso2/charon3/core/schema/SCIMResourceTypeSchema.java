@@ -41,6 +41,7 @@ public class SCIMResourceTypeSchema implements ResourceTypeSchema, Serializable
                 }
             }
         }
+        SCIMAttributeSchema.placeAll(attributeList);
     }
 
     /*
@@ -84,5 +85,6 @@ public class SCIMResourceTypeSchema implements ResourceTypeSchema, Serializable
 
     public void setAttributeList(ArrayList attributeList) {
         this.attributeList = attributeList;
+        SCIMAttributeSchema.placeAll(this.attributeList);
     }
 }
@@ -15,7 +15,9 @@
  */
 package org.wso2.charon3.core.schema;
 
+import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.config.CharonConfiguration;
 import org.wso2.charon3.core.exceptions.BadRequestException;
 import org.wso2.charon3.core.exceptions.CharonException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
@@ -24,11 +26,15 @@ import org.wso2.charon3.core.objects.Role;
 import org.wso2.charon3.core.objects.User;
 import org.wso2.charon3.core.protocol.endpoints.AbstractResourceManager;
 import org.wso2.charon3.core.utils.AttributeUtil;
+import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -63,6 +69,7 @@ public class ServerSideValidator extends AbstractValidator {
             scimObject.setCreatedInstant(AttributeUtil.parseDateTime(AttributeUtil.formatDateTime(now)));
             // Creates date and the last modified are the same if not updated.
             scimObject.setLastModifiedInstant(AttributeUtil.parseDateTime(AttributeUtil.formatDateTime(now)));
+            scimObject.replaceVersion(ETagUtil.generateVersion());
         }
         //set location and resourceType
         if (resourceSchema.isSchemaAvailable(SCIMConstants.USER_CORE_SCHEMA_URI)) {
@@ -197,32 +204,100 @@ public class ServerSideValidator extends AbstractValidator {
                                                                boolean validatePerPatchOperation)
             throws CharonException, BadRequestException {
 
+        return validateUpdatedSCIMObject(oldObject, newObject, resourceSchema, null, validatePerPatchOperation);
+    }
+
+    /**
+     * Perform validation on a SCIM Object updated by a PATCH request, only for the top level attributes the
+     * operations modified. Attributes left untouched keep the values of the old object, so the read only, immutable
+     * and required attribute rules on them still hold as far as the request is concerned. The whole object is
+     * validated if the modified attributes are not known, or if full PATCH validation is configured.
+     *
+     * @param oldObject              Old scim object.
+     * @param newObject              Patched scim object.
+     * @param resourceSchema         Schema of the scim resource.
+     * @param modifiedAttributeNames Names of the top level attributes the operations modified, null if not known.
+     * @return Validated object.
+     * @throws CharonException     When error occurred while validating the scim object.
+     * @throws BadRequestException When error in the user's input.
+     */
+    public static AbstractSCIMObject validateUpdatedSCIMObject(AbstractSCIMObject oldObject,
+                                                               AbstractSCIMObject newObject,
+                                                               SCIMResourceTypeSchema resourceSchema,
+                                                               Set<String> modifiedAttributeNames)
+            throws CharonException, BadRequestException {
+
+        if (modifiedAttributeNames == null || CharonConfiguration.getInstance().isFullPatchValidation()) {
+            return validateUpdatedSCIMObject(oldObject, newObject, resourceSchema, null, false);
+        }
+        // Attributes added or removed as a whole are validated too, whichever operation did it.
+        Set<String> attributeNames = new HashSet<>(modifiedAttributeNames);
+        for (String name : oldObject.getAttributeList().keySet()) {
+            if (!newObject.getAttributeList().containsKey(name)) {
+                attributeNames.add(name);
+            }
+        }
+        for (String name : newObject.getAttributeList().keySet()) {
+            if (!oldObject.getAttributeList().containsKey(name)) {
+                attributeNames.add(name);
+            }
+        }
+        return validateUpdatedSCIMObject(oldObject, newObject, resourceSchema, attributeNames, false);
+    }
+
+    /*
+     * Validates the given top level attributes of the updated object, all of them if the names are null.
+     */
+    private static AbstractSCIMObject validateUpdatedSCIMObject(AbstractSCIMObject oldObject,
+                                                                AbstractSCIMObject newObject,
+                                                                SCIMResourceTypeSchema resourceSchema,
+                                                                Set<String> attributeNames,
+                                                                boolean validatePerPatchOperation)
+            throws CharonException, BadRequestException {
+
         if (newObject instanceof User) {
             // Set display names for complex multivalued attributes.
-            setDisplayNameInComplexMultiValuedAttributes(newObject, resourceSchema);
+            setDisplayNameInComplexMultiValuedAttributes(newObject, resourceSchema, attributeNames);
         }
         // Check for read only and immutable attributes.
         AbstractSCIMObject validatedObject =
-                checkIfReadOnlyAndImmutableAttributesModified(oldObject, newObject, resourceSchema);
+                checkIfReadOnlyAndImmutableAttributesModified(oldObject, newObject, resourceSchema, attributeNames);
         // Copy meta attribute from old to new.
-        validatedObject.setAttribute(oldObject.getAttribute(SCIMConstants.CommonSchemaConstants.META));
+        copyMeta(oldObject, validatedObject);
         // Copy id attribute to new group object.
         validatedObject.setAttribute(oldObject.getAttribute(SCIMConstants.CommonSchemaConstants.ID));
         // Edit last modified date.
         validatedObject.setLastModifiedInstant(Instant.now());
+        // Every write produces a new version.
+        validatedObject.replaceVersion(ETagUtil.generateVersion());
         // If this check done per scim patch operation, Only validate the update cause for required attribute removal.
         if (validatePerPatchOperation) {
             // Check for required attributes.
             validatePatchOperationEffectForRequiredAttributes(oldObject, newObject, resourceSchema);
         } else {
             // Check for required attributes.
-            validateSCIMObjectForRequiredAttributes(newObject, resourceSchema);
+            validateSCIMObjectForRequiredAttributes(newObject, resourceSchema, attributeNames);
         }
         // Check for schema list.
         validateSchemaList(validatedObject, resourceSchema);
         return validatedObject;
     }
 
+    /*
+     * Give the validated object its own copy of the meta attribute of the old object, unless it already has one, so
+     * updating the last modified time and the version of the validated object leaves the old object as it was.
+     */
+    private static void copyMeta(AbstractSCIMObject oldObject, AbstractSCIMObject validatedObject)
+            throws CharonException {
+
+        Attribute oldMeta = oldObject.getAttribute(SCIMConstants.CommonSchemaConstants.META);
+        Attribute meta = validatedObject.getAttribute(SCIMConstants.CommonSchemaConstants.META);
+        if (oldMeta != null && (meta == null || meta == oldMeta)) {
+            validatedObject.deleteAttribute(SCIMConstants.CommonSchemaConstants.META);
+            validatedObject.setAttribute((Attribute) CopyUtil.deepCopy(oldMeta));
+        }
+    }
+
     /*
      * This method is to add meta data to the resource type resource
      *
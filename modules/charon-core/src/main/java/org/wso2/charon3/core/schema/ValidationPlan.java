@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.schema;
+
+import org.wso2.charon3.core.utils.LRUCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The validation rules of a resource schema, compiled once per distinct list of attribute schemas and shared by the
+ * validations against it.
+ * <p>
+ * A plan holds, in the order of the schema, the attributes each validation has a rule for: the attributes that are
+ * required or have sub attributes to check, the read only and immutable attributes, and the complex multi-valued
+ * attributes whose display sub attribute is set from their value sub attribute. Attributes without a rule are
+ * skipped by the validations. Schemas built of the same attribute schemas share a plan, so attribute schemas must
+ * not be modified once a schema of them is validated against.
+ */
+public class ValidationPlan {
+
+    /**
+     * Maximum number of compiled plans kept. The least recently used plan is evicted to make room for a new one.
+     */
+    public static final int MAXIMUM_CACHED_PLANS = 64;
+
+    private static final LRUCache<List<AttributeSchema>, ValidationPlan> COMPILED_PLANS =
+            new LRUCache<>(MAXIMUM_CACHED_PLANS);
+
+    private final AttributeSchema[] requiredAttributeRules;
+    private final AttributeSchema[] mutabilityRules;
+    private final AttributeSchema[] readOnlyRules;
+    private final DisplayNameRule[] displayNameRules;
+
+    private ValidationPlan(List<AttributeSchema> attributeSchemas) {
+
+        List<AttributeSchema> requiredAttributes = new ArrayList<>();
+        List<AttributeSchema> mutabilityAttributes = new ArrayList<>();
+        List<AttributeSchema> readOnlyAttributes = new ArrayList<>();
+        List<DisplayNameRule> displayNameAttributes = new ArrayList<>();
+        for (AttributeSchema attributeSchema : attributeSchemas) {
+            List<AttributeSchema> subAttributeSchemas = attributeSchema.getSubAttributeSchemas();
+            if (attributeSchema.getRequired() || subAttributeSchemas != null) {
+                requiredAttributes.add(attributeSchema);
+            }
+            if (attributeSchema.getMutability() == SCIMDefinitions.Mutability.READ_ONLY ||
+                    attributeSchema.getMutability() == SCIMDefinitions.Mutability.IMMUTABLE ||
+                    subAttributeSchemas != null) {
+                mutabilityAttributes.add(attributeSchema);
+            }
+            if (attributeSchema.getMutability() == SCIMDefinitions.Mutability.READ_ONLY ||
+                    (subAttributeSchemas != null && !subAttributeSchemas.isEmpty())) {
+                readOnlyAttributes.add(attributeSchema);
+            }
+            if (attributeSchema.getType() != SCIMDefinitions.DataType.COMPLEX) {
+                continue;
+            }
+            if (attributeSchema.getMultiValued()) {
+                addDisplayNameRule(null, attributeSchema, displayNameAttributes);
+            } else if (subAttributeSchemas != null) {
+                // Complex multi-valued sub attributes are only found in extensions.
+                for (AttributeSchema subAttributeSchema : subAttributeSchemas) {
+                    if (subAttributeSchema.getMultiValued() &&
+                            subAttributeSchema.getType() == SCIMDefinitions.DataType.COMPLEX) {
+                        addDisplayNameRule(attributeSchema, subAttributeSchema, displayNameAttributes);
+                    }
+                }
+            }
+        }
+        this.requiredAttributeRules = requiredAttributes.toArray(new AttributeSchema[0]);
+        this.mutabilityRules = mutabilityAttributes.toArray(new AttributeSchema[0]);
+        this.readOnlyRules = readOnlyAttributes.toArray(new AttributeSchema[0]);
+        this.displayNameRules = displayNameAttributes.toArray(new DisplayNameRule[0]);
+    }
+
+    /**
+     * Returns the validation plan of a resource schema.
+     *
+     * @param schema Resource schema.
+     * @return Compiled plan.
+     */
+    public static ValidationPlan of(ResourceTypeSchema schema) {
+
+        List<AttributeSchema> attributeSchemas = schema.getAttributesList();
+        ValidationPlan plan = COMPILED_PLANS.get(attributeSchemas);
+        if (plan == null) {
+            // The list of the schema may still be modified, so the plan is kept under a copy of it.
+            plan = COMPILED_PLANS.putIfAbsent(new ArrayList<>(attributeSchemas), new ValidationPlan(attributeSchemas));
+        }
+        return plan;
+    }
+
+    /*
+     * Attributes that are required, or have sub attributes that may be.
+     */
+    AttributeSchema[] getRequiredAttributeRules() {
+
+        return requiredAttributeRules;
+    }
+
+    /*
+     * Attributes that are read only or immutable, or have sub attributes that may be.
+     */
+    AttributeSchema[] getMutabilityRules() {
+
+        return mutabilityRules;
+    }
+
+    /*
+     * Attributes that are read only, or have sub attributes that may be.
+     */
+    AttributeSchema[] getReadOnlyRules() {
+
+        return readOnlyRules;
+    }
+
+    DisplayNameRule[] getDisplayNameRules() {
+
+        return displayNameRules;
+    }
+
+    private static void addDisplayNameRule(AttributeSchema parentSchema, AttributeSchema attributeSchema,
+                                           List<DisplayNameRule> rules) {
+
+        AttributeSchema displaySchema = attributeSchema.getSubAttributeSchema(
+                SCIMConstants.CommonSchemaConstants.DISPLAY);
+        if (displaySchema == null) {
+            return;
+        }
+        AttributeSchema valueSchema = attributeSchema.getSubAttributeSchema(SCIMConstants.CommonSchemaConstants.VALUE);
+        if (valueSchema == null || valueSchema.getType() == SCIMDefinitions.DataType.COMPLEX) {
+            return;
+        }
+        rules.add(new DisplayNameRule(parentSchema, attributeSchema, valueSchema, displaySchema));
+    }
+
+    /**
+     * A complex multi-valued attribute whose display sub attribute is set from its value sub attribute.
+     */
+    static class DisplayNameRule {
+
+        private final AttributeSchema parentSchema;
+        private final AttributeSchema attributeSchema;
+        private final AttributeSchema valueSchema;
+        private final AttributeSchema displaySchema;
+
+        DisplayNameRule(AttributeSchema parentSchema, AttributeSchema attributeSchema, AttributeSchema valueSchema,
+                        AttributeSchema displaySchema) {
+
+            this.parentSchema = parentSchema;
+            this.attributeSchema = attributeSchema;
+            this.valueSchema = valueSchema;
+            this.displaySchema = displaySchema;
+        }
+
+        /*
+         * Extension attribute the attribute is a sub attribute of, null for an attribute of the resource.
+         */
+        AttributeSchema getParentSchema() {
+
+            return parentSchema;
+        }
+
+        AttributeSchema getAttributeSchema() {
+
+            return attributeSchema;
+        }
+
+        AttributeSchema getValueSchema() {
+
+            return valueSchema;
+        }
+
+        AttributeSchema getDisplaySchema() {
+
+            return displaySchema;
+        }
+    }
+}
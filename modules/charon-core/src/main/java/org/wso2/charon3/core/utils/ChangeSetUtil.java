@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet.AttributeChange;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet.ChangeType;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Utility methods to compute the changes an update makes to a resource, for user stores updating resources by their
+ * changes.
+ */
+public class ChangeSetUtil {
+
+    /**
+     * Returns the changes from the old to the updated resource. The changes are computed when they are first read,
+     * so the resources must not be modified until then.
+     *
+     * @param oldResource     Resource before the update.
+     * @param updatedResource Resource after the update.
+     * @param schema          Resource schema.
+     * @return Change set.
+     */
+    public static ChangeSet getChangeSet(AbstractSCIMObject oldResource, AbstractSCIMObject updatedResource,
+                                         SCIMResourceTypeSchema schema) {
+
+        return new ChangeSet(updatedResource.getId(), () -> getChanges(oldResource, updatedResource, schema));
+    }
+
+    /**
+     * Returns the changes from the old to the updated resource.
+     *
+     * @param oldResource     Resource before the update.
+     * @param updatedResource Resource after the update.
+     * @param schema          Resource schema.
+     * @return Changes, in the order of the attributes of the resources.
+     */
+    public static List<AttributeChange> getChanges(AbstractSCIMObject oldResource, AbstractSCIMObject updatedResource,
+                                                   SCIMResourceTypeSchema schema) {
+
+        List<AttributeChange> changes = new ArrayList<>();
+        Map<String, Attribute> oldAttributes = oldResource.getAttributeList();
+        Map<String, Attribute> newAttributes = updatedResource.getAttributeList();
+        for (String name : getNames(oldAttributes, newAttributes)) {
+            AttributeSchema attributeSchema = null;
+            for (AttributeSchema topLevelSchema : schema.getAttributesList()) {
+                if (topLevelSchema.getName().equals(name)) {
+                    attributeSchema = topLevelSchema;
+                    break;
+                }
+            }
+            addChanges(changes, name, attributeSchema, oldAttributes.get(name), newAttributes.get(name));
+        }
+        return changes;
+    }
+
+    /**
+     * Returns a key of a value of a multi-valued attribute, equal for values with equal sub attributes.
+     *
+     * @param value Complex value, or primitive value.
+     * @return Key to hash the value by.
+     */
+    public static Object getValueKey(Object value) {
+
+        if (value instanceof SimpleAttribute) {
+            return ((SimpleAttribute) value).getValue();
+        }
+        if (value instanceof ComplexAttribute) {
+            Map<String, Object> key = new TreeMap<>();
+            for (Map.Entry<String, Attribute> subAttribute :
+                    ((ComplexAttribute) value).getSubAttributesList().entrySet()) {
+                key.put(subAttribute.getKey(), getValueKey(subAttribute.getValue()));
+            }
+            return key;
+        }
+        if (value instanceof MultiValuedAttribute) {
+            MultiValuedAttribute multiValuedAttribute = (MultiValuedAttribute) value;
+            List<Object> key = new ArrayList<>(multiValuedAttribute.getAttributePrimitiveValues());
+            for (Attribute attributeValue : multiValuedAttribute.getAttributeValues()) {
+                key.add(getValueKey(attributeValue));
+            }
+            return key;
+        }
+        return value;
+    }
+
+    private static void addChanges(List<AttributeChange> changes, String uri, AttributeSchema attributeSchema,
+                                   Attribute oldAttribute, Attribute newAttribute) {
+
+        String attributeURI = attributeSchema != null ? attributeSchema.getURI() : uri;
+        if (oldAttribute == null && newAttribute == null) {
+            return;
+        }
+        if (oldAttribute == null) {
+            changes.add(new AttributeChange(ChangeType.ATTRIBUTE_ADDED, attributeURI, attributeSchema, null,
+                    newAttribute));
+        } else if (newAttribute == null) {
+            changes.add(new AttributeChange(ChangeType.ATTRIBUTE_REMOVED, attributeURI, attributeSchema, oldAttribute,
+                    null));
+        } else if (oldAttribute instanceof ComplexAttribute && newAttribute instanceof ComplexAttribute) {
+            Map<String, Attribute> oldSubAttributes = ((ComplexAttribute) oldAttribute).getSubAttributesList();
+            Map<String, Attribute> newSubAttributes = ((ComplexAttribute) newAttribute).getSubAttributesList();
+            for (String name : getNames(oldSubAttributes, newSubAttributes)) {
+                AttributeSchema subAttributeSchema = attributeSchema == null ||
+                        attributeSchema.getSubAttributeSchemas() == null ? null :
+                        attributeSchema.getSubAttributeSchema(name);
+                addChanges(changes, attributeURI + "." + name, subAttributeSchema, oldSubAttributes.get(name),
+                        newSubAttributes.get(name));
+            }
+        } else if (oldAttribute instanceof MultiValuedAttribute && newAttribute instanceof MultiValuedAttribute) {
+            addValueChanges(changes, attributeURI, attributeSchema, (MultiValuedAttribute) oldAttribute,
+                    (MultiValuedAttribute) newAttribute);
+        } else if (!(oldAttribute instanceof SimpleAttribute && newAttribute instanceof SimpleAttribute &&
+                Objects.equals(((SimpleAttribute) oldAttribute).getValue(),
+                        ((SimpleAttribute) newAttribute).getValue()))) {
+            changes.add(new AttributeChange(ChangeType.ATTRIBUTE_REPLACED, attributeURI, attributeSchema,
+                    oldAttribute, newAttribute));
+        }
+    }
+
+    /*
+     * Values of the old attribute without an equal value in the new attribute are removed, and the other way round
+     * added. Values are matched by their keys, so the attributes are compared in linear time.
+     */
+    private static void addValueChanges(List<AttributeChange> changes, String attributeURI,
+                                        AttributeSchema attributeSchema, MultiValuedAttribute oldAttribute,
+                                        MultiValuedAttribute newAttribute) {
+
+        List<Object> oldValues = getValues(oldAttribute);
+        List<Object> newValues = getValues(newAttribute);
+        Map<Object, Integer> newValueCounts = countKeys(newValues);
+        Map<Object, Integer> oldValueCounts = countKeys(oldValues);
+        for (Object oldValue : oldValues) {
+            if (!takeKey(newValueCounts, getValueKey(oldValue))) {
+                changes.add(new AttributeChange(ChangeType.VALUE_REMOVED, attributeURI, attributeSchema, oldValue,
+                        null));
+            }
+        }
+        for (Object newValue : newValues) {
+            if (!takeKey(oldValueCounts, getValueKey(newValue))) {
+                changes.add(new AttributeChange(ChangeType.VALUE_ADDED, attributeURI, attributeSchema, null,
+                        newValue));
+            }
+        }
+    }
+
+    private static List<Object> getValues(MultiValuedAttribute attribute) {
+
+        List<Object> values = new ArrayList<>(attribute.getAttributePrimitiveValues());
+        values.addAll(attribute.getAttributeValues());
+        return values;
+    }
+
+    private static Map<Object, Integer> countKeys(List<Object> values) {
+
+        Map<Object, Integer> counts = new HashMap<>();
+        for (Object value : values) {
+            counts.merge(getValueKey(value), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static boolean takeKey(Map<Object, Integer> counts, Object key) {
+
+        Integer count = counts.get(key);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count - 1);
+        }
+        return true;
+    }
+
+    private static Set<String> getNames(Map<String, Attribute> oldAttributes, Map<String, Attribute> newAttributes) {
+
+        Set<String> names = new LinkedHashSet<>(oldAttributes.keySet());
+        names.addAll(newAttributes.keySet());
+        return names;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.exceptions.NotFoundException;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Utilities for the stages of the asynchronous endpoints.
+ */
+public final class CompletionStageUtil {
+
+    private CompletionStageUtil() {
+
+    }
+
+    /**
+     * Returns a stage already completed without a value, for a result which is absent, such as a missing resource
+     * or an operation without a response.
+     *
+     * @param <T> Type of the value of the stage.
+     * @return Stage completed with null.
+     */
+    public static <T> CompletionStage<T> completedEmpty() {
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Returns a stage already completed exceptionally, for an operation which fails before it starts.
+     *
+     * @param throwable Exception of the operation.
+     * @param <T>       Type of the value of the stage.
+     * @return Stage completed with the exception.
+     */
+    public static <T> CompletionStage<T> completedExceptionally(Throwable throwable) {
+
+        CompletableFuture<T> stage = new CompletableFuture<>();
+        stage.completeExceptionally(throwable);
+        return stage;
+    }
+
+    /**
+     * Returns a stage already completed, to chain further stages after.
+     *
+     * @return Completed stage.
+     */
+    public static CompletionStage<Void> completed() {
+
+        return CompletableFuture.allOf();
+    }
+
+    /**
+     * Looks several resources up by their ids at once, each by its own lookup. Ids without a resource, whether the
+     * lookup completes with null or with a {@link NotFoundException}, are left out, and any other failure of a
+     * lookup fails the stage.
+     *
+     * @param ids    Ids of the resources.
+     * @param lookup Looks a resource up by its id.
+     * @param <T>    Type of the resources.
+     * @return Stage of the resources found, keyed by id in the order of the ids.
+     */
+    public static <T> CompletionStage<Map<String, T>> getAllByIds(Collection<String> ids,
+                                                                  Function<String, CompletionStage<T>> lookup) {
+
+        Map<String, CompletableFuture<T>> lookups = new LinkedHashMap<>();
+        for (String id : ids) {
+            lookups.computeIfAbsent(id, key -> lookup.apply(key).handle((resource, throwable) -> {
+                if (throwable == null || getCause(throwable) instanceof NotFoundException) {
+                    return resource;
+                }
+                throw new CompletionException(getCause(throwable));
+            }).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, T> resources = new LinkedHashMap<>();
+            lookups.forEach((id, resourceLookup) -> {
+                T resource = resourceLookup.join();
+                if (resource != null) {
+                    resources.put(id, resource);
+                }
+            });
+            return resources;
+        });
+    }
+
+    /**
+     * Unwraps the exception a stage failed with from the completion exceptions the stages wrap it in.
+     *
+     * @param throwable Exception a stage completed with.
+     * @return Exception the stage failed with.
+     */
+    public static Throwable getCause(Throwable throwable) {
+
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) &&
+                cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
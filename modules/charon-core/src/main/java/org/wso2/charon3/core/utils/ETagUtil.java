@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
+import org.wso2.charon3.core.objects.ScimAttributeAware;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Utility methods for resource versions (meta.version) and the entity tags derived from them.
+ * <p>
+ * SCIM servers compare versions weakly (RFC 7644, section 3.14), so the "W/" prefix of an entity tag is not
+ * significant when matching a precondition header against the current version of a resource.
+ */
+public class ETagUtil {
+
+    private static final String ANY_ENTITY_TAG = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Generate a new opaque version for a resource that is being written.
+     *
+     * @return New version.
+     */
+    public static String generateVersion() {
+
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Returns the version an entity tag of the given resource is computed from: meta.version if the resource has
+     * one, otherwise its last modified time.
+     *
+     * @param resource SCIM resource.
+     * @return Version of the resource, or null if it carries neither a version nor a last modified time.
+     */
+    public static String getVersion(ScimAttributeAware resource) {
+
+        String version = resource.getVersion();
+        if (version != null) {
+            return version;
+        }
+        Instant lastModified = resource.getLastModifiedInstant();
+        return lastModified == null ? null : Long.toString(lastModified.toEpochMilli());
+    }
+
+    /**
+     * Build the weak entity tag of a version.
+     *
+     * @param version Version of a resource.
+     * @return Weak entity tag, e.g. W/"3694e05e9dff590".
+     */
+    public static String toWeakETag(String version) {
+
+        return WEAK_PREFIX + "\"" + version + "\"";
+    }
+
+    /**
+     * Check whether the If-None-Match header value lets a conditional GET proceed, i.e. whether the client does not
+     * already hold the current version of the resource.
+     *
+     * @param ifNoneMatch    Value of the If-None-Match header. Null means the request is unconditional.
+     * @param currentVersion Current version of the resource. Null if the version is not known.
+     * @return True if the resource has to be returned, false if a 304 response is enough.
+     */
+    public static boolean isIfNoneMatchSatisfied(String ifNoneMatch, String currentVersion) {
+
+        if (ifNoneMatch == null || currentVersion == null) {
+            return true;
+        }
+        if (ANY_ENTITY_TAG.equals(ifNoneMatch.trim())) {
+            return false;
+        }
+        return !containsVersion(ifNoneMatch, currentVersion);
+    }
+
+    /**
+     * Check whether the If-Match header value is satisfied by the current version of a resource.
+     *
+     * @param ifMatch        Value of the If-Match header. Null means the request is unconditional.
+     * @param currentVersion Current version of the resource. Null if the resource is not versioned.
+     * @return True if the request may proceed.
+     */
+    public static boolean isIfMatchSatisfied(String ifMatch, String currentVersion) {
+
+        if (ifMatch == null) {
+            return true;
+        }
+        if (ANY_ENTITY_TAG.equals(ifMatch.trim())) {
+            return true;
+        }
+        return currentVersion != null && containsVersion(ifMatch, currentVersion);
+    }
+
+    /**
+     * Fail with a precondition failure if the If-Match header is not satisfied by the current version.
+     *
+     * @param ifMatch        Value of the If-Match header.
+     * @param currentVersion Current version of the resource.
+     * @throws PreConditionFailedException If the precondition does not hold.
+     */
+    public static void checkIfMatch(String ifMatch, String currentVersion) throws PreConditionFailedException {
+
+        if (!isIfMatchSatisfied(ifMatch, currentVersion)) {
+            throw new PreConditionFailedException();
+        }
+    }
+
+    /**
+     * Check whether a list of entity tags, as sent in a precondition header, contains the given version.
+     *
+     * @param entityTags Comma separated entity tags.
+     * @param version    Version to look for.
+     * @return True if one of the entity tags refers to the version.
+     */
+    public static boolean containsVersion(String entityTags, String version) {
+
+        for (String entityTag : entityTags.split(",")) {
+            if (version.equals(toVersion(entityTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Strip the weak indicator and the quotes of an entity tag.
+     *
+     * @param entityTag Entity tag as sent by the client.
+     * @return Opaque version.
+     */
+    public static String toVersion(String entityTag) {
+
+        String version = entityTag.trim();
+        if (version.startsWith(WEAK_PREFIX)) {
+            version = version.substring(WEAK_PREFIX.length());
+        }
+        if (version.length() >= 2 && version.startsWith("\"") && version.endsWith("\"")) {
+            version = version.substring(1, version.length() - 1);
+        }
+        return version;
+    }
+}
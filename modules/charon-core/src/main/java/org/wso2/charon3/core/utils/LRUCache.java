@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread safe cache of at most a given number of entries, which evicts the least recently used entry to make room
+ * for a new one.
+ * <p>
+ * Values are computed outside of the lock of the cache, so two threads missing the same key may both compute a
+ * value, of which the one cached first is returned to both.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class LRUCache<K, V> {
+
+    private final int maximumSize;
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * @param maximumSize Maximum number of entries, at least one.
+     */
+    public LRUCache(int maximumSize) {
+
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive : " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 2185245472693917402L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+
+                return super.size() > LRUCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value of the given key, computing and caching it if it is not cached.
+     *
+     * @param key     Key.
+     * @param compute Function computing the value of a key, never returning null.
+     * @return Cached value.
+     */
+    public V get(K key, Function<K, V> compute) {
+
+        V value = get(key);
+        if (value == null) {
+            value = putIfAbsent(key, compute.apply(key));
+        }
+        return value;
+    }
+
+    /**
+     * @param key Key.
+     * @return Cached value of the key, null if it is not cached.
+     */
+    public V get(K key) {
+
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Cache the given value, unless a value of the key is already cached.
+     *
+     * @param key   Key, which must not be modified while it is cached.
+     * @param value Value.
+     * @return The cached value of the key.
+     */
+    public V putIfAbsent(K key, V value) {
+
+        V cached;
+        synchronized (entries) {
+            cached = entries.putIfAbsent(key, value);
+        }
+        return cached == null ? value : cached;
+    }
+
+    /**
+     * @return Number of cached entries.
+     */
+    public int size() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops the operations of a PATCH request that later operations of the same request make redundant, before the
+ * operations are applied. Applying the coalesced operations gives the same resource as applying all of them.
+ */
+public class PatchOperationCoalescer {
+
+    /**
+     * Drop the add and replace operations on a single-valued primitive attribute that a later add or replace of the
+     * same attribute overwrites, before any other operation on the attribute reads it. Only operations with a value
+     * of the type of the attribute are dropped, so a request fails on the same invalid operation either way.
+     *
+     * @param operations Operations in the order of the request.
+     * @param schema     Resource schema.
+     * @return Remaining operations, in the order of the request.
+     */
+    public static List<PatchOperation> coalesce(List<PatchOperation> operations, SCIMResourceTypeSchema schema) {
+
+        int size = operations.size();
+        if (size < 2) {
+            return operations;
+        }
+        AttributeSchema[] targets = new AttributeSchema[size];
+        AttributeSchema[] topLevelAttributes = new AttributeSchema[size];
+        for (int i = 0; i < size; i++) {
+            PatchOperation operation = operations.get(i);
+            if (operation.getPath() == null) {
+                continue;
+            }
+            List<AttributeSchema> attributeSchemas = PatchPath.compile(operation.getPath())
+                    .getAttributeSchemas(schema);
+            if (!attributeSchemas.isEmpty()) {
+                topLevelAttributes[i] = attributeSchemas.get(0);
+                targets[i] = getOverwrittenAttribute(operation, attributeSchemas);
+            }
+        }
+
+        List<PatchOperation> coalescedOperations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (targets[i] == null || !isOverwritten(i, targets, topLevelAttributes) ||
+                    !isOfType(operations.get(i).getValues(), targets[i].getType())) {
+                coalescedOperations.add(operations.get(i));
+            }
+        }
+        return coalescedOperations;
+    }
+
+    /**
+     * Coalesce the add and remove operations of a group PATCH request, which are handed to the user store together.
+     * The display name is set by the last operation setting it, and the members added by all the add operations are
+     * batched into a single operation, without the members added twice and the members a later operation removes
+     * again. Identical member removals are kept once.
+     *
+     * @param patchOperations Operations by the kind of operation, with the replace operations already turned into
+     *                        add operations and the values of the operations already decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public static void coalesceGroupOperations(Map<String, List<PatchOperation>> patchOperations) {
+
+        List<PatchOperation> addOperations = patchOperations.get(SCIMConstants.OperationalConstants.ADD);
+        List<PatchOperation> removeOperations = patchOperations.get(SCIMConstants.OperationalConstants.REMOVE);
+        if (addOperations == null || removeOperations == null) {
+            return;
+        }
+        Collections.sort(addOperations);
+
+        // Execution order of the last removal of each member removed by its value.
+        Map<String, Integer> lastRemovals = new HashMap<>();
+        Set<Object> removedValues = new HashSet<>();
+        List<PatchOperation> coalescedRemoveOperations = new ArrayList<>();
+        for (PatchOperation removeOperation : removeOperations) {
+            if (removeOperation.getValues() instanceof Map) {
+                String memberId = ((Map<String, String>) removeOperation.getValues())
+                        .get(SCIMConstants.GroupSchemaConstants.VALUE);
+                if (memberId != null) {
+                    lastRemovals.merge(memberId, removeOperation.getExecutionOrder(), Math::max);
+                }
+                if (!removedValues.add(removeOperation.getValues())) {
+                    continue;
+                }
+            }
+            coalescedRemoveOperations.add(removeOperation);
+        }
+        removeOperations.clear();
+        removeOperations.addAll(coalescedRemoveOperations);
+
+        PatchOperation displayNameOperation = null;
+        PatchOperation membersOperation = null;
+        Map<String, Map<String, String>> addedMembers = new LinkedHashMap<>();
+        List<PatchOperation> coalescedAddOperations = new ArrayList<>();
+        for (PatchOperation addOperation : addOperations) {
+            if (SCIMConstants.GroupSchemaConstants.DISPLAY_NAME.equals(addOperation.getAttributeName())) {
+                displayNameOperation = addOperation;
+            } else if (SCIMConstants.GroupSchemaConstants.MEMBERS.equals(addOperation.getAttributeName()) &&
+                    addOperation.getValues() instanceof List) {
+                if (membersOperation == null) {
+                    membersOperation = addOperation;
+                }
+                for (Map<String, String> member : (List<Map<String, String>>) addOperation.getValues()) {
+                    String memberId = member.get(SCIMConstants.GroupSchemaConstants.VALUE);
+                    Integer lastRemoval = lastRemovals.get(memberId);
+                    if (lastRemoval != null && lastRemoval > addOperation.getExecutionOrder()) {
+                        continue;
+                    }
+                    // A member added again keeps its place, and gets the display name it was last added with.
+                    Map<String, String> addedMember = addedMembers.get(memberId);
+                    if (addedMember == null || member.get(SCIMConstants.GroupSchemaConstants.DISPLAY) != null) {
+                        addedMembers.put(memberId, member);
+                    }
+                }
+            } else {
+                coalescedAddOperations.add(addOperation);
+            }
+        }
+        if (displayNameOperation != null) {
+            coalescedAddOperations.add(displayNameOperation);
+        }
+        if (membersOperation != null && !addedMembers.isEmpty()) {
+            membersOperation.setValues(new ArrayList<>(addedMembers.values()));
+            coalescedAddOperations.add(membersOperation);
+        }
+        Collections.sort(coalescedAddOperations);
+        addOperations.clear();
+        addOperations.addAll(coalescedAddOperations);
+    }
+
+    /*
+     * The single-valued primitive attribute an operation sets as a whole, null if the operation does something else.
+     */
+    private static AttributeSchema getOverwrittenAttribute(PatchOperation operation,
+                                                           List<AttributeSchema> attributeSchemas) {
+
+        if (!SCIMConstants.OperationalConstants.ADD.equals(operation.getOperation()) &&
+                !SCIMConstants.OperationalConstants.REPLACE.equals(operation.getOperation())) {
+            return null;
+        }
+        PatchPath path = PatchPath.compile(operation.getPath());
+        if (path.getParts().length != 1) {
+            return null;
+        }
+        // Paths qualified by a schema URI are left alone, the operations do not apply them the way they resolve.
+        if (path.getPath().contains(":")) {
+            return null;
+        }
+        // The path must resolve down to the attribute it ends with.
+        String[] names = path.getPath().split("\\.");
+        AttributeSchema attributeSchema = attributeSchemas.get(attributeSchemas.size() - 1);
+        if (attributeSchemas.size() != names.length ||
+                !attributeSchema.getName().equalsIgnoreCase(names[names.length - 1])) {
+            return null;
+        }
+        for (AttributeSchema pathSchema : attributeSchemas) {
+            if (pathSchema.getMultiValued()) {
+                return null;
+            }
+        }
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attributeSchema.getType()) ||
+                SCIMDefinitions.Mutability.READ_ONLY.equals(attributeSchema.getMutability()) ||
+                SCIMDefinitions.Mutability.IMMUTABLE.equals(attributeSchema.getMutability())) {
+            return null;
+        }
+        return attributeSchema;
+    }
+
+    /*
+     * Whether the first later operation on the top level attribute of an operation overwrites the same attribute.
+     * Operations without a path, or with a path that does not resolve, may touch any attribute.
+     */
+    private static boolean isOverwritten(int index, AttributeSchema[] targets, AttributeSchema[] topLevelAttributes) {
+
+        for (int i = index + 1; i < targets.length; i++) {
+            if (topLevelAttributes[i] == null || topLevelAttributes[i] == topLevelAttributes[index]) {
+                return targets[i] == targets[index];
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOfType(Object value, SCIMDefinitions.DataType type) {
+
+        switch (type) {
+            case STRING:
+            case REFERENCE:
+                return value instanceof String;
+            case BOOLEAN:
+                return value instanceof Boolean;
+            case INTEGER:
+                return value instanceof Integer || value instanceof Long;
+            case DECIMAL:
+                return value instanceof Number;
+            default:
+                // Date times and binaries are parsed from their values, which may fail.
+                return false;
+        }
+    }
+}
@@ -20,17 +20,12 @@ package org.wso2.charon3.core.utils;
 
 import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 import org.json.JSONTokener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wso2.charon3.core.aParser.Parser;
 import org.wso2.charon3.core.aParser.ParserException;
-import org.wso2.charon3.core.aParser.Rule;
-import org.wso2.charon3.core.aParser.Rule_valuePath;
 import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.attributes.ComplexAttribute;
-import org.wso2.charon3.core.attributes.DefaultAttributeFactory;
 import org.wso2.charon3.core.attributes.MultiValuedAttribute;
 import org.wso2.charon3.core.attributes.SimpleAttribute;
 import org.wso2.charon3.core.encoder.JSONDecoder;
@@ -50,10 +45,10 @@ import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This provides the methods on the PATCH operation of any resource type.
@@ -65,647 +60,218 @@ public class PatchOperationUtil {
     private static final Logger log = LoggerFactory.getLogger(PatchOperationUtil.class);
     public static final int VALUE_PATH_RULE_SIZE = 4;
 
-    /*
-     * This method corresponds to the remove operation in patch requests.
-     * @param operation
-     * @param decoder
-     * @param oldResource
-     * @param copyOfOldResource
-     * @return
+    /**
+     * Apply a sequence of patch operations to a copy of a resource, which is left unmodified.
+     * <p>
+     * Each operation is validated against the resource as it was before the operation. Instead of copying the whole
+     * resource before every operation, the state before an operation shares the attributes the operation does not
+     * modify with the patched resource, and holds copies of the ones it does. If the attributes an operation modifies
+     * can not be told from its path or value, the whole resource is copied.
+     * <p>
+     * The patched copy holds its own meta attribute, so the resource is still left unmodified when the copy is then
+     * validated against it and given a new version and last modified time.
+     *
+     * @param operations Patch operations, in the order of the request.
+     * @param decoder    JSON decoder.
+     * @param resource   Resource to patch.
+     * @param schema     SCIM resource schema.
+     * @return The patched copy of the resource, null if there are no operations.
+     * @throws CharonException
      * @throws BadRequestException
-     * @throws IOException
      * @throws NotImplementedException
-     * @throws CharonException
+     * @throws InternalErrorException
      */
-    public static AbstractSCIMObject doPatchRemove(PatchOperation operation, AbstractSCIMObject oldResource,
-                                                   AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema)
-            throws BadRequestException, NotImplementedException, CharonException {
-
-        if (operation.getPath() == null) {
-            throw new BadRequestException
-                    ("No path value specified for remove operation", ResponseCodeConstants.NO_TARGET);
-        }
-
-        if (SCIMConstants.RoleSchemaConstants.PERMISSIONS.equalsIgnoreCase(operation.getPath())) {
-            throw new NotImplementedException("Removing permissions not permitted.");
-        }
-
-        String path = operation.getPath();
-        //split the path to extract the filter if present.
-        String[] parts = path.split("[\\[\\]]");
-
-        if (parts.length != 1) {
-            //currently we only support simple filters here.
-            String[] filterParts = parts[1].split(" ");
-
-            ExpressionNode expressionNode = new ExpressionNode();
-            expressionNode.setAttributeValue(filterParts[0]);
-            expressionNode.setOperation(filterParts[1]);
-            // According to the specification filter attribute value specified with quotation mark, so we need to
-            // remove it if exists.
-            expressionNode.setValue(filterParts[2].replaceAll("^\"|\"$", ""));
-
-            if (expressionNode.getOperation().equalsIgnoreCase((SCIMConstants.OperationalConstants.EQ).trim())) {
+    public static AbstractSCIMObject doPatchOperations(List<PatchOperation> operations, JSONDecoder decoder,
+                                                       AbstractSCIMObject resource, SCIMResourceTypeSchema schema)
+            throws CharonException, BadRequestException, NotImplementedException, InternalErrorException {
 
-                doPatchRemoveWithFilters(parts, oldResource, expressionNode);
+        if (operations.isEmpty()) {
+            return null;
+        }
+        AbstractSCIMObject patchedResource = (AbstractSCIMObject) CopyUtil.deepCopy(resource);
+        AbstractSCIMObject resourceBeforeOperation = resource;
+        boolean firstOperation = true;
+        for (PatchOperation operation : operations) {
+            if (!firstOperation) {
+                resourceBeforeOperation = copyForOperation(operation, decoder, patchedResource, schema);
+            }
+            firstOperation = false;
+            if (SCIMConstants.OperationalConstants.ADD.equals(operation.getOperation())) {
+                patchedResource = doPatchAdd(operation, decoder, patchedResource, resourceBeforeOperation, schema);
+            } else if (SCIMConstants.OperationalConstants.REMOVE.equals(operation.getOperation())) {
+                patchedResource = doPatchRemove(operation, patchedResource, resourceBeforeOperation, schema);
+            } else if (SCIMConstants.OperationalConstants.REPLACE.equals(operation.getOperation())) {
+                patchedResource = doPatchReplace(operation, decoder, patchedResource, resourceBeforeOperation,
+                        schema);
             } else {
-                throw new NotImplementedException("Only Eq filter is supported");
+                throw new BadRequestException("Unknown operation.", ResponseCodeConstants.INVALID_SYNTAX);
             }
-        } else {
-
-            doPatchRemoveWithoutFilters(parts, oldResource);
         }
-        //validate the updated object
-        AbstractSCIMObject validatedResource =
-                ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
-
-        return validatedResource;
-
-    }
-
-    /*
-     * This is the patch remove operation when the path is specified with a filter in it.
-     * @param parts
-     * @param oldResource
-     * @param expressionNode
-     * @throws BadRequestException
-     * @throws CharonException
-     */
-    private static AbstractSCIMObject doPatchRemoveWithFilters(String[] parts,
-                                                               AbstractSCIMObject oldResource,
-                                                               ExpressionNode expressionNode)
-            throws BadRequestException, CharonException, NotImplementedException {
-
-        if (parts.length == 3) {
-            parts[0] = parts[0] + parts[2];
-        }
-        String[] attributeParts = getAttributeParts(parts[0]);
-
-        if (attributeParts.length == 1) {
-
-            doPatchRemoveWithFiltersForLevelOne(oldResource, attributeParts, expressionNode);
-
-        } else if (attributeParts.length == 2) {
-
-            doPatchRemoveWithFiltersForLevelTwo(oldResource, attributeParts, expressionNode);
-
-        } else if (attributeParts.length == 3) {
-
-            doPatchRemoveWithFiltersForLevelThree(oldResource, attributeParts, expressionNode);
-        }
-        return oldResource;
+        return patchedResource;
     }
 
     /**
-     * Calculate the parts of an attribute URI
-     * @param attributeURI
-     * @return
+     * Returns the names of the top level attributes the operations may modify, for the patched resource to be
+     * validated for those attributes only. The names are resolved once per operation, so the operations
+     * {@link #doPatchOperations} applied are not decoded again.
+     *
+     * @param operations Operations of the request.
+     * @param decoder    Decoder to decode the values of operations without a path with.
+     * @param schema     Resource schema.
+     * @return Names of the attributes as named by the schema, null if they can not be told for some operation.
      */
-    private static String[] getAttributeParts(String attributeURI) {
-        ArrayList<String> tempAttributeNames = new ArrayList<>();
-        String extensionURI = "";
-        String[] attributeURIParts = attributeURI.split(":");
-
-        StringBuffer buf = new StringBuffer();
-        for (int i = 0; i < attributeURIParts.length - 1; ++i) {
-            buf.append(":");
-            buf.append(attributeURIParts[i]);
-        }
-        extensionURI = buf.toString();
-
-        String attributeNameString = attributeURIParts[attributeURIParts.length - 1];
-        String[] attributeNames = attributeNameString.split("\\.");
-
-        if (attributeURIParts.length > 1) {
-            tempAttributeNames.add(extensionURI.substring(1));
-        }
+    public static Set<String> getModifiedAttributeNames(List<PatchOperation> operations, JSONDecoder decoder,
+                                                        SCIMResourceTypeSchema schema) {
 
-        for (int i = 0; i < attributeNames.length; i++) {
-            tempAttributeNames.add(attributeNames[i]);
+        Set<String> attributeNames = new HashSet<>();
+        for (PatchOperation operation : operations) {
+            Set<String> operationAttributeNames = getModifiedAttributeNames(operation, decoder, schema);
+            if (operationAttributeNames == null) {
+                return null;
+            }
+            attributeNames.addAll(operationAttributeNames);
         }
-
-        return tempAttributeNames.toArray(attributeNames);
+        return attributeNames;
     }
 
     /*
-     *
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
-     * @return
-     * @throws BadRequestException
-     * @throws CharonException
+     * Copy of the resource to validate an operation against, sharing the attributes the operation does not modify.
      */
-    private static AbstractSCIMObject doPatchRemoveWithFiltersForLevelThree(AbstractSCIMObject oldResource,
-                                                                            String[] attributeParts,
-                                                                            ExpressionNode expressionNode)
-            throws BadRequestException, CharonException, NotImplementedException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        if (attribute != null) {
-
-            Attribute subAttribute = attribute.getSubAttribute(attributeParts[1]);
-
-            if (subAttribute != null) {
-                if (subAttribute.getMultiValued()) {
-
-                    List<Attribute> subValues = ((MultiValuedAttribute) subAttribute).getAttributeValues();
-                    if (subValues != null) {
-                        for (Attribute subValue: subValues) {
-                            Map<String, Attribute> subSubAttributes =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            //this map is to avoid concurrent modification exception.
-                            Map<String, Attribute> tempSubSubAttributes = (Map<String, Attribute>)
-                                    CopyUtil.deepCopy(subSubAttributes);
-
-                            for (Iterator<Attribute> iterator = tempSubSubAttributes.values().iterator();
-                                 iterator.hasNext();) {
-                                Attribute subSubAttribute = iterator.next();
-
-                                if (subSubAttribute.getName().equals(expressionNode.getAttributeValue())) {
-
-                                    Attribute removingAttribute = subSubAttributes.get(attributeParts[2]);
-                                    if (removingAttribute == null) {
-                                        throw new BadRequestException("No such sub attribute with the name : " +
-                                                attributeParts[2] + " " + "within the attribute " +
-                                                attributeParts[1], ResponseCodeConstants.INVALID_PATH);
-                                    }
-                                    if (removingAttribute.getMutability().equals
-                                            (SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            removingAttribute.getRequired().equals(true)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a required attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-
-                                        ((ComplexAttribute) subValue).removeSubAttribute
-                                                (removingAttribute.getName());
-                                    }
-                                }
-                            }
-                        }
-                        if (subValues.size() == 0) {
-                            //if the attribute has no values, make it unassigned
-                            ((ComplexAttribute) attribute).removeSubAttribute(subAttribute.getName());
-                        }
-                    }
-                } else {
-                    // This is only valid for extensions.
-                    Attribute subSubAttribute = subAttribute.getSubAttribute(attributeParts[2]);
-                    if (subSubAttribute == null) {
-                        String error =
-                                String.format("No such sub attribute with the name : %s within the attribute %s",
-                                        attributeParts[2], attributeParts[1]);
-                        throw new BadRequestException(error, ResponseCodeConstants.INVALID_PATH);
-                    }
-                    if (!subSubAttribute.getMultiValued()) {
-                        String error = "Attribute : " + attributeParts[2] + " is not a multivalued attribute.";
-                        throw new BadRequestException(error, ResponseCodeConstants.INVALID_PATH);
-                    }
+    private static AbstractSCIMObject copyForOperation(PatchOperation operation, JSONDecoder decoder,
+                                                       AbstractSCIMObject resource, SCIMResourceTypeSchema schema)
+            throws CharonException {
 
-                    // We only support "EQ" filter.
-                    if (!(SCIMConstants.OperationalConstants.VALUE).equals(expressionNode.getAttributeValue()) ||
-                            !((SCIMConstants.OperationalConstants.EQ).trim())
-                                    .equalsIgnoreCase(expressionNode.getOperation())) {
-                        throw new NotImplementedException(
-                                "Only Eq filter is supported based on implicit value attribute.");
-                    }
+        Set<String> operationAttributeNames = getModifiedAttributeNames(operation, decoder, schema);
+        if (operationAttributeNames == null) {
+            return (AbstractSCIMObject) CopyUtil.deepCopy(resource);
+        }
+        // The resource may name an attribute in another case than the schema does.
+        List<String> modifiedAttributeNames = new ArrayList<>();
+        for (String name : operationAttributeNames) {
+            addAttributeName(name, resource, modifiedAttributeNames);
+        }
+        // The validation of the operation updates the meta attribute of the patched resource.
+        modifiedAttributeNames.add(SCIMConstants.CommonSchemaConstants.META);
 
-                    List<Object> valuesList = ((MultiValuedAttribute) (subSubAttribute)).getAttributePrimitiveValues();
-                    for (Iterator<Object> iterator = valuesList.iterator(); iterator.hasNext(); ) {
-                        Object item = iterator.next();
-                        if (item.equals(expressionNode.getValue())) {
-                            if ((SCIMDefinitions.Mutability.READ_ONLY).equals(subSubAttribute.getMutability()) ||
-                                    subSubAttribute.getRequired().equals(true)) {
-                                throw new BadRequestException
-                                        ("Can not remove a required attribute or a read-only attribute",
-                                                ResponseCodeConstants.MUTABILITY);
-                            }
-                            iterator.remove();
-                        }
-                    }
-                    // If the attribute has no values, make it unassigned.
-                    if (((MultiValuedAttribute) (subSubAttribute)).getAttributePrimitiveValues().size() == 0) {
-                        ((ComplexAttribute) subAttribute).removeSubAttribute(subSubAttribute.getName());
-                    }
-                }
+        AbstractSCIMObject copy;
+        try {
+            copy = resource.getClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new CharonException("Error in copying the resource.", e);
+        }
+        copy.getSchemaList().addAll(resource.getSchemaList());
+        for (Map.Entry<String, Attribute> attribute : resource.getAttributeList().entrySet()) {
+            if (modifiedAttributeNames.contains(attribute.getKey())) {
+                copy.getAttributeList().put(attribute.getKey(), (Attribute) CopyUtil.deepCopy(attribute.getValue()));
             } else {
-                throw new BadRequestException("No such sub attribute with the name : " + attributeParts[1] + " " +
-                        "within the attribute " + attributeParts[0], ResponseCodeConstants.INVALID_PATH);
+                copy.getAttributeList().put(attribute.getKey(), attribute.getValue());
             }
-
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[0] + " " +
-                    "in the current resource", ResponseCodeConstants.INVALID_PATH);
         }
-        return oldResource;
+        return copy;
     }
 
     /*
-     *
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
-     * @return
-     * @throws BadRequestException
-     * @throws CharonException
+     * Names of the top level attributes an operation may modify as named by the schema, null if they can not be
+     * told. Resolved once and kept by the operation.
      */
-    private static AbstractSCIMObject doPatchRemoveWithFiltersForLevelTwo(AbstractSCIMObject oldResource,
-                                                                          String[] attributeParts,
-                                                                          ExpressionNode expressionNode)
-            throws BadRequestException, CharonException, NotImplementedException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        if (attribute != null) {
-
-            if (attribute.getMultiValued()) {
-
-                List<Attribute> subValues = ((MultiValuedAttribute) attribute).getAttributeValues();
-                if (subValues != null) {
-                    for (Attribute subValue: subValues) {
-                        Map<String, Attribute> subAttributes = ((ComplexAttribute) subValue).getSubAttributesList();
-                        //this map is to avoid concurrent modification exception.
-                        Map<String, Attribute> tempSubAttributes = (Map<String, Attribute>)
-                                CopyUtil.deepCopy(subAttributes);
-
-                        for (Iterator<Attribute> iterator = tempSubAttributes.values().iterator();
-                             iterator.hasNext();) {
-                            Attribute subAttribute = iterator.next();
-
-                            if (subAttribute.getName().equals(expressionNode.getAttributeValue())) {
-                                if (((SimpleAttribute) subAttribute).getValue().equals(expressionNode.getValue())) {
-                                    Attribute removingAttribute = subAttributes.get(attributeParts[1]);
-                                    if (removingAttribute == null) {
-                                        throw new BadRequestException
-                                                ("No such sub attribute with the name : " + attributeParts[1] + " " +
-                                                        "within the attribute " + attributeParts[0],
-                                                        ResponseCodeConstants.INVALID_PATH);
-                                    }
-                                    if (removingAttribute.getMutability().
-                                            equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            removingAttribute.getRequired().equals(true)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a required attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-
-                                        ((ComplexAttribute) subValue).removeSubAttribute(removingAttribute.getName());
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    if (subValues.size() == 0) {
-                        //if the attribute has no values, make it unassigned
-                        oldResource.deleteAttribute(attribute.getName());
-                    }
-                }
-            } else if (attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                //this is only valid for extension
-                Attribute subAttribute  = attribute.getSubAttribute(attributeParts[1]);
-                if (subAttribute == null) {
-                    throw new BadRequestException("No such sub attribute with the name : "
-                            + attributeParts[1] + " " + "within the attribute " + attributeParts[0],
-                            ResponseCodeConstants.INVALID_PATH);
-                }
-                if ((SCIMDefinitions.DataType.COMPLEX).equals(subAttribute.getType())) {
-                    List<Attribute> subValues = ((MultiValuedAttribute) (subAttribute)).getAttributeValues();
-                    if (subValues != null) {
-                        for (Iterator<Attribute> subValueIterator = subValues.iterator();
-                             subValueIterator.hasNext(); ) {
-                            Attribute subValue = subValueIterator.next();
-                            Map<String, Attribute> subValuesSubAttribute =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            for (Iterator<Attribute> iterator =
-                                 subValuesSubAttribute.values().iterator(); iterator.hasNext(); ) {
-                                Attribute subSubAttribute = iterator.next();
-                                if (subSubAttribute.getName().equals(expressionNode.getAttributeValue())) {
-                                    if (((SimpleAttribute) (subSubAttribute)).getValue().equals
-                                            (expressionNode.getValue())) {
-                                        if (subValue.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                                subValue.getRequired().equals(true)) {
-                                            throw new BadRequestException
-                                                    ("Can not remove a required attribute or a read-only attribute",
-                                                            ResponseCodeConstants.MUTABILITY);
-
-                                        }
-                                        subValueIterator.remove();
-                                    }
-                                }
-                            }
-                        }
-                        // If the attribute has no values, make it unassigned.
-                        if (((MultiValuedAttribute) (subAttribute)).getAttributeValues().size() == 0) {
-                            ((ComplexAttribute) attribute).removeSubAttribute(subAttribute.getName());
-                        }
-                    }
-                } else {
-                    // We only support "EQ" filter.
-                    if (!(SCIMConstants.OperationalConstants.VALUE).equals(expressionNode.getAttributeValue()) ||
-                            !((SCIMConstants.OperationalConstants.EQ).trim())
-                                    .equalsIgnoreCase(expressionNode.getOperation())) {
-                        throw new NotImplementedException(
-                                "Only Eq filter is supported based on implicit value attribute.");
-                    }
+    private static Set<String> getModifiedAttributeNames(PatchOperation operation, JSONDecoder decoder,
+                                                         SCIMResourceTypeSchema schema) {
 
-                    List<Object> subValues = ((MultiValuedAttribute) (subAttribute)).getAttributePrimitiveValues();
-                    for (Iterator<Object> iterator = subValues.iterator(); iterator.hasNext(); ) {
-                        Object item = iterator.next();
-                        if (item.equals(expressionNode.getValue())) {
-                            if ((SCIMDefinitions.Mutability.READ_ONLY).equals(subAttribute.getMutability()) ||
-                                    subAttribute.getRequired().equals(true)) {
-                                throw new BadRequestException(
-                                        "Can not remove a required attribute or a read-only attribute",
-                                        ResponseCodeConstants.MUTABILITY);
-                            }
-                            iterator.remove();
-                        }
-                    }
-                    // If the attribute has no values, make it unassigned.
-                    if (((MultiValuedAttribute) (subAttribute)).getAttributePrimitiveValues().size() == 0) {
-                        ((ComplexAttribute) attribute).removeSubAttribute(subAttribute.getName());
+        if (operation.isModifiedAttributeNamesResolved()) {
+            return operation.getModifiedAttributeNames();
+        }
+        Set<String> attributeNames = new HashSet<>();
+        if (operation.getPath() != null) {
+            if (!addModifiedAttributeName(operation.getPath().trim(), schema, attributeNames)) {
+                attributeNames = null;
+            }
+        } else if (operation.getValues() != null) {
+            try {
+                AbstractSCIMObject values = decoder.decode(operation.getValues().toString(), schema);
+                for (String valueName : values.getAttributeList().keySet()) {
+                    if (!addModifiedAttributeName(valueName, schema, attributeNames)) {
+                        attributeNames = null;
+                        break;
                     }
                 }
-            } else {
-                throw new BadRequestException("Attribute : " + expressionNode.getAttributeValue() + " " +
-                        "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
+            } catch (CharonException | BadRequestException e) {
+                // The operation reports the error.
+                attributeNames = null;
             }
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[0] + " " +
-                    "in the current resource", ResponseCodeConstants.INVALID_PATH);
         }
-        return oldResource;
+        operation.setModifiedAttributeNames(attributeNames);
+        return attributeNames;
     }
 
-
     /*
-     *
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
-     * @return
-     * @throws BadRequestException
-     * @throws CharonException
+     * Adds the name of the attribute a path starts with. Returns false if the path does not start with an attribute
+     * of the schema.
      */
-    private static AbstractSCIMObject doPatchRemoveWithFiltersForLevelOne(AbstractSCIMObject oldResource,
-                                                                          String[] attributeParts,
-                                                                          ExpressionNode expressionNode)
-            throws BadRequestException, CharonException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-
-        if (attribute != null) {
-            if (!attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                    if (attribute.getMultiValued()) {
-
-                        List<Object> valuesList  = ((MultiValuedAttribute)
-                                (attribute)).getAttributePrimitiveValues();
-                        for (Iterator<Object> iterator =
-                             valuesList.iterator(); iterator.hasNext();) {
-                            Object item = iterator.next();
-                            //we only support "EQ" filter
-                            if (item.equals(expressionNode.getValue())) {
-                                if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                        attribute.getRequired().equals(true)) {
-                                    throw new BadRequestException
-                                            ("Can not remove a required attribute or a read-only attribute",
-                                                    ResponseCodeConstants.MUTABILITY);
-                                } else {
-                                    iterator.remove();
-                                }
-                            }
-                        }
-                        //if the attribute has no values, make it unassigned
-                        if (((MultiValuedAttribute) (attribute)).getAttributePrimitiveValues().size() == 0) {
-                            oldResource.deleteAttribute(attribute.getName());
-                        }
-
-                    } else {
-                        throw new BadRequestException("Attribute : " + expressionNode.getAttributeValue() + " " +
-                                "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-                    }
+    private static boolean addModifiedAttributeName(String path, SCIMResourceTypeSchema schema,
+                                                    Set<String> attributeNames) {
 
-            } else {
-                if (attribute.getMultiValued()) {
-                    //this is for paths value as 'emails[value EQ vindula@wso2.com]'
-                    //this is multivalued complex case
-
-                    List<Attribute> subValues = ((MultiValuedAttribute) (attribute)).getAttributeValues();
-                    if (subValues != null) {
-                        for (Iterator<Attribute> subValueIterator = subValues.iterator();
-                             subValueIterator.hasNext();) {
-                            Attribute subValue = subValueIterator.next();
-
-                            Map<String, Attribute> subValuesSubAttribute =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            for (Iterator<Attribute> iterator =
-                                 subValuesSubAttribute.values().iterator(); iterator.hasNext();) {
-
-                                Attribute subAttribute = iterator.next();
-                                if (subAttribute.getName().equals(expressionNode.getAttributeValue())) {
-                                    if (((SimpleAttribute)
-                                            (subAttribute)).getValue().equals(expressionNode.getValue())) {
-                                        if (subValue.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                                subValue.getRequired().equals(true)) {
-                                            throw new BadRequestException
-                                                    ("Can not remove a required attribute or a read-only attribute",
-                                                            ResponseCodeConstants.MUTABILITY);
-                                        } else {
-                                            subValueIterator.remove();
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        //if the attribute has no values, make it unassigned
-                        if (((MultiValuedAttribute) (attribute)).getAttributeValues().size() == 0) {
-                            oldResource.deleteAttribute(attribute.getName());
-                        }
-                    }
-                } else {
-                    //this is complex attribute which has multi valued primitive sub attribute.
-                    Attribute subAttribute = attribute.getSubAttribute(expressionNode.getAttributeValue());
-                    if (subAttribute != null) {
-
-                        if (subAttribute.getMultiValued() && !subAttribute.getType().equals
-                                (SCIMDefinitions.DataType.COMPLEX)) {
-                            List<Object> valuesList  = ((MultiValuedAttribute)
-                                    (subAttribute)).getAttributePrimitiveValues();
-                            for (Iterator<Object> iterator =
-                                 valuesList.iterator(); iterator.hasNext();) {
-                                Object item = iterator.next();
-                                //we only support "EQ" filter
-                                if (item.equals(expressionNode.getValue())) {
-                                    if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            subAttribute.getRequired().equals(true)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a required attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-                                        iterator.remove();
-                                    }
-                                }
-                            }
-                            //if the subAttribute has no values, make it unassigned
-                            if (((MultiValuedAttribute) (subAttribute)).getAttributePrimitiveValues().size() == 0) {
-                                ((ComplexAttribute) (attribute)).removeSubAttribute(subAttribute.getName());
-                            }
+        List<AttributeSchema> attributeSchemas = PatchPath.compile(path).getAttributeSchemas(schema);
+        if (attributeSchemas.isEmpty()) {
+            return false;
+        }
+        attributeNames.add(attributeSchemas.get(0).getName());
+        return true;
+    }
 
-                        } else {
-                            throw new BadRequestException("Sub attribute : " +
-                                    expressionNode.getAttributeValue() + " " +
-                                    "is not a primitive multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-                        }
+    private static void addAttributeName(String name, AbstractSCIMObject resource, List<String> attributeNames) {
 
-                    } else {
-                        throw new BadRequestException("No sub attribute with the name : " +
-                                expressionNode.getAttributeValue() + " " +
-                                "in the attribute : " + attributeParts[0], ResponseCodeConstants.INVALID_PATH);
-                    }
-                }
+        for (String attributeName : resource.getAttributeList().keySet()) {
+            if (name.equalsIgnoreCase(attributeName)) {
+                attributeNames.add(attributeName);
             }
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[0] + " " +
-                    "in the current resource", ResponseCodeConstants.INVALID_PATH);
         }
-        return oldResource;
     }
 
     /*
-     * This is the patch remove operation when the path is specified without a filter in it.
-     * @param parts
+     * This method corresponds to the remove operation in patch requests.
+     * @param operation
+     * @param decoder
      * @param oldResource
+     * @param copyOfOldResource
      * @return
      * @throws BadRequestException
+     * @throws IOException
+     * @throws NotImplementedException
      * @throws CharonException
      */
-    private static AbstractSCIMObject doPatchRemoveWithoutFilters
-    (String[] parts, AbstractSCIMObject oldResource) throws BadRequestException, CharonException {
+    public static AbstractSCIMObject doPatchRemove(PatchOperation operation, AbstractSCIMObject oldResource,
+                                                   AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema)
+            throws BadRequestException, NotImplementedException, CharonException {
 
-        String[] attributeParts = getAttributeParts(parts[0]);
-        if (attributeParts.length == 1) {
+        if (operation.getPath() == null) {
+            throw new BadRequestException
+                    ("No path value specified for remove operation", ResponseCodeConstants.NO_TARGET);
+        }
 
-            Attribute attribute = oldResource.getAttribute(parts[0]);
+        if (SCIMConstants.RoleSchemaConstants.PERMISSIONS.equalsIgnoreCase(operation.getPath())) {
+            throw new NotImplementedException("Removing permissions not permitted.");
+        }
 
-            if (attribute != null) {
-                if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                        attribute.getRequired().equals(true)) {
-                    throw new BadRequestException("Can not remove a required attribute or a read-only attribute",
-                            ResponseCodeConstants.MUTABILITY);
-                } else {
-                    String attributeName = attribute.getName();
-                    oldResource.deleteAttribute(attributeName);
-                }
+        PatchPath path = PatchPath.compile(operation.getPath());
+        PatchPathNavigator navigator = new PatchPathNavigator(oldResource);
+        try {
+            if (path.getParts().length != 1) {
+                navigator.remove(path, getEqFilter(path));
             } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[0] + " " +
-                        "in the current resource", ResponseCodeConstants.INVALID_PATH);
-            }
-
-        } else {
-            Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-            if (attribute != null) {
-                if (attribute.getMultiValued()) {
-                    //this is multivalued complex case
-                    List<Attribute> subValuesList = ((MultiValuedAttribute) attribute).getAttributeValues();
-
-                    if (subValuesList != null) {
-
-                        for (Attribute subValue : subValuesList) {
-                            Map<String, Attribute> subSubAttributeList =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            //need to remove attributes while iterating through the list.
-                            for (Iterator<Attribute> iterator =
-                                 subSubAttributeList.values().iterator(); iterator.hasNext();) {
-                                Attribute subSubAttribute = iterator.next();
-
-                                if (subSubAttribute.getName().equals(attributeParts[1])) {
-
-                                    if (subSubAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            subSubAttribute.getRequired().equals(true)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a required attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-                                        iterator.remove();
-                                    }
-                                }
-                            }
-                        }
-                    }
 
-                } else {
-                    Attribute subAttribute = attribute.getSubAttribute(attributeParts[1]);
-                    if (subAttribute != null) {
-                        if (attributeParts.length == 3) {
-
-                            if (subAttribute.getMultiValued()) {
-
-                                List<Attribute> subSubValuesList = ((MultiValuedAttribute)
-                                        subAttribute).getAttributeValues();
-
-                                if (subSubValuesList != null) {
-                                    for (Attribute subSubValue : subSubValuesList) {
-                                        Map<String, Attribute> subSubAttributeList =
-                                                ((ComplexAttribute) subSubValue).getSubAttributesList();
-                                        //need to remove attributes while iterating through the list.
-                                        for (Iterator<Attribute> iterator =
-                                             subSubAttributeList.values().iterator(); iterator.hasNext();) {
-                                            Attribute subSubAttribute = iterator.next();
-
-                                            if (subSubAttribute.getName().equals(attributeParts[2])) {
-
-                                                if (subSubAttribute.getMutability().equals
-                                                        (SCIMDefinitions.Mutability.READ_ONLY) ||
-                                                        subSubAttribute.getRequired().equals(true)) {
-                                                    throw new BadRequestException
-                                                            ("Can not remove a required attribute or a read-only " +
-                                                                    "attribute", ResponseCodeConstants.MUTABILITY);
-                                                } else {
-                                                    iterator.remove();
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-
-                            } else {
-                                Attribute subSubAttribute = subAttribute.getSubAttribute(attributeParts[2]);
-                                if (subSubAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                        subSubAttribute.getRequired().equals(true)) {
-                                    throw new BadRequestException
-                                            ("Can not remove a required attribute or a read-only attribute",
-                                                    ResponseCodeConstants.MUTABILITY);
-                                } else {
-                                    String subSubAttributeName = subSubAttribute.getName();
-                                    ((ComplexAttribute) subAttribute).removeSubAttribute(subSubAttributeName);
-                                }
-                            }
-
-                        } else {
-                            //this is complex attribute's sub attribute check
-                            if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                    subAttribute.getRequired().equals(true)) {
-                                throw new BadRequestException
-                                        ("Can not remove a required attribute or a read-only attribute",
-                                                ResponseCodeConstants.MUTABILITY);
-                            } else {
-                                String subAttributeName = subAttribute.getName();
-                                ((ComplexAttribute) attribute).removeSubAttribute(subAttributeName);
-                            }
-                        }
-                    } else {
-                        throw new BadRequestException("No such sub attribute with the name : " +
-                                attributeParts[1] + " " + "in the attribute : " +
-                                attributeParts[0], ResponseCodeConstants.INVALID_PATH);
-                    }
-
-                }
-            } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[0] + " " +
-                        "in the current resource", ResponseCodeConstants.INVALID_PATH);
+                navigator.remove(path);
             }
+        } catch (BadRequestException e) {
+            // Leave the resource as it was when part of the matching attributes can not be removed.
+            navigator.undo();
+            throw e;
         }
-        return oldResource;
+        //validate the updated object
+        AbstractSCIMObject validatedResource =
+                ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
+
+        return validatedResource;
+
     }
 
     /**
@@ -741,7 +307,28 @@ public class PatchOperationUtil {
         }
 
         if (operation.getPath() != null) {
-            doPatchAddOnResourceWithPath(operation, decoder, oldResource, schema);
+            PatchPath path = PatchPath.compile(operation.getPath());
+            try {
+                path.isFilterConditionProvided();
+            } catch (ParserException e) {
+                throw new BadRequestException(
+                        ("Path value is not a valid syntax according to the SCIM PATCH PATH Rule. path: " + operation
+                                .getPath()), ResponseCodeConstants.INVALID_SYNTAX);
+            }
+            PatchPathNavigator navigator = new PatchPathNavigator(oldResource, schema, decoder);
+            try {
+                if (path.getParts().length != 1) {
+                    // Since the filter condition has been provided, we can consider this use-case behaviour as patch
+                    // replace with filters.
+                    navigator.replace(path, getEqFilter(path), operation.getValues());
+                } else {
+                    navigator.add(path, operation.getValues());
+                }
+            } catch (BadRequestException | CharonException | InternalErrorException e) {
+                // Leave the resource as it was when the value can not be added to every matching attribute.
+                navigator.undo();
+                throw e;
+            }
         } else {
             doPatchAddOnResource(operation, decoder, oldResource, copyOfOldResource, schema);
         }
@@ -751,2693 +338,256 @@ public class PatchOperationUtil {
         return validatedResource;
     }
 
-    /**
-     * Perform patch add on the resource according to the specified path.
-     *
-     * @param operation   Operation to be performed.
-     * @param decoder     JSON decoder.
-     * @param oldResource Original resource SCIM object.
-     * @param schema      SCIM resource schema.
-     * @throws CharonException
-     * @throws BadRequestException
-     * @throws NotImplementedException
-     * @throws InternalErrorException
+    /*
+     * Returns the filter of a path, only eq filters are supported.
      */
-    private static void doPatchAddOnResourceWithPath(PatchOperation operation, JSONDecoder decoder,
-                                                     AbstractSCIMObject oldResource, SCIMResourceTypeSchema schema)
-            throws CharonException, BadRequestException, NotImplementedException, InternalErrorException {
-
-        try {
-            Rule pathAttributeRule = Parser.parse(PATH_RULE_NAME, operation.getPath());
-
-            if (isFilterConditionProvidedInPath(pathAttributeRule)) {
-                // Filter condition has been provided in the path.
-                try {
-                    doPatchAddOnPathWithFilters(operation, decoder, oldResource, schema);
-                } catch (JSONException e) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Input JSON object/array is invalid, " + operation.getValues().toString());
-                    }
-                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            } else {
-                // Provided path doesn't contain filter condition.
-                doPatchAddOnPathWithoutFilters(operation, decoder, oldResource, schema);
-            }
-        } catch (ParserException e) {
-            throw new BadRequestException(
-                    ("Path value is not a valid syntax according to the SCIM PATCH PATH Rule. path: " + operation
-                            .getPath()), ResponseCodeConstants.INVALID_SYNTAX);
+    private static ExpressionNode getEqFilter(PatchPath path) throws NotImplementedException {
 
+        ExpressionNode expressionNode = path.getFilter();
+        if (!expressionNode.getOperation().equalsIgnoreCase((SCIMConstants.OperationalConstants.EQ).trim())) {
+            throw new NotImplementedException("Only Eq filter is supported");
         }
+        return expressionNode;
     }
 
-    /**
-     * Return true when the path contains filter condition(s), else return false. Normally filters surrounded by
-     * square bracket.
-     * According to SCIM spec Rule: valuePath = attributePath "[" valueFilter "]";
-     * Hence rule size is always four.
-     * Example path with filters: addresses[type eq \"work\"]
-     * Example path without filter: name.familyName
-     *
-     * @param pathAttributeRule Rule.
-     * @return Boolean value.
+    /*
+     * Whether the path points to the permissions of a Role which does not have them yet.
      */
-    private static boolean isFilterConditionProvidedInPath(Rule pathAttributeRule) {
+    private static boolean isPermissionsOfRole(PatchPath path, AbstractSCIMObject oldResource,
+                                               SCIMResourceTypeSchema schema) {
 
-        if (pathAttributeRule.rules.get(0).rules.size() == VALUE_PATH_RULE_SIZE &&
-                pathAttributeRule.rules.get(0) instanceof Rule_valuePath) {
-            return true;
-        } else {
-            return false;
-        }
+        return oldResource instanceof Role && schema.isSchemaAvailable(SCIMConstants.ROLE_SCHEMA_URI) &&
+                SCIMConstants.RoleSchemaConstants.PERMISSIONS.equalsIgnoreCase(path.getPath()) &&
+                oldResource.getAttribute(SCIMConstants.RoleSchemaConstants.PERMISSIONS) == null;
     }
 
-    /**
-     * Perform patch add on the resource according to the specified filter condition provided in the path.
-     *
-     * @param operation   Operation to be performed.
-     * @param decoder     JSON decoder.
-     * @param oldResource Original resource SCIM object.
-     * @param schema      SCIM resource schema.
-     * @throws NotImplementedException
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     * @throws InternalErrorException
+    /*
+     * Add the primitive values the multi-valued attribute does not have yet, checking them against a set of the
+     * values instead of the list.
      */
-    private static void doPatchAddOnPathWithFilters(PatchOperation operation, JSONDecoder decoder,
-                                                    AbstractSCIMObject oldResource, SCIMResourceTypeSchema schema)
-            throws NotImplementedException, BadRequestException, CharonException, JSONException,
-            InternalErrorException {
-
-        String path = operation.getPath();
-        // Split the path to extract the filter.
-        String[] parts = path.split("[\\[\\]]");
-        // Since the filter condition has been provided, we can consider this use-case behaviour as patch
-        // replace with filters. So passing this to patch replace on path with filters method.
-        doPatchReplaceOnPathWithFilters(oldResource, schema, decoder, operation, parts);
+    private static void addPrimitiveValues(MultiValuedAttribute attribute, List<Object> items) {
+
+        Set<Object> values = new HashSet<>(attribute.getAttributePrimitiveValues());
+        for (Object item : items) {
+            if (values.add(item)) {
+                attribute.setAttributePrimitiveValue(item);
+            }
+        }
     }
 
     /**
-     * Perform patch add on the resource according to the specified path without filters.
-     *
-     * @param operation   Operation to be performed.
-     * @param decoder     JSON decoder.
-     * @param oldResource Original resource SCIM object.
-     * @param schema      SCIM resource schema.
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws InternalErrorException
-     * @throws NotImplementedException
-     */
-    private static void doPatchAddOnPathWithoutFilters(PatchOperation operation, JSONDecoder decoder,
-                                                       AbstractSCIMObject oldResource, SCIMResourceTypeSchema schema)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        if (operation.getPath().trim().length() > 0) {
-            String[] attributeParts = getAttributeParts(operation.getPath());
-
-            if (log.isDebugEnabled()) {
-                log.debug("After splitting the Path attribute part(s): " + Arrays.toString(attributeParts));
-            }
-
-            /* Depends on the split attribute parts from path,
-            if attribute parts length is one, we consider this as a level one case, where path is looks like
-            path=AttributeX, as examples it can be path=members or path=nickname.
-            if attribute parts length is two, we consider this as a level two case, where path is looks like
-            path=AttributeX.subAttributeY, as examples it can be path=name.familyName.
-            According to the SCIM specification max one sub attribute is allowed for a SCIM attribute. Hence if
-            attribute parts length is greater than 2, throw BadRequestException.
-             */
-            if (attributeParts.length == 1) {
-                doPatchAddOnPathWithoutFiltersForLevelOne(oldResource, schema, decoder, operation, attributeParts[0]);
-            } else if (attributeParts.length == 2) {
-                doPatchAddOnPathWithoutFiltersForLevelTwo(oldResource, schema, decoder, operation, attributeParts);
-            } else {
-                throw new BadRequestException(("According to SCIM specification max one sub attribute can be allowed "
-                        + "for SCIM attribute. path: " + operation.getPath()), ResponseCodeConstants.NO_TARGET);
-            }
-        } else {
-            throw new BadRequestException(("Path is empty. path: " + operation.getPath()),
-                    ResponseCodeConstants.NO_TARGET);
-        }
-    }
-
-    /**
-     * Perform patch add operation for the simple path (level one). As example attributes members, nickname, name.
-     *
-     * @param oldResource   Original resource SCIM object.
-     * @param schema        SCIM resource schema.
-     * @param decoder       JSON decoder.
-     * @param operation     Operation to be performed.
-     * @param attributePart Attribute provided in path which needs to be added on resource.
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws InternalErrorException
-     */
-    private static void doPatchAddOnPathWithoutFiltersForLevelOne(AbstractSCIMObject oldResource,
-                                                                  SCIMResourceTypeSchema schema, JSONDecoder decoder,
-                                                                  PatchOperation operation, String attributePart)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        Attribute attribute = oldResource.getAttribute(attributePart);
-
-        if (attribute != null) {
-            if (log.isDebugEnabled()) {
-                log.debug("Attribute: " + attribute.getName() + " extracted from old resource.");
-            }
-            checkMutability(attribute);
-            if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType()) && attribute.getMultiValued()) {
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Attribute: %s is a multi-valued complex attribute", attribute.getName()));
-                }
-                if (attribute instanceof MultiValuedAttribute) {
-                    // This is complex multi attribute case.
-                    JSONArray jsonArray = getJsonArray(operation);
-                    AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attribute.getName(), schema);
-                    MultiValuedAttribute newMultiValuedAttribute = decoder
-                            .buildComplexMultiValuedAttribute(attributeSchema, jsonArray);
-                    for (Attribute newAttribute : newMultiValuedAttribute.getAttributeValues()) {
-                        ((MultiValuedAttribute) attribute).setAttributeValue(newAttribute);
-                    }
-                } else {
-                    throw new BadRequestException(
-                            "Attribute: " + attribute.getName() + " is not a instance of MultiValuedAttribute.",
-                            ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            } else if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Attribute: %s is a complex attribute but not multi-valued",
-                            attribute.getName()));
-                }
-                // This is complex attribute case but not multi valued.
-                JSONObject jsonObject = getJsonObject(operation);
-                AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attribute.getName(), schema);
-                ComplexAttribute newComplexAttribute = generateComplexAttribute(decoder, jsonObject, attributeSchema);
-                addComplexAttributeToResourceExcludingMultiValued(attribute, newComplexAttribute, attributePart);
-            } else if (attribute.getMultiValued()) {
-                // This is multivalued primitive case.
-                if (log.isDebugEnabled()) {
-                    log.debug(
-                            String.format("Attribute: %s is a multi-valued primitive attribute", attribute.getName()));
-                }
-                ((MultiValuedAttribute) attribute).deletePrimitiveValues();
-                JSONArray jsonArray = getJsonArray(operation);
-                addPrimitiveMultiValuedAttributeToResource(attribute, jsonArray);
-            } else {
-                // This is the simple attribute case, can replace the value.
-                if (log.isDebugEnabled()) {
-                    log.debug(String.format("Attribute: %s is a simple attribute", attribute.getName()));
-                }
-                if (attribute instanceof SimpleAttribute) {
-                    ((SimpleAttribute) attribute).setValue(operation.getValues());
-                } else {
-                    throw new BadRequestException(
-                            "Attribute: " + attribute.getName() + " is not a instance of SimpleAttribute.",
-                            ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            }
-        } else {
-            // Create and add the attribute.
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Attribute: %s is not found in the resource so create newly and add it",
-                        attributePart));
-            }
-            createAttributeOnResourceWithPathWithoutFiltersForLevelOne(oldResource, schema, decoder, operation,
-                    new String[]{attributePart});
-        }
-    }
-
-    /**
-     * Perform patch add operation for the path which doesn't contain the filters but considered as level two.
-     * As an example attribute name.familyName
-     *
-     * @param oldResource    Original resource SCIM object.
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array which length is two, considered as a level two case.
-     */
-    private static void doPatchAddOnPathWithoutFiltersForLevelTwo(AbstractSCIMObject oldResource,
-                                                                  SCIMResourceTypeSchema schema, JSONDecoder decoder,
-                                                                  PatchOperation operation, String[] attributeParts)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        if (attributeParts.length != 2) {
-            throw new CharonException("attributeParts length should be three.");
-        }
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-
-        if (attribute != null) {
-            updateAttributeOnResourceWithPathWithoutFiltersForLevelTwo(schema, decoder, operation, attributeParts,
-                    attribute);
-        } else {
-            // Targeted path location is not found, so create and add it.
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Attribute: %s is not found in the resource so create newly and add it",
-                        attributeParts[0]));
-            }
-            createAttributeOnResourceWithPathWithoutFiltersForLevelTwo(oldResource, schema, decoder, operation,
-                    attributeParts);
-        }
-    }
-
-    /**
-     * Update the attribute on resource with path without filters for level two case.
-     *
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array which length is two, considered as a level two case.
-     * @param attribute      Attribute.
-     * @throws CharonException
-     * @throws BadRequestException
-     * @throws InternalErrorException
-     */
-    private static void updateAttributeOnResourceWithPathWithoutFiltersForLevelTwo(SCIMResourceTypeSchema schema,
-                                                                                   JSONDecoder decoder,
-                                                                                   PatchOperation operation,
-                                                                                   String[] attributeParts,
-                                                                                   Attribute attribute)
-            throws CharonException, BadRequestException, InternalErrorException {
-
-        if (attributeParts.length != 2) {
-            throw new CharonException("attributeParts length should be three.");
-        }
-
-        if (attribute.getMultiValued()) {
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Attribute: %s is a complex multi-valued attribute ", attribute.getName()));
-            }
-            if (attribute instanceof MultiValuedAttribute) {
-                List<Attribute> subValues = ((MultiValuedAttribute) attribute).getAttributeValues();
-                for (Attribute subValue : subValues) {
-                    Attribute subAttribute = subValue.getSubAttribute(attributeParts[1]);
-                    if (subAttribute != null) {
-                        checkMutability(subAttribute);
-                        if (subAttribute.getMultiValued()) {
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("Sub attribute: %s is a complex multi-valued attribute ",
-                                        subAttribute.getName()));
-                            }
-                            JSONArray jsonArray = getJsonArray(operation);
-                            addPrimitiveMultiValuedAttributeToResource(subAttribute, jsonArray);
-                        } else {
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("Sub attribute: %s is a simple attribute ",
-                                        subAttribute.getName()));
-                            }
-                            if (subAttribute instanceof SimpleAttribute) {
-                                ((SimpleAttribute) subAttribute).setValue(operation.getValues());
-                            } else {
-                                throw new BadRequestException(
-                                        "Sub attribute: " + subAttribute.getName() + " is not a instance of "
-                                                + "SimpleAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        }
-                    } else {
-                        // Sub attribute is null so add it.
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format("Sub attribute: %s is not found, so create and add it.",
-                                    subValue.getName()));
-                        }
-                        createSubAttributeOnResourceWithPathWithoutFiltersForLevelTwo(schema, decoder, operation,
-                                attributeParts, subValue);
-                    }
-                }
-            } else {
-                throw new BadRequestException(
-                        "Attribute: " + attribute.getName() + " is not a instance of MultiValuedAttribute.",
-                        ResponseCodeConstants.INVALID_SYNTAX);
-            }
-        } else {
-            // attributeParts[0] is Complex but not multi valued.
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Attribute: %s is a complex but not multi-valued attribute ",
-                        attribute.getName()));
-            }
-            Attribute subAttribute = attribute.getSubAttribute(attributeParts[1]);
-            AttributeSchema subAttributeSchema = SchemaUtil
-                    .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-            if (subAttributeSchema != null) {
-                updateSubAttributeOnResourceWithPathWithoutFiltersForLevelTwo(schema, decoder, operation,
-                        attributeParts, attribute, subAttribute, subAttributeSchema);
-            } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                        ResponseCodeConstants.NO_TARGET);
-            }
-        }
-    }
-
-    /**
-     * Update a sub attribute on resource with the path without filters for level two case.
-     *
-     * @param schema             SCIM resource schema.
-     * @param decoder            JSON decoder.
-     * @param operation          Operation to be performed.
-     * @param attributeParts     Attribute parts array which length is two, considered as a level two case.
-     * @param attribute          Attribute.
-     * @param subAttribute       Sub attribute which needs to update
-     * @param subAttributeSchema Sub attribute schema.
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws InternalErrorException
-     */
-    private static void updateSubAttributeOnResourceWithPathWithoutFiltersForLevelTwo(SCIMResourceTypeSchema schema,
-            JSONDecoder decoder, PatchOperation operation, String[] attributeParts, Attribute attribute,
-            Attribute subAttribute, AttributeSchema subAttributeSchema)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        if (attributeParts.length != 2) {
-            throw new CharonException("attributeParts length should be three.");
-        }
-
-        if (attribute instanceof ComplexAttribute) {
-            if (SCIMDefinitions.DataType.COMPLEX.equals(subAttributeSchema.getType())) {
-                // Only extension schema reaches here.
-                if (subAttribute != null) {
-                    checkMutability(subAttribute);
-                    if (subAttribute.getMultiValued()) {
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format("Sub attribute: %s is a multi-valued complex attribute ",
-                                    subAttribute.getName()));
-                        }
-                        JSONArray jsonArray = getJsonArray(operation);
-                        MultiValuedAttribute newMultiValuesAttribute = decoder
-                                .buildComplexMultiValuedAttribute(subAttributeSchema, jsonArray);
-                        ((ComplexAttribute) attribute).setSubAttribute(newMultiValuesAttribute);
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format("Sub attribute: %s is a complex not multi-valued attribute ",
-                                    subAttribute.getName()));
-                        }
-                        JSONObject jsonObject = getJsonObject(operation);
-                        ComplexAttribute newComplexAttribute = generateComplexAttribute(decoder, jsonObject,
-                                subAttributeSchema);
-                        ((ComplexAttribute) attribute).setSubAttribute(newComplexAttribute);
-                    }
-                } else {
-                    // Sub attribute is null, so add it.
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Sub attribute: %s is null so add it", attributeParts[1]));
-                    }
-                    if (subAttributeSchema.getMultiValued()) {
-                        JSONArray jsonArray = getJsonArray(operation);
-                        MultiValuedAttribute newMultiValuesAttribute = decoder
-                                .buildComplexMultiValuedAttribute(subAttributeSchema, jsonArray);
-                        ((ComplexAttribute) attribute).setSubAttribute(newMultiValuesAttribute);
-                    } else {
-                        JSONObject jsonObject = getJsonObject(operation);
-                        ComplexAttribute newComplexAttribute = generateComplexAttribute(decoder, jsonObject,
-                                subAttributeSchema);
-                        ((ComplexAttribute) attribute).setSubAttribute(newComplexAttribute);
-                    }
-                }
-            } else {
-                // Sub attribute schema is not complex.
-                if (subAttribute != null) {
-                    checkMutability(subAttribute);
-                    AttributeSchema attributeSchema = SchemaUtil
-                            .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-                    if (subAttribute.getMultiValued()) {
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format("Sub attribute: %s is a multi-valued attribute ",
-                                    subAttribute.getName()));
-                        }
-                        JSONArray jsonArray = getJsonArray(operation);
-                        MultiValuedAttribute newMultiValuedAttribute = decoder
-                                .buildPrimitiveMultiValuedAttribute(attributeSchema, jsonArray);
-                        ((ComplexAttribute) attribute).setSubAttribute(newMultiValuedAttribute);
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug(
-                                    String.format("Sub attribute: %s is a simple attribute ", subAttribute.getName()));
-                        }
-                        SimpleAttribute simpleAttribute = decoder
-                                .buildSimpleAttribute(attributeSchema, operation.getValues());
-                        ((ComplexAttribute) attribute).removeSubAttribute(attributeParts[1]);
-                        ((ComplexAttribute) attribute).setSubAttribute(simpleAttribute);
-                    }
-                } else {
-                    //Sub attribute is not there so add it.
-                    createSubAttributeOnResourceWithPathWithoutFiltersForLevelTwo(schema, decoder, operation,
-                            attributeParts, attribute);
-                }
-            }
-        } else {
-            throw new BadRequestException(
-                    "Attribute: " + attribute.getName() + " is not a instance of ComplexAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Create sub attribute on resource with path without filters for level two case.
-     *
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array which length is two, considered as a level two case.
-     * @param attribute      Attribute.
-     * @throws BadRequestException
-     * @throws CharonException
-     */
-    private static void createSubAttributeOnResourceWithPathWithoutFiltersForLevelTwo(SCIMResourceTypeSchema schema,
-                                                                                      JSONDecoder decoder,
-                                                                                      PatchOperation operation,
-                                                                                      String[] attributeParts,
-                                                                                      Attribute attribute)
-            throws BadRequestException, CharonException {
-
-        if (attributeParts.length != 2) {
-            throw new CharonException("attributeParts length should be three.");
-        }
-
-        if (attribute instanceof ComplexAttribute) {
-            AttributeSchema attributeSchema = SchemaUtil
-                    .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-            if (attributeSchema.getMultiValued()) {
-                JSONArray jsonArray = getJsonArray(operation);
-                MultiValuedAttribute newMultiValuedAttribute = decoder
-                        .buildPrimitiveMultiValuedAttribute(attributeSchema, jsonArray);
-                ((ComplexAttribute) attribute).setSubAttribute(newMultiValuedAttribute);
-            } else {
-                SimpleAttribute simpleAttribute = decoder.buildSimpleAttribute(attributeSchema, operation.getValues());
-                ((ComplexAttribute) attribute).setSubAttribute(simpleAttribute);
-            }
-        } else {
-            throw new BadRequestException(
-                    "Attribute: " + attribute.getName() + " is not a instance of ComplexAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Add/update complex but not multi-valued attribute to the resource.
-     *
-     * @param oldAttribute        Original resource SCIM object.
-     * @param newComplexAttribute Complex attribute which needs to be added in to the resource SCIM object.
-     * @param attributePart       Attribute provided in path which needs to be added on resource.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static void addComplexAttributeToResourceExcludingMultiValued(Attribute oldAttribute,
-                                                                          ComplexAttribute newComplexAttribute,
-                                                                          String attributePart)
-            throws CharonException, BadRequestException {
-
-        // This is the complex attribute case.
-        if (newComplexAttribute != null && oldAttribute instanceof ComplexAttribute) {
-            Map<String, Attribute> newSubAttributeList = newComplexAttribute.getSubAttributesList();
-
-            for (Map.Entry<String, Attribute> newSubAttrib : newSubAttributeList.entrySet()) {
-                Attribute oldSubAttribute = oldAttribute.getSubAttribute(newSubAttrib.getKey());
-
-                if (oldSubAttribute != null) {
-                    if (SCIMDefinitions.DataType.COMPLEX.equals(oldSubAttribute.getType())) {
-                        if (oldSubAttribute.getMultiValued()) {
-                            // Extension schema is the only one who reaches here.
-                            handleSubAttributeComplexMultiValuedCaseInLevelOne(
-                                    newComplexAttribute.getSubAttribute(attributePart), newSubAttrib.getKey(),
-                                    oldSubAttribute);
-                        } else {
-                            // Extension schema is the only one who reaches here.
-                            handleSubAttributeComplexExcludingMultiValuedCaseInLevelOne(
-                                    newComplexAttribute.getSubAttribute(attributePart), newSubAttrib.getKey(),
-                                    oldSubAttribute);
-                        }
-                    } else {
-                        if (oldSubAttribute.getMultiValued()) {
-                            handleSubAttributeMultiValuedCaseInLevelOne(newSubAttrib, oldSubAttribute);
-                        } else {
-                            handleSubAttributeSimpleCaseInLevelOne(newSubAttrib, oldSubAttribute);
-                        }
-                    }
-                } else {
-                    if (log.isDebugEnabled()) {
-                        log.debug(String.format("Sub attribute: %s is not found, so create and add it",
-                                newSubAttrib.getKey()));
-                    }
-                    if (newSubAttrib.getValue() != null) {
-                        ((ComplexAttribute) oldAttribute).setSubAttribute(newSubAttrib.getValue());
-                    } else {
-                        throw new BadRequestException("Not a valid attribute.", ResponseCodeConstants.INVALID_SYNTAX);
-                    }
-                }
-            }
-        } else {
-            throw new BadRequestException(
-                    "Attribute: " + oldAttribute.getName() + " is not a instance of ComplexAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Update simple sub attribute case in level one case.
-     *
-     * @param newSubAttrib    New sub attribute which needs to update.
-     * @param oldSubAttribute Old sub attribute.
-     * @throws BadRequestException
-     */
-    private static void handleSubAttributeSimpleCaseInLevelOne(Map.Entry<String, Attribute> newSubAttrib,
-                                                               Attribute oldSubAttribute) throws BadRequestException {
-
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Sub attribute: %s is a simple attribute", oldSubAttribute.getName()));
-        }
-        if (oldSubAttribute instanceof SimpleAttribute && newSubAttrib.getValue() instanceof SimpleAttribute) {
-            ((SimpleAttribute) oldSubAttribute).setValue(((SimpleAttribute) newSubAttrib.getValue()).getValue());
-        } else {
-            throw new BadRequestException(
-                    "Sub attribute: " + oldSubAttribute.getName() + " is not a instance of SimpleAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Add multi valued sub-attribute in level one case.
-     *
-     * @param newSubAttrib    New sub attribute which needs to add.
-     * @param oldSubAttribute Old sub attribute.
-     * @throws BadRequestException
-     */
-    private static void handleSubAttributeMultiValuedCaseInLevelOne(Map.Entry<String, Attribute> newSubAttrib,
-                                                                    Attribute oldSubAttribute)
-            throws BadRequestException {
-
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Sub attribute: %s is a primitive multi-valued attribute",
-                    oldSubAttribute.getName()));
-        }
-        if (newSubAttrib.getValue() instanceof MultiValuedAttribute
-                && oldSubAttribute instanceof MultiValuedAttribute) {
-            List<Object> items = ((MultiValuedAttribute) (newSubAttrib.getValue())).
-                    getAttributePrimitiveValues();
-            if (items != null) {
-                for (Object item : items) {
-                    ((MultiValuedAttribute) oldSubAttribute).setAttributePrimitiveValue(item);
-                }
-            }
-        } else {
-            throw new BadRequestException(
-                    "Sub attribute: " + oldSubAttribute.getName() + " is not a instance of MultiValuedAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Handle complex multi-valued sub attribute case in level one.
-     *
-     * @param subAttribute    Sub attribute.
-     * @param newSubAttribKey New sub attribute key.
-     * @param oldSubAttribute Old sub attribute.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static void handleSubAttributeComplexMultiValuedCaseInLevelOne(Attribute subAttribute,
-                                                                           String newSubAttribKey,
-                                                                           Attribute oldSubAttribute)
-            throws CharonException, BadRequestException {
-
-        if (oldSubAttribute instanceof MultiValuedAttribute && subAttribute instanceof MultiValuedAttribute) {
-            // Extension schema is the only one who reaches here.
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Sub attribute: %s is a multi-valued complex attribute",
-                        oldSubAttribute.getName()));
-            }
-            MultiValuedAttribute attributeSubValue = (MultiValuedAttribute) subAttribute
-                    .getSubAttribute(newSubAttribKey);
-            for (Attribute attribute : attributeSubValue.getAttributeValues()) {
-                ((MultiValuedAttribute) oldSubAttribute).setAttributeValue(attribute);
-            }
-        } else {
-            throw new BadRequestException(
-                    "Sub attribute: " + oldSubAttribute.getName() + " is not a instance of MultiValuedAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Handle sub attribute complex but not multi valued case in level one.
-     *
-     * @param newSubAttribute New sub attribute.
-     * @param newSubAttribKey New sub attribute key.
-     * @param oldSubAttribute Old sub attribute.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static void handleSubAttributeComplexExcludingMultiValuedCaseInLevelOne(Attribute newSubAttribute,
-                                                                                    String newSubAttribKey,
-                                                                                    Attribute oldSubAttribute)
-            throws CharonException, BadRequestException {
-
-        if (oldSubAttribute instanceof ComplexAttribute && newSubAttribute instanceof ComplexAttribute) {
-            // Extension schema is the only one who reaches here.
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Sub attribute: %s is a complex attribute but not multi-valued.",
-                        oldSubAttribute.getName()));
-            }
-            Map<String, Attribute> subSubAttributeList = ((ComplexAttribute) newSubAttribute
-                    .getSubAttribute(newSubAttribKey)).getSubAttributesList();
-
-            if (subSubAttributeList != null) {
-                for (Map.Entry<String, Attribute> subSubAttrib : subSubAttributeList.entrySet()) {
-                    Attribute subSubAttribute = oldSubAttribute.getSubAttribute(subSubAttrib.getKey());
-
-                    if (subSubAttribute != null) {
-                        if (subSubAttribute.getMultiValued()) {
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format(
-                                        "Sub sub attribute: %s is a primitive " + "multi-valued attribute",
-                                        subSubAttribute.getName()));
-                            }
-                            if (subSubAttrib.getValue() instanceof MultiValuedAttribute
-                                    && subSubAttribute instanceof MultiValuedAttribute) {
-                                List<Object> items = ((MultiValuedAttribute) (subSubAttrib.getValue())).
-                                        getAttributePrimitiveValues();
-                                if (items != null) {
-                                    for (Object item : items) {
-                                        ((MultiValuedAttribute) subSubAttribute).setAttributePrimitiveValue(item);
-                                    }
-                                }
-                            } else {
-                                throw new BadRequestException(
-                                        "Sub sub attribute: " + subSubAttribute.getName() + " is not a instance of "
-                                                + "MultiValuedAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        } else {
-                            if (log.isDebugEnabled()) {
-                                log.debug(String.format("Sub sub attribute: %s is a simple attribute",
-                                        subSubAttribute.getName()));
-                            }
-                            if (subSubAttribute instanceof SimpleAttribute && subSubAttrib
-                                    .getValue() instanceof SimpleAttribute) {
-                                ((SimpleAttribute) subSubAttribute)
-                                        .setValue(((SimpleAttribute) subSubAttrib.getValue()).getValue());
-                            } else {
-                                throw new BadRequestException(
-                                        "Sub sub attribute: " + subSubAttribute.getName() + " is not a instance of "
-                                                + "SimpleAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        }
-                    } else {
-                        if (log.isDebugEnabled()) {
-                            log.debug(String.format(
-                                    "Sub sub attribute: %s is not found in the resource, so " + "create and add it",
-                                    subSubAttrib.getKey()));
-                        }
-                        if (subSubAttrib.getValue() != null) {
-                            ((ComplexAttribute) oldSubAttribute).setSubAttribute(subSubAttrib.getValue());
-                        } else {
-                            throw new BadRequestException("Not a valid attribute.",
-                                    ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                    }
-                }
-            }
-        } else {
-            throw new BadRequestException(
-                    "Sub attribute: " + oldSubAttribute.getName() + " is not a instance of ComplexAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Add primitive multi-valued attribute to the resource.
-     *
-     * @param attribute Attribute where we need to add primitive multi-values.
-     * @param jsonArray Input JSON array.
-     * @throws BadRequestException
-     */
-    private static void addPrimitiveMultiValuedAttributeToResource(Attribute attribute, JSONArray jsonArray)
-            throws BadRequestException {
-
-        if (attribute instanceof MultiValuedAttribute) {
-            for (int i = 0; i < jsonArray.length(); i++) {
-                try {
-                    // JSON array may contains duplicates so retrieve every time and check.
-                    List<Object> attributePrimitiveValues = ((MultiValuedAttribute) attribute)
-                            .getAttributePrimitiveValues();
-                    if (!attributePrimitiveValues.contains(jsonArray.get(i))) {
-                        ((MultiValuedAttribute) attribute).setAttributePrimitiveValue(jsonArray.get(i));
-                    }
-                } catch (JSONException e) {
-                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                }
-            }
-        } else {
-            throw new BadRequestException(
-                    "Attribute: " + attribute.getName() + " is not a instance of MultiValuedAttribute.",
-                    ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /**
-     * Generate complex attribute.
-     *
-     * @param decoder         JSON decoder.
-     * @param jsonObject      Input JSON object.
-     * @param attributeSchema Schema of the complex attribute.
-     * @return Newly created complex attribute.
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws InternalErrorException
-     */
-    private static ComplexAttribute generateComplexAttribute(JSONDecoder decoder, JSONObject jsonObject,
-                                                             AttributeSchema attributeSchema)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        ComplexAttribute newComplexAttribute = null;
-        try {
-            newComplexAttribute = decoder.buildComplexAttribute(attributeSchema, jsonObject);
-        } catch (JSONException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Invalid JSON string, " + jsonObject.toString());
-            }
-            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-        }
-        return newComplexAttribute;
-    }
-
-    /**
-     * Check the mutability of an attribute.
-     *
-     * @param attribute Attribute.
-     * @throws BadRequestException
-     */
-    private static void checkMutability(Attribute attribute) throws BadRequestException {
-
-        if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) || attribute.getMutability()
-                .equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-            throw new BadRequestException("Can not update a immutable attribute or a read-only attribute",
-                    ResponseCodeConstants.MUTABILITY);
-        }
-    }
-
-    /**
-     * Get JSON object out of provided JSON string value in the operation.
-     *
-     * @param operation Operation to be performed.
-     * @return Input JSON object.
-     * @throws BadRequestException
-     */
-    private static JSONObject getJsonObject(PatchOperation operation) throws BadRequestException {
-
-        JSONObject jsonObject = null;
-        try {
-            if (operation.getValues() != null) {
-                jsonObject = new JSONObject(new JSONTokener(operation.getValues().toString()));
-            }
-        } catch (JSONException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Invalid JSON string, " + operation.getValues().toString());
-            }
-            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-        }
-        return jsonObject;
-    }
-
-    /**
-     * Get JSON array out of provided JSON string value in the operation.
-     *
-     * @param operation Operation to be performed.
-     * @return Input JSON array.
-     * @throws BadRequestException
-     */
-    private static JSONArray getJsonArray(PatchOperation operation) throws BadRequestException {
-
-        JSONArray jsonArray = null;
-        try {
-            if (operation.getValues() != null) {
-                jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
-            }
-        } catch (JSONException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Invalid JSON string, " + operation.getValues().toString());
-            }
-            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-        }
-        return jsonArray;
-    }
-
-    /**
-     * perform patch add operation on provided resource where path is not provided.
-     *
-     * @param operation         Operation to be performed.
-     * @param decoder           JSON decoder.
-     * @param oldResource       Original resource SCIM object.
-     * @param copyOfOldResource Copy of the original resource SCIM object.
-     * @param schema            SCIM resource schema.
-     * @return Updated SCIM object resource.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static AbstractSCIMObject doPatchAddOnResource(PatchOperation operation, JSONDecoder decoder,
-                                                           AbstractSCIMObject oldResource,
-                                                           AbstractSCIMObject copyOfOldResource,
-                                                           SCIMResourceTypeSchema schema)
-            throws CharonException, BadRequestException {
-
-        try {
-            AbstractSCIMObject attributeHoldingSCIMObject = decoder.decode(operation.getValues().toString(), schema);
-            if (oldResource != null) {
-                for (String attributeName : attributeHoldingSCIMObject.getAttributeList().keySet()) {
-                    Attribute oldAttribute = oldResource.getAttribute(attributeName);
-                    if (oldAttribute != null) {
-                        // if the attribute is there, append it.
-                        if (oldAttribute.getMultiValued() &&
-                                oldAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                            //this is multivalued complex case.
-                            MultiValuedAttribute attributeValue = (MultiValuedAttribute)
-                                    attributeHoldingSCIMObject.getAttribute(attributeName);
-
-                            for (Attribute attribute : attributeValue.getAttributeValues()) {
-                                ((MultiValuedAttribute) oldAttribute).setAttributeValue(attribute);
-                            }
-
-                        } else if (oldAttribute.getMultiValued()) {
-
-                            //this is multivalued primitive case.
-                            MultiValuedAttribute attributeValue = (MultiValuedAttribute)
-                                    attributeHoldingSCIMObject.getAttribute(attributeName);
-
-                            for (Object obj : attributeValue.getAttributePrimitiveValues()) {
-                                ((MultiValuedAttribute) oldAttribute).setAttributePrimitiveValue(obj);
-                            }
-
-                        } else if (oldAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                            //this is the complex attribute case.
-                            Map<String, Attribute> subAttributeList =
-                                    ((ComplexAttribute) attributeHoldingSCIMObject.
-                                            getAttribute(attributeName)).getSubAttributesList();
-
-                            for (Map.Entry<String, Attribute> subAttrib : subAttributeList.entrySet()) {
-                                Attribute subAttribute = oldAttribute.getSubAttribute(subAttrib.getKey());
-
-                                if (subAttribute != null) {
-                                    if (subAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                                        if (subAttribute.getMultiValued()) {
-                                            //extension schema is the only one who reaches here.
-                                            MultiValuedAttribute attributeSubValue = (MultiValuedAttribute)
-                                                    ((ComplexAttribute) attributeHoldingSCIMObject.
-                                                            getAttribute(attributeName)).
-                                                            getSubAttribute(subAttrib.getKey());
-
-                                            for (Attribute attribute : attributeSubValue.getAttributeValues()) {
-                                                ((MultiValuedAttribute) subAttribute).setAttributeValue(attribute);
-                                            }
-                                        } else {
-                                            //extension schema is the only one who reaches here.
-                                            Map<String, Attribute> subSubAttributeList = ((ComplexAttribute)
-                                                    (attributeHoldingSCIMObject.getAttribute(attributeName).
-                                                            getSubAttribute(subAttrib.getKey()))).
-                                                    getSubAttributesList();
-
-                                            for (Map.Entry<String, Attribute> subSubAttrib :
-                                                    subSubAttributeList.entrySet()) {
-                                                Attribute subSubAttribute = oldAttribute.getSubAttribute
-                                                        (subAttrib.getKey()).getSubAttribute(subSubAttrib.getKey());
-
-                                                if (subSubAttribute != null) {
-                                                    if (subSubAttribute.getMultiValued()) {
-                                                        List<Object> items =
-                                                                ((MultiValuedAttribute) (subSubAttrib.getValue()))
-                                                                        .getAttributePrimitiveValues();
-                                                        for (Object item : items) {
-                                                            if (!((MultiValuedAttribute) subSubAttribute)
-                                                                    .getAttributePrimitiveValues().contains(item)) {
-                                                                ((MultiValuedAttribute) subSubAttribute).
-                                                                        setAttributePrimitiveValue(item);
-                                                            }
-                                                        }
-                                                    } else {
-                                                        ((SimpleAttribute) subSubAttribute).setValue(
-                                                                ((SimpleAttribute) subSubAttrib.getValue()).getValue());
-                                                    }
-                                                } else {
-                                                    if (subSubAttrib.getValue() != null) {
-                                                        ((ComplexAttribute) (subAttribute)).setSubAttribute(
-                                                                subSubAttrib.getValue());
-                                                    } else {
-                                                        throw new BadRequestException("Not a valid attribute.",
-                                                                ResponseCodeConstants.INVALID_SYNTAX);
-                                                    }
-                                                }
-                                            }
-                                        }
-                                    } else {
-                                        if (subAttribute.getMultiValued()) {
-                                            List<Object> items = ((MultiValuedAttribute) (subAttrib.getValue())).
-                                                    getAttributePrimitiveValues();
-                                            for (Object item : items) {
-                                                if (!((MultiValuedAttribute) subAttribute).getAttributePrimitiveValues()
-                                                        .contains(item)) {
-                                                    ((MultiValuedAttribute) subAttribute).
-                                                            setAttributePrimitiveValue(item);
-                                                }
-                                            }
-                                        } else {
-                                            ((SimpleAttribute) subAttribute).setValue(((SimpleAttribute)
-                                                    subAttrib.getValue()).getValue());
-                                        }
-                                    }
-                                } else {
-                                    if (subAttrib.getValue() != null) {
-                                        ((ComplexAttribute) oldAttribute).setSubAttribute
-                                                (subAttrib.getValue());
-                                    } else {
-                                        throw new BadRequestException("Not a valid attribute.",
-                                                ResponseCodeConstants.INVALID_SYNTAX);
-                                    }
-
-                                }
-                            }
-                        } else {
-                            // this is the simple attribute case.replace the value
-                            ((SimpleAttribute) oldAttribute).setValue
-                                    (((SimpleAttribute) attributeHoldingSCIMObject.getAttribute
-                                            (oldAttribute.getName())).getValue());
-                        }
-                    } else {
-                        //if the attribute is not already set, set it.
-                        if (attributeHoldingSCIMObject.getAttribute(attributeName) != null) {
-                            oldResource.setAttribute(attributeHoldingSCIMObject.getAttribute(attributeName));
-                        } else {
-                            throw new BadRequestException("Not a valid attribute.",
-                                    ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                    }
-                }
-                AbstractSCIMObject validatedResource =
-                        ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
-
-                return validatedResource;
-            } else  {
-                throw new CharonException("Error in getting the old resource.");
-            }
-        } catch (BadRequestException e) {
-            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-        }
-    }
-
-    /*
-     * This is the main patch replace method.
-     * @param operation
-     * @param decoder
-     * @param oldResource
-     * @param copyOfOldResource
-     * @param schema
-     * @return
-     * @throws CharonException
-     * @throws NotImplementedException
-     * @throws BadRequestException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    public static AbstractSCIMObject doPatchReplace(PatchOperation operation, JSONDecoder decoder,
-                                                    AbstractSCIMObject oldResource,
-                                                    AbstractSCIMObject copyOfOldResource,
-                                                    SCIMResourceTypeSchema schema)
-            throws CharonException, NotImplementedException, BadRequestException, InternalErrorException {
-
-        if (operation.getPath() != null) {
-            String path = operation.getPath();
-            //split the path to extract the filter if present.
-            String[] parts = path.split("[\\[\\]]");
-
-            if (operation.getPath().contains("[")) {
-                try {
-                    doPatchReplaceOnPathWithFilters(oldResource, schema, decoder, operation, parts);
-                } catch (JSONException e) {
-                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                }
-
-            } else {
-                doPatchReplaceOnPathWithoutFilters(oldResource, schema, decoder, operation, parts);
-            }
-
-        } else {
-            doPatchReplaceOnResource(oldResource, copyOfOldResource, schema, decoder, operation);
-        }
-        //validate the updated object
-        AbstractSCIMObject validatedResource =
-                ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
-        return validatedResource;
-    }
-
-    /*
-     * This method is to do patch replace without a filter present but a path value present.
-     * @param oldResource
-     * @param schema
-     * @param decoder
-     * @param operation
-     * @param parts
-     * @return
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    private static AbstractSCIMObject doPatchReplaceOnPathWithoutFilters(AbstractSCIMObject oldResource,
-                                                                         SCIMResourceTypeSchema schema,
-                                                                         JSONDecoder decoder, PatchOperation operation,
-                                                                         String[] parts)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        String[] attributeParts = getAttributeParts(parts[0]);
-
-        if (attributeParts.length == 1) {
-
-            doPatchReplaceOnPathWithoutFiltersForLevelOne(oldResource, schema, decoder, operation, attributeParts);
-
-        } else if (attributeParts.length == 2) {
-
-            doPatchReplaceOnPathWithoutFiltersForLevelTwo(oldResource, schema, decoder, operation, attributeParts);
-
-        } else if (attributeParts.length == 3) {
-
-            doPatchReplaceOnPathWithoutFiltersForLevelThree(oldResource, schema, decoder, operation, attributeParts);
-
-        }
-        return oldResource;
-    }
-
-    /*
-     * This performs patch on resource based on the path value.No filter is specified here.
-     * And this is for level one attributes.
-     * @param oldResource
-     * @param schema
-     * @param decoder
-     * @param operation
-     * @param attributeParts
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    private static void doPatchReplaceOnPathWithoutFiltersForLevelOne(AbstractSCIMObject oldResource,
-                                                                      SCIMResourceTypeSchema schema,
-                                                                      JSONDecoder decoder,
-                                                                      PatchOperation operation,
-                                                                      String[] attributeParts)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-
-        if (attribute != null) {
-            if (!attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                if (!attribute.getMultiValued()) {
-                    if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                            attribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                        throw new BadRequestException("Can not replace a immutable attribute or a read-only attribute",
-                                ResponseCodeConstants.MUTABILITY);
-                    } else {
-                        ((SimpleAttribute) attribute).setValue(operation.getValues().toString());
-                    }
-                } else {
-                    if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                            attribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                        throw new BadRequestException("Can not replace a immutable attribute or a read-only attribute",
-                                ResponseCodeConstants.MUTABILITY);
-                    } else {
-                        ((MultiValuedAttribute) attribute).deletePrimitiveValues();
-                        JSONArray jsonArray = null;
-                        try {
-                            jsonArray = new JSONArray(operation.getValues());
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        for (int i = 0; i < jsonArray.length(); i++) {
-                            try {
-                                ((MultiValuedAttribute) attribute).setAttributePrimitiveValue(jsonArray.get(i));
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        }
-                    }
-                }
-
-            } else {
-                if (attribute.getMultiValued()) {
-                    if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                            attribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                        throw new BadRequestException("Can not replace a immutable attribute or a read-only attribute",
-                                ResponseCodeConstants.MUTABILITY);
-                    } else {
-                        JSONArray jsonArray = null;
-                        try {
-                            jsonArray = new JSONArray
-                                    (new JSONTokener(operation.getValues().toString()));
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attribute.getName(), schema);
-                        MultiValuedAttribute newMultiValuedAttribute = decoder.buildComplexMultiValuedAttribute
-                                (attributeSchema, jsonArray);
-                        oldResource.deleteAttribute(attribute.getName());
-                        oldResource.setAttribute(newMultiValuedAttribute);
-                    }
-
-
-                } else {
-                    if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                            attribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                        throw new BadRequestException("Can not replace a immutable attribute or a read-only attribute",
-                                ResponseCodeConstants.MUTABILITY);
-                    } else {
-                        JSONObject jsonObject = null;
-                        try {
-                            jsonObject = new JSONObject(new JSONTokener(operation.getValues().toString()));
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attribute.getName(), schema);
-                        ComplexAttribute newComplexAttribute = null;
-                        try {
-                            newComplexAttribute = decoder.buildComplexAttribute(attributeSchema,
-                                    jsonObject);
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        oldResource.deleteAttribute(attribute.getName());
-                        oldResource.setAttribute(newComplexAttribute);
-                    }
-                }
-            }
-
-        } else {
-            // Check whether the patched attributes are permissions of Roles.
-            if (schema.isSchemaAvailable(SCIMConstants.ROLE_SCHEMA_URI) &&
-                    SCIMConstants.RoleSchemaConstants.PERMISSIONS.equalsIgnoreCase(attributeParts[0])) {
-
-                JSONArray permissionsJSONArray = getJsonArray(operation);
-
-                // Assign permissions to the Role.
-                if (oldResource instanceof Role) {
-                    ((Role) oldResource).setPermissions(decoder.toList(permissionsJSONArray));
-                }
-            }
-
-            // Create and add the attribute.
-            createAttributeOnResourceWithPathWithoutFiltersForLevelOne(oldResource, schema, decoder, operation,
-                    attributeParts);
-        }
-    }
-
-    /**
-     * Create attribute on resource with path without filters for level one case.
-     *
-     * @param oldResource    Original resource SCIM object.
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array.
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws InternalErrorException
-     */
-    private static void createAttributeOnResourceWithPathWithoutFiltersForLevelOne(AbstractSCIMObject oldResource,
-            SCIMResourceTypeSchema schema, JSONDecoder decoder, PatchOperation operation, String[] attributeParts)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-        if (attributeSchema != null) {
-            if (attributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                if (attributeSchema.getMultiValued()) {
-                    JSONArray jsonArray = null;
-                    try {
-                        jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
-                    } catch (JSONException e) {
-                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                    }
-                    MultiValuedAttribute newMultiValuedAttribute = decoder
-                            .buildComplexMultiValuedAttribute(attributeSchema, jsonArray);
-                    oldResource.setAttribute(newMultiValuedAttribute);
-
-                } else {
-                    JSONObject jsonObject = null;
-                    try {
-                        jsonObject = new JSONObject(new JSONTokener(operation.getValues().toString()));
-                    } catch (JSONException e) {
-                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                    }
-                    ComplexAttribute newComplexAttribute = null;
-                    try {
-                        newComplexAttribute = decoder.buildComplexAttribute(attributeSchema, jsonObject);
-                    } catch (JSONException e) {
-                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                    }
-                    oldResource.setAttribute(newComplexAttribute);
-                }
-
-            } else {
-                if (attributeSchema.getMultiValued()) {
-                    JSONArray jsonArray = null;
-                    try {
-                        jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
-                    } catch (JSONException e) {
-                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                    }
-                    MultiValuedAttribute newMultiValuedAttribute = decoder
-                            .buildPrimitiveMultiValuedAttribute(attributeSchema, jsonArray);
-                    oldResource.setAttribute(newMultiValuedAttribute);
-
-                } else {
-
-                    SimpleAttribute simpleAttribute = decoder
-                            .buildSimpleAttribute(attributeSchema, operation.getValues());
-                    oldResource.setAttribute(simpleAttribute);
-                }
-            }
-        } else {
-            throw new BadRequestException("No attribute with the name : " + attributeParts[0]);
-        }
-    }
-
-    /*
-     * This performs patch on resource based on the path value.No filter is specified here.
-     * And this is for level two attributes.
-     * @param oldResource
-     * @param schema
-     * @param decoder
-     * @param operation
-     * @param attributeParts
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    private static void doPatchReplaceOnPathWithoutFiltersForLevelTwo(AbstractSCIMObject oldResource,
-                                                                      SCIMResourceTypeSchema schema,
-                                                                      JSONDecoder decoder,
-                                                                      PatchOperation operation,
-                                                                      String[] attributeParts)
-            throws BadRequestException, CharonException, InternalErrorException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-
-        if (attribute != null) {
-
-            if (attribute.getMultiValued()) {
-
-                List<Attribute> subValues = ((MultiValuedAttribute) attribute).getAttributeValues();
-                for (Attribute subValue : subValues) {
-                    Attribute subAttribute = ((ComplexAttribute) subValue).getSubAttribute(attributeParts[1]);
-                    if (subAttribute != null) {
-                        if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                subAttribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                            throw new BadRequestException
-                                    ("Can not replace a immutable attribute or a read-only attribute",
-                                    ResponseCodeConstants.MUTABILITY);
-                        } else {
-                            if (subAttribute.getMultiValued()) {
-                                ((MultiValuedAttribute) subAttribute).deletePrimitiveValues();
-                                JSONArray jsonArray = null;
-                                try {
-                                    jsonArray = new JSONArray(operation.getValues());
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                                for (int i = 0; i < jsonArray.length(); i++) {
-                                    try {
-                                        ((MultiValuedAttribute) subAttribute).
-                                                setAttributePrimitiveValue(jsonArray.get(i));
-                                    } catch (JSONException e) {
-                                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                    }
-                                }
-                            } else {
-                                ((SimpleAttribute) subAttribute).setValue(operation.getValues());
-                            }
-                        }
-                    } else {
-                        AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(
-                                attributeParts[0] + "." + attributeParts[1], schema);
-                        if (subAttributeSchema.getMultiValued()) {
-                            JSONArray jsonArray = null;
-                            try {
-                                jsonArray = new JSONArray
-                                        (new JSONTokener(operation.getValues().toString()));
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                            MultiValuedAttribute newMultiValuedAttribute = decoder.buildPrimitiveMultiValuedAttribute(
-                                    subAttributeSchema, jsonArray);
-                            ((ComplexAttribute) (subValue)).setSubAttribute(newMultiValuedAttribute);
-                        } else  {
-                            SimpleAttribute simpleAttribute = decoder.buildSimpleAttribute(
-                                    subAttributeSchema, operation.getValues());
-                            ((ComplexAttribute) (subValue)).setSubAttribute(simpleAttribute);
-                        }
-                    }
-                }
-            } else {
-                Attribute subAttribute = ((attribute)).getSubAttribute(attributeParts[1]);
-                AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(
-                        attributeParts[0] + "." + attributeParts[1], schema);
-                if (subAttributeSchema != null) {
-                    if (subAttributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                        //only extension schema reaches here.
-                        if (subAttribute != null) {
-                            if (!subAttribute.getMultiValued()) {
-                                if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                        subAttribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                    throw new BadRequestException
-                                            ("Can not replace a immutable attribute or a read-only attribute",
-                                            ResponseCodeConstants.MUTABILITY);
-                                } else {
-                                    ComplexAttribute newComplexAttribute =
-                                            null;
-                                    try {
-                                        newComplexAttribute = decoder.buildComplexAttribute(subAttributeSchema,
-                                        (JSONObject) operation.getValues());
-                                    } catch (JSONException e) {
-                                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                    }
-                                    ((ComplexAttribute) (attribute)).removeSubAttribute(attributeParts[1]);
-                                    ((ComplexAttribute) (attribute)).setSubAttribute(newComplexAttribute);
-                                }
-                            } else {
-                                if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                        subAttribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                    throw new BadRequestException
-                                            ("Can not replace a immutable attribute or a read-only attribute",
-                                            ResponseCodeConstants.MUTABILITY);
-                                } else {
-                                    JSONArray jsonArray = null;
-                                    try {
-                                        jsonArray = new JSONArray
-                                                (new JSONTokener(operation.getValues().toString()));
-                                    } catch (JSONException e) {
-                                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                    }
-                                    MultiValuedAttribute newMultiValuesAttribute =
-                                            decoder.buildComplexMultiValuedAttribute(subAttributeSchema, jsonArray);
-                                    ((ComplexAttribute) (attribute)).removeSubAttribute(attributeParts[1]);
-                                    ((ComplexAttribute) (attribute)).setSubAttribute(newMultiValuesAttribute);
-                                }
-                            }
-
-                        } else {
-
-                            if (subAttributeSchema.getMultiValued()) {
-                                JSONArray jsonArray = null;
-                                try {
-                                    jsonArray = new JSONArray
-                                            (new JSONTokener(operation.getValues().toString()));
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                                MultiValuedAttribute newMultiValuesAttribute =
-                                        decoder.buildComplexMultiValuedAttribute(subAttributeSchema, jsonArray);
-                                ((ComplexAttribute) (attribute)).setSubAttribute(newMultiValuesAttribute);
-                            } else {
-                                ComplexAttribute newComplexAttribute = null;
-                                try {
-                                    newComplexAttribute = decoder.buildComplexAttribute(subAttributeSchema,
-                                            (JSONObject) operation.getValues());
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                                ((ComplexAttribute) (attribute)).setSubAttribute(newComplexAttribute);
-                            }
-                        }
-
-                    } else {
-                        if (subAttribute != null) {
-                            if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                    subAttribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                throw new BadRequestException
-                                        ("Can not replace a immutable attribute or a read-only attribute",
-                                        ResponseCodeConstants.MUTABILITY);
-                            } else {
-                                AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(
-                                        attributeParts[0] + "." + attributeParts[1], schema);
-                                if (subAttribute.getMultiValued()) {
-                                    JSONArray jsonArray = null;
-                                    try {
-                                        jsonArray = new JSONArray
-                                                (new JSONTokener(operation.getValues().toString()));
-                                    } catch (JSONException e) {
-                                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                    }
-                                    MultiValuedAttribute newMultiValuedAttribute =
-                                            decoder.buildPrimitiveMultiValuedAttribute(
-                                            attributeSchema, jsonArray);
-                                    ((ComplexAttribute) (attribute)).removeSubAttribute(attributeParts[1]);
-                                    ((ComplexAttribute) (attribute)).setSubAttribute(newMultiValuedAttribute);
-                                } else {
-                                    SimpleAttribute simpleAttribute = decoder.buildSimpleAttribute(
-                                            attributeSchema, operation.getValues());
-                                    ((ComplexAttribute) (attribute)).removeSubAttribute(attributeParts[1]);
-                                    ((ComplexAttribute) (attribute)).setSubAttribute(simpleAttribute);
-                                }
-
-                            }
-                        } else {
-                            //add the values
-                            AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(
-                                    attributeParts[0] + "." + attributeParts[1], schema);
-                            if (attributeSchema.getMultiValued()) {
-                                JSONArray jsonArray = null;
-                                try {
-                                    jsonArray = new JSONArray
-                                            (new JSONTokener(operation.getValues().toString()));
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                                MultiValuedAttribute newMultiValuedAttribute =
-                                        decoder.buildPrimitiveMultiValuedAttribute(
-                                        attributeSchema, jsonArray);
-                                ((ComplexAttribute) (attribute)).setSubAttribute(newMultiValuedAttribute);
-                            } else {
-                                SimpleAttribute simpleAttribute = decoder.buildSimpleAttribute(
-                                        attributeSchema, operation.getValues());
-                                ((ComplexAttribute) (attribute)).setSubAttribute(simpleAttribute);
-                            }
-                        }
-                    }
-                } else {
-                    throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                            ResponseCodeConstants.NO_TARGET);
-                }
-            }
-
-        } else {
-
-            createAttributeOnResourceWithPathWithoutFiltersForLevelTwo(oldResource, schema, decoder, operation,
-                    attributeParts);
-        }
-
-    }
-
-    /**
-     * Create attribute on resource with path without filters for level two case.
-     *
-     * @param oldResource    Original resource SCIM object.
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array.
-     * @throws CharonException
-     * @throws BadRequestException
-     * @throws InternalErrorException
-     */
-    private static void createAttributeOnResourceWithPathWithoutFiltersForLevelTwo(AbstractSCIMObject oldResource,
-            SCIMResourceTypeSchema schema, JSONDecoder decoder, PatchOperation operation, String[] attributeParts)
-            throws CharonException, BadRequestException, InternalErrorException {
-
-        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-        if (attributeSchema != null) {
-
-            if (attributeSchema.getMultiValued()) {
-                MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(attributeSchema.getName());
-                DefaultAttributeFactory.createAttribute(attributeSchema, multiValuedAttribute);
-
-                AttributeSchema subAttributeSchema = SchemaUtil
-                        .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-
-                if (subAttributeSchema != null) {
-                    SimpleAttribute simpleAttribute = new SimpleAttribute(subAttributeSchema.getName(),
-                            operation.getValues());
-                    DefaultAttributeFactory.createAttribute(subAttributeSchema, simpleAttribute);
-
-                    String complexAttributeName =
-                            attributeSchema.getName() + "_" + operation.getValues() + "_" + SCIMConstants.DEFAULT;
-                    ComplexAttribute complexAttribute = new ComplexAttribute(complexAttributeName);
-                    DefaultAttributeFactory.createAttribute(attributeSchema, complexAttribute);
-
-                    complexAttribute.setSubAttribute(simpleAttribute);
-
-                    multiValuedAttribute.setAttributeValue(complexAttribute);
-
-                    oldResource.setAttribute(multiValuedAttribute);
-                } else {
-                    throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                            ResponseCodeConstants.NO_TARGET);
-                }
-
-            } else {
-
-                ComplexAttribute complexAttribute = new ComplexAttribute(attributeSchema.getName());
-                DefaultAttributeFactory.createAttribute(attributeSchema, complexAttribute);
-
-                AttributeSchema subAttributeSchema = SchemaUtil
-                        .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-                if (subAttributeSchema != null) {
-                    if (subAttributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                        if (subAttributeSchema.getMultiValued()) {
-                            JSONArray jsonArray = null;
-                            try {
-                                jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                            MultiValuedAttribute multiValuedAttribute = decoder
-                                    .buildComplexMultiValuedAttribute(subAttributeSchema, jsonArray);
-                            complexAttribute.setSubAttribute(multiValuedAttribute);
-                        } else {
-                            ComplexAttribute subComplexAttribute = null;
-                            try {
-                                subComplexAttribute = decoder
-                                        .buildComplexAttribute(subAttributeSchema, (JSONObject) operation.getValues());
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                            complexAttribute.setSubAttribute(subComplexAttribute);
-                        }
-
-                    } else {
-                        SimpleAttribute simpleAttribute = new SimpleAttribute(subAttributeSchema.getName(),
-                                operation.getValues());
-                        DefaultAttributeFactory.createAttribute(subAttributeSchema, simpleAttribute);
-                        complexAttribute.setSubAttribute(simpleAttribute);
-
-                    }
-                    oldResource.setAttribute(complexAttribute);
-
-                } else {
-                    throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                            ResponseCodeConstants.NO_TARGET);
-                }
-            }
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[0],
-                    ResponseCodeConstants.NO_TARGET);
-        }
-    }
-
-    /*
-     * This performs patch on resource based on the path value.No filter is specified here.
-     * And this is for level three attributes.
-     * @param oldResource
-     * @param schema
-     * @param decoder
-     * @param operation
-     * @param attributeParts
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     */
-    private static void doPatchReplaceOnPathWithoutFiltersForLevelThree(AbstractSCIMObject oldResource,
-                                                                        SCIMResourceTypeSchema schema,
-                                                                        JSONDecoder decoder,
-                                                                        PatchOperation operation,
-                                                                        String[] attributeParts)
-            throws BadRequestException, CharonException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        if (attribute != null) {
-            Attribute subAttribute  = ((ComplexAttribute) attribute).getSubAttribute(attributeParts[1]);
-            if (subAttribute != null) {
-
-                if (subAttribute.getMultiValued()) {
-                    List<Attribute> subValues = ((MultiValuedAttribute) subAttribute).getAttributeValues();
-                    if (subValues != null) {
-                        for (Attribute subValue : subValues) {
-                            Attribute subSubAttribute  = subValue.getSubAttribute(attributeParts[2]);
-                            if (subSubAttribute != null) {
-                                AttributeSchema subSubAttributeSchema = SchemaUtil.getAttributeSchema(
-                                        attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2], schema);
-
-                                if (subSubAttributeSchema != null) {
-                                    if (subSubAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            subSubAttribute.getMutability().equals
-                                                    (SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                        throw new BadRequestException
-                                                ("Can not replace a immutable attribute or a read-only attribute",
-                                                ResponseCodeConstants.MUTABILITY);
-                                    } else {
-                                        if (subSubAttribute.getMultiValued()) {
-                                            JSONArray jsonArray = null;
-                                            try {
-                                                jsonArray = new JSONArray
-                                                        (new JSONTokener(operation.getValues().toString()));
-                                            } catch (JSONException e) {
-                                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                            }
-                                            MultiValuedAttribute multiValuedAttribute =
-                                                    decoder.buildPrimitiveMultiValuedAttribute(subSubAttributeSchema,
-                                                           jsonArray);
-                                            ((ComplexAttribute) subValue).removeSubAttribute(attributeParts[2]);
-                                            ((ComplexAttribute) subValue).setSubAttribute(multiValuedAttribute);
-                                        } else {
-                                            SimpleAttribute simpleAttribute =
-                                                    decoder.buildSimpleAttribute(subSubAttributeSchema,
-                                                    operation.getValues());
-                                            ((ComplexAttribute) subValue).removeSubAttribute(attributeParts[2]);
-                                            ((ComplexAttribute) subValue).setSubAttribute(simpleAttribute);
-                                        }
-                                    }
-                                } else {
-                                    throw new BadRequestException
-                                            ("No such attribute with the name : " + attributeParts[2],
-                                            ResponseCodeConstants.NO_TARGET);
-                                }
-                            } else {
-                                createSubSubAttributeOnResourceWithPathWithoutFiltersForLevelThree(schema, decoder,
-                                        operation, attributeParts, (ComplexAttribute) subValue);
-                            }
-                        }
-
-                    }
-
-                } else {
-                    Attribute subSubAttribute  = ((ComplexAttribute) subAttribute).getSubAttribute(attributeParts[2]);
-
-                    if (subSubAttribute != null) {
-                        ((SimpleAttribute) subSubAttribute).setValue(operation.getValues());
-                    } else {
-                        createSubSubAttributeOnResourceWithPathWithoutFiltersForLevelThree(schema, decoder, operation,
-                                attributeParts, (ComplexAttribute) subAttribute);
-                    }
-                }
-
-            } else {
-                createSubAttributeOnResourceWithPathWithoutFiltersForLevelThree(schema, operation, attributeParts,
-                        (ComplexAttribute) attribute);
-            }
-        } else {
-
-            createAttributeOnResourceWithPathWithoutFiltersForLevelThree(oldResource, schema, operation,
-                    attributeParts);
-        }
-    }
-
-    /**
-     * Create sub sub attribute on resource with path without filters for level three case.
-     *
-     * @param schema         SCIM resource schema.
-     * @param decoder        JSON decoder.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array.
-     * @param subAttribute   Sub attribute.
-     * @throws BadRequestException
-     * @throws CharonException
-     */
-    private static void createSubSubAttributeOnResourceWithPathWithoutFiltersForLevelThree(
-            SCIMResourceTypeSchema schema, JSONDecoder decoder, PatchOperation operation, String[] attributeParts,
-            ComplexAttribute subAttribute) throws BadRequestException, CharonException {
-
-        AttributeSchema subSubAttributeSchema = SchemaUtil
-                .getAttributeSchema(attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2], schema);
-
-        if (subSubAttributeSchema != null) {
-            if (subSubAttributeSchema.getMultiValued()) {
-                JSONArray jsonArray = null;
-                try {
-                    jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
-                } catch (JSONException e) {
-                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                }
-                MultiValuedAttribute multiValuedAttribute = decoder
-                        .buildPrimitiveMultiValuedAttribute(subSubAttributeSchema, jsonArray);
-                subAttribute.setSubAttribute(multiValuedAttribute);
-            } else {
-                SimpleAttribute simpleAttribute = decoder
-                        .buildSimpleAttribute(subSubAttributeSchema, operation.getValues());
-                subAttribute.setSubAttribute(simpleAttribute);
-            }
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[2],
-                    ResponseCodeConstants.NO_TARGET);
-        }
-    }
-
-    /**
-     * Create sub attribute on resource with path without filters for level three case.
-     *
-     * @param schema         SCIM resource schema.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array.
-     * @param attribute      Attribute.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static void createSubAttributeOnResourceWithPathWithoutFiltersForLevelThree(SCIMResourceTypeSchema schema,
-            PatchOperation operation, String[] attributeParts, ComplexAttribute attribute)
-            throws CharonException, BadRequestException {
-
-        AttributeSchema subAttributeSchena = SchemaUtil
-                .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-
-        if (subAttributeSchena != null) {
-            if (subAttributeSchena.getMultiValued()) {
-
-                MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(subAttributeSchena.getName());
-                DefaultAttributeFactory.createAttribute(subAttributeSchena, multiValuedAttribute);
-
-                String complexAttributeName =
-                        subAttributeSchena.getName() + "_" + operation.getValues() + "_" + SCIMConstants.DEFAULT;
-                ComplexAttribute complexAttribute = new ComplexAttribute(complexAttributeName);
-                DefaultAttributeFactory.createAttribute(subAttributeSchena, complexAttribute);
-
-                AttributeSchema subSubAttributeSchema = SchemaUtil
-                        .getAttributeSchema(attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2],
-                                schema);
-                if (subSubAttributeSchema != null) {
-                    if (subSubAttributeSchema.getMultiValued()) {
-                        MultiValuedAttribute multiValuedSubAttribute = new MultiValuedAttribute(
-                                subSubAttributeSchema.getName());
-                        DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedSubAttribute);
-                        JSONArray jsonArray = null;
-                        try {
-                            jsonArray = new JSONArray(operation.getValues());
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        for (int i = 0; i < jsonArray.length(); i++) {
-                            try {
-                                multiValuedSubAttribute.setAttributePrimitiveValue(jsonArray.get(i));
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        }
-                        complexAttribute.setSubAttribute(multiValuedSubAttribute);
-
-                    } else {
-                        SimpleAttribute simpleAttribute = new SimpleAttribute(subSubAttributeSchema.getName(),
-                                operation.getValues());
-                        DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                        complexAttribute.setSubAttribute(simpleAttribute);
-                    }
-                    multiValuedAttribute.setAttributeValue(complexAttribute);
-                    attribute.setSubAttribute(multiValuedAttribute);
-                } else {
-                    throw new BadRequestException("No such attribute with the name : " + attributeParts[2],
-                            ResponseCodeConstants.NO_TARGET);
-                }
-
-            } else {
-                ComplexAttribute complexAttribute = new ComplexAttribute(subAttributeSchena.getName());
-                DefaultAttributeFactory.createAttribute(subAttributeSchena, complexAttribute);
-
-                AttributeSchema subSubAttributeSchema = SchemaUtil
-                        .getAttributeSchema(attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2],
-                                schema);
-
-                if (subSubAttributeSchema != null) {
-
-                    if (subSubAttributeSchema.getMultiValued()) {
-                        MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(
-                                subSubAttributeSchema.getName());
-                        DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedAttribute);
-                        JSONArray jsonArray = null;
-                        try {
-                            jsonArray = new JSONArray(operation.getValues());
-                        } catch (JSONException e) {
-                            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                        }
-                        for (int i = 0; i < jsonArray.length(); i++) {
-                            try {
-                                multiValuedAttribute.setAttributePrimitiveValue(jsonArray.get(i));
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                        }
-                        complexAttribute.setSubAttribute(multiValuedAttribute);
-
-                    } else {
-                        SimpleAttribute simpleAttribute = new SimpleAttribute(subSubAttributeSchema.getName(),
-                                operation.getValues());
-                        DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                        complexAttribute.setSubAttribute(simpleAttribute);
-                    }
-                    attribute.setSubAttribute(complexAttribute);
-
-                } else {
-                    throw new BadRequestException("No such attribute with the name : " + attributeParts[2],
-                            ResponseCodeConstants.NO_TARGET);
-                }
-            }
-
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                    ResponseCodeConstants.NO_TARGET);
-        }
-    }
-
-    /**
-     * Create attribute on resource with path without filters for level three case.
+     * Get JSON array out of provided JSON string value in the operation.
      *
-     * @param oldResource    Original resource SCIM object.
-     * @param schema         SCIM resource schema.
-     * @param operation      Operation to be performed.
-     * @param attributeParts Attribute parts array.
-     * @throws CharonException
-     * @throws BadRequestException
-     */
-    private static void createAttributeOnResourceWithPathWithoutFiltersForLevelThree(AbstractSCIMObject oldResource,
-            SCIMResourceTypeSchema schema, PatchOperation operation, String[] attributeParts)
-            throws CharonException, BadRequestException {
-
-        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-
-        if (attributeSchema != null) {
-
-            ComplexAttribute parentAttribute = new ComplexAttribute(attributeSchema.getName());
-            DefaultAttributeFactory.createAttribute(attributeSchema, parentAttribute);
-
-            AttributeSchema subAttributeSchena = SchemaUtil
-                    .getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-
-            if (subAttributeSchena != null) {
-                if (subAttributeSchena.getMultiValued()) {
-
-                    MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(subAttributeSchena.getName());
-                    DefaultAttributeFactory.createAttribute(subAttributeSchena, multiValuedAttribute);
-
-                    String complexAttributeName =
-                            subAttributeSchena.getName() + "_" + operation.getValues() + "_" + SCIMConstants.DEFAULT;
-                    ComplexAttribute complexAttribute = new ComplexAttribute(complexAttributeName);
-                    DefaultAttributeFactory.createAttribute(subAttributeSchena, complexAttribute);
-
-                    AttributeSchema subSubAttributeSchema = SchemaUtil
-                            .getAttributeSchema(attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2],
-                                    schema);
-                    if (subSubAttributeSchema != null) {
-                        if (subSubAttributeSchema.getMultiValued()) {
-                            MultiValuedAttribute multiValuedSubAttribute = new MultiValuedAttribute(
-                                    subSubAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedSubAttribute);
-                            JSONArray jsonArray = null;
-                            try {
-                                jsonArray = new JSONArray(operation.getValues());
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                            for (int i = 0; i < jsonArray.length(); i++) {
-                                try {
-                                    multiValuedSubAttribute.setAttributePrimitiveValue(jsonArray.get(i));
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                            }
-                            complexAttribute.setSubAttribute(multiValuedSubAttribute);
-
-                        } else {
-                            SimpleAttribute simpleAttribute = new SimpleAttribute(subSubAttributeSchema.getName(),
-                                    operation.getValues());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                            complexAttribute.setSubAttribute(simpleAttribute);
-                        }
-                        multiValuedAttribute.setAttributeValue(complexAttribute);
-                        parentAttribute.setSubAttribute(multiValuedAttribute);
-                    } else {
-                        throw new BadRequestException("No such attribute with the name : " + attributeParts[2],
-                                ResponseCodeConstants.NO_TARGET);
-                    }
-
-                } else {
-                    ComplexAttribute complexAttribute = new ComplexAttribute(subAttributeSchena.getName());
-                    DefaultAttributeFactory.createAttribute(subAttributeSchena, complexAttribute);
-
-                    AttributeSchema subSubAttributeSchema = SchemaUtil
-                            .getAttributeSchema(attributeParts[0] + "." + attributeParts[1] + "." + attributeParts[2],
-                                    schema);
-
-                    if (subSubAttributeSchema != null) {
-
-                        if (subSubAttributeSchema.getMultiValued()) {
-                            MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(
-                                    subSubAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedAttribute);
-                            JSONArray jsonArray = null;
-                            try {
-                                jsonArray = new JSONArray(operation.getValues());
-                            } catch (JSONException e) {
-                                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                            }
-                            for (int i = 0; i < jsonArray.length(); i++) {
-                                try {
-                                    multiValuedAttribute.setAttributePrimitiveValue(jsonArray.get(i));
-                                } catch (JSONException e) {
-                                    throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
-                                }
-                            }
-                            complexAttribute.setSubAttribute(multiValuedAttribute);
-
-                        } else {
-                            SimpleAttribute simpleAttribute = new SimpleAttribute(subSubAttributeSchema.getName(),
-                                    operation.getValues());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                            complexAttribute.setSubAttribute(simpleAttribute);
-                        }
-                        parentAttribute.setSubAttribute(complexAttribute);
-                        oldResource.setAttribute(parentAttribute);
-
-                    } else {
-                        throw new BadRequestException("No such attribute with the name : " + attributeParts[2],
-                                ResponseCodeConstants.NO_TARGET);
-                    }
-                }
-            } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[1],
-                        ResponseCodeConstants.NO_TARGET);
-            }
-        } else {
-            throw new BadRequestException("No such attribute with the name : " + attributeParts[0],
-                    ResponseCodeConstants.NO_TARGET);
-        }
-    }
-
-    /*
-     * This method is to do patch replace for level three attributes with a filter and path value present.
-     * @param oldResource
-     * @param copyOfOldResource
-     * @param schema
-     * @param decoder
-     * @param operation
-     * @param parts
-     * @throws NotImplementedException
-     * @throws BadRequestException
-     * @throws CharonException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    private static void doPatchReplaceOnPathWithFilters(AbstractSCIMObject oldResource,
-                                                        SCIMResourceTypeSchema schema,
-                                                        JSONDecoder decoder, PatchOperation operation,
-                                                        String[] parts)
-            throws NotImplementedException, BadRequestException,
-            CharonException, JSONException, InternalErrorException {
-
-        if (parts.length != 1) {
-            //currently we only support simple filters here.
-            String[] filterParts = parts[1].split(" ");
-
-            ExpressionNode expressionNode = new ExpressionNode();
-            expressionNode.setAttributeValue(filterParts[0]);
-            expressionNode.setOperation(filterParts[1]);
-            // According to the specification filter attribute value specified with quotation mark, so we need to
-            // remove it if exists.
-            expressionNode.setValue(filterParts[2].replaceAll("^\"|\"$", ""));
-
-            if (expressionNode.getOperation().equalsIgnoreCase((SCIMConstants.OperationalConstants.EQ).trim())) {
-                if (parts.length == 3) {
-                    parts[0] = parts[0] + parts[2];
-                }
-                String[] attributeParts = getAttributeParts(parts[0]);
-
-                if (attributeParts.length == 1) {
-
-                    doPatchReplaceWithFiltersForLevelOne(oldResource, attributeParts,
-                            expressionNode, operation, schema, decoder);
-
-                } else if (attributeParts.length == 2) {
-
-                    doPatchReplaceWithFiltersForLevelTwo(oldResource, attributeParts,
-                            expressionNode, operation, schema, decoder);
-
-                } else if (attributeParts.length == 3) {
-
-                    doPatchReplaceWithFiltersForLevelThree(oldResource, attributeParts,
-                            expressionNode, operation, schema, decoder);
-                }
-
-            } else {
-                throw new NotImplementedException("Only Eq filter is supported");
-            }
-        }
-    }
-
-    /*
-     * This method is to do patch replace for level three attributes with a filter present.
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
-     * @param operation
-     * @return
-     * @throws BadRequestException
-     * @throws CharonException
-     */
-    private static AbstractSCIMObject doPatchReplaceWithFiltersForLevelThree(AbstractSCIMObject oldResource,
-                                                                             String[] attributeParts,
-                                                                             ExpressionNode expressionNode,
-                                                                             PatchOperation operation,
-                                                                             SCIMResourceTypeSchema schema,
-                                                                             JSONDecoder decoder)
-            throws BadRequestException, CharonException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        boolean isValueFound = false;
-        if (attribute != null) {
-
-            Attribute subAttribute = attribute.getSubAttribute(attributeParts[1]);
-
-            if (subAttribute != null) {
-                if (subAttribute.getMultiValued()) {
-
-                    List<Attribute> subValues = ((MultiValuedAttribute) subAttribute).getAttributeValues();
-                    if (subValues != null) {
-                        for (Attribute subValue: subValues) {
-                            Map<String, Attribute> subSubAttributes =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            //this map is to avoid concurrent modification exception.
-                            Map<String, Attribute> tempSubSubAttributes = (Map<String, Attribute>)
-                                    CopyUtil.deepCopy(subSubAttributes);
-
-                            for (Iterator<Attribute> iterator = tempSubSubAttributes.values().iterator();
-                                 iterator.hasNext();) {
-                                Attribute subSubAttribute = iterator.next();
-
-                                if (subSubAttribute.getName().equals(expressionNode.getAttributeValue())) {
-
-                                    Attribute replacingAttribute = subSubAttributes.get(attributeParts[2]);
-                                    if (replacingAttribute == null) {
-                                       AttributeSchema replacingAttributeSchema = SchemaUtil.getAttributeSchema
-                                               (attributeParts[0] + "." + attributeParts[1] + "." +
-                                                       attributeParts[2], schema);
-
-                                        if (replacingAttributeSchema != null) {
-
-                                            if (replacingAttributeSchema.getMultiValued()) {
-                                                ((ComplexAttribute) subValue).setSubAttribute(
-                                                        decoder.buildPrimitiveMultiValuedAttribute
-                                                        (replacingAttributeSchema, (JSONArray) operation.getValues()));
-                                                break;
-
-                                            } else {
-                                                ((ComplexAttribute) subValue).setSubAttribute(
-                                                        decoder.buildSimpleAttribute
-                                                                (replacingAttributeSchema, operation.getValues()));
-                                                break;
-
-                                            }
-
-                                        } else {
-                                            throw new BadRequestException("No such attribute with the name : " +
-                                                    attributeParts[0] + "." + attributeParts[1] + "." +
-                                                    attributeParts[2]);
-                                        }
-                                    }
-                                    if (replacingAttribute.getMutability().equals
-                                            (SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            replacingAttribute.getMutability().equals
-                                                    (SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a immutable attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-
-                                        if (replacingAttribute.getMultiValued()) {
-                                            ((MultiValuedAttribute) replacingAttribute).getAttributePrimitiveValues().
-                                                    remove(expressionNode.getValue());
-                                            ((MultiValuedAttribute) replacingAttribute).
-                                                    setAttributePrimitiveValue(operation.getValues());
-                                        } else  {
-                                            ((SimpleAttribute) (replacingAttribute)).setValue(operation.getValues());
-                                        }
-                                        isValueFound = true;
-                                    }
-                                }
-                            }
-                        }
-                        if (!isValueFound) {
-                            throw new BadRequestException("No matching filter value found.",
-                                    ResponseCodeConstants.NO_TARGET);
-                        }
-                    }
-                } else {
-                    throw new BadRequestException("Attribute : " + attributeParts[1] + " " +
-                            "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-                }
-
-            } else {
-                AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0]
-                        + "." + attributeParts[1], schema);
-                if (subAttributeSchema != null) {
-
-                    MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(subAttributeSchema.getName());
-                    DefaultAttributeFactory.createAttribute(subAttributeSchema, multiValuedAttribute);
-
-                    String complexName = subAttributeSchema.getName() + "_" +
-                            SCIMConstants.DEFAULT + "_" + SCIMConstants.DEFAULT;
-
-                    ComplexAttribute complexAttribute = new ComplexAttribute(complexName);
-                    DefaultAttributeFactory.createAttribute(subAttributeSchema, complexAttribute);
-
-                    AttributeSchema subSubAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0] + "."
-                            + attributeParts[1] + "." + attributeParts[2], schema);
-
-                    if (subSubAttributeSchema != null) {
-                        if (subSubAttributeSchema.getMultiValued()) {
-
-                            MultiValuedAttribute multiValuedSubAttribute =
-                                    new MultiValuedAttribute(subSubAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedSubAttribute);
-                            multiValuedSubAttribute.setAttributePrimitiveValue(operation.getValues());
-                            complexAttribute.setSubAttribute(multiValuedSubAttribute);
-                            multiValuedAttribute.setAttributeValue(complexAttribute);
-                            ((ComplexAttribute) (attribute)).setSubAttribute(multiValuedAttribute);
-                        } else {
-
-                            SimpleAttribute simpleAttribute =
-                                    new SimpleAttribute(subSubAttributeSchema.getName(), operation.getValues());
-                            DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                            complexAttribute.setSubAttribute(simpleAttribute);
-                            multiValuedAttribute.setAttributeValue(complexAttribute);
-                            ((ComplexAttribute) (attribute)).setSubAttribute(multiValuedAttribute);
-                        }
-
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]
-                                + "." + attributeParts[2] + "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                    }
-                } else {
-                    throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]
-                            + "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                }
-            }
-
-        } else {
-            AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-
-            if (attributeSchema != null) {
-
-                if (attributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-
-                    ComplexAttribute extensionAttribute = new ComplexAttribute(attributeSchema.getName());
-                    DefaultAttributeFactory.createAttribute(attributeSchema, extensionAttribute);
-
-                    AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0]
-                            + "." + attributeParts[1], schema);
-                    if (subAttributeSchema != null) {
+     * @param operation Operation to be performed.
+     * @return Input JSON array.
+     * @throws BadRequestException
+     */
+    private static JSONArray getJsonArray(PatchOperation operation) throws BadRequestException {
 
-                        MultiValuedAttribute multiValuedAttribute =
-                                new MultiValuedAttribute(subAttributeSchema.getName());
-                        DefaultAttributeFactory.createAttribute(subAttributeSchema, multiValuedAttribute);
+        JSONArray jsonArray = null;
+        try {
+            if (operation.getValues() != null) {
+                jsonArray = new JSONArray(new JSONTokener(operation.getValues().toString()));
+            }
+        } catch (JSONException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Invalid JSON string, " + operation.getValues().toString());
+            }
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        return jsonArray;
+    }
 
-                        String complexName = subAttributeSchema.getName() + "_" +
-                                SCIMConstants.DEFAULT + "_" + SCIMConstants.DEFAULT;
+    /**
+     * perform patch add operation on provided resource where path is not provided.
+     *
+     * @param operation         Operation to be performed.
+     * @param decoder           JSON decoder.
+     * @param oldResource       Original resource SCIM object.
+     * @param copyOfOldResource Copy of the original resource SCIM object.
+     * @param schema            SCIM resource schema.
+     * @return Updated SCIM object resource.
+     * @throws CharonException
+     * @throws BadRequestException
+     */
+    private static AbstractSCIMObject doPatchAddOnResource(PatchOperation operation, JSONDecoder decoder,
+                                                           AbstractSCIMObject oldResource,
+                                                           AbstractSCIMObject copyOfOldResource,
+                                                           SCIMResourceTypeSchema schema)
+            throws CharonException, BadRequestException {
 
-                        ComplexAttribute complexAttribute = new ComplexAttribute(complexName);
-                        DefaultAttributeFactory.createAttribute(subAttributeSchema, complexAttribute);
+        try {
+            AbstractSCIMObject attributeHoldingSCIMObject = decoder.decode(operation.getValues().toString(), schema);
+            if (oldResource != null) {
+                for (String attributeName : attributeHoldingSCIMObject.getAttributeList().keySet()) {
+                    Attribute oldAttribute = oldResource.getAttribute(attributeName);
+                    if (oldAttribute != null) {
+                        // if the attribute is there, append it.
+                        if (oldAttribute.getMultiValued() &&
+                                oldAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
+                            //this is multivalued complex case.
+                            MultiValuedAttribute attributeValue = (MultiValuedAttribute)
+                                    attributeHoldingSCIMObject.getAttribute(attributeName);
 
-                        AttributeSchema subSubAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0] + "."
-                                + attributeParts[1] + "." + attributeParts[2], schema);
+                            for (Attribute attribute : attributeValue.getAttributeValues()) {
+                                ((MultiValuedAttribute) oldAttribute).setAttributeValue(attribute);
+                            }
 
-                        if (subSubAttributeSchema != null) {
-                            if (subSubAttributeSchema.getMultiValued()) {
+                        } else if (oldAttribute.getMultiValued()) {
 
-                                MultiValuedAttribute multiValuedSubAttribute =
-                                        new MultiValuedAttribute(subSubAttributeSchema.getName());
-                                DefaultAttributeFactory.createAttribute(subSubAttributeSchema, multiValuedSubAttribute);
-                                multiValuedAttribute.setAttributePrimitiveValue(operation.getValues());
-                                complexAttribute.setSubAttribute(multiValuedSubAttribute);
-                                (multiValuedAttribute).setAttributeValue(complexAttribute);
-                                extensionAttribute.setSubAttribute(multiValuedAttribute);
-                                oldResource.setAttribute(extensionAttribute);
-                            } else {
+                            //this is multivalued primitive case.
+                            MultiValuedAttribute attributeValue = (MultiValuedAttribute)
+                                    attributeHoldingSCIMObject.getAttribute(attributeName);
 
-                                SimpleAttribute simpleAttribute =
-                                        new SimpleAttribute(subSubAttributeSchema.getName(), operation.getValues());
-                                DefaultAttributeFactory.createAttribute(subSubAttributeSchema, simpleAttribute);
-                                complexAttribute.setSubAttribute(simpleAttribute);
-                                (multiValuedAttribute).setAttributeValue(simpleAttribute);
-                                extensionAttribute.setSubAttribute(multiValuedAttribute);
-                                oldResource.setAttribute(extensionAttribute);
+                            for (Object obj : attributeValue.getAttributePrimitiveValues()) {
+                                ((MultiValuedAttribute) oldAttribute).setAttributePrimitiveValue(obj);
                             }
 
-                        } else {
-                            throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]
-                                    + "." + attributeParts[2] + "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                        }
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]
-                                + "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                    }
+                        } else if (oldAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
+                            //this is the complex attribute case.
+                            Map<String, Attribute> subAttributeList =
+                                    ((ComplexAttribute) attributeHoldingSCIMObject.
+                                            getAttribute(attributeName)).getSubAttributesList();
 
-                }
+                            for (Map.Entry<String, Attribute> subAttrib : subAttributeList.entrySet()) {
+                                Attribute subAttribute = oldAttribute.getSubAttribute(subAttrib.getKey());
 
-            } else {
-                throw new BadRequestException("Attribute : " + attributeParts[0]  + "does not exists.",
-                        ResponseCodeConstants.INVALID_PATH);
-            }
-        }
-        return oldResource;
+                                if (subAttribute != null) {
+                                    if (subAttribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
+                                        if (subAttribute.getMultiValued()) {
+                                            //extension schema is the only one who reaches here.
+                                            MultiValuedAttribute attributeSubValue = (MultiValuedAttribute)
+                                                    ((ComplexAttribute) attributeHoldingSCIMObject.
+                                                            getAttribute(attributeName)).
+                                                            getSubAttribute(subAttrib.getKey());
 
+                                            for (Attribute attribute : attributeSubValue.getAttributeValues()) {
+                                                ((MultiValuedAttribute) subAttribute).setAttributeValue(attribute);
+                                            }
+                                        } else {
+                                            //extension schema is the only one who reaches here.
+                                            Map<String, Attribute> subSubAttributeList = ((ComplexAttribute)
+                                                    (attributeHoldingSCIMObject.getAttribute(attributeName).
+                                                            getSubAttribute(subAttrib.getKey()))).
+                                                    getSubAttributesList();
 
-    }
+                                            for (Map.Entry<String, Attribute> subSubAttrib :
+                                                    subSubAttributeList.entrySet()) {
+                                                Attribute subSubAttribute = oldAttribute.getSubAttribute
+                                                        (subAttrib.getKey()).getSubAttribute(subSubAttrib.getKey());
 
-    /*
-     * This method is to do patch replace for level two attributes with a filter present.
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
-     * @param operation
-     * @param schema
-     * @param decoder
-     * @return
-     * @throws CharonException
-     * @throws BadRequestException
-     * @throws JSONException
-     * @throws InternalErrorException
-     */
-    private static AbstractSCIMObject doPatchReplaceWithFiltersForLevelTwo(AbstractSCIMObject oldResource,
-                                                                           String[] attributeParts,
-                                                                           ExpressionNode expressionNode,
-                                                                           PatchOperation operation,
-                                                                           SCIMResourceTypeSchema schema,
-                                                                           JSONDecoder decoder)
-            throws CharonException, BadRequestException, JSONException, InternalErrorException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        boolean isValueFound = false;
-        if (attribute != null) {
-
-            if (attribute.getMultiValued()) {
-
-                List<Attribute> subValues = ((MultiValuedAttribute) attribute).getAttributeValues();
-                if (subValues != null) {
-                    for (Attribute subValue: subValues) {
-                        Map<String, Attribute> subAttributes = ((ComplexAttribute) subValue).getSubAttributesList();
-                        //this map is to avoid concurrent modification exception.
-                        Map<String, Attribute> tempSubAttributes = (Map<String, Attribute>)
-                                CopyUtil.deepCopy(subAttributes);
-
-                        for (Iterator<Attribute> iterator = tempSubAttributes.values().iterator();
-                             iterator.hasNext();) {
-                            Attribute subAttribute = iterator.next();
-
-                            if (subAttribute.getName().equals(expressionNode.getAttributeValue())) {
-
-                                if (((SimpleAttribute) subAttribute).getValue().equals(expressionNode.getValue())) {
-                                    Attribute replacingAttribute = subAttributes.get(attributeParts[1]);
-                                    if (replacingAttribute == null) {
-                                        //add the attribute
-                                        AttributeSchema replacingAttributeSchema =
-                                                SchemaUtil.getAttributeSchema
-                                                        (attributeParts[0] + "." + attributeParts[1], schema);
-                                        if (replacingAttributeSchema.getMultiValued()) {
-                                            MultiValuedAttribute multiValuedAttribute =
-                                                    new MultiValuedAttribute(replacingAttributeSchema.getName());
-                                            DefaultAttributeFactory.createAttribute
-                                                    (replacingAttributeSchema, multiValuedAttribute);
-                                            multiValuedAttribute.setAttributePrimitiveValue(operation.getValues());
-                                            ((ComplexAttribute) subValue).setSubAttribute(multiValuedAttribute);
-                                            break;
+                                                if (subSubAttribute != null) {
+                                                    if (subSubAttribute.getMultiValued()) {
+                                                        addPrimitiveValues((MultiValuedAttribute) subSubAttribute,
+                                                                ((MultiValuedAttribute) (subSubAttrib.getValue()))
+                                                                        .getAttributePrimitiveValues());
+                                                    } else {
+                                                        ((SimpleAttribute) subSubAttribute).setValue(
+                                                                ((SimpleAttribute) subSubAttrib.getValue()).getValue());
+                                                    }
+                                                } else {
+                                                    if (subSubAttrib.getValue() != null) {
+                                                        ((ComplexAttribute) (subAttribute)).setSubAttribute(
+                                                                subSubAttrib.getValue());
+                                                    } else {
+                                                        throw new BadRequestException("Not a valid attribute.",
+                                                                ResponseCodeConstants.INVALID_SYNTAX);
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    } else {
+                                        if (subAttribute.getMultiValued()) {
+                                            addPrimitiveValues((MultiValuedAttribute) subAttribute,
+                                                    ((MultiValuedAttribute) (subAttrib.getValue()))
+                                                            .getAttributePrimitiveValues());
                                         } else {
-                                            SimpleAttribute simpleAttribute =
-                                                    new SimpleAttribute(replacingAttributeSchema.getName(),
-                                                            operation.getValues());
-                                            DefaultAttributeFactory.createAttribute
-                                                    (replacingAttributeSchema, simpleAttribute);
-                                            ((ComplexAttribute) subValue).setSubAttribute(simpleAttribute);
-                                            break;
+                                            ((SimpleAttribute) subAttribute).setValue(((SimpleAttribute)
+                                                    subAttrib.getValue()).getValue());
                                         }
                                     }
-                                    if (replacingAttribute.getMutability().
-                                            equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            replacingAttribute.getMutability().
-                                                    equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a immutable attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
+                                } else {
+                                    if (subAttrib.getValue() != null) {
+                                        ((ComplexAttribute) oldAttribute).setSubAttribute
+                                                (subAttrib.getValue());
                                     } else {
-                                        if (replacingAttribute.getMultiValued()) {
-                                            ((MultiValuedAttribute) replacingAttribute).getAttributePrimitiveValues().
-                                                    remove(expressionNode.getValue());
-                                            ((MultiValuedAttribute) replacingAttribute).
-                                                    setAttributePrimitiveValue(operation.getValues());
-                                        } else  {
-                                            ((SimpleAttribute) (replacingAttribute)).setValue(operation.getValues());
-                                        }
-                                        isValueFound = true;
+                                        throw new BadRequestException("Not a valid attribute.",
+                                                ResponseCodeConstants.INVALID_SYNTAX);
                                     }
-                                }
-                            }
-                        }
-                    }
-                    if (!isValueFound) {
-                        throw new BadRequestException("No matching filter value found.",
-                                ResponseCodeConstants.NO_TARGET);
-                    }
-                }
-            } else if (attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                //this is only valid for extension
-                Attribute subAttribute = attribute.getSubAttribute(attributeParts[1]);
-                if (subAttribute == null) {
-                    //add the attribute
-                    AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0] + "."
-                            + attributeParts[1], schema);
-                    if (subAttributeSchema != null) {
-
-                        if (subAttributeSchema.getMultiValued()) {
-                            MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute
-                                    (subAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subAttributeSchema, multiValuedAttribute);
-
-                            multiValuedAttribute.setAttributeValue(
-                                    decoder.buildComplexAttribute(subAttributeSchema,
-                                            (JSONObject) operation.getValues()));
-                            ((ComplexAttribute) (attribute)).setSubAttribute(multiValuedAttribute);
-
-                        } else {
-                            throw new BadRequestException("Attribute : " + attributeParts[1]  +
-                                    "is not a multi valued attribute.", ResponseCodeConstants.INVALID_PATH);
-                        }
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]  +
-                                "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                    }
 
-                } else {
-                    List<Attribute> subValues = ((MultiValuedAttribute) (subAttribute)).getAttributeValues();
-                    if (subValues != null) {
-                        for (Iterator<Attribute> subValueIterator = subValues.iterator();
-                             subValueIterator.hasNext(); ) {
-                            Attribute subValue = subValueIterator.next();
-
-                            Map<String, Attribute> subValuesSubAttribute =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            for (Iterator<Attribute> iterator =
-                                 subValuesSubAttribute.values().iterator(); iterator.hasNext(); ) {
-
-                                Attribute subSubAttribute = iterator.next();
-                                if (subSubAttribute.getName().equals(expressionNode.getAttributeValue())) {
-                                    if (((SimpleAttribute) (subSubAttribute)).getValue().equals
-                                            (expressionNode.getValue())) {
-                                        if (subValue.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                                subValue.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-
-                                            throw new BadRequestException
-                                                    ("Can not remove a immutable attribute or a read-only attribute",
-                                                            ResponseCodeConstants.MUTABILITY);
-                                        } else {
-                                            subValueIterator.remove();
-                                            isValueFound = true;
-                                        }
-                                    }
                                 }
                             }
-                        }
-                        AttributeSchema attributeSchema =
-                                SchemaUtil.getAttributeSchema(attributeParts[0] + "." + attributeParts[1], schema);
-                        subValues.add(decoder.buildComplexAttribute(attributeSchema,
-                                (JSONObject) operation.getValues()));
-                        if (!isValueFound) {
-                            throw new BadRequestException("No matching filter value found.",
-                                    ResponseCodeConstants.NO_TARGET);
-                        }
-                    }
-                }
-            } else {
-                throw new BadRequestException("Attribute : " + expressionNode.getAttributeValue() + " " +
-                        "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-            }
-        } else {
-            //add the attribute
-            AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-            if (attributeSchema != null) {
-                if (attributeSchema.getMultiValued()) {
-                    MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(attributeSchema.getName());
-                    DefaultAttributeFactory.createAttribute(attributeSchema, multiValuedAttribute);
-
-                    String complexName = attributeSchema.getName() + "_" +
-                            SCIMConstants.DEFAULT + "_" + SCIMConstants.DEFAULT;
-                    ComplexAttribute complexAttribute = new ComplexAttribute(complexName);
-                    DefaultAttributeFactory.createAttribute(attributeSchema, complexAttribute);
-
-                    AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0] + "."
-                                                                    + attributeParts[1], schema);
-                    if (subAttributeSchema != null) {
-                        if (subAttributeSchema.getMultiValued()) {
-
-                            MultiValuedAttribute multiValuedSubAttribute =
-                                    new MultiValuedAttribute(subAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subAttributeSchema, multiValuedSubAttribute);
-                            multiValuedAttribute.setAttributePrimitiveValue(operation.getValues());
-                            complexAttribute.setSubAttribute(multiValuedSubAttribute);
-                            multiValuedAttribute.setAttributeValue(complexAttribute);
-                            oldResource.setAttribute(multiValuedAttribute);
                         } else {
-
-                            SimpleAttribute simpleAttribute =
-                                    new SimpleAttribute(subAttributeSchema.getName(), operation.getValues());
-                            DefaultAttributeFactory.createAttribute(subAttributeSchema, simpleAttribute);
-                            complexAttribute.setSubAttribute(simpleAttribute);
-                            multiValuedAttribute.setAttributeValue(complexAttribute);
-                            oldResource.setAttribute(multiValuedAttribute);
+                            // this is the simple attribute case.replace the value
+                            ((SimpleAttribute) oldAttribute).setValue
+                                    (((SimpleAttribute) attributeHoldingSCIMObject.getAttribute
+                                            (oldAttribute.getName())).getValue());
                         }
-
                     } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]  +
-                                "does not exists.", ResponseCodeConstants.INVALID_PATH);
-                    }
-
-                } else {
-
-                    ComplexAttribute extensionComplexAttribute = new ComplexAttribute(attributeSchema.getName());
-                    DefaultAttributeFactory.createAttribute(attributeSchema, extensionComplexAttribute);
-
-
-                    AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0] + "."
-                            + attributeParts[1], schema);
-                    if (subAttributeSchema != null) {
-
-                        if (subAttributeSchema.getMultiValued()) {
-                            MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute
-                                    (subAttributeSchema.getName());
-                            DefaultAttributeFactory.createAttribute(subAttributeSchema, multiValuedAttribute);
-
-                            multiValuedAttribute.setAttributeValue(
-                                    decoder.buildComplexAttribute(subAttributeSchema,
-                                            (JSONObject) operation.getValues()));
-                            oldResource.setAttribute(multiValuedAttribute);
-
+                        //if the attribute is not already set, set it.
+                        if (attributeHoldingSCIMObject.getAttribute(attributeName) != null) {
+                            oldResource.setAttribute(attributeHoldingSCIMObject.getAttribute(attributeName));
                         } else {
-                            throw new BadRequestException("Attribute : " + attributeParts[1]  +
-                                    "is not a multi valued attribute.", ResponseCodeConstants.INVALID_PATH);
+                            throw new BadRequestException("Not a valid attribute.",
+                                    ResponseCodeConstants.INVALID_SYNTAX);
                         }
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + "." + attributeParts[1]  +
-                                "does not exists.", ResponseCodeConstants.INVALID_PATH);
                     }
-
                 }
-            } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[0],
-                        ResponseCodeConstants.INVALID_PATH);
-            }
+                AbstractSCIMObject validatedResource =
+                        ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
 
+                return validatedResource;
+            } else  {
+                throw new CharonException("Error in getting the old resource.");
+            }
+        } catch (BadRequestException e) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
         }
-        return oldResource;
-
-
     }
 
-
     /*
-     * This method is to do patch replace for level one attributes with a filter present.
-     * @param oldResource
-     * @param attributeParts
-     * @param expressionNode
+     * This is the main patch replace method.
      * @param operation
-     * @param schema
      * @param decoder
+     * @param oldResource
+     * @param copyOfOldResource
+     * @param schema
      * @return
-     * @throws BadRequestException
      * @throws CharonException
-     * @throws JSONException
+     * @throws NotImplementedException
+     * @throws BadRequestException
      * @throws InternalErrorException
      */
-    private static AbstractSCIMObject doPatchReplaceWithFiltersForLevelOne(AbstractSCIMObject oldResource,
-                                                                           String[] attributeParts,
-                                                                           ExpressionNode expressionNode,
-                                                                           PatchOperation operation,
-                                                                           SCIMResourceTypeSchema schema,
-                                                                           JSONDecoder decoder)
-
-            throws BadRequestException, CharonException, JSONException, InternalErrorException {
-
-        Attribute attribute = oldResource.getAttribute(attributeParts[0]);
-        boolean isValueFound = false;
-        if (attribute != null) {
-            if (!attribute.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                //this is for paths value as 'attributeX[attributeX EQ yyy]'
-                //this is multivalued primitive case
-                if (attribute.getMultiValued()) {
-                    List<Object> valuesList  = ((MultiValuedAttribute)
-                            (attribute)).getAttributePrimitiveValues();
-                    for (Iterator<Object> iterator =
-                         valuesList.iterator(); iterator.hasNext();) {
-                        Object item = iterator.next();
-                        //we only support "EQ" filter
-                        if (item.equals(expressionNode.getValue())) {
-
-                            if (attribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                    attribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                throw new BadRequestException
-                                        ("Can not remove a immutable attribute or a read-only attribute",
-                                                ResponseCodeConstants.MUTABILITY);
-                            } else {
-                                iterator.remove();
-                                isValueFound = true;
-                            }
-                        }
-                    }
-                    if (!isValueFound) {
-                        throw new BadRequestException("No matching filter value found.",
-                                ResponseCodeConstants.NO_TARGET);
-                    }
-                    valuesList.add(operation.getValues());
-
-                } else {
-                    throw new BadRequestException("Attribute : " + expressionNode.getAttributeValue() + " " +
-                            "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-                }
-
-            } else {
-                if (attribute.getMultiValued()) {
-                    //this is for paths value as 'emails[value EQ vindula@wso2.com]'
-                    //this is multivalued complex case
-
-                    List<Attribute> subValues = ((MultiValuedAttribute) (attribute)).getAttributeValues();
-                    if (subValues != null) {
-                        for (Iterator<Attribute> subValueIterator = subValues.iterator();
-                             subValueIterator.hasNext(); ) {
-                            Attribute subValue = subValueIterator.next();
-
-                            Map<String, Attribute> subValuesSubAttribute =
-                                    ((ComplexAttribute) subValue).getSubAttributesList();
-                            for (Iterator<Attribute> iterator =
-                                 subValuesSubAttribute.values().iterator(); iterator.hasNext(); ) {
-
-                                Attribute subAttribute = iterator.next();
-                                if (subAttribute.getName().equals(expressionNode.getAttributeValue())) {
-                                    if (((SimpleAttribute)
-                                            (subAttribute)).getValue().equals(expressionNode.getValue())) {
-                                        if (subValue.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                                subValue.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                            throw new BadRequestException
-                                                    ("Can not remove a immutable attribute or a read-only attribute",
-                                                            ResponseCodeConstants.MUTABILITY);
-                                        } else {
-                                            subValueIterator.remove();
-                                            isValueFound = true;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                        if (!isValueFound) {
-                            throw new BadRequestException("No matching filter value found.",
-                                    ResponseCodeConstants.NO_TARGET);
-                        }
-                        AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-                        subValues.add(decoder.buildComplexAttribute(attributeSchema,
-                                (JSONObject) operation.getValues()));
+    public static AbstractSCIMObject doPatchReplace(PatchOperation operation, JSONDecoder decoder,
+                                                    AbstractSCIMObject oldResource,
+                                                    AbstractSCIMObject copyOfOldResource,
+                                                    SCIMResourceTypeSchema schema)
+            throws CharonException, NotImplementedException, BadRequestException, InternalErrorException {
 
-                    }
+        if (operation.getPath() != null) {
+            PatchPath path = PatchPath.compile(operation.getPath());
+            PatchPathNavigator navigator = new PatchPathNavigator(oldResource, schema, decoder);
+            try {
+                if (path.getParts().length != 1) {
+                    navigator.replace(path, getEqFilter(path), operation.getValues());
+                } else if (isPermissionsOfRole(path, oldResource, schema)) {
+                    // Assign permissions to the Role.
+                    ((Role) oldResource).setPermissions(decoder.toList(getJsonArray(operation)));
                 } else {
-                    //this is complex attribute which has multi valued primitive sub attribute.
-                    Attribute subAttribute = attribute.getSubAttribute(expressionNode.getAttributeValue());
-                    if (subAttribute != null) {
-
-                        if (subAttribute.getMultiValued()) {
-                            List<Object> valuesList = ((MultiValuedAttribute)
-                                    (subAttribute)).getAttributePrimitiveValues();
-                            for (Iterator<Object> iterator =
-                                 valuesList.iterator(); iterator.hasNext(); ) {
-                                Object item = iterator.next();
-                                //we only support "EQ" filter
-                                if (item.equals(expressionNode.getValue())) {
-                                    if (subAttribute.getMutability().equals(SCIMDefinitions.Mutability.READ_ONLY) ||
-                                            subAttribute.getMutability().equals(SCIMDefinitions.Mutability.IMMUTABLE)) {
-                                        throw new BadRequestException
-                                                ("Can not remove a immutable attribute or a read-only attribute",
-                                                        ResponseCodeConstants.MUTABILITY);
-                                    } else {
-                                        iterator.remove();
-                                        isValueFound = true;
-                                    }
-                                }
-                            }
-                            if (!isValueFound) {
-                                throw new BadRequestException("No matching filter value found.",
-                                        ResponseCodeConstants.NO_TARGET);
-                            }
-                            valuesList.add(operation.getValues());
-
-                        } else {
-                            throw new BadRequestException("Sub attribute : " +
-                                    expressionNode.getAttributeValue() + " " +
-                                    "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
-                        }
-
-                    } else {
-                        AttributeSchema subAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0]
-                                + "." + expressionNode.getAttributeValue(), schema);
-                        if (subAttributeSchema.getMultiValued()) {
-                            ((ComplexAttribute) (attribute)).setSubAttribute
-                                    (decoder.buildPrimitiveMultiValuedAttribute(subAttributeSchema,
-                                            (JSONArray) operation.getValues()));
-
-                        } else {
-                            if (subAttributeSchema.getMultiValued()) {
-                                ((ComplexAttribute) (attribute)).setSubAttribute
-                                        (decoder.buildSimpleAttribute(subAttributeSchema, operation.getValues()));
-                            }
-                        }
-                    }
+                    navigator.replace(path, operation.getValues());
                 }
+            } catch (BadRequestException | CharonException | InternalErrorException e) {
+                // Leave the resource as it was when the value can not replace every matching attribute.
+                navigator.undo();
+                throw e;
             }
         } else {
-            //add the attribute
-           AttributeSchema attributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0], schema);
-            if (attributeSchema != null) {
-                if (attributeSchema.getType().equals(SCIMDefinitions.DataType.COMPLEX)) {
-                    if (attributeSchema.getMultiValued()) {
-                        MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(attributeSchema.getName());
-                        DefaultAttributeFactory.createAttribute(attributeSchema, multiValuedAttribute);
-
-                        String complexName  = attributeSchema.getName() + "_" + SCIMConstants.DEFAULT + "_" +
-                                SCIMConstants.DEFAULT;
-                        ComplexAttribute complexAttribute = new ComplexAttribute(complexName);
-                        DefaultAttributeFactory.createAttribute(attributeSchema, complexAttribute);
-
-                        AttributeSchema subValuesSubAttributeSchema = SchemaUtil.getAttributeSchema(attributeParts[0]
-                                + "." + expressionNode.getAttributeValue(), schema);
-                        if (subValuesSubAttributeSchema != null) {
-                            SimpleAttribute simpleAttribute =
-                                    new SimpleAttribute(subValuesSubAttributeSchema.getName(), operation.getValues());
-                            DefaultAttributeFactory.createAttribute(subValuesSubAttributeSchema, simpleAttribute);
-                            complexAttribute.setSubAttribute(simpleAttribute);
-                            multiValuedAttribute.setAttributeValue(complexAttribute);
-                            oldResource.setAttribute(multiValuedAttribute);
-                        } else {
-                            throw new BadRequestException("No such attribute with name : " + attributeParts[0]
-                                    + "." + expressionNode.getAttributeValue(), ResponseCodeConstants.INVALID_PATH);
-                        }
-
-
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + " " +
-                                "is not a multivalued attribute.",
-                                ResponseCodeConstants.INVALID_PATH);
-                    }
-                } else {
-                    if (attributeSchema.getMultiValued()) {
-                        //primitive case
-                        MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(attributeSchema.getName());
-                        DefaultAttributeFactory.createAttribute(attributeSchema, multiValuedAttribute);
-                        multiValuedAttribute.setAttributePrimitiveValue(operation.getValues());
-                        oldResource.setAttribute(multiValuedAttribute);
-                    } else {
-                        throw new BadRequestException("Attribute : " + attributeParts[0] + " " +
-                                "is not a multivalued attribute.",
-                                ResponseCodeConstants.INVALID_PATH);
-                    }
-                }
-            } else {
-                throw new BadRequestException("No such attribute with the name : " + attributeParts[0],
-                        ResponseCodeConstants.INVALID_PATH);
-            }
-
+            doPatchReplaceOnResource(oldResource, copyOfOldResource, schema, decoder, operation);
         }
-        return oldResource;
+        //validate the updated object
+        AbstractSCIMObject validatedResource =
+                ServerSideValidator.validateUpdatedSCIMObject(copyOfOldResource, oldResource, schema, true);
+        return validatedResource;
     }
 
     /*
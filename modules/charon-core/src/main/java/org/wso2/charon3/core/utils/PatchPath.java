@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.aParser.Parser;
+import org.wso2.charon3.core.aParser.ParserException;
+import org.wso2.charon3.core.aParser.Rule;
+import org.wso2.charon3.core.aParser.Rule_valuePath;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The path of a patch operation, compiled once per distinct path and shared by the operations using it.
+ * <p>
+ * A compiled path holds the parts the patch operations work with: the parts around the value filter, the attribute
+ * names down to the target attribute, the value filter and whether the path is a value path according to the SCIM
+ * PATCH PATH rule. The attribute schemas the path resolves to are kept for the last resource schema the path was
+ * resolved against.
+ */
+public class PatchPath {
+
+    /**
+     * Maximum number of compiled paths kept. The least recently used path is evicted to keep a new one.
+     */
+    public static final int MAXIMUM_CACHED_PATHS = 1024;
+
+    private static final LRUCache<String, PatchPath> COMPILED_PATHS = new LRUCache<>(MAXIMUM_CACHED_PATHS);
+
+    private final String path;
+    private final String[] parts;
+    private final String[] attributeParts;
+    // Whether the path is a value path, null until the path is parsed.
+    private volatile Boolean filterConditionProvided;
+    private volatile ParserException parserException;
+    private volatile ResolvedPath resolvedPath;
+
+    private PatchPath(String path) {
+
+        this.path = path;
+        // Split the path to extract the filter if present.
+        this.parts = path.split("[\\[\\]]");
+        this.attributeParts = getAttributeParts(parts.length == 3 ? parts[0] + parts[2] : parts[0]);
+    }
+
+    /**
+     * Returns the compiled path of a patch operation.
+     *
+     * @param path Path of the patch operation.
+     * @return Compiled path.
+     */
+    public static PatchPath compile(String path) {
+
+        return COMPILED_PATHS.get(path, PatchPath::new);
+    }
+
+    public String getPath() {
+
+        return path;
+    }
+
+    /**
+     * Returns the parts of the path around the value filter, e.g. emails, type eq "work" and .value.
+     *
+     * @return Parts of the path.
+     */
+    public String[] getParts() {
+
+        return parts.clone();
+    }
+
+    /**
+     * Returns the names of the attributes on the path down to the target attribute, the URI of the schema extension
+     * first if the path is in one, e.g. emails and value.
+     *
+     * @return Attribute names.
+     */
+    public String[] getAttributeParts() {
+
+        return attributeParts.clone();
+    }
+
+    /**
+     * @return Depth of the target attribute, one for an attribute of the resource.
+     */
+    public int getLevel() {
+
+        return attributeParts.length;
+    }
+
+    /**
+     * Returns a new expression node of the value filter of the path. The filter is expected to be of the form
+     * attribute operator value.
+     *
+     * @return Value filter.
+     */
+    public ExpressionNode getFilter() {
+
+        String[] filterParts = parts[1].split(" ");
+        ExpressionNode expressionNode = new ExpressionNode();
+        expressionNode.setAttributeValue(filterParts[0]);
+        expressionNode.setOperation(filterParts[1]);
+        // According to the specification filter attribute value specified with quotation mark, so we need to
+        // remove it if exists.
+        expressionNode.setValue(filterParts[2].replaceAll("^\"|\"$", ""));
+        return expressionNode;
+    }
+
+    /**
+     * Return true when the path contains filter condition(s), else return false. Normally filters surrounded by
+     * square bracket.
+     * According to SCIM spec Rule: valuePath = attributePath "[" valueFilter "]";
+     * Hence rule size is always four.
+     *
+     * @return Whether the path is a value path.
+     * @throws ParserException If the path is not a valid path according to the SCIM PATCH PATH rule.
+     */
+    public boolean isFilterConditionProvided() throws ParserException {
+
+        if (filterConditionProvided == null && parserException == null) {
+            try {
+                Rule pathAttributeRule = Parser.parse(PatchOperationUtil.PATH_RULE_NAME, path);
+                filterConditionProvided = pathAttributeRule.rules.get(0).rules.size() ==
+                        PatchOperationUtil.VALUE_PATH_RULE_SIZE && pathAttributeRule.rules.get(0) instanceof
+                        Rule_valuePath;
+            } catch (ParserException e) {
+                parserException = e;
+            }
+        }
+        if (parserException != null) {
+            throw parserException;
+        }
+        return filterConditionProvided;
+    }
+
+    /**
+     * Returns the schemas of the attributes on the path, starting from an attribute of the resource. A path
+     * prefixed with the URI of the core schema resolves to the attributes following it.
+     *
+     * @param schema Resource schema.
+     * @return Attribute schemas, up to the first attribute not found in the schema.
+     */
+    public List<AttributeSchema> getAttributeSchemas(SCIMResourceTypeSchema schema) {
+
+        ResolvedPath resolved = resolvedPath;
+        if (resolved == null || resolved.schema != schema) {
+            resolved = new ResolvedPath(schema, resolve(schema));
+            resolvedPath = resolved;
+        }
+        return resolved.attributeSchemas;
+    }
+
+    private List<AttributeSchema> resolve(SCIMResourceTypeSchema schema) {
+
+        String attributePath = parts.length == 3 ? parts[0] + parts[2] : parts[0];
+        List<AttributeSchema> attributeSchemas = new ArrayList<>();
+        // Extensions are attributes named by their schema URI.
+        for (AttributeSchema attributeSchema : schema.getAttributesList()) {
+            String name = attributeSchema.getName();
+            if (name.contains(":") && startsWithName(attributePath, name, ':')) {
+                attributeSchemas.add(attributeSchema);
+                if (attributePath.length() > name.length()) {
+                    resolveSubAttributes(attributeSchema, attributePath.substring(name.length() + 1),
+                            attributeSchemas);
+                }
+                return Collections.unmodifiableList(attributeSchemas);
+            }
+        }
+        for (String schemaURI : schema.getSchemasList()) {
+            if (attributePath.length() > schemaURI.length() && startsWithName(attributePath, schemaURI, ':')) {
+                attributePath = attributePath.substring(schemaURI.length() + 1);
+                break;
+            }
+        }
+        String[] names = attributePath.split("\\.");
+        for (AttributeSchema attributeSchema : schema.getAttributesList()) {
+            if (attributeSchema.getName().equalsIgnoreCase(names[0])) {
+                attributeSchemas.add(attributeSchema);
+                if (names.length > 1) {
+                    resolveSubAttributes(attributeSchema, attributePath.substring(names[0].length() + 1),
+                            attributeSchemas);
+                }
+                break;
+            }
+        }
+        return Collections.unmodifiableList(attributeSchemas);
+    }
+
+    private static void resolveSubAttributes(AttributeSchema attributeSchema, String subAttributePath,
+                                             List<AttributeSchema> attributeSchemas) {
+
+        AttributeSchema parent = attributeSchema;
+        for (String name : subAttributePath.split("\\.")) {
+            AttributeSchema child = null;
+            if (parent.getSubAttributeSchemas() != null) {
+                for (AttributeSchema subAttributeSchema : parent.getSubAttributeSchemas()) {
+                    if (subAttributeSchema.getName().equalsIgnoreCase(name)) {
+                        child = subAttributeSchema;
+                        break;
+                    }
+                }
+            }
+            if (child == null) {
+                return;
+            }
+            attributeSchemas.add(child);
+            parent = child;
+        }
+    }
+
+    private static boolean startsWithName(String path, String name, char separator) {
+
+        return path.regionMatches(true, 0, name, 0, name.length()) &&
+                (path.length() == name.length() || path.charAt(name.length()) == separator);
+    }
+
+    /*
+     * Calculate the parts of an attribute URI
+     */
+    private static String[] getAttributeParts(String attributeURI) {
+
+        ArrayList<String> tempAttributeNames = new ArrayList<>();
+        String extensionURI = "";
+        String[] attributeURIParts = attributeURI.split(":");
+
+        StringBuffer buf = new StringBuffer();
+        for (int i = 0; i < attributeURIParts.length - 1; ++i) {
+            buf.append(":");
+            buf.append(attributeURIParts[i]);
+        }
+        extensionURI = buf.toString();
+
+        String attributeNameString = attributeURIParts[attributeURIParts.length - 1];
+        String[] attributeNames = attributeNameString.split("\\.");
+
+        if (attributeURIParts.length > 1) {
+            tempAttributeNames.add(extensionURI.substring(1));
+        }
+
+        for (int i = 0; i < attributeNames.length; i++) {
+            tempAttributeNames.add(attributeNames[i]);
+        }
+
+        return tempAttributeNames.toArray(attributeNames);
+    }
+
+    /**
+     * Attribute schemas of the path in a resource schema.
+     */
+    private static class ResolvedPath {
+
+        private final SCIMResourceTypeSchema schema;
+        private final List<AttributeSchema> attributeSchemas;
+
+        ResolvedPath(SCIMResourceTypeSchema schema, List<AttributeSchema> attributeSchemas) {
+
+            this.schema = schema;
+            this.attributeSchemas = attributeSchemas;
+        }
+    }
+}
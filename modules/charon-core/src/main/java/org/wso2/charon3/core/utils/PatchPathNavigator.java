@@ -0,0 +1,1285 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.DefaultAttributeFactory;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.InternalErrorException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Applies the add, replace and remove patch operations to the attributes of a resource along a compiled path.
+ * <p>
+ * The navigator finds the attribute the path points to, through the values of the multi-valued attributes on the
+ * way, and changes the attributes in place. Added and replacing values are decoded against the schemas of the
+ * attributes on the path, and the attributes missing on the way are created. What an operation does to an attribute
+ * depends on the depth of the path and the kind of the attribute, e.g. adding to a complex attribute adds to its sub
+ * attributes while adding to a multi-valued primitive attribute replaces its values. Every change is recorded, so
+ * the changes made by an operation that fails part way can be undone.
+ */
+public class PatchPathNavigator {
+
+    private final AbstractSCIMObject resource;
+    private final SCIMResourceTypeSchema schema;
+    private final JSONDecoder decoder;
+    private final Deque<Runnable> undoRecord = new ArrayDeque<>();
+
+    /**
+     * Create a navigator which removes attributes only.
+     *
+     * @param resource Resource to patch.
+     */
+    public PatchPathNavigator(AbstractSCIMObject resource) {
+
+        this(resource, null, null);
+    }
+
+    /**
+     * Create a navigator which adds, replaces and removes attributes.
+     *
+     * @param resource Resource to patch.
+     * @param schema   Schema of the resource, the added and replacing values are decoded against.
+     * @param decoder  Decoder of the added and replacing values.
+     */
+    public PatchPathNavigator(AbstractSCIMObject resource, SCIMResourceTypeSchema schema, JSONDecoder decoder) {
+
+        this.resource = resource;
+        this.schema = schema;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Add a value to the attribute a path without a value filter points to, an attribute of the resource or a sub
+     * attribute of one. The values of a complex multi-valued attribute are added to its values, the sub attributes of
+     * a complex attribute are added to its sub attributes, the values of a multi-valued primitive attribute replace
+     * its values and a simple attribute takes the value. For a path through a multi-valued attribute, the value is
+     * added to each value of the attribute. The attributes on the path which the resource does not have are created.
+     *
+     * @param path  Compiled path.
+     * @param value Value of the operation.
+     * @throws BadRequestException    If the path does not point to an attribute of the schema, the attribute can not
+     *                                be modified or the value does not match the attribute.
+     * @throws CharonException        If the value can not be decoded.
+     * @throws InternalErrorException If the schema of the attribute can not be decoded against.
+     */
+    public void add(PatchPath path, Object value) throws BadRequestException, CharonException, InternalErrorException {
+
+        String[] names = path.getAttributeParts();
+        if (names.length == 1) {
+            addAttribute(names[0], value);
+        } else if (names.length == 2) {
+            addSubAttribute(names, value);
+        } else {
+            throw new BadRequestException("According to SCIM specification max one sub attribute can be allowed " +
+                    "for SCIM attribute. path: " + path.getPath(), ResponseCodeConstants.NO_TARGET);
+        }
+    }
+
+    /**
+     * Replace the attribute a path without a value filter points to with a value, an attribute of the resource, a
+     * sub attribute of one or a sub attribute of a complex sub attribute of an extension. A simple attribute of the
+     * resource takes the value as a string. For a path through a multi-valued attribute, the sub attribute is
+     * replaced in each value of the attribute. The attributes on the path which the resource does not have are
+     * created. A deeper path leaves the resource as it is.
+     *
+     * @param path  Compiled path.
+     * @param value Value of the operation.
+     * @throws BadRequestException    If the path does not point to an attribute of the schema, the attribute can not
+     *                                be modified or the value does not match the attribute.
+     * @throws CharonException        If the value can not be decoded.
+     * @throws InternalErrorException If the schema of the attribute can not be decoded against.
+     */
+    public void replace(PatchPath path, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        String[] names = path.getAttributeParts();
+        if (names.length == 1) {
+            replaceAttribute(names[0], value);
+        } else if (names.length == 2) {
+            replaceSubAttribute(names, value);
+        } else if (names.length == 3) {
+            replaceSubSubAttribute(names, value);
+        }
+    }
+
+    /**
+     * Replace the values matching the value filter of a path with a value, or the sub attribute following the filter
+     * in the matching values, e.g. emails[type eq "work"] and emails[type eq "work"].value. A filter on a complex
+     * attribute matches the values of its multi-valued primitive sub attribute the filter names, and a filter on a
+     * multi-valued sub attribute of an extension matches the values having the sub attribute it names. If the
+     * resource does not have the filtered attribute, it is created holding the value. A deeper path leaves the
+     * resource as it is.
+     *
+     * @param path   Compiled path.
+     * @param filter Value filter of the path.
+     * @param value  Value of the operation.
+     * @throws BadRequestException    If the path does not point to a multi-valued attribute of the schema, no value
+     *                                matches the filter, an attribute can not be modified or the value does not
+     *                                match the attribute.
+     * @throws CharonException        If the value can not be decoded.
+     * @throws InternalErrorException If the schema of the attribute can not be decoded against.
+     */
+    public void replace(PatchPath path, ExpressionNode filter, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        String[] names = path.getAttributeParts();
+        if (names.length == 1) {
+            replaceValues(names[0], filter, value);
+        } else if (names.length == 2) {
+            replaceInValues(names, filter, value);
+        } else if (names.length == 3) {
+            replaceInSubValues(names, filter, value);
+        }
+    }
+
+    /**
+     * Remove the attribute a path without a value filter points to. For a path through a multi-valued attribute,
+     * the attribute is removed from each value having it.
+     *
+     * @param path Compiled path.
+     * @throws BadRequestException If the path does not point to an attribute of the resource, or the attribute can
+     *                             not be removed.
+     */
+    public void remove(PatchPath path) throws BadRequestException {
+
+        String[] names = path.getAttributeParts();
+        Attribute attribute = getAttribute(names[0]);
+        if (names.length == 1) {
+            checkRemovable(attribute);
+            removeAttribute(resource.getAttributeList(), attribute);
+        } else {
+            removeSubAttribute(attribute, names, 1);
+        }
+    }
+
+    /**
+     * Remove the values matching the value filter of a path, or the sub attribute following the filter from the
+     * matching values, e.g. emails[type eq "work"] and emails[type eq "work"].display. A multi-valued attribute left
+     * without values is removed. A filter on a multi-valued sub attribute of an extension matches the values having
+     * the sub attribute it names. A deeper path leaves the resource as it is.
+     *
+     * @param path   Compiled path.
+     * @param filter Value filter of the path.
+     * @throws BadRequestException     If the path does not point to an attribute of the resource, or an attribute
+     *                                 can not be removed.
+     * @throws NotImplementedException If the filter on a multi-valued primitive sub attribute of an extension is not
+     *                                 on its values.
+     */
+    public void remove(PatchPath path, ExpressionNode filter) throws BadRequestException, NotImplementedException {
+
+        String[] names = path.getAttributeParts();
+        if (names.length == 3) {
+            removeFromSubValues(names, filter);
+            return;
+        }
+        if (names.length > 3) {
+            return;
+        }
+        String subAttributeName = path.getParts().length == 3 && names.length > 1 ? names[names.length - 1] : null;
+        int filterLevel = subAttributeName == null ? names.length - 1 : names.length - 2;
+
+        Map<String, Attribute> container = resource.getAttributeList();
+        Attribute attribute = getAttribute(names[0]);
+        for (int level = 1; level <= filterLevel; level++) {
+            container = getSubAttributes(attribute, names, level);
+            attribute = container.get(names[level]);
+            if (attribute == null) {
+                throw noSuchSubAttribute(names, level);
+            }
+        }
+
+        if (subAttributeName != null) {
+            removeFromValues(attribute, subAttributeName, filter);
+        } else if (attribute instanceof MultiValuedAttribute) {
+            removeValues(container, (MultiValuedAttribute) attribute, filter);
+        } else if (attribute instanceof ComplexAttribute) {
+            // A complex attribute with a multi-valued primitive sub attribute named by the filter.
+            Attribute subAttribute = ((ComplexAttribute) attribute).getSubAttributesList()
+                    .get(filter.getAttributeValue());
+            if (subAttribute == null) {
+                throw new BadRequestException("No sub attribute with the name : " + filter.getAttributeValue() + " " +
+                        "in the attribute : " + attribute.getName(), ResponseCodeConstants.INVALID_PATH);
+            }
+            if (!(subAttribute instanceof MultiValuedAttribute) ||
+                    SCIMDefinitions.DataType.COMPLEX.equals(subAttribute.getType())) {
+                throw new BadRequestException("Sub attribute : " + filter.getAttributeValue() + " " +
+                        "is not a primitive multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
+            }
+            removeValues(((ComplexAttribute) attribute).getSubAttributesList(), (MultiValuedAttribute) subAttribute,
+                    filter);
+        } else {
+            throw notMultiValued(attribute.getName());
+        }
+    }
+
+    /**
+     * Undo the changes made since the navigator was created, the last one first.
+     */
+    public void undo() {
+
+        while (!undoRecord.isEmpty()) {
+            undoRecord.pop().run();
+        }
+    }
+
+    /*
+     * Adds a value to an attribute of the resource.
+     */
+    private void addAttribute(String name, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(name);
+        if (attribute == null) {
+            createAttribute(name, value);
+            return;
+        }
+        checkModifiable(attribute);
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType()) && attribute.getMultiValued()) {
+            MultiValuedAttribute newAttribute = (MultiValuedAttribute) buildAttribute(
+                    getAttributeSchema(attribute.getName()), value);
+            addValues(asMultiValued(attribute).getAttributeValues(), newAttribute.getAttributeValues());
+        } else if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
+            ComplexAttribute newAttribute = (ComplexAttribute) buildAttribute(
+                    getAttributeSchema(attribute.getName()), value);
+            addSubAttributes(asComplex(attribute), newAttribute);
+        } else if (attribute.getMultiValued()) {
+            // The added values replace the values of the attribute.
+            List<Object> values = asMultiValued(attribute).getAttributePrimitiveValues();
+            JSONArray newValues = parseJsonArray(value);
+            removeValuesIf(values, primitiveValue -> true);
+            addPrimitiveValues(values, newValues);
+        } else {
+            setValue(asSimple(attribute), value);
+        }
+    }
+
+    /*
+     * Adds the sub attributes of a new complex attribute to a complex attribute, the values of a multi-valued
+     * primitive sub attribute to its values.
+     */
+    private void addSubAttributes(ComplexAttribute attribute, ComplexAttribute newAttribute)
+            throws BadRequestException {
+
+        Map<String, Attribute> subAttributes = attribute.getSubAttributesList();
+        for (Attribute newSubAttribute : newAttribute.getSubAttributesList().values()) {
+            Attribute subAttribute = subAttributes.get(newSubAttribute.getName());
+            if (subAttribute == null) {
+                putAttribute(subAttributes, newSubAttribute);
+            } else if (SCIMDefinitions.DataType.COMPLEX.equals(subAttribute.getType())) {
+                throw new BadRequestException("Sub attribute: " + subAttribute.getName() + " is a complex attribute.",
+                        ResponseCodeConstants.INVALID_SYNTAX);
+            } else if (subAttribute.getMultiValued()) {
+                addValues(asMultiValued(subAttribute).getAttributePrimitiveValues(),
+                        asMultiValued(newSubAttribute).getAttributePrimitiveValues());
+            } else {
+                setValue(asSimple(subAttribute), asSimple(newSubAttribute).getValue());
+            }
+        }
+    }
+
+    /*
+     * Adds a value to a sub attribute of an attribute of the resource.
+     */
+    private void addSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(names[0]);
+        if (attribute == null) {
+            createSubAttribute(names, value);
+        } else if (attribute.getMultiValued()) {
+            for (Attribute complexValue : asMultiValued(attribute).getAttributeValues()) {
+                Attribute subAttribute = complexValue.getSubAttribute(names[1]);
+                if (subAttribute == null) {
+                    putAttribute(asComplex(complexValue).getSubAttributesList(),
+                            buildAttribute(getSchema(names, 2), value));
+                } else {
+                    checkModifiable(subAttribute);
+                    if (subAttribute.getMultiValued()) {
+                        addPrimitiveValues(asMultiValued(subAttribute).getAttributePrimitiveValues(),
+                                parseJsonArray(value));
+                    } else {
+                        setValue(asSimple(subAttribute), value);
+                    }
+                }
+            }
+        } else {
+            setSubAttribute(attribute, names, value);
+        }
+    }
+
+    /*
+     * Replaces an attribute of the resource with a value.
+     */
+    private void replaceAttribute(String name, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Map<String, Attribute> attributes = resource.getAttributeList();
+        Attribute attribute = attributes.get(name);
+        if (attribute == null) {
+            createAttribute(name, value);
+            return;
+        }
+        checkModifiable(attribute);
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
+            putAttribute(attributes, buildAttribute(getAttributeSchema(attribute.getName()), value));
+        } else if (attribute.getMultiValued()) {
+            // The values of a multi-valued primitive attribute are replaced through the attribute of the resource.
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        } else {
+            setValue(asSimple(attribute), String.valueOf(value));
+        }
+    }
+
+    /*
+     * Replaces a sub attribute of an attribute of the resource with a value.
+     */
+    private void replaceSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(names[0]);
+        if (attribute == null) {
+            createSubAttribute(names, value);
+        } else if (attribute.getMultiValued()) {
+            for (Attribute complexValue : asMultiValued(attribute).getAttributeValues()) {
+                Attribute subAttribute = asComplex(complexValue).getSubAttribute(names[1]);
+                if (subAttribute == null) {
+                    putAttribute(asComplex(complexValue).getSubAttributesList(),
+                            buildAttribute(getSchema(names, 2), value));
+                } else {
+                    checkModifiable(subAttribute);
+                    if (subAttribute.getMultiValued()) {
+                        throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+                    }
+                    setValue(asSimple(subAttribute), value);
+                }
+            }
+        } else {
+            setSubAttribute(attribute, names, value);
+        }
+    }
+
+    /*
+     * Replaces a sub attribute of a complex sub attribute of an extension with a value.
+     */
+    private void replaceSubSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(names[0]);
+        if (attribute == null) {
+            AttributeSchema attributeSchema = getSchema(names, 1);
+            Attribute subAttribute = newSubAttribute(names, value);
+            // A multi-valued sub attribute is not created along with the extension.
+            if (!subAttribute.getMultiValued()) {
+                ComplexAttribute newAttribute = newComplexAttribute(attributeSchema.getName(), attributeSchema);
+                newAttribute.setSubAttribute(subAttribute);
+                putAttribute(resource.getAttributeList(), newAttribute);
+            }
+            return;
+        }
+        Attribute subAttribute = asComplex(attribute).getSubAttribute(names[1]);
+        if (subAttribute == null) {
+            putAttribute(((ComplexAttribute) attribute).getSubAttributesList(), newSubAttribute(names, value));
+        } else if (subAttribute.getMultiValued()) {
+            for (Attribute complexValue : asMultiValued(subAttribute).getAttributeValues()) {
+                Map<String, Attribute> subSubAttributes = asComplex(complexValue).getSubAttributesList();
+                AttributeSchema subSubAttributeSchema = getSchema(names, 3);
+                Attribute subSubAttribute = subSubAttributes.get(names[2]);
+                if (subSubAttribute != null) {
+                    checkModifiable(subSubAttribute);
+                }
+                putAttribute(subSubAttributes, buildAttribute(subSubAttributeSchema, value));
+            }
+        } else {
+            Attribute subSubAttribute = subAttribute.getSubAttribute(names[2]);
+            if (subSubAttribute == null) {
+                putAttribute(asComplex(subAttribute).getSubAttributesList(),
+                        buildAttribute(getSchema(names, 3), value));
+            } else {
+                setValue(asSimple(subSubAttribute), value);
+            }
+        }
+    }
+
+    /*
+     * Replaces the values of an attribute of the resource matching a filter with a value.
+     */
+    private void replaceValues(String name, ExpressionNode filter, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(name);
+        if (attribute == null) {
+            createFilteredAttribute(name, filter, value);
+        } else if (!SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
+            if (!attribute.getMultiValued()) {
+                throw notMultiValued(filter.getAttributeValue());
+            }
+            replacePrimitiveValues(attribute, filter, value);
+        } else if (attribute.getMultiValued()) {
+            replaceComplexValues(attribute, getAttributeSchema(name), filter, value, false);
+        } else {
+            // A complex attribute with a multi-valued primitive sub attribute named by the filter.
+            Attribute subAttribute = attribute.getSubAttribute(filter.getAttributeValue());
+            if (subAttribute == null) {
+                AttributeSchema subAttributeSchema = getFilteredSchema(name + "." + filter.getAttributeValue());
+                if (subAttributeSchema.getMultiValued()) {
+                    putAttribute(asComplex(attribute).getSubAttributesList(),
+                            decoder.buildPrimitiveMultiValuedAttribute(subAttributeSchema, asJsonArray(value)));
+                }
+            } else if (subAttribute.getMultiValued()) {
+                replacePrimitiveValues(subAttribute, filter, value);
+            } else {
+                throw new BadRequestException("Sub attribute : " + filter.getAttributeValue() + " " +
+                        "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
+            }
+        }
+    }
+
+    /*
+     * Replaces a sub attribute in the values of an attribute of the resource matching a filter with a value.
+     */
+    private void replaceInValues(String[] names, ExpressionNode filter, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(names[0]);
+        if (attribute == null) {
+            createFilteredSubAttribute(names, value);
+        } else if (attribute.getMultiValued()) {
+            boolean matched = false;
+            for (Attribute complexValue : asMultiValued(attribute).getAttributeValues()) {
+                if (!matches(complexValue, filter)) {
+                    continue;
+                }
+                Map<String, Attribute> subAttributes = asComplex(complexValue).getSubAttributesList();
+                Attribute subAttribute = subAttributes.get(names[1]);
+                if (subAttribute == null) {
+                    // A created sub attribute is not counted as a match.
+                    putAttribute(subAttributes, newPrimitiveAttribute(getSchema(names, 2), value));
+                } else {
+                    replaceMatchingValue(subAttribute, filter, value);
+                    matched = true;
+                }
+            }
+            if (!matched) {
+                throw noMatchingValue();
+            }
+        } else if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
+            // Only extensions have complex multi-valued sub attributes.
+            Attribute subAttribute = attribute.getSubAttribute(names[1]);
+            if (subAttribute == null) {
+                putAttribute(asComplex(attribute).getSubAttributesList(),
+                        newComplexValues(names, getFilteredSchema(names, 2), value));
+            } else {
+                replaceComplexValues(subAttribute, getAttributeSchema(names[0] + "." + names[1]), filter, value,
+                        true);
+            }
+        } else {
+            throw notMultiValued(filter.getAttributeValue());
+        }
+    }
+
+    /*
+     * Replaces a sub attribute in the values of a multi-valued sub attribute of an extension with a value, in the
+     * values having the sub attribute the filter names.
+     */
+    private void replaceInSubValues(String[] names, ExpressionNode filter, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute attribute = resource.getAttributeList().get(names[0]);
+        if (attribute == null) {
+            createFilteredSubSubAttribute(names, value);
+            return;
+        }
+        Attribute subAttribute = attribute.getSubAttribute(names[1]);
+        if (subAttribute == null) {
+            AttributeSchema subAttributeSchema = getFilteredSchema(names, 2);
+            AttributeSchema subSubAttributeSchema = getFilteredSchema(names, 3);
+            ComplexAttribute complexValue = newComplexAttribute(getDefaultValueName(subAttributeSchema),
+                    subAttributeSchema);
+            complexValue.setSubAttribute(newPrimitiveAttribute(subSubAttributeSchema, value));
+            MultiValuedAttribute newSubAttribute = newMultiValuedAttribute(subAttributeSchema);
+            newSubAttribute.setAttributeValue(complexValue);
+            putAttribute(asComplex(attribute).getSubAttributesList(), newSubAttribute);
+            return;
+        }
+        if (!subAttribute.getMultiValued()) {
+            throw notMultiValued(names[1]);
+        }
+        boolean matched = false;
+        for (Attribute complexValue : asMultiValued(subAttribute).getAttributeValues()) {
+            Map<String, Attribute> subSubAttributes = asComplex(complexValue).getSubAttributesList();
+            if (!subSubAttributes.containsKey(filter.getAttributeValue())) {
+                continue;
+            }
+            Attribute subSubAttribute = subSubAttributes.get(names[2]);
+            if (subSubAttribute == null) {
+                String subSubAttributeName = String.join(".", names);
+                AttributeSchema subSubAttributeSchema = getAttributeSchema(subSubAttributeName);
+                if (subSubAttributeSchema == null) {
+                    throw new BadRequestException("No such attribute with the name : " + subSubAttributeName);
+                }
+                // A created sub attribute is not counted as a match.
+                putAttribute(subSubAttributes, subSubAttributeSchema.getMultiValued() ?
+                        decoder.buildPrimitiveMultiValuedAttribute(subSubAttributeSchema, asJsonArray(value)) :
+                        decoder.buildSimpleAttribute(subSubAttributeSchema, value));
+            } else {
+                replaceMatchingValue(subSubAttribute, filter, value);
+                matched = true;
+            }
+        }
+        if (!matched) {
+            throw noMatchingValue();
+        }
+    }
+
+    /*
+     * Replaces a sub attribute of a matching value with a value, the value of the filter in the values of a
+     * multi-valued one.
+     */
+    private void replaceMatchingValue(Attribute attribute, ExpressionNode filter, Object value)
+            throws BadRequestException {
+
+        checkModifiable(attribute);
+        if (attribute.getMultiValued()) {
+            List<Object> values = asMultiValued(attribute).getAttributePrimitiveValues();
+            removeFirstValue(values, filter.getValue());
+            addValues(values, Collections.singletonList(value));
+        } else {
+            setValue(asSimple(attribute), value);
+        }
+    }
+
+    /*
+     * Replaces the complex values of a multi-valued attribute matching a filter with a single value. The value of a
+     * sub attribute of an extension is added even if no value matches, before failing.
+     */
+    private void replaceComplexValues(Attribute attribute, AttributeSchema attributeSchema, ExpressionNode filter,
+                                      Object value, boolean addUnmatched)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        List<Attribute> values = asMultiValued(attribute).getAttributeValues();
+        boolean matched = false;
+        for (Attribute complexValue : values) {
+            if (matches(complexValue, filter)) {
+                checkModifiable(complexValue);
+                matched = true;
+            }
+        }
+        if (!matched && !addUnmatched) {
+            throw noMatchingValue();
+        }
+        removeValuesIf(values, complexValue -> matches(complexValue, filter));
+        addValues(values, Collections.singletonList(buildComplexAttribute(attributeSchema, value)));
+        if (!matched) {
+            throw noMatchingValue();
+        }
+    }
+
+    /*
+     * Replaces the primitive values of a multi-valued attribute equal to the value of a filter with a value.
+     */
+    private void replacePrimitiveValues(Attribute attribute, ExpressionNode filter, Object value)
+            throws BadRequestException {
+
+        List<Object> values = asMultiValued(attribute).getAttributePrimitiveValues();
+        Object filterValue = filter.getValue();
+        if (filterValue == null || !values.contains(filterValue)) {
+            throw noMatchingValue();
+        }
+        checkModifiable(attribute);
+        removeValuesIf(values, filterValue::equals);
+        addValues(values, Collections.singletonList(value));
+    }
+
+    /*
+     * Creates an attribute of the resource holding a value.
+     */
+    private void createAttribute(String name, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(name);
+        if (attributeSchema == null) {
+            throw new BadRequestException("No attribute with the name : " + name);
+        }
+        putAttribute(resource.getAttributeList(), buildAttribute(attributeSchema, value));
+    }
+
+    /*
+     * Creates an attribute of the resource holding a sub attribute with a value, in a single value of a
+     * multi-valued attribute.
+     */
+    private void createSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        AttributeSchema attributeSchema = getSchema(names, 1);
+        AttributeSchema subAttributeSchema = getSchema(names, 2);
+        Attribute newAttribute;
+        if (attributeSchema.getMultiValued()) {
+            ComplexAttribute complexValue = newComplexAttribute(getValueName(attributeSchema, value), attributeSchema);
+            complexValue.setSubAttribute(newSimpleAttribute(subAttributeSchema, value));
+            newAttribute = newMultiValuedAttribute(attributeSchema);
+            ((MultiValuedAttribute) newAttribute).setAttributeValue(complexValue);
+        } else {
+            newAttribute = newComplexAttribute(attributeSchema.getName(), attributeSchema);
+            ((ComplexAttribute) newAttribute).setSubAttribute(
+                    SCIMDefinitions.DataType.COMPLEX.equals(subAttributeSchema.getType()) ?
+                            buildAttribute(subAttributeSchema, value) : newSimpleAttribute(subAttributeSchema, value));
+        }
+        putAttribute(resource.getAttributeList(), newAttribute);
+    }
+
+    /*
+     * Returns a new complex sub attribute of an extension holding a simple sub attribute with a value, in a single
+     * value of a multi-valued sub attribute.
+     */
+    private Attribute newSubAttribute(String[] names, Object value) throws BadRequestException, CharonException {
+
+        AttributeSchema subAttributeSchema = getSchema(names, 2);
+        AttributeSchema subSubAttributeSchema = getSchema(names, 3);
+        if (subSubAttributeSchema.getMultiValued()) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        SimpleAttribute subSubAttribute = newSimpleAttribute(subSubAttributeSchema, value);
+        if (subAttributeSchema.getMultiValued()) {
+            ComplexAttribute complexValue = newComplexAttribute(getValueName(subAttributeSchema, value),
+                    subAttributeSchema);
+            complexValue.setSubAttribute(subSubAttribute);
+            MultiValuedAttribute subAttribute = newMultiValuedAttribute(subAttributeSchema);
+            subAttribute.setAttributeValue(complexValue);
+            return subAttribute;
+        }
+        ComplexAttribute subAttribute = newComplexAttribute(subAttributeSchema.getName(), subAttributeSchema);
+        subAttribute.setSubAttribute(subSubAttribute);
+        return subAttribute;
+    }
+
+    /*
+     * Creates a filtered attribute of the resource holding a value, as the value of the sub attribute the filter
+     * names for a complex attribute.
+     */
+    private void createFilteredAttribute(String name, ExpressionNode filter, Object value)
+            throws BadRequestException, CharonException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(name);
+        if (attributeSchema == null) {
+            throw new BadRequestException("No such attribute with the name : " + name,
+                    ResponseCodeConstants.INVALID_PATH);
+        }
+        if (!attributeSchema.getMultiValued()) {
+            throw notMultiValued(name);
+        }
+        MultiValuedAttribute newAttribute = newMultiValuedAttribute(attributeSchema);
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attributeSchema.getType())) {
+            ComplexAttribute complexValue = newComplexAttribute(getDefaultValueName(attributeSchema),
+                    attributeSchema);
+            complexValue.setSubAttribute(newSimpleAttribute(getFilteredSchema(name + "." +
+                    filter.getAttributeValue()), value));
+            newAttribute.setAttributeValue(complexValue);
+        } else {
+            newAttribute.setAttributePrimitiveValue(value);
+        }
+        putAttribute(resource.getAttributeList(), newAttribute);
+    }
+
+    /*
+     * Creates the attribute of a path with a filter on an attribute of the resource, which the resource does not
+     * have. The value of a multi-valued primitive sub attribute is added to the multi-valued attribute, and a
+     * multi-valued sub attribute of an extension is created as an attribute of the resource.
+     */
+    private void createFilteredSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(names[0]);
+        if (attributeSchema == null) {
+            throw new BadRequestException("No such attribute with the name : " + names[0],
+                    ResponseCodeConstants.INVALID_PATH);
+        }
+        AttributeSchema subAttributeSchema = getFilteredSchema(names, 2);
+        if (attributeSchema.getMultiValued()) {
+            MultiValuedAttribute newAttribute = newMultiValuedAttribute(attributeSchema);
+            newAttribute.setAttributeValue(newDefaultValue(newAttribute, attributeSchema, subAttributeSchema, value));
+            putAttribute(resource.getAttributeList(), newAttribute);
+        } else {
+            putAttribute(resource.getAttributeList(), newComplexValues(names, subAttributeSchema, value));
+        }
+    }
+
+    /*
+     * Creates the extension of a path with a filter on a multi-valued sub attribute of the extension, which the
+     * resource does not have. A simple sub attribute is added as the value of the multi-valued sub attribute.
+     */
+    private void createFilteredSubSubAttribute(String[] names, Object value)
+            throws BadRequestException, CharonException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(names[0]);
+        if (attributeSchema == null) {
+            throw new BadRequestException("Attribute : " + names[0] + "does not exists.",
+                    ResponseCodeConstants.INVALID_PATH);
+        }
+        if (!SCIMDefinitions.DataType.COMPLEX.equals(attributeSchema.getType())) {
+            return;
+        }
+        AttributeSchema subAttributeSchema = getFilteredSchema(names, 2);
+        AttributeSchema subSubAttributeSchema = getFilteredSchema(names, 3);
+        MultiValuedAttribute subAttribute = newMultiValuedAttribute(subAttributeSchema);
+        if (subSubAttributeSchema.getMultiValued()) {
+            subAttribute.setAttributeValue(newDefaultValue(subAttribute, subAttributeSchema, subSubAttributeSchema,
+                    value));
+        } else {
+            subAttribute.setAttributeValue(newSimpleAttribute(subSubAttributeSchema, value));
+        }
+        ComplexAttribute newAttribute = newComplexAttribute(attributeSchema.getName(), attributeSchema);
+        newAttribute.setSubAttribute(subAttribute);
+        putAttribute(resource.getAttributeList(), newAttribute);
+    }
+
+    /*
+     * Returns a new default complex value of a multi-valued attribute holding a sub attribute with a value. A
+     * multi-valued sub attribute is created without values, and the value is added to the multi-valued attribute.
+     */
+    private static ComplexAttribute newDefaultValue(MultiValuedAttribute attribute, AttributeSchema attributeSchema,
+                                                    AttributeSchema subAttributeSchema, Object value)
+            throws BadRequestException, CharonException {
+
+        ComplexAttribute complexValue = newComplexAttribute(getDefaultValueName(attributeSchema), attributeSchema);
+        if (subAttributeSchema.getMultiValued()) {
+            attribute.setAttributePrimitiveValue(value);
+            complexValue.setSubAttribute(newMultiValuedAttribute(subAttributeSchema));
+        } else {
+            complexValue.setSubAttribute(newSimpleAttribute(subAttributeSchema, value));
+        }
+        return complexValue;
+    }
+
+    /*
+     * Returns a new complex multi-valued sub attribute of an extension holding a value.
+     */
+    private MultiValuedAttribute newComplexValues(String[] names, AttributeSchema subAttributeSchema, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        if (!subAttributeSchema.getMultiValued()) {
+            throw new BadRequestException("Attribute : " + names[1] + "is not a multi valued attribute.",
+                    ResponseCodeConstants.INVALID_PATH);
+        }
+        MultiValuedAttribute newAttribute = newMultiValuedAttribute(subAttributeSchema);
+        newAttribute.setAttributeValue(buildComplexAttribute(subAttributeSchema, value));
+        return newAttribute;
+    }
+
+    /*
+     * Replaces a sub attribute of a complex attribute of the resource with a value.
+     */
+    private void setSubAttribute(Attribute attribute, String[] names, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        Attribute subAttribute = attribute.getSubAttribute(names[1]);
+        AttributeSchema subAttributeSchema = getSchema(names, 2);
+        if (subAttribute != null) {
+            checkModifiable(subAttribute);
+        }
+        putAttribute(asComplex(attribute).getSubAttributesList(), buildAttribute(subAttributeSchema, value));
+    }
+
+    private AttributeSchema getAttributeSchema(String name) {
+
+        return SchemaUtil.getAttributeSchema(name, schema);
+    }
+
+    /*
+     * Returns the schema of the attribute named by the first names of a path.
+     */
+    private AttributeSchema getSchema(String[] names, int count) throws BadRequestException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(String.join(".", Arrays.copyOf(names, count)));
+        if (attributeSchema == null) {
+            throw new BadRequestException("No such attribute with the name : " + names[count - 1],
+                    ResponseCodeConstants.NO_TARGET);
+        }
+        return attributeSchema;
+    }
+
+    /*
+     * Returns the schema of the attribute named by the first names of a path with a filter.
+     */
+    private AttributeSchema getFilteredSchema(String[] names, int count) throws BadRequestException {
+
+        return getFilteredSchema(String.join(".", Arrays.copyOf(names, count)));
+    }
+
+    private AttributeSchema getFilteredSchema(String name) throws BadRequestException {
+
+        AttributeSchema attributeSchema = getAttributeSchema(name);
+        if (attributeSchema == null) {
+            throw new BadRequestException("Attribute : " + name + "does not exists.",
+                    ResponseCodeConstants.INVALID_PATH);
+        }
+        return attributeSchema;
+    }
+
+    /*
+     * Decodes a value of an attribute against its schema, parsing the value of a complex or multi-valued attribute.
+     */
+    private Attribute buildAttribute(AttributeSchema attributeSchema, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attributeSchema.getType())) {
+            if (attributeSchema.getMultiValued()) {
+                return decoder.buildComplexMultiValuedAttribute(attributeSchema, parseJsonArray(value));
+            }
+            JSONObject jsonObject;
+            try {
+                jsonObject = new JSONObject(new JSONTokener(String.valueOf(value)));
+            } catch (JSONException e) {
+                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+            }
+            return buildComplexAttribute(attributeSchema, jsonObject);
+        }
+        if (attributeSchema.getMultiValued()) {
+            return decoder.buildPrimitiveMultiValuedAttribute(attributeSchema, parseJsonArray(value));
+        }
+        return decoder.buildSimpleAttribute(attributeSchema, value);
+    }
+
+    private ComplexAttribute buildComplexAttribute(AttributeSchema attributeSchema, Object value)
+            throws BadRequestException, CharonException, InternalErrorException {
+
+        if (!(value instanceof JSONObject)) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        try {
+            return decoder.buildComplexAttribute(attributeSchema, (JSONObject) value);
+        } catch (JSONException e) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+    }
+
+    /*
+     * Returns a new attribute holding a value as it is, in a single value of a multi-valued attribute.
+     */
+    private static Attribute newPrimitiveAttribute(AttributeSchema attributeSchema, Object value)
+            throws BadRequestException, CharonException {
+
+        if (!attributeSchema.getMultiValued()) {
+            return newSimpleAttribute(attributeSchema, value);
+        }
+        MultiValuedAttribute multiValuedAttribute = newMultiValuedAttribute(attributeSchema);
+        multiValuedAttribute.setAttributePrimitiveValue(value);
+        return multiValuedAttribute;
+    }
+
+    /*
+     * Returns a new simple attribute holding a value as it is, which has to be of the type of the attribute.
+     */
+    private static SimpleAttribute newSimpleAttribute(AttributeSchema attributeSchema, Object value)
+            throws BadRequestException, CharonException {
+
+        SimpleAttribute simpleAttribute = new SimpleAttribute(attributeSchema.getName(), value);
+        DefaultAttributeFactory.createAttribute(attributeSchema, simpleAttribute);
+        return simpleAttribute;
+    }
+
+    private static ComplexAttribute newComplexAttribute(String name, AttributeSchema attributeSchema)
+            throws BadRequestException, CharonException {
+
+        ComplexAttribute complexAttribute = new ComplexAttribute(name);
+        DefaultAttributeFactory.createAttribute(attributeSchema, complexAttribute);
+        return complexAttribute;
+    }
+
+    private static MultiValuedAttribute newMultiValuedAttribute(AttributeSchema attributeSchema)
+            throws BadRequestException, CharonException {
+
+        MultiValuedAttribute multiValuedAttribute = new MultiValuedAttribute(attributeSchema.getName());
+        DefaultAttributeFactory.createAttribute(attributeSchema, multiValuedAttribute);
+        return multiValuedAttribute;
+    }
+
+    private static String getValueName(AttributeSchema attributeSchema, Object value) {
+
+        return attributeSchema.getName() + "_" + value + "_" + SCIMConstants.DEFAULT;
+    }
+
+    private static String getDefaultValueName(AttributeSchema attributeSchema) {
+
+        return attributeSchema.getName() + "_" + SCIMConstants.DEFAULT + "_" + SCIMConstants.DEFAULT;
+    }
+
+    private static JSONArray parseJsonArray(Object value) throws BadRequestException {
+
+        try {
+            return new JSONArray(new JSONTokener(String.valueOf(value)));
+        } catch (JSONException e) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+    }
+
+    private static JSONArray asJsonArray(Object value) throws BadRequestException {
+
+        if (!(value instanceof JSONArray)) {
+            throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        return (JSONArray) value;
+    }
+
+    private static ComplexAttribute asComplex(Attribute attribute) throws BadRequestException {
+
+        if (!(attribute instanceof ComplexAttribute)) {
+            throw new BadRequestException("Attribute: " + attribute.getName() + " is not a instance of " +
+                    "ComplexAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        return (ComplexAttribute) attribute;
+    }
+
+    private static MultiValuedAttribute asMultiValued(Attribute attribute) throws BadRequestException {
+
+        if (!(attribute instanceof MultiValuedAttribute)) {
+            throw new BadRequestException("Attribute: " + attribute.getName() + " is not a instance of " +
+                    "MultiValuedAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        return (MultiValuedAttribute) attribute;
+    }
+
+    private static SimpleAttribute asSimple(Attribute attribute) throws BadRequestException {
+
+        if (!(attribute instanceof SimpleAttribute)) {
+            throw new BadRequestException("Attribute: " + attribute.getName() + " is not a instance of " +
+                    "SimpleAttribute.", ResponseCodeConstants.INVALID_SYNTAX);
+        }
+        return (SimpleAttribute) attribute;
+    }
+
+    private Attribute getAttribute(String name) throws BadRequestException {
+
+        Attribute attribute = resource.getAttribute(name);
+        if (attribute == null) {
+            throw new BadRequestException("No such attribute with the name : " + name + " " +
+                    "in the current resource", ResponseCodeConstants.INVALID_PATH);
+        }
+        return attribute;
+    }
+
+    /*
+     * Removes the sub attribute at the given level of the path, from the attribute at the level above it.
+     */
+    private void removeSubAttribute(Attribute attribute, String[] names, int level) throws BadRequestException {
+
+        boolean last = level == names.length - 1;
+        if (attribute instanceof MultiValuedAttribute) {
+            // Values without the sub attribute are left as they are.
+            for (Attribute value : ((MultiValuedAttribute) attribute).getAttributeValues()) {
+                if (!(value instanceof ComplexAttribute)) {
+                    continue;
+                }
+                Map<String, Attribute> subAttributes = ((ComplexAttribute) value).getSubAttributesList();
+                Attribute subAttribute = subAttributes.get(names[level]);
+                if (subAttribute == null) {
+                    continue;
+                }
+                if (last) {
+                    checkRemovable(subAttribute);
+                    removeAttribute(subAttributes, subAttribute);
+                } else {
+                    removeSubAttribute(subAttribute, names, level + 1);
+                }
+            }
+            return;
+        }
+        Map<String, Attribute> subAttributes = getSubAttributes(attribute, names, level);
+        Attribute subAttribute = subAttributes.get(names[level]);
+        if (subAttribute == null) {
+            throw noSuchSubAttribute(names, level);
+        }
+        if (last) {
+            checkRemovable(subAttribute);
+            removeAttribute(subAttributes, subAttribute);
+        } else {
+            removeSubAttribute(subAttribute, names, level + 1);
+        }
+    }
+
+    /*
+     * Removes a sub attribute from the values of a multi-valued attribute matching a filter.
+     */
+    private void removeFromValues(Attribute attribute, String subAttributeName, ExpressionNode filter)
+            throws BadRequestException {
+
+        if (!(attribute instanceof MultiValuedAttribute)) {
+            throw notMultiValued(attribute.getName());
+        }
+        for (Attribute value : ((MultiValuedAttribute) attribute).getAttributeValues()) {
+            if (!matches(value, filter)) {
+                continue;
+            }
+            Map<String, Attribute> subAttributes = ((ComplexAttribute) value).getSubAttributesList();
+            Attribute subAttribute = subAttributes.get(subAttributeName);
+            if (subAttribute == null) {
+                throw new BadRequestException("No such sub attribute with the name : " + subAttributeName + " " +
+                        "within the attribute " + attribute.getName(), ResponseCodeConstants.INVALID_PATH);
+            }
+            checkRemovable(subAttribute);
+            removeAttribute(subAttributes, subAttribute);
+        }
+    }
+
+    /*
+     * Removes a sub attribute of a multi-valued sub attribute of an extension from the values having the sub
+     * attribute the filter names, or the value of the filter from a multi-valued primitive sub attribute of a complex
+     * sub attribute. A sub attribute left without values is removed.
+     */
+    private void removeFromSubValues(String[] names, ExpressionNode filter)
+            throws BadRequestException, NotImplementedException {
+
+        Attribute attribute = getAttribute(names[0]);
+        Map<String, Attribute> subAttributes = getSubAttributes(attribute, names, 1);
+        Attribute subAttribute = subAttributes.get(names[1]);
+        if (subAttribute == null) {
+            throw noSuchSubAttribute(names, 1);
+        }
+        if (subAttribute instanceof MultiValuedAttribute) {
+            List<Attribute> values = ((MultiValuedAttribute) subAttribute).getAttributeValues();
+            for (Attribute value : values) {
+                Map<String, Attribute> subSubAttributes = asComplex(value).getSubAttributesList();
+                if (!subSubAttributes.containsKey(filter.getAttributeValue())) {
+                    continue;
+                }
+                Attribute subSubAttribute = subSubAttributes.get(names[2]);
+                if (subSubAttribute == null) {
+                    throw noSuchSubAttribute(names, 2);
+                }
+                checkRemovable(subSubAttribute);
+                removeAttribute(subSubAttributes, subSubAttribute);
+            }
+            if (values.isEmpty()) {
+                removeAttribute(subAttributes, subAttribute);
+            }
+            return;
+        }
+        Map<String, Attribute> subSubAttributes = getSubAttributes(subAttribute, names, 2);
+        Attribute subSubAttribute = subSubAttributes.get(names[2]);
+        if (subSubAttribute == null) {
+            throw noSuchSubAttribute(names, 2);
+        }
+        if (!(subSubAttribute instanceof MultiValuedAttribute)) {
+            throw notMultiValued(names[2]);
+        }
+        // Only an eq filter on the values of the attribute is supported.
+        if (!SCIMConstants.OperationalConstants.VALUE.equals(filter.getAttributeValue())) {
+            throw new NotImplementedException("Only Eq filter is supported based on implicit value attribute.");
+        }
+        removeValues(subSubAttributes, (MultiValuedAttribute) subSubAttribute, filter);
+    }
+
+    /*
+     * Removes the values of a multi-valued attribute matching a filter, the complex values by the filter and the
+     * primitive values by the value of the filter, and the attribute if no values are left.
+     */
+    private void removeValues(Map<String, Attribute> container, MultiValuedAttribute attribute,
+                              ExpressionNode filter) throws BadRequestException {
+
+        if (SCIMDefinitions.DataType.COMPLEX.equals(attribute.getType())) {
+            List<Attribute> values = attribute.getAttributeValues();
+            for (Attribute complexValue : values) {
+                if (matches(complexValue, filter)) {
+                    checkRemovable(complexValue);
+                }
+            }
+            removeValuesIf(values, complexValue -> matches(complexValue, filter));
+        } else {
+            List<Object> values = attribute.getAttributePrimitiveValues();
+            Object filterValue = filter.getValue();
+            if (filterValue != null && values.contains(filterValue)) {
+                checkRemovable(attribute);
+                removeValuesIf(values, filterValue::equals);
+            }
+        }
+        // If the attribute has no values, make it unassigned.
+        if (attribute.getAttributeValues().isEmpty() && attribute.getAttributePrimitiveValues().isEmpty()) {
+            removeAttribute(container, attribute);
+        }
+    }
+
+    private static boolean matches(Attribute value, ExpressionNode filter) {
+
+        if (!(value instanceof ComplexAttribute)) {
+            return false;
+        }
+        Attribute filterAttribute = ((ComplexAttribute) value).getSubAttributesList().get(filter.getAttributeValue());
+        return filterAttribute instanceof SimpleAttribute &&
+                Objects.equals(((SimpleAttribute) filterAttribute).getValue(), filter.getValue());
+    }
+
+    private static Map<String, Attribute> getSubAttributes(Attribute attribute, String[] names, int level)
+            throws BadRequestException {
+
+        if (!(attribute instanceof ComplexAttribute)) {
+            throw noSuchSubAttribute(names, level);
+        }
+        return ((ComplexAttribute) attribute).getSubAttributesList();
+    }
+
+    private static void checkRemovable(Attribute attribute) throws BadRequestException {
+
+        if (SCIMDefinitions.Mutability.READ_ONLY.equals(attribute.getMutability()) ||
+                Boolean.TRUE.equals(attribute.getRequired())) {
+            throw new BadRequestException("Can not remove a required attribute or a read-only attribute",
+                    ResponseCodeConstants.MUTABILITY);
+        }
+    }
+
+    private static void checkModifiable(Attribute attribute) throws BadRequestException {
+
+        if (SCIMDefinitions.Mutability.READ_ONLY.equals(attribute.getMutability()) ||
+                SCIMDefinitions.Mutability.IMMUTABLE.equals(attribute.getMutability())) {
+            throw new BadRequestException("Can not replace a immutable attribute or a read-only attribute",
+                    ResponseCodeConstants.MUTABILITY);
+        }
+    }
+
+    private static BadRequestException noMatchingValue() {
+
+        return new BadRequestException("No matching filter value found.", ResponseCodeConstants.NO_TARGET);
+    }
+
+    private static BadRequestException noSuchSubAttribute(String[] names, int level) {
+
+        return new BadRequestException("No such sub attribute with the name : " + names[level] + " " +
+                "within the attribute " + names[level - 1], ResponseCodeConstants.INVALID_PATH);
+    }
+
+    private static BadRequestException notMultiValued(String name) {
+
+        return new BadRequestException("Attribute : " + name + " " +
+                "is not a multivalued attribute.", ResponseCodeConstants.INVALID_PATH);
+    }
+
+    private void putAttribute(Map<String, Attribute> attributes, Attribute attribute) {
+
+        String name = attribute.getName();
+        Attribute replacedAttribute = attributes.put(name, attribute);
+        if (replacedAttribute == null) {
+            undoRecord.push(() -> attributes.remove(name));
+        } else {
+            undoRecord.push(() -> attributes.put(name, replacedAttribute));
+        }
+    }
+
+    private void setValue(SimpleAttribute attribute, Object value) {
+
+        Object replacedValue = attribute.getValue();
+        attribute.setValue(value);
+        undoRecord.push(() -> attribute.setValue(replacedValue));
+    }
+
+    /*
+     * Appends values, which are removed from the end of the values to undo the addition.
+     */
+    private <T> void addValues(List<T> values, Collection<? extends T> newValues) {
+
+        if (newValues.isEmpty()) {
+            return;
+        }
+        int size = values.size();
+        values.addAll(newValues);
+        undoRecord.push(() -> values.subList(size, values.size()).clear());
+    }
+
+    /*
+     * Appends the values of an array the values do not have yet, looking them up in a set instead of the list.
+     */
+    private void addPrimitiveValues(List<Object> values, JSONArray newValues) throws BadRequestException {
+
+        Set<Object> addedValues = new HashSet<>(values);
+        List<Object> valuesToAdd = new ArrayList<>();
+        for (int i = 0; i < newValues.length(); i++) {
+            Object newValue;
+            try {
+                newValue = newValues.get(i);
+            } catch (JSONException e) {
+                throw new BadRequestException(ResponseCodeConstants.INVALID_SYNTAX);
+            }
+            if (addedValues.add(newValue)) {
+                valuesToAdd.add(newValue);
+            }
+        }
+        addValues(values, valuesToAdd);
+    }
+
+    private void removeAttribute(Map<String, Attribute> attributes, Attribute attribute) {
+
+        String name = attribute.getName();
+        attributes.remove(name);
+        undoRecord.push(() -> attributes.put(name, attribute));
+    }
+
+    /*
+     * Removes the first value equal to a value.
+     */
+    private void removeFirstValue(List<Object> values, Object value) {
+
+        int index = values.indexOf(value);
+        if (index < 0) {
+            return;
+        }
+        Object removedValue = values.remove(index);
+        undoRecord.push(() -> values.add(index, removedValue));
+    }
+
+    /*
+     * Removes the matching values in a single pass over the values, instead of shifting the values after each
+     * removed value. The values are only copied to undo the removal if some value matches.
+     */
+    private <T> void removeValuesIf(List<T> values, Predicate<T> filter) {
+
+        if (values.stream().noneMatch(filter)) {
+            return;
+        }
+        List<T> originalValues = new ArrayList<>(values);
+        values.removeIf(filter);
+        undoRecord.push(() -> {
+            values.clear();
+            values.addAll(originalValues);
+        });
+    }
+}
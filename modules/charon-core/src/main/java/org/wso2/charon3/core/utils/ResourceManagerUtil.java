@@ -17,8 +17,11 @@
 package org.wso2.charon3.core.utils;
 
 import org.wso2.charon3.core.config.CharonConfiguration;
+import org.wso2.charon3.core.encoder.JSONEncoder;
 import org.wso2.charon3.core.exceptions.BadRequestException;
 import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.objects.ListedResource;
+import org.wso2.charon3.core.schema.AttributeProjection;
 import org.wso2.charon3.core.schema.AttributeSchema;
 import org.wso2.charon3.core.schema.SCIMDefinitions;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
@@ -395,6 +398,23 @@ public class ResourceManagerUtil {
         return getOnlyRequiredAttributesURIs(schema, null, null);
     }
 
+    /**
+     * Encode a list response, with its resources encoded in parallel as configured.
+     *
+     * @param encoder        Encoder to encode the list response with.
+     * @param listedResource List response.
+     * @param projection     Attributes returned of the resources.
+     * @return Encoded list response.
+     * @throws CharonException
+     */
+    public static String encodeListedResource(JSONEncoder encoder, ListedResource listedResource,
+                                              AttributeProjection projection) throws CharonException {
+
+        CharonConfiguration configuration = CharonConfiguration.getInstance();
+        return encoder.encodeListedResource(listedResource, projection,
+                configuration.getParallelListEncodingThreshold(), configuration.getListEncodingExecutor());
+    }
+
     /**
      * Process count value according to SCIM 2.0 specification
      *
@@ -422,6 +442,18 @@ public class ResourceManagerUtil {
         return count;
     }
 
+    /**
+     * Check whether the count parameter of a request explicitly asks for zero results, i.e. only for totalResults.
+     * A missing or invalid count falls back to the configured page size instead.
+     *
+     * @param countStr The count value in the request
+     * @return True if the request asks for a count of zero
+     */
+    public static boolean isZeroCount(String countStr) {
+
+        return countStr != null && countStr.matches("0+");
+    }
+
     /**
      * Process count value according to SCIM 2.0 specification.
      *
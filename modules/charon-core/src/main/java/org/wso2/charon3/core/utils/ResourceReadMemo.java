@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.schema.SCIMConstants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Users and groups read from the user manager while serving one request.
+ * <p>
+ * A resource manager creates a memo when it starts serving a request and passes it along to the steps that read
+ * from the user manager, so each resource is read at most once per request. A read is answered from the memo if the
+ * resource was already read with the requested attributes or more of them, since the attributes returned to the
+ * client are selected afterwards.
+ * <p>
+ * The memo hands out the instances returned by the user manager. A step that modifies one has to do so on a copy, or
+ * {@link #forget} the resource. The memo is not thread safe and lives no longer than its request.
+ */
+public class ResourceReadMemo {
+
+    private static final String ME = "Me";
+    private final Map<String, List<Read>> reads = new HashMap<>();
+
+    /**
+     * Get a user, from the memo if it was already read with the given attributes or more of them.
+     *
+     * @param userManager        User manager to read from.
+     * @param id                 Id of the user.
+     * @param requiredAttributes Required attributes, null for all the attributes.
+     * @return The user, null if the user manager returned none.
+     */
+    public User getUser(UserManager userManager, String id, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException {
+
+        User user = (User) find(SCIMConstants.USER, id, requiredAttributes);
+        if (user == null) {
+            user = userManager.getUser(id, requiredAttributes);
+            remember(SCIMConstants.USER, id, requiredAttributes, user);
+        }
+        return user;
+    }
+
+    /**
+     * Get a group, from the memo if it was already read with the given attributes or more of them.
+     *
+     * @param userManager        User manager to read from.
+     * @param id                 Id of the group.
+     * @param requiredAttributes Required attributes, null for all the attributes.
+     * @return The group, null if the user manager returned none.
+     */
+    public Group getGroup(UserManager userManager, String id, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        Group group = (Group) find(SCIMConstants.GROUP, id, requiredAttributes);
+        if (group == null) {
+            group = userManager.getGroup(id, requiredAttributes);
+            remember(SCIMConstants.GROUP, id, requiredAttributes, group);
+        }
+        return group;
+    }
+
+    /**
+     * Get the user of the given user name as served at the /Me endpoint, from the memo if it was already read with
+     * the given attributes or more of them.
+     *
+     * @param userManager        User manager to read from.
+     * @param userName           User name of the authenticated user.
+     * @param requiredAttributes Required attributes, null for all the attributes.
+     * @return The user, null if the user manager returned none.
+     */
+    public User getMe(UserManager userManager, String userName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        User user = (User) find(ME, userName, requiredAttributes);
+        if (user == null) {
+            user = userManager.getMe(userName, requiredAttributes);
+            remember(ME, userName, requiredAttributes, user);
+        }
+        return user;
+    }
+
+    /**
+     * Forget what was read of a resource, after it was written or modified in place.
+     *
+     * @param resourceType User or Group.
+     * @param id           Id of the resource.
+     */
+    public void forget(String resourceType, String id) {
+
+        reads.remove(resourceType + "/" + id);
+    }
+
+    /**
+     * Forget what was read of the user of the given user name at the /Me endpoint, after it was written.
+     *
+     * @param userName User name of the authenticated user.
+     */
+    public void forgetMe(String userName) {
+
+        forget(ME, userName);
+    }
+
+    private AbstractSCIMObject find(String resourceType, String id, Map<String, Boolean> requiredAttributes) {
+
+        List<Read> readsOfResource = reads.get(resourceType + "/" + id);
+        if (readsOfResource != null) {
+            for (Read read : readsOfResource) {
+                if (read.requiredAttributes == null || (requiredAttributes != null &&
+                        read.requiredAttributes.keySet().containsAll(requiredAttributes.keySet()))) {
+                    return read.resource;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void remember(String resourceType, String id, Map<String, Boolean> requiredAttributes,
+                          AbstractSCIMObject resource) {
+
+        if (resource != null) {
+            reads.computeIfAbsent(resourceType + "/" + id, key -> new ArrayList<>(1))
+                    .add(new Read(requiredAttributes, resource));
+        }
+    }
+
+    /**
+     * A resource along with the attributes it was read with.
+     */
+    private static class Read {
+
+        private final Map<String, Boolean> requiredAttributes;
+        private final AbstractSCIMObject resource;
+
+        Read(Map<String, Boolean> requiredAttributes, AbstractSCIMObject resource) {
+
+            this.requiredAttributes = requiredAttributes;
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.attributes.Attribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.DefaultAttributeFactory;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.config.CharonConfiguration;
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.utils.LambdaExceptionUtils.FunctionWithExceptions;
+import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
+import org.wso2.charon3.core.utils.codeutils.Node;
+import org.wso2.charon3.core.utils.codeutils.OperationNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowConsumer;
+import static org.wso2.charon3.core.utils.LambdaExceptionUtils.rethrowFunction;
+
+/**
+ * Utility methods to look up the users and groups referenced by id, in batches of
+ * {@link CharonConfiguration#getReferenceBatchSize()} ids per call to the user manager.
+ */
+public class ResourceReferenceUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceReferenceUtil.class);
+
+    /**
+     * Retrieve the users with the given ids.
+     *
+     * @param userManager        User manager.
+     * @param userIds            Ids of the users.
+     * @param requiredAttributes Required user attributes.
+     * @return Users found, keyed by id.
+     */
+    public static Map<String, User> getUsersByIds(UserManager userManager, Collection<String> userIds,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException {
+
+        Map<String, User> users = new LinkedHashMap<>();
+        for (List<String> batch : toBatches(userIds)) {
+            Map<String, User> found = userManager.getUsersByIds(batch, requiredAttributes);
+            if (found != null) {
+                users.putAll(found);
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Retrieve the groups with the given ids.
+     *
+     * @param userManager        User manager.
+     * @param groupIds           Ids of the groups.
+     * @param requiredAttributes Required group attributes.
+     * @return Groups found, keyed by id.
+     */
+    public static Map<String, Group> getGroupsByIds(UserManager userManager, Collection<String> groupIds,
+                                                    Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        Map<String, Group> groups = new LinkedHashMap<>();
+        for (List<String> batch : toBatches(groupIds)) {
+            Map<String, Group> found = userManager.getGroupsByIds(batch, requiredAttributes);
+            if (found != null) {
+                groups.putAll(found);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the ids a filter matches if it only compares ids for equality, e.g. id eq "a" or id eq "b".
+     *
+     * @param rootNode Filter.
+     * @return Ids in the order of the filter, or null if the filter matches anything else.
+     */
+    public static List<String> getIdsOfIdFilter(Node rootNode) {
+
+        if (rootNode == null) {
+            return null;
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        return collectIds(rootNode, ids) ? new ArrayList<>(ids) : null;
+    }
+
+    /**
+     * Set the display name of the members of a group given without one, from the userName of the referenced users
+     * and the displayName of the referenced groups, if {@link CharonConfiguration#isMemberDisplayResolution()}.
+     * Members which can not be resolved are left as they are.
+     *
+     * @param userManager User manager.
+     * @param group       Group.
+     */
+    public static void setMemberDisplayNames(UserManager userManager, Group group)
+            throws CharonException, BadRequestException {
+
+        if (!CharonConfiguration.getInstance().isMemberDisplayResolution()) {
+            return;
+        }
+        Set<String> groupIds = new LinkedHashSet<>();
+        Map<String, ComplexAttribute> membersWithoutDisplay = getMembersWithoutDisplay(group, groupIds);
+        if (membersWithoutDisplay.isEmpty()) {
+            return;
+        }
+        setDisplayNames(membersWithoutDisplay, getDisplayNames(userManager, membersWithoutDisplay.keySet(),
+                groupIds));
+    }
+
+    /**
+     * Set the display name of the members of patch operations given without one, from the userName of the
+     * referenced users and the displayName of the referenced groups, if
+     * {@link CharonConfiguration#isMemberDisplayResolution()}. Members which can not be resolved are left as they are.
+     *
+     * @param userManager User manager.
+     * @param members     Members, as maps of the value and display sub attributes.
+     */
+    public static void setMemberDisplayNames(UserManager userManager, List<Map<String, String>> members) {
+
+        if (!CharonConfiguration.getInstance().isMemberDisplayResolution()) {
+            return;
+        }
+        Set<String> memberIds = getMemberIdsWithoutDisplay(members);
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        setDisplayNames(members, getDisplayNames(userManager, memberIds, Collections.emptySet()));
+    }
+
+    /**
+     * Set the display name of the members of a group given without one, from the userName of the referenced users
+     * and the displayName of the referenced groups, if {@link CharonConfiguration#isMemberDisplayResolution()}.
+     * Members which can not be resolved are left as they are.
+     *
+     * @param userManager User manager.
+     * @param group       Group.
+     * @return Stage completed once the display names are set.
+     */
+    public static CompletionStage<Void> setMemberDisplayNames(AsyncUserManager userManager, Group group) {
+
+        if (!CharonConfiguration.getInstance().isMemberDisplayResolution()) {
+            return CompletionStageUtil.completed();
+        }
+        Set<String> groupIds = new LinkedHashSet<>();
+        Map<String, ComplexAttribute> membersWithoutDisplay;
+        try {
+            membersWithoutDisplay = getMembersWithoutDisplay(group, groupIds);
+        } catch (CharonException e) {
+            return CompletionStageUtil.completedExceptionally(e);
+        }
+        if (membersWithoutDisplay.isEmpty()) {
+            return CompletionStageUtil.completed();
+        }
+        return getDisplayNames(userManager, membersWithoutDisplay.keySet(), groupIds).thenAccept(
+                rethrowConsumer(displayNames -> setDisplayNames(membersWithoutDisplay, displayNames)));
+    }
+
+    /**
+     * Set the display name of the members of patch operations given without one, from the userName of the
+     * referenced users and the displayName of the referenced groups, if
+     * {@link CharonConfiguration#isMemberDisplayResolution()}. Members which can not be resolved are left as they are.
+     *
+     * @param userManager User manager.
+     * @param members     Members, as maps of the value and display sub attributes.
+     * @return Stage completed once the display names are set.
+     */
+    public static CompletionStage<Void> setMemberDisplayNames(AsyncUserManager userManager,
+                                                              List<Map<String, String>> members) {
+
+        if (!CharonConfiguration.getInstance().isMemberDisplayResolution()) {
+            return CompletionStageUtil.completed();
+        }
+        Set<String> memberIds = getMemberIdsWithoutDisplay(members);
+        if (memberIds.isEmpty()) {
+            return CompletionStageUtil.completed();
+        }
+        return getDisplayNames(userManager, memberIds, Collections.emptySet()).thenAccept(
+                displayNames -> setDisplayNames(members, displayNames));
+    }
+
+    /*
+     * Returns the members of a group without a display name by their ids, and collects the ids of the members
+     * known to be groups.
+     */
+    private static Map<String, ComplexAttribute> getMembersWithoutDisplay(Group group, Set<String> groupIds)
+            throws CharonException {
+
+        Map<String, ComplexAttribute> membersWithoutDisplay = new LinkedHashMap<>();
+        Attribute members = group.getAttribute(SCIMConstants.GroupSchemaConstants.MEMBERS);
+        if (!(members instanceof MultiValuedAttribute)) {
+            return membersWithoutDisplay;
+        }
+        for (Attribute member : ((MultiValuedAttribute) members).getAttributeValues()) {
+            Attribute value = member.getSubAttribute(SCIMConstants.CommonSchemaConstants.VALUE);
+            if (value != null && member.getSubAttribute(SCIMConstants.CommonSchemaConstants.DISPLAY) == null) {
+                String memberId = ((SimpleAttribute) value).getStringValue();
+                membersWithoutDisplay.put(memberId, (ComplexAttribute) member);
+                Attribute type = member.getSubAttribute(SCIMConstants.CommonSchemaConstants.TYPE);
+                if (type != null && SCIMConstants.UserSchemaConstants.MEMBERS_TYPE_GROUP.equals(
+                        ((SimpleAttribute) type).getStringValue())) {
+                    groupIds.add(memberId);
+                }
+            }
+        }
+        return membersWithoutDisplay;
+    }
+
+    private static Set<String> getMemberIdsWithoutDisplay(List<Map<String, String>> members) {
+
+        Set<String> memberIds = new LinkedHashSet<>();
+        for (Map<String, String> member : members) {
+            String memberId = member.get(SCIMConstants.CommonSchemaConstants.VALUE);
+            if (memberId != null && member.get(SCIMConstants.CommonSchemaConstants.DISPLAY) == null) {
+                memberIds.add(memberId);
+            }
+        }
+        return memberIds;
+    }
+
+    private static void setDisplayNames(Map<String, ComplexAttribute> membersWithoutDisplay,
+                                        Map<String, String> displayNames)
+            throws CharonException, BadRequestException {
+
+        for (Map.Entry<String, String> displayName : displayNames.entrySet()) {
+            SimpleAttribute display = new SimpleAttribute(SCIMConstants.CommonSchemaConstants.DISPLAY,
+                    displayName.getValue());
+            DefaultAttributeFactory.createAttribute(SCIMSchemaDefinitions.SCIMGroupSchemaDefinition.DISPLAY, display);
+            membersWithoutDisplay.get(displayName.getKey()).setSubAttribute(display);
+        }
+    }
+
+    private static void setDisplayNames(List<Map<String, String>> members, Map<String, String> displayNames) {
+
+        for (Map<String, String> member : members) {
+            String memberId = member.get(SCIMConstants.CommonSchemaConstants.VALUE);
+            if (member.get(SCIMConstants.CommonSchemaConstants.DISPLAY) == null && displayNames.containsKey(memberId)) {
+                member.put(SCIMConstants.CommonSchemaConstants.DISPLAY, displayNames.get(memberId));
+            }
+        }
+    }
+
+    /*
+     * Looks the member ids up as users, except those known to be groups, and the rest as groups. A failed lookup
+     * only leaves the members it concerns unresolved, and the unresolved members are logged.
+     */
+    private static Map<String, String> getDisplayNames(UserManager userManager, Set<String> memberIds,
+                                                       Set<String> groupIds) {
+
+        Map<String, String> displayNames = new HashMap<>();
+        for (List<String> batch : toBatches(getUserIds(memberIds, groupIds))) {
+            lookUpDisplayNames(batch, displayNames, ids -> getDisplayNames(
+                    userManager.getUsersByIds(ids, getUserNameAttribute()), User::getUserName));
+        }
+        for (List<String> batch : toBatches(getRemainingIds(memberIds, displayNames))) {
+            lookUpDisplayNames(batch, displayNames, ids -> getDisplayNames(
+                    userManager.getGroupsByIds(ids, getGroupDisplayNameAttribute()), Group::getDisplayName));
+        }
+        return removeUnresolved(memberIds, displayNames);
+    }
+
+    /*
+     * Looks the member ids up the way the blocking lookup does, with the batches of users and then the batches of
+     * groups looked up at the same time.
+     */
+    private static CompletionStage<Map<String, String>> getDisplayNames(AsyncUserManager userManager,
+                                                                        Set<String> memberIds, Set<String> groupIds) {
+
+        return lookUpDisplayNames(toBatches(getUserIds(memberIds, groupIds)),
+                ids -> userManager.getUsersByIds(ids, getUserNameAttribute())
+                        .thenApply(rethrowFunction(users -> getDisplayNames(users, User::getUserName))))
+                .thenCompose(userNames -> lookUpDisplayNames(toBatches(getRemainingIds(memberIds, userNames)),
+                        ids -> userManager.getGroupsByIds(ids, getGroupDisplayNameAttribute())
+                                .thenApply(rethrowFunction(groups -> getDisplayNames(groups,
+                                        Group::getDisplayName))))
+                        .thenApply(groupNames -> {
+                            Map<String, String> displayNames = new HashMap<>(userNames);
+                            displayNames.putAll(groupNames);
+                            return removeUnresolved(memberIds, displayNames);
+                        }));
+    }
+
+    private static Set<String> getUserIds(Set<String> memberIds, Set<String> groupIds) {
+
+        Set<String> userIds = new LinkedHashSet<>(memberIds);
+        userIds.removeAll(groupIds);
+        return userIds;
+    }
+
+    private static Set<String> getRemainingIds(Set<String> memberIds, Map<String, String> displayNames) {
+
+        Set<String> remainingIds = new LinkedHashSet<>(memberIds);
+        remainingIds.removeAll(displayNames.keySet());
+        return remainingIds;
+    }
+
+    private static Map<String, Boolean> getUserNameAttribute() {
+
+        Map<String, Boolean> requiredAttributes = new HashMap<>();
+        requiredAttributes.put(SCIMConstants.UserSchemaConstants.USER_NAME_URI, true);
+        return requiredAttributes;
+    }
+
+    private static Map<String, Boolean> getGroupDisplayNameAttribute() {
+
+        Map<String, Boolean> requiredAttributes = new HashMap<>();
+        requiredAttributes.put(SCIMConstants.GroupSchemaConstants.DISPLAY_NAME_URI, true);
+        return requiredAttributes;
+    }
+
+    private static <T> Map<String, String> getDisplayNames(
+            Map<String, T> resources, FunctionWithExceptions<T, String, CharonException> displayName)
+            throws CharonException {
+
+        Map<String, String> displayNames = new HashMap<>();
+        if (resources != null) {
+            for (Map.Entry<String, T> resource : resources.entrySet()) {
+                displayNames.put(resource.getKey(), displayName.apply(resource.getValue()));
+            }
+        }
+        return displayNames;
+    }
+
+    /*
+     * Drops the resources found without a display name, and logs the members left unresolved.
+     */
+    private static Map<String, String> removeUnresolved(Set<String> memberIds, Map<String, String> displayNames) {
+
+        displayNames.values().removeIf(displayName -> displayName == null);
+        if (displayNames.size() < memberIds.size()) {
+            Set<String> unresolvedIds = new LinkedHashSet<>(memberIds);
+            unresolvedIds.removeAll(displayNames.keySet());
+            logger.warn("Could not resolve the display name of the group members : " + unresolvedIds);
+        }
+        return displayNames;
+    }
+
+    /*
+     * Looks a batch of ids up, and the ids of a failed batch one by one, so one failing id does not leave the rest
+     * of its batch unresolved.
+     */
+    private static void lookUpDisplayNames(List<String> ids, Map<String, String> displayNames,
+                                           DisplayNameLookup lookup) {
+
+        try {
+            displayNames.putAll(lookup.lookUp(ids));
+            return;
+        } catch (CharonException | NotImplementedException | BadRequestException e) {
+            if (ids.size() == 1) {
+                logger.debug("Error while looking up the display name of the member : " + ids.get(0), e);
+                return;
+            }
+            logger.debug("Error while looking up the display names of the members : " + ids, e);
+        }
+        for (String id : ids) {
+            lookUpDisplayNames(Collections.singletonList(id), displayNames, lookup);
+        }
+    }
+
+    /*
+     * Looks the batches of ids up at the same time, each the way the blocking lookup does.
+     */
+    private static CompletionStage<Map<String, String>> lookUpDisplayNames(
+            List<List<String>> batches, Function<List<String>, CompletionStage<Map<String, String>>> lookup) {
+
+        List<CompletableFuture<Map<String, String>>> lookups = new ArrayList<>();
+        for (List<String> batch : batches) {
+            lookups.add(lookUpBatchDisplayNames(batch, lookup).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, String> displayNames = new HashMap<>();
+            for (CompletableFuture<Map<String, String>> batchLookup : lookups) {
+                displayNames.putAll(batchLookup.join());
+            }
+            return displayNames;
+        });
+    }
+
+    private static CompletionStage<Map<String, String>> lookUpBatchDisplayNames(
+            List<String> ids, Function<List<String>, CompletionStage<Map<String, String>>> lookup) {
+
+        return lookup.apply(ids).<CompletionStage<Map<String, String>>>handle((displayNames, throwable) -> {
+            if (throwable == null) {
+                return CompletableFuture.completedFuture(displayNames);
+            }
+            Throwable cause = CompletionStageUtil.getCause(throwable);
+            if (!(cause instanceof AbstractCharonException)) {
+                return CompletionStageUtil.completedExceptionally(cause);
+            }
+            if (ids.size() == 1) {
+                logger.debug("Error while looking up the display name of the member : " + ids.get(0), cause);
+                return CompletableFuture.completedFuture(Collections.emptyMap());
+            }
+            logger.debug("Error while looking up the display names of the members : " + ids, cause);
+            List<List<String>> singleIds = new ArrayList<>();
+            for (String id : ids) {
+                singleIds.add(Collections.singletonList(id));
+            }
+            return lookUpDisplayNames(singleIds, lookup);
+        }).thenCompose(Function.identity());
+    }
+
+    private static boolean collectIds(Node node, Set<String> ids) {
+
+        if (node instanceof ExpressionNode) {
+            ExpressionNode expressionNode = (ExpressionNode) node;
+            if (SCIMConstants.CommonSchemaConstants.ID_URI.equals(expressionNode.getAttributeValue())
+                    && SCIMConstants.OperationalConstants.EQ.trim().equalsIgnoreCase(expressionNode.getOperation())
+                    && expressionNode.getValue() != null) {
+                ids.add(expressionNode.getValue());
+                return true;
+            }
+            return false;
+        }
+        if (node instanceof OperationNode && SCIMConstants.OperationalConstants.OR.equalsIgnoreCase(
+                ((OperationNode) node).getOperation())) {
+            return collectIds(node.getLeftNode(), ids) && collectIds(node.getRightNode(), ids);
+        }
+        return false;
+    }
+
+    private static List<List<String>> toBatches(Collection<String> ids) {
+
+        int batchSize = CharonConfiguration.getInstance().getReferenceBatchSize();
+        List<String> idList = new ArrayList<>(ids);
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += batchSize) {
+            batches.add(idList.subList(from, Math.min(from + batchSize, idList.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Looks up the display names of the resources with the given ids.
+     */
+    private interface DisplayNameLookup {
+
+        Map<String, String> lookUp(List<String> ids)
+                throws CharonException, NotImplementedException, BadRequestException;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts SCIM resources by the sortBy and sortOrder parameters of a list request (RFC 7644, section 3.4.2.3).
+ * <p>
+ * The sortBy attribute is resolved through the resource type schema. Sub-attributes are followed, a multi-valued
+ * attribute contributes its primary value (or its first value if none is primary) and a complex attribute is sorted
+ * by its "value" sub-attribute. Strings are compared according to the caseExact characteristic of the attribute, and
+ * resources without a value are sorted last for ascending and first for descending order.
+ * <p>
+ * When only a page of the sorted result is needed, {@link #sort(Iterator, int, Integer)} keeps the first
+ * startIndex + count - 1 resources in a bounded heap instead of sorting all of them, so the resources can be streamed
+ * from a user store without being held in memory at once.
+ *
+ * @param <T> Type of the sorted resources.
+ */
+public class ResourceSorter<T extends AbstractSCIMObject> {
+
+    private final List<AttributeSchema> attributePath;
+    private final boolean caseExact;
+    private final Comparator<SortEntry<T>> comparator;
+
+    /**
+     * @param sortBy    Attribute name or URI to sort by.
+     * @param sortOrder Sort order, ascending if null.
+     * @param schema    Schema of the sorted resources.
+     * @throws BadRequestException If the sortBy attribute is not defined in the schema.
+     */
+    public ResourceSorter(String sortBy, String sortOrder, SCIMResourceTypeSchema schema)
+            throws BadRequestException {
+
+        String attributeURI = AttributeUtil.getAttributeURI(sortBy, schema);
+        List<AttributeSchema> path = resolvePath(attributeURI, schema.getAttributesList());
+        if (path == null) {
+            throw new BadRequestException("Can not sort by " + sortBy, ResponseCodeConstants.INVALID_VALUE);
+        }
+        AttributeSchema leafSchema = path.get(path.size() - 1);
+        if (SCIMDefinitions.DataType.COMPLEX.equals(leafSchema.getType())) {
+            leafSchema = leafSchema.getSubAttributeSchema(SCIMConstants.CommonSchemaConstants.VALUE);
+            if (leafSchema == null) {
+                throw new BadRequestException("Can not sort by the complex attribute " + sortBy,
+                        ResponseCodeConstants.INVALID_VALUE);
+            }
+            path.add(leafSchema);
+        }
+        this.attributePath = path;
+        this.caseExact = leafSchema.getCaseExact();
+
+        Comparator<SortEntry<T>> keyComparator = (first, second) -> compareKeys(first.key, second.key);
+        if (SCIMConstants.OperationalConstants.DESCENDING.equalsIgnoreCase(sortOrder)) {
+            keyComparator = keyComparator.reversed();
+        }
+        // Equal keys keep the order in which the resources were offered, so pages do not overlap.
+        this.comparator = keyComparator.thenComparingLong(entry -> entry.sequence);
+    }
+
+    /**
+     * Sort all the given resources.
+     *
+     * @param resources Resources to sort.
+     * @return Sorted resources.
+     */
+    public List<T> sort(Iterator<? extends T> resources) {
+
+        return sort(resources, 1, null);
+    }
+
+    /**
+     * Returns one page of the sorted resources.
+     *
+     * @param resources  Resources to sort.
+     * @param startIndex 1-based index of the first resource of the page.
+     * @param count      Maximum number of resources in the page, null for all the resources from the start index.
+     * @return Sorted resources of the page.
+     */
+    public List<T> sort(Iterator<? extends T> resources, int startIndex, Integer count) {
+
+        int offset = Math.max(startIndex, 1) - 1;
+        long sequence = 0;
+        List<SortEntry<T>> entries;
+        if (count == null) {
+            entries = new ArrayList<>();
+            while (resources.hasNext()) {
+                T resource = resources.next();
+                entries.add(new SortEntry<>(resource, getSortKey(resource), sequence++));
+            }
+            entries.sort(comparator);
+        } else {
+            // The head of the heap is the greatest of the resources selected so far, which is the one replaced
+            // when a smaller resource comes in.
+            long bound = (long) offset + Math.max(count, 0);
+            if (bound == 0) {
+                return Collections.emptyList();
+            }
+            PriorityQueue<SortEntry<T>> heap = new PriorityQueue<>(11, comparator.reversed());
+            while (resources.hasNext()) {
+                T resource = resources.next();
+                SortEntry<T> entry = new SortEntry<>(resource, getSortKey(resource), sequence++);
+                if (heap.size() < bound) {
+                    heap.offer(entry);
+                } else if (comparator.compare(entry, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.offer(entry);
+                }
+            }
+            LinkedList<SortEntry<T>> selected = new LinkedList<>();
+            while (!heap.isEmpty()) {
+                selected.addFirst(heap.poll());
+            }
+            entries = selected;
+        }
+
+        List<T> page = new ArrayList<>();
+        for (SortEntry<T> entry : entries.subList(Math.min(offset, entries.size()), entries.size())) {
+            page.add(entry.resource);
+        }
+        return page;
+    }
+
+    /*
+     * Walks the attribute schemas down to the attribute with the given URI.
+     */
+    private static List<AttributeSchema> resolvePath(String attributeURI, List<AttributeSchema> attributeSchemas) {
+
+        if (attributeSchemas == null) {
+            return null;
+        }
+        for (AttributeSchema attributeSchema : attributeSchemas) {
+            if (attributeURI.equals(attributeSchema.getURI())) {
+                List<AttributeSchema> path = new ArrayList<>();
+                path.add(attributeSchema);
+                return path;
+            }
+            List<AttributeSchema> subPath = resolvePath(attributeURI, attributeSchema.getSubAttributeSchemas());
+            if (subPath != null) {
+                subPath.add(0, attributeSchema);
+                return subPath;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Extracts the value the resource is sorted by, normalized so that values of the same data type compare
+     * naturally. Null if the resource does not have a value.
+     */
+    private Comparable<?> getSortKey(T resource) {
+
+        Attribute attribute = resource.getAttribute(attributePath.get(0).getName());
+        for (int i = 1; i < attributePath.size() && attribute != null; i++) {
+            attribute = selectValue(attribute);
+            if (!(attribute instanceof ComplexAttribute)) {
+                return null;
+            }
+            attribute = ((ComplexAttribute) attribute).getSubAttributesList().get(attributePath.get(i).getName());
+        }
+        if (attribute instanceof MultiValuedAttribute) {
+            List<Object> primitiveValues = ((MultiValuedAttribute) attribute).getAttributePrimitiveValues();
+            return primitiveValues == null || primitiveValues.isEmpty() ? null : toKey(primitiveValues.get(0));
+        }
+        if (attribute instanceof SimpleAttribute) {
+            return toKey(((SimpleAttribute) attribute).getValue());
+        }
+        return null;
+    }
+
+    /*
+     * Picks the primary value of a multi-valued complex attribute, or its first value if none is primary.
+     */
+    private static Attribute selectValue(Attribute attribute) {
+
+        if (!(attribute instanceof MultiValuedAttribute)) {
+            return attribute;
+        }
+        List<Attribute> values = ((MultiValuedAttribute) attribute).getAttributeValues();
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        for (Attribute value : values) {
+            if (value instanceof ComplexAttribute) {
+                Attribute primary = ((ComplexAttribute) value).getSubAttributesList()
+                        .get(SCIMConstants.CommonSchemaConstants.PRIMARY);
+                if (primary instanceof SimpleAttribute &&
+                        Boolean.parseBoolean(String.valueOf(((SimpleAttribute) primary).getValue()))) {
+                    return value;
+                }
+            }
+        }
+        return values.get(0);
+    }
+
+    private Comparable<?> toKey(Object value) {
+
+        if (value == null) {
+            return null;
+        } else if (value instanceof String) {
+            return caseExact ? (String) value : ((String) value).toLowerCase(Locale.ROOT);
+        } else if (value instanceof Number) {
+            return new BigDecimal(value.toString());
+        } else if (value instanceof Date) {
+            return ((Date) value).toInstant();
+        } else if (value instanceof Comparable) {
+            return (Comparable<?>) value;
+        }
+        return String.valueOf(value);
+    }
+
+    /*
+     * Missing values are greater than any value, which puts them last in ascending and first in descending order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Comparable first, Comparable second) {
+
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : 1) : -1;
+        }
+        if (first.getClass() != second.getClass()) {
+            return first.toString().compareTo(second.toString());
+        }
+        return first.compareTo(second);
+    }
+
+    /**
+     * A resource along with the value it is sorted by, so the value is extracted only once per resource.
+     */
+    private static class SortEntry<T> {
+
+        private final T resource;
+        private final Comparable<?> key;
+        private final long sequence;
+
+        SortEntry(T resource, Comparable<?> key, long sequence) {
+
+            this.resource = resource;
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.wso2.charon3.core.utils.codeutils;
 
+import java.util.Set;
+
 /**
  * This class represents the PATCH operations which are in the body of PATCH request.
  */
@@ -25,6 +27,8 @@ public class PatchOperation implements Comparable<PatchOperation> {
     private Object values;
     private String attributeName;
     private int executionOrder;
+    private Set<String> modifiedAttributeNames;
+    private boolean modifiedAttributeNamesResolved;
 
     public String getOperation() {
         return operation;
@@ -40,6 +44,7 @@ public class PatchOperation implements Comparable<PatchOperation> {
 
     public void setPath(String path) {
         this.path = path;
+        this.modifiedAttributeNamesResolved = false;
     }
 
     public Object getValues() {
@@ -48,6 +53,7 @@ public class PatchOperation implements Comparable<PatchOperation> {
 
     public void setValues(Object values) {
         this.values = values;
+        this.modifiedAttributeNamesResolved = false;
     }
 
     public String getAttributeName() {
@@ -70,6 +76,35 @@ public class PatchOperation implements Comparable<PatchOperation> {
         this.executionOrder = executionOrder;
     }
 
+    /**
+     * @return Names of the top level attributes the operation modifies, null if they can not be told or are not
+     * resolved yet.
+     */
+    public Set<String> getModifiedAttributeNames() {
+
+        return modifiedAttributeNames;
+    }
+
+    /**
+     * Keep the names of the top level attributes the operation modifies, so the values of an operation without a path
+     * are decoded only once to tell them. Changing the path or the values forgets them.
+     *
+     * @param modifiedAttributeNames Names as named by the schema, null if they can not be told.
+     */
+    public void setModifiedAttributeNames(Set<String> modifiedAttributeNames) {
+
+        this.modifiedAttributeNames = modifiedAttributeNames;
+        this.modifiedAttributeNamesResolved = true;
+    }
+
+    /**
+     * @return True if the modified attribute names of the current path and values are resolved.
+     */
+    public boolean isModifiedAttributeNamesResolved() {
+
+        return modifiedAttributeNamesResolved;
+    }
+
     @Override
     public int compareTo(PatchOperation anotherPatchOperation) {
 
@@ -36,6 +36,8 @@ public class SearchRequest {
     private int startIndex;
     private String countStr;
     private String startIndexStr;
+    private String cursor;
+    private String changesSince;
     private Node filter;
     private String sortBy;
     private String sortOder;
@@ -97,6 +99,28 @@ public class SearchRequest {
         this.startIndex = startIndex;
     }
 
+    /**
+     * @return the cursor of the requested page, null if the request uses index based pagination
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return the watermark the changed resources are requested after, null if the request does not ask for changes
+     */
+    public String getChangesSince() {
+        return changesSince;
+    }
+
+    public void setChangesSince(String changesSince) {
+        this.changesSince = changesSince;
+    }
+
     public Node getFilter() {
         return filter;
     }
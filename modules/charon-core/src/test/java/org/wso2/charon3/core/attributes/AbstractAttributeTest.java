@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.attributes;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.utils.CopyUtil;
+
+/**
+ * Test class of AbstractAttribute.
+ */
+public class AbstractAttributeTest {
+
+    @Test
+    public void testCharacteristicsAreReadFromSchema() throws Exception {
+
+        SimpleAttribute userName = createUserName("kim");
+
+        Assert.assertSame(userName.getAttributeSchema(), SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME);
+        Assert.assertEquals(userName.getURI(), SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME.getURI());
+        Assert.assertEquals(userName.getMutability(), SCIMDefinitions.Mutability.READ_WRITE);
+        Assert.assertEquals(userName.getUniqueness(), SCIMDefinitions.Uniqueness.SERVER);
+        Assert.assertTrue(userName.getRequired());
+        Assert.assertFalse(userName.getMultiValued());
+        Assert.assertEquals(userName.getType(), SCIMDefinitions.DataType.STRING);
+        Assert.assertTrue(userName.getAttributeProperties().isEmpty());
+    }
+
+    @Test
+    public void testSetCharacteristicDoesNotChangeSchema() throws Exception {
+
+        SimpleAttribute userName = createUserName("kim");
+        userName.setMutability(SCIMDefinitions.Mutability.READ_ONLY);
+
+        Assert.assertEquals(userName.getMutability(), SCIMDefinitions.Mutability.READ_ONLY);
+        Assert.assertEquals(userName.getURI(), SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME.getURI());
+        Assert.assertTrue(userName.getRequired());
+        Assert.assertNull(userName.getAttributeSchema());
+        Assert.assertEquals(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME.getMutability(),
+                SCIMDefinitions.Mutability.READ_WRITE);
+        Assert.assertEquals(createUserName("kris").getMutability(), SCIMDefinitions.Mutability.READ_WRITE);
+    }
+
+    @Test
+    public void testCopyKeepsSchemaAndOwnCharacteristics() throws Exception {
+
+        SimpleAttribute userName = createUserName("kim");
+        userName.addAttributeProperty("displayOrder", "1");
+        SimpleAttribute custom = new SimpleAttribute("custom", "value");
+        custom.setURI("urn:custom:attribute");
+        custom.setMutability(SCIMDefinitions.Mutability.IMMUTABLE);
+
+        SimpleAttribute copiedUserName = (SimpleAttribute) CopyUtil.deepCopy(userName);
+        SimpleAttribute copiedCustom = (SimpleAttribute) CopyUtil.deepCopy(custom);
+
+        Assert.assertSame(copiedUserName.getAttributeSchema(),
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME);
+        Assert.assertEquals(copiedUserName.getValue(), "kim");
+        Assert.assertEquals(copiedUserName.getAttributeProperty("displayOrder"), "1");
+        Assert.assertNull(copiedCustom.getAttributeSchema());
+        Assert.assertEquals(copiedCustom.getURI(), "urn:custom:attribute");
+        Assert.assertEquals(copiedCustom.getMutability(), SCIMDefinitions.Mutability.IMMUTABLE);
+        Assert.assertNull(copiedCustom.getRequired());
+    }
+
+    private SimpleAttribute createUserName(String value) throws Exception {
+
+        return (SimpleAttribute) DefaultAttributeFactory.createAttribute(
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME, new SimpleAttribute("userName", value));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.attributes;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.schema.SCIMAttributeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.utils.CopyUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Test class of AttributeMap.
+ */
+public class AttributeMapTest {
+
+    @Test
+    public void testAttributesIterateInSchemaOrder() throws Exception {
+
+        AttributeMap attributes = new AttributeMap();
+        attributes.put("custom", new SimpleAttribute("custom", "x"));
+        attributes.put("primary", createAttribute(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAIL_PRIMARY,
+                "primary", Boolean.TRUE));
+        attributes.put("value", createAttribute(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAIL_VALUE,
+                "value", "kim@example.com"));
+        attributes.put("type", createAttribute(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAIL_TYPE,
+                "type", "work"));
+
+        Assert.assertEquals(new ArrayList<>(attributes.keySet()), Arrays.asList("value", "type", "primary", "custom"));
+        Assert.assertEquals(((SimpleAttribute) attributes.get("type")).getValue(), "work");
+        Assert.assertNull(attributes.get("display"));
+    }
+
+    @Test
+    public void testMapOperations() throws Exception {
+
+        AttributeMap attributes = new AttributeMap(1);
+        for (int i = 0; i < 10; i++) {
+            attributes.put("attribute" + i, new SimpleAttribute("attribute" + i, Integer.valueOf(i)));
+        }
+        SimpleAttribute replacement = new SimpleAttribute("attribute3", "three");
+
+        Assert.assertEquals(((SimpleAttribute) attributes.put("attribute3", replacement)).getValue(),
+                Integer.valueOf(3));
+        Assert.assertEquals(attributes.remove("attribute5").getName(), "attribute5");
+        Assert.assertNull(attributes.remove("attribute5"));
+        Iterator<Map.Entry<String, Attribute>> iterator = attributes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().endsWith("0")) {
+                iterator.remove();
+            }
+        }
+
+        Assert.assertEquals(attributes.size(), 8);
+        Assert.assertSame(attributes.get("attribute3"), replacement);
+        Assert.assertFalse(attributes.containsKey("attribute0"));
+        Map<String, Attribute> expected = new HashMap<>(attributes);
+        Assert.assertEquals(attributes, expected);
+        Assert.assertEquals(attributes.hashCode(), expected.hashCode());
+        attributes.clear();
+        Assert.assertTrue(attributes.isEmpty());
+    }
+
+    @Test
+    public void testCopyKeepsAttributesAndOrder() throws Exception {
+
+        ComplexAttribute email = new ComplexAttribute("emails");
+        email.setSubAttribute(createAttribute(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAIL_TYPE,
+                "type", "home"));
+        email.setSubAttribute(createAttribute(SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAIL_VALUE,
+                "value", "kim@example.com"));
+        ComplexAttribute earlierEmail = new ComplexAttribute("emails");
+        earlierEmail.setSubAttributesList(new HashMap<>(email.getSubAttributesList()));
+
+        ComplexAttribute copy = (ComplexAttribute) CopyUtil.deepCopy(email);
+        ComplexAttribute earlierCopy = (ComplexAttribute) CopyUtil.deepCopy(earlierEmail);
+
+        Assert.assertTrue(copy.getSubAttributesList() instanceof AttributeMap);
+        Assert.assertEquals(new ArrayList<>(copy.getSubAttributesList().keySet()), Arrays.asList("value", "type"));
+        Assert.assertEquals(((SimpleAttribute) copy.getSubAttribute("value")).getValue(), "kim@example.com");
+        Assert.assertTrue(earlierCopy.getSubAttributesList() instanceof AttributeMap);
+        Assert.assertEquals(new ArrayList<>(earlierCopy.getSubAttributesList().keySet()),
+                Arrays.asList("value", "type"));
+    }
+
+    private SimpleAttribute createAttribute(SCIMAttributeSchema attributeSchema, String name, Object value)
+            throws Exception {
+
+        return (SimpleAttribute) DefaultAttributeFactory.createAttribute(attributeSchema,
+                new SimpleAttribute(name, value));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.encoder;
+
+import org.wso2.charon3.core.objects.ListedResource;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.schema.AttributeProjection;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how long list responses of growing size take to encode on the calling thread and in parallel, to pick
+ * the parallel list encoding threshold of a deployment from. It is not part of the test suite, run it with
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.wso2.charon3.core.encoder.ListEncodingBenchmark [sizes...]
+ * </pre>
+ * The threshold is about the smallest size from which the parallel encoding is faster.
+ */
+public class ListEncodingBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {10, 20, 50, 100, 200, 500, 1000, 5000};
+    private static final long MEASURED_NANOS = 500_000_000L;
+
+    public static void main(String[] args) throws Exception {
+
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        Executor executor = ForkJoinPool.commonPool();
+        JSONEncoder encoder = new JSONEncoder();
+        AttributeProjection projection = new AttributeProjection(null, null);
+
+        System.out.printf("%8s %16s %16s %8s%n", "size", "sequential (us)", "parallel (us)", "speedup");
+        for (int size : sizes) {
+            ListedResource listedResource = createListedResource(size);
+            // Warm up both paths before measuring them.
+            measure(() -> encoder.encodeListedResource(listedResource, projection));
+            measure(() -> encoder.encodeListedResource(listedResource, projection, 1, executor));
+            double sequentialNanos = measure(() -> encoder.encodeListedResource(listedResource, projection));
+            double parallelNanos = measure(() -> encoder.encodeListedResource(listedResource, projection, 1,
+                    executor));
+            System.out.printf("%8d %16.1f %16.1f %8.2f%n", size, sequentialNanos / 1000, parallelNanos / 1000,
+                    sequentialNanos / parallelNanos);
+        }
+    }
+
+    /*
+     * Average nanoseconds of an encoding, repeated for a fixed time.
+     */
+    private static double measure(Encoding encoding) throws Exception {
+
+        long runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            encoding.encode();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURED_NANOS);
+        return (double) elapsed / runs;
+    }
+
+    private static ListedResource createListedResource(int size) throws Exception {
+
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(size);
+        JSONDecoder decoder = new JSONDecoder();
+        for (int i = 0; i < size; i++) {
+            listedResource.addResource(decoder.decodeResource("{" +
+                    "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+                    "\"id\": \"" + i + "\", \"userName\": \"kim" + i + "\", " +
+                    "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+                    "\"emails\": [{\"value\": \"kim" + i + "@wso2.com\", \"type\": \"work\"}, " +
+                    "{\"value\": \"kim" + i + "@gmail.com\", \"type\": \"home\"}]}",
+                    SCIMSchemaDefinitions.SCIM_USER_SCHEMA, new User()));
+        }
+        return listedResource;
+    }
+
+    private interface Encoding {
+
+        void encode() throws Exception;
+    }
+}
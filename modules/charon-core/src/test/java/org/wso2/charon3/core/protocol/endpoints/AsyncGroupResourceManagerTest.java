@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.config.CharonConfiguration;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.extensions.BlockingUserManagerAdapter;
+import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collections;
+import java.util.concurrent.CompletionStage;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class of AsyncGroupResourceManager.
+ */
+public class AsyncGroupResourceManagerTest {
+
+    private static final String GROUP_ID = "71239";
+    private static final String SCIM2_GROUP_ENDPOINT = "https://localhost:9443/scim2/Groups";
+
+    private static final String GROUP_SCIM_OBJECT_STRING = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:Group\"],\n" +
+            "  \"id\": \"" + GROUP_ID + "\",\n" +
+            "  \"displayName\": \"PRIMARY/manager\",\n" +
+            "  \"members\": [\n" +
+            "    {\n" +
+            "      \"display\": \"kim\",\n" +
+            "      \"value\": \"008bba85-451d-414b-87de-c03b5a1f4217\"\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String GROUP_PATCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"],\n" +
+            "  \"Operations\": [\n" +
+            "    {\"op\": \"replace\", \"path\": \"displayName\", \"value\": \"PRIMARY/manager_sales\"}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String MEMBER_PATCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"],\n" +
+            "  \"Operations\": [\n" +
+            "    {\"op\": \"add\", \"value\": {\"members\": [{\"value\": \"user-1\"}]}}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String SEARCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],\n" +
+            "  \"startIndex\": 1,\n" +
+            "  \"filter\": \"displayName eq PRIMARY/manager\"\n" +
+            "}";
+
+    private MockedStatic<AbstractResourceManager> abstractResourceManager;
+    private UserManager userManager;
+    private AsyncUserManager asyncUserManager;
+
+    @BeforeMethod
+    public void setUp() {
+
+        abstractResourceManager = Mockito.mockStatic(AbstractResourceManager.class, Mockito.CALLS_REAL_METHODS);
+        abstractResourceManager.when(AbstractResourceManager::getEncoder).thenReturn(new JSONEncoder());
+        abstractResourceManager.when(AbstractResourceManager::getDecoder).thenReturn(new JSONDecoder());
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(
+                SCIMConstants.GROUP_ENDPOINT)).thenReturn(SCIM2_GROUP_ENDPOINT);
+        userManager = mock(UserManager.class);
+        // Run the user manager calls on the calling thread, where the static mocks are registered.
+        asyncUserManager = new BlockingUserManagerAdapter(userManager, Runnable::run);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        abstractResourceManager.close();
+    }
+
+    private Group getNewGroup(String version) throws Exception {
+
+        Group group = new JSONDecoder().decodeResource(GROUP_SCIM_OBJECT_STRING,
+                SCIMResourceSchemaManager.getInstance().getGroupResourceSchema(), new Group());
+        group.replaceVersion(version);
+        return group;
+    }
+
+    private SCIMResponse join(CompletionStage<SCIMResponse> stage) {
+
+        return stage.toCompletableFuture().join();
+    }
+
+    @Test
+    public void testCreateGroup() throws Exception {
+
+        Mockito.when(userManager.createGroup(any(Group.class), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().create(GROUP_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.LOCATION_HEADER),
+                SCIM2_GROUP_ENDPOINT + "/" + GROUP_ID);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"1\"");
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getString("displayName"),
+                "PRIMARY/manager");
+    }
+
+    @Test
+    public void testPutRejectsStaleIfMatch() throws Exception {
+
+        Mockito.when(userManager.getGroup(eq(GROUP_ID), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPUT(GROUP_ID,
+                GROUP_SCIM_OBJECT_STRING, asyncUserManager, null, null, "W/\"2\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap(),
+                any());
+    }
+
+    @Test
+    public void testPutWithIfMatchUpdatesConditionally() throws Exception {
+
+        Mockito.when(userManager.getGroup(eq(GROUP_ID), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+        Mockito.when(userManager.updateGroup(any(Group.class), any(Group.class), anyMap(), eq("1")))
+                .thenAnswer(invocation -> getNewGroup("2"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPUT(GROUP_ID,
+                GROUP_SCIM_OBJECT_STRING, asyncUserManager, null, null, "W/\"1\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(), any(ChangeSet.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap());
+    }
+
+    @Test
+    public void testPutUpdatesByChangeSet() throws Exception {
+
+        Mockito.when(userManager.getGroup(eq(GROUP_ID), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+        Mockito.when(userManager.updateGroup(eq(GROUP_ID), any(ChangeSet.class), anyMap()))
+                .thenAnswer(invocation -> getNewGroup("2"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPUT(GROUP_ID,
+                GROUP_SCIM_OBJECT_STRING, asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap());
+    }
+
+    @Test
+    public void testPatchFallsBackToWholeGroupUpdate() throws Exception {
+
+        Mockito.when(userManager.getGroup(eq(GROUP_ID), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+        Mockito.when(userManager.patchGroupMembers(any(GroupMemberDelta.class), anyMap()))
+                .thenThrow(new NotImplementedException("Member deltas are not supported."));
+        Mockito.when(userManager.patchGroup(eq(GROUP_ID), any(), anyMap(), anyMap()))
+                .thenThrow(new NotImplementedException("Patch operations are not supported."));
+        Mockito.when(userManager.updateGroup(eq(GROUP_ID), any(ChangeSet.class), anyMap()))
+                .thenThrow(new NotImplementedException("Change sets are not supported."));
+        Mockito.when(userManager.updateGroup(any(Group.class), any(Group.class), anyMap()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPATCH(GROUP_ID, GROUP_PATCH_REQUEST,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getString("displayName"),
+                "PRIMARY/manager_sales");
+        Mockito.verify(userManager).patchGroupMembers(any(GroupMemberDelta.class), anyMap());
+        Mockito.verify(userManager).patchGroup(eq(GROUP_ID), eq("PRIMARY/manager"), anyMap(), anyMap());
+        Mockito.verify(userManager).updateGroup(any(Group.class), any(Group.class), anyMap());
+    }
+
+    @Test
+    public void testPatchByMemberDelta() throws Exception {
+
+        Mockito.when(userManager.patchGroupMembers(any(GroupMemberDelta.class), anyMap()))
+                .thenAnswer(invocation -> getNewGroup("2"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPATCH(GROUP_ID, MEMBER_PATCH_REQUEST,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        ArgumentCaptor<GroupMemberDelta> delta = ArgumentCaptor.forClass(GroupMemberDelta.class);
+        Mockito.verify(userManager).patchGroupMembers(delta.capture(), anyMap());
+        Assert.assertEquals(delta.getValue().getGroupId(), GROUP_ID);
+        Assert.assertEquals(delta.getValue().getAddedMembers().get(0).get(SCIMConstants.GroupSchemaConstants.VALUE),
+                "user-1");
+        Mockito.verify(userManager, Mockito.never()).getGroup(any(), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap());
+    }
+
+    @Test
+    public void testPatchWithIfMatchPatchesByOperations() throws Exception {
+
+        Mockito.when(userManager.getGroup(eq(GROUP_ID), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+        Mockito.when(userManager.patchGroup(eq(GROUP_ID), eq("PRIMARY/manager"), anyMap(), anyMap(), eq("1")))
+                .thenAnswer(invocation -> getNewGroup("2"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPATCH(GROUP_ID, MEMBER_PATCH_REQUEST,
+                asyncUserManager, null, null, "W/\"1\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+        // A conditional request is not written by the member delta, which carries no version.
+        Mockito.verify(userManager, Mockito.never()).patchGroupMembers(any(GroupMemberDelta.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateGroup(any(Group.class), any(Group.class), anyMap());
+    }
+
+    @Test
+    public void testPatchResolvesMemberDisplayNames() throws Exception {
+
+        User user = new User();
+        user.setUserName("kim");
+        Mockito.when(userManager.getUsersByIds(any(), anyMap())).thenReturn(Collections.singletonMap("user-1", user));
+        Mockito.when(userManager.patchGroupMembers(any(GroupMemberDelta.class), anyMap()))
+                .thenAnswer(invocation -> getNewGroup("2"));
+
+        CharonConfiguration.getInstance().setMemberDisplayResolution(true);
+        try {
+            SCIMResponse response = join(new AsyncGroupResourceManager().updateWithPATCH(GROUP_ID,
+                    MEMBER_PATCH_REQUEST, asyncUserManager, null, null));
+            Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        } finally {
+            CharonConfiguration.getInstance().setMemberDisplayResolution(false);
+        }
+
+        ArgumentCaptor<GroupMemberDelta> delta = ArgumentCaptor.forClass(GroupMemberDelta.class);
+        Mockito.verify(userManager).patchGroupMembers(delta.capture(), anyMap());
+        Assert.assertEquals(delta.getValue().getAddedMembers().get(0).get(SCIMConstants.GroupSchemaConstants.DISPLAY),
+                "kim");
+    }
+
+    @Test
+    public void testCreateGroupLeavesMemberDisplayNamesByDefault() throws Exception {
+
+        Mockito.when(userManager.createGroup(any(Group.class), anyMap())).thenAnswer(invocation -> getNewGroup("1"));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().create(GROUP_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        Mockito.verify(userManager, Mockito.never()).getUsersByIds(any(), anyMap());
+        Mockito.verify(userManager, Mockito.never()).getGroupsByIds(any(), anyMap());
+    }
+
+    @Test
+    public void testListWithPOST() throws Exception {
+
+        Mockito.when(userManager.listGroupsWithPost(any(SearchRequest.class), anyMap()))
+                .thenAnswer(invocation -> new GroupsGetResponse(1, Collections.singletonList(getNewGroup("1"))));
+
+        SCIMResponse response = join(new AsyncGroupResourceManager().listWithPOST(SEARCH_REQUEST, asyncUserManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(response.getResponseMessage());
+        Assert.assertEquals(listedResource.getInt(SCIMConstants.ListedResourceSchemaConstants.TOTAL_RESULTS), 1);
+        JSONArray resources = listedResource.getJSONArray(SCIMConstants.ListedResourceSchemaConstants.RESOURCES);
+        Assert.assertEquals(resources.length(), 1);
+        Assert.assertEquals(resources.getJSONObject(0).getString("id"), GROUP_ID);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.extensions.AsyncRoleManager;
+import org.wso2.charon3.core.extensions.BlockingRoleManagerAdapter;
+import org.wso2.charon3.core.extensions.RoleManager;
+import org.wso2.charon3.core.objects.Role;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.RolesGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Collections;
+import java.util.concurrent.CompletionStage;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class of AsyncRoleResourceManager.
+ */
+public class AsyncRoleResourceManagerTest {
+
+    private static final String ROLE_ID = "7a47c8c2-ee1b-4e1d-8b9a-5d0f3e2c1b4a";
+    private static final String SCIM2_ROLE_ENDPOINT = "https://localhost:9443/scim2/Roles";
+
+    private static final String ROLE_SCIM_OBJECT_STRING = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:schemas:extension:2.0:Role\"],\n" +
+            "  \"id\": \"" + ROLE_ID + "\",\n" +
+            "  \"displayName\": \"loginRole\",\n" +
+            "  \"permissions\": [\"/permission/admin/login\"]\n" +
+            "}";
+
+    private static final String ROLE_PATCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"],\n" +
+            "  \"Operations\": [\n" +
+            "    {\"op\": \"replace\", \"path\": \"displayName\", \"value\": \"adminRole\"}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String SEARCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],\n" +
+            "  \"startIndex\": 1,\n" +
+            "  \"filter\": \"displayName eq loginRole\"\n" +
+            "}";
+
+    private MockedStatic<AbstractResourceManager> abstractResourceManager;
+    private RoleManager roleManager;
+    private AsyncRoleManager asyncRoleManager;
+
+    @BeforeMethod
+    public void setUp() {
+
+        abstractResourceManager = Mockito.mockStatic(AbstractResourceManager.class, Mockito.CALLS_REAL_METHODS);
+        abstractResourceManager.when(AbstractResourceManager::getEncoder).thenReturn(new JSONEncoder());
+        abstractResourceManager.when(AbstractResourceManager::getDecoder).thenReturn(new JSONDecoder());
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(
+                SCIMConstants.ROLE_ENDPOINT)).thenReturn(SCIM2_ROLE_ENDPOINT);
+        roleManager = mock(RoleManager.class);
+        // Run the role manager calls on the calling thread, where the static mocks are registered.
+        asyncRoleManager = new BlockingRoleManagerAdapter(roleManager, Runnable::run);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        abstractResourceManager.close();
+    }
+
+    private Role getNewRole() throws Exception {
+
+        return new JSONDecoder().decodeResource(ROLE_SCIM_OBJECT_STRING,
+                SCIMResourceSchemaManager.getInstance().getRoleResourceSchema(), new Role());
+    }
+
+    private SCIMResponse join(CompletionStage<SCIMResponse> stage) {
+
+        return stage.toCompletableFuture().join();
+    }
+
+    @Test
+    public void testCreateRole() throws Exception {
+
+        Mockito.when(roleManager.createRole(any(Role.class))).thenAnswer(invocation -> getNewRole());
+
+        SCIMResponse response = join(new AsyncRoleResourceManager().createRole(ROLE_SCIM_OBJECT_STRING,
+                asyncRoleManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.LOCATION_HEADER),
+                SCIM2_ROLE_ENDPOINT + "/" + ROLE_ID);
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getString("displayName"), "loginRole");
+    }
+
+    @Test
+    public void testPutUpdatesByChangeSet() throws Exception {
+
+        Mockito.when(roleManager.getRole(eq(ROLE_ID), anyMap())).thenAnswer(invocation -> getNewRole());
+        Mockito.when(roleManager.updateRole(eq(ROLE_ID), any(ChangeSet.class))).thenAnswer(invocation ->
+                getNewRole());
+
+        SCIMResponse response = join(new AsyncRoleResourceManager().updateWithPUTRole(ROLE_ID,
+                ROLE_SCIM_OBJECT_STRING, asyncRoleManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Mockito.verify(roleManager, Mockito.never()).updateRole(any(Role.class), any(Role.class));
+    }
+
+    @Test
+    public void testPatchFallsBackToWholeRoleUpdate() throws Exception {
+
+        Mockito.when(roleManager.getRole(eq(ROLE_ID), anyMap())).thenAnswer(invocation -> getNewRole());
+        Mockito.when(roleManager.updateRole(eq(ROLE_ID), any(ChangeSet.class)))
+                .thenThrow(new NotImplementedException("Change sets are not supported."));
+        Mockito.when(roleManager.updateRole(any(Role.class), any(Role.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        SCIMResponse response = join(new AsyncRoleResourceManager().updateWithPATCHRole(ROLE_ID, ROLE_PATCH_REQUEST,
+                asyncRoleManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getString("displayName"), "adminRole");
+        Mockito.verify(roleManager).updateRole(any(Role.class), any(Role.class));
+    }
+
+    @Test
+    public void testListWithPOSTRole() throws Exception {
+
+        Mockito.when(roleManager.listRolesWithPost(any(SearchRequest.class)))
+                .thenAnswer(invocation -> new RolesGetResponse(1, Collections.singletonList(getNewRole())));
+
+        SCIMResponse response = join(new AsyncRoleResourceManager().listWithPOSTRole(SEARCH_REQUEST,
+                asyncRoleManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(response.getResponseMessage());
+        Assert.assertEquals(listedResource.getInt(SCIMConstants.ListedResourceSchemaConstants.TOTAL_RESULTS), 1);
+        JSONArray resources = listedResource.getJSONArray(SCIMConstants.ListedResourceSchemaConstants.RESOURCES);
+        Assert.assertEquals(resources.length(), 1);
+        Assert.assertEquals(resources.getJSONObject(0).getString("displayName"), "loginRole");
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.protocol.endpoints;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.extensions.AsyncUserManager;
+import org.wso2.charon3.core.extensions.BlockingUserManagerAdapter;
+import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+
+import java.util.concurrent.CompletionStage;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class of AsyncUserResourceManager and AsyncBulkResourceManager.
+ */
+public class AsyncUserResourceManagerTest {
+
+    private static final String USER_ID = "123";
+    private static final String SCIM2_USER_ENDPOINT = "https://localhost:9443/scim2/Users";
+
+    private static final String USER_SCIM_OBJECT_STRING = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"],\n" +
+            "  \"name\": {\n" +
+            "    \"givenName\": \"Kim\",\n" +
+            "    \"familyName\": \"Berry\"\n" +
+            "  },\n" +
+            "  \"userName\": \"kimjohn\",\n" +
+            "  \"password\": \"kim123\",\n" +
+            "  \"id\": \"123\",\n" +
+            "  \"emails\": [\n" +
+            "      {\n" +
+            "        \"type\": \"home\",\n" +
+            "        \"value\": \"john@gmail.com\",\n" +
+            "        \"primary\": true\n" +
+            "      }\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String USER_PATCH_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"],\n" +
+            "  \"Operations\": [\n" +
+            "    {\"op\": \"replace\", \"path\": \"name.givenName\", \"value\": \"Kimberly\"}\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String BULK_DELETE_REQUEST = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:BulkRequest\"],\n" +
+            "  \"failOnErrors\": 1,\n" +
+            "  \"Operations\": [\n" +
+            "    {\"method\": \"DELETE\", \"path\": \"/Users/1\"},\n" +
+            "    {\"method\": \"DELETE\", \"path\": \"/Users/2\"}\n" +
+            "  ]\n" +
+            "}";
+
+    private MockedStatic<AbstractResourceManager> abstractResourceManager;
+    private UserManager userManager;
+    private AsyncUserManager asyncUserManager;
+
+    @BeforeMethod
+    public void setUp() {
+
+        abstractResourceManager = Mockito.mockStatic(AbstractResourceManager.class, Mockito.CALLS_REAL_METHODS);
+        abstractResourceManager.when(AbstractResourceManager::getEncoder).thenReturn(new JSONEncoder());
+        abstractResourceManager.when(AbstractResourceManager::getDecoder).thenReturn(new JSONDecoder());
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        userManager = mock(UserManager.class);
+        // Run the user manager calls on the calling thread, where the static mocks are registered.
+        asyncUserManager = new BlockingUserManagerAdapter(userManager, Runnable::run);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        abstractResourceManager.close();
+    }
+
+    private User getNewUser() throws Exception {
+
+        return new JSONDecoder().decodeResource(USER_SCIM_OBJECT_STRING,
+                SCIMResourceSchemaManager.getInstance().getUserResourceSchema(), new User());
+    }
+
+    private User getNewUser(String version) throws Exception {
+
+        User user = getNewUser();
+        user.replaceVersion(version);
+        return user;
+    }
+
+    private SCIMResponse join(CompletionStage<SCIMResponse> stage) {
+
+        return stage.toCompletableFuture().join();
+    }
+
+    @Test
+    public void testGetMatchesBlockingResourceManager() throws Exception {
+
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser());
+
+        SCIMResponse asyncResponse = join(new AsyncUserResourceManager().get(USER_ID, asyncUserManager,
+                "userName", null));
+        SCIMResponse blockingResponse = new UserResourceManager().get(USER_ID, userManager, "userName", null);
+
+        Assert.assertEquals(asyncResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(asyncResponse.getResponseStatus(), blockingResponse.getResponseStatus());
+        JSONObject asyncUser = new JSONObject(asyncResponse.getResponseMessage());
+        JSONObject blockingUser = new JSONObject(blockingResponse.getResponseMessage());
+        Assert.assertEquals(asyncUser.keySet(), blockingUser.keySet());
+        Assert.assertEquals(asyncUser.getString("userName"), blockingUser.getString("userName"));
+        Assert.assertEquals(asyncResponse.getHeaderParamMap().get(SCIMConstants.LOCATION_HEADER),
+                SCIM2_USER_ENDPOINT + "/" + USER_ID);
+    }
+
+    @Test
+    public void testGetUserNotFound() throws Exception {
+
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenReturn(null);
+
+        SCIMResponse response = join(new AsyncUserResourceManager().get(USER_ID, asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_RESOURCE_NOT_FOUND);
+    }
+
+    @Test
+    public void testGetUserManagerException() throws Exception {
+
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenThrow(new CharonException("Store failure."));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().get(USER_ID, asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_INTERNAL_ERROR);
+    }
+
+    @Test
+    public void testGetProvidedUserManagerIsNull() {
+
+        SCIMResponse response = join(new AsyncUserResourceManager().get(USER_ID, null, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_INTERNAL_ERROR);
+    }
+
+    @Test
+    public void testCreateUser() throws Exception {
+
+        Mockito.when(userManager.createUser(any(User.class), anyMap())).thenAnswer(invocation -> getNewUser());
+
+        SCIMResponse response = join(new AsyncUserResourceManager().create(USER_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.LOCATION_HEADER),
+                SCIM2_USER_ENDPOINT + "/" + USER_ID);
+    }
+
+    @Test
+    public void testBulkStopsOnFailOnErrors() throws Exception {
+
+        doThrow(new NotFoundException("User not found.")).when(userManager).deleteUser("1");
+
+        SCIMResponse response = join(new AsyncBulkResourceManager().processBulkData(BULK_DELETE_REQUEST,
+                asyncUserManager));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONArray operations = new JSONObject(response.getResponseMessage())
+                .getJSONArray(SCIMConstants.OperationalConstants.OPERATIONS);
+        Assert.assertEquals(operations.length(), 1);
+        Mockito.verify(userManager, Mockito.never()).deleteUser("2");
+    }
+
+    @Test
+    public void testPutRejectsStaleIfMatch() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenThrow(new NotImplementedException("No versions."));
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPUT(USER_ID, USER_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null, "W/\"2\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap(), anyList(), any());
+    }
+
+    @Test
+    public void testPutRejectsStaleIfMatchBeforeDecoding() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPUT(USER_ID, "{",
+                asyncUserManager, null, null, "W/\"2\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).getUser(any(), anyMap());
+    }
+
+    @Test
+    public void testPutWithIfMatchUpdatesConditionally() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList(), eq("1")))
+                .thenAnswer(invocation -> getNewUser("2"));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPUT(USER_ID, USER_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null, "W/\"1\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(), any(ChangeSet.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
+    @Test
+    public void testPutWithIfMatchFallsBackToWholeUserUpdate() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList(), eq("1")))
+                .thenThrow(new NotImplementedException("Versioned updates are not supported."));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap())).thenAnswer(invocation ->
+                invocation.getArgument(0));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPUT(USER_ID, USER_SCIM_OBJECT_STRING,
+                asyncUserManager, null, null, "W/\"1\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Mockito.verify(userManager).updateUser(any(User.class), anyMap());
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap(), anyList());
+    }
+
+    @Test
+    public void testPatchRejectsStaleIfMatchBeforeDecoding() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPATCH(USER_ID, "{",
+                asyncUserManager, null, null, "W/\"2\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).getUser(any(), anyMap());
+    }
+
+    @Test
+    public void testPatchWithIfMatchFallsBackToMultiValuedAttributesUpdate() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList(), eq("1")))
+                .thenThrow(new NotImplementedException("Versioned updates are not supported."));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList())).thenAnswer(invocation ->
+                invocation.getArgument(0));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPATCH(USER_ID, USER_PATCH_REQUEST,
+                asyncUserManager, null, null, "W/\"1\""));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getJSONObject("name")
+                .getString("givenName"), "Kimberly");
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
+    @Test
+    public void testPatchUpdatesByChangeSet() throws Exception {
+
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+        Mockito.when(userManager.updateUser(eq(USER_ID), any(ChangeSet.class), anyMap()))
+                .thenAnswer(invocation -> getNewUser("2"));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPATCH(USER_ID, USER_PATCH_REQUEST,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(response.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
+    @Test
+    public void testPatchFallsBackToWholeUserUpdate() throws Exception {
+
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenAnswer(invocation -> getNewUser("1"));
+        Mockito.when(userManager.updateUser(eq(USER_ID), any(ChangeSet.class), anyMap()))
+                .thenThrow(new NotImplementedException("Change sets are not supported."));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList()))
+                .thenThrow(new NotImplementedException("Multi-valued attribute updates are not supported."));
+        Mockito.when(userManager.updateUser(any(User.class), anyMap())).thenAnswer(invocation ->
+                invocation.getArgument(0));
+
+        SCIMResponse response = join(new AsyncUserResourceManager().updateWithPATCH(USER_ID, USER_PATCH_REQUEST,
+                asyncUserManager, null, null));
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(new JSONObject(response.getResponseMessage()).getJSONObject("name")
+                .getString("givenName"), "Kimberly");
+        Mockito.verify(userManager).updateUser(any(User.class), anyMap());
+    }
+}
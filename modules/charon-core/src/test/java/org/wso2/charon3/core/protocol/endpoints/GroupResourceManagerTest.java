@@ -19,6 +19,7 @@
 package org.wso2.charon3.core.protocol.endpoints;
 
 import org.json.JSONObject;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -26,6 +27,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import org.wso2.charon3.core.config.CharonConfiguration;
 import org.wso2.charon3.core.encoder.JSONDecoder;
 import org.wso2.charon3.core.encoder.JSONEncoder;
 import org.wso2.charon3.core.exceptions.AbstractCharonException;
@@ -37,6 +39,9 @@ import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
 import org.wso2.charon3.core.extensions.UserManager;
 import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
 import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
@@ -49,6 +54,8 @@ import org.wso2.charon3.core.utils.ResourceManagerUtil;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,8 +63,12 @@ import java.util.Map;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 
 /**
  * Test class of GroupResourceManager.
@@ -165,16 +176,28 @@ public class GroupResourceManagerTest {
             "  \"filter\": \"displayName eq manager\"\n" +
             "}";
 
+    private static final String GROUP_WITH_MEMBERS_SCIM_OBJECT_STRING = "{\n" +
+            "  \"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:Group\"],\n" +
+            "  \"displayName\": \"PRIMARY/staff\",\n" +
+            "  \"members\": [\n" +
+            "    {\"value\": \"user-1\"},\n" +
+            "    {\"value\": \"group-1\"},\n" +
+            "    {\"value\": \"user-2\", \"display\": \"kris\"}\n" +
+            "  ]\n" +
+            "}";
+
     private GroupResourceManager groupResourceManager;
     private UserManager userManager;
     private MockedStatic<AbstractResourceManager> abstractResourceManager;
 
     @BeforeMethod
-    public void setUp() {
+    public void setUp() throws Exception {
 
         groupResourceManager = new GroupResourceManager();
         abstractResourceManager = Mockito.mockStatic(AbstractResourceManager.class);
         userManager = mock(UserManager.class);
+        doCallRealMethod().when(userManager).updateGroup(any(), any(ChangeSet.class), anyMap());
+        doCallRealMethod().when(userManager).patchGroupMembers(any(), anyMap());
 
         abstractResourceManager.when(AbstractResourceManager::getEncoder).thenReturn(new JSONEncoder());
         abstractResourceManager.when(AbstractResourceManager::getDecoder).thenReturn(new JSONDecoder());
@@ -333,6 +356,81 @@ public class GroupResourceManagerTest {
         Assert.assertEquals(returnedURI, expectedURI);
     }
 
+    @Test
+    public void testCreateGroupResolvesMemberDisplayNames() throws Exception {
+
+        User user = new User();
+        user.setUserName("kim");
+        Group memberGroup = new Group();
+        memberGroup.setDisplayName("PRIMARY/admins");
+        Mockito.when(userManager.getUsersByIds(any(), anyMap())).thenReturn(Collections.singletonMap("user-1", user));
+        Mockito.when(userManager.getGroupsByIds(any(), anyMap()))
+                .thenReturn(Collections.singletonMap("group-1", memberGroup));
+        Mockito.when(userManager.createGroup(any(Group.class), anyMap())).thenReturn(getNewGroup());
+
+        CharonConfiguration.getInstance().setMemberDisplayResolution(true);
+        try {
+            SCIMResponse scimResponse = groupResourceManager.create(GROUP_WITH_MEMBERS_SCIM_OBJECT_STRING, userManager,
+                    null, null);
+            Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        } finally {
+            CharonConfiguration.getInstance().setMemberDisplayResolution(false);
+        }
+
+        // Only the members without a display name are looked up, as users first and then as groups.
+        Mockito.verify(userManager).getUsersByIds(eq(Arrays.asList("user-1", "group-1")), anyMap());
+        Mockito.verify(userManager).getGroupsByIds(eq(Collections.singletonList("group-1")), anyMap());
+        ArgumentCaptor<Group> createdGroup = ArgumentCaptor.forClass(Group.class);
+        Mockito.verify(userManager).createGroup(createdGroup.capture(), anyMap());
+        Assert.assertEquals(createdGroup.getValue().getMembersWithDisplayName(),
+                Arrays.asList("kim", "PRIMARY/admins", "kris"));
+    }
+
+    @Test
+    public void testCreateGroupLeavesMemberDisplayNamesByDefault() throws Exception {
+
+        Mockito.when(userManager.createGroup(any(Group.class), anyMap())).thenReturn(getNewGroup());
+
+        SCIMResponse scimResponse = groupResourceManager.create(GROUP_WITH_MEMBERS_SCIM_OBJECT_STRING, userManager,
+                null, null);
+
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        Mockito.verify(userManager, Mockito.never()).getUsersByIds(any(), anyMap());
+        Mockito.verify(userManager, Mockito.never()).getGroupsByIds(any(), anyMap());
+        ArgumentCaptor<Group> createdGroup = ArgumentCaptor.forClass(Group.class);
+        Mockito.verify(userManager).createGroup(createdGroup.capture(), anyMap());
+        Assert.assertEquals(createdGroup.getValue().getMembers(), Arrays.asList("user-1", "group-1", "user-2"));
+        Assert.assertEquals(createdGroup.getValue().getMembersWithDisplayName(), Collections.singletonList("kris"));
+    }
+
+    @Test
+    public void testCreateGroupWithFailingMemberLookup() throws Exception {
+
+        User user = new User();
+        user.setUserName("kim");
+        // The batch fails because of group-1, so its members are looked up one by one.
+        Mockito.when(userManager.getUsersByIds(any(), anyMap())).thenThrow(new CharonException("lookup failed"));
+        Mockito.doReturn(Collections.singletonMap("user-1", user)).when(userManager)
+                .getUsersByIds(eq(Collections.singletonList("user-1")), anyMap());
+        Mockito.when(userManager.getGroupsByIds(any(), anyMap())).thenThrow(new NotImplementedException());
+        Mockito.when(userManager.createGroup(any(Group.class), anyMap())).thenReturn(getNewGroup());
+
+        CharonConfiguration.getInstance().setMemberDisplayResolution(true);
+        try {
+            SCIMResponse scimResponse = groupResourceManager.create(GROUP_WITH_MEMBERS_SCIM_OBJECT_STRING, userManager,
+                    null, null);
+            Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_CREATED);
+        } finally {
+            CharonConfiguration.getInstance().setMemberDisplayResolution(false);
+        }
+
+        // The member which can not be resolved is kept, without a display name.
+        ArgumentCaptor<Group> createdGroup = ArgumentCaptor.forClass(Group.class);
+        Mockito.verify(userManager).createGroup(createdGroup.capture(), anyMap());
+        Assert.assertEquals(createdGroup.getValue().getMembers(), Arrays.asList("user-1", "group-1", "user-2"));
+        Assert.assertEquals(createdGroup.getValue().getMembersWithDisplayName(), Arrays.asList("kim", "kris"));
+    }
+
     @DataProvider(name = "dataForTestCreateGroupNewlyCreatedGroupResourceIsNull")
     public Object[][] dataToTestCreateGroupNewlyCreatedGroupResourceIsNull() {
 
@@ -825,6 +923,78 @@ public class GroupResourceManagerTest {
         Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_NO_CONTENT);
     }
 
+    @Test(dataProvider = "dataForUpdateWithPATCHOverride")
+    public void testConditionalUpdateWithPATCHReadsGroupOnce(String existingId, String patchRequest,
+                                                            Object scimNewGroupObject, Object scimOldGroupObject)
+            throws BadRequestException, CharonException, NotImplementedException, NotFoundException {
+
+        Group groupNew = (Group) scimNewGroupObject;
+        Group groupOld = (Group) scimOldGroupObject;
+        abstractResourceManager.when(()
+                -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.GROUP_ENDPOINT))
+                .thenReturn(SCIM2_GROUP_ENDPOINT);
+        Mockito.when(userManager.getGroup(anyString(), anyMap())).thenReturn(groupOld);
+        Mockito.when(userManager.patchGroup(anyString(), anyString(), anyMap(), anyMap())).thenReturn(groupNew);
+        SCIMResponse scimResponse = groupResourceManager.updateWithPATCH(existingId, patchRequest,
+                userManager, null, null, "*");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        // The group read for the precondition also provides the display name of the group.
+        Mockito.verify(userManager, times(1)).getGroup(anyString(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateWithPATCHByMemberDelta() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        Group groupNew = new JSONDecoder().decodeResource(NEW_GROUP_SCIM_OBJECT_STRING_FOR_PATCH_UPDATE, schema,
+                new Group());
+        ArgumentCaptor<GroupMemberDelta> delta = ArgumentCaptor.forClass(GroupMemberDelta.class);
+        ArgumentCaptor<Map<String, Boolean>> requiredAttributes = ArgumentCaptor.forClass(Map.class);
+        doReturn(groupNew).when(userManager).patchGroupMembers(delta.capture(), requiredAttributes.capture());
+        String patchRequest = "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                "\"Operations\": [" +
+                "{\"op\": \"add\", \"value\": {\"members\": [{\"display\": \"kris\", " +
+                "\"value\": \"409ca90b-2ba6-4474-9a45-2cf7376e6e43\"}]}}, " +
+                "{\"op\": \"remove\", \"path\": \"members[value eq \\\"3e8b5aa4-f1ea-4e0a-9f3d-1e0f1b1c7d55\\\"]\"}, " +
+                "{\"op\": \"replace\", \"path\": \"displayName\", \"value\": \"PRIMARY/manager_sales\"}]}";
+
+        SCIMResponse scimResponse = groupResourceManager.updateWithPATCH(groupNew.getId(), patchRequest,
+                userManager, null, null);
+
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(delta.getValue().getDisplayName(), "PRIMARY/manager_sales");
+        Assert.assertEquals(delta.getValue().getAddedMembers().size(), 1);
+        Assert.assertEquals(delta.getValue().getRemovedMemberIds(),
+                Collections.singleton("3e8b5aa4-f1ea-4e0a-9f3d-1e0f1b1c7d55"));
+        // Neither the members nor the name of the group are read, and the members are not returned.
+        Assert.assertFalse(requiredAttributes.getValue()
+                .containsKey(SCIMConstants.GroupSchemaConstants.MEMBERS_URI));
+        Assert.assertFalse(new JSONObject(scimResponse.getResponseMessage())
+                .has(SCIMConstants.GroupSchemaConstants.MEMBERS));
+        Mockito.verify(userManager, times(0)).getGroup(anyString(), anyMap());
+        Mockito.verify(userManager, times(0)).patchGroup(anyString(), any(), anyMap(), anyMap());
+    }
+
+    @Test
+    public void testUpdateWithPATCHWithoutMemberDeltaSupport() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+        Group groupNew = new JSONDecoder().decodeResource(NEW_GROUP_SCIM_OBJECT_STRING_FOR_PATCH_UPDATE, schema,
+                new Group());
+        Mockito.when(userManager.getGroup(anyString(), anyMap())).thenReturn(groupNew);
+        Mockito.when(userManager.patchGroup(anyString(), anyString(), anyMap(), anyMap())).thenReturn(groupNew);
+
+        SCIMResponse scimResponse = groupResourceManager.updateWithPATCH(groupNew.getId(),
+                SCIM2_PATCH_REQUEST_STRING, userManager, null, null);
+
+        // The members are returned as before for user stores without member delta updates.
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertTrue(new JSONObject(scimResponse.getResponseMessage())
+                .has(SCIMConstants.GroupSchemaConstants.MEMBERS));
+        Mockito.verify(userManager, times(1)).patchGroup(anyString(), anyString(), anyMap(), anyMap());
+    }
+
     @DataProvider(name = "dataForListWithGET")
     public Object[][] dataToListWithGET() {
 
@@ -19,6 +19,7 @@
 package org.wso2.charon3.core.protocol.endpoints;
 
 import org.json.JSONObject;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -36,8 +37,10 @@ import org.wso2.charon3.core.exceptions.ForbiddenException;
 import org.wso2.charon3.core.exceptions.InternalErrorException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
 import org.wso2.charon3.core.extensions.UserManager;
 import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
 import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
 import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.SCIMResponse;
@@ -50,6 +53,8 @@ import org.wso2.charon3.core.utils.ResourceManagerUtil;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +62,8 @@ import java.util.Map;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 
@@ -383,11 +390,12 @@ public class UserResourceManagerTest {
     }
 
     @BeforeMethod
-    public void setUp() {
+    public void setUp() throws Exception {
 
         userResourceManager = new UserResourceManager();
         abstractResourceManager = Mockito.mockStatic(AbstractResourceManager.class);
         userManager = mock(UserManager.class);
+        doCallRealMethod().when(userManager).updateUser(any(), any(ChangeSet.class), anyMap());
         abstractResourceManager.when(AbstractResourceManager::getEncoder).thenReturn(new JSONEncoder());
         abstractResourceManager.when(AbstractResourceManager::getDecoder).thenReturn(new JSONDecoder());
     }
@@ -439,6 +447,31 @@ public class UserResourceManagerTest {
         Assert.assertEquals(returnedURI, expectedURI);
     }
 
+    @Test
+    public void testGetIfNoneMatchFromVersionOnly() throws Exception {
+
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        SCIMResponse scimResponse = userResourceManager.get(USER_ID, userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_NOT_MODIFIED);
+        Assert.assertNull(scimResponse.getResponseMessage());
+        Assert.assertEquals(scimResponse.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"1\"");
+        Mockito.verify(userManager, Mockito.never()).getUser(any(), anyMap());
+    }
+
+    @Test
+    public void testGetIfNoneMatchChangedUser() throws Exception {
+
+        User user = getNewUser();
+        user.replaceVersion("2");
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenThrow(NotImplementedException.class);
+        Mockito.when(userManager.getUser(eq(USER_ID), anyMap())).thenReturn(user);
+        SCIMResponse scimResponse = userResourceManager.get(USER_ID, userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(scimResponse.getHeaderParamMap().get(SCIMConstants.ETAG_HEADER), "W/\"2\"");
+    }
+
     /*
      * Contains data to test NotFoundException thrown in 'get' method of 'UserResourceManager' class.
      * Format {resource id, attributes, excluded attributes}
@@ -575,6 +608,85 @@ public class UserResourceManagerTest {
         Assert.assertEquals(outputScimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
     }
 
+    @Test
+    public void testListWithGetZeroCountUsesUserCount() throws Exception {
+
+        Mockito.when(userManager.countUsers(any(), eq(DOMAIN_NAME))).thenReturn(42);
+        SCIMResponse scimResponse = userResourceManager.listWithGET(userManager, null, Integer.valueOf(1),
+                Integer.valueOf(0), null, null, DOMAIN_NAME, null, null);
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(scimResponse.getResponseMessage());
+        Assert.assertEquals(listedResource.getInt(SCIMConstants.ListedResourceSchemaConstants.TOTAL_RESULTS), 42);
+        Assert.assertFalse(listedResource.has(SCIMConstants.ListedResourceSchemaConstants.RESOURCES));
+        Mockito.verify(userManager, Mockito.never()).listUsersWithGET(any(), any(Integer.class), any(Integer.class),
+                any(), any(), any(), anyMap());
+    }
+
+    @Test
+    public void testListWithGetIdFilterFallsBackToUsersByIds() throws Exception {
+
+        Mockito.when(userManager.listUsersWithGET(any(), any(Integer.class), any(), any(), any(), any(), anyMap()))
+                .thenThrow(new NotImplementedException("Filtering is not supported"));
+        Mockito.when(userManager.getUsersByIds(any(), anyMap()))
+                .thenReturn(Collections.singletonMap("b", getNewUser()));
+        SCIMResponse scimResponse = userResourceManager.listWithGET(userManager, "id eq a or id eq b",
+                Integer.valueOf(1), null, null, null, null, null, null);
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(scimResponse.getResponseMessage());
+        Assert.assertEquals(listedResource.getInt(SCIMConstants.ListedResourceSchemaConstants.TOTAL_RESULTS), 1);
+        Mockito.verify(userManager).getUsersByIds(eq(Arrays.asList("a", "b")), anyMap());
+    }
+
+    @Test
+    public void testListWithGetIdFilterListedByUserManager() throws Exception {
+
+        Mockito.when(userManager.listUsersWithGET(any(), any(Integer.class), any(), any(), any(), any(), anyMap()))
+                .thenReturn(new UsersGetResponse(1, Collections.singletonList(getNewUser())));
+        SCIMResponse scimResponse = userResourceManager.listWithGET(userManager, "id eq a or id eq b",
+                Integer.valueOf(1), null, null, null, null, null, null);
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Mockito.verify(userManager, Mockito.never()).getUsersByIds(any(), anyMap());
+    }
+
+    @Test
+    public void testListWithCursor() throws Exception {
+
+        List<User> users = new ArrayList<>();
+        users.add(getNewUser());
+        Mockito.when(userManager.listUsersWithCursor(any(), eq(""), eq(1), any(), any(), any(), anyMap()))
+                .thenReturn(new UsersGetResponse(2, users, "bmV4dA"));
+        SCIMResponse scimResponse = userResourceManager.listWithCursor(userManager, null, null, 1, null, null,
+                DOMAIN_NAME, null, null);
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(scimResponse.getResponseMessage());
+        Assert.assertEquals(listedResource.getString(SCIMConstants.ListedResourceSchemaConstants.NEXT_CURSOR),
+                "bmV4dA");
+        Assert.assertFalse(listedResource.has(SCIMConstants.ListedResourceSchemaConstants.START_INDEX));
+        Assert.assertEquals(listedResource.getInt(SCIMConstants.ListedResourceSchemaConstants.TOTAL_RESULTS), 2);
+    }
+
+    @Test
+    public void testListChangesSince() throws Exception {
+
+        List<User> users = new ArrayList<>();
+        users.add(getNewUser());
+        UsersGetResponse usersGetResponse = new UsersGetResponse(2, users);
+        usersGetResponse.setWatermark("w.7");
+        usersGetResponse.setDeletedUserIds(Collections.singletonList("deleted-id"));
+        Mockito.when(userManager.listUsersChangedSince(eq("w.5"), any(), any(), anyMap()))
+                .thenReturn(usersGetResponse);
+        SCIMResponse scimResponse = userResourceManager.listChangesSince(userManager, "w.5", null, DOMAIN_NAME,
+                null, null);
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        JSONObject listedResource = new JSONObject(scimResponse.getResponseMessage());
+        Assert.assertEquals(listedResource.getString(SCIMConstants.ListedResourceSchemaConstants.WATERMARK), "w.7");
+        Assert.assertEquals(listedResource.getJSONArray(SCIMConstants.ListedResourceSchemaConstants.DELETED_IDS)
+                .getString(0), "deleted-id");
+        Assert.assertEquals(listedResource.getJSONArray(SCIMConstants.ListedResourceSchemaConstants.RESOURCES)
+                .length(), 1);
+        Assert.assertFalse(listedResource.has(SCIMConstants.ListedResourceSchemaConstants.START_INDEX));
+    }
+
     @DataProvider(name = "dataForTestCreateUserSuccess")
     public Object[][] dataToTestCreateUserSuccess() {
 
@@ -847,6 +959,28 @@ public class UserResourceManagerTest {
         Assert.assertEquals(returnedURI, expectedURI);
     }
 
+    @Test
+    public void testUpdateWithPUTByChangeSet() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        JSONDecoder decoder = new JSONDecoder();
+        User userOld = decoder.decodeResource(NEW_USER_SCIM_OBJECT_STRING, schema, new User());
+        String id = userOld.getId();
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        Mockito.when(userManager.getUser(id, ResourceManagerUtil.getAllAttributeURIs(schema))).thenReturn(userOld);
+        ArgumentCaptor<ChangeSet> changeSet = ArgumentCaptor.forClass(ChangeSet.class);
+        Mockito.doReturn(userOld).when(userManager).updateUser(eq(id), changeSet.capture(), anyMap());
+
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(id, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null);
+
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(changeSet.getValue().getResourceId(), id);
+        Assert.assertFalse(changeSet.getValue().isEmpty());
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
     @DataProvider(name = "dataForTestUpdateWithPUTProvidedUserManagerHandlerIsNull")
     public Object[][] dataToTestUpdateWithPUTProvidedUserManagerHandlerIsNull()
             throws BadRequestException, CharonException, InternalErrorException {
@@ -988,6 +1122,98 @@ public class UserResourceManagerTest {
         Assert.assertEquals(scimResponse.getResponseStatus(), expectedScimResponseStatus);
     }
 
+    @Test
+    public void testUpdateWithPUTIfMatchPreConditionFailed() throws Exception {
+
+        User userOld = getNewUser();
+        userOld.replaceVersion("2");
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        abstractResourceManager.when(()
+                -> AbstractResourceManager.encodeSCIMException(any(PreConditionFailedException.class)))
+                .thenReturn(getEncodeSCIMExceptionObject(new PreConditionFailedException()));
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenThrow(NotImplementedException.class);
+        Mockito.when(userManager.getUser(USER_ID, ResourceManagerUtil.getAllAttributeURIs(schema)))
+                .thenReturn(userOld);
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(USER_ID, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
+    @Test
+    public void testUpdateWithPUTIfMatchPreConditionFailedFromVersionOnly() throws Exception {
+
+        abstractResourceManager.when(()
+                -> AbstractResourceManager.encodeSCIMException(any(PreConditionFailedException.class)))
+                .thenReturn(getEncodeSCIMExceptionObject(new PreConditionFailedException()));
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("2");
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(USER_ID, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).getUser(any(), anyMap());
+    }
+
+    @Test
+    public void testUpdateWithPUTIfMatchUserChangedAfterVersionCheck() throws Exception {
+
+        User userOld = getNewUser();
+        userOld.replaceVersion("2");
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        abstractResourceManager.when(()
+                -> AbstractResourceManager.encodeSCIMException(any(PreConditionFailedException.class)))
+                .thenReturn(getEncodeSCIMExceptionObject(new PreConditionFailedException()));
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(USER_ID, ResourceManagerUtil.getAllAttributeURIs(schema)))
+                .thenReturn(userOld);
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(USER_ID, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_PRECONDITION_FAILED);
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap(), anyList(), any());
+    }
+
+    @Test
+    public void testUpdateWithPUTIfMatchUsesVersionedUpdate() throws Exception {
+
+        User userOld = getNewUser();
+        userOld.replaceVersion("1");
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(USER_ID, ResourceManagerUtil.getAllAttributeURIs(schema)))
+                .thenReturn(userOld);
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList(), Mockito.eq("1")))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(USER_ID, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap());
+    }
+
+    @Test
+    public void testUpdateWithPUTIfMatchWithoutVersionedUpdate() throws Exception {
+
+        User userOld = getNewUser();
+        userOld.replaceVersion("1");
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        abstractResourceManager.when(() -> AbstractResourceManager.getResourceEndpointURL(SCIMConstants.USER_ENDPOINT))
+                .thenReturn(SCIM2_USER_ENDPOINT);
+        Mockito.when(userManager.getUserVersion(USER_ID)).thenReturn("1");
+        Mockito.when(userManager.getUser(USER_ID, ResourceManagerUtil.getAllAttributeURIs(schema)))
+                .thenReturn(userOld);
+        Mockito.when(userManager.updateUser(any(User.class), anyMap(), anyList(), Mockito.eq("1")))
+                .thenThrow(NotImplementedException.class);
+        Mockito.when(userManager.updateUser(any(User.class), anyMap()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        SCIMResponse scimResponse = userResourceManager.updateWithPUT(USER_ID, NEW_USER_SCIM_OBJECT_STRING_UPDATE,
+                userManager, null, null, "W/\"1\"");
+        Assert.assertEquals(scimResponse.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        // A PUT replaces the whole user, so the update of simple multi-valued attributes alone is never used for it.
+        Mockito.verify(userManager, Mockito.never()).updateUser(any(User.class), anyMap(), anyList());
+    }
+
     @DataProvider(name = "dataForListWithPOST")
     public Object[][] dataToListWithPOST() throws BadRequestException, CharonException, InternalErrorException {
 
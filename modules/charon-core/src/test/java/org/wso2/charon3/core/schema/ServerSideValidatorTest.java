@@ -18,6 +18,8 @@
 
 package org.wso2.charon3.core.schema;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -29,20 +31,30 @@ import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.attributes.ComplexAttribute;
 import org.wso2.charon3.core.attributes.MultiValuedAttribute;
 import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
 import org.wso2.charon3.core.exceptions.BadRequestException;
 import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.InternalErrorException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.objects.AbstractSCIMObject;
 import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.ListedResource;
 import org.wso2.charon3.core.objects.Role;
 import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.protocol.endpoints.AbstractResourceManager;
 import org.wso2.charon3.core.utils.CopyUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.wso2.charon3.core.schema.SCIMDefinitions.DataType.COMPLEX;
 import static org.wso2.charon3.core.schema.SCIMDefinitions.DataType.REFERENCE;
@@ -343,6 +355,347 @@ public class ServerSideValidatorTest  {
         Assert.assertEquals(outputScimObject.getResourceType(), expectedResourceType);
     }
 
+    @Test
+    public void testValidationPlanIsSharedBySchemasOfSameAttributes() {
+
+        SCIMResourceTypeSchema groupSchema = SCIMResourceTypeSchema.createSCIMResourceSchema(
+                new ArrayList<>(SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA.getSchemasList()),
+                SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA.getAttributesList().toArray(new AttributeSchema[0]));
+
+        ValidationPlan plan = ValidationPlan.of(SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA);
+        Assert.assertSame(ValidationPlan.of(groupSchema), plan);
+        Assert.assertNotSame(ValidationPlan.of(SCIMSchemaDefinitions.SCIM_ROLE_SCHEMA), plan);
+
+        List<AttributeSchema> requiredAttributeRules = Arrays.asList(plan.getRequiredAttributeRules());
+        Assert.assertTrue(requiredAttributeRules.contains(SCIMSchemaDefinitions.SCIMGroupSchemaDefinition
+                .DISPLAY_NAME));
+        Assert.assertFalse(requiredAttributeRules.contains(SCIMSchemaDefinitions.EXTERNAL_ID));
+        Assert.assertTrue(Arrays.asList(plan.getMutabilityRules()).contains(SCIMSchemaDefinitions.ID));
+        Assert.assertTrue(Arrays.asList(plan.getReadOnlyRules()).contains(SCIMSchemaDefinitions.ID));
+        Assert.assertEquals(plan.getDisplayNameRules().length, 1);
+        Assert.assertSame(plan.getDisplayNameRules()[0].getAttributeSchema(),
+                SCIMSchemaDefinitions.SCIMGroupSchemaDefinition.MEMBERS);
+    }
+
+    @Test
+    public void testValidationPlansAreEvictedLeastRecentlyUsedFirst() {
+
+        ValidationPlan groupPlan = ValidationPlan.of(SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA);
+        ValidationPlan rolePlan = ValidationPlan.of(SCIMSchemaDefinitions.SCIM_ROLE_SCHEMA);
+        for (int i = 0; i < ValidationPlan.MAXIMUM_CACHED_PLANS; i++) {
+            AttributeSchema attributeSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                    SCIMConstants.USER_CORE_SCHEMA_URI + ":plan" + i, "plan" + i, STRING, false, "", false, false,
+                    READ_WRITE, DEFAULT, NONE, null, null, null);
+            ValidationPlan.of(SCIMResourceTypeSchema.createSCIMResourceSchema(
+                    new ArrayList<>(Arrays.asList(SCIMConstants.USER_CORE_SCHEMA_URI)), attributeSchema));
+            // Keep the role plan recently used.
+            Assert.assertSame(ValidationPlan.of(SCIMSchemaDefinitions.SCIM_ROLE_SCHEMA), rolePlan);
+        }
+
+        Assert.assertNotSame(ValidationPlan.of(SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA), groupPlan);
+    }
+
+    @Test
+    public void testValidateUpdatedSCIMObjectLeavesOldMeta() throws CharonException, BadRequestException {
+
+        // A schema without meta, so the meta of the old user is not copied as a read only attribute.
+        SCIMResourceTypeSchema resourceSchema = SCIMResourceTypeSchema.createSCIMResourceSchema(
+                new ArrayList<>(Arrays.asList(SCIMConstants.USER_CORE_SCHEMA_URI)), SCIMSchemaDefinitions.ID,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME);
+        User oldUser = new User();
+        oldUser.setSchema(SCIMConstants.USER_CORE_SCHEMA_URI);
+        oldUser.setId("1");
+        oldUser.setUserName("kim");
+        oldUser.replaceVersion("1");
+        User newUser = new User();
+        newUser.setSchema(SCIMConstants.USER_CORE_SCHEMA_URI);
+        newUser.setUserName("kimjohn");
+
+        AbstractSCIMObject validatedUser = ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser,
+                resourceSchema);
+
+        Assert.assertEquals(oldUser.getVersion(), "1");
+        Assert.assertNotEquals(validatedUser.getVersion(), "1");
+        Assert.assertNotSame(validatedUser.getAttribute(SCIMConstants.CommonSchemaConstants.META),
+                oldUser.getAttribute(SCIMConstants.CommonSchemaConstants.META));
+    }
+
+    @Test
+    public void testValidateUpdatedSCIMObjectRejectsChangedImmutableComplexValue()
+            throws CharonException, BadRequestException, InstantiationException, IllegalAccessException {
+
+        User oldUser = createNewUser();
+        oldUser.setId("1");
+        User newUser = (User) CopyUtil.deepCopy(oldUser);
+        // The value keeps its name, only its value sub attribute changes.
+        ComplexAttribute email = (ComplexAttribute) ((MultiValuedAttribute) newUser.getAttribute("emails"))
+                .getAttributeValues().get(0);
+        ((SimpleAttribute) email.getSubAttribute(SCIMConstants.CommonSchemaConstants.VALUE))
+                .setValue("rash@wso2.com");
+
+        try {
+            ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser,
+                    createSCIMResourceTypeSchemaImmutableEmails());
+            Assert.fail("The value of an immutable email was changed.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.MUTABILITY);
+        }
+    }
+
+    @Test
+    public void testValidateUpdatedSCIMObjectAcceptsRenamedImmutableComplexValue()
+            throws CharonException, BadRequestException, InstantiationException, IllegalAccessException {
+
+        User oldUser = createNewUser();
+        oldUser.setId("1");
+        User newUser = (User) CopyUtil.deepCopy(oldUser);
+        ((ComplexAttribute) ((MultiValuedAttribute) newUser.getAttribute("emails")).getAttributeValues().get(0))
+                .setName("emails");
+
+        ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser, createSCIMResourceTypeSchemaImmutableEmails());
+    }
+
+    @Test
+    public void testSetDisplayNameInExtensionAttributes() throws CharonException, BadRequestException {
+
+        String extensionURI = "urn:ietf:params:scim:schemas:extension:test:2.0:User";
+        AttributeSchema valueSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                extensionURI + ":managers.value", "value", STRING, false, "", false, false,
+                READ_WRITE, DEFAULT, NONE, null, null, null);
+        AttributeSchema displaySchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                extensionURI + ":managers.display", "display", STRING, false, "", false, false,
+                READ_WRITE, DEFAULT, NONE, null, null, null);
+        AttributeSchema managersSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                extensionURI + ":managers", "managers", COMPLEX, true, "", false, false,
+                READ_WRITE, DEFAULT, NONE, null, null, new ArrayList<>(Arrays.asList(valueSchema, displaySchema)));
+        AttributeSchema extensionSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                extensionURI, extensionURI, COMPLEX, false, "", false, false,
+                READ_WRITE, DEFAULT, NONE, null, null, new ArrayList<>(Arrays.asList(managersSchema)));
+        SCIMResourceTypeSchema resourceSchema = SCIMResourceTypeSchema.createSCIMResourceSchema(
+                new ArrayList<>(Arrays.asList(SCIMConstants.USER_CORE_SCHEMA_URI, extensionURI)), extensionSchema);
+
+        ComplexAttribute manager = new ComplexAttribute("managers_bob");
+        manager.setSubAttribute(new SimpleAttribute("value", "bob"));
+        MultiValuedAttribute managers = new MultiValuedAttribute("managers");
+        managers.setAttributeValue(manager);
+        ComplexAttribute extension = new ComplexAttribute(extensionURI);
+        extension.setSubAttribute(managers);
+        User user = new User();
+        user.setAttribute(extension);
+
+        AbstractValidator.setDisplayNameInComplexMultiValuedAttributes(user, resourceSchema);
+        Assert.assertEquals(((SimpleAttribute) manager.getSubAttribute("display")).getValue(), "bob");
+    }
+
+    @DataProvider(name = "dataForAttributeProjection")
+    public Object[][] dataToAttributeProjection() {
+
+        String extension = "urn:ietf:params:scim:schemas:extension:test:2.0:User";
+        // The expected users are written with single quotes.
+        return new Object[][]{
+
+                {null, null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'userName': 'kim', " +
+                        "'name': {'familyName': 'Berry', 'givenName': 'Kim'}, " +
+                        "'emails': [{'type': 'work', 'value': 'kim@wso2.com'}, {'type': 'home', " +
+                        "'value': 'kim@gmail.com'}], " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann', 'value': '456'}, " +
+                        "'managers': [{'value': '456', '$ref': 'Users/456'}]}}"},
+                {"userName", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'userName': 'kim'}"},
+                {"name.givenName,EMAILS.value", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'name': {'givenName': 'Kim'}, " +
+                        "'emails': [{'value': 'kim@wso2.com'}, {'value': 'kim@gmail.com'}]}"},
+                {"password,emails", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'emails': [{'type': 'work', " +
+                        "'value': 'kim@wso2.com'}, {'type': 'home', 'value': 'kim@gmail.com'}]}"},
+                {extension + ".department", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', '" + extension + "': {'department': 'Sales'}}"},
+                {extension + ".manager.displayName," + extension + ".manager.secret", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann'}}}"},
+                {extension + ".manager.secret", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123'}"},
+                {extension + ".managers.value", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', " +
+                        "'" + extension + "': {'managers': [{'value': '456'}]}}"},
+                {extension + ".managers", null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', " +
+                        "'" + extension + "': {'managers': [{'value': '456', '$ref': 'Users/456'}]}}"},
+                {extension, null,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann', 'value': '456'}, " +
+                        "'department': 'Sales', 'managers': [{'value': '456', '$ref': 'Users/456'}]}}"},
+                {null, "emails",
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'userName': 'kim', " +
+                        "'name': {'familyName': 'Berry', 'givenName': 'Kim'}, " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann', 'value': '456'}, " +
+                        "'managers': [{'value': '456'}]}}"},
+                {null, "name.familyName,userName",
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'name': {'givenName': 'Kim'}, " +
+                        "'emails': [{'type': 'work', 'value': 'kim@wso2.com'}, {'type': 'home', " +
+                        "'value': 'kim@gmail.com'}], " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann', 'value': '456'}, " +
+                        "'managers': [{'value': '456'}]}}"},
+                {null, extension + ".manager.value," + extension + ".managers.value",
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'userName': 'kim', " +
+                        "'name': {'familyName': 'Berry', 'givenName': 'Kim'}, " +
+                        "'emails': [{'type': 'work', 'value': 'kim@wso2.com'}, {'type': 'home', " +
+                        "'value': 'kim@gmail.com'}], " +
+                        "'" + extension + "': {'manager': {'displayName': 'Ann'}, 'managers': [{}]}}"},
+                {null, extension,
+                        "{'schemas': ['urn:ietf:params:scim:schemas:core:2.0:User', " +
+                        "'" + extension + "'], 'id': '123', 'userName': 'kim', " +
+                        "'name': {'familyName': 'Berry', 'givenName': 'Kim'}, " +
+                        "'emails': [{'type': 'work', 'value': 'kim@wso2.com'}, {'type': 'home', " +
+                        "'value': 'kim@gmail.com'}]}"}
+        };
+    }
+
+    @Test(dataProvider = "dataForAttributeProjection")
+    public void testEncodingWithAttributeProjection(String attributes, String excludedAttributes,
+                                                    String expectedUser)
+            throws CharonException, BadRequestException, InternalErrorException {
+
+        User user = createProjectedUser();
+        JSONEncoder encoder = new JSONEncoder();
+        String originalUser = encoder.encodeSCIMObject(user);
+
+        String projectedUser = encoder.encodeSCIMObject(user, new AttributeProjection(attributes, excludedAttributes));
+        Assert.assertEquals(toCanonicalJSON(new JSONObject(projectedUser)),
+                toCanonicalJSON(new JSONObject(expectedUser.replace('\'', '"'))));
+        Assert.assertEquals(encoder.encodeSCIMObject(user), originalUser);
+    }
+
+    @Test(dataProvider = "dataForAttributeProjection")
+    public void testParallelListEncoding(String attributes, String excludedAttributes, String expectedUser)
+            throws CharonException, BadRequestException, InternalErrorException {
+
+        ListedResource listedResource = new ListedResource();
+        listedResource.setSchema(SCIMConstants.LISTED_RESOURCE_CORE_SCHEMA_URI);
+        listedResource.setTotalResults(50);
+        for (int i = 0; i < 50; i++) {
+            User user = createProjectedUser();
+            user.replaceUserName("kim" + i);
+            listedResource.addResource(user);
+        }
+        JSONEncoder encoder = new JSONEncoder();
+        AttributeProjection projection = new AttributeProjection(attributes, excludedAttributes);
+        String sequentialList = encoder.encodeListedResource(listedResource, projection);
+
+        JSONArray encodedUsers = new JSONObject(sequentialList)
+                .getJSONArray(SCIMConstants.ListedResourceSchemaConstants.RESOURCES);
+        Assert.assertEquals(encodedUsers.length(), 50);
+        for (int i = 0; i < 50; i++) {
+            JSONObject expectedJSONUser = new JSONObject(expectedUser.replace('\'', '"'));
+            // The resources of a list response are encoded without their schemas.
+            expectedJSONUser.remove(SCIMConstants.CommonSchemaConstants.SCHEMAS);
+            if (expectedJSONUser.has(SCIMConstants.UserSchemaConstants.USER_NAME)) {
+                expectedJSONUser.put(SCIMConstants.UserSchemaConstants.USER_NAME, "kim" + i);
+            }
+            Assert.assertEquals(toCanonicalJSON(encodedUsers.get(i)), toCanonicalJSON(expectedJSONUser));
+        }
+
+        // Four chunks encoded on their own threads.
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Assert.assertEquals(encoder.encodeListedResource(listedResource, projection, 2, executor),
+                    sequentialList);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /*
+     * Writes a json value with the keys of its objects sorted, for json values to be compared regardless of the order
+     * of their keys.
+     */
+    private static String toCanonicalJSON(Object value) {
+
+        if (value instanceof JSONObject) {
+            JSONObject jsonObject = (JSONObject) value;
+            StringBuilder canonical = new StringBuilder("{");
+            Set<String> keys = new TreeSet<>();
+            if (jsonObject.length() > 0) {
+                keys.addAll(Arrays.asList(JSONObject.getNames(jsonObject)));
+            }
+            for (String key : keys) {
+                canonical.append(canonical.length() == 1 ? "" : ",").append(JSONObject.quote(key)).append(':')
+                        .append(toCanonicalJSON(jsonObject.get(key)));
+            }
+            return canonical.append('}').toString();
+        }
+        if (value instanceof JSONArray) {
+            JSONArray jsonArray = (JSONArray) value;
+            StringBuilder canonical = new StringBuilder("[");
+            for (int i = 0; i < jsonArray.length(); i++) {
+                canonical.append(i == 0 ? "" : ",").append(toCanonicalJSON(jsonArray.get(i)));
+            }
+            return canonical.append(']').toString();
+        }
+        return value instanceof String ? JSONObject.quote((String) value) : String.valueOf(value);
+    }
+
+    private User createProjectedUser() throws CharonException, BadRequestException, InternalErrorException {
+
+        String userJson = "{\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], \"id\": \"123\", " +
+                "\"userName\": \"kim\", \"password\": \"kim123\", \"name\": {\"givenName\": \"Kim\", " +
+                "\"familyName\": \"Berry\"}, \"emails\": [{\"value\": \"kim@wso2.com\", \"type\": \"work\"}, " +
+                "{\"value\": \"kim@gmail.com\", \"type\": \"home\"}]}";
+        User user = new JSONDecoder().decodeResource(userJson, SCIMSchemaDefinitions.SCIM_USER_SCHEMA, new User());
+
+        String extension = "urn:ietf:params:scim:schemas:extension:test:2.0:User";
+        ComplexAttribute manager = createComplexAttribute("manager",
+                createSimpleAttribute("value", "456", DEFAULT),
+                createSimpleAttribute("displayName", "Ann", DEFAULT),
+                createSimpleAttribute("secret", "s3cr3t", SCIMDefinitions.Returned.NEVER));
+        MultiValuedAttribute managers = new MultiValuedAttribute("managers");
+        managers.setType(COMPLEX);
+        managers.setMultiValued(true);
+        managers.setReturned(DEFAULT);
+        managers.setAttributeValue(createComplexAttribute("managers_456",
+                createSimpleAttribute("value", "456", DEFAULT),
+                createSimpleAttribute("$ref", "Users/456", SCIMDefinitions.Returned.REQUEST)));
+        user.setAttribute(createComplexAttribute(extension,
+                createSimpleAttribute("department", "Sales", SCIMDefinitions.Returned.REQUEST), manager, managers));
+        user.setSchema(extension);
+        return user;
+    }
+
+    private ComplexAttribute createComplexAttribute(String name, Attribute... subAttributes) throws CharonException {
+
+        ComplexAttribute complexAttribute = new ComplexAttribute(name);
+        complexAttribute.setType(COMPLEX);
+        complexAttribute.setMultiValued(false);
+        complexAttribute.setReturned(DEFAULT);
+        for (Attribute subAttribute : subAttributes) {
+            complexAttribute.setSubAttribute(subAttribute);
+        }
+        return complexAttribute;
+    }
+
+    private SimpleAttribute createSimpleAttribute(String name, String value, SCIMDefinitions.Returned returned) {
+
+        SimpleAttribute simpleAttribute = new SimpleAttribute(name, value);
+        simpleAttribute.setType(STRING);
+        simpleAttribute.setMultiValued(false);
+        simpleAttribute.setReturned(returned);
+        return simpleAttribute;
+    }
+
     private User createNewUser() throws InstantiationException, IllegalAccessException {
 
         User user = User.class.newInstance();
@@ -539,6 +892,23 @@ public class ServerSideValidatorTest  {
         return userResourceSchema;
     }
 
+    private SCIMResourceTypeSchema createSCIMResourceTypeSchemaImmutableEmails() {
+
+        AttributeSchema emailValueSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                "urn:ietf:params:scim:schemas:core:2.0:User:emails.value", "value", STRING, false, "", false, false,
+                IMMUTABLE, DEFAULT, NONE, null, null, null);
+        AttributeSchema emailTypeSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                "urn:ietf:params:scim:schemas:core:2.0:User:emails.type", "type", STRING, false, "", false, false,
+                IMMUTABLE, DEFAULT, NONE, null, null, null);
+        AttributeSchema emailsSchema = SCIMAttributeSchema.createSCIMAttributeSchema(
+                "urn:ietf:params:scim:schemas:core:2.0:User:emails", "emails", COMPLEX, true, "", false, false,
+                IMMUTABLE, DEFAULT, NONE, null, null,
+                new ArrayList<>(Arrays.asList(emailValueSchema, emailTypeSchema)));
+
+        return SCIMResourceTypeSchema.createSCIMResourceSchema(
+                new ArrayList<>(Arrays.asList(SCIMConstants.USER_CORE_SCHEMA_URI)), emailsSchema);
+    }
+
     private SCIMResourceTypeSchema createSCIMResourceTypeSchemaGroup() {
 
         List<String> schemasListGroup = new ArrayList<>();
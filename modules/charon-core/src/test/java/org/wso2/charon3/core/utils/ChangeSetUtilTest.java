@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet.AttributeChange;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet.ChangeType;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.schema.ServerSideValidator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class of ChangeSetUtil.
+ */
+public class ChangeSetUtilTest {
+
+    private static final String OLD_USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"userName\": \"kim\", " +
+            "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"home\", \"value\": \"kim@example.net\"}, " +
+            "{\"type\": \"work\", \"value\": \"kim@example.com\"}]" +
+            "}";
+
+    private static final String NEW_USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"userName\": \"kimberry\", " +
+            "\"nickName\": \"Kimmy\", " +
+            "\"name\": {\"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"work\", \"value\": \"kim@example.com\"}, " +
+            "{\"type\": \"home\", \"value\": \"kim@example.org\"}]" +
+            "}";
+
+    @Test
+    public void testGetChanges() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        User oldUser = decodeUser(OLD_USER_SCIM_OBJECT_STRING);
+        User newUser = decodeUser(NEW_USER_SCIM_OBJECT_STRING);
+
+        List<AttributeChange> changes = ChangeSetUtil.getChanges(oldUser, newUser, schema);
+
+        List<String> changeNames = new ArrayList<>();
+        for (AttributeChange change : changes) {
+            changeNames.add(change.toString());
+        }
+        String userSchema = SCIMConstants.USER_CORE_SCHEMA_URI + ":";
+        Assert.assertEquals(changeNames, Arrays.asList(
+                ChangeType.ATTRIBUTE_REPLACED + " " + userSchema + "userName",
+                ChangeType.ATTRIBUTE_REMOVED + " " + userSchema + "name.givenName",
+                ChangeType.VALUE_REMOVED + " " + userSchema + "emails",
+                ChangeType.VALUE_ADDED + " " + userSchema + "emails",
+                ChangeType.ATTRIBUTE_ADDED + " " + userSchema + "nickName"));
+        Assert.assertEquals(changes.get(0).getAttributeSchema().getName(), "userName");
+        Assert.assertEquals(((SimpleAttribute) ((ComplexAttribute) changes.get(2).getOldValue())
+                .getSubAttribute("value")).getValue(), "kim@example.net");
+        Assert.assertNull(changes.get(3).getOldValue());
+    }
+
+    @Test
+    public void testGetChangesOfEqualResources() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+
+        ChangeSet changeSet = ChangeSetUtil.getChangeSet(decodeUser(OLD_USER_SCIM_OBJECT_STRING),
+                decodeUser(OLD_USER_SCIM_OBJECT_STRING), schema);
+
+        Assert.assertEquals(changeSet.getResourceId(), "008bba85-451d-414b-87de-c03b5a1f4217");
+        Assert.assertTrue(changeSet.isEmpty());
+    }
+
+    @Test
+    public void testGetChangeSetOfValidatedUpdate() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        User oldUser = decodeUser(OLD_USER_SCIM_OBJECT_STRING);
+        oldUser.replaceVersion("1");
+        User newUser = decodeUser(NEW_USER_SCIM_OBJECT_STRING);
+
+        AbstractSCIMObject validatedUser = ServerSideValidator.validateUpdatedSCIMObject(oldUser, newUser, schema);
+        ChangeSet changeSet = ChangeSetUtil.getChangeSet(oldUser, validatedUser, schema);
+
+        AttributeChange versionChange = null;
+        for (AttributeChange change : changeSet.getChanges()) {
+            if (SCIMSchemaDefinitions.VERSION.getURI().equals(change.getAttributeURI())) {
+                versionChange = change;
+            }
+        }
+        Assert.assertNotNull(versionChange);
+        Assert.assertEquals(versionChange.getType(), ChangeType.ATTRIBUTE_REPLACED);
+        Assert.assertEquals(((SimpleAttribute) versionChange.getOldValue()).getValue(), "1");
+        Assert.assertEquals(((SimpleAttribute) versionChange.getNewValue()).getValue(), validatedUser.getVersion());
+        Assert.assertNotEquals(validatedUser.getVersion(), "1");
+    }
+
+    @Test
+    public void testGetValueKey() throws Exception {
+
+        User user = decodeUser(OLD_USER_SCIM_OBJECT_STRING);
+        User sameUser = decodeUser(OLD_USER_SCIM_OBJECT_STRING);
+
+        Assert.assertEquals(ChangeSetUtil.getValueKey(user.getAttribute("emails")),
+                ChangeSetUtil.getValueKey(sameUser.getAttribute("emails")));
+        Assert.assertNotEquals(ChangeSetUtil.getValueKey(user.getAttribute("emails")),
+                ChangeSetUtil.getValueKey(user.getAttribute("name")));
+    }
+
+    private User decodeUser(String scimObjectString) throws Exception {
+
+        return new JSONDecoder().decodeResource(scimObjectString,
+                SCIMResourceSchemaManager.getInstance().getUserResourceSchema(), new User());
+    }
+}
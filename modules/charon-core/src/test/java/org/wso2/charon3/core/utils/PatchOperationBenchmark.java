@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+
+import java.util.List;
+
+/**
+ * Measures how long patching groups of growing size takes, to show that patch operations on a multi-valued
+ * attribute grow linearly with its values. It is not part of the test suite, run it with
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.wso2.charon3.core.utils.PatchOperationBenchmark [sizes...]
+ * </pre>
+ * Every patch removes a member, replaces another one and adds a new one, the time per member should stay about
+ * the same as the groups grow.
+ */
+public class PatchOperationBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {1000, 10000, 100000};
+    private static final long MEASURED_NANOS = 2_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        JSONDecoder decoder = new JSONDecoder();
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getGroupResourceSchema();
+
+        System.out.printf("%8s %16s %20s%n", "members", "patch (us)", "per member (ns)");
+        for (int size : sizes) {
+            Group group = createGroup(decoder, size);
+            List<PatchOperation> operations = createOperations(decoder, size);
+            // The operations are applied to a copy of the group, so it can be patched again and again.
+            measure(() -> PatchOperationUtil.doPatchOperations(operations, decoder, group, schema));
+            double nanos = measure(() -> PatchOperationUtil.doPatchOperations(operations, decoder, group, schema));
+            System.out.printf("%8d %16.1f %20.1f%n", size, nanos / 1000, nanos / size);
+        }
+    }
+
+    /*
+     * Average nanoseconds of a patch, repeated for a fixed time.
+     */
+    private static double measure(Patch patch) throws Exception {
+
+        long runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            patch.apply();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURED_NANOS);
+        return (double) elapsed / runs;
+    }
+
+    private static Group createGroup(JSONDecoder decoder, int size) throws Exception {
+
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            members.append(i == 0 ? "" : ", ").append("{\"value\": \"member-").append(i).append("\"}");
+        }
+        return decoder.decodeResource("{" +
+                "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:Group\"], " +
+                "\"id\": \"7ac0ab2a-a1ac-4d5b-a4bd-2d1b8b8a9d3c\", " +
+                "\"displayName\": \"engineers\", " +
+                "\"members\": [" + members + "]}",
+                SCIMResourceSchemaManager.getInstance().getGroupResourceSchema(), new Group());
+    }
+
+    /*
+     * Removes the middle member, replaces the last one and adds a new one.
+     */
+    private static List<PatchOperation> createOperations(JSONDecoder decoder, int size) throws Exception {
+
+        return decoder.decodeRequest(
+                "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                        "\"Operations\": [" +
+                        "{\"op\": \"remove\", \"path\": \"members[value eq \\\"member-" + (size / 2) + "\\\"]\"}, " +
+                        "{\"op\": \"replace\", \"path\": \"members[value eq \\\"member-" + (size - 1) + "\\\"]\", " +
+                        "\"value\": {\"value\": \"member-" + size + "\"}}, " +
+                        "{\"op\": \"add\", \"path\": \"members\", " +
+                        "\"value\": [{\"value\": \"member-" + (size + 1) + "\"}]}]}");
+    }
+
+    private interface Patch {
+
+        void apply() throws Exception;
+    }
+}
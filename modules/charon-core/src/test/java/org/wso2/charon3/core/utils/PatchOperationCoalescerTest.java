@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Test class of PatchOperationCoalescer. The coalesced operations are applied next to all the operations, and must
+ * give the same user.
+ */
+public class PatchOperationCoalescerTest {
+
+    private static final String USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"meta\": {\"created\": \"2018-08-17T10:34:29Z\", \"lastModified\": \"2018-08-17T10:34:29Z\", " +
+            "\"resourceType\": \"User\"}, " +
+            "\"userName\": \"kim\", " +
+            "\"title\": \"Engineer\", " +
+            "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"home\", \"value\": \"kim@example.net\"}]" +
+            "}";
+
+    @DataProvider(name = "dataForCoalesce")
+    public Object[][] dataToCoalesce() {
+
+        return new Object[][]{
+                // Overwrites of a simple attribute collapse to the last one.
+                {operations(
+                        replace("title", "\"Lead\""),
+                        replace("title", "\"Manager\""),
+                        add("title", "\"Director\"")), 1},
+                // Operations on other attributes do not stop an overwrite.
+                {operations(
+                        replace("name.givenName", "\"Kimberly\""),
+                        add("nickName", "\"Kimmy\""),
+                        replace("name.givenName", "\"Kimmy\""),
+                        replace("nickName", "\"K\"")), 2},
+                // Paths qualified by the schema URI are not coalesced.
+                {operations(
+                        replace(SCIMConstants.USER_CORE_SCHEMA_URI + ":title", "\"Lead\""),
+                        replace("title", "\"Manager\"")), 2},
+                // An operation on the parent attribute reads the overwritten attribute.
+                {operations(
+                        replace("name.givenName", "\"Kimberly\""),
+                        replace("name", "{\"familyName\": \"Smith\"}"),
+                        replace("name.givenName", "\"Kimmy\"")), 3},
+                // An operation without a path may read any attribute.
+                {operations(
+                        replace("title", "\"Lead\""),
+                        replace(null, "{\"title\": \"Manager\"}"),
+                        replace("title", "\"Director\"")), 3},
+                // A removal in between is kept with the operation before it.
+                {operations(
+                        replace("title", "\"Lead\""),
+                        remove("title"),
+                        add("title", "\"Director\"")), 3},
+                // Values of multi-valued attributes are appended, not overwritten.
+                {operations(
+                        add("emails", "[{\"type\": \"work\", \"value\": \"kim@example.com\"}]"),
+                        add("emails", "[{\"type\": \"work\", \"value\": \"kim@example.com\"}]")), 2},
+                // Sub attributes of multi-valued attributes are not overwritten either.
+                {operations(
+                        replace("emails.type", "\"work\""),
+                        replace("emails.type", "\"other\"")), 2},
+                // Overwritten operations of an invalid value are kept, so the request still fails.
+                {operations(
+                        replace("userName", "true"),
+                        replace("userName", "\"kimberry\"")), 2},
+                // Read-only attributes are not coalesced.
+                {operations(
+                        replace("id", "\"1\""),
+                        replace("id", "\"2\"")), 2}
+        };
+    }
+
+    @Test(dataProvider = "dataForCoalesce")
+    public void testCoalesce(List<PatchOperation> operations, int expectedSize) throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+
+        List<PatchOperation> coalescedOperations = PatchOperationCoalescer.coalesce(operations, schema);
+
+        Assert.assertEquals(coalescedOperations.size(), expectedSize);
+        Assert.assertEquals(coalescedOperations.get(coalescedOperations.size() - 1),
+                operations.get(operations.size() - 1));
+        Assert.assertEquals(patch(coalescedOperations), patch(operations));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalesceGroupOperations() {
+
+        Map<String, List<PatchOperation>> patchOperations = new HashMap<>();
+        patchOperations.put(SCIMConstants.OperationalConstants.ADD, new ArrayList<>(Arrays.asList(
+                addMembers(1, member("1", null), member("2", null)),
+                addDisplayName(2, "Engineers"),
+                addMembers(3, member("3", null), member("1", "Kim")),
+                addDisplayName(5, "Developers"),
+                addMembers(7, member("2", null)))));
+        patchOperations.put(SCIMConstants.OperationalConstants.REMOVE, new ArrayList<>(Arrays.asList(
+                removeMember(4, "2"),
+                removeMember(6, "3"),
+                removeMember(8, "3"))));
+
+        PatchOperationCoalescer.coalesceGroupOperations(patchOperations);
+
+        List<PatchOperation> addOperations = patchOperations.get(SCIMConstants.OperationalConstants.ADD);
+        Assert.assertEquals(addOperations.size(), 2);
+        Assert.assertEquals(addOperations.get(0).getExecutionOrder(), 1);
+        Assert.assertEquals(addOperations.get(0).getValues(),
+                Arrays.asList(member("1", "Kim"), member("2", null)));
+        Assert.assertEquals(addOperations.get(1).getValues(), "Developers");
+        List<PatchOperation> removeOperations = patchOperations.get(SCIMConstants.OperationalConstants.REMOVE);
+        Assert.assertEquals(removeOperations.size(), 2);
+        Assert.assertEquals(((Map<String, String>) removeOperations.get(1).getValues())
+                .get(SCIMConstants.GroupSchemaConstants.VALUE), "3");
+    }
+
+    /*
+     * The user patched by the operations without its meta attribute, or the error patching it.
+     */
+    private Object patch(List<PatchOperation> operations) throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        User user = new JSONDecoder().decodeResource(USER_SCIM_OBJECT_STRING, schema, new User());
+        AbstractSCIMObject patchedUser;
+        try {
+            patchedUser = PatchOperationUtil.doPatchOperations(operations, new JSONDecoder(), user, schema);
+        } catch (AbstractCharonException e) {
+            return e.getClass().getName() + ": " + e.getDetail();
+        }
+        JSONObject encodedUser = new JSONObject(new JSONEncoder().encodeSCIMObject(patchedUser));
+        encodedUser.remove(SCIMConstants.CommonSchemaConstants.META);
+        return toComparable(encodedUser);
+    }
+
+    private static Object toComparable(Object json) {
+
+        if (json instanceof JSONObject) {
+            Map<String, Object> map = new TreeMap<>();
+            for (Object key : ((JSONObject) json).keySet()) {
+                map.put((String) key, toComparable(((JSONObject) json).get((String) key)));
+            }
+            return map;
+        }
+        if (json instanceof JSONArray) {
+            List<Object> list = new ArrayList<>();
+            for (int i = 0; i < ((JSONArray) json).length(); i++) {
+                list.add(toComparable(((JSONArray) json).get(i)));
+            }
+            return list;
+        }
+        return json;
+    }
+
+    private static List<PatchOperation> operations(PatchOperation... operations) {
+
+        for (int i = 0; i < operations.length; i++) {
+            operations[i].setExecutionOrder(i + 1);
+        }
+        return Arrays.asList(operations);
+    }
+
+    private static PatchOperation add(String path, String value) {
+
+        return operation(SCIMConstants.OperationalConstants.ADD, path, value);
+    }
+
+    private static PatchOperation replace(String path, String value) {
+
+        return operation(SCIMConstants.OperationalConstants.REPLACE, path, value);
+    }
+
+    private static PatchOperation remove(String path) {
+
+        return operation(SCIMConstants.OperationalConstants.REMOVE, path, null);
+    }
+
+    /*
+     * Decodes the operation the way a PATCH request is decoded.
+     */
+    private static PatchOperation operation(String op, String path, String value) {
+
+        JSONObject operation = new JSONObject();
+        operation.put(SCIMConstants.OperationalConstants.OP, op);
+        if (path != null) {
+            operation.put(SCIMConstants.OperationalConstants.PATH, path);
+        }
+        if (value != null) {
+            operation.put(SCIMConstants.OperationalConstants.VALUE,
+                    new JSONObject("{\"value\": " + value + "}").get("value"));
+        }
+        try {
+            return new JSONDecoder().decodeRequest("{\"Operations\": [" + operation + "]}").get(0);
+        } catch (AbstractCharonException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @SafeVarargs
+    private static PatchOperation addMembers(int executionOrder, Map<String, String>... members) {
+
+        PatchOperation operation = groupOperation(SCIMConstants.OperationalConstants.ADD, executionOrder);
+        operation.setAttributeName(SCIMConstants.GroupSchemaConstants.MEMBERS);
+        operation.setValues(new ArrayList<>(Arrays.asList(members)));
+        return operation;
+    }
+
+    private static PatchOperation addDisplayName(int executionOrder, String displayName) {
+
+        PatchOperation operation = groupOperation(SCIMConstants.OperationalConstants.ADD, executionOrder);
+        operation.setAttributeName(SCIMConstants.GroupSchemaConstants.DISPLAY_NAME);
+        operation.setValues(displayName);
+        return operation;
+    }
+
+    private static PatchOperation removeMember(int executionOrder, String memberId) {
+
+        PatchOperation operation = groupOperation(SCIMConstants.OperationalConstants.REMOVE, executionOrder);
+        operation.setAttributeName(SCIMConstants.GroupSchemaConstants.MEMBERS);
+        Map<String, String> member = member(memberId, null);
+        operation.setValues(member);
+        return operation;
+    }
+
+    private static PatchOperation groupOperation(String op, int executionOrder) {
+
+        PatchOperation operation = new PatchOperation();
+        operation.setOperation(op);
+        operation.setExecutionOrder(executionOrder);
+        return operation;
+    }
+
+    private static Map<String, String> member(String id, String display) {
+
+        Map<String, String> member = new HashMap<>();
+        member.put(SCIMConstants.GroupSchemaConstants.VALUE, id);
+        member.put(SCIMConstants.GroupSchemaConstants.DISPLAY, display);
+        return member;
+    }
+}
@@ -18,6 +18,9 @@
 
 package org.wso2.charon3.core.utils;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.mockito.Mockito;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -25,23 +28,38 @@ import org.wso2.charon3.core.attributes.Attribute;
 import org.wso2.charon3.core.attributes.ComplexAttribute;
 import org.wso2.charon3.core.attributes.MultiValuedAttribute;
 import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.config.CharonConfiguration;
+import org.wso2.charon3.core.config.SCIMCustomSchemaExtensionBuilder;
 import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.AbstractCharonException;
 import org.wso2.charon3.core.exceptions.BadRequestException;
 import org.wso2.charon3.core.exceptions.CharonException;
 import org.wso2.charon3.core.exceptions.InternalErrorException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
 import org.wso2.charon3.core.objects.AbstractSCIMObject;
+import org.wso2.charon3.core.objects.Group;
 import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
 import org.wso2.charon3.core.schema.AttributeSchema;
 import org.wso2.charon3.core.schema.SCIMAttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
 import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
 import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.schema.ServerSideValidator;
 import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.wso2.charon3.core.schema.SCIMDefinitions.DataType.COMPLEX;
 import static org.wso2.charon3.core.schema.SCIMDefinitions.DataType.STRING;
@@ -58,6 +76,49 @@ public class PatchOperationUtilTest {
     final String add = "add";
     final String replace = "replace";
 
+    private static final String USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"meta\": {\"created\": \"2018-08-17T10:34:29Z\", \"lastModified\": \"2018-08-17T10:34:29Z\", " +
+            "\"resourceType\": \"User\"}, " +
+            "\"userName\": \"kim\", " +
+            "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"home\", \"value\": \"kim@example.net\", \"primary\": true}]" +
+            "}";
+
+    private static final String CORE_USER_SCHEMA = SCIMConstants.USER_CORE_SCHEMA_URI;
+    private static final String ENTERPRISE_USER_SCHEMA = SCIMConstants.ENTERPRISE_USER_SCHEMA_URI;
+
+    /*
+     * A user with simple, complex, multi-valued and immutable attributes at every depth of the core schema and the
+     * enterprise extension of the golden schema.
+     */
+    private static final String GOLDEN_USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"" + CORE_USER_SCHEMA + "\", \"" + ENTERPRISE_USER_SCHEMA + "\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"meta\": {\"created\": \"2018-08-17T10:34:29Z\", \"lastModified\": \"2018-08-17T10:34:29Z\", " +
+            "\"resourceType\": \"User\"}, " +
+            "\"userName\": \"kim\", \"nickName\": \"kimmy\", \"badge\": \"b-1\", " +
+            "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"home\", \"value\": \"kim@example.net\", \"primary\": true}, " +
+            "{\"type\": \"work\", \"value\": \"kim@example.com\"}], " +
+            "\"tags\": [\"a\", \"b\"], \"active\": true, " +
+            "\"devices\": [{\"name\": \"d1\", \"ports\": [\"p1\"]}, {\"name\": \"d2\"}], " +
+            "\"" + ENTERPRISE_USER_SCHEMA + "\": {\"department\": \"sales\", \"skills\": [\"java\", \"sql\"], " +
+            "\"manager\": {\"value\": \"m-1\", \"displayName\": \"Boss\", \"labels\": [\"x\", \"y\"]}, " +
+            "\"addresses\": [{\"type\": \"home\", \"city\": \"Colombo\", \"zones\": [\"z1\"]}, " +
+            "{\"type\": \"work\", \"city\": \"Kandy\"}]}" +
+            "}";
+
+    /*
+     * Patching the golden user sets the display of every email to its value, whatever the operations are.
+     */
+    private static final String PATCHED_GOLDEN_USER_CHANGES = "{" +
+            "\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+            "\"value\": \"kim@example.net\"}, " +
+            "{\"display\": \"kim@example.com\", \"type\": \"work\", \"value\": \"kim@example.com\"}]" +
+            "}";
+
     @DataProvider(name = "dataForPatchRemoveSuccess")
     public Object[][] dataToPatchRemoveSuccess() throws InstantiationException, IllegalAccessException,
             CharonException {
@@ -151,20 +212,24 @@ public class PatchOperationUtilTest {
 
         return new Object[][]{
 
-                {patchOperation1, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema},
-                {patchOperation2, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema}
+                {patchOperation1, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema,
+                        "country", "UK"},
+                {patchOperation2, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema,
+                        "manager", "{displayName=abc}"}
         };
     }
 
     @Test(dataProvider = "dataForPatchAddSuccess")
     public void testDoPatchAddSuccess(PatchOperation operation, JSONDecoder decoder, AbstractSCIMObject oldResource,
-                                      AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema)
+                                      AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema,
+                                      String attributeName, String expectedAttribute)
             throws CharonException, BadRequestException, NotImplementedException, InternalErrorException {
 
         AbstractSCIMObject validatedResource = PatchOperationUtil.doPatchAdd(operation, decoder, oldResource,
                 copyOfOldResource, schema);
 
         Assert.assertNotNull(validatedResource);
+        Assert.assertEquals(describe(validatedResource.getAttribute(attributeName)), expectedAttribute);
     }
 
     @DataProvider(name = "dataForPatchAddExceptions")
@@ -227,20 +292,24 @@ public class PatchOperationUtilTest {
 
         return new Object[][]{
 
-                {patchOperation1, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema},
-                {patchOperation2, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema}
+                {patchOperation1, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema,
+                        "manager", "{displayName=Rash}"},
+                {patchOperation2, jsonDecoder, oldResource, copyOfOldResource, scimResourceTypeSchema,
+                        "emails", "[{type=home, value=rash123@gmail.com}]"}
         };
     }
 
     @Test(dataProvider = "dataForPatchReplaceSuccess")
     public void testDoPatchReplaceSuccess(PatchOperation operation, JSONDecoder decoder, AbstractSCIMObject oldResource,
-                                          AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema)
+                                          AbstractSCIMObject copyOfOldResource, SCIMResourceTypeSchema schema,
+                                          String attributeName, String expectedAttribute)
             throws CharonException, NotImplementedException, BadRequestException, InternalErrorException {
 
         AbstractSCIMObject validatedResource = PatchOperationUtil.doPatchReplace(operation, decoder, oldResource,
                 copyOfOldResource, schema);
 
         Assert.assertNotNull(validatedResource);
+        Assert.assertEquals(describe(validatedResource.getAttribute(attributeName)), expectedAttribute);
     }
 
     @DataProvider(name = "dataForPatchReplaceExceptions")
@@ -282,6 +351,603 @@ public class PatchOperationUtilTest {
         PatchOperationUtil.doPatchReplace(operation, decoder, oldResource, copyOfOldResource, schema);
     }
 
+    @DataProvider(name = "dataForPatchOperations")
+    public Object[][] dataToPatchOperations() {
+
+        return new Object[][]{
+                {"{\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kimmy\"}, " +
+                        "{\"op\": \"add\", \"path\": \"emails\", " +
+                        "\"value\": [{\"type\": \"work\", \"value\": \"kim@example.com\"}]}, " +
+                        "{\"op\": \"replace\", \"path\": \"name.givenName\", \"value\": \"Kimberly\"}, " +
+                        "{\"op\": \"remove\", \"path\": \"emails[type eq home]\"}, " +
+                        "{\"op\": \"add\", \"value\": {\"title\": \"Dr\", " +
+                        "\"name\": {\"familyName\": \"Moss\"}}}, " +
+                        "{\"op\": \"replace\", " +
+                        "\"path\": \"urn:ietf:params:scim:schemas:core:2.0:User:displayName\", " +
+                        "\"value\": \"Kim\"}"},
+                {"{\"op\": \"add\", \"path\": \"phoneNumbers\", " +
+                        "\"value\": [{\"type\": \"work\", \"value\": \"555-1234\"}]}, " +
+                        "{\"op\": \"add\", \"path\": \"phoneNumbers\", " +
+                        "\"value\": [{\"type\": \"home\", \"value\": \"555-4321\"}]}, " +
+                        "{\"op\": \"replace\", \"path\": \"emails[type eq home].value\", " +
+                        "\"value\": \"kim@example.org\"}, " +
+                        "{\"op\": \"replace\", \"value\": {\"nickName\": \"kb\", \"userType\": \"guest\"}}, " +
+                        "{\"op\": \"remove\", \"path\": \"nickName\"}, " +
+                        "{\"op\": \"remove\", \"path\": \"phoneNumbers[type eq work]\"}"},
+                {"{\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kimmy\"}, " +
+                        "{\"op\": \"remove\", \"path\": \"userName\"}"},
+                {"{\"op\": \"remove\", \"path\": \"emails\"}, " +
+                        "{\"op\": \"add\", \"value\": {\"emails\": " +
+                        "[{\"type\": \"work\", \"value\": \"kim@example.com\"}]}}, " +
+                        "{\"op\": \"replace\", \"path\": \"emails\", " +
+                        "\"value\": [{\"type\": \"other\", \"value\": \"kim@example.org\"}]}"}
+        };
+    }
+
+    /*
+     * Each row is a list of operations and the result the engine produced before operations were applied through the
+     * path navigator: either the attributes that differ from the golden user, with null for removed attributes, or
+     * the exception and SCIM type it failed with.
+     */
+    @DataProvider(name = "dataForPatchOperationGoldens")
+    public Object[][] dataToPatchOperationGoldens() {
+
+        return new Object[][]{
+                {"{\"op\": \"add\", \"path\": \"nickName\", \"value\": \"kb\"}",
+                        "{\"nickName\": \"kb\"}"},
+                {"{\"op\": \"add\", \"path\": \"emails\", \"value\": [{\"type\": \"other\", \"value\": " +
+                        "\"kim@example.org\"}]}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}, {\"display\": \"kim@example.com\", \"type\": \"work\", " +
+                        "\"value\": \"kim@example.com\"}, {\"display\": \"kim@example.org\", \"type\": \"other\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"add\", \"path\": \"tags\", \"value\": [\"c\"]}",
+                        "{\"tags\": [\"c\"]}"},
+                {"{\"op\": \"add\", \"path\": \"tags\", \"value\": [\"a\", \"c\"]}",
+                        "{\"tags\": [\"a\", \"c\"]}"},
+                {"{\"op\": \"add\", \"path\": \"name\", \"value\": {\"givenName\": \"Kimberly\", \"middleName\": " +
+                        "\"M\"}}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kimberly\", \"middleName\": \"M\"}}"},
+                {"{\"op\": \"add\", \"path\": \"badge\", \"value\": \"b-2\"}",
+                        "BadRequestException mutability"},
+                {"{\"op\": \"add\", \"path\": \"name.givenName\", \"value\": \"Kimberly\"}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kimberly\"}}"},
+                {"{\"op\": \"add\", \"path\": \"name.middleName\", \"value\": \"M\"}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kim\", \"middleName\": \"M\"}}"},
+                {"{\"op\": \"add\", \"path\": \"emails.display\", \"value\": \"Kim\"}",
+                        "{}"},
+                {"{\"op\": \"add\", \"path\": \"emails[type eq work].value\", \"value\": \"kim@example.org\"}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"path\": \"addresses[type eq work].locality\", \"value\": \"Galle\"}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"path\": \"tags[value eq a]\", \"value\": \"z\"}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"path\": \"" + CORE_USER_SCHEMA + ":nickName\", \"value\": \"kb\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":department\", \"value\": \"hr\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":department\": \"hr\"}"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":skills\", \"value\": [\"go\"]}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":skills\": [\"go\"]}"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager\", \"value\": " +
+                        "{\"displayName\": \"Chief\"}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Chief\"}}"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.displayName\", \"value\": " +
+                        "\"Chief\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses.city\", \"value\": " +
+                        "\"Galle\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].city\", " +
+                        "\"value\": \"Galle\"}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + "\", \"value\": {\"department\": " +
+                        "\"hr\"}}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"value\": {\"nickName\": \"kb\", \"tags\": [\"c\"], \"name\": {\"givenName\": " +
+                        "\"Kimberly\"}}}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kimberly\"}, \"nickName\": \"kb\", " +
+                        "\"tags\": [\"a\", \"b\", \"c\"]}"},
+                {"{\"op\": \"add\", \"value\": {\"" + ENTERPRISE_USER_SCHEMA + "\": {\"department\": \"hr\", " +
+                        "\"skills\": [\"go\"]}}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":department\": \"hr\", \"" + ENTERPRISE_USER_SCHEMA +
+                        ":skills\": [\"java\", \"sql\", \"go\"]}"},
+                {"{\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kb\"}",
+                        "{\"nickName\": \"kb\"}"},
+                {"{\"op\": \"replace\", \"path\": \"emails\", \"value\": [{\"type\": \"other\", \"value\": " +
+                        "\"kim@example.org\"}]}",
+                        "{\"emails\": [{\"display\": \"kim@example.org\", \"type\": \"other\", \"value\": " +
+                        "\"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"tags\", \"value\": [\"c\"]}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"replace\", \"path\": \"name\", \"value\": {\"givenName\": \"Kimberly\", " +
+                        "\"middleName\": \"M\"}}",
+                        "{\"name\": {\"givenName\": \"Kimberly\", \"middleName\": \"M\"}}"},
+                {"{\"op\": \"replace\", \"path\": \"badge\", \"value\": \"b-2\"}",
+                        "BadRequestException mutability"},
+                {"{\"op\": \"replace\", \"path\": \"name.givenName\", \"value\": \"Kimberly\"}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kimberly\"}}"},
+                {"{\"op\": \"replace\", \"path\": \"name.middleName\", \"value\": \"M\"}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kim\", \"middleName\": \"M\"}}"},
+                {"{\"op\": \"replace\", \"path\": \"emails.value\", \"value\": \"kim@example.org\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.org\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.org\"}, {\"display\": \"kim@example.org\", \"type\": \"work\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"emails[type eq work].value\", \"value\": \"kim@example.org\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}, {\"display\": \"kim@example.org\", \"type\": \"work\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"emails[type eq work].display\", \"value\": \"Work\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"path\": \"emails[type eq other].value\", \"value\": \"kim@example.org\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"path\": \"emails[type eq work]\", \"value\": {\"type\": \"work\", " +
+                        "\"value\": \"kim@example.org\"}}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}, {\"display\": \"kim@example.org\", \"type\": \"work\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"emails[value eq \\\"kim@example.com\\\"]\", \"value\": " +
+                        "{\"type\": \"other\", \"value\": \"kim@example.org\"}}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}, {\"display\": \"kim@example.org\", \"type\": \"other\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"addresses[type eq work].locality\", \"value\": \"Galle\"}",
+                        "{\"addresses\": [{\"locality\": \"Galle\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"addresses[type eq work]\", \"value\": {\"type\": \"work\", " +
+                        "\"locality\": \"Galle\"}}",
+                        "BadRequestException invalidValue"},
+                {"{\"op\": \"replace\", \"path\": \"tags[value eq a]\", \"value\": \"z\"}",
+                        "{\"tags\": [\"b\", \"z\"]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + CORE_USER_SCHEMA + ":nickName\", \"value\": \"kb\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"path\": \"" + CORE_USER_SCHEMA + ":emails[type eq work].value\", " +
+                        "\"value\": \"kim@example.org\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":department\", \"value\": \"hr\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":department\": \"hr\"}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":skills\", \"value\": [\"go\"]}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":skills\": [\"go\"]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager\", \"value\": " +
+                        "{\"displayName\": \"Chief\"}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Chief\"}}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.displayName\", " +
+                        "\"value\": \"Chief\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Chief\", \"labels\": " +
+                        "[\"x\", \"y\"], \"value\": \"m-1\"}}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses.city\", \"value\": " +
+                        "\"Galle\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\", \"type\": \"home\", " +
+                        "\"zones\": [\"z1\"]}, {\"city\": \"Galle\", \"type\": \"work\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].city\", " +
+                        "\"value\": \"Galle\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\", \"type\": \"home\", " +
+                        "\"zones\": [\"z1\"]}, {\"city\": \"Galle\", \"type\": \"work\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq other].city\", " +
+                        "\"value\": \"Galle\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\", \"type\": \"home\", " +
+                        "\"zones\": [\"z1\"]}, {\"city\": \"Galle\", \"type\": \"work\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work]\", " +
+                        "\"value\": {\"type\": \"work\", \"city\": \"Galle\"}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Colombo\", \"type\": " +
+                        "\"home\", \"zones\": [\"z1\"]}, {\"city\": \"Galle\", \"type\": \"work\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + "\", \"value\": {\"department\": " +
+                        "\"hr\"}}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"value\": {\"nickName\": \"kb\", \"tags\": [\"c\"], \"name\": " +
+                        "{\"givenName\": \"Kimberly\"}}}",
+                        "{\"name\": {\"familyName\": \"Berry\", \"givenName\": \"Kimberly\"}, \"nickName\": \"kb\", " +
+                        "\"tags\": [\"c\"]}"},
+                {"{\"op\": \"replace\", \"value\": {\"" + ENTERPRISE_USER_SCHEMA + "\": {\"department\": \"hr\", " +
+                        "\"skills\": [\"go\"]}}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":department\": \"hr\", \"" + ENTERPRISE_USER_SCHEMA +
+                        ":skills\": [\"go\"]}"},
+                {"{\"op\": \"remove\", \"path\": \"nickName\"}",
+                        "{\"nickName\": null}"},
+                {"{\"op\": \"remove\", \"path\": \"title\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"remove\", \"path\": \"userName\"}",
+                        "BadRequestException mutability"},
+                {"{\"op\": \"remove\", \"path\": \"emails\"}",
+                        "{\"emails\": null}"},
+                {"{\"op\": \"remove\", \"path\": \"name.givenName\"}",
+                        "{\"name\": {\"familyName\": \"Berry\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"name.middleName\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"remove\", \"path\": \"emails.primary\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"type\": \"home\", \"value\": " +
+                        "\"kim@example.net\"}, {\"display\": \"kim@example.com\", \"type\": \"work\", \"value\": " +
+                        "\"kim@example.com\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"emails[type eq work]\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"emails[type eq other]\"}",
+                        "{}"},
+                {"{\"op\": \"remove\", \"path\": \"emails[type eq work].value\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.net\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.net\"}, {\"type\": \"work\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"tags[value eq a]\"}",
+                        "{\"tags\": [\"b\"]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":department\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":department\": null}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.displayName\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"labels\": [\"x\", \"y\"], \"value\": " +
+                        "\"m-1\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses.city\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"type\": \"home\", \"zones\": [\"z1\"]}, " +
+                        "{\"type\": \"work\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work]\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Colombo\", \"type\": " +
+                        "\"home\", \"zones\": [\"z1\"]}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].city\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"type\": \"home\", \"zones\": [\"z1\"]}, " +
+                        "{\"type\": \"work\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":skills[value eq java]\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":skills\": [\"sql\"]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + "\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"add\", \"path\": \"tags\", \"value\": [\"c\"]}, {\"op\": \"remove\", \"path\": " +
+                        "\"tags[value eq a]\"}, {\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kb\"}",
+                        "{\"nickName\": \"kb\", \"tags\": [\"c\"]}"},
+                {"{\"op\": \"remove\", \"path\": \"emails[type eq home]\"}, {\"op\": \"add\", \"path\": \"emails\", " +
+                        "\"value\": [{\"type\": \"home\", \"value\": \"kim@example.org\"}]}, {\"op\": \"replace\", " +
+                        "\"path\": \"emails[type eq work].value\", \"value\": \"kim@example.info\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.info\", \"type\": \"work\", \"value\": " +
+                        "\"kim@example.info\"}, {\"display\": \"kim@example.org\", \"type\": \"home\", \"value\": " +
+                        "\"kim@example.org\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.displayName\", " +
+                        "\"value\": \"Chief\"}, {\"op\": \"add\", \"path\": \"" + ENTERPRISE_USER_SCHEMA +
+                        ":skills\", \"value\": [\"go\"]}, {\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA +
+                        ":addresses[type eq home]\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Kandy\", \"type\": " +
+                        "\"work\"}], \"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Chief\", " +
+                        "\"labels\": [\"x\", \"y\"], \"value\": \"m-1\"}, \"" + ENTERPRISE_USER_SCHEMA +
+                        ":skills\": [\"go\"]}"},
+                {"{\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kb\"}, {\"op\": \"replace\", \"path\": " +
+                        "\"badge\", \"value\": \"b-2\"}",
+                        "BadRequestException mutability"},
+                {"{\"op\": \"add\", \"path\": \"active\", \"value\": false}",
+                        "{\"active\": false}"},
+                {"{\"op\": \"replace\", \"path\": \"active\", \"value\": false}",
+                        "{\"active\": \"false\"}"},
+                {"{\"op\": \"add\", \"path\": \"emails.value\", \"value\": \"kim@example.org\"}",
+                        "{\"emails\": [{\"display\": \"kim@example.org\", \"primary\": true, \"type\": \"home\", " +
+                        "\"value\": \"kim@example.org\"}, {\"display\": \"kim@example.org\", \"type\": \"work\", " +
+                        "\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"add\", \"path\": \"devices.ports\", \"value\": [\"p2\", \"p1\"]}",
+                        "{\"devices\": [{\"name\": \"d1\", \"ports\": [\"p1\", \"p2\"]}, {\"name\": \"d2\", " +
+                        "\"ports\": [\"p2\", \"p1\"]}]}"},
+                {"{\"op\": \"replace\", \"path\": \"devices.ports\", \"value\": [\"p2\"]}",
+                        "BadRequestException invalidSyntax"},
+                {"{\"op\": \"add\", \"path\": \"devices.name\", \"value\": \"dx\"}",
+                        "{\"devices\": [{\"name\": \"dx\", \"ports\": [\"p1\"]}, {\"name\": \"dx\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"devices[name eq d2].ports\", \"value\": [\"p2\"]}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"path\": \"devices[name eq d1]\", \"value\": {\"name\": \"d3\"}}",
+                        "{\"devices\": [{\"name\": \"d2\"}, {\"name\": \"d3\"}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses.zones\", \"value\": " +
+                        "[\"q\"]}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Colombo\", \"type\": " +
+                        "\"home\", \"zones\": [\"q\"]}, {\"city\": \"Kandy\", \"type\": \"work\", \"zones\": " +
+                        "[\"q\"]}]}"},
+                {"{\"op\": \"replace\", \"path\": \"name[givenName eq Kim]\", \"value\": \"q\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"replace\", \"path\": \"tags[value eq zz]\", \"value\": \"q\"}",
+                        "BadRequestException noTarget"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].zones\", " +
+                        "\"value\": [\"q\"]}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Colombo\", \"type\": " +
+                        "\"home\", \"zones\": [\"z1\", [\"q\"]]}, {\"city\": \"Kandy\", \"type\": \"work\", " +
+                        "\"zones\": [\"q\"]}]}"},
+                {"{\"op\": \"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq home]\", " +
+                        "\"value\": {\"type\": \"home\", \"city\": \"Matara\"}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Kandy\", \"type\": \"work\"}, " +
+                        "{\"city\": \"Matara\", \"type\": \"home\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.labels[value eq x]\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Boss\", \"labels\": " +
+                        "[\"y\"], \"value\": \"m-1\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.labels[foo eq x]\"}",
+                        "NotImplementedException null"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager[value eq x].labels\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Boss\", \"labels\": " +
+                        "[\"y\"], \"value\": \"m-1\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq nothing].city\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"type\": \"home\", \"zones\": [\"z1\"]}, " +
+                        "{\"type\": \"work\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].zones\"}",
+                        "BadRequestException invalidPath"},
+                {"{\"op\": \"remove\", \"path\": \"devices[name eq d1].ports\"}",
+                        "{\"devices\": [{\"name\": \"d1\"}, {\"name\": \"d2\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"devices.ports\"}",
+                        "{\"devices\": [{\"name\": \"d1\"}, {\"name\": \"d2\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"nickName\"}, {\"op\": \"add\", \"path\": \"nickName\", " +
+                        "\"value\": \"kb\"}",
+                        "{\"nickName\": \"kb\"}"},
+                {"{\"op\": \"remove\", \"path\": \"emails\"}, {\"op\": \"replace\", \"path\": \"emails[type eq " +
+                        "work].value\", \"value\": \"kim@example.org\"}",
+                        "{\"emails\": [{\"value\": \"kim@example.org\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"name\"}, {\"op\": \"replace\", \"path\": \"name.givenName\", " +
+                        "\"value\": \"Kimberly\"}",
+                        "{\"name\": {\"givenName\": \"Kimberly\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"tags\"}, {\"op\": \"replace\", \"path\": \"tags[value eq a]\", " +
+                        "\"value\": \"z\"}",
+                        "{\"tags\": [\"z\"]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager\"}, {\"op\": \"replace\", " +
+                        "\"path\": \"" + ENTERPRISE_USER_SCHEMA + ":manager.displayName\", \"value\": \"Chief\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":manager\": {\"displayName\": \"Chief\"}}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses\"}, {\"op\": " +
+                        "\"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses.city\", \"value\": " +
+                        "\"Galle\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses\"}, {\"op\": " +
+                        "\"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work].city\", " +
+                        "\"value\": \"Galle\"}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\"}]}"},
+                {"{\"op\": \"remove\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses\"}, {\"op\": " +
+                        "\"replace\", \"path\": \"" + ENTERPRISE_USER_SCHEMA + ":addresses[type eq work]\", " +
+                        "\"value\": {\"type\": \"work\", \"city\": \"Galle\"}}",
+                        "{\"" + ENTERPRISE_USER_SCHEMA + ":addresses\": [{\"city\": \"Galle\", \"type\": \"work\"}]}"}
+        };
+    }
+
+    @Test(dataProvider = "dataForPatchOperationGoldens")
+    public void testDoPatchOperationsMatchesGoldens(String operations, String expected) throws Exception {
+
+        String customSchemaURI = SCIMCustomSchemaExtensionBuilder.getInstance().getURI();
+        SCIMCustomSchemaExtensionBuilder.getInstance().setURI(ENTERPRISE_USER_SCHEMA);
+        try {
+            SCIMResourceTypeSchema schema = getGoldenSchema();
+            JSONDecoder decoder = new JSONDecoder();
+            List<PatchOperation> patchOperations = decoder.decodeRequest(
+                    "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                            "\"Operations\": [" + operations + "]}");
+            User user = decoder.decodeResource(GOLDEN_USER_SCIM_OBJECT_STRING, schema, new User());
+            Object originalUser = encode(user);
+
+            Object actual;
+            try {
+                actual = encode(PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema));
+            } catch (AbstractCharonException e) {
+                actual = e.getClass().getSimpleName() + " " + e.getScimType();
+            }
+
+            Assert.assertEquals(actual, expected.startsWith("{") ?
+                    applyChanges(applyChanges(originalUser, PATCHED_GOLDEN_USER_CHANGES), expected) : expected);
+            Assert.assertEquals(encode(user), originalUser);
+        } finally {
+            SCIMCustomSchemaExtensionBuilder.getInstance().setURI(customSchemaURI);
+        }
+    }
+
+    @Test(dataProvider = "dataForPatchOperations")
+    public void testValidatingModifiedAttributesMatchesFullValidation(String operations) throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        JSONDecoder decoder = new JSONDecoder();
+        List<PatchOperation> patchOperations = decoder.decodeRequest(
+                "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                        "\"Operations\": [" + operations + "]}");
+        User user = decoder.decodeResource(USER_SCIM_OBJECT_STRING, schema, new User());
+
+        String expected;
+        try {
+            expected = describe(ServerSideValidator.validateUpdatedSCIMObject(user,
+                    PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema), schema));
+        } catch (AbstractCharonException e) {
+            expected = e.getClass().getName();
+        }
+        String actual;
+        try {
+            actual = describe(ServerSideValidator.validateUpdatedSCIMObject(user,
+                    PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema), schema,
+                    PatchOperationUtil.getModifiedAttributeNames(patchOperations, decoder, schema)));
+        } catch (AbstractCharonException e) {
+            actual = e.getClass().getName();
+        }
+
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test
+    public void testModifiedAttributeNamesResolvedOncePerOperation() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        JSONDecoder decoder = Mockito.spy(new JSONDecoder());
+        List<PatchOperation> patchOperations = decoder.decodeRequest(
+                "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                        "\"Operations\": [{\"op\": \"replace\", \"value\": {\"nickName\": \"kimmy\"}}, " +
+                        "{\"op\": \"replace\", \"value\": {\"userName\": \"kimberry\"}}]}");
+        User user = decoder.decodeResource(USER_SCIM_OBJECT_STRING, schema, new User());
+
+        PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema);
+        Assert.assertTrue(patchOperations.get(1).isModifiedAttributeNamesResolved());
+        Mockito.clearInvocations(decoder);
+        Set<String> modifiedAttributeNames =
+                PatchOperationUtil.getModifiedAttributeNames(patchOperations, decoder, schema);
+
+        Assert.assertEquals(modifiedAttributeNames, new HashSet<>(Arrays.asList(
+                SCIMConstants.UserSchemaConstants.NICK_NAME, SCIMConstants.UserSchemaConstants.USER_NAME)));
+        // Only the first operation, which is validated against the resource itself, is decoded here.
+        Mockito.verify(decoder, Mockito.times(1)).decode(Mockito.anyString(), Mockito.eq(schema));
+    }
+
+    @Test
+    public void testFullPatchValidation() throws Exception {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+        JSONDecoder decoder = new JSONDecoder();
+        List<PatchOperation> patchOperations = decoder.decodeRequest(
+                "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                        "\"Operations\": [{\"op\": \"replace\", \"path\": \"nickName\", \"value\": \"kimmy\"}]}");
+        // A stored user without the required user name, which the operations do not touch.
+        User user = decoder.decodeResource(USER_SCIM_OBJECT_STRING, schema, new User());
+        user.deleteAttribute(SCIMConstants.UserSchemaConstants.USER_NAME);
+        Set<String> modifiedAttributeNames =
+                PatchOperationUtil.getModifiedAttributeNames(patchOperations, decoder, schema);
+        Assert.assertEquals(modifiedAttributeNames, Collections.singleton(SCIMConstants.UserSchemaConstants.NICK_NAME));
+
+        ServerSideValidator.validateUpdatedSCIMObject(user,
+                PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema), schema,
+                modifiedAttributeNames);
+        CharonConfiguration.getInstance().setFullPatchValidation(true);
+        try {
+            ServerSideValidator.validateUpdatedSCIMObject(user,
+                    PatchOperationUtil.doPatchOperations(patchOperations, decoder, user, schema), schema,
+                    modifiedAttributeNames);
+            Assert.fail("The user without a user name must not pass full validation.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.INVALID_VALUE);
+        } finally {
+            CharonConfiguration.getInstance().setFullPatchValidation(false);
+        }
+    }
+
+    /*
+     * Values of multi-valued attributes are matched by their keys, so patching a group with many members applies the
+     * operations to the right members without touching the old group.
+     */
+    @Test
+    public void testDoPatchOperationsOnLargeValueSets() throws Exception {
+
+        int size = 10000;
+        Group group = createGroupWithMembers(size);
+
+        Group patchedGroup = patchLargeGroup(group, size);
+
+        List<Object> patchedMembers = patchedGroup.getMembers();
+        Assert.assertEquals(patchedMembers.size(), size);
+        Assert.assertFalse(patchedMembers.contains("member-" + (size / 2)));
+        Assert.assertFalse(patchedMembers.contains("member-" + (size - 1)));
+        Assert.assertTrue(patchedMembers.contains("member-" + size));
+        Assert.assertTrue(patchedMembers.contains("member-" + (size + 1)));
+        Assert.assertEquals(group.getMembers().size(), size);
+    }
+
+    private Group createGroupWithMembers(int size) throws Exception {
+
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            members.append(i == 0 ? "" : ", ").append("{\"value\": \"member-").append(i).append("\"}");
+        }
+        return new JSONDecoder().decodeResource("{" +
+                "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:Group\"], " +
+                "\"id\": \"7ac0ab2a-a1ac-4d5b-a4bd-2d1b8b8a9d3c\", " +
+                "\"meta\": {\"created\": \"2018-08-17T10:34:29Z\", \"lastModified\": \"2018-08-17T10:34:29Z\", " +
+                "\"resourceType\": \"Group\"}, " +
+                "\"displayName\": \"engineers\", " +
+                "\"members\": [" + members + "]}",
+                SCIMResourceSchemaManager.getInstance().getGroupResourceSchema(), new Group());
+    }
+
+    /*
+     * Removes the middle member, replaces the last one and adds a new one.
+     */
+    private Group patchLargeGroup(Group group, int size) throws Exception {
+
+        JSONDecoder decoder = new JSONDecoder();
+        List<PatchOperation> patchOperations = decoder.decodeRequest(
+                "{\"schemas\": [\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"], " +
+                        "\"Operations\": [" +
+                        "{\"op\": \"remove\", \"path\": \"members[value eq \\\"member-" + (size / 2) + "\\\"]\"}, " +
+                        "{\"op\": \"replace\", \"path\": \"members[value eq \\\"member-" + (size - 1) + "\\\"]\", " +
+                        "\"value\": {\"value\": \"member-" + size + "\"}}, " +
+                        "{\"op\": \"add\", \"path\": \"members\", " +
+                        "\"value\": [{\"value\": \"member-" + (size + 1) + "\"}]}]}");
+        return (Group) PatchOperationUtil.doPatchOperations(patchOperations, decoder, group,
+                SCIMResourceSchemaManager.getInstance().getGroupResourceSchema());
+    }
+
+    /*
+     * Encodes a resource into nested maps and lists, leaving out the meta attribute, which changes on every update.
+     */
+    private Object encode(AbstractSCIMObject resource) throws CharonException {
+
+        JSONObject encodedResource = new JSONObject(new JSONEncoder().encodeSCIMObject(resource));
+        encodedResource.remove(SCIMConstants.CommonSchemaConstants.META);
+        return toComparable(encodedResource);
+    }
+
+    /*
+     * Applies golden changes to an encoded resource. Attributes of the enterprise extension are keyed by their URI.
+     */
+    @SuppressWarnings("unchecked")
+    private Object applyChanges(Object encodedResource, String changes) {
+
+        Map<String, Object> resource = new TreeMap<>((Map<String, Object>) encodedResource);
+        Map<String, Object> extension = new TreeMap<>((Map<String, Object>) resource.get(ENTERPRISE_USER_SCHEMA));
+        resource.put(ENTERPRISE_USER_SCHEMA, extension);
+        JSONObject changedAttributes = new JSONObject(changes);
+        for (Object name : changedAttributes.keySet()) {
+            String attributeName = (String) name;
+            Map<String, Object> target = resource;
+            if (attributeName.startsWith(ENTERPRISE_USER_SCHEMA + ":")) {
+                target = extension;
+                attributeName = attributeName.substring(ENTERPRISE_USER_SCHEMA.length() + 1);
+            }
+            Object value = changedAttributes.get((String) name);
+            if (JSONObject.NULL.equals(value)) {
+                target.remove(attributeName);
+            } else {
+                target.put(attributeName, toComparable(value));
+            }
+        }
+        return resource;
+    }
+
+    private Object toComparable(Object value) {
+
+        if (value instanceof JSONObject) {
+            Map<String, Object> values = new TreeMap<>();
+            for (Object name : ((JSONObject) value).keySet()) {
+                values.put((String) name, toComparable(((JSONObject) value).get((String) name)));
+            }
+            return values;
+        }
+        if (value instanceof JSONArray) {
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < ((JSONArray) value).length(); i++) {
+                values.add(toComparable(((JSONArray) value).get(i)));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    /*
+     * Describes the schemas and attributes of a resource in the order of their names, leaving out the meta
+     * attribute, which changes on every update.
+     */
+    private String describe(AbstractSCIMObject resource) {
+
+        Map<String, String> attributes = new TreeMap<>();
+        for (Attribute attribute : resource.getAttributeList().values()) {
+            if (!SCIMConstants.CommonSchemaConstants.META.equals(attribute.getName())) {
+                attributes.put(attribute.getName(), describe(attribute));
+            }
+        }
+        return resource.getSchemaList() + " " + attributes;
+    }
+
+    private String describe(Attribute attribute) {
+
+        if (attribute instanceof SimpleAttribute) {
+            return String.valueOf(((SimpleAttribute) attribute).getValue());
+        }
+        if (attribute instanceof ComplexAttribute) {
+            Map<String, String> subAttributes = new TreeMap<>();
+            for (Attribute subAttribute : ((ComplexAttribute) attribute).getSubAttributesList().values()) {
+                subAttributes.put(subAttribute.getName(), describe(subAttribute));
+            }
+            return subAttributes.toString();
+        }
+        List<String> values = new ArrayList<>();
+        for (Attribute value : ((MultiValuedAttribute) attribute).getAttributeValues()) {
+            values.add(describe(value));
+        }
+        for (Object value : ((MultiValuedAttribute) attribute).getAttributePrimitiveValues()) {
+            values.add(String.valueOf(value));
+        }
+        return values.toString();
+    }
+
     private SCIMResourceTypeSchema getSchema() {
 
         List<String> schemasList = new ArrayList<>();
@@ -352,6 +1018,59 @@ public class PatchOperationUtilTest {
         return scimResourceTypeSchema;
     }
 
+    /*
+     * The user schema with the golden attributes of the core schema and the enterprise extension.
+     */
+    private SCIMResourceTypeSchema getGoldenSchema() {
+
+        AttributeSchema tags = createAttributeSchema(CORE_USER_SCHEMA + ":tags", STRING, true, READ_WRITE);
+        AttributeSchema badge = createAttributeSchema(CORE_USER_SCHEMA + ":badge", STRING, false,
+                SCIMDefinitions.Mutability.IMMUTABLE);
+        AttributeSchema devices = createAttributeSchema(CORE_USER_SCHEMA + ":devices", COMPLEX, true, READ_WRITE,
+                createAttributeSchema(CORE_USER_SCHEMA + ":devices.name", STRING, false, READ_WRITE),
+                createAttributeSchema(CORE_USER_SCHEMA + ":devices.ports", STRING, true, READ_WRITE));
+        AttributeSchema enterpriseUser = SCIMAttributeSchema.createSCIMAttributeSchema(ENTERPRISE_USER_SCHEMA,
+                ENTERPRISE_USER_SCHEMA, COMPLEX, false, "", false, false, READ_WRITE, DEFAULT, NONE, null, null,
+                new ArrayList<>(Arrays.asList(
+                        createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":department", STRING, false, READ_WRITE),
+                        createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":skills", STRING, true, READ_WRITE),
+                        createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":manager", COMPLEX, false, READ_WRITE,
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":manager.value", STRING, false,
+                                        READ_WRITE),
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":manager.displayName", STRING, false,
+                                        READ_WRITE),
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":manager.labels", STRING, true,
+                                        READ_WRITE)),
+                        createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":addresses", COMPLEX, true, READ_WRITE,
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":addresses.type", STRING, false,
+                                        READ_WRITE),
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":addresses.city", STRING, false,
+                                        READ_WRITE),
+                                createAttributeSchema(ENTERPRISE_USER_SCHEMA + ":addresses.zones", STRING, true,
+                                        READ_WRITE)))));
+        return SCIMResourceTypeSchema.createSCIMResourceSchema(
+                new ArrayList<>(Arrays.asList(CORE_USER_SCHEMA, ENTERPRISE_USER_SCHEMA)),
+                SCIMSchemaDefinitions.ID, SCIMSchemaDefinitions.META,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.NAME,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.NICK_NAME,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.TITLE,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.EMAILS,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.ADDRESSES,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.GROUPS,
+                SCIMSchemaDefinitions.SCIMUserSchemaDefinition.ACTIVE, tags, badge, devices, enterpriseUser);
+    }
+
+    private AttributeSchema createAttributeSchema(String uri, SCIMDefinitions.DataType type, boolean multiValued,
+                                                  SCIMDefinitions.Mutability mutability,
+                                                  AttributeSchema... subAttributes) {
+
+        String name = uri.substring(Math.max(uri.lastIndexOf(':'), uri.lastIndexOf('.')) + 1);
+        return SCIMAttributeSchema.createSCIMAttributeSchema(uri, name, type, multiValued, "", false, false,
+                mutability, DEFAULT, NONE, null, null,
+                subAttributes.length == 0 ? null : new ArrayList<>(Arrays.asList(subAttributes)));
+    }
+
     private User getUser() throws InstantiationException, IllegalAccessException {
 
         User user = new User();
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.encoder.JSONEncoder;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMAttributeSchema;
+import org.wso2.charon3.core.schema.SCIMDefinitions;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Test class of PatchPathNavigator.
+ */
+public class PatchPathNavigatorTest {
+
+    private static final String CORE_SCHEMA_URI = "urn:ietf:params:scim:schemas:core:2.0:User";
+    private static final String USER_SCIM_OBJECT_STRING = "{" +
+            "\"schemas\": [\"urn:ietf:params:scim:schemas:core:2.0:User\"], " +
+            "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+            "\"userName\": \"kim\", " +
+            "\"name\": {\"givenName\": \"Kim\", \"familyName\": \"Berry\"}, " +
+            "\"emails\": [{\"type\": \"home\", \"value\": \"kim@example.net\", \"primary\": true}, " +
+            "{\"type\": \"work\", \"value\": \"kim@example.com\"}]" +
+            "}";
+
+    @Test
+    public void testRemove() throws Exception {
+
+        User user = createUser();
+        PatchPathNavigator navigator = new PatchPathNavigator(user);
+
+        navigator.remove(PatchPath.compile("name.givenName"));
+        navigator.remove(PatchPath.compile("emails.primary"));
+
+        Assert.assertNull(user.getAttribute("name").getSubAttribute("givenName"));
+        Assert.assertNotNull(user.getAttribute("name").getSubAttribute("familyName"));
+        for (Attribute email : ((MultiValuedAttribute) user.getAttribute("emails")).getAttributeValues()) {
+            Assert.assertNull(email.getSubAttribute("primary"));
+            Assert.assertNotNull(email.getSubAttribute("value"));
+        }
+    }
+
+    @Test
+    public void testRemoveWithFilter() throws Exception {
+
+        User user = createUser();
+        PatchPathNavigator navigator = new PatchPathNavigator(user);
+
+        PatchPath valuePath = PatchPath.compile("emails[type eq \"home\"].primary");
+        navigator.remove(valuePath, valuePath.getFilter());
+        PatchPath path = PatchPath.compile("emails[type eq \"work\"]");
+        navigator.remove(path, path.getFilter());
+
+        MultiValuedAttribute emails = (MultiValuedAttribute) user.getAttribute("emails");
+        Assert.assertEquals(emails.getAttributeValues().size(), 1);
+        Assert.assertNull(emails.getAttributeValues().get(0).getSubAttribute("primary"));
+
+        PatchPath homePath = PatchPath.compile("emails[type eq \"home\"]");
+        navigator.remove(homePath, homePath.getFilter());
+
+        Assert.assertNull(user.getAttribute("emails"));
+    }
+
+    @Test
+    public void testUndo() throws Exception {
+
+        User user = createUser();
+        String originalUser = new JSONEncoder().encodeSCIMObject(user);
+        PatchPathNavigator navigator = new PatchPathNavigator(user);
+
+        PatchPath path = PatchPath.compile("emails[type eq \"home\"]");
+        navigator.remove(path, path.getFilter());
+        navigator.remove(PatchPath.compile("name.givenName"));
+        navigator.remove(PatchPath.compile("emails"));
+        try {
+            navigator.remove(PatchPath.compile("userName"));
+            Assert.fail("Required attribute removed.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.MUTABILITY);
+        }
+        navigator.undo();
+
+        Assert.assertEquals(new JSONEncoder().encodeSCIMObject(user), originalUser);
+    }
+
+    @Test(expectedExceptions = BadRequestException.class)
+    public void testRemoveMissingSubAttribute() throws Exception {
+
+        new PatchPathNavigator(createUser()).remove(PatchPath.compile("name.honorificPrefix"));
+    }
+
+    @Test
+    public void testAdd() throws Exception {
+
+        User user = createUser();
+        PatchPathNavigator navigator = createNavigator(user);
+
+        navigator.add(PatchPath.compile("name.middleName"), "Lee");
+        navigator.add(PatchPath.compile("nickName"), "kimmy");
+        navigator.add(PatchPath.compile("emails"),
+                new JSONArray().put(new JSONObject().put("type", "other").put("value", "kim@example.org")));
+
+        Assert.assertEquals(getValue(user.getAttribute("name").getSubAttribute("middleName")), "Lee");
+        Assert.assertEquals(getValue(user.getAttribute("name").getSubAttribute("givenName")), "Kim");
+        Assert.assertEquals(getValue(user.getAttribute("nickName")), "kimmy");
+        Assert.assertEquals(((MultiValuedAttribute) user.getAttribute("emails")).getAttributeValues().size(), 3);
+
+        try {
+            navigator.add(PatchPath.compile(CORE_SCHEMA_URI + ":title"), "Dr");
+            Assert.fail("Value added through a path prefixed with the schema URI.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.NO_TARGET);
+        }
+    }
+
+    @Test
+    public void testAddToMultiValuedPrimitiveAttributes() throws Exception {
+
+        SCIMResourceTypeSchema schema = createSchemaWithMultiValuedPrimitiveAttributes();
+        User user = new JSONDecoder().decodeResource("{" +
+                "\"schemas\": [\"" + CORE_SCHEMA_URI + "\"], " +
+                "\"id\": \"008bba85-451d-414b-87de-c03b5a1f4217\", " +
+                "\"userName\": \"kim\", " +
+                "\"tags\": [\"a\", \"b\"], " +
+                "\"devices\": [{\"name\": \"d1\", \"ports\": [\"p1\"]}, {\"name\": \"d2\"}]" +
+                "}", schema, new User());
+        PatchPathNavigator navigator = new PatchPathNavigator(user, schema, new JSONDecoder());
+
+        navigator.add(PatchPath.compile("tags"), new JSONArray().put("b").put("c").put("c"));
+        navigator.add(PatchPath.compile("devices.ports"), new JSONArray().put("p1").put("p2"));
+
+        // The values added to an attribute replace its values, while the values added to a sub attribute are added
+        // to the values it has.
+        Assert.assertEquals(((MultiValuedAttribute) user.getAttribute("tags")).getAttributePrimitiveValues(),
+                Arrays.asList("b", "c"));
+        for (Attribute device : ((MultiValuedAttribute) user.getAttribute("devices")).getAttributeValues()) {
+            Assert.assertEquals(((MultiValuedAttribute) device.getSubAttribute("ports"))
+                    .getAttributePrimitiveValues(), Arrays.asList("p1", "p2"));
+        }
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+
+        User user = createUser();
+        PatchPathNavigator navigator = createNavigator(user);
+
+        navigator.replace(PatchPath.compile("name"), new JSONObject().put("givenName", "Kris"));
+        navigator.replace(PatchPath.compile("emails.primary"), false);
+        navigator.replace(PatchPath.compile("userName"), 7);
+
+        Assert.assertEquals(getValue(user.getAttribute("name").getSubAttribute("givenName")), "Kris");
+        Assert.assertNull(user.getAttribute("name").getSubAttribute("familyName"));
+        // A simple attribute of the resource is replaced with the value as a string.
+        Assert.assertEquals(getValue(user.getAttribute("userName")), "7");
+        for (Attribute email : ((MultiValuedAttribute) user.getAttribute("emails")).getAttributeValues()) {
+            Assert.assertEquals(getValue(email.getSubAttribute("primary")), false);
+        }
+    }
+
+    @Test
+    public void testReplaceWithFilter() throws Exception {
+
+        User user = createUser();
+        PatchPathNavigator navigator = createNavigator(user);
+
+        PatchPath valuePath = PatchPath.compile("emails[type eq \"work\"].value");
+        navigator.replace(valuePath, valuePath.getFilter(), "kris@example.com");
+        PatchPath path = PatchPath.compile("emails[type eq \"home\"]");
+        navigator.replace(path, path.getFilter(),
+                new JSONObject().put("type", "home").put("value", "kris@example.net"));
+        PatchPath phonePath = PatchPath.compile("phoneNumbers[type eq \"work\"].value");
+        navigator.replace(phonePath, phonePath.getFilter(), "555-0100");
+
+        MultiValuedAttribute emails = (MultiValuedAttribute) user.getAttribute("emails");
+        Assert.assertEquals(emails.getAttributeValues().size(), 2);
+        for (Attribute email : emails.getAttributeValues()) {
+            Assert.assertTrue(((String) getValue(email.getSubAttribute("value"))).startsWith("kris@"));
+        }
+        // The value created for a missing attribute holds the replacing sub attribute only.
+        Attribute phoneNumber = ((MultiValuedAttribute) user.getAttribute("phoneNumbers")).getAttributeValues()
+                .get(0);
+        Assert.assertNull(phoneNumber.getSubAttribute("type"));
+        Assert.assertEquals(getValue(phoneNumber.getSubAttribute("value")), "555-0100");
+
+        PatchPath otherPath = PatchPath.compile("emails[type eq \"other\"].value");
+        try {
+            navigator.replace(otherPath, otherPath.getFilter(), "kris@example.org");
+            Assert.fail("Value replaced without a matching value.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.NO_TARGET);
+        }
+    }
+
+    @Test
+    public void testUndoFailedReplace() throws Exception {
+
+        User user = createUser();
+        String originalUser = new JSONEncoder().encodeSCIMObject(user);
+        PatchPathNavigator navigator = createNavigator(user);
+
+        navigator.add(PatchPath.compile("emails"),
+                new JSONArray().put(new JSONObject().put("type", "other").put("value", "x@y.z")));
+        navigator.replace(PatchPath.compile("emails.primary"), false);
+        navigator.replace(PatchPath.compile("name.givenName"), "Kris");
+        navigator.add(PatchPath.compile("nickName"), "kimmy");
+        try {
+            navigator.replace(PatchPath.compile("id"), "1");
+            Assert.fail("Read-only attribute replaced.");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.MUTABILITY);
+        }
+        navigator.undo();
+
+        Assert.assertEquals(new JSONEncoder().encodeSCIMObject(user), originalUser);
+    }
+
+    @Test(expectedExceptions = BadRequestException.class)
+    public void testReplaceMissingSubAttribute() throws Exception {
+
+        createNavigator(createUser()).replace(PatchPath.compile("name.nickName"), "kimmy");
+    }
+
+    private static SCIMResourceTypeSchema createSchemaWithMultiValuedPrimitiveAttributes() {
+
+        AttributeSchema tags = createAttributeSchema("tags", SCIMDefinitions.DataType.STRING, true, null);
+        AttributeSchema devices = createAttributeSchema("devices", SCIMDefinitions.DataType.COMPLEX, true,
+                new ArrayList<>(Arrays.asList(
+                        createAttributeSchema("devices.name", SCIMDefinitions.DataType.STRING, false, null),
+                        createAttributeSchema("devices.ports", SCIMDefinitions.DataType.STRING, true, null))));
+        return SCIMResourceTypeSchema.createSCIMResourceSchema(Collections.singletonList(CORE_SCHEMA_URI),
+                SCIMSchemaDefinitions.ID, SCIMSchemaDefinitions.SCIMUserSchemaDefinition.USERNAME, tags, devices);
+    }
+
+    private static AttributeSchema createAttributeSchema(String name, SCIMDefinitions.DataType type,
+                                                         boolean multiValued,
+                                                         ArrayList<AttributeSchema> subAttributeSchemas) {
+
+        return SCIMAttributeSchema.createSCIMAttributeSchema(CORE_SCHEMA_URI + ":" + name,
+                name.substring(name.indexOf('.') + 1), type, multiValued, "", false, false,
+                SCIMDefinitions.Mutability.READ_WRITE, SCIMDefinitions.Returned.DEFAULT,
+                SCIMDefinitions.Uniqueness.NONE, null, null, subAttributeSchemas);
+    }
+
+    private static PatchPathNavigator createNavigator(User user) {
+
+        return new PatchPathNavigator(user, SCIMResourceSchemaManager.getInstance().getUserResourceSchema(),
+                new JSONDecoder());
+    }
+
+    private static Object getValue(Attribute attribute) {
+
+        return ((SimpleAttribute) attribute).getValue();
+    }
+
+    private User createUser() throws Exception {
+
+        return new JSONDecoder().decodeResource(USER_SCIM_OBJECT_STRING,
+                SCIMResourceSchemaManager.getInstance().getUserResourceSchema(), new User());
+    }
+}
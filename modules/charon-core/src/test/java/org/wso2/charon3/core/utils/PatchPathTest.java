@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.aParser.ParserException;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test class of PatchPath.
+ */
+public class PatchPathTest {
+
+    @DataProvider(name = "dataForAttributeSchemas")
+    public Object[][] dataToGetAttributeSchemas() {
+
+        return new Object[][]{
+                {"userName", Arrays.asList("userName")},
+                {"name.givenName", Arrays.asList("name", "givenName")},
+                {"emails[type eq \"work\"].value", Arrays.asList("emails", "value")},
+                {SCIMConstants.USER_CORE_SCHEMA_URI + ":name.familyName", Arrays.asList("name", "familyName")},
+                {"name.unknown", Arrays.asList("name")},
+                {"unknown", new ArrayList<String>()}
+        };
+    }
+
+    @Test
+    public void testCompileEvictsLeastRecentlyUsedPaths() {
+
+        PatchPath usedPath = PatchPath.compile("emails[value eq \"used\"].primary");
+        PatchPath unusedPath = PatchPath.compile("emails[value eq \"unused\"].primary");
+        for (int i = 0; i < PatchPath.MAXIMUM_CACHED_PATHS; i++) {
+            Assert.assertSame(PatchPath.compile("emails[value eq \"used\"].primary"), usedPath);
+            PatchPath.compile("emails[value eq \"" + i + "\"].primary");
+        }
+
+        Assert.assertSame(PatchPath.compile("emails[value eq \"used\"].primary"), usedPath);
+        Assert.assertNotSame(PatchPath.compile("emails[value eq \"unused\"].primary"), unusedPath);
+    }
+
+    @Test
+    public void testCompile() throws Exception {
+
+        PatchPath path = PatchPath.compile("emails[type eq \"work\"].value");
+
+        Assert.assertSame(PatchPath.compile("emails[type eq \"work\"].value"), path);
+        Assert.assertEquals(path.getParts(), new String[]{"emails", "type eq \"work\"", ".value"});
+        Assert.assertEquals(path.getAttributeParts(), new String[]{"emails", "value"});
+        Assert.assertEquals(path.getLevel(), 2);
+        Assert.assertTrue(path.isFilterConditionProvided());
+        ExpressionNode filter = path.getFilter();
+        Assert.assertEquals(filter.getAttributeValue(), "type");
+        Assert.assertEquals(filter.getOperation(), "eq");
+        Assert.assertEquals(filter.getValue(), "work");
+        Assert.assertNotSame(path.getFilter(), filter);
+
+        PatchPath extensionPath = PatchPath.compile(SCIMConstants.ENTERPRISE_USER_SCHEMA_URI + ":manager.value");
+        Assert.assertEquals(extensionPath.getAttributeParts(),
+                new String[]{SCIMConstants.ENTERPRISE_USER_SCHEMA_URI, "manager", "value"});
+        Assert.assertEquals(extensionPath.getLevel(), 3);
+        Assert.assertFalse(extensionPath.isFilterConditionProvided());
+    }
+
+    @Test(expectedExceptions = ParserException.class)
+    public void testInvalidPath() throws Exception {
+
+        PatchPath path = PatchPath.compile("emails[type eq");
+        try {
+            path.isFilterConditionProvided();
+            Assert.fail("Invalid path accepted.");
+        } catch (ParserException e) {
+            // The error of parsing the path is kept with it.
+        }
+        path.isFilterConditionProvided();
+    }
+
+    @Test(dataProvider = "dataForAttributeSchemas")
+    public void testGetAttributeSchemas(String path, List<String> expectedNames) {
+
+        SCIMResourceTypeSchema schema = SCIMResourceSchemaManager.getInstance().getUserResourceSchema();
+
+        List<AttributeSchema> attributeSchemas = PatchPath.compile(path).getAttributeSchemas(schema);
+
+        List<String> names = new ArrayList<>();
+        for (AttributeSchema attributeSchema : attributeSchemas) {
+            names.add(attributeSchema.getName());
+        }
+        Assert.assertEquals(names, expectedNames);
+        Assert.assertSame(PatchPath.compile(path).getAttributeSchemas(schema), attributeSchemas);
+    }
+}
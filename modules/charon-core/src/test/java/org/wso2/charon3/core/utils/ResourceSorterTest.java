@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.core.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test class of ResourceSorter.
+ */
+public class ResourceSorterTest {
+
+    private List<User> users;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        users = new ArrayList<>();
+        users.add(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"],\"id\":\"1\"," +
+                "\"userName\":\"carol\",\"name\":{\"familyName\":\"Brown\"}," +
+                "\"emails\":[{\"value\":\"z@example.com\"},{\"value\":\"b@example.com\",\"primary\":true}]}"));
+        users.add(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"],\"id\":\"2\"," +
+                "\"userName\":\"Alice\",\"emails\":[{\"value\":\"c@example.com\"}]}"));
+        users.add(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"],\"id\":\"3\"," +
+                "\"userName\":\"Bob\",\"name\":{\"familyName\":\"adams\"}," +
+                "\"emails\":[{\"value\":\"a@example.com\"}]}"));
+        users.add(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"],\"id\":\"4\"," +
+                "\"userName\":\"dave\"}"));
+    }
+
+    @DataProvider(name = "dataForSort")
+    public Object[][] dataToSort() {
+
+        return new Object[][]{
+                {"userName", null, new String[]{"2", "3", "1", "4"}},
+                {"userName", "descending", new String[]{"4", "1", "3", "2"}},
+                {"name.familyName", "ascending", new String[]{"3", "1", "2", "4"}},
+                {"name.familyName", "descending", new String[]{"2", "4", "1", "3"}},
+                {"emails", null, new String[]{"3", "1", "2", "4"}},
+                {"emails.value", "descending", new String[]{"4", "2", "1", "3"}}
+        };
+    }
+
+    @Test(dataProvider = "dataForSort")
+    public void testSort(String sortBy, String sortOrder, String[] expectedIds) throws Exception {
+
+        ResourceSorter<User> sorter =
+                new ResourceSorter<>(sortBy, sortOrder, SCIMSchemaDefinitions.SCIM_USER_SCHEMA);
+        Assert.assertEquals(getIds(sorter.sort(users.iterator())), expectedIds);
+    }
+
+    @Test(dataProvider = "dataForSort")
+    public void testSortPageMatchesFullSort(String sortBy, String sortOrder, String[] expectedIds)
+            throws Exception {
+
+        ResourceSorter<User> sorter =
+                new ResourceSorter<>(sortBy, sortOrder, SCIMSchemaDefinitions.SCIM_USER_SCHEMA);
+        Assert.assertEquals(getIds(sorter.sort(users.iterator(), 2, 2)), new String[]{expectedIds[1], expectedIds[2]});
+        Assert.assertEquals(getIds(sorter.sort(users.iterator(), 4, 10)), new String[]{expectedIds[3]});
+        Assert.assertEquals(getIds(sorter.sort(users.iterator(), 1, 0)), new String[0]);
+    }
+
+    @Test(expectedExceptions = BadRequestException.class)
+    public void testSortByUnknownAttribute() throws Exception {
+
+        new ResourceSorter<User>("nickNames", null, SCIMSchemaDefinitions.SCIM_USER_SCHEMA);
+    }
+
+    private User decodeUser(String userString) throws Exception {
+
+        return (User) new JSONDecoder().decodeResource(userString, SCIMSchemaDefinitions.SCIM_USER_SCHEMA,
+                new User());
+    }
+
+    private String[] getIds(List<User> sortedUsers) {
+
+        String[] ids = new String[sortedUsers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sortedUsers.get(i).getId();
+        }
+        return ids;
+    }
+}
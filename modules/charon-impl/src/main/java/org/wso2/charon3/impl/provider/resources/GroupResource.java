@@ -269,6 +269,8 @@ public class GroupResource extends AbstractResource {
                              @QueryParam(SCIMProviderConstants.FILTER) String filter,
                              @ApiParam(value = SCIMProviderConstants.START_INDEX_DESC, required = false)
                              @QueryParam(SCIMProviderConstants.START_INDEX) int startIndex,
+                             @ApiParam(value = SCIMProviderConstants.CURSOR_DESC, required = false)
+                             @QueryParam(SCIMProviderConstants.CURSOR) String cursor,
                              @ApiParam(value = SCIMProviderConstants.COUNT_DESC, required = false)
                              @QueryParam(SCIMProviderConstants.COUNT) int count,
                              @ApiParam(value = SCIMProviderConstants.SORT_BY_DESC, required = false)
@@ -286,8 +288,14 @@ public class GroupResource extends AbstractResource {
             // create charon-SCIM group endpoint and hand-over the request.
             GroupResourceManager groupResourceManager = new GroupResourceManager();
 
-            SCIMResponse scimResponse = groupResourceManager.listWithGET(userManager, filter, startIndex, count,
-                    sortBy, sortOrder, domainName, attribute, excludedAttributes);
+            SCIMResponse scimResponse;
+            if (cursor != null) {
+                scimResponse = groupResourceManager.listWithCursor(userManager, filter, cursor, count, sortBy,
+                        sortOrder, domainName, attribute, excludedAttributes);
+            } else {
+                scimResponse = groupResourceManager.listWithGET(userManager, filter, startIndex, count, sortBy,
+                        sortOrder, domainName, attribute, excludedAttributes);
+            }
 
             return buildResponse(scimResponse);
 
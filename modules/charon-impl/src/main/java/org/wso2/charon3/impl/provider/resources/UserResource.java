@@ -190,6 +190,10 @@ public class UserResource extends AbstractResource {
                             @QueryParam(SCIMProviderConstants.FILTER) String filter,
                             @ApiParam(value = SCIMProviderConstants.START_INDEX_DESC, required = false)
                             @QueryParam(SCIMProviderConstants.START_INDEX) int startIndex,
+                            @ApiParam(value = SCIMProviderConstants.CURSOR_DESC, required = false)
+                            @QueryParam(SCIMProviderConstants.CURSOR) String cursor,
+                            @ApiParam(value = SCIMProviderConstants.CHANGES_SINCE_DESC, required = false)
+                            @QueryParam(SCIMProviderConstants.CHANGES_SINCE) String changesSince,
                             @ApiParam(value = SCIMProviderConstants.COUNT_DESC, required = false)
                             @QueryParam(SCIMProviderConstants.COUNT) int count,
                             @ApiParam(value = SCIMProviderConstants.SORT_BY_DESC, required = false)
@@ -207,8 +211,17 @@ public class UserResource extends AbstractResource {
             // create charon-SCIM user resource manager and hand-over the request.
             UserResourceManager userResourceManager = new UserResourceManager();
 
-            SCIMResponse scimResponse = userResourceManager.listWithGET(userManager, filter, startIndex, count,
-                    sortBy, sortOrder, domainName, attribute, excludedAttributes);
+            SCIMResponse scimResponse;
+            if (changesSince != null) {
+                scimResponse = userResourceManager.listChangesSince(userManager, changesSince, count, domainName,
+                        attribute, excludedAttributes);
+            } else if (cursor != null) {
+                scimResponse = userResourceManager.listWithCursor(userManager, filter, cursor, count, sortBy,
+                        sortOrder, domainName, attribute, excludedAttributes);
+            } else {
+                scimResponse = userResourceManager.listWithGET(userManager, filter, startIndex, count, sortBy,
+                        sortOrder, domainName, attribute, excludedAttributes);
+            }
 
             return buildResponse(scimResponse);
 
@@ -26,6 +26,8 @@ public class SCIMProviderConstants {
     public static final String EXCLUDE_ATTRIBUTES = "excludedAttributes";
     public static final String FILTER = "filter";
     public static final String START_INDEX = "startIndex";
+    public static final String CURSOR = "cursor";
+    public static final String CHANGES_SINCE = "changesSince";
     public static final String COUNT = "count";
     public static final String SORT_BY = "sortBy";
     public static final String SORT_ORDER = "sortOder";
@@ -52,6 +54,10 @@ public class SCIMProviderConstants {
             "SHALL be used to order the returned responses";
     public static final String SORT_ORDER_DESC = "The order in which the \"sortBy\" parameter is applied.";
     public static final String START_INDEX_DESC = "The 1-based index of the first query result";
+    public static final String CURSOR_DESC = "The nextCursor of the previous page, or empty for the first page. " +
+            "Used instead of startIndex";
+    public static final String CHANGES_SINCE_DESC = "The watermark of the previous change listing, or empty to list " +
+            "all resources. Lists the resources changed and deleted since the watermark";
     public static final String DOMAIN_DESC = "Domain of the provisioning user";
 
 }
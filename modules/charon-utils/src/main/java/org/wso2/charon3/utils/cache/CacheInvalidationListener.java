@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.cache;
+
+import java.util.Collection;
+
+/**
+ * Notified of the cache entries invalidated by local writes, so they can be invalidated on the other nodes of a
+ * cluster as well.
+ */
+public interface CacheInvalidationListener {
+
+    /**
+     * Called after a local write invalidated cached resources.
+     *
+     * @param resourceType Type of the invalidated resources, User or Group.
+     * @param ids          Ids of the invalidated resources, null if all the resources of the type were invalidated.
+     */
+    void onInvalidation(String resourceType, Collection<String> ids);
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.cache;
+
+/**
+ * Snapshot of the statistics of a {@link ResourceCache}.
+ */
+public class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long rejectionCount;
+    private final int size;
+
+    CacheStatistics(long hitCount, long missCount, long evictionCount, long rejectionCount, int size) {
+
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+        this.size = size;
+    }
+
+    /**
+     * @return Number of lookups answered from the cache.
+     */
+    public long getHitCount() {
+
+        return hitCount;
+    }
+
+    /**
+     * @return Number of lookups that had to go to the user store, including those of expired entries.
+     */
+    public long getMissCount() {
+
+        return missCount;
+    }
+
+    /**
+     * @return Number of entries evicted to make room for more frequently used ones.
+     */
+    public long getEvictionCount() {
+
+        return evictionCount;
+    }
+
+    /**
+     * @return Number of resources not admitted, as they were used less often than the entry they would evict.
+     */
+    public long getRejectionCount() {
+
+        return rejectionCount;
+    }
+
+    /**
+     * @return Number of resources in the cache.
+     */
+    public int getSize() {
+
+        return size;
+    }
+
+    /**
+     * @return Ratio of the lookups answered from the cache, 0 if there were none.
+     */
+    public double getHitRate() {
+
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+
+        return "CacheStatistics{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" +
+                evictionCount + ", rejectionCount=" + rejectionCount + ", size=" + size + "}";
+    }
+}
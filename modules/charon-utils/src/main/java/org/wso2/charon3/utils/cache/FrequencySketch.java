@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.cache;
+
+/**
+ * Approximate access frequencies of keys, kept in a count-min sketch of small saturating counters.
+ * <p>
+ * All the counters are halved once the number of recorded accesses reaches ten times the capacity of the cache, so
+ * the frequencies follow recent popularity rather than growing forever. Not thread safe.
+ */
+class FrequencySketch {
+
+    private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f};
+    private static final int MAXIMUM_FREQUENCY = 15;
+
+    private final int[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity Number of entries the cache holds.
+     */
+    FrequencySketch(int capacity) {
+
+        int width = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+        table = new int[SEEDS.length][width];
+        mask = width - 1;
+        sampleSize = Math.max(capacity, 1) * 10;
+    }
+
+    void increment(String key) {
+
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(hash, row);
+            if (table[row][index] < MAXIMUM_FREQUENCY) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    int frequency(String key) {
+
+        int hash = key.hashCode();
+        int frequency = MAXIMUM_FREQUENCY;
+        for (int row = 0; row < SEEDS.length; row++) {
+            frequency = Math.min(frequency, table[row][indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private int indexOf(int hash, int row) {
+
+        int spread = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        return (spread ^ (spread >>> 16)) & mask;
+    }
+
+    private void age() {
+
+        for (int[] counters : table) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>>= 1;
+            }
+        }
+        additions /= 2;
+    }
+}
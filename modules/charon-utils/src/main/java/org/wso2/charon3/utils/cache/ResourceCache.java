@@ -0,0 +1,364 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.cache;
+
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded cache of SCIM resources keyed by resource id and projection.
+ * <p>
+ * A projection is the set of attribute URIs a resource was retrieved with, null for all the attributes. A lookup is
+ * answered by any live entry of the id whose projection covers the requested one, so a resource retrieved with all
+ * its attributes also serves requests for a few of them. Entries expire after the time to live.
+ * <p>
+ * Once the cache is full, a new id is only admitted if it is looked up at least as often as the least recently used
+ * id it would evict, as estimated by a {@link FrequencySketch}. A scan over many ids therefore does not flush the
+ * frequently used ones, as it would from a plain LRU cache.
+ * <p>
+ * A cache can tag its resources, for example a group by the ids of its members, and keeps an index from the tags to
+ * the cached ids, so the resources carrying a tag are invalidated without visiting the others. A resource loaded
+ * while an invalidation was in progress is only refused if that invalidation concerned its id or its tags, so
+ * invalidations do not keep unrelated resources out of the cache.
+ * <p>
+ * The cache holds and returns the given instances, so callers copy resources on the way in and out.
+ *
+ * @param <T> Type of the cached resources.
+ */
+public class ResourceCache<T extends AbstractSCIMObject> {
+
+    // Number of recent invalidations kept to check the resources loaded meanwhile against. A resource whose load
+    // started before the oldest of them is not cached.
+    private static final int INVALIDATION_LOG_SIZE = 1024;
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final FrequencySketch sketch;
+    private final Function<T, Collection<String>> tagsOf;
+    // In access order, so the least recently used id comes first.
+    private final LinkedHashMap<String, List<Entry<T>>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> idsByTag = new HashMap<>();
+    private final Deque<Invalidation<T>> invalidations = new ArrayDeque<>();
+    private long generation;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+
+    /**
+     * @param maximumSize Maximum number of cached resource ids.
+     * @param timeToLive  How long a resource is served from the cache.
+     */
+    public ResourceCache(int maximumSize, Duration timeToLive) {
+
+        this(maximumSize, timeToLive, resource -> Collections.emptySet());
+    }
+
+    /**
+     * @param maximumSize Maximum number of cached resource ids.
+     * @param timeToLive  How long a resource is served from the cache.
+     * @param tagsOf      Tags of a resource, for {@link #invalidateTagged(Collection)}.
+     */
+    public ResourceCache(int maximumSize, Duration timeToLive, Function<T, Collection<String>> tagsOf) {
+
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive : " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.sketch = new FrequencySketch(maximumSize);
+        this.tagsOf = tagsOf;
+    }
+
+    /**
+     * Returns the cached resource with the given id, retrieved with the given projection or a wider one.
+     *
+     * @param id         Id of the resource.
+     * @param projection Requested attribute URIs, null for all the attributes.
+     * @return The cached resource, null on a miss.
+     */
+    public synchronized T get(String id, Set<String> projection) {
+
+        sketch.increment(id);
+        List<Entry<T>> cached = entries.get(id);
+        if (cached != null) {
+            long now = System.nanoTime();
+            removeEntries(id, cached, entry -> now - entry.expiresAt >= 0);
+            for (Entry<T> entry : cached) {
+                if (covers(entry.projection, projection)) {
+                    hitCount++;
+                    return entry.resource;
+                }
+            }
+            if (cached.isEmpty()) {
+                entries.remove(id);
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Returns the current invalidation generation, to be passed to {@link #put} after loading a resource. A resource
+     * loaded while an invalidation of its id or of one of its tags was in progress may be stale, and is not cached.
+     *
+     * @return Invalidation generation.
+     */
+    public synchronized long getGeneration() {
+
+        return generation;
+    }
+
+    /**
+     * Cache a resource retrieved with the given projection, unless it was invalidated since it was loaded.
+     *
+     * @param id         Id of the resource.
+     * @param projection Attribute URIs the resource was retrieved with, null for all the attributes.
+     * @param resource   Resource to cache.
+     * @param generation Invalidation generation read before the resource was loaded.
+     */
+    public synchronized void put(String id, Set<String> projection, T resource, long generation) {
+
+        if (isInvalidatedSince(id, resource, generation)) {
+            return;
+        }
+        List<Entry<T>> cached = entries.get(id);
+        if (cached == null) {
+            if (entries.size() >= maximumSize && !evictFor(id)) {
+                rejectionCount++;
+                return;
+            }
+            cached = new ArrayList<>(1);
+            entries.put(id, cached);
+        }
+        // Entries the new one covers can no longer serve anything it can not.
+        removeEntries(id, cached, entry -> covers(projection, entry.projection));
+        Set<String> projectionCopy = projection == null ? null : new HashSet<>(projection);
+        Set<String> tags = new HashSet<>(tagsOf.apply(resource));
+        cached.add(new Entry<>(projectionCopy, resource, tags, System.nanoTime() + timeToLiveNanos));
+        for (String tag : tags) {
+            idsByTag.computeIfAbsent(tag, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * @param id Id of the resource to remove from the cache.
+     */
+    public synchronized void invalidate(String id) {
+
+        logInvalidation((invalidatedId, resource) -> invalidatedId.equals(id));
+        removeId(id);
+    }
+
+    /**
+     * Remove the resources carrying any of the given tags from the cache.
+     *
+     * @param tags Tags of the resources to remove.
+     */
+    public synchronized void invalidateTagged(Collection<String> tags) {
+
+        Set<String> invalidatedTags = new HashSet<>(tags);
+        logInvalidation((invalidatedId, resource) -> hasAnyTag(resource, invalidatedTags));
+        Set<String> ids = new HashSet<>();
+        for (String tag : invalidatedTags) {
+            Set<String> taggedIds = idsByTag.get(tag);
+            if (taggedIds != null) {
+                ids.addAll(taggedIds);
+            }
+        }
+        for (String id : ids) {
+            removeId(id);
+        }
+    }
+
+    /**
+     * Remove all the resources from the cache.
+     */
+    public synchronized void invalidateAll() {
+
+        logInvalidation((invalidatedId, resource) -> true);
+        entries.clear();
+        idsByTag.clear();
+    }
+
+    /**
+     * @return Snapshot of the statistics of the cache.
+     */
+    public synchronized CacheStatistics getStatistics() {
+
+        return new CacheStatistics(hitCount, missCount, evictionCount, rejectionCount, entries.size());
+    }
+
+    private void logInvalidation(BiPredicate<String, T> invalidates) {
+
+        generation++;
+        invalidations.addLast(new Invalidation<>(generation, invalidates));
+        if (invalidations.size() > INVALIDATION_LOG_SIZE) {
+            invalidations.removeFirst();
+        }
+    }
+
+    /*
+     * Whether an invalidation made since the given generation concerns the given resource.
+     */
+    private boolean isInvalidatedSince(String id, T resource, long since) {
+
+        if (since == generation) {
+            return false;
+        }
+        if (invalidations.isEmpty() || invalidations.peekFirst().generation > since + 1) {
+            // Older than the log, so it can not be told.
+            return true;
+        }
+        Iterator<Invalidation<T>> iterator = invalidations.descendingIterator();
+        while (iterator.hasNext()) {
+            Invalidation<T> invalidation = iterator.next();
+            if (invalidation.generation <= since) {
+                break;
+            }
+            if (invalidation.invalidates.test(id, resource)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnyTag(T resource, Set<String> tags) {
+
+        for (String tag : tagsOf.apply(resource)) {
+            if (tags.contains(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeId(String id) {
+
+        List<Entry<T>> cached = entries.remove(id);
+        if (cached != null) {
+            removeEntries(id, cached, entry -> true);
+        }
+    }
+
+    /*
+     * Removes the matching entries of an id, and the id from the tags of the removed resources.
+     */
+    private void removeEntries(String id, List<Entry<T>> cached, Predicate<Entry<T>> condition) {
+
+        Iterator<Entry<T>> iterator = cached.iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (condition.test(entry)) {
+                iterator.remove();
+                unindex(id, entry.tags, cached);
+            }
+        }
+    }
+
+    private void unindex(String id, Set<String> tags, List<Entry<T>> remaining) {
+
+        for (String tag : tags) {
+            boolean stillTagged = false;
+            for (Entry<T> entry : remaining) {
+                if (entry.tags.contains(tag)) {
+                    stillTagged = true;
+                    break;
+                }
+            }
+            Set<String> taggedIds = idsByTag.get(tag);
+            if (!stillTagged && taggedIds != null) {
+                taggedIds.remove(id);
+                if (taggedIds.isEmpty()) {
+                    idsByTag.remove(tag);
+                }
+            }
+        }
+    }
+
+    /*
+     * Makes room for the given id by evicting the least recently used one, if the new id is used at least as often.
+     */
+    private boolean evictFor(String id) {
+
+        Iterator<Map.Entry<String, List<Entry<T>>>> iterator = entries.entrySet().iterator();
+        Map.Entry<String, List<Entry<T>>> victim = iterator.next();
+        long now = System.nanoTime();
+        boolean expired = victim.getValue().stream().allMatch(entry -> now - entry.expiresAt >= 0);
+        if (!expired && sketch.frequency(id) < sketch.frequency(victim.getKey())) {
+            return false;
+        }
+        iterator.remove();
+        removeEntries(victim.getKey(), victim.getValue(), entry -> true);
+        evictionCount++;
+        return true;
+    }
+
+    private static boolean covers(Set<String> projection, Set<String> requested) {
+
+        return projection == null || (requested != null && projection.containsAll(requested));
+    }
+
+    /**
+     * A resource cached with the projection it was retrieved with.
+     */
+    private static class Entry<T> {
+
+        private final Set<String> projection;
+        private final T resource;
+        private final Set<String> tags;
+        private final long expiresAt;
+
+        Entry(Set<String> projection, T resource, Set<String> tags, long expiresAt) {
+
+            this.projection = projection;
+            this.resource = resource;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * An invalidation, with the condition on the ids and resources it invalidated.
+     */
+    private static class Invalidation<T> {
+
+        private final long generation;
+        private final BiPredicate<String, T> invalidates;
+
+        Invalidation(long generation, BiPredicate<String, T> invalidates) {
+
+            this.generation = generation;
+            this.invalidates = invalidates;
+        }
+    }
+}
@@ -0,0 +1,717 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.usermanager;
+
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.ConflictException;
+import org.wso2.charon3.core.exceptions.ForbiddenException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
+import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.ChangeSet;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
+import org.wso2.charon3.core.objects.plainobjects.MultiValuedComplexType;
+import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
+import org.wso2.charon3.core.schema.AttributeSchema;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.codeutils.Node;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+import org.wso2.charon3.utils.cache.CacheInvalidationListener;
+import org.wso2.charon3.utils.cache.CacheStatistics;
+import org.wso2.charon3.utils.cache.ResourceCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Read-through cache in front of any {@link UserManager}.
+ * <p>
+ * getUser and getGroup, and getUsersByIds and getGroupsByIds, are answered from a {@link ResourceCache} keyed by id
+ * and by the required attributes of the request, and a resource retrieved with more attributes also serves requests
+ * for fewer of them. Every write that
+ * goes through this user manager invalidates the written resource, along with the resources that embed it: the
+ * groups a user or group is a member of, and the users whose groups attribute a group write may change. Listings,
+ * counts and versions are not cached and always go to the wrapped user manager.
+ * <p>
+ * Writes that bypass this user manager, for example those made on another node, are not seen. Registered
+ * {@link CacheInvalidationListener}s are told about the local invalidations so they can forward them, and forwarded
+ * invalidations are applied with {@link #invalidate(String, Collection)}.
+ */
+public class CachingUserManager implements UserManager {
+
+    private final UserManager userManager;
+    private final ResourceCache<User> userCache;
+    private final ResourceCache<Group> groupCache;
+    private final List<CacheInvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param userManager  User manager to cache the users and groups of.
+     * @param maximumSize  Maximum number of cached users, and separately of cached groups.
+     * @param timeToLive   How long a user or group is served from the cache.
+     */
+    public CachingUserManager(UserManager userManager, int maximumSize, Duration timeToLive) {
+
+        this.userManager = userManager;
+        // Users are tagged by their groups and groups by their members, so the resources embedding a written one are
+        // found through the tag index of the caches instead of by scanning them.
+        this.userCache = new ResourceCache<>(maximumSize, timeToLive, CachingUserManager::getGroupIds);
+        this.groupCache = new ResourceCache<>(maximumSize, timeToLive, group -> getMemberIds(group));
+    }
+
+    /**
+     * @param listener Listener to notify of the invalidations caused by local writes.
+     */
+    public void addInvalidationListener(CacheInvalidationListener listener) {
+
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Apply an invalidation received from another node. Listeners are not notified.
+     *
+     * @param resourceType User or Group.
+     * @param ids          Ids of the written resources, null for all the resources of the type.
+     */
+    public void invalidate(String resourceType, Collection<String> ids) {
+
+        if (SCIMConstants.USER.equals(resourceType)) {
+            invalidateUsers(ids);
+        } else if (SCIMConstants.GROUP.equals(resourceType)) {
+            invalidateGroups(ids);
+        }
+    }
+
+    /**
+     * @return Statistics of the user cache.
+     */
+    public CacheStatistics getUserCacheStatistics() {
+
+        return userCache.getStatistics();
+    }
+
+    /**
+     * @return Statistics of the group cache.
+     */
+    public CacheStatistics getGroupCacheStatistics() {
+
+        return groupCache.getStatistics();
+    }
+
+    @Override
+    public User createUser(User user, Map<String, Boolean> requiredAttributes)
+            throws CharonException, ConflictException, BadRequestException, ForbiddenException {
+
+        try {
+            return userManager.createUser(user, requiredAttributes);
+        } finally {
+            userWritten(user.getId());
+        }
+    }
+
+    @Override
+    public User getUser(String id, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException {
+
+        Set<String> projection = requiredAttributes == null ? null : requiredAttributes.keySet();
+        User user = userCache.get(id, projection);
+        if (user == null) {
+            long generation = userCache.getGeneration();
+            user = userManager.getUser(id, requiredAttributes);
+            if (user == null) {
+                return null;
+            }
+            userCache.put(id, projection, (User) CopyUtil.deepCopy(user), generation);
+            return user;
+        }
+        return (User) CopyUtil.deepCopy(user);
+    }
+
+    @Override
+    public Map<String, User> getUsersByIds(Collection<String> userIds, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException {
+
+        Set<String> projection = requiredAttributes == null ? null : requiredAttributes.keySet();
+        Map<String, User> users = new LinkedHashMap<>();
+        List<String> missedIds = new ArrayList<>();
+        for (String userId : userIds) {
+            User user = userCache.get(userId, projection);
+            if (user == null) {
+                missedIds.add(userId);
+            } else {
+                users.put(userId, (User) CopyUtil.deepCopy(user));
+            }
+        }
+        if (missedIds.isEmpty()) {
+            return users;
+        }
+        // The missed users are retrieved together, so the wrapped user manager can batch them.
+        long generation = userCache.getGeneration();
+        Map<String, User> retrievedUsers = userManager.getUsersByIds(missedIds, requiredAttributes);
+        for (Map.Entry<String, User> entry : retrievedUsers.entrySet()) {
+            userCache.put(entry.getKey(), projection, (User) CopyUtil.deepCopy(entry.getValue()), generation);
+        }
+        return orderedByIds(userIds, users, retrievedUsers);
+    }
+
+    @Override
+    public void deleteUser(String userId)
+            throws NotFoundException, CharonException, NotImplementedException, BadRequestException {
+
+        try {
+            userManager.deleteUser(userId);
+        } finally {
+            userWritten(userId);
+        }
+    }
+
+    @Override
+    public String getUserVersion(String userId)
+            throws CharonException, NotFoundException, NotImplementedException, BadRequestException {
+
+        return userManager.getUserVersion(userId);
+    }
+
+    @Override
+    public UsersGetResponse listUsersWithGET(Node node, Integer startIndex, Integer count, String sortBy,
+                                             String sortOrder, String domainName,
+                                             Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersWithGET(node, startIndex, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    public UsersGetResponse listUsersWithCursor(Node node, String cursor, Integer count, String sortBy,
+                                                String sortOrder, String domainName,
+                                                Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersWithCursor(node, cursor, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    public UsersGetResponse listUsersChangedSince(String watermark, Integer count, String domainName,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersChangedSince(watermark, count, domainName, requiredAttributes);
+    }
+
+    @Override
+    public int countUsers(Node node, String domainName)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.countUsers(node, domainName);
+    }
+
+    @Override
+    @Deprecated
+    public UsersGetResponse listUsersWithGET(Node node, int startIndex, int count, String sortBy, String sortOrder,
+                                             String domainName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersWithGET(node, startIndex, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    @Deprecated
+    public UsersGetResponse listUsersWithGET(Node node, int startIndex, int count, String sortBy, String sortOrder,
+                                             Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersWithGET(node, startIndex, count, sortBy, sortOrder, requiredAttributes);
+    }
+
+    @Override
+    public UsersGetResponse listUsersWithPost(SearchRequest searchRequest, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listUsersWithPost(searchRequest, requiredAttributes);
+    }
+
+    @Override
+    public User updateUser(User updatedUser, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, CharonException, BadRequestException, NotFoundException {
+
+        try {
+            return userManager.updateUser(updatedUser, requiredAttributes);
+        } finally {
+            userWritten(updatedUser.getId());
+        }
+    }
+
+    @Override
+    public User updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                           List<String> allSimpleMultiValuedAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        try {
+            return userManager.updateUser(updatedUser, requiredAttributes, allSimpleMultiValuedAttributes);
+        } finally {
+            userWritten(updatedUser.getId());
+        }
+    }
+
+    @Override
+    public User updateUser(User updatedUser, Map<String, Boolean> requiredAttributes,
+                           List<String> allSimpleMultiValuedAttributes, String expectedVersion)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException,
+            PreConditionFailedException {
+
+        try {
+            return userManager.updateUser(updatedUser, requiredAttributes, allSimpleMultiValuedAttributes,
+                    expectedVersion);
+        } finally {
+            userWritten(updatedUser.getId());
+        }
+    }
+
+    @Override
+    public User updateUser(String userId, ChangeSet changeSet, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        try {
+            return userManager.updateUser(userId, changeSet, requiredAttributes);
+        } finally {
+            userWritten(userId);
+        }
+    }
+
+    @Override
+    public User getMe(String userName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException, NotFoundException, NotImplementedException {
+
+        return userManager.getMe(userName, requiredAttributes);
+    }
+
+    @Override
+    public User createMe(User user, Map<String, Boolean> requiredAttributes)
+            throws CharonException, ConflictException, BadRequestException, ForbiddenException,
+            NotImplementedException {
+
+        try {
+            return userManager.createMe(user, requiredAttributes);
+        } finally {
+            userWritten(user.getId());
+        }
+    }
+
+    @Override
+    public void deleteMe(String userName)
+            throws NotFoundException, CharonException, NotImplementedException, BadRequestException {
+
+        try {
+            userManager.deleteMe(userName);
+        } finally {
+            // Only the user name is known, which is not what the cache is keyed by.
+            userWritten(null);
+        }
+    }
+
+    @Override
+    public User updateMe(User updatedUser, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, CharonException, BadRequestException, NotFoundException {
+
+        try {
+            return userManager.updateMe(updatedUser, requiredAttributes);
+        } finally {
+            userWritten(updatedUser.getId());
+        }
+    }
+
+    @Override
+    public Group createGroup(Group group, Map<String, Boolean> requiredAttributes)
+            throws CharonException, ConflictException, NotImplementedException, BadRequestException {
+
+        try {
+            return userManager.createGroup(group, requiredAttributes);
+        } finally {
+            groupWritten(group.getId(), getMemberIds(group));
+        }
+    }
+
+    @Override
+    public Group getGroup(String id, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        Set<String> projection = requiredAttributes == null ? null : requiredAttributes.keySet();
+        Group group = groupCache.get(id, projection);
+        if (group == null) {
+            long generation = groupCache.getGeneration();
+            group = userManager.getGroup(id, requiredAttributes);
+            if (group == null) {
+                return null;
+            }
+            groupCache.put(id, projection, (Group) CopyUtil.deepCopy(group), generation);
+            return group;
+        }
+        return (Group) CopyUtil.deepCopy(group);
+    }
+
+    @Override
+    public Map<String, Group> getGroupsByIds(Collection<String> groupIds, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        Set<String> projection = requiredAttributes == null ? null : requiredAttributes.keySet();
+        Map<String, Group> groups = new LinkedHashMap<>();
+        List<String> missedIds = new ArrayList<>();
+        for (String groupId : groupIds) {
+            Group group = groupCache.get(groupId, projection);
+            if (group == null) {
+                missedIds.add(groupId);
+            } else {
+                groups.put(groupId, (Group) CopyUtil.deepCopy(group));
+            }
+        }
+        if (missedIds.isEmpty()) {
+            return groups;
+        }
+        long generation = groupCache.getGeneration();
+        Map<String, Group> retrievedGroups = userManager.getGroupsByIds(missedIds, requiredAttributes);
+        for (Map.Entry<String, Group> entry : retrievedGroups.entrySet()) {
+            groupCache.put(entry.getKey(), projection, (Group) CopyUtil.deepCopy(entry.getValue()), generation);
+        }
+        return orderedByIds(groupIds, groups, retrievedGroups);
+    }
+
+    @Override
+    public void deleteGroup(String id)
+            throws NotFoundException, CharonException, NotImplementedException, BadRequestException {
+
+        try {
+            userManager.deleteGroup(id);
+        } finally {
+            groupWritten(id, Collections.emptySet());
+        }
+    }
+
+    @Override
+    public GroupsGetResponse listGroupsWithGET(Node node, Integer startIndex, Integer count, String sortBy,
+                                               String sortOrder, String domainName,
+                                               Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listGroupsWithGET(node, startIndex, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    public GroupsGetResponse listGroupsWithCursor(Node node, String cursor, Integer count, String sortBy,
+                                                  String sortOrder, String domainName,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listGroupsWithCursor(node, cursor, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    public int countGroups(Node node, String domainName)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.countGroups(node, domainName);
+    }
+
+    @Override
+    @Deprecated
+    public GroupsGetResponse listGroupsWithGET(Node node, int startIndex, int count, String sortBy, String sortOrder,
+                                               String domainName, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listGroupsWithGET(node, startIndex, count, sortBy, sortOrder, domainName,
+                requiredAttributes);
+    }
+
+    @Override
+    @Deprecated
+    public GroupsGetResponse listGroupsWithGET(Node node, int startIndex, int count, String sortBy,
+                                               String sortOrder, Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.listGroupsWithGET(node, startIndex, count, sortBy, sortOrder, requiredAttributes);
+    }
+
+    @Override
+    public Group updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        try {
+            return userManager.updateGroup(oldGroup, newGroup, requiredAttributes);
+        } finally {
+            groupWritten(newGroup.getId(), getMemberIds(oldGroup, newGroup));
+        }
+    }
+
+    @Override
+    public void updateGroup(Group oldGroup, Group newGroup)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        try {
+            userManager.updateGroup(oldGroup, newGroup);
+        } finally {
+            groupWritten(newGroup.getId(), getMemberIds(oldGroup, newGroup));
+        }
+    }
+
+    @Override
+    public Group updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes,
+                             String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        try {
+            return userManager.updateGroup(oldGroup, newGroup, requiredAttributes, expectedVersion);
+        } finally {
+            groupWritten(newGroup.getId(), getMemberIds(oldGroup, newGroup));
+        }
+    }
+
+    @Override
+    public Group updateGroup(String groupId, ChangeSet changeSet, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        Group updatedGroup = null;
+        try {
+            updatedGroup = userManager.updateGroup(groupId, changeSet, requiredAttributes);
+            return updatedGroup;
+        } finally {
+            // Without the updated group the added members are unknown, and any cached user may be one of them.
+            groupWritten(groupId, updatedGroup == null ? null : getMemberIds(updatedGroup));
+        }
+    }
+
+    @Override
+    public Group patchGroup(String groupId, String currentGroupName, Map<String, List<PatchOperation>> patchOperations,
+                            Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        Group patchedGroup = null;
+        try {
+            patchedGroup = userManager.patchGroup(groupId, currentGroupName, patchOperations, requiredAttributes);
+            return patchedGroup;
+        } finally {
+            // Without the patched group the added members are unknown, and any cached user may be one of them.
+            groupWritten(groupId, patchedGroup == null ? null : getMemberIds(patchedGroup));
+        }
+    }
+
+    @Override
+    public Group patchGroup(String groupId, String currentGroupName, Map<String, List<PatchOperation>> patchOperations,
+                            Map<String, Boolean> requiredAttributes, String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        Group patchedGroup = null;
+        try {
+            patchedGroup = userManager.patchGroup(groupId, currentGroupName, patchOperations, requiredAttributes,
+                    expectedVersion);
+            return patchedGroup;
+        } finally {
+            groupWritten(groupId, patchedGroup == null ? null : getMemberIds(patchedGroup));
+        }
+    }
+
+    @Override
+    public Group patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        try {
+            return userManager.patchGroupMembers(delta, requiredAttributes);
+        } finally {
+            // Removed members are found by their groups tag, while added members are only known from the delta.
+            Set<String> memberIds = new HashSet<>(delta.getRemovedMemberIds());
+            for (Map<String, String> member : delta.getAddedMembers()) {
+                String memberId = member.get(SCIMConstants.CommonSchemaConstants.VALUE);
+                if (memberId != null) {
+                    memberIds.add(memberId);
+                }
+            }
+            groupWritten(delta.getGroupId(), memberIds);
+        }
+    }
+
+    @Override
+    public GroupsGetResponse listGroupsWithPost(SearchRequest searchRequest, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException {
+
+        return userManager.listGroupsWithPost(searchRequest, requiredAttributes);
+    }
+
+    @Override
+    public String getGroupVersion(String groupId)
+            throws CharonException, NotFoundException, NotImplementedException, BadRequestException {
+
+        return userManager.getGroupVersion(groupId);
+    }
+
+    @Override
+    public List<Attribute> getCoreSchema() throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.getCoreSchema();
+    }
+
+    @Override
+    public List<Attribute> getUserSchema() throws CharonException, NotImplementedException, BadRequestException {
+
+        return userManager.getUserSchema();
+    }
+
+    @Override
+    public List<Attribute> getEnterpriseUserSchema() throws CharonException, NotImplementedException,
+            BadRequestException {
+
+        return userManager.getEnterpriseUserSchema();
+    }
+
+    @Override
+    public AttributeSchema getCustomUserSchemaExtension() throws CharonException, NotImplementedException,
+            BadRequestException {
+
+        return userManager.getCustomUserSchemaExtension();
+    }
+
+    @Override
+    public List<Attribute> getCustomUserSchemaAttributes() throws CharonException, NotImplementedException,
+            BadRequestException {
+
+        return userManager.getCustomUserSchemaAttributes();
+    }
+
+    /*
+     * A user write invalidates the user and the groups listing it as a member, whose member display may change.
+     */
+    private void userWritten(String id) {
+
+        Collection<String> ids = id == null ? null : Collections.singleton(id);
+        invalidateUsers(ids);
+        notifyListeners(SCIMConstants.USER, ids);
+    }
+
+    /*
+     * A group write invalidates the group and everything embedding it. Users that become members are only known from
+     * the written group, so they are invalidated separately. Null member ids stand for any user.
+     */
+    private void groupWritten(String id, Collection<String> memberIds) {
+
+        Collection<String> ids = id == null ? null : Collections.singleton(id);
+        invalidateGroups(ids);
+        notifyListeners(SCIMConstants.GROUP, ids);
+        if (memberIds == null || !memberIds.isEmpty()) {
+            invalidateUsers(memberIds);
+            notifyListeners(SCIMConstants.USER, memberIds);
+        }
+    }
+
+    private void invalidateUsers(Collection<String> ids) {
+
+        if (ids == null) {
+            userCache.invalidateAll();
+            groupCache.invalidateAll();
+            return;
+        }
+        for (String id : ids) {
+            userCache.invalidate(id);
+        }
+        groupCache.invalidateTagged(ids);
+    }
+
+    private void invalidateGroups(Collection<String> ids) {
+
+        if (ids == null) {
+            groupCache.invalidateAll();
+            userCache.invalidateAll();
+            return;
+        }
+        for (String id : ids) {
+            groupCache.invalidate(id);
+        }
+        // Nested groups list the group as a member, and users list it in their groups attribute.
+        groupCache.invalidateTagged(ids);
+        userCache.invalidateTagged(ids);
+    }
+
+    private void notifyListeners(String resourceType, Collection<String> ids) {
+
+        for (CacheInvalidationListener listener : invalidationListeners) {
+            listener.onInvalidation(resourceType, ids);
+        }
+    }
+
+    /*
+     * Merge the cached and the retrieved resources back into the order of the requested ids.
+     */
+    private static <T> Map<String, T> orderedByIds(Collection<String> ids, Map<String, T> cached,
+                                                   Map<String, T> retrieved) {
+
+        Map<String, T> resources = new LinkedHashMap<>();
+        for (String id : ids) {
+            T resource = cached.get(id);
+            if (resource == null) {
+                resource = retrieved.get(id);
+            }
+            if (resource != null) {
+                resources.put(id, resource);
+            }
+        }
+        return resources;
+    }
+
+    private static Set<String> getGroupIds(User user) {
+
+        Set<String> groupIds = new HashSet<>();
+        for (MultiValuedComplexType group : user.getGroups()) {
+            if (group.getValue() != null) {
+                groupIds.add(group.getValue());
+            }
+        }
+        return groupIds;
+    }
+
+    private static Set<String> getMemberIds(Group... groups) {
+
+        Set<String> memberIds = new HashSet<>();
+        for (Group group : groups) {
+            if (group == null) {
+                continue;
+            }
+            for (Object memberId : group.getMembers()) {
+                if (memberId != null) {
+                    memberIds.add(memberId.toString());
+                }
+            }
+        }
+        return memberIds;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.usermanager;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Ordered log of the changes made to the resources of one resource type.
+ * <p>
+ * Every create, update or delete of a resource takes the next number of a monotonic change sequence, and the log
+ * keeps only the latest change of each resource, ordered by that number. A deletion is kept as a tombstone for the
+ * configured retention, so clients syncing within the retention learn about it. A watermark is the sequence number
+ * of the last change a client has seen, so the changes it has not seen are a range of the log.
+ * <p>
+ * Watermarks are tied to the log that issued them. A watermark from another log, for example one issued before a
+ * restart, or one older than a purged tombstone can not be answered reliably and is rejected, which tells the client
+ * to list all the resources again.
+ */
+public class ChangeLog {
+
+    private static final String WATERMARK_SEPARATOR = ".";
+
+    private final Duration tombstoneRetention;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final NavigableMap<Long, String> changes = new TreeMap<>();
+    private final Map<String, Long> sequenceById = new HashMap<>();
+    // Kept in the order of deletion, so the expired tombstones are at the head.
+    private final Map<String, Instant> tombstones = new LinkedHashMap<>();
+    private long sequence;
+    private long purgedSequence;
+
+    /**
+     * @param tombstoneRetention How long deletions are kept.
+     */
+    public ChangeLog(Duration tombstoneRetention) {
+
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Record that the given resource was created or updated.
+     *
+     * @param id Id of the resource.
+     */
+    public synchronized void recordChange(String id) {
+
+        tombstones.remove(id);
+        record(id);
+    }
+
+    /**
+     * Record that the given resource changed through another resource, for example its group memberships through a
+     * group. Unlike a direct change, this never revives a resource logged as deleted.
+     *
+     * @param id Id of the resource.
+     */
+    public synchronized void recordRelatedChange(String id) {
+
+        if (!tombstones.containsKey(id)) {
+            record(id);
+        }
+    }
+
+    /**
+     * Record that the given resource was deleted.
+     *
+     * @param id Id of the resource.
+     */
+    public synchronized void recordDeletion(String id) {
+
+        record(id);
+        tombstones.remove(id);
+        tombstones.put(id, Instant.now());
+        purgeTombstones();
+    }
+
+    /**
+     * Returns the changes made after the given watermark, in the order they were made.
+     *
+     * @param watermark Watermark of a previous call, or an empty string for all the existing resources.
+     * @param count     Maximum number of changes, null for all of them.
+     * @return Changed and deleted resources, with the watermark of the last returned change.
+     * @throws BadRequestException If the watermark was not issued by this log or is older than the retention.
+     */
+    public synchronized Changes getChangesSince(String watermark, Integer count) throws BadRequestException {
+
+        purgeTombstones();
+        boolean initial = StringUtils.isEmpty(watermark);
+        long since = initial ? 0 : decodeWatermark(watermark);
+        if (!initial && since < purgedSequence) {
+            throw new BadRequestException("Watermark is older than the retained deletions : " + watermark,
+                    ResponseCodeConstants.INVALID_WATERMARK);
+        }
+
+        NavigableMap<Long, String> pending = changes.tailMap(since, false);
+        Changes result = new Changes();
+        // A client without a watermark has not seen the deleted resources in the first place.
+        result.total = initial ? sequenceById.size() - tombstones.size() : pending.size();
+        long last = since;
+        boolean truncated = false;
+        for (Map.Entry<Long, String> change : pending.entrySet()) {
+            boolean deleted = tombstones.containsKey(change.getValue());
+            if (!(initial && deleted)) {
+                if (count != null && result.size() >= count) {
+                    truncated = true;
+                    break;
+                }
+                (deleted ? result.deletedIds : result.changedIds).add(change.getValue());
+            }
+            last = change.getKey();
+        }
+        if (!truncated) {
+            last = Math.max(last, sequence);
+        }
+        result.watermark = epoch + WATERMARK_SEPARATOR + last;
+        return result;
+    }
+
+    private void record(String id) {
+
+        Long previous = sequenceById.put(id, ++sequence);
+        if (previous != null) {
+            changes.remove(previous);
+        }
+        changes.put(sequence, id);
+    }
+
+    private void purgeTombstones() {
+
+        Instant expiry = Instant.now().minus(tombstoneRetention);
+        Iterator<Map.Entry<String, Instant>> iterator = tombstones.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Instant> tombstone = iterator.next();
+            if (!tombstone.getValue().isBefore(expiry)) {
+                break;
+            }
+            Long purged = sequenceById.remove(tombstone.getKey());
+            changes.remove(purged);
+            purgedSequence = Math.max(purgedSequence, purged);
+            iterator.remove();
+        }
+    }
+
+    private long decodeWatermark(String watermark) throws BadRequestException {
+
+        if (watermark.startsWith(epoch + WATERMARK_SEPARATOR)) {
+            try {
+                return Long.parseLong(watermark.substring(epoch.length() + WATERMARK_SEPARATOR.length()));
+            } catch (NumberFormatException e) {
+                // Rejected below.
+            }
+        }
+        throw new BadRequestException("Invalid watermark : " + watermark, ResponseCodeConstants.INVALID_WATERMARK);
+    }
+
+    /**
+     * Changes made after a watermark.
+     */
+    public static class Changes {
+
+        private final List<String> changedIds = new ArrayList<>();
+        private final List<String> deletedIds = new ArrayList<>();
+        private String watermark;
+        private int total;
+
+        /**
+         * @return Ids of the created or updated resources, in the order of their latest change.
+         */
+        public List<String> getChangedIds() {
+
+            return changedIds;
+        }
+
+        /**
+         * @return Ids of the deleted resources, in the order of deletion.
+         */
+        public List<String> getDeletedIds() {
+
+            return deletedIds;
+        }
+
+        /**
+         * @return Watermark to request the changes that follow these with.
+         */
+        public String getWatermark() {
+
+            return watermark;
+        }
+
+        /**
+         * @return Number of changes after the requested watermark, including those beyond the requested count.
+         */
+        public int getTotal() {
+
+            return total;
+        }
+
+        private int size() {
+
+            return changedIds.size() + deletedIds.size();
+        }
+    }
+}
@@ -22,51 +22,104 @@ import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.wso2.charon3.core.attributes.Attribute;
+import org.wso2.charon3.core.attributes.ComplexAttribute;
+import org.wso2.charon3.core.attributes.MultiValuedAttribute;
+import org.wso2.charon3.core.attributes.SimpleAttribute;
 import org.wso2.charon3.core.exceptions.BadRequestException;
 import org.wso2.charon3.core.exceptions.CharonException;
 import org.wso2.charon3.core.exceptions.ConflictException;
 import org.wso2.charon3.core.exceptions.NotFoundException;
 import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.exceptions.PreConditionFailedException;
 import org.wso2.charon3.core.extensions.UserManager;
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
 import org.wso2.charon3.core.objects.Group;
 import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
 import org.wso2.charon3.core.objects.plainobjects.GroupsGetResponse;
 import org.wso2.charon3.core.objects.plainobjects.UsersGetResponse;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceSchemaManager;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
 import org.wso2.charon3.core.utils.CopyUtil;
+import org.wso2.charon3.core.utils.ETagUtil;
+import org.wso2.charon3.core.utils.ResourceSorter;
+import org.wso2.charon3.core.utils.codeutils.ExpressionNode;
 import org.wso2.charon3.core.utils.codeutils.Node;
+import org.wso2.charon3.core.utils.codeutils.PatchOperation;
 import org.wso2.charon3.core.utils.codeutils.SearchRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 /**
  * This is a sample dynamic user store.
  */
 public class InMemoryUserManager implements UserManager {
+    public static final Duration DEFAULT_TOMBSTONE_RETENTION = Duration.ofDays(1);
     private static final Logger logger = LoggerFactory.getLogger(InMemoryUserManager.class);
-    //in memory user manager stores users
-    ConcurrentHashMap<String, User> inMemoryUserList = new ConcurrentHashMap<String, User>();
-    ConcurrentHashMap<String, Group> inMemoryGroupList = new ConcurrentHashMap<String, Group>();
+    //in memory user manager stores users and groups. both stores are sharded by id, so writes to different ids do
+    //not contend, and keep the ordered id indexes backing cursor pagination. a cursor is the encoded id of the last
+    //resource of a page.
+    final ShardedResourceStore<User> userStore;
+    final ShardedResourceStore<Group> groupStore;
+    //reverse membership index. it is brought up to the stored group after every group write.
+    final MembershipIndex membershipIndex;
+    //changes of the users, recorded after every user write, backing the listing of the users changed since a
+    //watermark.
+    final ChangeLog userChangeLog;
 
+    public InMemoryUserManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shardCount Number of shards of the user, group and membership stores.
+     */
+    public InMemoryUserManager(int shardCount) {
+        this(shardCount, DEFAULT_TOMBSTONE_RETENTION);
+    }
+
+    /**
+     * @param shardCount         Number of shards of the user, group and membership stores.
+     * @param tombstoneRetention How long deleted users are reported to clients listing the changed users.
+     */
+    public InMemoryUserManager(int shardCount, Duration tombstoneRetention) {
+        userStore = new ShardedResourceStore<>(shardCount);
+        groupStore = new ShardedResourceStore<>(shardCount);
+        membershipIndex = new MembershipIndex(shardCount);
+        userChangeLog = new ChangeLog(tombstoneRetention);
+    }
 
     @Override
     public User createUser(User user, Map<String, Boolean> map)
             throws CharonException, ConflictException, BadRequestException {
-        if (inMemoryUserList.get(user.getId()) != null) {
+        user.deleteAttribute(SCIMConstants.UserSchemaConstants.GROUPS);
+        if (!userStore.putIfAbsent(user.getId(), user)) {
             throw new ConflictException("User with the id : " + user.getId() + "already exists");
-        } else {
-            inMemoryUserList.put(user.getId(), user);
-            return (User) CopyUtil.deepCopy(user);
         }
+        userChangeLog.recordChange(user.getId());
+        return withGroups((User) CopyUtil.deepCopy(user));
     }
 
     @Override
     public User getUser(String id, Map<String, Boolean> map)
             throws CharonException, BadRequestException, NotFoundException {
-       if (inMemoryUserList.get(id) != null) {
-           return (User) CopyUtil.deepCopy(inMemoryUserList.get(id));
+       if (userStore.get(id) != null) {
+           return withGroups((User) CopyUtil.deepCopy(userStore.get(id)));
        } else {
            throw new NotFoundException("No user with the id : " + id);
        }
@@ -75,52 +128,135 @@ public class InMemoryUserManager implements UserManager {
     @Override
     public void deleteUser(String id)
             throws NotFoundException, CharonException, NotImplementedException, BadRequestException {
-        if (inMemoryUserList.get(id) == null) {
+        if (userStore.remove(id) == null) {
             throw new NotFoundException("No user with the id : " + id);
         } else {
-            inMemoryUserList.remove(id);
+            userChangeLog.recordDeletion(id);
+            for (String groupId : membershipIndex.removeMember(id)) {
+                removeMembersFromStoredGroup(groupId, Collections.singleton(id));
+            }
+        }
+    }
+
+    @Override
+    public String getUserVersion(String id) throws NotFoundException {
+        User user = userStore.get(id);
+        if (user == null) {
+            throw new NotFoundException("No user with the id : " + id);
         }
+        return ETagUtil.getVersion(user);
+    }
+
+    @Override
+    public UsersGetResponse listUsersWithGET(Node rootNode, Integer startIndex, Integer count, String sortBy,
+                                             String sortOrder, String domainName,
+                                             Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        if (rootNode != null) {
+            throw new NotImplementedException("Filtering is not supported");
+        }
+        List<User> userList = new ArrayList<>();
+        for (User user : getPage(userStore, startIndex, count, sortBy, sortOrder,
+                SCIMResourceSchemaManager.getInstance().getUserResourceSchema())) {
+            userList.add(withGroups((User) CopyUtil.deepCopy(user)));
+        }
+        return new UsersGetResponse(userStore.size(), userList);
     }
 
     @Override
     public UsersGetResponse listUsersWithGET(Node rootNode, int startIndex, int count, String sortBy,
                                          String sortOrder, String domainName, Map<String, Boolean> requiredAttributes)
             throws CharonException, NotImplementedException, BadRequestException {
-        if (sortBy != null || sortOrder != null) {
-            throw new NotImplementedException("Sorting is not supported");
-        }  else if (startIndex != 1) {
-            throw new NotImplementedException("Pagination is not supported");
-        } else if (rootNode != null) {
-            throw new NotImplementedException("Filtering is not supported");
-        } else {
-            return listUsers(requiredAttributes);
+        //this signature can not tell a missing count from zero, and always listed all the users.
+        return listUsersWithGET(rootNode, Integer.valueOf(startIndex), count == 0 ? null : Integer.valueOf(count),
+                sortBy, sortOrder, domainName, requiredAttributes);
+    }
+
+    @Override
+    public UsersGetResponse listUsersWithCursor(Node rootNode, String cursor, Integer count, String sortBy,
+                                                String sortOrder, String domainName,
+                                                Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+        checkCursorListing(rootNode, sortBy, sortOrder);
+        List<User> userList = new ArrayList<>();
+        String nextCursor = collectPage(userStore, cursor, count, userList);
+        for (User user : userList) {
+            withGroups(user);
         }
+        return new UsersGetResponse(userStore.size(), userList, nextCursor);
     }
 
-    private UsersGetResponse listUsers(Map<String, Boolean> requiredAttributes) throws CharonException {
+    @Override
+    public int countUsers(Node rootNode, String domainName) throws NotImplementedException {
+        if (rootNode != null) {
+            throw new NotImplementedException("Filtering is not supported");
+        }
+        return userStore.size();
+    }
 
+    @Override
+    public UsersGetResponse listUsersChangedSince(String watermark, Integer count, String domainName,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, BadRequestException {
+        ChangeLog.Changes changes = userChangeLog.getChangesSince(watermark, count);
         List<User> userList = new ArrayList<>();
-        for (Map.Entry<String, User> entry : inMemoryUserList.entrySet()) {
-            userList.add(entry.getValue());
+        List<String> deletedUserIds = new ArrayList<>();
+        //the store is written before the log, so a resource read here is at least as recent as its logged change.
+        //a user logged as deleted but stored again was re-created, and one logged as changed but gone is about to be
+        //logged as deleted.
+        for (String id : changes.getChangedIds()) {
+            User user = userStore.get(id);
+            if (user != null) {
+                userList.add(withGroups((User) CopyUtil.deepCopy(user)));
+            }
+        }
+        for (String id : changes.getDeletedIds()) {
+            User user = userStore.get(id);
+            if (user != null) {
+                userList.add(withGroups((User) CopyUtil.deepCopy(user)));
+            } else {
+                deletedUserIds.add(id);
+            }
         }
-        return new UsersGetResponse(userList.size(), userList);
+        UsersGetResponse usersGetResponse = new UsersGetResponse(changes.getTotal(), userList);
+        usersGetResponse.setWatermark(changes.getWatermark());
+        usersGetResponse.setDeletedUserIds(deletedUserIds);
+        return usersGetResponse;
     }
 
     @Override
     public UsersGetResponse listUsersWithPost(SearchRequest searchRequest, Map<String, Boolean> requiredAttributes)
             throws CharonException, NotImplementedException, BadRequestException {
 
-        return listUsersWithGET(searchRequest.getFilter(), searchRequest.getStartIndex(), searchRequest.getCount(),
-                searchRequest.getSortBy(), searchRequest.getSortOder(), searchRequest.getDomainName(),
-                requiredAttributes);
+        return listUsersWithGET(searchRequest.getFilter(), Integer.valueOf(searchRequest.getStartIndex()),
+                getCount(searchRequest), searchRequest.getSortBy(), searchRequest.getSortOder(),
+                searchRequest.getDomainName(), requiredAttributes);
+    }
+
+    /*
+     * The count of a search request, or null if the request has none. A missing count is decoded to the configured
+     * page size, which is zero unless set, so it is told apart by the count string of the request.
+     */
+    private static Integer getCount(SearchRequest searchRequest) {
+        String countStr = searchRequest.getCountStr();
+        if (StringUtils.isBlank(countStr) || !countStr.matches("\\d+")) {
+            return null;
+        }
+        return searchRequest.getCount();
     }
 
     @Override
     public User updateUser(User user, Map<String, Boolean> map)
             throws NotImplementedException, CharonException, BadRequestException, NotFoundException {
        if (user.getId() != null) {
-           inMemoryUserList.replace(user.getId(), user);
-           return (User) CopyUtil.deepCopy(user);
+           //group memberships are owned by the groups, never by the stored user.
+           user.deleteAttribute(SCIMConstants.UserSchemaConstants.GROUPS);
+           renewVersion(userStore.get(user.getId()), user);
+           if (userStore.replace(user.getId(), user) != null) {
+               userChangeLog.recordChange(user.getId());
+           }
+           return withGroups((User) CopyUtil.deepCopy(user));
        } else {
            throw new NotFoundException("No user with the id : " + user.getId());
        }
@@ -133,8 +269,37 @@ public class InMemoryUserManager implements UserManager {
         if (StringUtils.isEmpty(user.getId())) {
             throw new NotFoundException("No user found. User id is empty.");
         }
-        inMemoryUserList.replace(user.getId(), user);
-        return (User) CopyUtil.deepCopy(user);
+        user.deleteAttribute(SCIMConstants.UserSchemaConstants.GROUPS);
+        renewVersion(userStore.get(user.getId()), user);
+        if (userStore.replace(user.getId(), user) != null) {
+            userChangeLog.recordChange(user.getId());
+        }
+        return withGroups((User) CopyUtil.deepCopy(user));
+    }
+
+    @Override
+    public User updateUser(User user, Map<String, Boolean> requiredAttributes,
+                           List<String> allSimpleMultiValuedAttributes, String expectedVersion)
+            throws CharonException, BadRequestException, NotFoundException, PreConditionFailedException {
+
+        if (StringUtils.isEmpty(user.getId())) {
+            throw new NotFoundException("No user found. User id is empty.");
+        }
+        User storedUser = userStore.get(user.getId());
+        if (storedUser == null) {
+            throw new NotFoundException("No user with the id : " + user.getId());
+        }
+        if (!StringUtils.equals(expectedVersion, storedUser.getVersion())) {
+            throw new PreConditionFailedException();
+        }
+        user.deleteAttribute(SCIMConstants.UserSchemaConstants.GROUPS);
+        renewVersion(storedUser, user);
+        //compare-and-set on the identity of the stored instance. a concurrent writer has swapped it if this fails.
+        if (!userStore.replace(user.getId(), storedUser, user)) {
+            throw new PreConditionFailedException();
+        }
+        userChangeLog.recordChange(user.getId());
+        return withGroups((User) CopyUtil.deepCopy(user));
     }
 
     @Override
@@ -164,15 +329,16 @@ public class InMemoryUserManager implements UserManager {
     @Override
     public Group createGroup(Group group, Map<String, Boolean> map)
             throws CharonException, ConflictException, NotImplementedException, BadRequestException {
-        inMemoryGroupList.put(group.getId(), group);
+        groupStore.put(group.getId(), group);
+        reindexGroup(group.getId());
         return (Group) CopyUtil.deepCopy(group);
     }
 
     @Override
     public Group getGroup(String id, Map<String, Boolean> map)
             throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
-        if (inMemoryGroupList.get(id) != null) {
-            return (Group) CopyUtil.deepCopy(inMemoryGroupList.get(id));
+        if (groupStore.get(id) != null) {
+            return (Group) CopyUtil.deepCopy(groupStore.get(id));
         } else {
             throw new NotFoundException("No user with the id : " + id);
         }
@@ -181,53 +347,490 @@ public class InMemoryUserManager implements UserManager {
     @Override
     public void deleteGroup(String id)
             throws NotFoundException, CharonException, NotImplementedException, BadRequestException {
-        if (inMemoryGroupList.get(id) == null) {
+        if (groupStore.remove(id) == null) {
             throw new NotFoundException("No user with the id : " + id);
-        } else {
-            inMemoryGroupList.remove(id);
         }
+        //nested groups keep a member entry for this group, which has to go as well.
+        Set<String> parentGroupIds = membershipIndex.getGroupsOfMember(id);
+        reindexGroup(id);
+        for (String parentGroupId : parentGroupIds) {
+            removeMembersFromStoredGroup(parentGroupId, Collections.singleton(id));
+        }
+    }
+
+    @Override
+    public String getGroupVersion(String id) throws NotFoundException {
+        Group group = groupStore.get(id);
+        if (group == null) {
+            throw new NotFoundException("No group with the id : " + id);
+        }
+        return ETagUtil.getVersion(group);
+    }
+
+    @Override
+    public GroupsGetResponse listGroupsWithGET(Node rootNode, Integer startIndex, Integer count, String sortBy,
+                                               String sortOrder, String domainName,
+                                               Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+
+        if (rootNode != null) {
+            if (isMemberFilter(rootNode)) {
+                return listGroupsOfMember(((ExpressionNode) rootNode).getValue());
+            }
+            throw new NotImplementedException("Filtering is not supported");
+        }
+        List<Group> groupList = new ArrayList<>();
+        for (Group group : getPage(groupStore, startIndex, count, sortBy, sortOrder,
+                SCIMResourceSchemaManager.getInstance().getGroupResourceSchema())) {
+            groupList.add((Group) CopyUtil.deepCopy(group));
+        }
+        return new GroupsGetResponse(groupStore.size(), groupList);
     }
 
     @Override
     public GroupsGetResponse listGroupsWithGET(Node rootNode, int startIndex, int count, String sortBy,
                              String sortOrder, String domainName, Map<String, Boolean> requiredAttributes)
             throws CharonException, NotImplementedException, BadRequestException {
+        //this signature can not tell a missing count from zero, and always listed all the groups.
+        return listGroupsWithGET(rootNode, Integer.valueOf(startIndex), count == 0 ? null : Integer.valueOf(count),
+                sortBy, sortOrder, domainName, requiredAttributes);
+    }
+
+    @Override
+    public GroupsGetResponse listGroupsWithCursor(Node rootNode, String cursor, Integer count, String sortBy,
+                                                  String sortOrder, String domainName,
+                                                  Map<String, Boolean> requiredAttributes)
+            throws CharonException, NotImplementedException, BadRequestException {
+        checkCursorListing(rootNode, sortBy, sortOrder);
+        List<Group> groupList = new ArrayList<>();
+        String nextCursor = collectPage(groupStore, cursor, count, groupList);
+        return new GroupsGetResponse(groupStore.size(), groupList, nextCursor);
+    }
+
+    @Override
+    public int countGroups(Node rootNode, String domainName) throws NotImplementedException {
+        if (rootNode == null) {
+            return groupStore.size();
+        } else if (isMemberFilter(rootNode)) {
+            return membershipIndex.countGroupsOfMember(((ExpressionNode) rootNode).getValue());
+        }
+        throw new NotImplementedException("Filtering is not supported");
+    }
+
+    private void checkCursorListing(Node rootNode, String sortBy, String sortOrder) throws NotImplementedException {
         if (sortBy != null || sortOrder != null) {
             throw new NotImplementedException("Sorting is not supported");
-        }  else if (startIndex != 1) {
-            throw new NotImplementedException("Pagination is not supported");
         } else if (rootNode != null) {
             throw new NotImplementedException("Filtering is not supported");
-        } else {
-            return listGroups(requiredAttributes);
         }
     }
 
-    private GroupsGetResponse listGroups(Map<String, Boolean> requiredAttributes) {
+    /*
+     * Copies the page that follows the cursor, in id order, into the given list and returns the cursor of the page
+     * after it, or null if there is none. As the cursor holds an id rather than an offset, pages do not shift when
+     * resources are created or deleted between two requests, and a cursor stays valid after its resource is gone.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends AbstractSCIMObject> String collectPage(ShardedResourceStore<T> store, String cursor,
+                                                              Integer count, List<T> page)
+            throws CharonException, BadRequestException {
+        Iterator<String> ids = store.ids(decodeCursor(cursor));
+        while (ids.hasNext()) {
+            String id = ids.next();
+            T resource = store.get(id);
+            if (resource == null) {
+                continue;
+            }
+            if (count != null && page.size() >= count) {
+                //a count of zero only asks for the total, so there is no page to continue from.
+                return page.isEmpty() ? null : encodeCursor(page.get(page.size() - 1).getId());
+            }
+            page.add((T) CopyUtil.deepCopy(resource));
+        }
+        return null;
+    }
+
+    private String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String decodeCursor(String cursor) throws BadRequestException {
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor : " + cursor, ResponseCodeConstants.INVALID_CURSOR);
+        }
+    }
+
+    /*
+     * Selects a page of the stored resources, sorted by sortBy if it is given and in id order otherwise. Only the
+     * resources of the page are returned, as stored, so just those have to be copied by the caller.
+     */
+    private <T extends AbstractSCIMObject> List<T> getPage(ShardedResourceStore<T> store, Integer startIndex,
+                                                           Integer count, String sortBy, String sortOrder,
+                                                           SCIMResourceTypeSchema schema)
+            throws BadRequestException {
+        int offset = startIndex == null || startIndex < 1 ? 0 : startIndex - 1;
+        if (sortBy != null) {
+            return new ResourceSorter<T>(sortBy, sortOrder, schema).sort(store.values(), offset + 1, count);
+        }
+        List<T> page = new ArrayList<>();
+        Iterator<String> ids = store.ids(null);
+        while (ids.hasNext()) {
+            String id = ids.next();
+            if (count != null && page.size() >= count) {
+                break;
+            }
+            T resource = store.get(id);
+            if (resource == null) {
+                continue;
+            }
+            if (offset > 0) {
+                offset--;
+            } else {
+                page.add(resource);
+            }
+        }
+        return page;
+    }
+
+    /*
+     * members.value eq "<id>" is answered from the reverse membership index, so the cost is proportional to the
+     * number of groups the member belongs to rather than to the number of groups in the store.
+     */
+    private GroupsGetResponse listGroupsOfMember(String memberId) throws CharonException {
         List<Group> groupList = new ArrayList<>();
-        for (Group group : inMemoryGroupList.values()) {
-            groupList.add(group);
+        for (String groupId : membershipIndex.getGroupsOfMember(memberId)) {
+            Group group = groupStore.get(groupId);
+            if (group != null) {
+                groupList.add((Group) CopyUtil.deepCopy(group));
+            }
         }
         return new GroupsGetResponse(groupList.size(), groupList);
     }
 
+    private boolean isMemberFilter(Node rootNode) {
+        if (!(rootNode instanceof ExpressionNode)) {
+            return false;
+        }
+        ExpressionNode expressionNode = (ExpressionNode) rootNode;
+        return SCIMConstants.GroupSchemaConstants.VALUE_URI.equals(expressionNode.getAttributeValue())
+                && SCIMConstants.OperationalConstants.EQ.trim().equalsIgnoreCase(expressionNode.getOperation())
+                && expressionNode.getValue() != null;
+    }
+
     @Override
     public Group updateGroup(Group group, Group group1, Map<String, Boolean> map)
             throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
-        if (group.getId() != null) {
-            inMemoryGroupList.replace(group.getId(), group);
-            return (Group) CopyUtil.deepCopy(group);
+        if (group1.getId() != null) {
+            renewVersion(groupStore.get(group1.getId()), group1);
+            if (groupStore.replace(group1.getId(), group1) == null) {
+                throw new NotFoundException("No group with the id : " + group1.getId());
+            }
+            reindexGroup(group1.getId());
+            return (Group) CopyUtil.deepCopy(group1);
         } else {
-            throw new NotFoundException("No user with the id : " + group.getId());
+            throw new NotFoundException("No user with the id : " + group1.getId());
+        }
+    }
+
+    @Override
+    public void updateGroup(Group oldGroup, Group newGroup)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+        updateGroup(oldGroup, newGroup, null);
+    }
+
+    @Override
+    public Group updateGroup(Group oldGroup, Group newGroup, Map<String, Boolean> requiredAttributes,
+                             String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        Group storedGroup = groupStore.get(newGroup.getId());
+        if (storedGroup == null) {
+            throw new NotFoundException("No group with the id : " + newGroup.getId());
+        }
+        if (!StringUtils.equals(expectedVersion, storedGroup.getVersion())) {
+            throw new PreConditionFailedException();
+        }
+        renewVersion(storedGroup, newGroup);
+        if (!groupStore.replace(newGroup.getId(), storedGroup, newGroup)) {
+            throw new PreConditionFailedException();
+        }
+        reindexGroup(newGroup.getId());
+        return (Group) CopyUtil.deepCopy(newGroup);
+    }
+
+    @Override
+    public Group patchGroup(String groupId, String currentGroupName, Map<String, List<PatchOperation>> patchOperations,
+                            Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        try {
+            return patchGroup(groupId, currentGroupName, patchOperations, requiredAttributes, null);
+        } catch (PreConditionFailedException e) {
+            //cannot happen without an expected version.
+            throw new CharonException("Error while patching the group : " + groupId, e);
+        }
+    }
+
+    @Override
+    public Group patchGroup(String groupId, String currentGroupName, Map<String, List<PatchOperation>> patchOperations,
+                            Map<String, Boolean> requiredAttributes, String expectedVersion)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException,
+            PreConditionFailedException {
+
+        List<PatchOperation> operations = new ArrayList<>();
+        for (List<PatchOperation> operationsOfType : patchOperations.values()) {
+            operations.addAll(operationsOfType);
+        }
+        Collections.sort(operations);
+
+        //patch a copy and swap it in, so concurrent readers never see a half applied patch. a lost race is retried
+        //on the new stored copy, unless the caller asked for a specific version.
+        while (true) {
+            Group storedGroup = groupStore.get(groupId);
+            if (storedGroup == null) {
+                throw new NotFoundException("No group with the id : " + groupId);
+            }
+            if (expectedVersion != null && !expectedVersion.equals(storedGroup.getVersion())) {
+                throw new PreConditionFailedException();
+            }
+            Group patchedGroup = (Group) CopyUtil.deepCopy(storedGroup);
+            Set<String> memberIds = new LinkedHashSet<>(getMemberIds(patchedGroup));
+            for (PatchOperation operation : operations) {
+                if (SCIMConstants.OperationalConstants.ADD.equals(operation.getOperation())) {
+                    addToGroup(patchedGroup, operation, memberIds);
+                } else if (SCIMConstants.OperationalConstants.REMOVE.equals(operation.getOperation())) {
+                    removeFromGroup(patchedGroup, operation, memberIds);
+                } else {
+                    throw new BadRequestException("Unknown operation: " + operation.getOperation());
+                }
+            }
+            patchedGroup.replaceLastModified(Instant.now());
+            patchedGroup.replaceVersion(ETagUtil.generateVersion());
+            if (groupStore.replace(groupId, storedGroup, patchedGroup)) {
+                reindexGroup(groupId);
+                return (Group) CopyUtil.deepCopy(patchedGroup);
+            }
+        }
+    }
+
+    @Override
+    public Group patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes)
+            throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+        String groupId = delta.getGroupId();
+        //as for patchGroup, the delta is applied to a copy which is swapped in, and a lost race is retried.
+        while (true) {
+            Group storedGroup = groupStore.get(groupId);
+            if (storedGroup == null) {
+                throw new NotFoundException("No group with the id : " + groupId);
+            }
+            Group patchedGroup = (Group) CopyUtil.deepCopy(storedGroup);
+            if (delta.getDisplayName() != null) {
+                patchedGroup.replaceDisplayName(delta.getDisplayName());
+            }
+            Set<String> removedMemberIds = removeMembers(patchedGroup, delta.getRemovedMemberIds());
+            Set<String> memberIds = new HashSet<>(getMemberIds(patchedGroup));
+            Set<String> addedMemberIds = new LinkedHashSet<>();
+            for (Map<String, String> member : delta.getAddedMembers()) {
+                String memberId = member.get(SCIMConstants.CommonSchemaConstants.VALUE);
+                if (memberId != null && memberIds.add(memberId)) {
+                    patchedGroup.setMember(memberId, member.get(SCIMConstants.CommonSchemaConstants.DISPLAY), null,
+                            null);
+                    addedMemberIds.add(memberId);
+                }
+            }
+            patchedGroup.replaceLastModified(Instant.now());
+            patchedGroup.replaceVersion(ETagUtil.generateVersion());
+            if (groupStore.replace(groupId, storedGroup, patchedGroup)) {
+                recordMembershipChanges(membershipIndex.reindexGroup(groupId, addedMemberIds, removedMemberIds,
+                        id -> groupStore.get(id) == patchedGroup, this::getStoredMemberIds));
+                return (Group) CopyUtil.deepCopy(patchedGroup);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToGroup(Group group, PatchOperation operation, Set<String> memberIds)
+            throws BadRequestException, CharonException {
+
+        if (SCIMConstants.GroupSchemaConstants.DISPLAY_NAME.equals(operation.getAttributeName())) {
+            group.replaceDisplayName((String) operation.getValues());
+        } else if (SCIMConstants.GroupSchemaConstants.MEMBERS.equals(operation.getAttributeName())) {
+            for (Map<String, String> member : (List<Map<String, String>>) operation.getValues()) {
+                String memberId = member.get(SCIMConstants.CommonSchemaConstants.VALUE);
+                if (memberId != null && memberIds.add(memberId)) {
+                    group.setMember(memberId, member.get(SCIMConstants.CommonSchemaConstants.DISPLAY), null, null);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeFromGroup(Group group, PatchOperation operation, Set<String> memberIds) {
+
+        Map<String, String> memberFilter = (Map<String, String>) operation.getValues();
+        if (memberFilter == null) {
+            return;
+        }
+        String value = memberFilter.get(SCIMConstants.CommonSchemaConstants.VALUE);
+        String display = memberFilter.get(SCIMConstants.CommonSchemaConstants.DISPLAY);
+        Set<String> removedIds = removeMembers(group, value, display);
+        memberIds.removeAll(removedIds);
+    }
+
+    /*
+     * Removes member entries from the stored copy of a group, retrying until the copy is swapped in.
+     */
+    private void removeMembersFromStoredGroup(String groupId, Collection<String> memberIds) throws CharonException {
+        while (true) {
+            Group storedGroup = groupStore.get(groupId);
+            if (storedGroup == null) {
+                return;
+            }
+            Group group = (Group) CopyUtil.deepCopy(storedGroup);
+            for (String memberId : memberIds) {
+                removeMembers(group, memberId, null);
+            }
+            group.replaceLastModified(Instant.now());
+            group.replaceVersion(ETagUtil.generateVersion());
+            if (groupStore.replace(groupId, storedGroup, group)) {
+                reindexGroup(groupId);
+                return;
+            }
+        }
+    }
+
+    /*
+     * Brings the index entry of a group up to its stored copy. The group store is updated without the index lock,
+     * but the stored copy is read under the lock of the group's index shard, so whoever reindexes last observes the
+     * latest copy and the index converges to it. Only the members that changed are linked or unlinked.
+     */
+    private void reindexGroup(String groupId) {
+        recordMembershipChanges(membershipIndex.reindexGroup(groupId, this::getStoredMemberIds));
+    }
+
+    /*
+     * The ids of the members of the stored copy of a group, null if there is none.
+     */
+    private List<String> getStoredMemberIds(String groupId) {
+        Group group = groupStore.get(groupId);
+        return group == null ? null : getMemberIds(group);
+    }
+
+    /*
+     * The groups attribute of the users that joined or left a group changed as well.
+     */
+    private void recordMembershipChanges(Set<String> changedMemberIds) {
+        for (String memberId : changedMemberIds) {
+            if (userStore.get(memberId) != null) {
+                userChangeLog.recordRelatedChange(memberId);
+            }
+        }
+    }
+
+    /*
+     * Makes sure a write never keeps the version of the resource it replaces.
+     */
+    private void renewVersion(AbstractSCIMObject storedResource, AbstractSCIMObject updatedResource) {
+        String version = updatedResource.getVersion();
+        if (version == null || (storedResource != null && version.equals(storedResource.getVersion()))) {
+            updatedResource.replaceVersion(ETagUtil.generateVersion());
+        }
+    }
+
+    /*
+     * Removes the member entries matching the given value and/or display and returns the ids that were removed.
+     */
+    private Set<String> removeMembers(Group group, String value, String display) {
+        Set<String> removedIds = new LinkedHashSet<>();
+        Attribute members = group.getAttribute(SCIMConstants.GroupSchemaConstants.MEMBERS);
+        if (!(members instanceof MultiValuedAttribute)) {
+            return removedIds;
+        }
+        Iterator<Attribute> iterator = ((MultiValuedAttribute) members).getAttributeValues().iterator();
+        while (iterator.hasNext()) {
+            Map<String, Attribute> subAttributes = ((ComplexAttribute) iterator.next()).getSubAttributesList();
+            Object memberValue = getSimpleValue(subAttributes.get(SCIMConstants.CommonSchemaConstants.VALUE));
+            Object memberDisplay = getSimpleValue(subAttributes.get(SCIMConstants.CommonSchemaConstants.DISPLAY));
+            if ((value == null || value.equals(memberValue)) && (display == null || display.equals(memberDisplay))) {
+                iterator.remove();
+                if (memberValue != null) {
+                    removedIds.add(memberValue.toString());
+                }
+            }
+        }
+        return removedIds;
+    }
+
+    /*
+     * Removes the member entries with the given ids in one pass and returns the ids that were removed.
+     */
+    private Set<String> removeMembers(Group group, Set<String> memberIds) {
+        Set<String> removedIds = new LinkedHashSet<>();
+        Attribute members = group.getAttribute(SCIMConstants.GroupSchemaConstants.MEMBERS);
+        if (memberIds.isEmpty() || !(members instanceof MultiValuedAttribute)) {
+            return removedIds;
+        }
+        Iterator<Attribute> iterator = ((MultiValuedAttribute) members).getAttributeValues().iterator();
+        while (iterator.hasNext()) {
+            Map<String, Attribute> subAttributes = ((ComplexAttribute) iterator.next()).getSubAttributesList();
+            Object memberValue = getSimpleValue(subAttributes.get(SCIMConstants.CommonSchemaConstants.VALUE));
+            if (memberValue != null && memberIds.contains(memberValue.toString())) {
+                iterator.remove();
+                removedIds.add(memberValue.toString());
+            }
+        }
+        return removedIds;
+    }
+
+    private Object getSimpleValue(Attribute attribute) {
+        return attribute instanceof SimpleAttribute ? ((SimpleAttribute) attribute).getValue() : null;
+    }
+
+    private List<String> getMemberIds(Group group) {
+        List<String> memberIds = new ArrayList<>();
+        for (Object memberId : group.getMembers()) {
+            if (memberId != null) {
+                memberIds.add(memberId.toString());
+            }
+        }
+        return memberIds;
+    }
+
+    /*
+     * Fills the read only groups attribute of the given user from the reverse membership index.
+     */
+    private User withGroups(User user) throws CharonException {
+        if (user == null) {
+            return null;
+        }
+        user.deleteAttribute(SCIMConstants.UserSchemaConstants.GROUPS);
+        for (String groupId : membershipIndex.getGroupsOfMember(user.getId())) {
+            Group group = groupStore.get(groupId);
+            if (group == null) {
+                continue;
+            }
+            try {
+                user.setGroup(SCIMConstants.UserSchemaConstants.DIRECT_MEMBERSHIP, group);
+            } catch (BadRequestException e) {
+                throw new CharonException("Error while setting the groups of the user : " + user.getId(), e);
+            }
         }
+        return user;
     }
 
     @Override
     public GroupsGetResponse listGroupsWithPost(SearchRequest searchRequest, Map<String, Boolean> requiredAttributes)
             throws NotImplementedException, BadRequestException, CharonException {
 
-        return listGroupsWithGET(searchRequest.getFilter(), searchRequest.getStartIndex(),
-                searchRequest.getCount(), searchRequest.getSortBy(), searchRequest.getSortOder(),
+        return listGroupsWithGET(searchRequest.getFilter(), Integer.valueOf(searchRequest.getStartIndex()),
+                getCount(searchRequest), searchRequest.getSortBy(), searchRequest.getSortOder(),
                 searchRequest.getDomainName(), requiredAttributes);
     }
 }
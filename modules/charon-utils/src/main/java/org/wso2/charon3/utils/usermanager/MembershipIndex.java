@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.usermanager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bidirectional index between groups and their members.
+ * <p>
+ * The forward direction (group to members) mirrors the members attribute of each stored group, while the reverse
+ * direction (member to groups) lets the store answer "which groups does this resource belong to" without scanning
+ * every group.
+ * <p>
+ * The index is partitioned into shards by group id, and a shard holds both directions of every membership of its
+ * groups. Both directions of a membership are always updated together under the monitor of its shard, so a reader
+ * never observes a membership that exists in one direction only, while writes to groups of different shards do not
+ * contend. Lookups by member scatter over the shards and gather the results.
+ */
+public class MembershipIndex {
+
+    private final Shard[] shards;
+
+    /**
+     * Creates an index with one shard per available processor.
+     */
+    public MembershipIndex() {
+
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shardCount Number of shards, at least one.
+     */
+    public MembershipIndex(int shardCount) {
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive : " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Replace the indexed members of the given group.
+     *
+     * @param groupId   Id of the group.
+     * @param memberIds Ids of all the current members of the group.
+     */
+    public void indexGroup(String groupId, Collection<String> memberIds) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            shard.indexGroup(groupId, memberIds);
+        }
+    }
+
+    /**
+     * Re-derive the indexed members of the given group while no other write to the group's shard is in progress.
+     * The members are read by the given function, which returns null if the group no longer exists, so whoever
+     * reindexes a group last observes its latest state and the index converges to it. Only the members which joined
+     * or left the group since it was last indexed are linked or unlinked.
+     *
+     * @param groupId   Id of the group.
+     * @param memberIds Function reading the ids of the current members of a group.
+     * @return Ids of the members which joined or left the group.
+     */
+    public Set<String> reindexGroup(String groupId, Function<String, Collection<String>> memberIds) {
+
+        Shard shard = shardOf(groupId);
+        boolean removed;
+        Set<String> changedMemberIds;
+        synchronized (shard) {
+            Collection<String> currentMemberIds = memberIds.apply(groupId);
+            removed = currentMemberIds == null;
+            if (removed) {
+                changedMemberIds = shard.unindexGroup(groupId);
+            } else {
+                changedMemberIds = shard.syncGroup(groupId, currentMemberIds);
+            }
+        }
+        if (removed) {
+            // Taken outside of the shard monitor, as it visits every shard.
+            removeMember(groupId);
+        }
+        return changedMemberIds;
+    }
+
+    /**
+     * Apply the members which joined and left a patched group to its index entry, while no other write to the
+     * group's shard is in progress. The delta is only applied if the patched copy of the group is still the stored
+     * one, as the given predicate tells under the shard monitor. Otherwise the group is reindexed from the members
+     * read by the given function, as by {@link #reindexGroup(String, Function)}, so the index still converges to
+     * the latest copy.
+     *
+     * @param groupId          Id of the group.
+     * @param addedMemberIds   Ids of the members the patch added.
+     * @param removedMemberIds Ids of the members the patch removed.
+     * @param patchedCopy      Predicate telling whether the patched copy of a group is still the stored one.
+     * @param memberIds        Function reading the ids of the current members of a group.
+     * @return Ids of the members which joined or left the group.
+     */
+    public Set<String> reindexGroup(String groupId, Collection<String> addedMemberIds,
+                                    Collection<String> removedMemberIds, Predicate<String> patchedCopy,
+                                    Function<String, Collection<String>> memberIds) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            if (patchedCopy.test(groupId)) {
+                return shard.applyDelta(groupId, addedMemberIds, removedMemberIds);
+            }
+        }
+        return reindexGroup(groupId, memberIds);
+    }
+
+    /**
+     * Add members to the given group.
+     *
+     * @param groupId   Id of the group.
+     * @param memberIds Ids of the members to be added.
+     */
+    public void addMembers(String groupId, Collection<String> memberIds) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            Set<String> members = shard.membersByGroup.computeIfAbsent(groupId, key -> new LinkedHashSet<>());
+            for (String memberId : memberIds) {
+                if (memberId != null && members.add(memberId)) {
+                    shard.groupsByMember.computeIfAbsent(memberId, key -> new LinkedHashSet<>()).add(groupId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove members from the given group.
+     *
+     * @param groupId   Id of the group.
+     * @param memberIds Ids of the members to be removed.
+     */
+    public void removeMembers(String groupId, Collection<String> memberIds) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            Set<String> members = shard.membersByGroup.get(groupId);
+            if (members == null) {
+                return;
+            }
+            for (String memberId : memberIds) {
+                if (members.remove(memberId)) {
+                    shard.unlink(memberId, groupId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the given group together with all of its memberships.
+     *
+     * @param groupId Id of the group.
+     */
+    public void removeGroup(String groupId) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            shard.unindexGroup(groupId);
+        }
+        // A group can itself be a member of other groups.
+        removeMember(groupId);
+    }
+
+    /**
+     * Remove the given member from every group it belongs to.
+     *
+     * @param memberId Id of the member.
+     * @return Ids of the groups the member was removed from.
+     */
+    public Set<String> removeMember(String memberId) {
+
+        Set<String> removedFrom = new LinkedHashSet<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Set<String> groupIds = shard.groupsByMember.remove(memberId);
+                if (groupIds == null) {
+                    continue;
+                }
+                for (String groupId : groupIds) {
+                    Set<String> members = shard.membersByGroup.get(groupId);
+                    if (members != null) {
+                        members.remove(memberId);
+                    }
+                }
+                removedFrom.addAll(groupIds);
+            }
+        }
+        return removedFrom;
+    }
+
+    /**
+     * Returns a snapshot of the ids of the groups the given resource is a direct member of.
+     *
+     * @param memberId Id of the member.
+     * @return Group ids, never null.
+     */
+    public Set<String> getGroupsOfMember(String memberId) {
+
+        Set<String> groupIds = null;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Set<String> groupIdsOfShard = shard.groupsByMember.get(memberId);
+                if (groupIdsOfShard != null) {
+                    if (groupIds == null) {
+                        groupIds = new LinkedHashSet<>();
+                    }
+                    groupIds.addAll(groupIdsOfShard);
+                }
+            }
+        }
+        return groupIds == null ? Collections.emptySet() : groupIds;
+    }
+
+    /**
+     * Returns the number of groups the given member directly belongs to, without taking a snapshot of them.
+     *
+     * @param memberId Id of a user or a group.
+     * @return Number of groups.
+     */
+    public int countGroupsOfMember(String memberId) {
+
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Set<String> groupIds = shard.groupsByMember.get(memberId);
+                count += groupIds == null ? 0 : groupIds.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a snapshot of the ids of the direct members of the given group.
+     *
+     * @param groupId Id of the group.
+     * @return Member ids, never null.
+     */
+    public Set<String> getMembersOfGroup(String groupId) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            Set<String> memberIds = shard.membersByGroup.get(groupId);
+            return memberIds == null ? Collections.emptySet() : new LinkedHashSet<>(memberIds);
+        }
+    }
+
+    /**
+     * Check whether the given resource is a direct member of the given group.
+     *
+     * @param groupId  Id of the group.
+     * @param memberId Id of the member.
+     * @return True if the membership exists.
+     */
+    public boolean isMember(String groupId, String memberId) {
+
+        Shard shard = shardOf(groupId);
+        synchronized (shard) {
+            Set<String> memberIds = shard.membersByGroup.get(groupId);
+            return memberIds != null && memberIds.contains(memberId);
+        }
+    }
+
+    private Shard shardOf(String groupId) {
+
+        int hash = groupId.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    /**
+     * Both directions of the memberships of the groups of one shard. Only accessed under the shard monitor.
+     */
+    private static class Shard {
+
+        private final Map<String, Set<String>> membersByGroup = new HashMap<>();
+        private final Map<String, Set<String>> groupsByMember = new HashMap<>();
+
+        private Set<String> indexGroup(String groupId, Collection<String> memberIds) {
+
+            Set<String> changedMembers = unindexGroup(groupId);
+            Set<String> members = new LinkedHashSet<>();
+            for (String memberId : memberIds) {
+                if (memberId == null) {
+                    continue;
+                }
+                members.add(memberId);
+                groupsByMember.computeIfAbsent(memberId, key -> new LinkedHashSet<>()).add(groupId);
+            }
+            membersByGroup.put(groupId, members);
+            // A member which left and joined again is unchanged.
+            for (String memberId : members) {
+                if (!changedMembers.remove(memberId)) {
+                    changedMembers.add(memberId);
+                }
+            }
+            return changedMembers;
+        }
+
+        private Set<String> syncGroup(String groupId, Collection<String> memberIds) {
+
+            Set<String> members = membersByGroup.get(groupId);
+            if (members == null) {
+                return indexGroup(groupId, memberIds);
+            }
+            Set<String> changedMembers = new LinkedHashSet<>();
+            Set<String> currentMembers = new HashSet<>(memberIds);
+            currentMembers.remove(null);
+            Iterator<String> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                String memberId = iterator.next();
+                if (!currentMembers.contains(memberId)) {
+                    iterator.remove();
+                    unlink(memberId, groupId);
+                    changedMembers.add(memberId);
+                }
+            }
+            for (String memberId : currentMembers) {
+                if (members.add(memberId)) {
+                    groupsByMember.computeIfAbsent(memberId, key -> new LinkedHashSet<>()).add(groupId);
+                    changedMembers.add(memberId);
+                }
+            }
+            return changedMembers;
+        }
+
+        private Set<String> applyDelta(String groupId, Collection<String> addedMemberIds,
+                                       Collection<String> removedMemberIds) {
+
+            Set<String> members = membersByGroup.computeIfAbsent(groupId, key -> new LinkedHashSet<>());
+            Set<String> changedMembers = new LinkedHashSet<>();
+            for (String memberId : removedMemberIds) {
+                if (members.remove(memberId)) {
+                    unlink(memberId, groupId);
+                    changedMembers.add(memberId);
+                }
+            }
+            for (String memberId : addedMemberIds) {
+                if (memberId != null && members.add(memberId)) {
+                    groupsByMember.computeIfAbsent(memberId, key -> new LinkedHashSet<>()).add(groupId);
+                    // A member which left and joined again is unchanged.
+                    if (!changedMembers.remove(memberId)) {
+                        changedMembers.add(memberId);
+                    }
+                }
+            }
+            return changedMembers;
+        }
+
+        private Set<String> unindexGroup(String groupId) {
+
+            Set<String> members = membersByGroup.remove(groupId);
+            if (members == null) {
+                return new LinkedHashSet<>();
+            }
+            for (String memberId : members) {
+                unlink(memberId, groupId);
+            }
+            return members;
+        }
+
+        private void unlink(String memberId, String groupId) {
+
+            Set<String> groupIds = groupsByMember.get(memberId);
+            if (groupIds != null) {
+                groupIds.remove(groupId);
+                if (groupIds.isEmpty()) {
+                    groupsByMember.remove(memberId);
+                }
+            }
+        }
+    }
+}
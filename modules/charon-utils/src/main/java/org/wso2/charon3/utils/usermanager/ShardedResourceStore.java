@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.charon3.utils.usermanager;
+
+import org.wso2.charon3.core.objects.AbstractSCIMObject;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Resource map partitioned into shards by the hash of the resource id.
+ * <p>
+ * Each shard owns its slice of the resources together with the ordered index of their ids, and writes to a shard
+ * are serialized on that shard only, so provisioning traffic spread over many ids does not contend on a single
+ * lock. Reads do not lock. Queries that span the store scatter over the shards and gather the results; queries in id
+ * order merge the sorted id slices of the shards, so they stay ordered without sorting the whole store.
+ *
+ * @param <T> Type of the stored resources.
+ */
+public class ShardedResourceStore<T extends AbstractSCIMObject> {
+
+    private final Shard<T>[] shards;
+
+    /**
+     * Creates a store with one shard per available processor.
+     */
+    public ShardedResourceStore() {
+
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shardCount Number of shards, at least one.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedResourceStore(int shardCount) {
+
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive : " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    /**
+     * @param id Id of the resource.
+     * @return The stored resource, null if there is none.
+     */
+    public T get(String id) {
+
+        return shardOf(id).resources.get(id);
+    }
+
+    /**
+     * Store the given resource, replacing the resource stored with the same id if any.
+     *
+     * @param id       Id of the resource.
+     * @param resource Resource to store.
+     */
+    public void put(String id, T resource) {
+
+        Shard<T> shard = shardOf(id);
+        synchronized (shard) {
+            shard.resources.put(id, resource);
+            shard.ids.add(id);
+        }
+    }
+
+    /**
+     * Store the given resource unless a resource with the same id is already stored.
+     *
+     * @param id       Id of the resource.
+     * @param resource Resource to store.
+     * @return True if the resource was stored.
+     */
+    public boolean putIfAbsent(String id, T resource) {
+
+        Shard<T> shard = shardOf(id);
+        synchronized (shard) {
+            if (shard.resources.putIfAbsent(id, resource) != null) {
+                return false;
+            }
+            shard.ids.add(id);
+            return true;
+        }
+    }
+
+    /**
+     * Replace the stored resource, if there is one.
+     *
+     * @param id       Id of the resource.
+     * @param resource New resource.
+     * @return The replaced resource, null if nothing was stored with the id.
+     */
+    public T replace(String id, T resource) {
+
+        return shardOf(id).resources.replace(id, resource);
+    }
+
+    /**
+     * Replace the stored resource only if it is still the expected instance. The stored resource is compared by
+     * identity rather than by equals, so a concurrent writer that stored an equal copy is still detected.
+     *
+     * @param id       Id of the resource.
+     * @param expected Instance the caller read from the store.
+     * @param resource New resource.
+     * @return True if the resource was replaced.
+     */
+    public boolean replace(String id, T expected, T resource) {
+
+        boolean[] replaced = new boolean[1];
+        shardOf(id).resources.computeIfPresent(id, (key, stored) -> {
+            if (stored != expected) {
+                return stored;
+            }
+            replaced[0] = true;
+            return resource;
+        });
+        return replaced[0];
+    }
+
+    /**
+     * @param id Id of the resource.
+     * @return The removed resource, null if nothing was stored with the id.
+     */
+    public T remove(String id) {
+
+        Shard<T> shard = shardOf(id);
+        synchronized (shard) {
+            T removed = shard.resources.remove(id);
+            if (removed != null) {
+                shard.ids.remove(id);
+            }
+            return removed;
+        }
+    }
+
+    /**
+     * @return Number of stored resources, summed over the shards.
+     */
+    public int size() {
+
+        int size = 0;
+        for (Shard<T> shard : shards) {
+            size += shard.resources.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the stored resources shard by shard, in no particular order.
+     *
+     * @return Iterator over the stored resources.
+     */
+    public Iterator<T> values() {
+
+        return new Iterator<T>() {
+
+            private int shardIndex = 0;
+            private Iterator<T> current = shards[0].resources.values().iterator();
+
+            @Override
+            public boolean hasNext() {
+
+                while (!current.hasNext() && shardIndex < shards.length - 1) {
+                    current = shards[++shardIndex].resources.values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Returns the stored ids in ascending order, by merging the ordered id slices of the shards.
+     *
+     * @param afterId Id to start after, null to start from the first id.
+     * @return Iterator over the ids.
+     */
+    public Iterator<String> ids(String afterId) {
+
+        PriorityQueue<PeekingIterator> heads =
+                new PriorityQueue<>(shards.length, Comparator.comparing(PeekingIterator::peek));
+        for (Shard<T> shard : shards) {
+            NavigableSet<String> ids = afterId == null ? shard.ids : shard.ids.tailSet(afterId, false);
+            PeekingIterator head = new PeekingIterator(ids.iterator());
+            if (head.peek() != null) {
+                heads.offer(head);
+            }
+        }
+        return new Iterator<String>() {
+
+            @Override
+            public boolean hasNext() {
+
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public String next() {
+
+                PeekingIterator head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                String id = head.advance();
+                if (head.peek() != null) {
+                    heads.offer(head);
+                }
+                return id;
+            }
+        };
+    }
+
+    private Shard<T> shardOf(String id) {
+
+        int hash = id.hashCode();
+        return shards[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length];
+    }
+
+    /**
+     * Slice of the store. The resource map and the id index of a shard are written together under the shard monitor.
+     */
+    private static class Shard<T> {
+
+        private final ConcurrentHashMap<String, T> resources = new ConcurrentHashMap<>();
+        private final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+    }
+
+    /**
+     * Id iterator of one shard, ordered in the merge by its next id.
+     */
+    private static class PeekingIterator {
+
+        private final Iterator<String> iterator;
+        private String next;
+
+        PeekingIterator(Iterator<String> iterator) {
+
+            this.iterator = iterator;
+            this.next = iterator.hasNext() ? iterator.next() : null;
+        }
+
+        String peek() {
+
+            return next;
+        }
+
+        String advance() {
+
+            String current = next;
+            next = iterator.hasNext() ? iterator.next() : null;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test class of FrequencySketch.
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void testFrequencyCountsAccesses() {
+
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("kim");
+        }
+        sketch.increment("kris");
+
+        // The sketch may overestimate a key sharing counters with others, but never underestimates it.
+        Assert.assertTrue(sketch.frequency("kim") >= 5);
+        Assert.assertTrue(sketch.frequency("kris") >= 1);
+        Assert.assertTrue(sketch.frequency("kim") > sketch.frequency("kris"));
+    }
+
+    @Test
+    public void testFrequencySaturates() {
+
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("kim");
+        }
+
+        Assert.assertEquals(sketch.frequency("kim"), 15);
+    }
+
+    @Test
+    public void testFrequenciesAreHalvedWithAge() {
+
+        FrequencySketch sketch = new FrequencySketch(8);
+        for (int i = 0; i < 12; i++) {
+            sketch.increment("kim");
+        }
+        Assert.assertEquals(sketch.frequency("kim"), 12);
+
+        // Ten times the capacity of recorded accesses halves all the counters.
+        for (int i = 0; i < 68; i++) {
+            sketch.increment("other" + i);
+        }
+
+        Assert.assertTrue(sketch.frequency("kim") <= 7);
+        Assert.assertTrue(sketch.frequency("kim") >= 6);
+    }
+}
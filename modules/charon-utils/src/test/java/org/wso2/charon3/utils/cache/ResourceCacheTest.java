@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.objects.User;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test class of ResourceCache.
+ */
+public class ResourceCacheTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    // Tags of the cached users by their id, standing in for the groups of a user.
+    private final Map<String, Collection<String>> tags = new HashMap<>();
+
+    @Test
+    public void testInvalidateById() throws Exception {
+
+        ResourceCache<User> cache = new ResourceCache<>(10, TIME_TO_LIVE);
+        User kim = user("kim");
+        cache.put("1", null, kim, cache.getGeneration());
+        cache.put("2", null, user("kris"), cache.getGeneration());
+        Assert.assertSame(cache.get("1", null), kim);
+
+        cache.invalidate("1");
+
+        Assert.assertNull(cache.get("1", null));
+        Assert.assertNotNull(cache.get("2", null));
+    }
+
+    @Test
+    public void testInvalidateTagged() throws Exception {
+
+        ResourceCache<User> cache = taggedCache(10);
+        tags.put("kim", Arrays.asList("team", "sales"));
+        tags.put("kris", Collections.singletonList("team"));
+        tags.put("kane", Collections.singletonList("hr"));
+        cache.put("1", null, user("kim"), cache.getGeneration());
+        cache.put("2", null, user("kris"), cache.getGeneration());
+        cache.put("3", null, user("kane"), cache.getGeneration());
+
+        cache.invalidateTagged(Collections.singleton("sales"));
+        Assert.assertNull(cache.get("1", null));
+        Assert.assertNotNull(cache.get("2", null));
+
+        cache.invalidateTagged(Arrays.asList("team", "unknown"));
+        Assert.assertNull(cache.get("2", null));
+        Assert.assertNotNull(cache.get("3", null));
+    }
+
+    @Test
+    public void testTagIndexFollowsReplacedEntries() throws Exception {
+
+        ResourceCache<User> cache = taggedCache(10);
+        tags.put("kim", Collections.singletonList("team"));
+        cache.put("1", Collections.singleton("userName"), user("kim"), cache.getGeneration());
+        // The wider entry replaces the narrower one, along with its tags.
+        tags.put("kim2", Collections.singletonList("sales"));
+        cache.put("1", null, user("kim2"), cache.getGeneration());
+
+        cache.invalidateTagged(Collections.singleton("team"));
+        Assert.assertEquals(cache.get("1", null).getId(), "kim2");
+
+        cache.invalidateTagged(Collections.singleton("sales"));
+        Assert.assertNull(cache.get("1", Collections.singleton("userName")));
+
+        // A resource cached again after an invalidation is indexed by its new tags only.
+        cache.put("1", null, user("kim"), cache.getGeneration());
+        cache.invalidateTagged(Collections.singleton("sales"));
+        Assert.assertNotNull(cache.get("1", null));
+        cache.invalidateTagged(Collections.singleton("team"));
+        Assert.assertNull(cache.get("1", null));
+    }
+
+    @Test
+    public void testStaleLoadIsRefused() throws Exception {
+
+        ResourceCache<User> cache = taggedCache(10);
+        tags.put("kim", Collections.singletonList("team"));
+
+        long generation = cache.getGeneration();
+        // A write invalidates the resource while it is being loaded.
+        cache.invalidate("1");
+        cache.put("1", null, user("kim"), generation);
+        Assert.assertNull(cache.get("1", null));
+
+        generation = cache.getGeneration();
+        cache.invalidateTagged(Collections.singleton("team"));
+        cache.put("1", null, user("kim"), generation);
+        Assert.assertNull(cache.get("1", null));
+
+        // Invalidations of other ids and tags do not keep the resource out.
+        generation = cache.getGeneration();
+        cache.invalidate("2");
+        cache.invalidateTagged(Collections.singleton("sales"));
+        cache.put("1", null, user("kim"), generation);
+        Assert.assertNotNull(cache.get("1", null));
+    }
+
+    @Test
+    public void testLoadOlderThanTheInvalidationLogIsRefused() throws Exception {
+
+        ResourceCache<User> cache = new ResourceCache<>(10, TIME_TO_LIVE);
+        long generation = cache.getGeneration();
+        for (int i = 0; i < 2000; i++) {
+            cache.invalidate("other" + i);
+        }
+
+        cache.put("1", null, user("kim"), generation);
+
+        Assert.assertNull(cache.get("1", null));
+    }
+
+    @Test
+    public void testWiderProjectionServesNarrowerOne() throws Exception {
+
+        ResourceCache<User> cache = new ResourceCache<>(10, TIME_TO_LIVE);
+        User kim = user("kim");
+        cache.put("1", projection("userName", "name"), kim, cache.getGeneration());
+
+        Assert.assertSame(cache.get("1", Collections.singleton("userName")), kim);
+        Assert.assertSame(cache.get("1", projection("name", "userName")), kim);
+        Assert.assertNull(cache.get("1", Collections.singleton("emails")));
+        Assert.assertNull(cache.get("1", null));
+
+        User kimWithAll = user("kim");
+        cache.put("1", null, kimWithAll, cache.getGeneration());
+        Assert.assertSame(cache.get("1", Collections.singleton("emails")), kimWithAll);
+        Assert.assertSame(cache.get("1", Collections.singleton("userName")), kimWithAll);
+    }
+
+    @Test
+    public void testAdmissionWhenFull() throws Exception {
+
+        ResourceCache<User> cache = new ResourceCache<>(2, TIME_TO_LIVE);
+        cache.put("1", null, user("kim"), cache.getGeneration());
+        cache.put("2", null, user("kris"), cache.getGeneration());
+        for (int i = 0; i < 3; i++) {
+            cache.get("1", null);
+            cache.get("2", null);
+        }
+
+        // A rarely used id does not evict the least recently used one.
+        Assert.assertNull(cache.get("3", null));
+        cache.put("3", null, user("kane"), cache.getGeneration());
+        Assert.assertEquals(cache.getStatistics().getRejectionCount(), 1);
+        Assert.assertNotNull(cache.get("1", null));
+
+        // Once it is used more often, it does, and it is the least recently used id which goes.
+        for (int i = 0; i < 5; i++) {
+            cache.get("3", null);
+        }
+        cache.put("3", null, user("kane"), cache.getGeneration());
+        Assert.assertEquals(cache.getStatistics().getEvictionCount(), 1);
+        Assert.assertEquals(cache.getStatistics().getSize(), 2);
+        Assert.assertNotNull(cache.get("3", null));
+        Assert.assertNotNull(cache.get("1", null));
+        Assert.assertNull(cache.get("2", null));
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+
+        ResourceCache<User> expiringCache = new ResourceCache<>(10, Duration.ZERO);
+        expiringCache.put("1", null, user("kim"), expiringCache.getGeneration());
+        Assert.assertNull(expiringCache.get("1", null));
+        Assert.assertEquals(expiringCache.getStatistics().getSize(), 0);
+
+        ResourceCache<User> cache = new ResourceCache<>(1, Duration.ofMillis(200));
+        cache.put("1", null, user("kim"), cache.getGeneration());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertNotNull(cache.get("1", null));
+        }
+        Thread.sleep(300);
+
+        // An expired id is evicted for a new one, however often it was used.
+        cache.put("2", null, user("kris"), cache.getGeneration());
+        Assert.assertEquals(cache.getStatistics().getEvictionCount(), 1);
+        Assert.assertEquals(cache.getStatistics().getRejectionCount(), 0);
+        Assert.assertNotNull(cache.get("2", null));
+        Assert.assertNull(cache.get("1", null));
+    }
+
+    private ResourceCache<User> taggedCache(int maximumSize) {
+
+        return new ResourceCache<>(maximumSize, TIME_TO_LIVE,
+                user -> tags.getOrDefault(user.getId(), Collections.emptySet()));
+    }
+
+    private static User user(String userName) throws Exception {
+
+        // The user name doubles as the id, which the tags of the test caches are looked up by.
+        User user = new User();
+        user.setId(userName);
+        user.replaceUserName(userName);
+        return user;
+    }
+
+    private static Set<String> projection(String... attributeURIs) {
+
+        return new HashSet<>(Arrays.asList(attributeURIs));
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.exceptions.CharonException;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.schema.SCIMConstants;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class of CachingUserManager.
+ */
+public class CachingUserManagerTest {
+
+    private static final String USER_NAME_URI = "urn:ietf:params:scim:schemas:core:2.0:User:userName";
+
+    private CountingUserManager userManager;
+    private CachingUserManager cachingUserManager;
+    private List<String> invalidations;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        userManager = new CountingUserManager();
+        cachingUserManager = new CachingUserManager(userManager, 100, Duration.ofMinutes(10));
+        invalidations = new ArrayList<>();
+        cachingUserManager.addInvalidationListener((resourceType, ids) ->
+                invalidations.add(resourceType + ":" + (ids == null ? "*" : String.join(",", ids))));
+        for (int i = 1; i <= 3; i++) {
+            cachingUserManager.createUser(user("user" + i), new HashMap<>());
+        }
+        Group group = new Group();
+        group.setId("team");
+        group.replaceDisplayName("team");
+        group.setMember("user1", "user1", null, null);
+        group.setMember("user2", "user2", null, null);
+        cachingUserManager.createGroup(group, new HashMap<>());
+        invalidations.clear();
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromTheCache() throws Exception {
+
+        cachingUserManager.getUser("user1", null);
+        cachingUserManager.getUser("user1", null);
+        cachingUserManager.getGroup("team", null);
+        cachingUserManager.getGroup("team", null);
+
+        Assert.assertEquals(userManager.userReads, 1);
+        Assert.assertEquals(userManager.groupReads, 1);
+        Assert.assertEquals(cachingUserManager.getUserCacheStatistics().getHitCount(), 1);
+        Assert.assertEquals(cachingUserManager.getUserCacheStatistics().getMissCount(), 1);
+    }
+
+    @Test
+    public void testResourcesAreCopiedInAndOut() throws Exception {
+
+        // The loaded resource is handed out, so the cache keeps a copy of it.
+        cachingUserManager.getUser("user1", null).replaceDisplayName("changed");
+        User cachedUser = cachingUserManager.getUser("user1", null);
+        Assert.assertNull(cachedUser.getDisplayName());
+
+        // A resource served from the cache is a copy as well.
+        cachedUser.replaceDisplayName("changed");
+        Assert.assertNull(cachingUserManager.getUser("user1", null).getDisplayName());
+        Assert.assertEquals(userManager.userReads, 1);
+    }
+
+    @Test
+    public void testWiderProjectionServesNarrowerOne() throws Exception {
+
+        cachingUserManager.getUser("user1", null);
+        User user = cachingUserManager.getUser("user1", Collections.singletonMap(USER_NAME_URI, true));
+        Assert.assertEquals(user.getUserName(), "user1");
+        Assert.assertEquals(userManager.userReads, 1);
+
+        // A narrower projection does not serve a wider one.
+        cachingUserManager.getUser("user2", Collections.singletonMap(USER_NAME_URI, true));
+        cachingUserManager.getUser("user2", null);
+        Assert.assertEquals(userManager.userReads, 3);
+    }
+
+    @Test
+    public void testUserWriteInvalidatesTheUserAndItsGroups() throws Exception {
+
+        cachingUserManager.getUser("user1", null);
+        cachingUserManager.getUser("user3", null);
+        cachingUserManager.getGroup("team", null);
+
+        User user = cachingUserManager.getUser("user1", null);
+        user.replaceDisplayName("User One");
+        cachingUserManager.updateUser(user, new HashMap<>());
+
+        Assert.assertEquals(cachingUserManager.getUser("user1", null).getDisplayName(), "User One");
+        cachingUserManager.getGroup("team", null);
+        cachingUserManager.getUser("user3", null);
+        Assert.assertEquals(userManager.userReads, 3);
+        Assert.assertEquals(userManager.groupReads, 2);
+        Assert.assertEquals(invalidations, Collections.singletonList(SCIMConstants.USER + ":user1"));
+    }
+
+    @Test
+    public void testDeletedUserLeavesTheCachedGroups() throws Exception {
+
+        Assert.assertEquals(cachingUserManager.getGroup("team", null).getMembers(), Arrays.asList("user1", "user2"));
+
+        cachingUserManager.deleteUser("user1");
+
+        Assert.assertEquals(cachingUserManager.getGroup("team", null).getMembers(),
+                Collections.singletonList("user2"));
+        Assert.assertEquals(userManager.groupReads, 2);
+    }
+
+    @Test
+    public void testGroupWriteInvalidatesTheMembers() throws Exception {
+
+        Assert.assertTrue(cachingUserManager.getUser("user3", null).getGroups().isEmpty());
+        Assert.assertEquals(cachingUserManager.getUser("user1", null).getGroups().size(), 1);
+        cachingUserManager.getUser("user2", null);
+
+        cachingUserManager.patchGroupMembers(new GroupMemberDelta("team", null,
+                Collections.singletonList(Collections.singletonMap(SCIMConstants.CommonSchemaConstants.VALUE,
+                        "user3")), Collections.singleton("user1")), new HashMap<>());
+
+        // Added members are invalidated by id and removed members through their groups.
+        Assert.assertEquals(cachingUserManager.getUser("user3", null).getGroups().size(), 1);
+        Assert.assertTrue(cachingUserManager.getUser("user1", null).getGroups().isEmpty());
+        Assert.assertEquals(cachingUserManager.getGroup("team", null).getMembers(), Arrays.asList("user2", "user3"));
+        Assert.assertTrue(invalidations.contains(SCIMConstants.GROUP + ":team"));
+    }
+
+    @Test
+    public void testStaleLoadIsNotCached() throws Exception {
+
+        // A write made through the cache while the user is being loaded.
+        userManager.duringRead = () -> {
+            User user = userManager.getStoredUser("user1");
+            user.replaceDisplayName("User One");
+            cachingUserManager.updateUser(user, new HashMap<>());
+        };
+        Assert.assertNull(cachingUserManager.getUser("user1", null).getDisplayName());
+        userManager.duringRead = null;
+
+        Assert.assertEquals(cachingUserManager.getUser("user1", null).getDisplayName(), "User One");
+        Assert.assertEquals(userManager.userReads, 2);
+        Assert.assertEquals(cachingUserManager.getUserCacheStatistics().getSize(), 1);
+    }
+
+    @Test
+    public void testRemoteInvalidation() throws Exception {
+
+        cachingUserManager.getUser("user1", null);
+        cachingUserManager.getGroup("team", null);
+
+        cachingUserManager.invalidate(SCIMConstants.USER, Collections.singleton("user1"));
+        cachingUserManager.getUser("user1", null);
+        cachingUserManager.getGroup("team", null);
+        Assert.assertEquals(userManager.userReads, 2);
+        Assert.assertEquals(userManager.groupReads, 2);
+
+        cachingUserManager.invalidate(SCIMConstants.GROUP, null);
+        Assert.assertEquals(cachingUserManager.getUserCacheStatistics().getSize(), 0);
+        Assert.assertEquals(cachingUserManager.getGroupCacheStatistics().getSize(), 0);
+        // Remote invalidations are not forwarded again.
+        Assert.assertTrue(invalidations.isEmpty());
+    }
+
+    private static User user(String id) throws Exception {
+
+        User user = new User();
+        user.setId(id);
+        user.replaceUserName(id);
+        return user;
+    }
+
+    /**
+     * In-memory user manager counting the reads which reach it.
+     */
+    private static class CountingUserManager extends InMemoryUserManager {
+
+        private int userReads;
+        private int groupReads;
+        private ConcurrentWrite duringRead;
+
+        CountingUserManager() {
+
+            super(4);
+        }
+
+        @Override
+        public User getUser(String id, Map<String, Boolean> map)
+                throws CharonException, BadRequestException, NotFoundException {
+
+            userReads++;
+            User user = super.getUser(id, map);
+            if (duringRead != null) {
+                try {
+                    duringRead.run();
+                } catch (Exception e) {
+                    throw new CharonException("Error while writing during a read", e);
+                }
+            }
+            return user;
+        }
+
+        @Override
+        public Group getGroup(String id, Map<String, Boolean> map)
+                throws NotImplementedException, BadRequestException, CharonException, NotFoundException {
+
+            groupReads++;
+            return super.getGroup(id, map);
+        }
+
+        User getStoredUser(String id) throws Exception {
+
+            return super.getUser(id, null);
+        }
+    }
+
+    /**
+     * Write made while a read is in progress.
+     */
+    private interface ConcurrentWrite {
+
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.exceptions.BadRequestException;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Test class of ChangeLog.
+ */
+public class ChangeLogTest {
+
+    @Test
+    public void testChangesSinceWatermark() throws Exception {
+
+        ChangeLog changeLog = new ChangeLog(Duration.ofDays(1));
+        changeLog.recordChange("kim");
+        changeLog.recordChange("kris");
+        ChangeLog.Changes initial = changeLog.getChangesSince("", null);
+        Assert.assertEquals(initial.getChangedIds(), Arrays.asList("kim", "kris"));
+        Assert.assertEquals(initial.getTotal(), 2);
+
+        changeLog.recordChange("kane");
+        changeLog.recordChange("kim");
+        changeLog.recordDeletion("kris");
+        ChangeLog.Changes changes = changeLog.getChangesSince(initial.getWatermark(), null);
+
+        // Only the latest change of a resource is kept, in the order of the changes.
+        Assert.assertEquals(changes.getChangedIds(), Arrays.asList("kane", "kim"));
+        Assert.assertEquals(changes.getDeletedIds(), Collections.singletonList("kris"));
+        Assert.assertEquals(changes.getTotal(), 3);
+        ChangeLog.Changes noChanges = changeLog.getChangesSince(changes.getWatermark(), null);
+        Assert.assertTrue(noChanges.getChangedIds().isEmpty());
+        Assert.assertTrue(noChanges.getDeletedIds().isEmpty());
+        Assert.assertEquals(noChanges.getWatermark(), changes.getWatermark());
+    }
+
+    @Test
+    public void testInitialListingSkipsTombstones() throws Exception {
+
+        ChangeLog changeLog = new ChangeLog(Duration.ofDays(1));
+        changeLog.recordChange("kim");
+        changeLog.recordChange("kris");
+        changeLog.recordDeletion("kim");
+
+        ChangeLog.Changes changes = changeLog.getChangesSince(null, null);
+
+        Assert.assertEquals(changes.getChangedIds(), Collections.singletonList("kris"));
+        Assert.assertTrue(changes.getDeletedIds().isEmpty());
+        Assert.assertEquals(changes.getTotal(), 1);
+    }
+
+    @Test
+    public void testRelatedChangeDoesNotReviveTombstone() throws Exception {
+
+        ChangeLog changeLog = new ChangeLog(Duration.ofDays(1));
+        changeLog.recordChange("kim");
+        String watermark = changeLog.getChangesSince("", null).getWatermark();
+        changeLog.recordDeletion("kim");
+        changeLog.recordRelatedChange("kim");
+        Assert.assertEquals(changeLog.getChangesSince(watermark, null).getDeletedIds(),
+                Collections.singletonList("kim"));
+
+        // A resource created again with the id of a deleted one is changed, not deleted.
+        changeLog.recordChange("kim");
+        ChangeLog.Changes changes = changeLog.getChangesSince(watermark, null);
+        Assert.assertEquals(changes.getChangedIds(), Collections.singletonList("kim"));
+        Assert.assertTrue(changes.getDeletedIds().isEmpty());
+    }
+
+    @Test
+    public void testCountedChangesContinueFromTheirWatermark() throws Exception {
+
+        ChangeLog changeLog = new ChangeLog(Duration.ofDays(1));
+        for (int i = 0; i < 5; i++) {
+            changeLog.recordChange("user" + i);
+        }
+        changeLog.recordDeletion("user1");
+
+        Set<String> seenIds = new HashSet<>();
+        String watermark = "";
+        for (int page = 0; page < 3; page++) {
+            ChangeLog.Changes changes = changeLog.getChangesSince(watermark, 2);
+            Assert.assertTrue(changes.getChangedIds().size() + changes.getDeletedIds().size() <= 2);
+            seenIds.addAll(changes.getChangedIds());
+            watermark = changes.getWatermark();
+        }
+
+        Assert.assertEquals(seenIds, new HashSet<>(Arrays.asList("user0", "user2", "user3", "user4")));
+        Assert.assertTrue(changeLog.getChangesSince(watermark, 2).getChangedIds().isEmpty());
+    }
+
+    @Test
+    public void testPurgedTombstonesRejectOlderWatermarks() throws Exception {
+
+        ChangeLog changeLog = new ChangeLog(Duration.ZERO);
+        changeLog.recordChange("kim");
+        changeLog.recordChange("kris");
+        String watermark = changeLog.getChangesSince("", null).getWatermark();
+        changeLog.recordDeletion("kim");
+        Thread.sleep(10);
+
+        ChangeLog.Changes changes = changeLog.getChangesSince("", null);
+        Assert.assertEquals(changes.getChangedIds(), Collections.singletonList("kris"));
+        try {
+            changeLog.getChangesSince(watermark, null);
+            Assert.fail("A watermark older than a purged tombstone must be rejected");
+        } catch (BadRequestException e) {
+            Assert.assertEquals(e.getScimType(), ResponseCodeConstants.INVALID_WATERMARK);
+        }
+        // The watermark issued after the purge is still answered.
+        Assert.assertTrue(changeLog.getChangesSince(changes.getWatermark(), null).getDeletedIds().isEmpty());
+    }
+
+    @Test(expectedExceptions = BadRequestException.class)
+    public void testWatermarkOfAnotherLogIsRejected() throws Exception {
+
+        new ChangeLog(Duration.ofDays(1)).getChangesSince("0.1", null);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.encoder.JSONDecoder;
+import org.wso2.charon3.core.exceptions.NotFoundException;
+import org.wso2.charon3.core.exceptions.NotImplementedException;
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.protocol.ResponseCodeConstants;
+import org.wso2.charon3.core.protocol.SCIMResponse;
+import org.wso2.charon3.core.protocol.endpoints.AbstractResourceManager;
+import org.wso2.charon3.core.protocol.endpoints.GroupResourceManager;
+import org.wso2.charon3.core.schema.SCIMConstants;
+import org.wso2.charon3.core.schema.SCIMResourceTypeSchema;
+import org.wso2.charon3.core.schema.SCIMSchemaDefinitions;
+import org.wso2.charon3.core.utils.ResourceManagerUtil;
+import org.wso2.charon3.core.utils.codeutils.SearchRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Test class of InMemoryUserManager.
+ */
+public class InMemoryUserManagerTest {
+
+    private static final String GROUP_MEMBERS_PATCH_REQUEST = "{\"schemas\":" +
+            "[\"urn:ietf:params:scim:api:messages:2.0:PatchOp\"],\"Operations\":[" +
+            "{\"op\":\"add\",\"value\":{\"members\":[{\"value\":\"user3\"}]}}," +
+            "{\"op\":\"remove\",\"path\":\"members[value eq \\\"user1\\\"]\"}]}";
+
+    private InMemoryUserManager userManager;
+
+    @BeforeClass
+    public void setUpEndpoints() {
+
+        Map<String, String> endpointURLs = new HashMap<>();
+        endpointURLs.put(SCIMConstants.USER_ENDPOINT, "https://localhost:9443/scim2/Users");
+        endpointURLs.put(SCIMConstants.GROUP_ENDPOINT, "https://localhost:9443/scim2/Groups");
+        AbstractResourceManager.setEndpointURLMap(endpointURLs);
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        userManager = new InMemoryUserManager(4);
+        for (int i = 1; i <= 3; i++) {
+            userManager.createUser(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"]," +
+                    "\"id\":\"user" + i + "\",\"userName\":\"user" + i + "\"}"), new HashMap<>());
+            userManager.createGroup(decodeGroup("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:Group\"]," +
+                    "\"id\":\"group" + i + "\",\"displayName\":\"group" + i + "\"}"), new HashMap<>());
+        }
+    }
+
+    @DataProvider(name = "dataForSearchWithPost")
+    public Object[][] dataForSearchWithPost() {
+
+        return new Object[][]{
+                {"{\"schemas\":[\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"]}", 3},
+                {"{\"schemas\":[\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],\"startIndex\":2}", 2},
+                {"{\"schemas\":[\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],\"count\":2}", 2},
+                {"{\"schemas\":[\"urn:ietf:params:scim:api:messages:2.0:SearchRequest\"],\"count\":0}", 0}
+        };
+    }
+
+    @Test(dataProvider = "dataForSearchWithPost")
+    public void testListUsersWithPost(String searchRequestBody, int expectedUsers) throws Exception {
+
+        SearchRequest searchRequest = decodeSearchRequest(searchRequestBody, SCIMSchemaDefinitions.SCIM_USER_SCHEMA);
+        Assert.assertEquals(userManager.listUsersWithPost(searchRequest, new HashMap<>()).getUsers().size(),
+                expectedUsers);
+    }
+
+    @Test(dataProvider = "dataForSearchWithPost")
+    public void testListGroupsWithPost(String searchRequestBody, int expectedGroups) throws Exception {
+
+        SearchRequest searchRequest = decodeSearchRequest(searchRequestBody, SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA);
+        Assert.assertEquals(userManager.listGroupsWithPost(searchRequest, new HashMap<>()).getGroups().size(),
+                expectedGroups);
+    }
+
+    @Test
+    public void testPatchGroupMembers() throws Exception {
+
+        createTeam(userManager);
+        String version = userManager.getGroupVersion("team");
+
+        Group patchedGroup = userManager.patchGroupMembers(new GroupMemberDelta("team", "renamed",
+                Collections.singletonList(Collections.singletonMap(SCIMConstants.CommonSchemaConstants.VALUE,
+                        "user3")), Collections.singleton("user1")), new HashMap<>());
+
+        Assert.assertEquals(patchedGroup.getMembers(), Arrays.asList("user2", "user3"));
+        Assert.assertEquals(patchedGroup.getDisplayName(), "renamed");
+        Assert.assertNotEquals(patchedGroup.getVersion(), version);
+        Assert.assertEquals(userManager.getGroupVersion("team"), patchedGroup.getVersion());
+        Assert.assertEquals(userManager.getGroup("team", new HashMap<>()).getMembers(),
+                Arrays.asList("user2", "user3"));
+        Assert.assertEquals(userManager.membershipIndex.getMembersOfGroup("team"),
+                new LinkedHashSet<>(Arrays.asList("user2", "user3")));
+        Assert.assertTrue(userManager.membershipIndex.getGroupsOfMember("user1").isEmpty());
+        Assert.assertEquals(userManager.membershipIndex.getGroupsOfMember("user3"), Collections.singleton("team"));
+    }
+
+    @Test
+    public void testPatchGroupMembersRemovesAndAddsAgain() throws Exception {
+
+        createTeam(userManager);
+
+        Group patchedGroup = userManager.patchGroupMembers(new GroupMemberDelta("team", null,
+                Collections.singletonList(Collections.singletonMap(SCIMConstants.CommonSchemaConstants.VALUE,
+                        "user1")), Collections.singleton("user1")), new HashMap<>());
+
+        Assert.assertEquals(patchedGroup.getMembers(), Arrays.asList("user2", "user1"));
+        Assert.assertEquals(patchedGroup.getDisplayName(), "team");
+        Assert.assertEquals(userManager.membershipIndex.getGroupsOfMember("user1"), Collections.singleton("team"));
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void testPatchGroupMembersOfMissingGroup() throws Exception {
+
+        userManager.patchGroupMembers(new GroupMemberDelta("missing", null, Collections.emptyList(),
+                Collections.singleton("user1")), new HashMap<>());
+    }
+
+    @DataProvider(name = "dataForGroupMembersPatch")
+    public Object[][] dataForGroupMembersPatch() {
+
+        return new Object[][]{
+                {new InMemoryUserManager(4)},
+                // A user store without member deltas is patched by the operations instead.
+                {new InMemoryUserManager(4) {
+                    @Override
+                    public Group patchGroupMembers(GroupMemberDelta delta, Map<String, Boolean> requiredAttributes)
+                            throws NotImplementedException {
+
+                        throw new NotImplementedException("Patching group members by their delta is not supported");
+                    }
+                }}
+        };
+    }
+
+    @Test(dataProvider = "dataForGroupMembersPatch")
+    public void testPatchGroupMembersThroughEndpoint(InMemoryUserManager userManager) throws Exception {
+
+        for (int i = 1; i <= 3; i++) {
+            userManager.createUser(decodeUser("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:User\"]," +
+                    "\"id\":\"user" + i + "\",\"userName\":\"user" + i + "\"}"), new HashMap<>());
+        }
+        createTeam(userManager);
+        String version = userManager.getGroupVersion("team");
+
+        SCIMResponse response = new GroupResourceManager().updateWithPATCH("team", GROUP_MEMBERS_PATCH_REQUEST,
+                userManager, null, null);
+
+        Assert.assertEquals(response.getResponseStatus(), ResponseCodeConstants.CODE_OK);
+        Assert.assertEquals(userManager.getGroup("team", new HashMap<>()).getMembers(),
+                Arrays.asList("user2", "user3"));
+        Assert.assertNotEquals(userManager.getGroupVersion("team"), version);
+        Assert.assertTrue(userManager.membershipIndex.getGroupsOfMember("user1").isEmpty());
+        Assert.assertEquals(userManager.membershipIndex.getGroupsOfMember("user3"), Collections.singleton("team"));
+    }
+
+    private void createTeam(InMemoryUserManager userManager) throws Exception {
+
+        userManager.createGroup(decodeGroup("{\"schemas\":[\"urn:ietf:params:scim:schemas:core:2.0:Group\"]," +
+                "\"id\":\"team\",\"displayName\":\"team\"," +
+                "\"members\":[{\"value\":\"user1\"},{\"value\":\"user2\"}]}"), new HashMap<>());
+    }
+
+    /*
+     * Decodes a search request the way the POST /.search endpoints do.
+     */
+    private SearchRequest decodeSearchRequest(String searchRequestBody, SCIMResourceTypeSchema schema)
+            throws Exception {
+
+        SearchRequest searchRequest = new JSONDecoder().decodeSearchRequestBody(searchRequestBody, schema);
+        searchRequest.setCount(ResourceManagerUtil.processCount(searchRequest.getCountStr()));
+        searchRequest.setStartIndex(ResourceManagerUtil.processStartIndex(searchRequest.getStartIndexStr()));
+        return searchRequest;
+    }
+
+    private User decodeUser(String userString) throws Exception {
+
+        return new JSONDecoder().decodeResource(userString, SCIMSchemaDefinitions.SCIM_USER_SCHEMA, new User());
+    }
+
+    private Group decodeGroup(String groupString) throws Exception {
+
+        return new JSONDecoder().decodeResource(groupString, SCIMSchemaDefinitions.SCIM_GROUP_SCHEMA, new Group());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Test class of MembershipIndex.
+ */
+public class MembershipIndexTest {
+
+    @Test
+    public void testReindexGroupSyncsBothDirections() {
+
+        MembershipIndex index = new MembershipIndex(4);
+        Map<String, List<String>> groups = new HashMap<>();
+        groups.put("team", Arrays.asList("kim", "kris"));
+        index.reindexGroup("team", groups::get);
+
+        groups.put("team", Arrays.asList("kris", "kane"));
+        Set<String> changedMemberIds = index.reindexGroup("team", groups::get);
+
+        Assert.assertEquals(changedMemberIds, new HashSet<>(Arrays.asList("kim", "kane")));
+        Assert.assertEquals(index.getMembersOfGroup("team"), new LinkedHashSet<>(Arrays.asList("kris", "kane")));
+        Assert.assertTrue(index.getGroupsOfMember("kim").isEmpty());
+        Assert.assertEquals(index.getGroupsOfMember("kane"), Collections.singleton("team"));
+        Assert.assertEquals(index.countGroupsOfMember("kris"), 1);
+    }
+
+    @Test
+    public void testReindexDeletedGroup() {
+
+        MembershipIndex index = new MembershipIndex(4);
+        Map<String, List<String>> groups = new HashMap<>();
+        groups.put("team", Arrays.asList("kim", "sales"));
+        groups.put("sales", Collections.singletonList("kris"));
+        groups.put("all", Collections.singletonList("team"));
+        for (String groupId : groups.keySet()) {
+            index.reindexGroup(groupId, groups::get);
+        }
+
+        groups.remove("team");
+        Assert.assertEquals(index.reindexGroup("team", groups::get),
+                new LinkedHashSet<>(Arrays.asList("kim", "sales")));
+
+        Assert.assertTrue(index.getMembersOfGroup("team").isEmpty());
+        Assert.assertTrue(index.getGroupsOfMember("kim").isEmpty());
+        Assert.assertTrue(index.getGroupsOfMember("sales").isEmpty());
+        // A deleted group is no longer a member of other groups either.
+        Assert.assertFalse(index.isMember("all", "team"));
+        Assert.assertTrue(index.isMember("sales", "kris"));
+    }
+
+    @Test
+    public void testRemoveMember() {
+
+        MembershipIndex index = new MembershipIndex(4);
+        index.indexGroup("team", Arrays.asList("kim", "kris"));
+        index.indexGroup("sales", Collections.singletonList("kim"));
+
+        Assert.assertEquals(index.removeMember("kim"), new HashSet<>(Arrays.asList("team", "sales")));
+        Assert.assertEquals(index.getMembersOfGroup("team"), Collections.singleton("kris"));
+        Assert.assertTrue(index.getMembersOfGroup("sales").isEmpty());
+        Assert.assertTrue(index.getGroupsOfMember("kim").isEmpty());
+    }
+
+    @Test
+    public void testReindexGroupByDelta() {
+
+        MembershipIndex index = new MembershipIndex(4);
+        Map<String, List<String>> groups = new HashMap<>();
+        groups.put("team", Arrays.asList("kim", "kris"));
+        index.reindexGroup("team", groups::get);
+
+        groups.put("team", Arrays.asList("kris", "kane"));
+        Set<String> changedMemberIds = index.reindexGroup("team", Collections.singleton("kane"),
+                Collections.singleton("kim"), groupId -> true, groupId -> {
+                    throw new AssertionError("The delta of the stored copy is applied without reading it");
+                });
+
+        Assert.assertEquals(changedMemberIds, new HashSet<>(Arrays.asList("kim", "kane")));
+        Assert.assertEquals(index.getMembersOfGroup("team"), new LinkedHashSet<>(Arrays.asList("kris", "kane")));
+        Assert.assertTrue(index.getGroupsOfMember("kim").isEmpty());
+        Assert.assertEquals(index.getGroupsOfMember("kane"), Collections.singleton("team"));
+    }
+
+    @Test
+    public void testReindexGroupBySupersededDelta() {
+
+        MembershipIndex index = new MembershipIndex(4);
+        Map<String, List<String>> groups = new HashMap<>();
+        groups.put("team", Arrays.asList("kim", "kris"));
+        index.reindexGroup("team", groups::get);
+
+        // Another writer replaced the patched copy, so the group is reindexed from its latest copy.
+        groups.put("team", Collections.singletonList("kate"));
+        index.reindexGroup("team", Collections.singleton("kane"), Collections.singleton("kim"), groupId -> false,
+                groups::get);
+
+        Assert.assertEquals(index.getMembersOfGroup("team"), Collections.singleton("kate"));
+        Assert.assertTrue(index.getGroupsOfMember("kane").isEmpty());
+        Assert.assertTrue(index.getGroupsOfMember("kris").isEmpty());
+    }
+
+    @Test
+    public void testConcurrentReindexConvergesToTheLatestCopy() throws Exception {
+
+        MembershipIndex index = new MembershipIndex(4);
+        Map<String, List<String>> groups = new ConcurrentHashMap<>();
+
+        ShardedResourceStoreTest.runConcurrently(thread -> {
+            for (int i = 0; i < 500; i++) {
+                String groupId = "group" + (i % 10);
+                groups.put(groupId, Arrays.asList("member" + thread, "member" + (thread + i) % 20));
+                index.reindexGroup(groupId, groups::get);
+                if (i % 7 == 0) {
+                    index.removeMember("member" + thread);
+                    // The removal is made to the group copies as well, as the store does.
+                    groups.put(groupId, Collections.singletonList("member" + (thread + i) % 20));
+                    index.reindexGroup(groupId, groups::get);
+                }
+            }
+        });
+        for (String groupId : groups.keySet()) {
+            index.reindexGroup(groupId, groups::get);
+        }
+
+        for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+            Assert.assertEquals(index.getMembersOfGroup(group.getKey()), new LinkedHashSet<>(group.getValue()));
+        }
+        for (int member = 0; member < 20; member++) {
+            String memberId = "member" + member;
+            for (String groupId : index.getGroupsOfMember(memberId)) {
+                Assert.assertTrue(groups.get(groupId).contains(memberId));
+            }
+            for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+                Assert.assertEquals(index.isMember(group.getKey(), memberId), group.getValue().contains(memberId));
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.utils.CopyUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class of ShardedResourceStore.
+ */
+public class ShardedResourceStoreTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 2000;
+
+    @Test
+    public void testReplaceComparesByIdentity() throws Exception {
+
+        ShardedResourceStore<User> store = new ShardedResourceStore<>(4);
+        User stored = user("kim");
+        store.put("1", stored);
+
+        Assert.assertFalse(store.replace("1", (User) CopyUtil.deepCopy(stored), user("kris")));
+        Assert.assertSame(store.get("1"), stored);
+
+        User replacement = user("kris");
+        Assert.assertTrue(store.replace("1", stored, replacement));
+        Assert.assertSame(store.get("1"), replacement);
+        // The instance read before the replace is stale now.
+        Assert.assertFalse(store.replace("1", stored, user("kane")));
+        Assert.assertFalse(store.replace("2", stored, user("kane")));
+        Assert.assertNull(store.get("2"));
+    }
+
+    @Test
+    public void testPutIfAbsentAndRemove() {
+
+        ShardedResourceStore<User> store = new ShardedResourceStore<>(4);
+        User stored = user("kim");
+
+        Assert.assertTrue(store.putIfAbsent("1", stored));
+        Assert.assertFalse(store.putIfAbsent("1", user("kris")));
+        Assert.assertSame(store.get("1"), stored);
+        Assert.assertSame(store.remove("1"), stored);
+        Assert.assertNull(store.remove("1"));
+        Assert.assertEquals(store.size(), 0);
+        Assert.assertFalse(store.ids(null).hasNext());
+    }
+
+    @Test
+    public void testIdsAreMergedInOrder() {
+
+        ShardedResourceStore<User> store = new ShardedResourceStore<>(4);
+        Set<String> ids = new TreeSet<>();
+        for (int i = 0; i < 100; i++) {
+            String id = Integer.toString(i * 7919 % 1000);
+            ids.add(id);
+            store.put(id, user(id));
+        }
+        store.remove("0");
+        ids.remove("0");
+
+        Assert.assertEquals(toList(store.ids(null)), new ArrayList<>(ids));
+        String afterId = new ArrayList<>(ids).get(49);
+        Assert.assertEquals(toList(store.ids(afterId)), new ArrayList<>(((TreeSet<String>) ids).tailSet(afterId,
+                false)));
+        Assert.assertEquals(store.size(), ids.size());
+        int values = 0;
+        for (Iterator<User> iterator = store.values(); iterator.hasNext(); iterator.next()) {
+            values++;
+        }
+        Assert.assertEquals(values, ids.size());
+    }
+
+    @Test
+    public void testConcurrentReplacesAreNotLost() throws Exception {
+
+        ShardedResourceStore<User> store = new ShardedResourceStore<>(4);
+        User initial = user("0");
+        store.put("1", initial);
+        // Every stored instance points at the instance it replaced, so a lost update breaks the chain.
+        Map<User, User> replaced = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                while (true) {
+                    User expected = store.get("1");
+                    User replacement = user(thread + "." + i);
+                    if (store.replace("1", expected, replacement)) {
+                        replaced.put(replacement, expected);
+                        break;
+                    }
+                }
+            }
+        });
+
+        int chainLength = 0;
+        User current = store.get("1");
+        while (current != initial) {
+            current = replaced.get(current);
+            Assert.assertNotNull(current);
+            chainLength++;
+        }
+        Assert.assertEquals(chainLength, THREADS * WRITES_PER_THREAD);
+    }
+
+    @Test
+    public void testConcurrentWritesKeepTheIdIndex() throws Exception {
+
+        ShardedResourceStore<User> store = new ShardedResourceStore<>(4);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                String id = thread + "." + i;
+                store.put(id, user(id));
+                if (i % 3 == 0) {
+                    store.remove(id);
+                }
+            }
+        });
+
+        Set<String> storedIds = new TreeSet<>();
+        for (Iterator<User> iterator = store.values(); iterator.hasNext(); ) {
+            storedIds.add(iterator.next().getUserName());
+        }
+        Assert.assertEquals(storedIds.size(), THREADS * (WRITES_PER_THREAD - (WRITES_PER_THREAD + 2) / 3));
+        Assert.assertEquals(toList(store.ids(null)), new ArrayList<>(storedIds));
+        Assert.assertEquals(store.size(), storedIds.size());
+    }
+
+    static void runConcurrently(Writer writer) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    writer.write(threadNumber);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User user(String userName) {
+
+        User user = new User();
+        user.replaceUserName(userName);
+        return user;
+    }
+
+    private static List<String> toList(Iterator<String> ids) {
+
+        List<String> list = new ArrayList<>();
+        ids.forEachRemaining(list::add);
+        return list;
+    }
+
+    /**
+     * Writes of one of the concurrent threads.
+     */
+    interface Writer {
+
+        void write(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.charon3.utils.usermanager;
+
+import org.wso2.charon3.core.objects.Group;
+import org.wso2.charon3.core.objects.User;
+import org.wso2.charon3.core.objects.plainobjects.GroupMemberDelta;
+import org.wso2.charon3.core.schema.SCIMConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the provisioning write throughput of the in-memory user manager for a growing number of concurrent
+ * writers, with a single shard and with one shard per processor, to show how writes scale with the shards. It is
+ * not part of the test suite, run it with
+ * <pre>
+ * java -cp &lt;test classpath&gt; org.wso2.charon3.utils.usermanager.ShardedStoreBenchmark [threads...]
+ * </pre>
+ * Every writer creates users, updates them, adds them to one of a few groups and deletes them again, which also
+ * removes them from the group, so the groups stay small and the measured writes stay comparable.
+ */
+public class ShardedStoreBenchmark {
+
+    private static final int[] DEFAULT_THREADS = {1, 2, 4, 8, 16};
+    private static final int GROUPS = 16;
+    private static final long MEASURED_NANOS = 2_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+
+        int[] threadCounts = DEFAULT_THREADS;
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%8s %20s %20s %8s%n", "threads", "1 shard (writes/s)",
+                processors + " shards (writes/s)", "speedup");
+        for (int threads : threadCounts) {
+            // Warm up both stores before measuring them.
+            measure(1, threads);
+            measure(processors, threads);
+            double singleShard = measure(1, threads);
+            double sharded = measure(processors, threads);
+            System.out.printf("%8d %20.0f %20.0f %8.2f%n", threads, singleShard, sharded, sharded / singleShard);
+        }
+    }
+
+    /*
+     * Writes per second of the given number of writers, running for a fixed time against a new user manager.
+     */
+    private static double measure(int shardCount, int threads) throws Exception {
+
+        InMemoryUserManager userManager = new InMemoryUserManager(shardCount);
+        for (int i = 0; i < GROUPS; i++) {
+            Group group = new Group();
+            group.setId("group" + i);
+            group.replaceDisplayName("group" + i);
+            userManager.createGroup(group, new HashMap<>());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            List<Future<Long>> writers = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int writer = thread;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    long writes = 0;
+                    for (long i = 0; running.get(); i++) {
+                        writes += provision(userManager, writer + "." + i, (int) (i % GROUPS));
+                    }
+                    return writes;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            Thread.sleep(MEASURED_NANOS / 1_000_000);
+            running.set(false);
+            long writes = 0;
+            for (Future<Long> writer : writers) {
+                writes += writer.get();
+            }
+            return writes * 1e9 / (System.nanoTime() - startNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Provision and deprovision one user, and return the number of writes made.
+     */
+    private static int provision(InMemoryUserManager userManager, String id, int group) throws Exception {
+
+        User user = new User();
+        user.setId(id);
+        user.replaceUserName("user" + id);
+        userManager.createUser(user, new HashMap<>());
+        user.replaceDisplayName("User " + id);
+        userManager.updateUser(user, new HashMap<>());
+        userManager.patchGroupMembers(new GroupMemberDelta("group" + group, null,
+                Collections.singletonList(Collections.singletonMap(SCIMConstants.CommonSchemaConstants.VALUE, id)),
+                Collections.emptySet()), new HashMap<>());
+        userManager.deleteUser(id);
+        return 4;
+    }
+}